@@ -0,0 +1,220 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.utils.io;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded in-memory pipe between a producer thread (writing into {@link #getOutputStream()})
+ * and a consumer thread (reading from {@link #getInputStream()}).
+ * <p>
+ * Data is passed in chunks. The producer blocks when all chunks are in use, so memory
+ * consumption never exceeds {@code chunkSize * (maxChunks + 2)} bytes.
+ * Either side may {@link #abort(Throwable)} the pipe, in which case the other side gets an IOException
+ * instead of blocking forever.
+ */
+public class BoundedPipe {
+
+    private static final byte[] EOF_CHUNK = new byte[0];
+    private static final long POLL_TIMEOUT_MS = 100;
+
+    private final int chunkSize;
+    private final BlockingQueue<byte[]> queue;
+    private final PipeOutputStream outputStream = new PipeOutputStream();
+    private final PipeInputStream inputStream = new PipeInputStream();
+
+    private volatile Throwable abortReason;
+
+    public BoundedPipe(int chunkSize, int maxChunks) {
+        if (chunkSize <= 0 || maxChunks <= 0) {
+            throw new IllegalArgumentException("Bad pipe size: " + chunkSize + "x" + maxChunks);
+        }
+        this.chunkSize = chunkSize;
+        this.queue = new ArrayBlockingQueue<>(maxChunks);
+    }
+
+    @NotNull
+    public OutputStream getOutputStream() {
+        return outputStream;
+    }
+
+    @NotNull
+    public InputStream getInputStream() {
+        return inputStream;
+    }
+
+    /**
+     * Breaks the pipe. Pending and subsequent reads and writes fail with IOException.
+     */
+    public void abort(@Nullable Throwable reason) {
+        this.abortReason = reason == null ? new IOException("Pipe aborted") : reason;
+        queue.clear();
+    }
+
+    public boolean isAborted() {
+        return abortReason != null;
+    }
+
+    private void checkAborted() throws IOException {
+        Throwable reason = abortReason;
+        if (reason != null) {
+            throw reason instanceof IOException ? (IOException) reason : new IOException("Pipe aborted", reason);
+        }
+    }
+
+    private class PipeOutputStream extends OutputStream {
+        private byte[] buffer = new byte[chunkSize];
+        private int position;
+        private boolean closed;
+
+        @Override
+        public void write(int b) throws IOException {
+            if (position == buffer.length) {
+                sendBuffer();
+            }
+            buffer[position++] = (byte) b;
+        }
+
+        @Override
+        public void write(@NotNull byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (position == buffer.length) {
+                    sendBuffer();
+                }
+                int count = Math.min(len, buffer.length - position);
+                System.arraycopy(b, off, buffer, position, count);
+                position += count;
+                off += count;
+                len -= count;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (position > 0) {
+                sendBuffer();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            flush();
+            send(EOF_CHUNK);
+            closed = true;
+        }
+
+        private void sendBuffer() throws IOException {
+            byte[] chunk = position == buffer.length ? buffer : Arrays.copyOf(buffer, position);
+            send(chunk);
+            if (chunk == buffer) {
+                buffer = new byte[chunkSize];
+            }
+            position = 0;
+        }
+
+        private void send(byte[] chunk) throws IOException {
+            if (closed) {
+                throw new IOException("Pipe is closed");
+            }
+            try {
+                while (!queue.offer(chunk, POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    checkAborted();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Pipe write interrupted");
+            }
+            checkAborted();
+        }
+    }
+
+    private class PipeInputStream extends InputStream {
+        private byte[] chunk;
+        private int position;
+        private boolean eof;
+
+        @Override
+        public int read() throws IOException {
+            if (!nextChunk()) {
+                return -1;
+            }
+            return chunk[position++] & 0xff;
+        }
+
+        @Override
+        public int read(@NotNull byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!nextChunk()) {
+                return -1;
+            }
+            int count = Math.min(len, chunk.length - position);
+            System.arraycopy(chunk, position, b, off, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return chunk == null ? 0 : chunk.length - position;
+        }
+
+        @Override
+        public void close() {
+            eof = true;
+            chunk = null;
+        }
+
+        private boolean nextChunk() throws IOException {
+            while (!eof && (chunk == null || position >= chunk.length)) {
+                checkAborted();
+                try {
+                    byte[] next = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                    if (next == null) {
+                        continue;
+                    }
+                    if (next == EOF_CHUNK) {
+                        eof = true;
+                        chunk = null;
+                    } else {
+                        chunk = next;
+                        position = 0;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Pipe read interrupted");
+                }
+            }
+            return !eof;
+        }
+    }
+
+}
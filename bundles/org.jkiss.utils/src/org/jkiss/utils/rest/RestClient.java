@@ -21,14 +21,18 @@ import com.google.gson.JsonElement;
 import org.jkiss.code.NotNull;
 import org.jkiss.utils.BeanUtils;
 import org.jkiss.utils.CommonUtils;
+import org.jkiss.utils.IOUtils;
 
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.lang.reflect.*;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpRequest.BodyPublishers;
 import java.net.http.HttpResponse;
-import java.net.http.HttpResponse.BodySubscribers;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.ExecutorService;
@@ -99,6 +103,7 @@ public class RestClient {
             this.httpExecutor = Executors.newSingleThreadExecutor();
             this.client = HttpClient.newBuilder()
                 .executor(httpExecutor)
+                .version(HttpClient.Version.HTTP_1_1)
                 .build();
         }
 
@@ -153,42 +158,23 @@ public class RestClient {
                 url.append(uri);
                 if (url.charAt(url.length() - 1) != '/') url.append('/');
                 url.append(endpoint);
-                HttpResponse.BodyHandler<String> readerBodyHandler =
-                    info -> BodySubscribers.ofString(StandardCharsets.UTF_8);
-                String requestString = gson.toJson(values);
-System.out.println("REQUEST: " + requestString);
                 HttpRequest httpRequest = HttpRequest.newBuilder()
                     .uri(URI.create(url.toString()))
                     .header("Content-Type", "application/json")
-                    .POST(BodyPublishers.ofString(requestString))
+                    .POST(BodyPublishers.ofByteArray(gson.toJson(values).getBytes(StandardCharsets.UTF_8)))
                     .build();
-                final HttpResponse<String> response = client.send(
+                // Response is parsed while it is being received
+                final HttpResponse<InputStream> response = client.send(
                     httpRequest,
-                    readerBodyHandler
+                    HttpResponse.BodyHandlers.ofInputStream()
                 );
 
-                String contents = response.body();
-                if (response.statusCode() != RestConstants.SC_OK) {
-                    handleError(contents);
-                }
-
-                Type returnType = resultType.get();
-                if (returnType == null) {
-                    returnType = method.getReturnType();
-                } else {
-                    resultType.remove();
-                }
-                if (returnType == void.class) {
-                    return null;
-                }
-                if (returnType instanceof TypeVariable) {
-                    Type[] bounds = ((TypeVariable<?>) returnType).getBounds();
-                    if (bounds.length > 0) {
-                        returnType = bounds[0];
+                try (Reader contents = new BufferedReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+                    if (response.statusCode() != RestConstants.SC_OK) {
+                        handleError(IOUtils.readToString(contents));
                     }
+                    return readResult(method, contents);
                 }
-System.out.println("RESPONSE: " + contents);
-                return gson.fromJson(contents, returnType);
             } catch (RuntimeException e) {
                 throw e;
             } catch (Exception e) {
@@ -196,6 +182,25 @@ System.out.println("RESPONSE: " + contents);
             }
         }
 
+        private Object readResult(@NotNull Method method, @NotNull Reader contents) {
+            Type returnType = resultType.get();
+            if (returnType == null) {
+                returnType = method.getReturnType();
+            } else {
+                resultType.remove();
+            }
+            if (returnType == void.class) {
+                return null;
+            }
+            if (returnType instanceof TypeVariable) {
+                Type[] bounds = ((TypeVariable<?>) returnType).getBounds();
+                if (bounds.length > 0) {
+                    returnType = bounds[0];
+                }
+            }
+            return gson.fromJson(contents, returnType);
+        }
+
         private void closeClient() {
             if (!httpExecutor.isShutdown()) {
                 httpExecutor.shutdown();
@@ -43,8 +43,17 @@ import java.util.function.Predicate;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+/**
+ * REST server based on the JDK HTTP server.
+ * <p>
+ * The JDK server writes response headers and body separately. Without TCP_NODELAY the body waits for
+ * the delayed ACK of the client (~40ms per call), which dominates latency of small RPC calls.
+ * The JDK server reads its {@code sun.net.httpserver.nodelay} setting once per JVM, so it must be passed
+ * on the command line of the serving process ({@code -Dsun.net.httpserver.nodelay=true}).
+ */
 public class RestServer<T> {
     private static final Logger log = Logger.getLogger(RestServer.class.getName());
+
     private HttpServer server;
 
     public RestServer(
@@ -109,6 +118,7 @@ public class RestServer<T> {
 
     protected static class RequestHandler<T> implements HttpHandler {
         private static final Type REQUEST_TYPE = new TypeToken<Map<String, JsonElement>>() {}.getType();
+        private static final int BUFFER_SIZE = 8192;
 
         private final T object;
         private final Gson gson;
@@ -145,13 +155,18 @@ public class RestServer<T> {
                     responseObject = "Internal error";
                 }
                 if (response.code == RestConstants.SC_OK) {
-                    String responseText;
+                    byte[] responseBytes;
                     if (response.type == void.class) {
-                        responseText = CommonUtils.toString(response.object);
+                        responseBytes = CommonUtils.toString(response.object).getBytes(StandardCharsets.UTF_8);
                         exchange.getResponseHeaders().add("Content-Type", "text/plain");
                     } else {
                         try {
-                            responseText = gson.toJson(response.object, response.type);
+                            // Serialize directly into bytes, large results are not copied into an intermediate string
+                            ByteArrayOutputStream buffer = new ByteArrayOutputStream(BUFFER_SIZE);
+                            try (Writer writer = new OutputStreamWriter(buffer, StandardCharsets.UTF_8)) {
+                                gson.toJson(response.object, response.type, writer);
+                            }
+                            responseBytes = buffer.toByteArray();
                         } catch (Throwable e) {
                             // Serialization error
                             StringWriter buf = new StringWriter();
@@ -162,7 +177,6 @@ public class RestServer<T> {
                         }
                         exchange.getResponseHeaders().add("Content-Type", "application/json");
                     }
-                    byte[] responseBytes = responseText.getBytes(StandardCharsets.UTF_8);
 
                     exchange.sendResponseHeaders(RestConstants.SC_OK, responseBytes.length);
                     try (OutputStream responseBody = exchange.getResponseBody()) {
@@ -210,7 +224,7 @@ public class RestServer<T> {
 
             final Map<String, JsonElement> request;
 
-            try (Reader reader = new BufferedReader(new InputStreamReader(exchange.getRequestBody()))) {
+            try (Reader reader = new BufferedReader(new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8))) {
                 request = gson.fromJson(reader, REQUEST_TYPE);
             }
 
@@ -70,6 +70,8 @@ public class DesktopPreferencesInitializer extends AbstractPreferenceInitializer
         PrefUtils.setDefaultPreferenceValue(store, QMConstants.PROP_STORE_LOG_FILE, false);
         PrefUtils.setDefaultPreferenceValue(store, QMConstants.PROP_LOG_DIRECTORY,
             GeneralUtils.getMetadataFolder().toAbsolutePath().toString());
+        PrefUtils.setDefaultPreferenceValue(store, QMConstants.PROP_LOG_FORMAT, QMConstants.LOG_FORMAT_TEXT);
+        PrefUtils.setDefaultPreferenceValue(store, QMConstants.PROP_LOG_MAX_FILE_SIZE, QMConstants.DEFAULT_LOG_MAX_FILE_SIZE);
 
         // Logs
         PrefUtils.setDefaultPreferenceValue(store, DBeaverPreferences.LOGS_DEBUG_ENABLED, true);
@@ -25,6 +25,7 @@ import org.eclipse.swt.widgets.Combo;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Group;
+import org.eclipse.swt.widgets.Spinner;
 import org.jkiss.code.NotNull;
 import org.jkiss.dbeaver.ModelPreferences;
 import org.jkiss.dbeaver.ModelPreferences.SeparateConnectionBehavior;
@@ -47,6 +48,8 @@ public class PrefPageMetaData extends TargetPrefPage
     private Combo separateMetaConnectionCombo;
     private Button caseSensitiveNamesCheck;
     private Button serverSideFiltersCheck;
+    private Button metadataSnapshotCheck;
+    private Spinner metadataSnapshotMaxValuesSpinner;
 
     public PrefPageMetaData()
     {
@@ -61,7 +64,9 @@ public class PrefPageMetaData extends TargetPrefPage
             store.contains(ModelPreferences.READ_EXPENSIVE_PROPERTIES) ||
             store.contains(ModelPreferences.META_SEPARATE_CONNECTION) ||
             store.contains(ModelPreferences.META_CASE_SENSITIVE) ||
-            store.contains(ModelPreferences.META_USE_SERVER_SIDE_FILTERS)
+            store.contains(ModelPreferences.META_USE_SERVER_SIDE_FILTERS) ||
+            store.contains(ModelPreferences.META_SNAPSHOT_ENABLED) ||
+            store.contains(ModelPreferences.META_SNAPSHOT_MAX_VALUES)
             ;
     }
 
@@ -99,6 +104,15 @@ public class PrefPageMetaData extends TargetPrefPage
             caseSensitiveNamesCheck = UIUtils.createCheckbox(metadataGroup, CoreMessages.pref_page_database_general_checkbox_case_sensitive_names, CoreMessages.pref_page_database_general_checkbox_case_sensitive_names_tip, false, 1);
             readExpensiveCheck = UIUtils.createCheckbox(metadataGroup, CoreMessages.pref_page_database_general_checkbox_show_row_count, CoreMessages.pref_page_database_general_checkbox_show_row_count_tip, false, 1);
             serverSideFiltersCheck = UIUtils.createCheckbox(metadataGroup, CoreMessages.pref_page_database_general_server_side_object_filters, CoreMessages.pref_page_database_general_server_side_object_filters_tip, false, 1);
+            if (isDataSourcePreferencePage()) {
+                // Snapshot is not encrypted, so it can't be enabled for all connections at once
+                metadataSnapshotCheck = UIUtils.createCheckbox(metadataGroup, CoreMessages.pref_page_database_general_metadata_snapshot, CoreMessages.pref_page_database_general_metadata_snapshot_tip, false, 1);
+            }
+            metadataSnapshotMaxValuesSpinner = UIUtils.createLabelSpinner(
+                UIUtils.createComposite(metadataGroup, 2),
+                CoreMessages.pref_page_database_general_metadata_snapshot_max_values,
+                CoreMessages.pref_page_database_general_metadata_snapshot_max_values_tip,
+                0, 1, Integer.MAX_VALUE);
         }
 
         return composite;
@@ -114,6 +128,10 @@ public class PrefPageMetaData extends TargetPrefPage
             ));
             caseSensitiveNamesCheck.setSelection(store.getBoolean(ModelPreferences.META_CASE_SENSITIVE));
             serverSideFiltersCheck.setSelection(store.getBoolean(ModelPreferences.META_USE_SERVER_SIDE_FILTERS));
+            if (metadataSnapshotCheck != null) {
+                metadataSnapshotCheck.setSelection(store.getBoolean(ModelPreferences.META_SNAPSHOT_ENABLED));
+            }
+            metadataSnapshotMaxValuesSpinner.setSelection(store.getInt(ModelPreferences.META_SNAPSHOT_MAX_VALUES));
 
         } catch (Exception e) {
             log.warn(e);
@@ -131,6 +149,10 @@ public class PrefPageMetaData extends TargetPrefPage
             );
             store.setValue(ModelPreferences.META_CASE_SENSITIVE, caseSensitiveNamesCheck.getSelection());
             store.setValue(ModelPreferences.META_USE_SERVER_SIDE_FILTERS, serverSideFiltersCheck.getSelection());
+            if (metadataSnapshotCheck != null) {
+                store.setValue(ModelPreferences.META_SNAPSHOT_ENABLED, metadataSnapshotCheck.getSelection());
+            }
+            store.setValue(ModelPreferences.META_SNAPSHOT_MAX_VALUES, metadataSnapshotMaxValuesSpinner.getSelection());
 
         } catch (Exception e) {
             log.warn(e);
@@ -145,6 +167,8 @@ public class PrefPageMetaData extends TargetPrefPage
         store.setToDefault(ModelPreferences.META_SEPARATE_CONNECTION);
         store.setToDefault(ModelPreferences.META_CASE_SENSITIVE);
         store.setToDefault(ModelPreferences.META_USE_SERVER_SIDE_FILTERS);
+        store.setToDefault(ModelPreferences.META_SNAPSHOT_ENABLED);
+        store.setToDefault(ModelPreferences.META_SNAPSHOT_MAX_VALUES);
 
     }
 
@@ -61,6 +61,8 @@ public class PrefPageQueryManager extends AbstractPrefPage implements IWorkbench
     private Text textEntriesPerPage;
     private Button checkStoreLog;
     private Text textOutputFolder;
+    private Button checkJsonLogFormat;
+    private Text textMaxLogFileSize;
 
 
     @Override
@@ -109,10 +111,19 @@ public class PrefPageQueryManager extends AbstractPrefPage implements IWorkbench
                 {
                     UIUtils.enableWithChildren(textOutputFolder.getParent(), checkStoreLog.getSelection());
                     UIUtils.enableWithChildren(textHistoryDays, checkStoreLog.getSelection());
+                    UIUtils.enableWithChildren(textMaxLogFileSize, checkStoreLog.getSelection());
+                    checkJsonLogFormat.setEnabled(checkStoreLog.getSelection());
                 }
             });
             textOutputFolder = DialogUtils.createOutputFolderChooser(storageSettings, CoreMessages.pref_page_query_manager_logs_folder, null);
             textHistoryDays = UIUtils.createLabelText(storageSettings, CoreMessages.pref_page_query_manager_label_days_to_store_log, "", SWT.BORDER, new GridData(50, SWT.DEFAULT)); //$NON-NLS-2$
+            textMaxLogFileSize = UIUtils.createLabelText(storageSettings, CoreMessages.pref_page_query_manager_label_max_log_file_size, "", SWT.BORDER, new GridData(50, SWT.DEFAULT)); //$NON-NLS-2$
+            checkJsonLogFormat = UIUtils.createCheckbox(
+                storageSettings,
+                CoreMessages.pref_page_query_manager_checkbox_json_log_format,
+                CoreMessages.pref_page_query_manager_checkbox_json_log_format_tip,
+                false,
+                2);
 
             Control infoLabel = UIUtils.createInfoLabel(storageSettings, CoreMessages.pref_page_query_manager_log_file_hint);
             infoLabel.setLayoutData(new GridData(GridData.FILL, GridData.BEGINNING, true, false, 2, 1));
@@ -145,8 +156,12 @@ public class PrefPageQueryManager extends AbstractPrefPage implements IWorkbench
 
         checkStoreLog.setSelection(store.getBoolean(QMConstants.PROP_STORE_LOG_FILE));
         textOutputFolder.setText(store.getString(QMConstants.PROP_LOG_DIRECTORY));
+        textMaxLogFileSize.setText(String.valueOf(store.getLong(QMConstants.PROP_LOG_MAX_FILE_SIZE) / (1024 * 1024)));
+        checkJsonLogFormat.setSelection(QMConstants.LOG_FORMAT_JSON.equals(store.getString(QMConstants.PROP_LOG_FORMAT)));
         UIUtils.enableWithChildren(textOutputFolder.getParent(), checkStoreLog.getSelection());
         UIUtils.enableWithChildren(textHistoryDays, checkStoreLog.getSelection());
+        UIUtils.enableWithChildren(textMaxLogFileSize, checkStoreLog.getSelection());
+        checkJsonLogFormat.setEnabled(checkStoreLog.getSelection());
 
         super.performDefaults();
     }
@@ -169,6 +184,7 @@ public class PrefPageQueryManager extends AbstractPrefPage implements IWorkbench
 
         Integer historyDays = UIUtils.getTextInteger(textHistoryDays);
         Integer entriesPerPage = UIUtils.getTextInteger(textEntriesPerPage);
+        Integer maxLogFileSize = UIUtils.getTextInteger(textMaxLogFileSize);
 
         DBPPreferenceStore store = DBWorkbench.getPlatform().getPreferenceStore();
         store.setValue(QMConstants.PROP_OBJECT_TYPES, QMObjectType.toString(objectTypes));
@@ -181,6 +197,10 @@ public class PrefPageQueryManager extends AbstractPrefPage implements IWorkbench
         }
         store.setValue(QMConstants.PROP_STORE_LOG_FILE, checkStoreLog.getSelection());
         store.setValue(QMConstants.PROP_LOG_DIRECTORY, textOutputFolder.getText());
+        store.setValue(QMConstants.PROP_LOG_FORMAT, checkJsonLogFormat.getSelection() ? QMConstants.LOG_FORMAT_JSON : QMConstants.LOG_FORMAT_TEXT);
+        if (maxLogFileSize != null) {
+            store.setValue(QMConstants.PROP_LOG_MAX_FILE_SIZE, Math.max(1, maxLogFileSize) * 1024L * 1024L);
+        }
         PrefUtils.savePreferenceStore(store);
 
         return super.performOk();
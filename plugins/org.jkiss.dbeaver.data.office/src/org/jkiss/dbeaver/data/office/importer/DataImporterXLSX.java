@@ -0,0 +1,211 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.data.office.importer;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.DBFetchProgress;
+import org.jkiss.dbeaver.model.DBPDataKind;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.exec.DBCExecutionContext;
+import org.jkiss.dbeaver.model.exec.DBCExecutionPurpose;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.impl.local.LocalStatement;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.tools.transfer.IDataTransferConsumer;
+import org.jkiss.dbeaver.tools.transfer.database.DatabaseTransferUtils;
+import org.jkiss.dbeaver.tools.transfer.stream.IStreamDataImporterSite;
+import org.jkiss.dbeaver.tools.transfer.stream.StreamDataImporterColumnInfo;
+import org.jkiss.dbeaver.tools.transfer.stream.StreamEntityMapping;
+import org.jkiss.dbeaver.tools.transfer.stream.StreamTransferResultSet;
+import org.jkiss.dbeaver.tools.transfer.stream.importer.StreamImporterAbstract;
+import org.jkiss.utils.CommonUtils;
+import org.jkiss.utils.Pair;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * XLSX importer.
+ * <p>
+ * Sheet is read with POI event API, one row at a time, so memory consumption doesn't depend on the number of rows.
+ * Workbook is read directly from the input file (OOXML is a zip archive and needs random access).
+ */
+public class DataImporterXLSX extends StreamImporterAbstract {
+    private static final Log log = Log.getLog(DataImporterXLSX.class);
+
+    private static final String PROP_SHEET = "sheet";
+    private static final String PROP_HEADER_ROW = "headerRow";
+    private static final String PROP_EMPTY_STRING_NULL = "emptyStringNull";
+
+    public DataImporterXLSX() {
+    }
+
+    @NotNull
+    @Override
+    public List<StreamDataImporterColumnInfo> readColumnsInfo(StreamEntityMapping entityMapping, @NotNull InputStream inputStream) throws DBException {
+        Map<String, Object> processorProperties = getSite().getProcessorProperties();
+        final String sheet = CommonUtils.toString(processorProperties.get(PROP_SHEET));
+        final int headerRow = Math.max(CommonUtils.toInt(processorProperties.get(PROP_HEADER_ROW), 1), 0);
+        final int columnSamplesCount = Math.max(CommonUtils.toInt(processorProperties.get(PROP_COLUMN_TYPE_SAMPLES), 100), 0);
+        final int columnMinimalLength = Math.max(CommonUtils.toInt(processorProperties.get(PROP_COLUMN_TYPE_LENGTH), 1), 1);
+
+        List<StreamDataImporterColumnInfo> columnsInfo = new ArrayList<>();
+        int[] samples = new int[1];
+        try (XLSXSheetReader reader = new XLSXSheetReader(entityMapping.getInputFile())) {
+            reader.readSheet(sheet, (rowNumber, values) -> {
+                if (rowNumber < headerRow) {
+                    return true;
+                }
+                if (rowNumber == headerRow) {
+                    for (Object value : values) {
+                        String column = value == null ? null : DBUtils.getUnQuotedIdentifier(entityMapping.getDataSource(), value.toString());
+                        addColumn(entityMapping, columnsInfo, column, columnMinimalLength, true);
+                    }
+                    return true;
+                }
+                if (isEmptyRow(values)) {
+                    return true;
+                }
+                if (samples[0]++ >= columnSamplesCount) {
+                    return false;
+                }
+                for (int i = 0; i < values.length; i++) {
+                    if (i >= columnsInfo.size()) {
+                        // Row is wider than header
+                        addColumn(entityMapping, columnsInfo, null, columnMinimalLength, false);
+                    }
+                    Object value = values[i];
+                    if (value == null) {
+                        continue;
+                    }
+                    StreamDataImporterColumnInfo columnInfo = columnsInfo.get(i);
+                    if (value instanceof String) {
+                        columnInfo.updateMaxLength(((String) value).length());
+                        columnInfo.updateType(DBPDataKind.STRING, "VARCHAR");
+                    } else if (value instanceof Date) {
+                        columnInfo.updateType(DBPDataKind.DATETIME, "TIMESTAMP");
+                    } else {
+                        // Numbers and booleans
+                        Pair<DBPDataKind, String> dataType = DatabaseTransferUtils.getDataType(value.toString());
+                        if (dataType.getSecond() != null) {
+                            columnInfo.updateType(dataType.getFirst(), dataType.getSecond());
+                        }
+                    }
+                }
+                return true;
+            });
+        }
+
+        for (StreamDataImporterColumnInfo columnInfo : columnsInfo) {
+            if (columnInfo.getDataKind() == DBPDataKind.UNKNOWN) {
+                log.warn("Cannot guess data type for column '" + columnInfo.getName() + "', defaulting to VARCHAR");
+                columnInfo.updateType(DBPDataKind.STRING, "VARCHAR");
+            }
+        }
+        return columnsInfo;
+    }
+
+    @Override
+    public void runImport(@NotNull DBRProgressMonitor monitor, @NotNull DBPDataSource streamDataSource, @NotNull InputStream inputStream, @NotNull IDataTransferConsumer consumer) throws DBException {
+        IStreamDataImporterSite site = getSite();
+        StreamEntityMapping entityMapping = site.getSourceObject();
+        Map<String, Object> properties = site.getProcessorProperties();
+        final String sheet = CommonUtils.toString(properties.get(PROP_SHEET));
+        final int headerRow = Math.max(CommonUtils.toInt(properties.get(PROP_HEADER_ROW), 1), 0);
+        final boolean emptyStringNull = CommonUtils.getBoolean(properties.get(PROP_EMPTY_STRING_NULL), false);
+
+        DBCExecutionContext context = streamDataSource.getDefaultInstance().getDefaultContext(monitor, false);
+        try (DBCSession producerSession = context.openSession(monitor, DBCExecutionPurpose.UTIL, "Transfer stream data")) {
+            LocalStatement localStatement = new LocalStatement(producerSession, "SELECT * FROM Stream");
+            StreamTransferResultSet resultSet = new StreamTransferResultSet(producerSession, localStatement, entityMapping);
+
+            consumer.fetchStart(producerSession, resultSet, -1, -1);
+
+            applyTransformHints(resultSet, consumer, properties, PROP_TIMESTAMP_FORMAT, PROP_TIMESTAMP_ZONE);
+
+            try (XLSXSheetReader reader = new XLSXSheetReader(entityMapping.getInputFile())) {
+                int maxRows = site.getSettings().getMaxRows();
+                int targetAttrSize = entityMapping.getStreamColumns().size();
+                long[] rowCount = new long[1];
+                reader.readSheet(sheet, (rowNumber, values) -> {
+                    if (monitor.isCanceled() || (maxRows > 0 && rowCount[0] >= maxRows)) {
+                        return false;
+                    }
+                    if (rowNumber <= headerRow || isEmptyRow(values)) {
+                        return true;
+                    }
+                    Object[] row = new Object[targetAttrSize];
+                    System.arraycopy(values, 0, row, 0, Math.min(values.length, targetAttrSize));
+                    if (emptyStringNull) {
+                        for (int i = 0; i < row.length; i++) {
+                            if ("".equals(row[i])) {
+                                row[i] = null;
+                            }
+                        }
+                    }
+
+                    resultSet.setStreamRow(row);
+                    consumer.fetchRow(producerSession, resultSet);
+                    rowCount[0]++;
+
+                    if (DBFetchProgress.monitorFetchProgress(rowCount[0])) {
+                        monitor.subTask(Long.toUnsignedString(rowCount[0]) + " rows processed");
+                    }
+                    return true;
+                });
+            } finally {
+                try {
+                    consumer.fetchEnd(producerSession, resultSet);
+                } finally {
+                    consumer.close();
+                }
+            }
+        }
+    }
+
+    private static void addColumn(
+        @NotNull StreamEntityMapping entityMapping,
+        @NotNull List<StreamDataImporterColumnInfo> columnsInfo,
+        String name,
+        int minimalLength,
+        boolean fromHeader)
+    {
+        int index = columnsInfo.size();
+        if (CommonUtils.isEmptyTrimmed(name)) {
+            name = "Column" + (index + 1);
+        }
+        StreamDataImporterColumnInfo columnInfo = new StreamDataImporterColumnInfo(entityMapping, index, name, null, minimalLength, DBPDataKind.UNKNOWN);
+        columnInfo.setMappingMetadataPresent(fromHeader);
+        columnsInfo.add(columnInfo);
+    }
+
+    private static boolean isEmptyRow(@NotNull Object[] values) {
+        for (Object value : values) {
+            if (value != null && !"".equals(value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,340 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.data.office.importer;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.BuiltinFormats;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.utils.CommonUtils;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+/**
+ * Reads XLSX sheet rows with SAX parser, one row at a time.
+ * <p>
+ * Only shared strings table and cell styles are kept in memory, sheet data is never loaded as a whole.
+ * Cell values are returned as String, Boolean, Long, Double or Timestamp (for date formatted numeric cells).
+ */
+class XLSXSheetReader implements AutoCloseable {
+
+    interface RowHandler {
+        /**
+         * Handles sheet row. Row number is 1-based.
+         * Returns false to stop reading.
+         */
+        boolean handleRow(int rowNumber, @NotNull Object[] values) throws DBException;
+    }
+
+    private final OPCPackage xlsxPackage;
+    private final XSSFReader xssfReader;
+    private final ReadOnlySharedStringsTable sharedStrings;
+    @Nullable
+    private final StylesTable styles;
+    private final Map<Integer, Boolean> dateStyles = new HashMap<>();
+    private boolean date1904;
+
+    XLSXSheetReader(@NotNull File file) throws DBException {
+        try {
+            xlsxPackage = OPCPackage.open(file, PackageAccess.READ);
+        } catch (Exception e) {
+            throw new DBException("Error opening XLSX file '" + file.getAbsolutePath() + "'", e);
+        }
+        try {
+            xssfReader = new XSSFReader(xlsxPackage);
+            // Phonetic runs are skipped the same way as in inline strings
+            sharedStrings = new ReadOnlySharedStringsTable(xlsxPackage, false);
+            styles = xssfReader.getStylesTable();
+            try (InputStream workbookData = xssfReader.getWorkbookData()) {
+                readWorkbookProperties(workbookData);
+            }
+        } catch (Exception e) {
+            xlsxPackage.revert();
+            throw new DBException("Error reading XLSX workbook '" + file.getAbsolutePath() + "'", e);
+        }
+    }
+
+    /**
+     * Reads sheet rows. Sheet is specified by name or by 1-based number, empty sheet means the first one.
+     */
+    void readSheet(@Nullable String sheet, @NotNull RowHandler handler) throws DBException {
+        try {
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
+            List<String> sheetNames = new ArrayList<>();
+            while (sheets.hasNext()) {
+                try (InputStream sheetData = sheets.next()) {
+                    sheetNames.add(sheets.getSheetName());
+                    if (CommonUtils.isEmpty(sheet) ||
+                        sheet.equalsIgnoreCase(sheets.getSheetName()) ||
+                        sheet.equals(String.valueOf(sheetNames.size())))
+                    {
+                        parseSheet(sheetData, handler);
+                        return;
+                    }
+                }
+            }
+            throw new DBException("Sheet '" + sheet + "' not found. Available sheets: " + String.join(", ", sheetNames));
+        } catch (IOException | OpenXML4JException e) {
+            throw new DBException("Error reading XLSX sheet", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        // Package is opened read-only, there is nothing to save
+        xlsxPackage.revert();
+    }
+
+    private void parseSheet(@NotNull InputStream sheetData, @NotNull RowHandler handler) throws DBException, IOException {
+        SheetHandler sheetHandler = new SheetHandler(handler);
+        try {
+            XMLReader parser = XMLHelper.newXMLReader();
+            parser.setContentHandler(sheetHandler);
+            parser.parse(new InputSource(sheetData));
+        } catch (StopReadingException e) {
+            if (e.error != null) {
+                throw e.error;
+            }
+        } catch (SAXException | ParserConfigurationException e) {
+            throw new DBException("Error parsing XLSX sheet", e);
+        }
+    }
+
+    private void readWorkbookProperties(@NotNull InputStream workbookData) throws IOException, SAXException, ParserConfigurationException {
+        XMLReader parser = XMLHelper.newXMLReader();
+        parser.setContentHandler(new DefaultHandler() {
+            @Override
+            public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+                if ("workbookPr".equals(getName(localName, qName))) {
+                    String value = attributes.getValue("date1904");
+                    date1904 = "1".equals(value) || "true".equalsIgnoreCase(value);
+                    throw new StopReadingException(null);
+                }
+            }
+        });
+        try {
+            parser.parse(new InputSource(workbookData));
+        } catch (StopReadingException e) {
+            // Workbook properties found
+        }
+    }
+
+    private boolean isDateStyle(int styleIndex) {
+        if (styles == null) {
+            return false;
+        }
+        return dateStyles.computeIfAbsent(styleIndex, index -> {
+            XSSFCellStyle style = styles.getStyleAt(index);
+            if (style == null) {
+                return false;
+            }
+            int formatIndex = style.getDataFormat();
+            String formatString = style.getDataFormatString();
+            if (formatString == null) {
+                formatString = BuiltinFormats.getBuiltinFormat(formatIndex);
+            }
+            return formatString != null && DateUtil.isADateFormat(formatIndex, formatString);
+        });
+    }
+
+    @Nullable
+    private Object getCellValue(@Nullable String cellType, int styleIndex, @NotNull String text) {
+        if (cellType == null) {
+            cellType = "n";
+        }
+        switch (cellType) {
+            case "s":
+                if (text.isEmpty()) {
+                    return null;
+                }
+                return sharedStrings.getItemAt(Integer.parseInt(text.trim())).getString();
+            case "inlineStr":
+            case "str":
+                return text;
+            case "b":
+                return "1".equals(text.trim()) || "true".equalsIgnoreCase(text.trim());
+            case "e":
+                // Error value (#DIV/0!, #N/A, etc)
+                return null;
+            case "d":
+                try {
+                    return text.length() <= 10 ?
+                        Timestamp.valueOf(LocalDate.parse(text).atStartOfDay()) :
+                        Timestamp.valueOf(LocalDateTime.parse(text));
+                } catch (DateTimeParseException e) {
+                    return text;
+                }
+            default: {
+                if (text.isEmpty()) {
+                    return null;
+                }
+                double value = Double.parseDouble(text);
+                if (isDateStyle(styleIndex) && DateUtil.isValidExcelDate(value)) {
+                    return Timestamp.valueOf(DateUtil.getLocalDateTime(value, date1904));
+                }
+                if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+                    return (long) value;
+                }
+                return value;
+            }
+        }
+    }
+
+    @NotNull
+    private static String getName(@NotNull String localName, @NotNull String qName) {
+        return localName.isEmpty() ? qName : localName;
+    }
+
+    /**
+     * Parses cell column index from the cell reference (e.g. AB12)
+     */
+    private static int getColumnIndex(@NotNull String cellRef) {
+        int column = 0;
+        for (int i = 0; i < cellRef.length(); i++) {
+            char c = cellRef.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                break;
+            }
+            column = column * 26 + (c - 'A' + 1);
+        }
+        return column - 1;
+    }
+
+    private class SheetHandler extends DefaultHandler {
+        private final RowHandler rowHandler;
+        private final List<Object> rowValues = new ArrayList<>();
+        private final StringBuilder text = new StringBuilder();
+        private int rowNumber;
+        private int column;
+        private String cellType;
+        private int styleIndex;
+        private boolean inValue;
+        private boolean inPhonetic;
+
+        SheetHandler(@NotNull RowHandler rowHandler) {
+            this.rowHandler = rowHandler;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (getName(localName, qName)) {
+                case "row": {
+                    String rowRef = attributes.getValue("r");
+                    rowNumber = rowRef == null ? rowNumber + 1 : Integer.parseInt(rowRef);
+                    rowValues.clear();
+                    column = -1;
+                    break;
+                }
+                case "c": {
+                    String cellRef = attributes.getValue("r");
+                    column = cellRef == null ? column + 1 : getColumnIndex(cellRef);
+                    cellType = attributes.getValue("t");
+                    styleIndex = CommonUtils.toInt(attributes.getValue("s"), 0);
+                    text.setLength(0);
+                    break;
+                }
+                case "v":
+                    inValue = true;
+                    break;
+                case "t":
+                    // Inline string text
+                    inValue = !inPhonetic;
+                    break;
+                case "rPh":
+                    inPhonetic = true;
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            switch (getName(localName, qName)) {
+                case "v":
+                case "t":
+                    inValue = false;
+                    break;
+                case "rPh":
+                    inPhonetic = false;
+                    break;
+                case "c": {
+                    Object value = getCellValue(cellType, styleIndex, text.toString());
+                    if (value != null && column >= 0) {
+                        while (rowValues.size() <= column) {
+                            rowValues.add(null);
+                        }
+                        rowValues.set(column, value);
+                    }
+                    break;
+                }
+                case "row":
+                    try {
+                        if (!rowHandler.handleRow(rowNumber, rowValues.toArray())) {
+                            throw new StopReadingException(null);
+                        }
+                    } catch (DBException e) {
+                        throw new StopReadingException(e);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inValue) {
+                text.append(ch, start, length);
+            }
+        }
+    }
+
+    /**
+     * Stops SAX parsing. Carries row handler error if any.
+     */
+    private static class StopReadingException extends SAXException {
+        private final DBException error;
+
+        StopReadingException(@Nullable DBException error) {
+            this.error = error;
+        }
+    }
+
+}
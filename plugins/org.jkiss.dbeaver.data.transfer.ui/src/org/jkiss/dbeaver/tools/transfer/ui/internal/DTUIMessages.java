@@ -63,6 +63,16 @@ public class DTUIMessages extends NLS {
 	public static String database_consumer_wizard_ignore_duplicate_rows_tip;
 	public static String database_consumer_wizard_use_bulk_load_label;
 	public static String database_consumer_wizard_use_bulk_load_description;
+	public static String database_consumer_wizard_bulk_load_stream_rows_label;
+	public static String database_consumer_wizard_bulk_load_stream_rows_description;
+	public static String database_consumer_wizard_bulk_load_binary_format_label;
+	public static String database_consumer_wizard_bulk_load_binary_format_description;
+	public static String database_consumer_wizard_bulk_load_chunk_size_label;
+	public static String database_consumer_wizard_bulk_load_chunk_size_description;
+	public static String database_consumer_wizard_bulk_load_table_lock_label;
+	public static String database_consumer_wizard_bulk_load_table_lock_description;
+	public static String database_consumer_wizard_bulk_load_keep_nulls_label;
+	public static String database_consumer_wizard_bulk_load_keep_nulls_description;
 	public static String database_consumer_wizard_on_duplicate_key_insert_method_text;
 	public static String database_consumer_wizard_link_label_replace_method_wiki;
 	public static String database_consumer_wizard_label_replace_method_not_supported;
@@ -103,8 +113,10 @@ public class DTUIMessages extends NLS {
 	public static String database_producer_page_extract_settings_threads_num_text_tooltip;
 	public static String database_producer_page_extract_settings_new_connection_checkbox_tooltip;
 	public static String database_producer_page_extract_settings_row_count_checkbox_tooltip;
+	public static String database_producer_page_extract_settings_pipelined_checkbox_tooltip;
 	public static String database_producer_page_extract_settings_text_fetch_size_label;
 	public static String database_producer_page_extract_settings_text_fetch_size_tooltip;
+	public static String database_producer_page_extract_settings_split_ranges_tooltip;
 
 	public static String database_producer_page_input_objects_name;
 	public static String database_producer_page_input_objects_title;
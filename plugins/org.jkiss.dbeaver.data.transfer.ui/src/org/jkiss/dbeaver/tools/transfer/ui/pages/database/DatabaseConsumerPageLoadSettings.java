@@ -73,6 +73,11 @@ public class DatabaseConsumerPageLoadSettings extends DataTransferPageNodeSettin
     private Button useBatchCheck;
     private Button ignoreDuplicateRows;
     private Button useBulkLoadCheck;
+    private Button bulkLoadStreamRowsCheck;
+    private Button bulkLoadBinaryFormatCheck;
+    private Text bulkLoadChunkSizeText;
+    private Button bulkLoadTableLockCheck;
+    private Button bulkLoadKeepNullsCheck;
     private List<SQLInsertReplaceMethodDescriptor> availableInsertMethodsDescriptors;
     private final Map<String, EventProcessorComposite<?>> processors = new HashMap<>();
 
@@ -345,13 +350,93 @@ public class DatabaseConsumerPageLoadSettings extends DataTransferPageNodeSettin
                         }
                     }
                     onDuplicateKeyInsertMethods.setEnabled(!checkSelection);
+                    updateBulkLoadOptionsEnablement();
                 }
             });
+
+            bulkLoadStreamRowsCheck = UIUtils.createCheckbox(
+                performanceSettings,
+                DTUIMessages.database_consumer_wizard_bulk_load_stream_rows_label,
+                DTUIMessages.database_consumer_wizard_bulk_load_stream_rows_description,
+                settings.isBulkLoadStreamRows(),
+                2);
+            bulkLoadStreamRowsCheck.addSelectionListener(new SelectionAdapter() {
+                @Override
+                public void widgetSelected(SelectionEvent e) {
+                    settings.setBulkLoadStreamRows(bulkLoadStreamRowsCheck.getSelection());
+                }
+            });
+            bulkLoadBinaryFormatCheck = UIUtils.createCheckbox(
+                performanceSettings,
+                DTUIMessages.database_consumer_wizard_bulk_load_binary_format_label,
+                DTUIMessages.database_consumer_wizard_bulk_load_binary_format_description,
+                settings.isBulkLoadBinaryFormat(),
+                2);
+            bulkLoadBinaryFormatCheck.addSelectionListener(new SelectionAdapter() {
+                @Override
+                public void widgetSelected(SelectionEvent e) {
+                    settings.setBulkLoadBinaryFormat(bulkLoadBinaryFormatCheck.getSelection());
+                }
+            });
+            bulkLoadTableLockCheck = UIUtils.createCheckbox(
+                performanceSettings,
+                DTUIMessages.database_consumer_wizard_bulk_load_table_lock_label,
+                DTUIMessages.database_consumer_wizard_bulk_load_table_lock_description,
+                settings.isBulkLoadTableLock(),
+                2);
+            bulkLoadTableLockCheck.addSelectionListener(new SelectionAdapter() {
+                @Override
+                public void widgetSelected(SelectionEvent e) {
+                    settings.setBulkLoadTableLock(bulkLoadTableLockCheck.getSelection());
+                }
+            });
+            bulkLoadKeepNullsCheck = UIUtils.createCheckbox(
+                performanceSettings,
+                DTUIMessages.database_consumer_wizard_bulk_load_keep_nulls_label,
+                DTUIMessages.database_consumer_wizard_bulk_load_keep_nulls_description,
+                settings.isBulkLoadKeepNulls(),
+                2);
+            bulkLoadKeepNullsCheck.addSelectionListener(new SelectionAdapter() {
+                @Override
+                public void widgetSelected(SelectionEvent e) {
+                    settings.setBulkLoadKeepNulls(bulkLoadKeepNullsCheck.getSelection());
+                }
+            });
+            bulkLoadChunkSizeText = UIUtils.createLabelText(
+                performanceSettings,
+                DTUIMessages.database_consumer_wizard_bulk_load_chunk_size_label,
+                String.valueOf(settings.getBulkLoadChunkSize()),
+                SWT.BORDER);
+            bulkLoadChunkSizeText.setToolTipText(DTUIMessages.database_consumer_wizard_bulk_load_chunk_size_description);
+            bulkLoadChunkSizeText.addModifyListener(e -> settings.setBulkLoadChunkSize(CommonUtils.toInt(bulkLoadChunkSizeText.getText())));
+            gd = new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING, GridData.VERTICAL_ALIGN_BEGINNING, false, false, 3, 1);
+            gd.widthHint = UIUtils.getFontHeight(bulkLoadChunkSizeText) * 6;
+            bulkLoadChunkSizeText.setLayoutData(gd);
+            updateBulkLoadOptionsEnablement();
         }
 
         setControl(composite);
     }
 
+    private void updateBulkLoadOptionsEnablement() {
+        boolean bulkLoadEnabled = buttonIsAvailable(useBulkLoadCheck) && useBulkLoadCheck.getSelection();
+        if (buttonIsAvailable(bulkLoadStreamRowsCheck)) {
+            bulkLoadStreamRowsCheck.setEnabled(bulkLoadEnabled);
+        }
+        if (buttonIsAvailable(bulkLoadBinaryFormatCheck)) {
+            bulkLoadBinaryFormatCheck.setEnabled(bulkLoadEnabled);
+        }
+        if (buttonIsAvailable(bulkLoadTableLockCheck)) {
+            bulkLoadTableLockCheck.setEnabled(bulkLoadEnabled);
+        }
+        if (buttonIsAvailable(bulkLoadKeepNullsCheck)) {
+            bulkLoadKeepNullsCheck.setEnabled(bulkLoadEnabled);
+        }
+        if (bulkLoadChunkSizeText != null && !bulkLoadChunkSizeText.isDisposed()) {
+            bulkLoadChunkSizeText.setEnabled(bulkLoadEnabled);
+        }
+    }
+
     private boolean buttonIsAvailable(Button button) {
         return button != null && !button.isDisposed();
     }
@@ -437,6 +522,7 @@ public class DatabaseConsumerPageLoadSettings extends DataTransferPageNodeSettin
                 disableButton(useBulkLoadCheck);
                 settings.setUseBulkLoad(false);
             }
+            updateBulkLoadOptionsEnablement();
         }
 
         loadInsertMethods();
@@ -50,9 +50,11 @@ public class DatabaseProducerPageExtractSettings extends DataTransferPageNodeSet
     private Text segmentSizeText;
     private Button newConnectionCheckbox;
     private Button rowCountCheckbox;
+    private Button pipelinedCheckbox;
     private Button selectedColumnsOnlyCheckbox;
     private Button selectedRowsOnlyCheckbox;
     private Text fetchSizeText;
+    private Text splitRangeCountText;
 
     public DatabaseProducerPageExtractSettings() {
         super(DTUIMessages.database_producer_page_extract_settings_name_and_title);
@@ -138,6 +140,14 @@ public class DatabaseProducerPageExtractSettings extends DataTransferPageNodeSet
                 }
             });
 
+            pipelinedCheckbox = UIUtils.createCheckbox(generalSettings, DTMessages.data_transfer_wizard_output_checkbox_pipelined, DTUIMessages.database_producer_page_extract_settings_pipelined_checkbox_tooltip, false, 4);
+            pipelinedCheckbox.addSelectionListener(new SelectionAdapter() {
+                @Override
+                public void widgetSelected(SelectionEvent e) {
+                    settings.setPipelined(pipelinedCheckbox.getSelection());
+                }
+            });
+
             fetchSizeText = UIUtils.createLabelText(generalSettings, DTUIMessages.database_producer_page_extract_settings_text_fetch_size_label, "", SWT.BORDER);
             fetchSizeText.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING));
             ((GridData)fetchSizeText.getLayoutData()).widthHint = UIUtils.getFontHeight(fetchSizeText) * 10;
@@ -147,6 +157,15 @@ public class DatabaseProducerPageExtractSettings extends DataTransferPageNodeSet
                 settings.setFetchSize(Integer.parseInt(fetchSizeText.getText()));
             });
 
+            splitRangeCountText = UIUtils.createLabelText(generalSettings, DTMessages.data_transfer_wizard_output_label_split_ranges, "", SWT.BORDER);
+            splitRangeCountText.setLayoutData(new GridData(GridData.HORIZONTAL_ALIGN_BEGINNING));
+            ((GridData)splitRangeCountText.getLayoutData()).widthHint = UIUtils.getFontHeight(splitRangeCountText) * 10;
+            splitRangeCountText.setToolTipText(DTUIMessages.database_producer_page_extract_settings_split_ranges_tooltip);
+            splitRangeCountText.addVerifyListener(UIUtils.getIntegerVerifyListener(Locale.ENGLISH));
+            splitRangeCountText.addModifyListener(e -> {
+                settings.setSplitRangeCount(CommonUtils.toInt(splitRangeCountText.getText(), 1));
+            });
+
             IStructuredSelection curSelection = getWizard().getCurrentSelection();
             boolean hasSelection = curSelection != null && !curSelection.isEmpty() && curSelection.getFirstElement() instanceof DBDCellValue;
 
@@ -229,6 +248,7 @@ public class DatabaseProducerPageExtractSettings extends DataTransferPageNodeSet
         threadsNumText.setText(String.valueOf(getWizard().getSettings().getMaxJobCount()));
         newConnectionCheckbox.setSelection(settings.isOpenNewConnections());
         rowCountCheckbox.setSelection(settings.isQueryRowCount());
+        pipelinedCheckbox.setSelection(settings.isPipelined());
 
         if (segmentSizeText != null) {
             segmentSizeText.setText(String.valueOf(settings.getSegmentSize()));
@@ -238,6 +258,7 @@ public class DatabaseProducerPageExtractSettings extends DataTransferPageNodeSet
             }
         }
         fetchSizeText.setText(String.valueOf(settings.getFetchSize()));
+        splitRangeCountText.setText(String.valueOf(settings.getSplitRangeCount()));
         if (selectedColumnsOnlyCheckbox != null) {
             selectedColumnsOnlyCheckbox.setSelection(settings.isSelectedColumnsOnly());
         }
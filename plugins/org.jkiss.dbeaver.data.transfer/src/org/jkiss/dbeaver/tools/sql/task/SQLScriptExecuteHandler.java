@@ -16,31 +16,43 @@
  */
 package org.jkiss.dbeaver.tools.sql.task;
 
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.runtime.IPath;
 import org.jkiss.code.NotNull;
 import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.model.DBPDataSource;
 import org.jkiss.dbeaver.model.DBPDataSourceContainer;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.app.DBPProject;
 import org.jkiss.dbeaver.model.exec.DBCExecutionContext;
 import org.jkiss.dbeaver.model.exec.DBCExecutionContextDefaults;
 import org.jkiss.dbeaver.model.exec.DBCStatistics;
+import org.jkiss.dbeaver.model.rm.RMController;
+import org.jkiss.dbeaver.model.rm.RMControllerProvider;
+import org.jkiss.dbeaver.model.rm.RMResource;
 import org.jkiss.dbeaver.model.rm.RMUtils;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.runtime.DBRRunnableContext;
 import org.jkiss.dbeaver.model.sql.SQLScriptCommitType;
 import org.jkiss.dbeaver.model.sql.SQLScriptContext;
-import org.jkiss.dbeaver.model.sql.SQLScriptElement;
 import org.jkiss.dbeaver.model.sql.SQLScriptErrorHandling;
 import org.jkiss.dbeaver.model.sql.exec.SQLScriptProcessor;
-import org.jkiss.dbeaver.model.sql.parser.SQLScriptParser;
+import org.jkiss.dbeaver.model.sql.parser.SQLScriptStreamParser;
 import org.jkiss.dbeaver.model.struct.rdb.DBSCatalog;
 import org.jkiss.dbeaver.model.struct.rdb.DBSSchema;
 import org.jkiss.dbeaver.model.task.*;
 import org.jkiss.dbeaver.tools.sql.SQLScriptExecuteSettings;
+import org.jkiss.utils.ArrayUtils;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintStream;
 import java.io.PrintWriter;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Locale;
 
@@ -100,7 +112,6 @@ public class SQLScriptExecuteHandler implements DBTTaskHandler {
         for (String filePath : settings.getScriptFiles()) {
             try {
                 for (DBPDataSourceContainer dataSourceContainer : dataSources) {
-                    var sqlScriptContent = RMUtils.readScriptContents(task.getProject(), filePath);
                     if (!dataSourceContainer.isConnected()) {
                         dataSourceContainer.connect(monitor, true, true);
                     }
@@ -123,7 +134,9 @@ public class SQLScriptExecuteHandler implements DBTTaskHandler {
                         }
                     }
 
-                    processScript(monitor, task, settings, executionContext, filePath, sqlScriptContent, log, logStream);
+                    try (SQLScriptStreamParser scriptParser = openScriptParser(task.getProject(), filePath, dataSource)) {
+                        processScript(monitor, task, settings, executionContext, scriptParser, log, logStream);
+                    }
                 }
             } catch (Throwable e) {
                 Throwable error = e instanceof InvocationTargetException ? ((InvocationTargetException) e).getTargetException() : e;
@@ -132,13 +145,12 @@ public class SQLScriptExecuteHandler implements DBTTaskHandler {
         }
     }
 
-    private void processScript(DBRProgressMonitor monitor, DBTTask task, SQLScriptExecuteSettings settings, DBCExecutionContext executionContext, String filePath, String sqlScriptContent, Log log, PrintStream logStream) throws DBException {
+    private void processScript(DBRProgressMonitor monitor, DBTTask task, SQLScriptExecuteSettings settings, DBCExecutionContext executionContext, SQLScriptStreamParser scriptParser, Log log, PrintStream logStream) throws DBException {
         PrintWriter logWriter = new PrintWriter(logStream, true);
-        List<SQLScriptElement> scriptElements = SQLScriptParser.parseScript(executionContext.getDataSource(), sqlScriptContent);
         SQLScriptContext scriptContext = new SQLScriptContext(null, () -> executionContext, null, logWriter, null);
         scriptContext.setVariables(DBTaskUtils.getVariables(task));
         SQLScriptDataReceiver dataReceiver = new SQLScriptDataReceiver();
-        SQLScriptProcessor scriptProcessor = new SQLScriptProcessor(executionContext, scriptElements, scriptContext, dataReceiver, log);
+        SQLScriptProcessor scriptProcessor = new SQLScriptProcessor(executionContext, scriptParser, scriptContext, dataReceiver, log);
 
         scriptProcessor.setCommitType(settings.isAutoCommit() ? SQLScriptCommitType.AUTOCOMMIT : SQLScriptCommitType.AT_END);
         scriptProcessor.setErrorHandling(settings.isIgnoreErrors() ? SQLScriptErrorHandling.IGNORE : SQLScriptErrorHandling.STOP_ROLLBACK);
@@ -151,4 +163,50 @@ public class SQLScriptExecuteHandler implements DBTTaskHandler {
         totalStatistics.accumulate(scriptProcessor.getTotalStatistics());
     }
 
+    /**
+     * Opens script for streaming execution. Script is parsed while it is executed, so its text is never kept in memory as a whole.
+     */
+    @NotNull
+    private static SQLScriptStreamParser openScriptParser(@NotNull DBPProject project, @NotNull String filePath, @NotNull DBPDataSource dataSource) throws Exception {
+        RMControllerProvider rmControllerProvider = DBUtils.getAdapter(RMControllerProvider.class, project);
+        if (rmControllerProvider != null) {
+            RMController resourceController = rmControllerProvider.getResourceController();
+            RMResource[] resourcePath = resourceController.getResourcePath(project.getId(), filePath);
+            long resourceLength = ArrayUtils.isEmpty(resourcePath) ? -1 : resourcePath[resourcePath.length - 1].getLength();
+            return createScriptParser(
+                dataSource,
+                resourceController.openResourceStream(project.getId(), filePath),
+                StandardCharsets.UTF_8,
+                resourceLength > 0 ? resourceLength : -1);
+        }
+        IFile sqlFile = RMUtils.findEclipseProjectFile(project, filePath);
+        if (sqlFile == null) {
+            throw new DBException("File " + filePath + " is not found in project " + project.getId());
+        }
+        IPath location = sqlFile.getLocation();
+        long fileLength = location == null ? -1 : new File(location.toOSString()).length();
+        Charset charset = Charset.forName(sqlFile.getCharset());
+        return createScriptParser(dataSource, sqlFile.getContents(true), charset, fileLength);
+    }
+
+    @NotNull
+    private static SQLScriptStreamParser createScriptParser(
+        @NotNull DBPDataSource dataSource,
+        @NotNull InputStream stream,
+        @NotNull Charset charset,
+        long streamLength)
+    {
+        try {
+            return new SQLScriptStreamParser(dataSource, stream, charset, streamLength);
+        } catch (Throwable e) {
+            // Parser owns the stream only after it is created
+            try {
+                stream.close();
+            } catch (IOException closeError) {
+                e.addSuppressed(closeError);
+            }
+            throw e;
+        }
+    }
+
 }
@@ -0,0 +1,119 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.database;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.model.data.DBDValueMeta;
+import org.jkiss.dbeaver.model.exec.*;
+
+/**
+ * Result set which is passed to the transfer consumer when rows are read in another thread.
+ * Holds values fetched by producer. Value handlers read them with {@link #getAttributeValue(int)}.
+ */
+public class DatabaseBufferedResultSet implements DBCResultSet {
+
+    private final DBCSession session;
+    private final DBCStatement statement;
+    private final DBCResultSetMetaData metaData;
+    private Object[] row;
+
+    DatabaseBufferedResultSet(@NotNull DBCSession session, @Nullable DBCStatement statement, @NotNull DBCResultSetMetaData metaData) {
+        this.session = session;
+        this.statement = statement;
+        this.metaData = metaData;
+    }
+
+    void setRow(@Nullable Object[] row) {
+        this.row = row;
+    }
+
+    @Override
+    public DBCSession getSession() {
+        return session;
+    }
+
+    @Override
+    public DBCStatement getSourceStatement() {
+        return statement;
+    }
+
+    @Nullable
+    @Override
+    public Object getAttributeValue(int index) throws DBCException {
+        if (row == null || index < 0 || index >= row.length) {
+            throw new DBCException("Attribute index " + index + " is out of range");
+        }
+        return row[index];
+    }
+
+    @Nullable
+    @Override
+    public Object getAttributeValue(String name) throws DBCException {
+        for (DBCAttributeMetaData attribute : metaData.getAttributes()) {
+            if (name.equalsIgnoreCase(attribute.getLabel()) || name.equalsIgnoreCase(attribute.getName())) {
+                return getAttributeValue(attribute.getOrdinalPosition());
+            }
+        }
+        return null;
+    }
+
+    @Nullable
+    @Override
+    public DBDValueMeta getAttributeValueMeta(int index) {
+        return null;
+    }
+
+    @Nullable
+    @Override
+    public DBDValueMeta getRowMeta() {
+        return null;
+    }
+
+    @Override
+    public boolean nextRow() {
+        return false;
+    }
+
+    @Override
+    public boolean moveTo(int position) {
+        return false;
+    }
+
+    @NotNull
+    @Override
+    public DBCResultSetMetaData getMeta() {
+        return metaData;
+    }
+
+    @Nullable
+    @Override
+    public String getResultSetName() {
+        return null;
+    }
+
+    @Nullable
+    @Override
+    public Object getFeature(String name) {
+        return null;
+    }
+
+    @Override
+    public void close() {
+        // Nothing to close
+    }
+}
@@ -65,6 +65,11 @@ public class DatabaseConsumerSettings implements IDataTransferConsumerSettings {
     private boolean disableUsingBatches = false;
     private boolean ignoreDuplicateRows;
     private boolean useBulkLoad = false;
+    private boolean bulkLoadStreamRows = false;
+    private boolean bulkLoadBinaryFormat = false;
+    private int bulkLoadChunkSize = 0;
+    private boolean bulkLoadTableLock = false;
+    private boolean bulkLoadKeepNulls = true;
     private String onDuplicateKeyInsertMethodId;
     private boolean disableReferentialIntegrity;
     private final Map<String, Map<String, Object>> eventProcessors = new HashMap<>();
@@ -210,6 +215,46 @@ public class DatabaseConsumerSettings implements IDataTransferConsumerSettings {
         this.useBulkLoad = useBulkLoad;
     }
 
+    public boolean isBulkLoadStreamRows() {
+        return bulkLoadStreamRows;
+    }
+
+    public void setBulkLoadStreamRows(boolean bulkLoadStreamRows) {
+        this.bulkLoadStreamRows = bulkLoadStreamRows;
+    }
+
+    public boolean isBulkLoadBinaryFormat() {
+        return bulkLoadBinaryFormat;
+    }
+
+    public void setBulkLoadBinaryFormat(boolean bulkLoadBinaryFormat) {
+        this.bulkLoadBinaryFormat = bulkLoadBinaryFormat;
+    }
+
+    public int getBulkLoadChunkSize() {
+        return bulkLoadChunkSize;
+    }
+
+    public void setBulkLoadChunkSize(int bulkLoadChunkSize) {
+        this.bulkLoadChunkSize = bulkLoadChunkSize;
+    }
+
+    public boolean isBulkLoadTableLock() {
+        return bulkLoadTableLock;
+    }
+
+    public void setBulkLoadTableLock(boolean bulkLoadTableLock) {
+        this.bulkLoadTableLock = bulkLoadTableLock;
+    }
+
+    public boolean isBulkLoadKeepNulls() {
+        return bulkLoadKeepNulls;
+    }
+
+    public void setBulkLoadKeepNulls(boolean bulkLoadKeepNulls) {
+        this.bulkLoadKeepNulls = bulkLoadKeepNulls;
+    }
+
     @Nullable
     public DBPDataSource getTargetDataSource(DatabaseMappingObject attrMapping) {
         DBSObjectContainer container = getContainer();
@@ -240,6 +285,11 @@ public class DatabaseConsumerSettings implements IDataTransferConsumerSettings {
         transferAutoGeneratedColumns = CommonUtils.getBoolean(settings.get("transferAutoGeneratedColumns"), transferAutoGeneratedColumns);
         disableReferentialIntegrity = CommonUtils.getBoolean(settings.get("disableReferentialIntegrity"), disableReferentialIntegrity);
         useBulkLoad = CommonUtils.getBoolean(settings.get("useBulkLoad"), useBulkLoad);
+        bulkLoadStreamRows = CommonUtils.getBoolean(settings.get("bulkLoadStreamRows"), bulkLoadStreamRows);
+        bulkLoadBinaryFormat = CommonUtils.getBoolean(settings.get("bulkLoadBinaryFormat"), bulkLoadBinaryFormat);
+        bulkLoadChunkSize = CommonUtils.toInt(settings.get("bulkLoadChunkSize"), bulkLoadChunkSize);
+        bulkLoadTableLock = CommonUtils.getBoolean(settings.get("bulkLoadTableLock"), bulkLoadTableLock);
+        bulkLoadKeepNulls = CommonUtils.getBoolean(settings.get("bulkLoadKeepNulls"), bulkLoadKeepNulls);
         truncateBeforeLoad = CommonUtils.getBoolean(settings.get("truncateBeforeLoad"), truncateBeforeLoad);
         openTableOnFinish = CommonUtils.getBoolean(settings.get("openTableOnFinish"), openTableOnFinish);
 
@@ -314,6 +364,11 @@ public class DatabaseConsumerSettings implements IDataTransferConsumerSettings {
         settings.put("transferAutoGeneratedColumns", transferAutoGeneratedColumns);
         settings.put("disableReferentialIntegrity", disableReferentialIntegrity);
         settings.put("useBulkLoad", useBulkLoad);
+        settings.put("bulkLoadStreamRows", bulkLoadStreamRows);
+        settings.put("bulkLoadBinaryFormat", bulkLoadBinaryFormat);
+        settings.put("bulkLoadChunkSize", bulkLoadChunkSize);
+        settings.put("bulkLoadTableLock", bulkLoadTableLock);
+        settings.put("bulkLoadKeepNulls", bulkLoadKeepNulls);
         settings.put("truncateBeforeLoad", truncateBeforeLoad);
         settings.put("openTableOnFinish", openTableOnFinish);
 
@@ -353,6 +408,13 @@ public class DatabaseConsumerSettings implements IDataTransferConsumerSettings {
         DTUtils.addSummary(summary, DTMessages.database_consumer_settings_option_transfer_auto_generated_columns, transferAutoGeneratedColumns);
         DTUtils.addSummary(summary, DTMessages.database_consumer_settings_option_disable_referential_integrity, disableReferentialIntegrity);
         DTUtils.addSummary(summary, DTMessages.database_consumer_settings_option_use_bulk_load, useBulkLoad);
+        if (useBulkLoad) {
+            DTUtils.addSummary(summary, DTMessages.database_consumer_settings_option_bulk_load_stream_rows, bulkLoadStreamRows);
+            DTUtils.addSummary(summary, DTMessages.database_consumer_settings_option_bulk_load_binary_format, bulkLoadBinaryFormat);
+            DTUtils.addSummary(summary, DTMessages.database_consumer_settings_option_bulk_load_chunk_size, bulkLoadChunkSize);
+            DTUtils.addSummary(summary, DTMessages.database_consumer_settings_option_bulk_load_table_lock, bulkLoadTableLock);
+            DTUtils.addSummary(summary, DTMessages.database_consumer_settings_option_bulk_load_keep_nulls, bulkLoadKeepNulls);
+        }
         DTUtils.addSummary(summary, DTMessages.database_consumer_settings_option_truncate_before_load, truncateBeforeLoad);
 
         return summary.toString();
@@ -0,0 +1,347 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.database;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.DBFetchProgress;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.data.DBDDataFilter;
+import org.jkiss.dbeaver.model.data.DBDDataReceiver;
+import org.jkiss.dbeaver.model.data.DBDValueHandler;
+import org.jkiss.dbeaver.model.exec.*;
+import org.jkiss.dbeaver.model.impl.jdbc.struct.JDBCTable;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.struct.DBSDataContainer;
+import org.jkiss.dbeaver.model.struct.DBSEntity;
+import org.jkiss.dbeaver.model.struct.DBSEntityAttribute;
+import org.jkiss.dbeaver.model.virtual.DBVEntity;
+import org.jkiss.dbeaver.model.virtual.DBVEntityConstraint;
+import org.jkiss.dbeaver.model.virtual.DBVUtils;
+import org.jkiss.utils.CommonUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Keyset (seek) pagination for segmented data reads.
+ * <p>
+ * Each segment is ordered by a unique key and starts right after the last key of the previous segment:
+ * {@code WHERE k1 > :k1 OR (k1 = :k1 AND k2 > :k2) ORDER BY k1, k2}.
+ * Unlike OFFSET the database doesn't have to scan all previously read rows for each segment.
+ * Expanded condition is used instead of row value comparison because not all dialects support the latter.
+ * Last key values are bound as statement parameters, so temporal and floating point keys keep their precision.
+ * <p>
+ * If key values can't be read from the result set then reading continues with OFFSET (still ordered by key).
+ * <p>
+ * Only JDBC tables are supported: segment query is made by the table itself, so it has the same source
+ * (e.g. partition) and select list as the regular table data query.
+ */
+public class DatabaseKeysetSegmenter {
+
+    private static final Log log = Log.getLog(DatabaseKeysetSegmenter.class);
+
+    private final JDBCTable<?, ?> table;
+    private final List<DBSEntityAttribute> keyAttributes;
+    private boolean seekAvailable;
+    private Object[] lastKey;
+
+    public DatabaseKeysetSegmenter(@NotNull JDBCTable<?, ?> table, @NotNull List<DBSEntityAttribute> keyAttributes) {
+        this.table = table;
+        this.keyAttributes = keyAttributes;
+        this.seekAvailable = true;
+    }
+
+    /**
+     * Creates segmenter for the specified container.
+     * Returns null if container is not a JDBC table, if it has no usable unique key (or virtual key)
+     * or if filter has its own ordering.
+     */
+    @Nullable
+    public static DatabaseKeysetSegmenter create(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull DBSDataContainer dataContainer,
+        @Nullable DBDDataFilter dataFilter)
+    {
+        if (!(dataContainer instanceof JDBCTable) || (dataFilter != null && dataFilter.hasOrdering())) {
+            return null;
+        }
+        JDBCTable<?, ?> table = (JDBCTable<?, ?>) dataContainer;
+        List<DBSEntityAttribute> keyAttributes = findKeyAttributes(monitor, table);
+        if (keyAttributes.isEmpty()) {
+            return null;
+        }
+        for (DBSEntityAttribute attribute : keyAttributes) {
+            switch (attribute.getDataKind()) {
+                case NUMERIC:
+                case STRING:
+                case DATETIME:
+                    break;
+                default:
+                    log.debug("Key attribute '" + attribute.getName() + "' type is not supported for keyset pagination");
+                    return null;
+            }
+        }
+        DatabaseKeysetSegmenter segmenter = new DatabaseKeysetSegmenter(table, keyAttributes);
+        for (DBSEntityAttribute attribute : keyAttributes) {
+            if (!attribute.isRequired()) {
+                // Nullable key - rows with NULLs would be skipped by key comparison
+                segmenter.seekAvailable = false;
+                break;
+            }
+        }
+        return segmenter;
+    }
+
+    @NotNull
+    private static List<DBSEntityAttribute> findKeyAttributes(@NotNull DBRProgressMonitor monitor, @NotNull DBSEntity entity) {
+        try {
+            List<? extends DBSEntityAttribute> identifier = DBUtils.getBestTableIdentifier(monitor, entity);
+            if (!CommonUtils.isEmpty(identifier)) {
+                return new ArrayList<>(identifier);
+            }
+        } catch (DBException e) {
+            log.debug("Error reading unique key of '" + entity.getName() + "'", e);
+        }
+        DBVEntity vEntity = DBVUtils.getVirtualEntity(entity, false);
+        if (vEntity != null) {
+            for (DBVEntityConstraint constraint : vEntity.getConstraints()) {
+                if (constraint.getConstraintType().isUnique() && constraint.hasAttributes() && !constraint.isUseAllColumns()) {
+                    return DBUtils.getEntityAttributes(monitor, constraint);
+                }
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * Whether next segment may be read with key condition (without OFFSET)
+     */
+    public boolean isSeekAvailable() {
+        return seekAvailable;
+    }
+
+    /**
+     * Reads the next segment. Segment starts after the last read key if seek is available, otherwise at the offset.
+     */
+    @NotNull
+    public DBCStatistics readSegment(
+        @NotNull DBCExecutionSource source,
+        @NotNull DBCSession session,
+        @NotNull DBDDataReceiver dataReceiver,
+        @Nullable DBDDataFilter dataFilter,
+        long offset,
+        long segmentSize,
+        long flags,
+        int fetchSize) throws DBCException
+    {
+        DBCStatistics statistics = new DBCStatistics();
+        DBRProgressMonitor monitor = session.getProgressMonitor();
+        DBDDataReceiver keyReceiver = wrapReceiver(dataReceiver);
+        boolean seek = seekAvailable;
+        String query = table.makeSelectQuery(monitor, session.getDataSource(), null, makeSegmentFilter(dataFilter), flags);
+        statistics.setQueryText(query);
+
+        try (DBCStatement dbStat = DBUtils.makeStatement(source, session, DBCStatementType.QUERY, query, seek ? 0 : offset, segmentSize)) {
+            DBExecUtils.setStatementFetchSize(dbStat, seek ? 0 : offset, segmentSize, fetchSize);
+            bindSeekParameters(session, dbStat);
+
+            long startTime = System.currentTimeMillis();
+            boolean executeResult = dbStat.executeStatement();
+            statistics.setExecuteTime(System.currentTimeMillis() - startTime);
+            if (executeResult) {
+                DBCResultSet dbResult = dbStat.openResultSet();
+                if (dbResult != null && !monitor.isCanceled()) {
+                    try {
+                        keyReceiver.fetchStart(session, dbResult, offset, segmentSize);
+
+                        DBFetchProgress fetchProgress = new DBFetchProgress(monitor);
+                        while (dbResult.nextRow()) {
+                            if (fetchProgress.isCanceled() || fetchProgress.isMaxRowsFetched(segmentSize)) {
+                                break;
+                            }
+                            keyReceiver.fetchRow(session, dbResult);
+                            fetchProgress.monitorRowFetch();
+                        }
+                        fetchProgress.dumpStatistics(statistics);
+                    } finally {
+                        try {
+                            dbResult.close();
+                        } catch (Throwable e) {
+                            log.error("Error closing result set", e); //$NON-NLS-1$
+                        }
+                        try {
+                            keyReceiver.fetchEnd(session, dbResult);
+                        } catch (Throwable e) {
+                            log.error("Error while finishing result set fetch", e); //$NON-NLS-1$
+                        }
+                    }
+                }
+            }
+            return statistics;
+        } finally {
+            keyReceiver.close();
+        }
+    }
+
+    /**
+     * Makes data filter for the next segment: key ordering plus condition on the last read key.
+     * Condition has a parameter placeholder for each key value, values are bound by {@link #bindSeekParameters}.
+     */
+    @NotNull
+    public DBDDataFilter makeSegmentFilter(@Nullable DBDDataFilter dataFilter) {
+        DBDDataFilter segmentFilter = dataFilter == null ? new DBDDataFilter() : new DBDDataFilter(dataFilter);
+
+        StringBuilder order = new StringBuilder();
+        for (DBSEntityAttribute attribute : keyAttributes) {
+            if (order.length() > 0) order.append(',');
+            order.append(DBUtils.getQuotedIdentifier(attribute));
+        }
+        segmentFilter.setOrder(order.toString());
+
+        if (seekAvailable && lastKey != null) {
+            StringBuilder condition = new StringBuilder();
+            for (int i = 0; i < keyAttributes.size(); i++) {
+                if (i > 0) condition.append(" OR ");
+                condition.append('(');
+                for (int k = 0; k < i; k++) {
+                    appendKeyCondition(condition, k, "=");
+                    condition.append(" AND ");
+                }
+                appendKeyCondition(condition, i, ">");
+                condition.append(')');
+            }
+            String where = segmentFilter.getWhere();
+            if (CommonUtils.isEmpty(where)) {
+                segmentFilter.setWhere(condition.toString());
+            } else {
+                segmentFilter.setWhere("(" + where + ") AND (" + condition + ")");
+            }
+        }
+        return segmentFilter;
+    }
+
+    private void appendKeyCondition(@NotNull StringBuilder condition, int index, @NotNull String operator) {
+        condition.append(DBUtils.getQuotedIdentifier(keyAttributes.get(index)))
+            .append(' ').append(operator).append(" ?");
+    }
+
+    /**
+     * Binds last key values to the parameters of the segment filter condition (in the order of placeholders).
+     */
+    public void bindSeekParameters(@NotNull DBCSession session, @NotNull DBCStatement statement) throws DBCException {
+        if (!seekAvailable || lastKey == null) {
+            return;
+        }
+        DBDValueHandler[] valueHandlers = new DBDValueHandler[keyAttributes.size()];
+        for (int i = 0; i < valueHandlers.length; i++) {
+            valueHandlers[i] = DBUtils.findValueHandler(session, keyAttributes.get(i));
+        }
+        int paramIndex = 0;
+        for (int i = 0; i < keyAttributes.size(); i++) {
+            for (int k = 0; k <= i; k++) {
+                valueHandlers[k].bindValueObject(session, statement, keyAttributes.get(k), paramIndex++, lastKey[k]);
+            }
+        }
+    }
+
+    /**
+     * Wraps data receiver. Wrapper remembers key values of the last fetched row.
+     */
+    @NotNull
+    public DBDDataReceiver wrapReceiver(@NotNull DBDDataReceiver receiver) {
+        return new KeyCaptureReceiver(receiver);
+    }
+
+    private class KeyCaptureReceiver implements DBDDataReceiver {
+
+        private final DBDDataReceiver receiver;
+        private DBCAttributeMetaData[] keyMeta;
+        private DBDValueHandler[] keyHandlers;
+        private Object[] rowKey;
+
+        KeyCaptureReceiver(@NotNull DBDDataReceiver receiver) {
+            this.receiver = receiver;
+        }
+
+        @Override
+        public void fetchStart(DBCSession session, DBCResultSet resultSet, long offset, long maxRows) throws DBCException {
+            if (seekAvailable) {
+                keyMeta = new DBCAttributeMetaData[keyAttributes.size()];
+                keyHandlers = new DBDValueHandler[keyMeta.length];
+                List<DBCAttributeMetaData> attributes = resultSet.getMeta().getAttributes();
+                for (int i = 0; i < keyMeta.length; i++) {
+                    String keyName = keyAttributes.get(i).getName();
+                    for (DBCAttributeMetaData attribute : attributes) {
+                        if (keyName.equalsIgnoreCase(attribute.getName()) || keyName.equalsIgnoreCase(attribute.getLabel())) {
+                            keyMeta[i] = attribute;
+                            keyHandlers[i] = DBUtils.findValueHandler(session, attribute);
+                            break;
+                        }
+                    }
+                    if (keyMeta[i] == null) {
+                        log.debug("Key attribute '" + keyName + "' not found in result set. Switch to offset pagination.");
+                        seekAvailable = false;
+                        break;
+                    }
+                }
+            }
+            receiver.fetchStart(session, resultSet, offset, maxRows);
+        }
+
+        @Override
+        public void fetchRow(DBCSession session, DBCResultSet resultSet) throws DBCException {
+            if (seekAvailable) {
+                Object[] key = new Object[keyMeta.length];
+                for (int i = 0; i < key.length; i++) {
+                    key[i] = keyHandlers[i].fetchValueObject(session, resultSet, keyMeta[i], keyMeta[i].getOrdinalPosition());
+                }
+                rowKey = key;
+            }
+            receiver.fetchRow(session, resultSet);
+        }
+
+        @Override
+        public void fetchEnd(DBCSession session, DBCResultSet resultSet) throws DBCException {
+            if (seekAvailable && rowKey != null) {
+                for (Object value : rowKey) {
+                    if (DBUtils.isNullValue(value)) {
+                        seekAvailable = false;
+                        break;
+                    }
+                }
+                lastKey = rowKey;
+            }
+            receiver.fetchEnd(session, resultSet);
+        }
+
+        @Override
+        public void close() {
+            receiver.close();
+        }
+
+        @NotNull
+        @Override
+        public DBCStatistics getStatistics() {
+            return receiver.getStatistics();
+        }
+    }
+
+}
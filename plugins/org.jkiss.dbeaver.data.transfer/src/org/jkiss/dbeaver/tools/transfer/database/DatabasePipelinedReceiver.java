@@ -0,0 +1,278 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.database;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.DBPDataKind;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.data.DBDDataReceiver;
+import org.jkiss.dbeaver.model.data.DBDValueHandler;
+import org.jkiss.dbeaver.model.exec.*;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.struct.DBSDataContainer;
+import org.jkiss.dbeaver.tools.transfer.IDataTransferConsumer;
+import org.jkiss.utils.CommonUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Data receiver which runs data consumer in a separate thread.
+ * <p>
+ * Producer thread reads row values into a bounded ring of reusable row arrays while
+ * consumer thread feeds them into the actual transfer consumer. So the source cursor keeps fetching
+ * while target commits a batch or writes a file and vice versa.
+ * Producer blocks when all row arrays are in use. Consumer errors are reported to the producer on the next row
+ * and producer errors or cancel stop the consumer thread.
+ * <p>
+ * Result sets with LOBs, complex or document attributes are passed to the consumer directly because their values
+ * may refer to the source cursor.
+ */
+public class DatabasePipelinedReceiver implements DBDDataReceiver {
+
+    private static final Log log = Log.getLog(DatabasePipelinedReceiver.class);
+
+    private static final Object[] EOF_ROW = new Object[0];
+    private static final long POLL_TIMEOUT_MS = 100;
+
+    private final IDataTransferConsumer<?, ?> consumer;
+    private final DBSDataContainer dataContainer;
+    private final int bufferSize;
+
+    private boolean pipelined;
+    private DBCAttributeMetaData[] attributes;
+    private DBDValueHandler[] valueHandlers;
+    private BlockingQueue<Object[]> freeRows;
+    private BlockingQueue<Object[]> filledRows;
+    private DatabaseBufferedResultSet bufferedResultSet;
+    private Thread consumerThread;
+
+    private volatile boolean aborted;
+    private volatile Throwable consumerError;
+
+    public DatabasePipelinedReceiver(@NotNull IDataTransferConsumer<?, ?> consumer, @NotNull DBSDataContainer dataContainer, int bufferSize) {
+        this.consumer = consumer;
+        this.dataContainer = dataContainer;
+        this.bufferSize = Math.max(bufferSize, 1);
+    }
+
+    @Override
+    public void fetchStart(DBCSession session, DBCResultSet resultSet, long offset, long maxRows) throws DBCException {
+        checkConsumerError();
+
+        List<DBCAttributeMetaData> metaAttributes = resultSet.getMeta().getAttributes();
+        pipelined = isPipelineSupported(session, resultSet, metaAttributes);
+        if (!pipelined) {
+            log.debug("Result set can't be pipelined. Pass rows to consumer directly.");
+            consumer.fetchStart(session, resultSet, offset, maxRows);
+            return;
+        }
+
+        attributes = metaAttributes.toArray(new DBCAttributeMetaData[0]);
+        valueHandlers = new DBDValueHandler[attributes.length];
+        int rowSize = 0;
+        for (int i = 0; i < attributes.length; i++) {
+            valueHandlers[i] = DBUtils.findValueHandler(session, attributes[i]);
+            rowSize = Math.max(rowSize, attributes[i].getOrdinalPosition() + 1);
+        }
+        freeRows = new ArrayBlockingQueue<>(bufferSize);
+        for (int i = 0; i < bufferSize; i++) {
+            freeRows.add(new Object[rowSize]);
+        }
+        // One extra slot for the EOF marker
+        filledRows = new ArrayBlockingQueue<>(bufferSize + 1);
+        bufferedResultSet = new DatabaseBufferedResultSet(session, resultSet.getSourceStatement(), resultSet.getMeta());
+        aborted = false;
+
+        consumer.fetchStart(session, bufferedResultSet, offset, maxRows);
+
+        consumerThread = new Thread(() -> consumeRows(session), "Data transfer consumer (" + dataContainer.getName() + ")");
+        consumerThread.setDaemon(true);
+        consumerThread.start();
+    }
+
+    @Override
+    public void fetchRow(DBCSession session, DBCResultSet resultSet) throws DBCException {
+        if (!pipelined) {
+            consumer.fetchRow(session, resultSet);
+            return;
+        }
+        DBRProgressMonitor monitor = session.getProgressMonitor();
+        Object[] row = waitForRow(freeRows, monitor);
+        for (int i = 0; i < attributes.length; i++) {
+            DBCAttributeMetaData attribute = attributes[i];
+            row[attribute.getOrdinalPosition()] = valueHandlers[i].fetchValueObject(session, resultSet, attribute, attribute.getOrdinalPosition());
+        }
+        // Never blocks: there are no more filled rows than free row arrays
+        filledRows.add(row);
+    }
+
+    @Override
+    public void fetchEnd(DBCSession session, DBCResultSet resultSet) throws DBCException {
+        if (!pipelined) {
+            consumer.fetchEnd(session, resultSet);
+            return;
+        }
+        if (!aborted) {
+            filledRows.add(EOF_ROW);
+        }
+        stopConsumer(session.getProgressMonitor());
+        pipelined = false;
+        consumer.fetchEnd(session, bufferedResultSet);
+        checkConsumerError();
+    }
+
+    @Override
+    public void close() {
+        if (consumerThread != null) {
+            // Fetch was interrupted by producer error
+            aborted = true;
+            stopConsumer(null);
+        }
+        pipelined = false;
+        attributes = null;
+        valueHandlers = null;
+        freeRows = null;
+        filledRows = null;
+        bufferedResultSet = null;
+        consumer.close();
+    }
+
+    @NotNull
+    @Override
+    public DBCStatistics getStatistics() {
+        return consumer.getStatistics();
+    }
+
+    /**
+     * Throws an error which happened in the consumer thread (if any).
+     * Producer must call it after data read because fetch end errors are not propagated by data containers.
+     */
+    public void checkConsumerError() throws DBCException {
+        Throwable error = consumerError;
+        if (error != null) {
+            if (error instanceof DBCException) {
+                throw (DBCException) error;
+            }
+            throw new DBCException("Error transferring data to the consumer", error);
+        }
+    }
+
+    private void consumeRows(@NotNull DBCSession session) {
+        DBRProgressMonitor monitor = session.getProgressMonitor();
+        try {
+            while (!aborted) {
+                Object[] row = filledRows.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (row == null) {
+                    if (monitor.isCanceled()) {
+                        break;
+                    }
+                    continue;
+                }
+                if (row == EOF_ROW) {
+                    break;
+                }
+                bufferedResultSet.setRow(row);
+                consumer.fetchRow(session, bufferedResultSet);
+                bufferedResultSet.setRow(null);
+                Arrays.fill(row, null);
+                freeRows.add(row);
+            }
+        } catch (Throwable e) {
+            consumerError = e;
+            aborted = true;
+        }
+    }
+
+    @NotNull
+    private Object[] waitForRow(@NotNull BlockingQueue<Object[]> queue, @NotNull DBRProgressMonitor monitor) throws DBCException {
+        try {
+            for (;;) {
+                checkConsumerError();
+                if (monitor.isCanceled()) {
+                    aborted = true;
+                    throw new DBCException("Data transfer canceled");
+                }
+                Object[] row = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (row != null) {
+                    return row;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            aborted = true;
+            throw new DBCException("Data transfer interrupted", e);
+        }
+    }
+
+    private void stopConsumer(@Nullable DBRProgressMonitor monitor) {
+        Thread thread = consumerThread;
+        if (thread == null) {
+            return;
+        }
+        try {
+            while (thread.isAlive()) {
+                thread.join(POLL_TIMEOUT_MS);
+                if (monitor != null && monitor.isCanceled()) {
+                    aborted = true;
+                }
+            }
+        } catch (InterruptedException e) {
+            aborted = true;
+            Thread.currentThread().interrupt();
+        }
+        consumerThread = null;
+    }
+
+    private static boolean isPipelineSupported(@NotNull DBCSession session, @NotNull DBCResultSet resultSet, @NotNull List<DBCAttributeMetaData> metaAttributes) {
+        if (resultSet.getFeature(DBCResultSet.FEATURE_NAME_JDBC) == null ||
+            session.getDataSource().getInfo().isDynamicMetadata() ||
+            CommonUtils.isEmpty(metaAttributes))
+        {
+            return false;
+        }
+        for (DBCAttributeMetaData attribute : metaAttributes) {
+            if (!isPlainDataKind(attribute.getDataKind())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Plain values may be read in one thread and consumed in another.
+     * They do not refer to the source cursor or connection.
+     */
+    static boolean isPlainDataKind(@NotNull DBPDataKind dataKind) {
+        switch (dataKind) {
+            case BOOLEAN:
+            case NUMERIC:
+            case STRING:
+            case DATETIME:
+            case BINARY:
+            case ROWID:
+                return true;
+            default:
+                return false;
+        }
+    }
+}
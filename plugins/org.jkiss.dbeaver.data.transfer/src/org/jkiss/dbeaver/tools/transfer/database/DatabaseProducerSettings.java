@@ -37,6 +37,7 @@ public class DatabaseProducerSettings implements IDataTransferSettings {
 
     private static final int DEFAULT_SEGMENT_SIZE = 100000;
     private static final int DEFAULT_FETCH_SIZE = 10000;
+    private static final int DEFAULT_PIPELINE_BUFFER_SIZE = 1000;
 
     private int segmentSize = DEFAULT_SEGMENT_SIZE;
 
@@ -46,6 +47,9 @@ public class DatabaseProducerSettings implements IDataTransferSettings {
     private boolean selectedColumnsOnly = false;
     private ExtractType extractType = ExtractType.SINGLE_QUERY;
     private int fetchSize = DEFAULT_FETCH_SIZE;
+    private boolean pipelined = false;
+    private int pipelineBufferSize = DEFAULT_PIPELINE_BUFFER_SIZE;
+    private int splitRangeCount = 1;
 
     public DatabaseProducerSettings() {
     }
@@ -100,6 +104,41 @@ public class DatabaseProducerSettings implements IDataTransferSettings {
         this.openNewConnections = openNewConnections;
     }
 
+    /**
+     * Read source and write target in parallel threads
+     */
+    public boolean isPipelined() {
+        return pipelined;
+    }
+
+    public void setPipelined(boolean pipelined) {
+        this.pipelined = pipelined;
+    }
+
+    /**
+     * Maximum number of rows read ahead of consumer in pipelined mode
+     */
+    public int getPipelineBufferSize() {
+        return pipelineBufferSize;
+    }
+
+    public void setPipelineBufferSize(int pipelineBufferSize) {
+        if (pipelineBufferSize > 0) {
+            this.pipelineBufferSize = pipelineBufferSize;
+        }
+    }
+
+    /**
+     * Number of key ranges a single table is split into. Ranges are read in parallel.
+     */
+    public int getSplitRangeCount() {
+        return splitRangeCount;
+    }
+
+    public void setSplitRangeCount(int splitRangeCount) {
+        this.splitRangeCount = Math.max(splitRangeCount, 1);
+    }
+
     public ExtractType getExtractType() {
         return extractType;
     }
@@ -117,6 +156,9 @@ public class DatabaseProducerSettings implements IDataTransferSettings {
         queryRowCount = CommonUtils.toBoolean(settings.get("queryRowCount"));
         selectedColumnsOnly = CommonUtils.toBoolean(settings.get("selectedColumnsOnly"));
         selectedRowsOnly = CommonUtils.toBoolean(settings.get("selectedRowsOnly"));
+        pipelined = CommonUtils.getBoolean(settings.get("pipelined"), pipelined);
+        setPipelineBufferSize(CommonUtils.toInt(settings.get("pipelineBufferSize"), DEFAULT_PIPELINE_BUFFER_SIZE));
+        setSplitRangeCount(CommonUtils.toInt(settings.get("splitRangeCount"), 1));
     }
 
     @Override
@@ -128,6 +170,9 @@ public class DatabaseProducerSettings implements IDataTransferSettings {
         settings.put("queryRowCount", queryRowCount);
         settings.put("selectedColumnsOnly", selectedColumnsOnly);
         settings.put("selectedRowsOnly", selectedRowsOnly);
+        settings.put("pipelined", pipelined);
+        settings.put("pipelineBufferSize", pipelineBufferSize);
+        settings.put("splitRangeCount", splitRangeCount);
     }
 
     @Override
@@ -136,9 +181,13 @@ public class DatabaseProducerSettings implements IDataTransferSettings {
 
         DTUtils.addSummary(summary, DTMessages.data_transfer_wizard_output_checkbox_new_connection, openNewConnections);
         DTUtils.addSummary(summary, DTMessages.data_transfer_wizard_output_label_extract_type, extractType.name());
+        if (extractType == ExtractType.SINGLE_QUERY && splitRangeCount > 1) {
+            DTUtils.addSummary(summary, DTMessages.data_transfer_wizard_output_label_split_ranges, splitRangeCount);
+        }
         DTUtils.addSummary(summary, DTMessages.data_transfer_wizard_output_checkbox_select_row_count, queryRowCount);
         DTUtils.addSummary(summary, DTMessages.data_transfer_wizard_output_checkbox_selected_rows_only, selectedRowsOnly);
         DTUtils.addSummary(summary, DTMessages.data_transfer_wizard_output_checkbox_selected_columns_only, selectedColumnsOnly);
+        DTUtils.addSummary(summary, DTMessages.data_transfer_wizard_output_checkbox_pipelined, pipelined);
 
         return summary.toString();
     }
@@ -0,0 +1,578 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.database;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.DBPDataKind;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.data.DBDDataFilter;
+import org.jkiss.dbeaver.model.data.DBDDataReceiver;
+import org.jkiss.dbeaver.model.data.DBDValueHandler;
+import org.jkiss.dbeaver.model.exec.*;
+import org.jkiss.dbeaver.model.impl.jdbc.struct.JDBCTable;
+import org.jkiss.dbeaver.model.runtime.BaseProgressMonitor;
+import org.jkiss.dbeaver.model.runtime.BlockCanceler;
+import org.jkiss.dbeaver.model.runtime.DBRBlockingObject;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.sql.SQLUtils;
+import org.jkiss.dbeaver.model.struct.DBSDataContainer;
+import org.jkiss.dbeaver.model.struct.DBSEntity;
+import org.jkiss.dbeaver.model.struct.DBSEntityAttribute;
+import org.jkiss.dbeaver.tools.transfer.IDataTransferConsumer;
+import org.jkiss.utils.CommonUtils;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reads a single table by key ranges in parallel.
+ * <p>
+ * Ranges are computed from min/max values of a numeric or date/time unique key.
+ * Each range is read in a separate thread with its own isolated execution context.
+ * Rows of all ranges are merged into a bounded queue and passed to the consumer in the calling thread.
+ * <p>
+ * Tables with LOB or complex columns are not split because their values may refer to the range connection.
+ * Only JDBC tables are split, their key range is read with the same source (e.g. partition) as the table data.
+ * Rows of different ranges are mixed, so data with explicit ordering is not split.
+ */
+public class DatabaseRangeReader {
+
+    private static final Log log = Log.getLog(DatabaseRangeReader.class);
+
+    private static final Object[] EOF_ROW = new Object[0];
+    private static final long POLL_TIMEOUT_MS = 100;
+    // How long to wait for range threads after their statements were canceled
+    private static final long RANGE_CANCEL_TIMEOUT_MS = 5000;
+    // How long to wait for range threads after their contexts were closed
+    private static final long RANGE_CLOSE_TIMEOUT_MS = 5000;
+
+    private final DBSEntity entity;
+    private final List<DBDDataFilter> rangeFilters;
+    private final DBCStatistics statistics = new DBCStatistics();
+    private final List<RangeProgressMonitor> rangeMonitors = new ArrayList<>();
+
+    private BlockingQueue<Object[]> rowQueue;
+    private AtomicInteger activeRanges;
+    private CountDownLatch metaLatch;
+    private DBCSession consumerSession;
+    private volatile DatabaseBufferedResultSet bufferedResultSet;
+    private volatile Throwable rangeError;
+    private volatile boolean aborted;
+
+    /**
+     * Creates reader for the already computed range filters.
+     * Each filter must select a separate part of the table.
+     */
+    public DatabaseRangeReader(@NotNull DBSEntity entity, @NotNull List<DBDDataFilter> rangeFilters) {
+        this.entity = entity;
+        this.rangeFilters = rangeFilters;
+    }
+
+    /**
+     * Creates range reader for the data container.
+     * Returns null if container can't be split into the specified number of ranges or if filter has its own ordering.
+     */
+    @Nullable
+    public static DatabaseRangeReader create(
+        @NotNull DBCSession session,
+        @NotNull DBSDataContainer dataContainer,
+        @Nullable DBDDataFilter dataFilter,
+        int rangeCount
+    ) throws DBException {
+        if (rangeCount < 2 || !(dataContainer instanceof JDBCTable) || (dataFilter != null && dataFilter.hasOrdering())) {
+            return null;
+        }
+        DBRProgressMonitor monitor = session.getProgressMonitor();
+        JDBCTable<?, ?> table = (JDBCTable<?, ?>) dataContainer;
+        Collection<? extends DBSEntityAttribute> attributes = table.getAttributes(monitor);
+        if (CommonUtils.isEmpty(attributes)) {
+            return null;
+        }
+        for (DBSEntityAttribute attribute : attributes) {
+            if (!DatabasePipelinedReceiver.isPlainDataKind(attribute.getDataKind())) {
+                log.debug("Table '" + table.getName() + "' has complex attribute '" + attribute.getName() + "'. Do not split it into ranges.");
+                return null;
+            }
+        }
+        List<? extends DBSEntityAttribute> identifier = DBUtils.getBestTableIdentifier(monitor, table);
+        if (identifier.size() != 1) {
+            log.debug("Table '" + table.getName() + "' has no single column key. Do not split it into ranges.");
+            return null;
+        }
+        DBSEntityAttribute keyAttribute = identifier.get(0);
+        switch (keyAttribute.getDataKind()) {
+            case NUMERIC:
+            case DATETIME:
+                break;
+            default:
+                log.debug("Key '" + keyAttribute.getName() + "' is not numeric or temporal. Do not split table into ranges.");
+                return null;
+        }
+
+        DBPDataSource dataSource = session.getDataSource();
+        String keyName = DBUtils.getQuotedIdentifier(keyAttribute);
+        String sql = table.makeSelectQuery(
+            monitor, dataSource, "MIN(" + keyName + "),MAX(" + keyName + ")", dataFilter, 0);
+
+        Object minValue = null, maxValue = null;
+        monitor.subTask("Read key range");
+        try (DBCStatement dbStat = session.prepareStatement(DBCStatementType.QUERY, sql, false, false, false)) {
+            if (dbStat.executeStatement()) {
+                try (DBCResultSet dbResult = dbStat.openResultSet()) {
+                    if (dbResult != null && dbResult.nextRow()) {
+                        minValue = dbResult.getAttributeValue(0);
+                        maxValue = dbResult.getAttributeValue(1);
+                    }
+                }
+            }
+        }
+
+        List<String> bounds = keyAttribute.getDataKind() == DBPDataKind.NUMERIC ?
+            makeNumericBounds(keyAttribute, minValue, maxValue, rangeCount) :
+            makeTemporalBounds(dataSource, keyAttribute, minValue, maxValue, rangeCount);
+        if (bounds.isEmpty()) {
+            log.debug("Can't split key '" + keyAttribute.getName() + "' range [" + minValue + " - " + maxValue + "]");
+            return null;
+        }
+
+        List<DBDDataFilter> rangeFilters = new ArrayList<>(bounds.size() + 1);
+        for (int i = 0; i <= bounds.size(); i++) {
+            StringBuilder condition = new StringBuilder();
+            if (i == 0) {
+                condition.append(keyName).append(" < ").append(bounds.get(0));
+                if (!keyAttribute.isRequired()) {
+                    condition.append(" OR ").append(keyName).append(" IS NULL");
+                }
+            } else if (i == bounds.size()) {
+                condition.append(keyName).append(" >= ").append(bounds.get(i - 1));
+            } else {
+                condition.append(keyName).append(" >= ").append(bounds.get(i - 1))
+                    .append(" AND ").append(keyName).append(" < ").append(bounds.get(i));
+            }
+            DBDDataFilter rangeFilter = dataFilter == null ? new DBDDataFilter() : new DBDDataFilter(dataFilter);
+            String where = rangeFilter.getWhere();
+            rangeFilter.setWhere(CommonUtils.isEmpty(where) ? condition.toString() : "(" + where + ") AND (" + condition + ")");
+            rangeFilters.add(rangeFilter);
+        }
+        return new DatabaseRangeReader(table, rangeFilters);
+    }
+
+    @NotNull
+    private static List<String> makeNumericBounds(@NotNull DBSEntityAttribute keyAttribute, @Nullable Object minValue, @Nullable Object maxValue, int rangeCount) {
+        List<String> bounds = new ArrayList<>();
+        if (!(minValue instanceof Number) || !(maxValue instanceof Number)) {
+            return bounds;
+        }
+        BigDecimal min, max;
+        try {
+            min = new BigDecimal(minValue.toString());
+            max = new BigDecimal(maxValue.toString());
+        } catch (NumberFormatException e) {
+            return bounds;
+        }
+        boolean integral = CommonUtils.toInt(keyAttribute.getScale()) == 0 && min.scale() <= 0 && max.scale() <= 0;
+        BigDecimal step = max.subtract(min).divide(BigDecimal.valueOf(rangeCount), MathContext.DECIMAL64);
+        BigDecimal prevBound = min;
+        for (int i = 1; i < rangeCount; i++) {
+            BigDecimal bound = min.add(step.multiply(BigDecimal.valueOf(i)));
+            if (integral) {
+                bound = bound.setScale(0, RoundingMode.CEILING);
+            }
+            if (bound.compareTo(prevBound) > 0 && bound.compareTo(max) <= 0) {
+                bounds.add(bound.toPlainString());
+                prevBound = bound;
+            }
+        }
+        return bounds;
+    }
+
+    @NotNull
+    private static List<String> makeTemporalBounds(@NotNull DBPDataSource dataSource, @NotNull DBSEntityAttribute keyAttribute, @Nullable Object minValue, @Nullable Object maxValue, int rangeCount) {
+        List<String> bounds = new ArrayList<>();
+        if (!(minValue instanceof Date) || !(maxValue instanceof Date)) {
+            return bounds;
+        }
+        long min = ((Date) minValue).getTime();
+        long max = ((Date) maxValue).getTime();
+        long step = (max - min) / rangeCount;
+        if (step <= 0) {
+            return bounds;
+        }
+        for (int i = 1; i < rangeCount; i++) {
+            bounds.add(SQLUtils.convertValueToSQL(dataSource, keyAttribute, new Timestamp(min + step * i)));
+        }
+        return bounds;
+    }
+
+    /**
+     * Reads all ranges and passes rows to the consumer.
+     * Rows are passed in the caller thread, so consumer doesn't need to be thread safe.
+     */
+    @NotNull
+    public DBCStatistics readData(
+        @NotNull DBCSession session,
+        @NotNull DBCExecutionSource source,
+        @NotNull IDataTransferConsumer<?, ?> consumer,
+        long readFlags,
+        int fetchSize,
+        int bufferSize
+    ) throws DBCException {
+        DBRProgressMonitor monitor = session.getProgressMonitor();
+        consumerSession = session;
+        rowQueue = new ArrayBlockingQueue<>(Math.max(bufferSize, 1));
+        activeRanges = new AtomicInteger(rangeFilters.size());
+        metaLatch = new CountDownLatch(1);
+
+        List<Thread> rangeThreads = new ArrayList<>(rangeFilters.size());
+        for (int i = 0; i < rangeFilters.size(); i++) {
+            DBDDataFilter rangeFilter = rangeFilters.get(i);
+            int rangeNumber = i + 1;
+            Thread thread = new Thread(
+                () -> readRange(monitor, session.getExecutionContext(), source, rangeFilter, rangeNumber, readFlags, fetchSize),
+                "Data transfer range " + rangeNumber + " (" + entity.getName() + ")");
+            thread.setDaemon(true);
+            rangeThreads.add(thread);
+        }
+        monitor.subTask("Read data in " + rangeThreads.size() + " ranges");
+        for (Thread thread : rangeThreads) {
+            thread.start();
+        }
+
+        boolean completed = false;
+        try {
+            while (!metaLatch.await(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                checkRangeState(monitor);
+            }
+            checkRangeState(monitor);
+            DatabaseBufferedResultSet resultSet = bufferedResultSet;
+            if (resultSet != null) {
+                consumer.fetchStart(session, resultSet, 0, -1);
+                try {
+                    for (;;) {
+                        Object[] row = rowQueue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                        if (row == null) {
+                            checkRangeState(monitor);
+                            continue;
+                        }
+                        if (row == EOF_ROW) {
+                            break;
+                        }
+                        resultSet.setRow(row);
+                        consumer.fetchRow(session, resultSet);
+                    }
+                    resultSet.setRow(null);
+                } finally {
+                    try {
+                        consumer.fetchEnd(session, resultSet);
+                    } catch (Throwable e) {
+                        log.error("Error while finishing result set fetch", e); //$NON-NLS-1$
+                    }
+                }
+            }
+            checkRangeState(monitor);
+            completed = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DBCException("Range read interrupted", e);
+        } finally {
+            if (!completed) {
+                aborted = true;
+                rowQueue.clear();
+            }
+            finishRanges(rangeThreads, completed);
+            consumer.close();
+        }
+        return statistics;
+    }
+
+    /**
+     * Waits for range threads. If read was aborted then range statements are canceled first.
+     * Threads which do not react on cancel get their contexts closed.
+     * Threads still alive after that are abandoned, they are daemons and finish on their own.
+     */
+    private void finishRanges(@NotNull List<Thread> rangeThreads, boolean completed) {
+        try {
+            if (completed) {
+                // All ranges have sent EOF, threads only close their contexts
+                for (Thread thread : rangeThreads) {
+                    thread.join();
+                }
+                return;
+            }
+            if (joinRanges(rangeThreads, RANGE_CANCEL_TIMEOUT_MS, true)) {
+                return;
+            }
+            log.debug("Range threads do not respond to cancel. Close range contexts.");
+            for (RangeProgressMonitor rangeMonitor : getRangeMonitors()) {
+                rangeMonitor.closeContext();
+            }
+            if (!joinRanges(rangeThreads, RANGE_CLOSE_TIMEOUT_MS, false)) {
+                for (Thread thread : rangeThreads) {
+                    if (thread.isAlive()) {
+                        log.warn("Range thread '" + thread.getName() + "' is still running. Abandon it.");
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean joinRanges(@NotNull List<Thread> rangeThreads, long timeout, boolean cancelBlocks) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeout;
+        for (;;) {
+            if (cancelBlocks) {
+                // Ranges may start new blocks until they see the abort flag
+                for (RangeProgressMonitor rangeMonitor : getRangeMonitors()) {
+                    rangeMonitor.cancelBlocks();
+                }
+            }
+            boolean alive = false;
+            for (Thread thread : rangeThreads) {
+                thread.join(POLL_TIMEOUT_MS);
+                alive |= thread.isAlive();
+            }
+            if (!alive) {
+                return true;
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                return false;
+            }
+        }
+    }
+
+    @NotNull
+    private List<RangeProgressMonitor> getRangeMonitors() {
+        synchronized (rangeMonitors) {
+            return new ArrayList<>(rangeMonitors);
+        }
+    }
+
+    private void checkRangeState(@NotNull DBRProgressMonitor monitor) throws DBCException {
+        Throwable error = rangeError;
+        if (error != null) {
+            if (error instanceof DBCException) {
+                throw (DBCException) error;
+            }
+            throw new DBCException("Error reading table range", error);
+        }
+        if (monitor.isCanceled()) {
+            throw new DBCException("Data transfer canceled");
+        }
+    }
+
+    private void readRange(
+        @NotNull DBRProgressMonitor parentMonitor,
+        @NotNull DBCExecutionContext initContext,
+        @NotNull DBCExecutionSource source,
+        @NotNull DBDDataFilter rangeFilter,
+        int rangeNumber,
+        long readFlags,
+        int fetchSize)
+    {
+        RangeProgressMonitor monitor = new RangeProgressMonitor(parentMonitor);
+        synchronized (rangeMonitors) {
+            rangeMonitors.add(monitor);
+        }
+        try {
+            DBCExecutionContext rangeContext = DBUtils.getObjectOwnerInstance(entity).openIsolatedContext(monitor, "Data transfer range " + rangeNumber, initContext);
+            monitor.setContext(rangeContext);
+            try (DBCSession session = rangeContext.openSession(monitor, DBCExecutionPurpose.UTIL, "Read table range " + rangeNumber)) {
+                session.enableLogging(false);
+                DBCStatistics rangeStatistics = ((DBSDataContainer) entity).readData(
+                    source, session, new RangeReceiver(), rangeFilter, -1, -1, readFlags, fetchSize);
+                synchronized (statistics) {
+                    statistics.accumulate(rangeStatistics);
+                }
+            }
+        } catch (Throwable e) {
+            if (rangeError == null) {
+                rangeError = e;
+            }
+            aborted = true;
+        } finally {
+            monitor.closeContext();
+            if (activeRanges.decrementAndGet() == 0) {
+                // Last range. All other ranges already queued their rows.
+                try {
+                    while (!aborted && !rowQueue.offer(EOF_ROW, POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                        // Wait for the consumer
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                metaLatch.countDown();
+            }
+        }
+    }
+
+    /**
+     * Reads row values in the range thread and puts them into the queue
+     */
+    private class RangeReceiver implements DBDDataReceiver {
+        private DBCAttributeMetaData[] attributes;
+        private DBDValueHandler[] valueHandlers;
+        private int rowSize;
+
+        @Override
+        public void fetchStart(DBCSession session, DBCResultSet resultSet, long offset, long maxRows) throws DBCException {
+            List<DBCAttributeMetaData> metaAttributes = resultSet.getMeta().getAttributes();
+            attributes = metaAttributes.toArray(new DBCAttributeMetaData[0]);
+            valueHandlers = new DBDValueHandler[attributes.length];
+            for (int i = 0; i < attributes.length; i++) {
+                valueHandlers[i] = DBUtils.findValueHandler(session, attributes[i]);
+                rowSize = Math.max(rowSize, attributes[i].getOrdinalPosition() + 1);
+            }
+            synchronized (DatabaseRangeReader.this) {
+                if (bufferedResultSet == null) {
+                    // All ranges have the same columns. Consumer uses metadata of the first one.
+                    bufferedResultSet = new DatabaseBufferedResultSet(consumerSession, null, resultSet.getMeta());
+                    metaLatch.countDown();
+                }
+            }
+        }
+
+        @Override
+        public void fetchRow(DBCSession session, DBCResultSet resultSet) throws DBCException {
+            Object[] row = new Object[rowSize];
+            for (int i = 0; i < attributes.length; i++) {
+                DBCAttributeMetaData attribute = attributes[i];
+                row[attribute.getOrdinalPosition()] = valueHandlers[i].fetchValueObject(session, resultSet, attribute, attribute.getOrdinalPosition());
+            }
+            try {
+                while (!rowQueue.offer(row, POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    if (aborted || session.getProgressMonitor().isCanceled()) {
+                        throw new DBCException("Range read aborted");
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DBCException("Range read interrupted", e);
+            }
+        }
+
+        @Override
+        public void fetchEnd(DBCSession session, DBCResultSet resultSet) {
+            // Nothing to do
+        }
+
+        @Override
+        public void close() {
+            // Nothing to close
+        }
+    }
+
+    /**
+     * Range threads must not change the state of the shared job monitor.
+     * Tracks blocking objects and the context of the range so the reader can cancel or close them.
+     */
+    private class RangeProgressMonitor extends BaseProgressMonitor {
+        private final DBRProgressMonitor parent;
+        private final Thread rangeThread;
+        private final List<DBRBlockingObject> blocks = new ArrayList<>();
+        private final List<DBRBlockingObject> canceledBlocks = new ArrayList<>();
+        private DBCExecutionContext context;
+        private boolean contextClosed;
+
+        RangeProgressMonitor(@NotNull DBRProgressMonitor parent) {
+            this.parent = parent;
+            this.rangeThread = Thread.currentThread();
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return aborted || parent.isCanceled();
+        }
+
+        @Override
+        public synchronized void startBlock(DBRBlockingObject object, String taskName) {
+            blocks.add(object);
+        }
+
+        @Override
+        public synchronized void endBlock() {
+            if (!blocks.isEmpty()) {
+                canceledBlocks.remove(blocks.remove(blocks.size() - 1));
+            }
+        }
+
+        @Override
+        public synchronized List<DBRBlockingObject> getActiveBlocks() {
+            return new ArrayList<>(blocks);
+        }
+
+        void cancelBlocks() {
+            List<DBRBlockingObject> toCancel = new ArrayList<>();
+            synchronized (this) {
+                for (DBRBlockingObject block : blocks) {
+                    if (!canceledBlocks.contains(block)) {
+                        canceledBlocks.add(block);
+                        toCancel.add(block);
+                    }
+                }
+            }
+            for (DBRBlockingObject block : toCancel) {
+                try {
+                    BlockCanceler.cancelBlock(this, block, rangeThread);
+                } catch (Throwable e) {
+                    log.debug("Error canceling range block", e);
+                }
+            }
+        }
+
+        synchronized void setContext(@NotNull DBCExecutionContext context) {
+            this.context = context;
+            if (contextClosed) {
+                // Reader gave up on this range before it was opened
+                context.close();
+            }
+        }
+
+        void closeContext() {
+            DBCExecutionContext toClose;
+            synchronized (this) {
+                if (contextClosed) {
+                    return;
+                }
+                contextClosed = true;
+                toClose = context;
+            }
+            if (toClose != null) {
+                try {
+                    toClose.close();
+                } catch (Throwable e) {
+                    log.debug("Error closing range context", e);
+                }
+            }
+        }
+    }
+}
@@ -285,6 +285,12 @@ public class DatabaseTransferConsumer implements IDataTransferConsumer<DatabaseC
         Map<String, Object> options = new HashMap<>();
         options.put(DBSDataManipulator.OPTION_USE_MULTI_INSERT, settings.isUseMultiRowInsert());
         options.put(DBSDataManipulator.OPTION_SKIP_BIND_VALUES, settings.isSkipBindValues());
+        options.put(DBSDataBulkLoader.OPTION_STREAM_ROWS, settings.isBulkLoadStreamRows());
+        options.put(DBSDataBulkLoader.OPTION_BINARY_FORMAT, settings.isBulkLoadBinaryFormat());
+        options.put(DBSDataBulkLoader.OPTION_CHUNK_SIZE, settings.getBulkLoadChunkSize());
+        options.put(DBSDataBulkLoader.OPTION_TABLE_LOCK, settings.isBulkLoadTableLock());
+        options.put(DBSDataBulkLoader.OPTION_KEEP_NULLS, settings.isBulkLoadKeepNulls());
+        options.put(DBSDataBulkLoader.OPTION_KEEP_IDENTITY, settings.isTransferAutoGeneratedColumns());
 
         if (!isPreview && targetObject != null) {
             if (settings.isUseBulkLoad()) {
@@ -293,6 +299,8 @@ public class DatabaseTransferConsumer implements IDataTransferConsumer<DatabaseC
                     try {
                         bulkLoadManager = bulkLoader.createBulkLoad(
                             targetSession, targetObject, attributes, executionSource, settings.getCommitAfterRows(), options);
+                    } catch (DBCFeatureNotSupportedException e) {
+                        log.warn("Bulk load is not supported, use regular inserts: " + e.getMessage());
                     } catch (Exception e) {
                         throw new DBCException("Error creating bulk loader", e);
                     }
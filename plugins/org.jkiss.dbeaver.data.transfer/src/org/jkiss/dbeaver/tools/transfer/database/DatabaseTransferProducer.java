@@ -25,6 +25,7 @@ import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.model.*;
 import org.jkiss.dbeaver.model.app.DBPProject;
 import org.jkiss.dbeaver.model.data.DBDDataFilter;
+import org.jkiss.dbeaver.model.data.DBDDataReceiver;
 import org.jkiss.dbeaver.model.exec.*;
 import org.jkiss.dbeaver.model.impl.AbstractExecutionSource;
 import org.jkiss.dbeaver.model.impl.DataSourceContextProvider;
@@ -261,20 +262,45 @@ public class DatabaseTransferProducer implements IDataTransferProducer<DatabaseP
 
                         monitor.beginTask(DTMessages.data_transfer_wizard_job_task_export_table_data, (int) totalRows);
 
+                        // In pipelined mode target is written in a separate thread while source rows are being fetched
+                        DatabasePipelinedReceiver pipelinedReceiver = settings.isPipelined() ?
+                            new DatabasePipelinedReceiver(consumer, dataContainer, settings.getPipelineBufferSize()) : null;
+                        DBDDataReceiver dataReceiver = pipelinedReceiver != null ? pipelinedReceiver : consumer;
                         try {
                             monitor.subTask("Read data");
 
                             // Perform export
-                            if (settings.getExtractType() == DatabaseProducerSettings.ExtractType.SINGLE_QUERY) {
+                            DatabaseRangeReader rangeReader = null;
+                            if (settings.getExtractType() == DatabaseProducerSettings.ExtractType.SINGLE_QUERY && settings.getSplitRangeCount() > 1 && !selectiveExportFromUI) {
+                                rangeReader = DatabaseRangeReader.create(session, dataContainer, dataFilter, settings.getSplitRangeCount());
+                            }
+                            if (rangeReader != null) {
+                                // Read key ranges in parallel, each in its own connection
+                                producerStatistics.accumulate(rangeReader.readData(session, transferSource, consumer, readFlags, settings.getFetchSize(), settings.getPipelineBufferSize()));
+                            } else if (settings.getExtractType() == DatabaseProducerSettings.ExtractType.SINGLE_QUERY) {
                                 // Just do it in single query
-                                producerStatistics.accumulate(dataContainer.readData(transferSource, session, consumer, dataFilter, -1, -1, readFlags, settings.getFetchSize()));
+                                producerStatistics.accumulate(dataContainer.readData(transferSource, session, dataReceiver, dataFilter, -1, -1, readFlags, settings.getFetchSize()));
+                                if (pipelinedReceiver != null) {
+                                    pipelinedReceiver.checkConsumerError();
+                                }
                             } else {
-                                // Read all data by segments
+                                // Read all data by segments.
+                                // Use keyset pagination if possible, otherwise each segment rescans all previous rows.
+                                DatabaseKeysetSegmenter keyset = DatabaseKeysetSegmenter.create(monitor, dataContainer, dataFilter);
                                 long offset = 0;
                                 int segmentSize = settings.getSegmentSize();
                                 for (; ; ) {
-                                    DBCStatistics statistics = dataContainer.readData(
-                                        transferSource, session, consumer, dataFilter, offset, segmentSize, readFlags, settings.getFetchSize());
+                                    DBCStatistics statistics;
+                                    if (keyset != null) {
+                                        statistics = keyset.readSegment(
+                                            transferSource, session, dataReceiver, dataFilter, offset, segmentSize, readFlags, settings.getFetchSize());
+                                    } else {
+                                        statistics = dataContainer.readData(
+                                            transferSource, session, dataReceiver, dataFilter, offset, segmentSize, readFlags, settings.getFetchSize());
+                                    }
+                                    if (pipelinedReceiver != null) {
+                                        pipelinedReceiver.checkConsumerError();
+                                    }
                                     if (statistics == null || statistics.getRowsFetched() < segmentSize) {
                                         // Done
                                         break;
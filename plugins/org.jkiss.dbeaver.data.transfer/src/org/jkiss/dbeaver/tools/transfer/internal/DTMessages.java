@@ -39,6 +39,7 @@ public class DTMessages extends NLS {
 	public static String data_transfer_wizard_output_checkbox_select_row_count;
 	public static String data_transfer_wizard_output_checkbox_selected_columns_only;
 	public static String data_transfer_wizard_output_checkbox_selected_rows_only;
+	public static String data_transfer_wizard_output_checkbox_pipelined;
 	public static String data_transfer_wizard_output_combo_extract_type_item_by_segments;
 	public static String data_transfer_wizard_output_combo_extract_type_item_single_query;
 	public static String data_transfer_wizard_output_description;
@@ -59,6 +60,7 @@ public class DTMessages extends NLS {
 	public static String data_transfer_wizard_output_label_insert_bom_tooltip;
 	public static String data_transfer_wizard_output_label_max_threads;
 	public static String data_transfer_wizard_output_label_segment_size;
+	public static String data_transfer_wizard_output_label_split_ranges;
 	public static String data_transfer_wizard_output_label_add_to_end_of_file;
 	public static String data_transfer_wizard_output_label_add_to_end_of_file_tip;
 	public static String data_transfer_wizard_output_error_empty_output_directory;
@@ -141,6 +143,11 @@ public class DTMessages extends NLS {
 	public static String database_consumer_settings_option_transfer_auto_generated_columns;
 	public static String database_consumer_settings_option_disable_referential_integrity;
 	public static String database_consumer_settings_option_use_bulk_load;
+	public static String database_consumer_settings_option_bulk_load_stream_rows;
+	public static String database_consumer_settings_option_bulk_load_binary_format;
+	public static String database_consumer_settings_option_bulk_load_chunk_size;
+	public static String database_consumer_settings_option_bulk_load_table_lock;
+	public static String database_consumer_settings_option_bulk_load_keep_nulls;
 	public static String database_consumer_settings_option_truncate_before_load;
 
 	public static String data_transfer_settings_title_find_producer;
@@ -193,8 +193,10 @@ public class StreamTransferConsumer implements IDataTransferConsumer<StreamConsu
     public void fetchRow(DBCSession session, DBCResultSet resultSet) throws DBCException {
         try {
             // Check for file split
-            if (settings.isSplitOutFiles() && !parameters.isBinary && !firstRow) {
-                writer.flush();
+            if (settings.isSplitOutFiles() && (!parameters.isBinary || processor instanceof IBlockDataExporter) && !firstRow) {
+                if (writer != null) {
+                    writer.flush();
+                }
                 if (bytesWritten >= settings.getMaxOutFileSize()) {
                     // First add footer for the previous file
                     exportFooterInFile(session.getProgressMonitor());
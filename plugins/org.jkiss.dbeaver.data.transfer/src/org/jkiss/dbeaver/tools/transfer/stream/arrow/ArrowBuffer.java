@@ -0,0 +1,126 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.arrow;
+
+import org.jkiss.code.NotNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Growable little-endian byte buffer
+ */
+public class ArrowBuffer {
+
+    private byte[] data;
+    private int size;
+
+    public ArrowBuffer() {
+        this(1024);
+    }
+
+    public ArrowBuffer(int capacity) {
+        data = new byte[Math.max(capacity, 16)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void reset() {
+        size = 0;
+    }
+
+    public void putByte(int value) {
+        ensureCapacity(1);
+        data[size++] = (byte) value;
+    }
+
+    public void putShort(int value) {
+        ensureCapacity(2);
+        setShort(size, value);
+        size += 2;
+    }
+
+    public void putInt(int value) {
+        ensureCapacity(4);
+        setInt(size, value);
+        size += 4;
+    }
+
+    public void putLong(long value) {
+        ensureCapacity(8);
+        setInt(size, (int) value);
+        setInt(size + 4, (int) (value >>> 32));
+        size += 8;
+    }
+
+    public void putBytes(@NotNull byte[] bytes, int offset, int length) {
+        ensureCapacity(length);
+        System.arraycopy(bytes, offset, data, size, length);
+        size += length;
+    }
+
+    public void putBuffer(@NotNull ArrowBuffer buffer) {
+        putBytes(buffer.data, 0, buffer.size);
+    }
+
+    /**
+     * Appends zero bytes
+     */
+    public void putZeros(int count) {
+        ensureCapacity(count);
+        Arrays.fill(data, size, size + count, (byte) 0);
+        size += count;
+    }
+
+    /**
+     * Pads buffer with zeros to make its size a multiple of the alignment
+     */
+    public void align(int alignment) {
+        int padding = (alignment - size % alignment) % alignment;
+        putZeros(padding);
+    }
+
+    public void setShort(int position, int value) {
+        data[position] = (byte) value;
+        data[position + 1] = (byte) (value >>> 8);
+    }
+
+    public void setInt(int position, int value) {
+        data[position] = (byte) value;
+        data[position + 1] = (byte) (value >>> 8);
+        data[position + 2] = (byte) (value >>> 16);
+        data[position + 3] = (byte) (value >>> 24);
+    }
+
+    public void setBit(int bitIndex) {
+        data[bitIndex >> 3] |= (byte) (1 << (bitIndex & 7));
+    }
+
+    public void writeTo(@NotNull OutputStream out) throws IOException {
+        out.write(data, 0, size);
+    }
+
+    private void ensureCapacity(int length) {
+        if (size + length > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, size + length));
+        }
+    }
+
+}
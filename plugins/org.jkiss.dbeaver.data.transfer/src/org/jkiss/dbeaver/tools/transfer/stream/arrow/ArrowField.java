@@ -0,0 +1,229 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.arrow;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+
+import java.io.IOException;
+import java.util.Collections;
+
+/**
+ * Arrow schema field
+ */
+public class ArrowField {
+
+    private final String name;
+    private final ArrowType type;
+    // Bit width of integers, times and decimals
+    private final int bitWidth;
+    private final boolean signed;
+    // Floating point precision or decimal precision
+    private final int precision;
+    private final int scale;
+    // Date or time unit
+    private final int unit;
+    private final String timezone;
+
+    private ArrowField(
+        @NotNull String name,
+        @NotNull ArrowType type,
+        int bitWidth,
+        boolean signed,
+        int precision,
+        int scale,
+        int unit,
+        @Nullable String timezone)
+    {
+        this.name = name;
+        this.type = type;
+        this.bitWidth = bitWidth;
+        this.signed = signed;
+        this.precision = precision;
+        this.scale = scale;
+        this.unit = unit;
+        this.timezone = timezone;
+    }
+
+    @NotNull
+    public static ArrowField makeSimple(@NotNull String name, @NotNull ArrowType type) {
+        return new ArrowField(name, type, 0, true, 0, 0, 0, null);
+    }
+
+    @NotNull
+    public static ArrowField makeInt(@NotNull String name, int bitWidth) {
+        return new ArrowField(name, ArrowType.INT, bitWidth, true, 0, 0, 0, null);
+    }
+
+    @NotNull
+    public static ArrowField makeFloatingPoint(@NotNull String name, int precision) {
+        return new ArrowField(name, ArrowType.FLOATING_POINT, 0, true, precision, 0, 0, null);
+    }
+
+    @NotNull
+    public static ArrowField makeDecimal(@NotNull String name, int precision, int scale) {
+        return new ArrowField(name, ArrowType.DECIMAL, 128, true, precision, scale, 0, null);
+    }
+
+    @NotNull
+    public static ArrowField makeDate(@NotNull String name) {
+        return new ArrowField(name, ArrowType.DATE, 0, true, 0, 0, ArrowType.DATE_UNIT_DAY, null);
+    }
+
+    @NotNull
+    public static ArrowField makeTime(@NotNull String name) {
+        return new ArrowField(name, ArrowType.TIME, 64, true, 0, 0, ArrowType.TIME_UNIT_MICROSECOND, null);
+    }
+
+    /**
+     * Timestamp in microseconds. Timestamps without time zone represent local date and time.
+     */
+    @NotNull
+    public static ArrowField makeTimestamp(@NotNull String name, @Nullable String timezone) {
+        return new ArrowField(name, ArrowType.TIMESTAMP, 0, true, 0, 0, ArrowType.TIME_UNIT_MICROSECOND, timezone);
+    }
+
+    @NotNull
+    public String getName() {
+        return name;
+    }
+
+    @NotNull
+    public ArrowType getType() {
+        return type;
+    }
+
+    public int getBitWidth() {
+        return bitWidth;
+    }
+
+    public boolean isSigned() {
+        return signed;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    public int getUnit() {
+        return unit;
+    }
+
+    @Nullable
+    public String getTimezone() {
+        return timezone;
+    }
+
+    /**
+     * Size of a fixed width value in bytes. Zero for booleans and variable width types.
+     */
+    public int getByteWidth() {
+        switch (type) {
+            case INT:
+            case TIME:
+            case DECIMAL:
+                return bitWidth / 8;
+            case FLOATING_POINT:
+                return precision == ArrowType.PRECISION_SINGLE ? 4 : 8;
+            case DATE:
+                return unit == ArrowType.DATE_UNIT_DAY ? 4 : 8;
+            case TIMESTAMP:
+                return 8;
+            default:
+                return 0;
+        }
+    }
+
+    @NotNull
+    FlatBufferBuilder.Table serialize() {
+        FlatBufferBuilder.Table typeTable = new FlatBufferBuilder.Table();
+        switch (type) {
+            case INT:
+                typeTable.addInt(0, bitWidth).addBool(1, signed);
+                break;
+            case FLOATING_POINT:
+                typeTable.addShort(0, precision);
+                break;
+            case DECIMAL:
+                typeTable.addInt(0, precision).addInt(1, scale).addInt(2, bitWidth);
+                break;
+            case DATE:
+                typeTable.addShort(0, unit);
+                break;
+            case TIME:
+                typeTable.addShort(0, unit).addInt(1, bitWidth);
+                break;
+            case TIMESTAMP:
+                typeTable.addShort(0, unit);
+                if (timezone != null) {
+                    typeTable.addString(1, timezone);
+                }
+                break;
+            default:
+                break;
+        }
+        return new FlatBufferBuilder.Table()
+            .addString(0, name)
+            .addBool(1, true)
+            .addByte(2, type.getTypeId())
+            .addTable(3, typeTable)
+            .addTableVector(5, Collections.emptyList());
+    }
+
+    @NotNull
+    static ArrowField deserialize(@NotNull FlatBufferTable field) throws IOException {
+        String name = field.getString(0);
+        if (name == null) {
+            name = "";
+        }
+        int typeId = field.getByte(2, 0);
+        ArrowType type = ArrowType.getById(typeId);
+        if (type == null || field.hasField(4) || field.getVectorLength(5) > 0) {
+            throw new IOException("Arrow field '" + name + "' type (" + typeId + ") is not supported");
+        }
+        FlatBufferTable typeTable = field.getTable(3);
+        if (typeTable == null) {
+            throw new IOException("Arrow field '" + name + "' has no type information");
+        }
+        switch (type) {
+            case INT:
+                return new ArrowField(name, type, typeTable.getInt(0, 0), typeTable.getBool(1, false), 0, 0, 0, null);
+            case FLOATING_POINT: {
+                int precision = typeTable.getShort(0, 0);
+                if (precision != ArrowType.PRECISION_SINGLE && precision != ArrowType.PRECISION_DOUBLE) {
+                    throw new IOException("Arrow field '" + name + "': half precision floating point is not supported");
+                }
+                return new ArrowField(name, type, 0, true, precision, 0, 0, null);
+            }
+            case DECIMAL:
+                return new ArrowField(name, type, typeTable.getInt(2, 128), true, typeTable.getInt(0, 0), typeTable.getInt(1, 0), 0, null);
+            case DATE:
+                return new ArrowField(name, type, 0, true, 0, 0, typeTable.getShort(0, ArrowType.DATE_UNIT_MILLISECOND), null);
+            case TIME:
+                return new ArrowField(name, type, typeTable.getInt(1, 32), true, 0, 0, typeTable.getShort(0, ArrowType.TIME_UNIT_MILLISECOND), null);
+            case TIMESTAMP:
+                return new ArrowField(name, type, 0, true, 0, 0, typeTable.getShort(0, ArrowType.TIME_UNIT_SECOND), typeTable.getString(1));
+            default:
+                return makeSimple(name, type);
+        }
+    }
+
+}
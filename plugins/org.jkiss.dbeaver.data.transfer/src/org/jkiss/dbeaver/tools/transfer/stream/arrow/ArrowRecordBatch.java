@@ -0,0 +1,227 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.arrow;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Arrow record batch.
+ * Values are read directly from the batch body and converted to JDBC-friendly Java objects.
+ */
+public class ArrowRecordBatch {
+
+    private static final int FIELD_NODE_SIZE = 16;
+    private static final int BUFFER_SIZE = 16;
+
+    private final List<ArrowField> fields;
+    private final ByteBuffer body;
+    private final int rowCount;
+    // Per field: validity, offsets (or -1), data buffer positions in the body
+    private final int[] validityBuffers;
+    private final int[] offsetBuffers;
+    private final int[] dataBuffers;
+    private final long[] nullCounts;
+
+    ArrowRecordBatch(@NotNull List<ArrowField> fields, @NotNull FlatBufferTable header, @NotNull byte[] body) throws IOException {
+        if (header.hasField(3)) {
+            throw new IOException("Compressed Arrow record batches are not supported");
+        }
+        this.fields = fields;
+        this.body = ByteBuffer.wrap(body).order(ByteOrder.LITTLE_ENDIAN);
+        long length = header.getLong(0, 0);
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Arrow record batch is too big (" + length + ")");
+        }
+        this.rowCount = (int) length;
+        if (header.getVectorLength(1) != fields.size()) {
+            throw new IOException("Arrow record batch doesn't match the schema");
+        }
+        int fieldCount = fields.size();
+        validityBuffers = new int[fieldCount];
+        offsetBuffers = new int[fieldCount];
+        dataBuffers = new int[fieldCount];
+        nullCounts = new long[fieldCount];
+        int bufferIndex = 0;
+        int bufferCount = header.getVectorLength(2);
+        for (int i = 0; i < fieldCount; i++) {
+            nullCounts[i] = header.getVectorStructLong(1, i, FIELD_NODE_SIZE, 8);
+            int fieldBuffers = fields.get(i).getType().isVariableWidth() ? 3 : 2;
+            if (bufferIndex + fieldBuffers > bufferCount) {
+                throw new IOException("Arrow record batch doesn't match the schema");
+            }
+            validityBuffers[i] = getBufferPosition(header, bufferIndex++);
+            offsetBuffers[i] = fieldBuffers == 3 ? getBufferPosition(header, bufferIndex++) : -1;
+            dataBuffers[i] = getBufferPosition(header, bufferIndex++);
+        }
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public boolean isNull(int fieldIndex, int row) {
+        if (nullCounts[fieldIndex] == 0 || validityBuffers[fieldIndex] < 0) {
+            return false;
+        }
+        return (body.get(validityBuffers[fieldIndex] + (row >> 3)) & (1 << (row & 7))) == 0;
+    }
+
+    /**
+     * Returns value as Integer, Long, Float, Double, BigDecimal, Boolean, String, byte[],
+     * java.sql.Date, Time or Timestamp
+     */
+    @Nullable
+    public Object getValue(int fieldIndex, int row) {
+        if (isNull(fieldIndex, row)) {
+            return null;
+        }
+        ArrowField field = fields.get(fieldIndex);
+        int data = dataBuffers[fieldIndex];
+        switch (field.getType()) {
+            case BOOL:
+                return (body.get(data + (row >> 3)) & (1 << (row & 7))) != 0;
+            case INT:
+                return getInt(field, data, row);
+            case FLOATING_POINT:
+                if (field.getByteWidth() == 4) {
+                    return body.getFloat(data + row * 4);
+                }
+                return body.getDouble(data + row * 8);
+            case DECIMAL: {
+                int width = field.getByteWidth();
+                byte[] bytes = new byte[width];
+                for (int i = 0; i < width; i++) {
+                    bytes[width - 1 - i] = body.get(data + row * width + i);
+                }
+                return new BigDecimal(new BigInteger(bytes), field.getScale());
+            }
+            case DATE:
+                if (field.getUnit() == ArrowType.DATE_UNIT_DAY) {
+                    return java.sql.Date.valueOf(LocalDate.ofEpochDay(body.getInt(data + row * 4)));
+                }
+                return java.sql.Date.valueOf(LocalDate.ofEpochDay(Math.floorDiv(body.getLong(data + row * 8), 86400_000L)));
+            case TIME: {
+                long value = field.getByteWidth() == 4 ? body.getInt(data + row * 4) : body.getLong(data + row * 8);
+                return Time.valueOf(LocalTime.ofNanoOfDay(toNanos(value, field.getUnit())));
+            }
+            case TIMESTAMP: {
+                long value = body.getLong(data + row * 8);
+                long nanosPerUnit = toNanos(1, field.getUnit());
+                long unitsPerSecond = 1_000_000_000L / nanosPerUnit;
+                long seconds = Math.floorDiv(value, unitsPerSecond);
+                int nanos = (int) (Math.floorMod(value, unitsPerSecond) * nanosPerUnit);
+                if (field.getTimezone() == null) {
+                    return Timestamp.valueOf(LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC));
+                }
+                return Timestamp.from(Instant.ofEpochSecond(seconds, nanos));
+            }
+            case UTF8:
+            case LARGE_UTF8:
+                return new String(body.array(), getValueStart(fieldIndex, row), getValueLength(fieldIndex, row), StandardCharsets.UTF_8);
+            default: {
+                int start = getValueStart(fieldIndex, row);
+                byte[] bytes = new byte[getValueLength(fieldIndex, row)];
+                System.arraycopy(body.array(), start, bytes, 0, bytes.length);
+                return bytes;
+            }
+        }
+    }
+
+    @NotNull
+    private Object getInt(@NotNull ArrowField field, int data, int row) {
+        switch (field.getBitWidth()) {
+            case 8: {
+                byte value = body.get(data + row);
+                return field.isSigned() ? (int) value : value & 0xFF;
+            }
+            case 16: {
+                short value = body.getShort(data + row * 2);
+                return field.isSigned() ? (int) value : value & 0xFFFF;
+            }
+            case 32: {
+                int value = body.getInt(data + row * 4);
+                return field.isSigned() ? (Object) value : (Object) (value & 0xFFFFFFFFL);
+            }
+            default: {
+                long value = body.getLong(data + row * 8);
+                if (field.isSigned() || value >= 0) {
+                    return value;
+                }
+                return new BigDecimal(Long.toUnsignedString(value));
+            }
+        }
+    }
+
+    private int getValueStart(int fieldIndex, int row) {
+        int offsets = offsetBuffers[fieldIndex];
+        if (fields.get(fieldIndex).getType() == ArrowType.LARGE_UTF8 || fields.get(fieldIndex).getType() == ArrowType.LARGE_BINARY) {
+            return dataBuffers[fieldIndex] + (int) body.getLong(offsets + row * 8);
+        }
+        return dataBuffers[fieldIndex] + body.getInt(offsets + row * 4);
+    }
+
+    private int getValueLength(int fieldIndex, int row) {
+        int offsets = offsetBuffers[fieldIndex];
+        if (fields.get(fieldIndex).getType() == ArrowType.LARGE_UTF8 || fields.get(fieldIndex).getType() == ArrowType.LARGE_BINARY) {
+            return (int) (body.getLong(offsets + row * 8 + 8) - body.getLong(offsets + row * 8));
+        }
+        return body.getInt(offsets + row * 4 + 4) - body.getInt(offsets + row * 4);
+    }
+
+    private static long toNanos(long value, int unit) {
+        switch (unit) {
+            case ArrowType.TIME_UNIT_SECOND:
+                return value * 1_000_000_000L;
+            case ArrowType.TIME_UNIT_MILLISECOND:
+                return value * 1_000_000L;
+            case ArrowType.TIME_UNIT_MICROSECOND:
+                return value * 1_000L;
+            default:
+                return value;
+        }
+    }
+
+    private int getBufferPosition(@NotNull FlatBufferTable header, int index) throws IOException {
+        long offset = header.getVectorStructLong(2, index, BUFFER_SIZE, 0);
+        long length = header.getVectorStructLong(2, index, BUFFER_SIZE, 8);
+        if (length == 0) {
+            // Omitted buffer (e.g. validity of a field without nulls)
+            return -1;
+        }
+        if (offset < 0 || offset + length > body.capacity()) {
+            throw new IOException("Arrow buffer is out of record batch body");
+        }
+        return (int) offset;
+    }
+
+}
@@ -0,0 +1,202 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.arrow;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Arrow IPC reader. Reads both streaming and file (Feather v2) formats sequentially,
+ * one record batch at a time. File footer is not needed and is never read.
+ */
+public class ArrowStreamReader {
+
+    static final byte[] FILE_MAGIC = "ARROW1".getBytes(StandardCharsets.US_ASCII);
+    static final int CONTINUATION_MARKER = 0xFFFFFFFF;
+    static final int METADATA_VERSION = 4; // V5
+
+    static final int HEADER_SCHEMA = 1;
+    static final int HEADER_DICTIONARY_BATCH = 2;
+    static final int HEADER_RECORD_BATCH = 3;
+
+    private final DataInputStream in;
+    private boolean fileFormat;
+    private List<ArrowField> fields;
+    private boolean finished;
+
+    public ArrowStreamReader(@NotNull InputStream in) {
+        this.in = new DataInputStream(in);
+    }
+
+    /**
+     * Reads schema message. Must be called before reading record batches.
+     */
+    @NotNull
+    public List<ArrowField> readSchema() throws IOException {
+        if (fields != null) {
+            return fields;
+        }
+        byte[] start = new byte[8];
+        in.readFully(start);
+        Message message;
+        if (Arrays.equals(Arrays.copyOf(start, FILE_MAGIC.length), FILE_MAGIC)) {
+            fileFormat = true;
+            message = readNextMessage(readIntLE());
+        } else if (getIntLE(start, 0) == CONTINUATION_MARKER) {
+            int metadataLength = getIntLE(start, 4);
+            message = metadataLength == 0 ? null : readMessage(metadataLength);
+        } else {
+            // Legacy format without continuation marker: metadata starts right after its length
+            int metadataLength = getIntLE(start, 0);
+            if (metadataLength < 4) {
+                throw new IOException("Not an Arrow stream");
+            }
+            byte[] metadata = new byte[metadataLength];
+            System.arraycopy(start, 4, metadata, 0, 4);
+            in.readFully(metadata, 4, metadataLength - 4);
+            message = readMessageBody(metadata);
+        }
+        if (message == null) {
+            throw new IOException("Arrow schema is missing");
+        }
+        return readSchemaMessage(message);
+    }
+
+    /**
+     * Reads next record batch. Returns null at the end of stream.
+     */
+    @Nullable
+    public ArrowRecordBatch readNextBatch() throws IOException {
+        if (fields == null) {
+            readSchema();
+        }
+        while (!finished) {
+            int firstInt;
+            try {
+                firstInt = readIntLE();
+            } catch (EOFException e) {
+                // Stream without end marker
+                finished = true;
+                break;
+            }
+            Message message = readNextMessage(firstInt);
+            if (message == null) {
+                finished = true;
+                break;
+            }
+            switch (message.headerType) {
+                case HEADER_RECORD_BATCH:
+                    return new ArrowRecordBatch(fields, message.header, message.body);
+                case HEADER_DICTIONARY_BATCH:
+                    throw new IOException("Arrow dictionary encoded fields are not supported");
+                default:
+                    // Skip unknown messages
+                    break;
+            }
+        }
+        return null;
+    }
+
+    @NotNull
+    private List<ArrowField> readSchemaMessage(@NotNull Message message) throws IOException {
+        if (message.headerType != HEADER_SCHEMA) {
+            throw new IOException("Arrow stream must start with schema message (" + message.headerType + ")");
+        }
+        int fieldCount = message.header.getVectorLength(1);
+        List<ArrowField> result = new ArrayList<>(fieldCount);
+        for (int i = 0; i < fieldCount; i++) {
+            result.add(ArrowField.deserialize(message.header.getVectorTable(1, i)));
+        }
+        fields = Collections.unmodifiableList(result);
+        return fields;
+    }
+
+    @Nullable
+    private Message readNextMessage(int firstInt) throws IOException {
+        int metadataLength;
+        if (firstInt == CONTINUATION_MARKER) {
+            metadataLength = readIntLE();
+        } else if (fileFormat) {
+            // File footer (writer didn't write end of stream marker)
+            return null;
+        } else {
+            metadataLength = firstInt;
+        }
+        if (metadataLength == 0) {
+            return null;
+        }
+        return readMessage(metadataLength);
+    }
+
+    @NotNull
+    private Message readMessage(int metadataLength) throws IOException {
+        if (metadataLength < 0) {
+            throw new IOException("Bad Arrow message length: " + metadataLength);
+        }
+        byte[] metadata = new byte[metadataLength];
+        in.readFully(metadata);
+        return readMessageBody(metadata);
+    }
+
+    @NotNull
+    private Message readMessageBody(@NotNull byte[] metadata) throws IOException {
+        FlatBufferTable message = FlatBufferTable.getRoot(metadata);
+        int headerType = message.getByte(1, 0);
+        FlatBufferTable header = message.getTable(2);
+        long bodyLength = message.getLong(3, 0);
+        if (header == null) {
+            throw new IOException("Arrow message header is missing");
+        }
+        if (bodyLength < 0 || bodyLength > Integer.MAX_VALUE) {
+            throw new IOException("Arrow message body is too big (" + bodyLength + ")");
+        }
+        byte[] body = new byte[(int) bodyLength];
+        in.readFully(body);
+        return new Message(headerType, header, body);
+    }
+
+    private int readIntLE() throws IOException {
+        return Integer.reverseBytes(in.readInt());
+    }
+
+    private static int getIntLE(@NotNull byte[] data, int offset) {
+        return (data[offset] & 0xFF) | (data[offset + 1] & 0xFF) << 8 | (data[offset + 2] & 0xFF) << 16 | (data[offset + 3] & 0xFF) << 24;
+    }
+
+    private static class Message {
+        final int headerType;
+        final FlatBufferTable header;
+        final byte[] body;
+
+        Message(int headerType, FlatBufferTable header, byte[] body) {
+            this.headerType = headerType;
+            this.header = header;
+            this.body = body;
+        }
+    }
+
+}
@@ -0,0 +1,189 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.arrow;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Arrow IPC writer. Writes either streaming format or file (Feather v2) format.
+ * <p>
+ * Output stream grows by complete record batches only. File footer is written by {@link #finish()}.
+ */
+public class ArrowStreamWriter {
+
+    private static final byte[] FILE_MAGIC = ArrowStreamReader.FILE_MAGIC;
+
+    private final OutputStream out;
+    private final List<ArrowVector> vectors;
+    private final boolean fileFormat;
+    private final ArrowBuffer recordBlocks = new ArrowBuffer();
+    private int recordBlockCount;
+    private long position;
+
+    public ArrowStreamWriter(@NotNull OutputStream out, @NotNull List<ArrowVector> vectors, boolean fileFormat) {
+        this.out = out;
+        this.vectors = vectors;
+        this.fileFormat = fileFormat;
+    }
+
+    public void start() throws IOException {
+        if (fileFormat) {
+            write(FILE_MAGIC);
+            // Padding to 8 bytes
+            write(new byte[8 - FILE_MAGIC.length]);
+        }
+        writeMessage(ArrowStreamReader.HEADER_SCHEMA, makeSchema(), null);
+    }
+
+    @NotNull
+    public ArrowVector getVector(int index) {
+        return vectors.get(index);
+    }
+
+    /**
+     * Approximate size of the current batch
+     */
+    public long getBufferedSize() {
+        long size = 0;
+        for (ArrowVector vector : vectors) {
+            size += vector.getBufferedSize();
+        }
+        return size;
+    }
+
+    /**
+     * Number of rows in the current batch
+     */
+    public int getBufferedRows() {
+        return vectors.isEmpty() ? 0 : vectors.get(0).getLength();
+    }
+
+    /**
+     * Writes record batch from the current vector values and resets the vectors
+     */
+    public void writeBatch() throws IOException {
+        int rowCount = getBufferedRows();
+        if (rowCount == 0) {
+            return;
+        }
+        ArrowBuffer nodes = new ArrowBuffer(vectors.size() * 16);
+        ArrowBuffer buffers = new ArrowBuffer(vectors.size() * 48);
+        ArrowBuffer body = new ArrowBuffer((int) Math.min(getBufferedSize() + vectors.size() * 24L, Integer.MAX_VALUE));
+        int bufferCount = 0;
+        for (ArrowVector vector : vectors) {
+            nodes.putLong(vector.getLength());
+            nodes.putLong(vector.getNullCount());
+            for (ArrowBuffer buffer : vector.getBuffers()) {
+                buffers.putLong(body.size());
+                buffers.putLong(buffer.size());
+                body.putBuffer(buffer);
+                body.align(8);
+                bufferCount++;
+            }
+        }
+        FlatBufferBuilder.Table recordBatch = new FlatBufferBuilder.Table()
+            .addLong(0, rowCount)
+            .addStructVector(1, nodes, vectors.size())
+            .addStructVector(2, buffers, bufferCount);
+        writeMessage(ArrowStreamReader.HEADER_RECORD_BATCH, recordBatch, body);
+        for (ArrowVector vector : vectors) {
+            vector.reset();
+        }
+        out.flush();
+    }
+
+    /**
+     * Writes remaining rows, end of stream marker and file footer
+     */
+    public void finish() throws IOException {
+        writeBatch();
+        ArrowBuffer eos = new ArrowBuffer(8);
+        eos.putInt(ArrowStreamReader.CONTINUATION_MARKER);
+        eos.putInt(0);
+        write(eos);
+        if (fileFormat) {
+            FlatBufferBuilder.Table footer = new FlatBufferBuilder.Table()
+                .addShort(0, ArrowStreamReader.METADATA_VERSION)
+                .addTable(1, makeSchema())
+                .addStructVector(2, new ArrowBuffer(0), 0)
+                .addStructVector(3, recordBlocks, recordBlockCount);
+            ArrowBuffer footerData = FlatBufferBuilder.finish(footer);
+            write(footerData);
+            ArrowBuffer tail = new ArrowBuffer(16);
+            tail.putInt(footerData.size());
+            tail.putBytes(FILE_MAGIC, 0, FILE_MAGIC.length);
+            write(tail);
+        }
+        out.flush();
+    }
+
+    @NotNull
+    private FlatBufferBuilder.Table makeSchema() {
+        List<FlatBufferBuilder.Table> fields = new ArrayList<>(vectors.size());
+        for (ArrowVector vector : vectors) {
+            fields.add(vector.getField().serialize());
+        }
+        return new FlatBufferBuilder.Table()
+            .addShort(0, 0) // Little endian
+            .addTableVector(1, fields);
+    }
+
+    private void writeMessage(int headerType, @NotNull FlatBufferBuilder.Table header, @Nullable ArrowBuffer body) throws IOException {
+        long bodyLength = body == null ? 0 : body.size();
+        FlatBufferBuilder.Table message = new FlatBufferBuilder.Table()
+            .addShort(0, ArrowStreamReader.METADATA_VERSION)
+            .addByte(1, headerType)
+            .addTable(2, header)
+            .addLong(3, bodyLength);
+        ArrowBuffer metadata = FlatBufferBuilder.finish(message);
+        // Prefix and metadata together must be 8-byte aligned
+        metadata.align(8);
+
+        long messagePosition = position;
+        ArrowBuffer prefix = new ArrowBuffer(8);
+        prefix.putInt(ArrowStreamReader.CONTINUATION_MARKER);
+        prefix.putInt(metadata.size());
+        write(prefix);
+        write(metadata);
+        if (body != null) {
+            write(body);
+            // Block: offset, metadata length, padding, body length
+            recordBlocks.putLong(messagePosition);
+            recordBlocks.putInt(prefix.size() + metadata.size());
+            recordBlocks.putInt(0);
+            recordBlocks.putLong(bodyLength);
+            recordBlockCount++;
+        }
+    }
+
+    private void write(@NotNull ArrowBuffer buffer) throws IOException {
+        buffer.writeTo(out);
+        position += buffer.size();
+    }
+
+    private void write(@NotNull byte[] data) throws IOException {
+        out.write(data);
+        position += data.length;
+    }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.arrow;
+
+import org.jkiss.code.Nullable;
+
+/**
+ * Supported Arrow logical types (values of the schema Type union)
+ */
+public enum ArrowType {
+
+    INT(2),
+    FLOATING_POINT(3),
+    BINARY(4),
+    UTF8(5),
+    BOOL(6),
+    DECIMAL(7),
+    DATE(8),
+    TIME(9),
+    TIMESTAMP(10),
+    LARGE_BINARY(19),
+    LARGE_UTF8(20);
+
+    public static final int PRECISION_SINGLE = 1;
+    public static final int PRECISION_DOUBLE = 2;
+
+    public static final int DATE_UNIT_DAY = 0;
+    public static final int DATE_UNIT_MILLISECOND = 1;
+
+    public static final int TIME_UNIT_SECOND = 0;
+    public static final int TIME_UNIT_MILLISECOND = 1;
+    public static final int TIME_UNIT_MICROSECOND = 2;
+    public static final int TIME_UNIT_NANOSECOND = 3;
+
+    private final int typeId;
+
+    ArrowType(int typeId) {
+        this.typeId = typeId;
+    }
+
+    public int getTypeId() {
+        return typeId;
+    }
+
+    /**
+     * Whether values are stored as offsets plus data
+     */
+    public boolean isVariableWidth() {
+        return this == BINARY || this == UTF8 || this == LARGE_BINARY || this == LARGE_UTF8;
+    }
+
+    @Nullable
+    public static ArrowType getById(int typeId) {
+        for (ArrowType type : values()) {
+            if (type.typeId == typeId) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+}
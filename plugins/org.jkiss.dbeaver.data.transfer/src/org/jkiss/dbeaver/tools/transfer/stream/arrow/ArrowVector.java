@@ -0,0 +1,185 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.arrow;
+
+import org.jkiss.code.NotNull;
+
+import java.math.BigInteger;
+
+/**
+ * Column values of the current record batch.
+ * Values are appended directly to Arrow buffers: validity bitmap, offsets (variable width types) and data.
+ */
+public class ArrowVector {
+
+    private final ArrowField field;
+    private final int byteWidth;
+    private final ArrowBuffer validity = new ArrowBuffer();
+    private final ArrowBuffer offsets;
+    private final ArrowBuffer data = new ArrowBuffer();
+    private int length;
+    private int nullCount;
+
+    public ArrowVector(@NotNull ArrowField field) {
+        this.field = field;
+        this.byteWidth = field.getByteWidth();
+        this.offsets = field.getType().isVariableWidth() ? new ArrowBuffer() : null;
+        reset();
+    }
+
+    @NotNull
+    public ArrowField getField() {
+        return field;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public int getNullCount() {
+        return nullCount;
+    }
+
+    /**
+     * Approximate size of buffered data
+     */
+    public long getBufferedSize() {
+        return validity.size() + data.size() + (offsets == null ? 0 : offsets.size());
+    }
+
+    public void addNull() {
+        nextValue();
+        nullCount++;
+        switch (field.getType()) {
+            case BOOL:
+                break;
+            case UTF8:
+            case BINARY:
+                offsets.putInt(data.size());
+                break;
+            default:
+                data.putZeros(byteWidth);
+                break;
+        }
+        length++;
+    }
+
+    public void addBoolean(boolean value) {
+        nextValue();
+        if (value) {
+            data.setBit(length);
+        }
+        markValid();
+    }
+
+    /**
+     * Adds integer, date, time or timestamp value
+     */
+    public void addLong(long value) {
+        nextValue();
+        switch (byteWidth) {
+            case 1:
+                data.putByte((int) value);
+                break;
+            case 2:
+                data.putShort((int) value);
+                break;
+            case 4:
+                data.putInt((int) value);
+                break;
+            default:
+                data.putLong(value);
+                break;
+        }
+        markValid();
+    }
+
+    public void addDouble(double value) {
+        nextValue();
+        if (byteWidth == 4) {
+            data.putInt(Float.floatToIntBits((float) value));
+        } else {
+            data.putLong(Double.doubleToLongBits(value));
+        }
+        markValid();
+    }
+
+    /**
+     * Adds unscaled decimal value (little-endian two's complement)
+     */
+    public void addDecimal(@NotNull BigInteger unscaledValue) {
+        byte[] bytes = unscaledValue.toByteArray();
+        if (bytes.length > byteWidth) {
+            throw new ArithmeticException("Decimal value " + unscaledValue + " doesn't fit into " + field.getPrecision() + " digits");
+        }
+        nextValue();
+        for (int i = bytes.length - 1; i >= 0; i--) {
+            data.putByte(bytes[i]);
+        }
+        int sign = unscaledValue.signum() < 0 ? 0xFF : 0;
+        for (int i = bytes.length; i < byteWidth; i++) {
+            data.putByte(sign);
+        }
+        markValid();
+    }
+
+    public void addBytes(@NotNull byte[] value) {
+        nextValue();
+        data.putBytes(value, 0, value.length);
+        offsets.putInt(data.size());
+        markValid();
+    }
+
+    /**
+     * Buffers in the Arrow layout order
+     */
+    @NotNull
+    ArrowBuffer[] getBuffers() {
+        return offsets == null ?
+            new ArrowBuffer[] { validity, data } :
+            new ArrowBuffer[] { validity, offsets, data };
+    }
+
+    /**
+     * Clears record batch data
+     */
+    void reset() {
+        validity.reset();
+        data.reset();
+        if (offsets != null) {
+            offsets.reset();
+            offsets.putInt(0);
+        }
+        length = 0;
+        nullCount = 0;
+    }
+
+    private void nextValue() {
+        if (length % 8 == 0) {
+            validity.putByte(0);
+            if (field.getType() == ArrowType.BOOL) {
+                data.putByte(0);
+            }
+        }
+    }
+
+    private void markValid() {
+        validity.setBit(length);
+        length++;
+    }
+
+}
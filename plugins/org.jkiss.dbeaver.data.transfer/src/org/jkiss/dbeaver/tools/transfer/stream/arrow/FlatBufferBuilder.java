@@ -0,0 +1,244 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.arrow;
+
+import org.jkiss.code.NotNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Minimal FlatBuffers serializer for Arrow IPC metadata.
+ * <p>
+ * Unlike the reference builder it writes the buffer front to back: a table is written first and the objects it
+ * refers to are appended after it, so all offsets point forward as required by the format.
+ * Each vtable is written right before its table. All fields are written explicitly (defaults are not omitted).
+ */
+class FlatBufferBuilder {
+
+    /**
+     * Table under construction
+     */
+    static class Table {
+        private final List<Field> fields = new ArrayList<>();
+
+        Table addByte(int id, int value) {
+            fields.add(new Field(id, 1, value, null));
+            return this;
+        }
+
+        Table addBool(int id, boolean value) {
+            return addByte(id, value ? 1 : 0);
+        }
+
+        Table addShort(int id, int value) {
+            fields.add(new Field(id, 2, value, null));
+            return this;
+        }
+
+        Table addInt(int id, int value) {
+            fields.add(new Field(id, 4, value, null));
+            return this;
+        }
+
+        Table addLong(int id, long value) {
+            fields.add(new Field(id, 8, value, null));
+            return this;
+        }
+
+        Table addTable(int id, @NotNull Table table) {
+            fields.add(new Field(id, 4, 0, table));
+            return this;
+        }
+
+        Table addString(int id, @NotNull String value) {
+            fields.add(new Field(id, 4, 0, value));
+            return this;
+        }
+
+        Table addTableVector(int id, @NotNull List<Table> tables) {
+            fields.add(new Field(id, 4, 0, new TableVector(tables)));
+            return this;
+        }
+
+        /**
+         * Adds vector of structs. Struct fields must be already serialized (and 8-byte aligned) in the buffer.
+         */
+        Table addStructVector(int id, @NotNull ArrowBuffer structs, int count) {
+            fields.add(new Field(id, 4, 0, new StructVector(structs, count)));
+            return this;
+        }
+    }
+
+    private static class Field {
+        final int id;
+        final int size;
+        final long value;
+        final Object reference;
+        int offset;
+
+        Field(int id, int size, long value, Object reference) {
+            this.id = id;
+            this.size = size;
+            this.value = value;
+            this.reference = reference;
+        }
+    }
+
+    private static class TableVector {
+        final List<Table> tables;
+
+        TableVector(List<Table> tables) {
+            this.tables = tables;
+        }
+    }
+
+    private static class StructVector {
+        final ArrowBuffer structs;
+        final int count;
+
+        StructVector(ArrowBuffer structs, int count) {
+            this.structs = structs;
+            this.count = count;
+        }
+    }
+
+    private static class Reference {
+        final int position;
+        final Object target;
+
+        Reference(int position, Object target) {
+            this.position = position;
+            this.target = target;
+        }
+    }
+
+    private FlatBufferBuilder() {
+    }
+
+    /**
+     * Serializes root table. Output buffer must be placed at 8-byte aligned position.
+     */
+    @NotNull
+    static ArrowBuffer finish(@NotNull Table root) {
+        ArrowBuffer out = new ArrowBuffer(256);
+        Queue<Reference> references = new ArrayDeque<>();
+        out.putInt(0);
+        references.add(new Reference(0, root));
+        while (!references.isEmpty()) {
+            Reference reference = references.poll();
+            int position = writeObject(out, reference.target, references);
+            out.setInt(reference.position, position - reference.position);
+        }
+        return out;
+    }
+
+    private static int writeObject(@NotNull ArrowBuffer out, @NotNull Object object, @NotNull Queue<Reference> references) {
+        if (object instanceof Table) {
+            return writeTable(out, (Table) object, references);
+        } else if (object instanceof String) {
+            byte[] bytes = ((String) object).getBytes(StandardCharsets.UTF_8);
+            out.align(4);
+            int position = out.size();
+            out.putInt(bytes.length);
+            out.putBytes(bytes, 0, bytes.length);
+            out.putByte(0);
+            return position;
+        } else if (object instanceof TableVector) {
+            List<Table> tables = ((TableVector) object).tables;
+            out.align(4);
+            int position = out.size();
+            out.putInt(tables.size());
+            for (Table table : tables) {
+                references.add(new Reference(out.size(), table));
+                out.putInt(0);
+            }
+            return position;
+        } else {
+            StructVector vector = (StructVector) object;
+            // Struct elements must be 8-byte aligned
+            out.align(4);
+            if (out.size() % 8 == 0) {
+                out.putInt(0);
+            }
+            int position = out.size();
+            out.putInt(vector.count);
+            out.putBuffer(vector.structs);
+            return position;
+        }
+    }
+
+    private static int writeTable(@NotNull ArrowBuffer out, @NotNull Table table, @NotNull Queue<Reference> references) {
+        List<Field> fields = new ArrayList<>(table.fields);
+        fields.sort(Comparator.comparingInt((Field f) -> f.size).reversed());
+        int inlineSize = 4;
+        int maxId = -1;
+        for (Field field : fields) {
+            inlineSize = (inlineSize + field.size - 1) / field.size * field.size;
+            field.offset = inlineSize;
+            inlineSize += field.size;
+            maxId = Math.max(maxId, field.id);
+        }
+
+        out.align(2);
+        int vtablePosition = out.size();
+        out.putShort(4 + 2 * (maxId + 1));
+        out.putShort(inlineSize);
+        for (int id = 0; id <= maxId; id++) {
+            int offset = 0;
+            for (Field field : fields) {
+                if (field.id == id) {
+                    offset = field.offset;
+                    break;
+                }
+            }
+            out.putShort(offset);
+        }
+
+        out.align(8);
+        int tablePosition = out.size();
+        out.putInt(tablePosition - vtablePosition);
+        for (Field field : fields) {
+            out.putZeros(tablePosition + field.offset - out.size());
+            if (field.reference != null) {
+                references.add(new Reference(out.size(), field.reference));
+                out.putInt(0);
+                continue;
+            }
+            switch (field.size) {
+                case 1:
+                    out.putByte((int) field.value);
+                    break;
+                case 2:
+                    out.putShort((int) field.value);
+                    break;
+                case 4:
+                    out.putInt((int) field.value);
+                    break;
+                default:
+                    out.putLong(field.value);
+                    break;
+            }
+        }
+        return tablePosition;
+    }
+
+}
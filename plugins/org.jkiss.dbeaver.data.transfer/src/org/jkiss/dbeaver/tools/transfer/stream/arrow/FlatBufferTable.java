@@ -0,0 +1,134 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.arrow;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * FlatBuffers table reader
+ */
+class FlatBufferTable {
+
+    private final ByteBuffer buffer;
+    private final int position;
+
+    private FlatBufferTable(@NotNull ByteBuffer buffer, int position) {
+        this.buffer = buffer;
+        this.position = position;
+    }
+
+    @NotNull
+    static FlatBufferTable getRoot(@NotNull byte[] data) {
+        ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        return new FlatBufferTable(buffer, buffer.getInt(0));
+    }
+
+    boolean hasField(int id) {
+        return getFieldPosition(id) != 0;
+    }
+
+    int getByte(int id, int defaultValue) {
+        int fieldPosition = getFieldPosition(id);
+        return fieldPosition == 0 ? defaultValue : buffer.get(fieldPosition) & 0xFF;
+    }
+
+    boolean getBool(int id, boolean defaultValue) {
+        return getByte(id, defaultValue ? 1 : 0) != 0;
+    }
+
+    int getShort(int id, int defaultValue) {
+        int fieldPosition = getFieldPosition(id);
+        return fieldPosition == 0 ? defaultValue : buffer.getShort(fieldPosition);
+    }
+
+    int getInt(int id, int defaultValue) {
+        int fieldPosition = getFieldPosition(id);
+        return fieldPosition == 0 ? defaultValue : buffer.getInt(fieldPosition);
+    }
+
+    long getLong(int id, long defaultValue) {
+        int fieldPosition = getFieldPosition(id);
+        return fieldPosition == 0 ? defaultValue : buffer.getLong(fieldPosition);
+    }
+
+    @Nullable
+    FlatBufferTable getTable(int id) {
+        int fieldPosition = getFieldPosition(id);
+        return fieldPosition == 0 ? null : new FlatBufferTable(buffer, dereference(fieldPosition));
+    }
+
+    @Nullable
+    String getString(int id) {
+        int fieldPosition = getFieldPosition(id);
+        if (fieldPosition == 0) {
+            return null;
+        }
+        int stringPosition = dereference(fieldPosition);
+        int length = buffer.getInt(stringPosition);
+        return new String(buffer.array(), stringPosition + 4, length, StandardCharsets.UTF_8);
+    }
+
+    int getVectorLength(int id) {
+        int fieldPosition = getFieldPosition(id);
+        return fieldPosition == 0 ? 0 : buffer.getInt(dereference(fieldPosition));
+    }
+
+    @NotNull
+    FlatBufferTable getVectorTable(int id, int index) {
+        int elementPosition = getVectorElementPosition(id, index, 4);
+        return new FlatBufferTable(buffer, dereference(elementPosition));
+    }
+
+    /**
+     * Reads long field of a struct vector element
+     */
+    long getVectorStructLong(int id, int index, int structSize, int fieldOffset) {
+        return buffer.getLong(getVectorElementPosition(id, index, structSize) + fieldOffset);
+    }
+
+    /**
+     * Reads int field of a struct vector element
+     */
+    int getVectorStructInt(int id, int index, int structSize, int fieldOffset) {
+        return buffer.getInt(getVectorElementPosition(id, index, structSize) + fieldOffset);
+    }
+
+    private int getVectorElementPosition(int id, int index, int elementSize) {
+        return dereference(getFieldPosition(id)) + 4 + index * elementSize;
+    }
+
+    private int dereference(int offsetPosition) {
+        return offsetPosition + buffer.getInt(offsetPosition);
+    }
+
+    private int getFieldPosition(int id) {
+        int vtable = position - buffer.getInt(position);
+        int vtableSize = buffer.getShort(vtable) & 0xFFFF;
+        int entry = 4 + id * 2;
+        if (entry >= vtableSize) {
+            return 0;
+        }
+        int offset = buffer.getShort(vtable + entry) & 0xFFFF;
+        return offset == 0 ? 0 : position + offset;
+    }
+
+}
@@ -0,0 +1,314 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.exporter;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
+import org.jkiss.dbeaver.model.data.DBDContent;
+import org.jkiss.dbeaver.model.data.DBDContentStorage;
+import org.jkiss.dbeaver.model.exec.DBCResultSet;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.tools.transfer.DTUtils;
+import org.jkiss.dbeaver.utils.ContentUtils;
+import org.jkiss.utils.CommonUtils;
+import org.jkiss.utils.IOUtils;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.sql.Types;
+import java.time.*;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Base class of exporters in columnar binary formats (Arrow, Parquet).
+ * Maps attributes to format independent column types and converts values to the column types.
+ */
+abstract class ColumnarExporterAbstract extends StreamExporterAbstract {
+
+    static final int MAX_DECIMAL_PRECISION = 38;
+
+    enum ColumnType {
+        BOOLEAN,
+        INT8,
+        INT16,
+        INT32,
+        INT64,
+        FLOAT,
+        DOUBLE,
+        // Decimal with precision and scale of the attribute
+        DECIMAL,
+        STRING,
+        DATE,
+        TIME,
+        TIMESTAMP,
+        TIMESTAMP_UTC,
+        BINARY
+    }
+
+    /**
+     * Name of the format used in error messages
+     */
+    @NotNull
+    protected abstract String getFormatName();
+
+    /**
+     * Returns column name which differs from the names which were already used (case-insensitive).
+     * Readers of columnar formats (pandas in particular) don't like duplicate names.
+     */
+    @NotNull
+    static String makeUniqueColumnName(@NotNull DBDAttributeBinding column, @NotNull Set<String> usedNames) {
+        String name = column.getLabel();
+        if (CommonUtils.isEmpty(name)) {
+            name = column.getName();
+        }
+        String uniqueName = name;
+        for (int i = 2; !usedNames.add(uniqueName.toLowerCase(Locale.ENGLISH)); i++) {
+            uniqueName = name + "_" + i;
+        }
+        return uniqueName;
+    }
+
+    @NotNull
+    static ColumnType getColumnType(@NotNull DBDAttributeBinding binding) {
+        switch (binding.getDataKind()) {
+            case BOOLEAN:
+                return ColumnType.BOOLEAN;
+            case NUMERIC:
+                switch (binding.getTypeID()) {
+                    case Types.TINYINT:
+                        return ColumnType.INT8;
+                    case Types.SMALLINT:
+                        return ColumnType.INT16;
+                    case Types.INTEGER:
+                        return ColumnType.INT32;
+                    case Types.BIGINT:
+                        return ColumnType.INT64;
+                    case Types.REAL:
+                        return ColumnType.FLOAT;
+                    case Types.DECIMAL:
+                    case Types.NUMERIC: {
+                        int precision = CommonUtils.toInt(binding.getPrecision());
+                        int scale = CommonUtils.toInt(binding.getScale());
+                        if (precision > 0 && precision <= MAX_DECIMAL_PRECISION && scale >= 0 && scale <= precision) {
+                            return ColumnType.DECIMAL;
+                        }
+                        // Unbounded numbers are exported as strings to keep them exact
+                        return ColumnType.STRING;
+                    }
+                    default:
+                        return ColumnType.DOUBLE;
+                }
+            case DATETIME:
+                switch (binding.getTypeID()) {
+                    case Types.DATE:
+                        return ColumnType.DATE;
+                    case Types.TIME:
+                    case Types.TIME_WITH_TIMEZONE:
+                        return ColumnType.TIME;
+                    case Types.TIMESTAMP_WITH_TIMEZONE:
+                        return ColumnType.TIMESTAMP_UTC;
+                    default:
+                        return ColumnType.TIMESTAMP;
+                }
+            case BINARY:
+                return ColumnType.BINARY;
+            case CONTENT:
+                switch (binding.getTypeID()) {
+                    case Types.BLOB:
+                    case Types.BINARY:
+                    case Types.VARBINARY:
+                    case Types.LONGVARBINARY:
+                        return ColumnType.BINARY;
+                    default:
+                        return ColumnType.STRING;
+                }
+            default:
+                return ColumnType.STRING;
+        }
+    }
+
+    /**
+     * Reads content (LOB) in a string or a byte array and closes it
+     */
+    @Nullable
+    static Object readContent(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull DBCResultSet resultSet,
+        @NotNull DBDContent content) throws DBException, IOException
+    {
+        try {
+            DBDContentStorage cs = content.getContents(monitor);
+            if (cs == null) {
+                return null;
+            }
+            if (ContentUtils.isTextContent(content)) {
+                try (Reader reader = cs.getContentReader()) {
+                    return IOUtils.readToString(reader);
+                }
+            }
+            try (InputStream stream = cs.getContentStream()) {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                IOUtils.copyStream(stream, buffer);
+                return buffer.toByteArray();
+            }
+        } finally {
+            DTUtils.closeContents(resultSet, content);
+        }
+    }
+
+    @NotNull
+    String toString(@NotNull DBDAttributeBinding binding, @NotNull Object value) {
+        if (value instanceof String) {
+            return (String) value;
+        } else if (value instanceof File) {
+            return ((File) value).getAbsolutePath();
+        } else if (value instanceof BigDecimal) {
+            return ((BigDecimal) value).toPlainString();
+        }
+        return getValueDisplayString(binding, value);
+    }
+
+    @NotNull
+    Number toNumber(@NotNull DBDAttributeBinding binding, @NotNull Object value) throws DBException {
+        if (value instanceof Number) {
+            return (Number) value;
+        } else if (value instanceof Boolean) {
+            return (Boolean) value ? 1 : 0;
+        } else if (value instanceof String) {
+            try {
+                return new BigDecimal(((String) value).trim());
+            } catch (NumberFormatException e) {
+                // fall through
+            }
+        }
+        throw makeConversionError(binding, value);
+    }
+
+    /**
+     * Converts value to a signed integer of the specified bit width. Fraction is truncated.
+     * Values which don't fit into the bit width are conversion errors.
+     */
+    long toInteger(@NotNull DBDAttributeBinding binding, @NotNull Object value, int bitWidth) throws DBException {
+        Number number = toNumber(binding, value);
+        long result;
+        if (number instanceof Long || number instanceof Integer || number instanceof Short || number instanceof Byte) {
+            result = number.longValue();
+        } else {
+            try {
+                BigInteger integer = number instanceof BigInteger ? (BigInteger) number :
+                    (number instanceof BigDecimal ? (BigDecimal) number : new BigDecimal(number.toString())).toBigInteger();
+                result = integer.longValueExact();
+            } catch (ArithmeticException | NumberFormatException e) {
+                // Out of long range, NaN or infinity
+                throw makeConversionError(binding, value);
+            }
+        }
+        if (bitWidth < Long.SIZE && (result < -(1L << (bitWidth - 1)) || result >= 1L << (bitWidth - 1))) {
+            throw makeConversionError(binding, value);
+        }
+        return result;
+    }
+
+    /**
+     * Converts value to a decimal with the specified scale.
+     * Values which need rounding or don't fit into the precision are conversion errors.
+     */
+    @NotNull
+    BigDecimal toDecimal(@NotNull DBDAttributeBinding binding, @NotNull Object value, int precision, int scale) throws DBException {
+        Number number = toNumber(binding, value);
+        BigDecimal decimal;
+        try {
+            decimal = number instanceof BigDecimal ? (BigDecimal) number : new BigDecimal(number.toString());
+        } catch (NumberFormatException e) {
+            // NaN or infinity
+            throw makeConversionError(binding, value);
+        }
+        BigDecimal result;
+        try {
+            result = decimal.setScale(scale, RoundingMode.UNNECESSARY);
+        } catch (ArithmeticException e) {
+            throw makeDecimalError(binding, decimal, precision, scale);
+        }
+        if (result.precision() > precision) {
+            throw makeDecimalError(binding, decimal, precision, scale);
+        }
+        return result;
+    }
+
+    @NotNull
+    LocalDateTime toLocalDateTime(@NotNull DBDAttributeBinding binding, @NotNull Object value) throws DBException {
+        if (value instanceof java.sql.Timestamp) {
+            return ((java.sql.Timestamp) value).toLocalDateTime();
+        } else if (value instanceof java.sql.Date) {
+            return ((java.sql.Date) value).toLocalDate().atStartOfDay();
+        } else if (value instanceof java.sql.Time) {
+            return ((java.sql.Time) value).toLocalTime().atDate(LocalDate.EPOCH);
+        } else if (value instanceof Date) {
+            return LocalDateTime.ofInstant(((Date) value).toInstant(), ZoneId.systemDefault());
+        } else if (value instanceof LocalDateTime) {
+            return (LocalDateTime) value;
+        } else if (value instanceof LocalDate) {
+            return ((LocalDate) value).atStartOfDay();
+        } else if (value instanceof LocalTime) {
+            return ((LocalTime) value).atDate(LocalDate.EPOCH);
+        } else if (value instanceof OffsetDateTime) {
+            return ((OffsetDateTime) value).toLocalDateTime();
+        } else if (value instanceof ZonedDateTime) {
+            return ((ZonedDateTime) value).toLocalDateTime();
+        } else if (value instanceof OffsetTime) {
+            return ((OffsetTime) value).toLocalTime().atDate(LocalDate.EPOCH);
+        }
+        throw makeConversionError(binding, value);
+    }
+
+    @NotNull
+    Instant toInstant(@NotNull DBDAttributeBinding binding, @NotNull Object value) throws DBException {
+        if (value instanceof Date) {
+            return value instanceof java.sql.Timestamp ? ((java.sql.Timestamp) value).toInstant() : Instant.ofEpochMilli(((Date) value).getTime());
+        } else if (value instanceof Instant) {
+            return (Instant) value;
+        } else if (value instanceof TemporalAccessor && ((TemporalAccessor) value).isSupported(ChronoField.OFFSET_SECONDS)) {
+            return Instant.from((TemporalAccessor) value);
+        }
+        return toLocalDateTime(binding, value).atZone(ZoneId.systemDefault()).toInstant();
+    }
+
+    static long toMicros(@NotNull Instant instant) {
+        return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1000_000L), instant.getNano() / 1000);
+    }
+
+    @NotNull
+    private DBException makeDecimalError(@NotNull DBDAttributeBinding binding, @NotNull BigDecimal value, int precision, int scale) {
+        return new DBException("Value " + value.toPlainString() + " of '" + binding.getName() + "' doesn't fit into " +
+            getFormatName() + " decimal(" + precision + "," + scale + ") without rounding");
+    }
+
+    @NotNull
+    DBException makeConversionError(@NotNull DBDAttributeBinding binding, @NotNull Object value) {
+        return new DBException("Can't convert value of '" + binding.getName() + "' (" + value.getClass().getName() +
+            ") to " + getFormatName() + " column type");
+    }
+
+}
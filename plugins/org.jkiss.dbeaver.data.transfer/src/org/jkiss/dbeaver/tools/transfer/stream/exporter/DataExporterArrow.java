@@ -0,0 +1,197 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.exporter;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
+import org.jkiss.dbeaver.model.data.DBDContent;
+import org.jkiss.dbeaver.model.exec.DBCResultSet;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.tools.transfer.stream.IBlockDataExporter;
+import org.jkiss.dbeaver.tools.transfer.stream.IStreamDataExporterSite;
+import org.jkiss.dbeaver.tools.transfer.stream.arrow.*;
+import org.jkiss.utils.CommonUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Apache Arrow IPC exporter.
+ * <p>
+ * Rows are appended to Arrow vectors and written by record batches, either in the IPC file (Feather v2)
+ * or in the IPC streaming format. Output file split happens on record batch boundaries.
+ */
+public class DataExporterArrow extends ColumnarExporterAbstract implements IBlockDataExporter {
+
+    private static final String PROP_FORMAT = "format";
+    private static final String PROP_BATCH_SIZE = "batchSize";
+
+    private static final String FORMAT_FILE = "file";
+    private static final int DEFAULT_BATCH_SIZE = 65536;
+    // Flush batch earlier if it contains big values
+    private static final long MAX_BATCH_BYTES = 64L * 1024 * 1024;
+
+    private boolean fileFormat;
+    private int batchSize;
+
+    private DBDAttributeBinding[] columns;
+    private ArrowStreamWriter writer;
+
+    @Override
+    public void init(IStreamDataExporterSite site) throws DBException {
+        super.init(site);
+        Map<String, Object> properties = site.getProperties();
+        fileFormat = CommonUtils.toString(properties.get(PROP_FORMAT), FORMAT_FILE).equalsIgnoreCase(FORMAT_FILE);
+        batchSize = CommonUtils.toInt(properties.get(PROP_BATCH_SIZE), DEFAULT_BATCH_SIZE);
+        if (batchSize <= 0) {
+            batchSize = DEFAULT_BATCH_SIZE;
+        }
+    }
+
+    @Override
+    public void dispose() {
+        writer = null;
+        super.dispose();
+    }
+
+    @Override
+    public void exportHeader(DBCSession session) throws DBException, IOException {
+        columns = getSite().getAttributes();
+        List<ArrowVector> vectors = new ArrayList<>(columns.length);
+        Set<String> names = new HashSet<>();
+        for (DBDAttributeBinding column : columns) {
+            vectors.add(new ArrowVector(makeField(column, makeUniqueColumnName(column, names))));
+        }
+        // Each split file gets its own writer
+        writer = new ArrowStreamWriter(getOutputStream(), vectors, fileFormat);
+        writer.start();
+    }
+
+    @Override
+    public void exportRow(DBCSession session, DBCResultSet resultSet, Object[] row) throws DBException, IOException {
+        for (int i = 0; i < columns.length; i++) {
+            ArrowVector vector = writer.getVector(i);
+            Object value = row[i];
+            if (value instanceof DBDContent) {
+                value = readContent(session.getProgressMonitor(), resultSet, (DBDContent) value);
+            }
+            if (DBUtils.isNullValue(value)) {
+                vector.addNull();
+            } else {
+                addValue(columns[i], vector, value);
+            }
+        }
+        if (writer.getBufferedRows() >= batchSize || writer.getBufferedSize() >= MAX_BATCH_BYTES) {
+            writer.writeBatch();
+        }
+    }
+
+    @Override
+    public void exportFooter(DBRProgressMonitor monitor) throws DBException, IOException {
+        if (writer != null) {
+            writer.finish();
+            writer = null;
+        }
+    }
+
+    @NotNull
+    private static ArrowField makeField(@NotNull DBDAttributeBinding binding, @NotNull String name) {
+        switch (getColumnType(binding)) {
+            case BOOLEAN:
+                return ArrowField.makeSimple(name, ArrowType.BOOL);
+            case INT8:
+                return ArrowField.makeInt(name, 8);
+            case INT16:
+                return ArrowField.makeInt(name, 16);
+            case INT32:
+                return ArrowField.makeInt(name, 32);
+            case INT64:
+                return ArrowField.makeInt(name, 64);
+            case FLOAT:
+                return ArrowField.makeFloatingPoint(name, ArrowType.PRECISION_SINGLE);
+            case DOUBLE:
+                return ArrowField.makeFloatingPoint(name, ArrowType.PRECISION_DOUBLE);
+            case DECIMAL:
+                return ArrowField.makeDecimal(name, CommonUtils.toInt(binding.getPrecision()), CommonUtils.toInt(binding.getScale()));
+            case DATE:
+                return ArrowField.makeDate(name);
+            case TIME:
+                return ArrowField.makeTime(name);
+            case TIMESTAMP:
+                return ArrowField.makeTimestamp(name, null);
+            case TIMESTAMP_UTC:
+                return ArrowField.makeTimestamp(name, "UTC");
+            case BINARY:
+                return ArrowField.makeSimple(name, ArrowType.BINARY);
+            default:
+                return ArrowField.makeSimple(name, ArrowType.UTF8);
+        }
+    }
+
+    private void addValue(@NotNull DBDAttributeBinding binding, @NotNull ArrowVector vector, @NotNull Object value) throws DBException {
+        ArrowField field = vector.getField();
+        switch (field.getType()) {
+            case BOOL:
+                vector.addBoolean(value instanceof Number ? ((Number) value).intValue() != 0 : CommonUtils.toBoolean(value));
+                break;
+            case INT:
+                vector.addLong(toInteger(binding, value, field.getBitWidth()));
+                break;
+            case FLOATING_POINT:
+                vector.addDouble(toNumber(binding, value).doubleValue());
+                break;
+            case DECIMAL:
+                vector.addDecimal(toDecimal(binding, value, field.getPrecision(), field.getScale()).unscaledValue());
+                break;
+            case DATE:
+                vector.addLong(toLocalDateTime(binding, value).toLocalDate().toEpochDay());
+                break;
+            case TIME:
+                vector.addLong(toLocalDateTime(binding, value).toLocalTime().toNanoOfDay() / 1000);
+                break;
+            case TIMESTAMP:
+                if (field.getTimezone() == null) {
+                    vector.addLong(toMicros(toLocalDateTime(binding, value).toInstant(ZoneOffset.UTC)));
+                } else {
+                    vector.addLong(toMicros(toInstant(binding, value)));
+                }
+                break;
+            case BINARY:
+                if (value instanceof byte[]) {
+                    vector.addBytes((byte[]) value);
+                } else {
+                    vector.addBytes(toString(binding, value).getBytes(StandardCharsets.UTF_8));
+                }
+                break;
+            default:
+                vector.addBytes(toString(binding, value).getBytes(StandardCharsets.UTF_8));
+                break;
+        }
+    }
+
+    @NotNull
+    @Override
+    protected String getFormatName() {
+        return "Arrow";
+    }
+
+}
@@ -0,0 +1,227 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.exporter;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
+import org.jkiss.dbeaver.model.data.DBDContent;
+import org.jkiss.dbeaver.model.exec.DBCResultSet;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.tools.transfer.stream.IBlockDataExporter;
+import org.jkiss.dbeaver.tools.transfer.stream.IStreamDataExporterSite;
+import org.jkiss.dbeaver.tools.transfer.stream.parquet.*;
+import org.jkiss.dbeaver.utils.GeneralUtils;
+import org.jkiss.utils.CommonUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Apache Parquet exporter.
+ * <p>
+ * Rows are buffered by columns and written by row groups. Strings, binaries and decimals are dictionary encoded
+ * while the dictionary is small enough. Output file split happens on row group boundaries.
+ */
+public class DataExporterParquet extends ColumnarExporterAbstract implements IBlockDataExporter {
+
+    private static final String PROP_COMPRESSION = "compression";
+    private static final String PROP_ROW_GROUP_SIZE = "rowGroupSize";
+    private static final String PROP_ROW_GROUP_BYTES = "rowGroupBytes";
+    private static final String PROP_DICTIONARY = "dictionary";
+
+    private static final int DEFAULT_ROW_GROUP_SIZE = 100000;
+    private static final int DEFAULT_ROW_GROUP_MB = 128;
+
+    private ParquetCompression compression;
+    private int rowGroupSize;
+    private long rowGroupBytes;
+    private boolean dictionaryEnabled;
+
+    private DBDAttributeBinding[] columns;
+    private ParquetFileWriter writer;
+
+    @Override
+    public void init(IStreamDataExporterSite site) throws DBException {
+        super.init(site);
+        Map<String, Object> properties = site.getProperties();
+        compression = ParquetCompression.getByName(CommonUtils.toString(properties.get(PROP_COMPRESSION)));
+        rowGroupSize = CommonUtils.toInt(properties.get(PROP_ROW_GROUP_SIZE), DEFAULT_ROW_GROUP_SIZE);
+        if (rowGroupSize <= 0) {
+            rowGroupSize = DEFAULT_ROW_GROUP_SIZE;
+        }
+        int rowGroupMB = CommonUtils.toInt(properties.get(PROP_ROW_GROUP_BYTES), DEFAULT_ROW_GROUP_MB);
+        rowGroupBytes = (rowGroupMB <= 0 ? DEFAULT_ROW_GROUP_MB : rowGroupMB) * 1024L * 1024L;
+        dictionaryEnabled = CommonUtils.getBoolean(properties.get(PROP_DICTIONARY), true);
+    }
+
+    @Override
+    public void dispose() {
+        writer = null;
+        super.dispose();
+    }
+
+    @Override
+    public void exportHeader(DBCSession session) throws DBException, IOException {
+        columns = getSite().getAttributes();
+        List<ParquetColumn> parquetColumns = new ArrayList<>(columns.length);
+        Set<String> names = new HashSet<>();
+        for (DBDAttributeBinding column : columns) {
+            parquetColumns.add(makeColumn(column, makeUniqueColumnName(column, names)));
+        }
+        // Each split file gets its own writer
+        writer = new ParquetFileWriter(
+            getOutputStream(),
+            parquetColumns,
+            compression,
+            rowGroupSize,
+            rowGroupBytes,
+            GeneralUtils.getProductName());
+        writer.start();
+    }
+
+    @Override
+    public void exportRow(DBCSession session, DBCResultSet resultSet, Object[] row) throws DBException, IOException {
+        for (int i = 0; i < columns.length; i++) {
+            ParquetColumn column = writer.getColumn(i);
+            Object value = row[i];
+            if (value instanceof DBDContent) {
+                value = readContent(session.getProgressMonitor(), resultSet, (DBDContent) value);
+            }
+            if (DBUtils.isNullValue(value)) {
+                column.addNull();
+            } else {
+                addValue(columns[i], column, value);
+            }
+        }
+        writer.endRow();
+    }
+
+    @Override
+    public void exportFooter(DBRProgressMonitor monitor) throws DBException, IOException {
+        if (writer != null) {
+            writer.finish();
+            writer = null;
+        }
+    }
+
+    @NotNull
+    private ParquetColumn makeColumn(@NotNull DBDAttributeBinding binding, @NotNull String name) {
+        ParquetType type;
+        int precision = 0;
+        int scale = 0;
+        switch (getColumnType(binding)) {
+            case BOOLEAN:
+                type = ParquetType.BOOLEAN;
+                break;
+            case INT8:
+            case INT16:
+            case INT32:
+                type = ParquetType.INT32;
+                break;
+            case INT64:
+                type = ParquetType.INT64;
+                break;
+            case FLOAT:
+                type = ParquetType.FLOAT;
+                break;
+            case DOUBLE:
+                type = ParquetType.DOUBLE;
+                break;
+            case DECIMAL:
+                type = ParquetType.DECIMAL;
+                precision = CommonUtils.toInt(binding.getPrecision());
+                scale = CommonUtils.toInt(binding.getScale());
+                break;
+            case DATE:
+                type = ParquetType.DATE;
+                break;
+            case TIME:
+                type = ParquetType.TIME;
+                break;
+            case TIMESTAMP:
+                type = ParquetType.TIMESTAMP;
+                break;
+            case TIMESTAMP_UTC:
+                type = ParquetType.TIMESTAMP_UTC;
+                break;
+            case BINARY:
+                type = ParquetType.BINARY;
+                break;
+            default:
+                type = ParquetType.STRING;
+                break;
+        }
+        return new ParquetColumn(name, type, precision, scale, dictionaryEnabled);
+    }
+
+    private void addValue(@NotNull DBDAttributeBinding binding, @NotNull ParquetColumn column, @NotNull Object value) throws DBException {
+        switch (column.getType()) {
+            case BOOLEAN:
+                column.addBoolean(value instanceof Number ? ((Number) value).intValue() != 0 : CommonUtils.toBoolean(value));
+                break;
+            case INT32:
+                column.addInt((int) toInteger(binding, value, Integer.SIZE));
+                break;
+            case INT64:
+                column.addLong(toInteger(binding, value, Long.SIZE));
+                break;
+            case FLOAT:
+                column.addFloat(toNumber(binding, value).floatValue());
+                break;
+            case DOUBLE:
+                column.addDouble(toNumber(binding, value).doubleValue());
+                break;
+            case DECIMAL:
+                column.addBytes(toDecimal(binding, value, column.getPrecision(), column.getScale()).unscaledValue().toByteArray());
+                break;
+            case DATE:
+                column.addInt((int) toLocalDateTime(binding, value).toLocalDate().toEpochDay());
+                break;
+            case TIME:
+                column.addLong(toLocalDateTime(binding, value).toLocalTime().toNanoOfDay() / 1000);
+                break;
+            case TIMESTAMP:
+                column.addLong(toMicros(toLocalDateTime(binding, value).toInstant(ZoneOffset.UTC)));
+                break;
+            case TIMESTAMP_UTC:
+                column.addLong(toMicros(toInstant(binding, value)));
+                break;
+            case BINARY:
+                if (value instanceof byte[]) {
+                    column.addBytes((byte[]) value);
+                } else {
+                    column.addBytes(toString(binding, value).getBytes(StandardCharsets.UTF_8));
+                }
+                break;
+            default:
+                column.addBytes(toString(binding, value).getBytes(StandardCharsets.UTF_8));
+                break;
+        }
+    }
+
+    @NotNull
+    @Override
+    protected String getFormatName() {
+        return "Parquet";
+    }
+
+}
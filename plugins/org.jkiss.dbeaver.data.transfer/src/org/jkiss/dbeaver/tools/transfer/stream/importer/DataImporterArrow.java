@@ -0,0 +1,233 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.importer;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.DBFetchProgress;
+import org.jkiss.dbeaver.model.DBPDataKind;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.exec.DBCExecutionContext;
+import org.jkiss.dbeaver.model.exec.DBCExecutionPurpose;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.impl.local.LocalStatement;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.tools.transfer.IDataTransferConsumer;
+import org.jkiss.dbeaver.tools.transfer.stream.IStreamDataImporterSite;
+import org.jkiss.dbeaver.tools.transfer.stream.StreamDataImporterColumnInfo;
+import org.jkiss.dbeaver.tools.transfer.stream.StreamEntityMapping;
+import org.jkiss.dbeaver.tools.transfer.stream.StreamTransferResultSet;
+import org.jkiss.dbeaver.tools.transfer.stream.arrow.ArrowField;
+import org.jkiss.dbeaver.tools.transfer.stream.arrow.ArrowRecordBatch;
+import org.jkiss.dbeaver.tools.transfer.stream.arrow.ArrowStreamReader;
+import org.jkiss.utils.CommonUtils;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Apache Arrow IPC (file/Feather v2 and stream) importer.
+ * <p>
+ * Column types are taken from the Arrow schema, only string lengths are sampled from the first record batch.
+ * Values are passed to the consumer as typed objects, record batch by record batch.
+ */
+public class DataImporterArrow extends StreamImporterAbstract {
+
+    public DataImporterArrow() {
+    }
+
+    @NotNull
+    @Override
+    public List<StreamDataImporterColumnInfo> readColumnsInfo(StreamEntityMapping entityMapping, @NotNull InputStream inputStream) throws DBException {
+        Map<String, Object> processorProperties = getSite().getProcessorProperties();
+        final int columnMinimalLength = Math.max(CommonUtils.toInt(processorProperties.get(PROP_COLUMN_TYPE_LENGTH), 1), 1);
+
+        List<StreamDataImporterColumnInfo> columnsInfo = new ArrayList<>();
+        try {
+            ArrowStreamReader reader = new ArrowStreamReader(new BufferedInputStream(inputStream, READ_BUFFER_SIZE));
+            List<ArrowField> fields = reader.readSchema();
+            for (int i = 0; i < fields.size(); i++) {
+                columnsInfo.add(makeColumnInfo(entityMapping, i, fields.get(i), columnMinimalLength));
+            }
+            // Arrow schema has no string lengths, take them from the first record batch
+            ArrowRecordBatch batch = reader.readNextBatch();
+            if (batch != null) {
+                for (int i = 0; i < fields.size(); i++) {
+                    StreamDataImporterColumnInfo columnInfo = columnsInfo.get(i);
+                    if (columnInfo.getDataKind() != DBPDataKind.STRING) {
+                        continue;
+                    }
+                    for (int row = 0; row < batch.getRowCount(); row++) {
+                        Object value = batch.getValue(i, row);
+                        if (value != null) {
+                            columnInfo.updateMaxLength(value.toString().length());
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new DBException("IO error reading Arrow schema", e);
+        }
+        return columnsInfo;
+    }
+
+    @Override
+    public void runImport(@NotNull DBRProgressMonitor monitor, @NotNull DBPDataSource streamDataSource, @NotNull InputStream inputStream, @NotNull IDataTransferConsumer consumer) throws DBException {
+        IStreamDataImporterSite site = getSite();
+        StreamEntityMapping entityMapping = site.getSourceObject();
+
+        DBCExecutionContext context = streamDataSource.getDefaultInstance().getDefaultContext(monitor, false);
+        try (DBCSession producerSession = context.openSession(monitor, DBCExecutionPurpose.UTIL, "Transfer stream data")) {
+            LocalStatement localStatement = new LocalStatement(producerSession, "SELECT * FROM Stream");
+            StreamTransferResultSet resultSet = new StreamTransferResultSet(producerSession, localStatement, entityMapping);
+
+            consumer.fetchStart(producerSession, resultSet, -1, -1);
+
+            applyTransformHints(resultSet, consumer, site.getProcessorProperties(), null, null);
+
+            try {
+                ArrowStreamReader reader = new ArrowStreamReader(new BufferedInputStream(inputStream, READ_BUFFER_SIZE));
+                int fieldCount = reader.readSchema().size();
+                int targetAttrSize = Math.max(entityMapping.getStreamColumns().size(), fieldCount);
+                int maxRows = site.getSettings().getMaxRows();
+                long rowNum = 0;
+                readLoop:
+                for (ArrowRecordBatch batch = reader.readNextBatch(); batch != null; batch = reader.readNextBatch()) {
+                    for (int row = 0; row < batch.getRowCount(); row++) {
+                        if (monitor.isCanceled() || (maxRows > 0 && rowNum >= maxRows)) {
+                            break readLoop;
+                        }
+                        Object[] values = new Object[targetAttrSize];
+                        for (int i = 0; i < fieldCount; i++) {
+                            values[i] = batch.getValue(i, row);
+                        }
+                        resultSet.setStreamRow(values);
+                        consumer.fetchRow(producerSession, resultSet);
+                        rowNum++;
+
+                        if (DBFetchProgress.monitorFetchProgress(rowNum)) {
+                            monitor.subTask(Long.toUnsignedString(rowNum) + " rows processed");
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                throw new DBException("IO error reading Arrow stream", e);
+            } finally {
+                try {
+                    consumer.fetchEnd(producerSession, resultSet);
+                } finally {
+                    consumer.close();
+                }
+            }
+        }
+    }
+
+    @NotNull
+    private static StreamDataImporterColumnInfo makeColumnInfo(
+        @NotNull StreamEntityMapping entityMapping,
+        int index,
+        @NotNull ArrowField field,
+        int minimalLength)
+    {
+        String name = field.getName();
+        if (name.isEmpty()) {
+            name = "Column" + (index + 1);
+        }
+        DBPDataKind dataKind;
+        String typeName;
+        int valueType;
+        Integer precision = null;
+        Integer scale = null;
+        switch (field.getType()) {
+            case BOOL:
+                dataKind = DBPDataKind.BOOLEAN;
+                typeName = "BOOLEAN";
+                valueType = Types.BOOLEAN;
+                break;
+            case INT:
+                dataKind = DBPDataKind.NUMERIC;
+                if (field.getBitWidth() < 32 || (field.getBitWidth() == 32 && field.isSigned())) {
+                    typeName = field.getBitWidth() <= 16 && field.isSigned() ? "SMALLINT" : "INTEGER";
+                    valueType = field.getBitWidth() <= 16 && field.isSigned() ? Types.SMALLINT : Types.INTEGER;
+                } else if (field.getBitWidth() == 64 && !field.isSigned()) {
+                    typeName = "NUMERIC";
+                    valueType = Types.NUMERIC;
+                    precision = 20;
+                    scale = 0;
+                } else {
+                    typeName = "BIGINT";
+                    valueType = Types.BIGINT;
+                }
+                break;
+            case FLOATING_POINT:
+                dataKind = DBPDataKind.NUMERIC;
+                if (field.getByteWidth() == 4) {
+                    typeName = "REAL";
+                    valueType = Types.REAL;
+                } else {
+                    typeName = "DOUBLE";
+                    valueType = Types.DOUBLE;
+                }
+                break;
+            case DECIMAL:
+                dataKind = DBPDataKind.NUMERIC;
+                typeName = "NUMERIC";
+                valueType = Types.NUMERIC;
+                precision = field.getPrecision();
+                scale = field.getScale();
+                break;
+            case DATE:
+                dataKind = DBPDataKind.DATETIME;
+                typeName = "DATE";
+                valueType = Types.DATE;
+                break;
+            case TIME:
+                dataKind = DBPDataKind.DATETIME;
+                typeName = "TIME";
+                valueType = Types.TIME;
+                break;
+            case TIMESTAMP:
+                dataKind = DBPDataKind.DATETIME;
+                typeName = "TIMESTAMP";
+                valueType = Types.TIMESTAMP;
+                break;
+            case BINARY:
+            case LARGE_BINARY:
+                dataKind = DBPDataKind.BINARY;
+                typeName = "BLOB";
+                valueType = Types.BLOB;
+                break;
+            default:
+                dataKind = DBPDataKind.STRING;
+                typeName = "VARCHAR";
+                valueType = Types.VARCHAR;
+                break;
+        }
+        StreamDataImporterColumnInfo columnInfo = new StreamDataImporterColumnInfo(entityMapping, index, name, typeName, minimalLength, dataKind);
+        columnInfo.setValueType(valueType);
+        columnInfo.setPrecision(precision);
+        columnInfo.setScale(scale);
+        columnInfo.setMappingMetadataPresent(true);
+        return columnInfo;
+    }
+
+}
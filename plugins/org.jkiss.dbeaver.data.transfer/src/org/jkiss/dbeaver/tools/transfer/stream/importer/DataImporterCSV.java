@@ -35,10 +35,8 @@ import org.jkiss.dbeaver.utils.GeneralUtils;
 import org.jkiss.utils.CommonUtils;
 import org.jkiss.utils.Pair;
 import org.jkiss.utils.csv.CSVReader;
-import org.jkiss.utils.io.BOMInputStream;
 
 import java.io.*;
-import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -49,7 +47,6 @@ import java.util.Map;
 public class DataImporterCSV extends StreamImporterAbstract {
     private static final Log log = Log.getLog(DataImporterCSV.class);
 
-    private static final String PROP_ENCODING = "encoding";
     private static final String PROP_HEADER = "header";
     private static final String PROP_DELIMITER = "delimiter";
     private static final String PROP_QUOTE_CHAR = "quoteChar";
@@ -57,7 +54,6 @@ public class DataImporterCSV extends StreamImporterAbstract {
     private static final String PROP_EMPTY_STRING_NULL = "emptyStringNull";
     private static final String PROP_ESCAPE_CHAR = "escapeChar";
     private static final String PROP_TRIM_WHITESPACES = "trimWhitespaces";
-    public static final int READ_BUFFER_SIZE = 255 * 1024;
 
     public enum HeaderPosition {
         none,
@@ -168,20 +164,6 @@ public class DataImporterCSV extends StreamImporterAbstract {
         return new CSVReader(reader, delimiter.charAt(0), quoteChar.charAt(0), escapeChar.charAt(0));
     }
 
-    private Reader openStreamReader(InputStream inputStream, Map<String, Object> processorProperties, boolean useBufferedStream) throws UnsupportedEncodingException {
-        final String encoding = CommonUtils.toString(processorProperties.get(PROP_ENCODING), GeneralUtils.UTF8_ENCODING);
-        final Charset charset = Charset.forName(encoding);
-        if (useBufferedStream) {
-            inputStream = new BufferedInputStream(inputStream, READ_BUFFER_SIZE);
-        }
-        try {
-            inputStream = new BOMInputStream(inputStream, charset);
-        } catch (IllegalArgumentException ignored) {
-            // This charset does not have BOM, suppress and continue
-        }
-        return new InputStreamReader(inputStream, charset);
-    }
-
     private String[] getNextLine(CSVReader csvReader) throws IOException {
         while (true) {
             String[] line = csvReader.readNext();
@@ -0,0 +1,379 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.importer;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.DBFetchProgress;
+import org.jkiss.dbeaver.model.DBPDataKind;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.exec.DBCExecutionContext;
+import org.jkiss.dbeaver.model.exec.DBCExecutionPurpose;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.impl.local.LocalStatement;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.tools.transfer.IDataTransferConsumer;
+import org.jkiss.dbeaver.tools.transfer.database.DatabaseTransferUtils;
+import org.jkiss.dbeaver.tools.transfer.stream.IStreamDataImporterSite;
+import org.jkiss.dbeaver.tools.transfer.stream.StreamDataImporterColumnInfo;
+import org.jkiss.dbeaver.tools.transfer.stream.StreamEntityMapping;
+import org.jkiss.dbeaver.tools.transfer.stream.StreamTransferResultSet;
+import org.jkiss.dbeaver.utils.GeneralUtils;
+import org.jkiss.utils.CommonUtils;
+import org.jkiss.utils.Pair;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * JSON importer.
+ * <p>
+ * Reads either a top-level array of objects, JSON Lines (one object per line) or the output of the JSON exporter
+ * (an object with a single table name property holding the array of rows). Objects are read one by one,
+ * so memory consumption doesn't depend on the file size.
+ */
+public class DataImporterJSON extends StreamImporterAbstract {
+    private static final Log log = Log.getLog(DataImporterJSON.class);
+
+    private static final String PROP_NESTED_OBJECTS = "nestedObjects";
+
+    public enum NestedObjects {
+        // Nested object properties become separate columns with dotted names
+        flatten,
+        // Nested objects are imported as JSON text
+        document,
+    }
+
+    public DataImporterJSON() {
+    }
+
+    @NotNull
+    @Override
+    public List<StreamDataImporterColumnInfo> readColumnsInfo(StreamEntityMapping entityMapping, @NotNull InputStream inputStream) throws DBException {
+        Map<String, Object> processorProperties = getSite().getProcessorProperties();
+        final String encoding = CommonUtils.toString(processorProperties.get(PROP_ENCODING), GeneralUtils.UTF8_ENCODING);
+        final int columnSamplesCount = Math.max(CommonUtils.toInt(processorProperties.get(PROP_COLUMN_TYPE_SAMPLES), 100), 1);
+        final int columnMinimalLength = Math.max(CommonUtils.toInt(processorProperties.get(PROP_COLUMN_TYPE_LENGTH), 1), 1);
+        final boolean columnIsByteLength = CommonUtils.getBoolean(processorProperties.get(PROP_COLUMN_IS_BYTE_LENGTH), false);
+
+        Map<String, StreamDataImporterColumnInfo> columnsInfo = new LinkedHashMap<>();
+        try (Reader reader = openStreamReader(inputStream, processorProperties, true)) {
+            JsonRowReader rowReader = new JsonRowReader(reader, getNestedObjects(processorProperties));
+            for (int sample = 0; sample < columnSamplesCount; sample++) {
+                Map<String, Object> row = rowReader.nextRow();
+                if (row == null) {
+                    break;
+                }
+                for (Map.Entry<String, Object> entry : row.entrySet()) {
+                    StreamDataImporterColumnInfo columnInfo = columnsInfo.get(entry.getKey());
+                    if (columnInfo == null) {
+                        columnInfo = new StreamDataImporterColumnInfo(
+                            entityMapping, columnsInfo.size(), entry.getKey(), null, columnMinimalLength, DBPDataKind.UNKNOWN);
+                        columnInfo.setMappingMetadataPresent(true);
+                        columnsInfo.put(entry.getKey(), columnInfo);
+                    }
+                    Object value = entry.getValue();
+                    if (value == null) {
+                        continue;
+                    }
+                    if (value instanceof String) {
+                        String strValue = (String) value;
+                        columnInfo.updateMaxLength(columnIsByteLength ? strValue.getBytes(encoding).length : strValue.length());
+                        columnInfo.updateType(DBPDataKind.STRING, "VARCHAR");
+                    } else {
+                        // Numbers and booleans
+                        Pair<DBPDataKind, String> dataType = DatabaseTransferUtils.getDataType(value.toString());
+                        if (dataType.getSecond() != null) {
+                            columnInfo.updateType(dataType.getFirst(), dataType.getSecond());
+                        }
+                    }
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            throw new DBException("IO error reading JSON", e);
+        }
+
+        for (StreamDataImporterColumnInfo columnInfo : columnsInfo.values()) {
+            if (columnInfo.getDataKind() == DBPDataKind.UNKNOWN) {
+                log.warn("Cannot guess data type for column '" + columnInfo.getName() + "', defaulting to VARCHAR");
+                columnInfo.updateType(DBPDataKind.STRING, "VARCHAR");
+            }
+        }
+        return new ArrayList<>(columnsInfo.values());
+    }
+
+    @Override
+    public void runImport(@NotNull DBRProgressMonitor monitor, @NotNull DBPDataSource streamDataSource, @NotNull InputStream inputStream, @NotNull IDataTransferConsumer consumer) throws DBException {
+        IStreamDataImporterSite site = getSite();
+        StreamEntityMapping entityMapping = site.getSourceObject();
+        Map<String, Object> properties = site.getProcessorProperties();
+
+        List<StreamDataImporterColumnInfo> streamColumns = entityMapping.getStreamColumns();
+        Map<String, Integer> columnIndexes = new HashMap<>();
+        for (int i = 0; i < streamColumns.size(); i++) {
+            columnIndexes.put(streamColumns.get(i).getName(), i);
+        }
+
+        DBCExecutionContext context = streamDataSource.getDefaultInstance().getDefaultContext(monitor, false);
+        try (DBCSession producerSession = context.openSession(monitor, DBCExecutionPurpose.UTIL, "Transfer stream data")) {
+            LocalStatement localStatement = new LocalStatement(producerSession, "SELECT * FROM Stream");
+            StreamTransferResultSet resultSet = new StreamTransferResultSet(producerSession, localStatement, entityMapping);
+
+            consumer.fetchStart(producerSession, resultSet, -1, -1);
+
+            applyTransformHints(resultSet, consumer, properties, PROP_TIMESTAMP_FORMAT, PROP_TIMESTAMP_ZONE);
+
+            try (Reader reader = openStreamReader(inputStream, properties, true)) {
+                JsonRowReader rowReader = new JsonRowReader(reader, getNestedObjects(properties));
+                int maxRows = site.getSettings().getMaxRows();
+                Set<String> unknownColumns = new HashSet<>();
+                for (long rowNum = 0; ; ) {
+                    if (monitor.isCanceled() || (maxRows > 0 && rowNum >= maxRows)) {
+                        break;
+                    }
+                    Map<String, Object> row = rowReader.nextRow();
+                    if (row == null) {
+                        break;
+                    }
+                    Object[] values = new Object[streamColumns.size()];
+                    for (Map.Entry<String, Object> entry : row.entrySet()) {
+                        Integer index = columnIndexes.get(entry.getKey());
+                        if (index != null) {
+                            values[index] = entry.getValue();
+                        } else if (unknownColumns.add(entry.getKey())) {
+                            log.debug("Property '" + entry.getKey() + "' was not found in sampled rows, skipping");
+                        }
+                    }
+
+                    resultSet.setStreamRow(values);
+                    consumer.fetchRow(producerSession, resultSet);
+                    rowNum++;
+
+                    if (DBFetchProgress.monitorFetchProgress(rowNum)) {
+                        monitor.subTask(Long.toUnsignedString(rowNum) + " rows processed");
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                throw new DBException("IO error reading JSON", e);
+            } finally {
+                try {
+                    consumer.fetchEnd(producerSession, resultSet);
+                } finally {
+                    consumer.close();
+                }
+            }
+        }
+    }
+
+    @NotNull
+    private static NestedObjects getNestedObjects(@NotNull Map<String, Object> processorProperties) {
+        return CommonUtils.valueOf(NestedObjects.class, CommonUtils.toString(processorProperties.get(PROP_NESTED_OBJECTS)), NestedObjects.flatten);
+    }
+
+    /**
+     * Reads rows (JSON objects) one by one
+     */
+    private static class JsonRowReader {
+        // Rows of exported table which are read to tell it from the first JSON Lines row
+        private static final int MAX_LOOKAHEAD_ROWS = 1000;
+
+        private final JsonReader reader;
+        private final NestedObjects nestedObjects;
+        // Depth of the rows array: 0 - JSON Lines, 1 - top-level array, 2 - array inside of exported table object
+        private int arrayDepth = -1;
+        // First JSON Lines row, its first property was read while detecting the file layout
+        private Map<String, Object> pendingRow;
+        // First rows of exported table, they were read while detecting the file layout
+        private final Deque<JsonElement> pendingRows = new ArrayDeque<>();
+
+        JsonRowReader(@NotNull Reader reader, @NotNull NestedObjects nestedObjects) {
+            this.reader = new JsonReader(reader);
+            // Lenient mode allows multiple top-level values (JSON Lines)
+            this.reader.setLenient(true);
+            this.nestedObjects = nestedObjects;
+        }
+
+        @Nullable
+        Map<String, Object> nextRow() throws IOException {
+            if (arrayDepth < 0) {
+                if (!openRows()) {
+                    return null;
+                }
+            }
+            if (pendingRow != null) {
+                Map<String, Object> row = pendingRow;
+                pendingRow = null;
+                readProperties(reader, null, row);
+                return row;
+            }
+            if (!pendingRows.isEmpty()) {
+                Map<String, Object> row = new LinkedHashMap<>();
+                readObject(new JsonReader(new StringReader(pendingRows.removeFirst().toString())), null, row);
+                return row;
+            }
+            while (true) {
+                JsonToken token = reader.peek();
+                switch (token) {
+                    case BEGIN_OBJECT: {
+                        Map<String, Object> row = new LinkedHashMap<>();
+                        readObject(reader, null, row);
+                        return row;
+                    }
+                    case END_ARRAY:
+                    case END_OBJECT:
+                    case END_DOCUMENT:
+                        return null;
+                    default:
+                        // Skip scalars and arrays, they can't be mapped to columns
+                        reader.skipValue();
+                        break;
+                }
+            }
+        }
+
+        private boolean openRows() throws IOException {
+            JsonToken token;
+            try {
+                token = reader.peek();
+            } catch (EOFException e) {
+                // Empty file
+                return false;
+            }
+            if (token == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                arrayDepth = 1;
+                return true;
+            } else if (token != JsonToken.BEGIN_OBJECT) {
+                return false;
+            }
+            // Either the first JSON Lines row or exported table: {"table": [ rows ]}.
+            // Exported table is an object with a single property holding an array of objects.
+            reader.beginObject();
+            pendingRow = new LinkedHashMap<>();
+            arrayDepth = 0;
+            if (reader.peek() != JsonToken.NAME) {
+                return true;
+            }
+            String name = reader.nextName();
+            if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+                readValue(reader, name, pendingRow);
+                return true;
+            }
+            reader.beginArray();
+            List<JsonElement> elements = new ArrayList<>();
+            boolean objectsOnly = true;
+            while (objectsOnly && elements.size() < MAX_LOOKAHEAD_ROWS && reader.hasNext()) {
+                JsonElement element = JsonParser.parseReader(reader);
+                objectsOnly = element.isJsonObject();
+                elements.add(element);
+            }
+            if (objectsOnly && reader.peek() != JsonToken.END_ARRAY) {
+                // Too many objects for a property of JSON Lines row, rows are read directly from the array
+                pendingRow = null;
+                pendingRows.addAll(elements);
+                arrayDepth = 2;
+                return true;
+            }
+            String arrayText = readArrayTail(elements);
+            if (objectsOnly && reader.peek() == JsonToken.END_OBJECT) {
+                pendingRow = null;
+                pendingRows.addAll(elements);
+                arrayDepth = 2;
+                return true;
+            }
+            // Just an array property of the first row
+            pendingRow.put(name, arrayText);
+            return true;
+        }
+
+        private void readObject(@NotNull JsonReader in, @Nullable String prefix, @NotNull Map<String, Object> row) throws IOException {
+            in.beginObject();
+            readProperties(in, prefix, row);
+        }
+
+        private void readProperties(@NotNull JsonReader in, @Nullable String prefix, @NotNull Map<String, Object> row) throws IOException {
+            while (in.hasNext()) {
+                String name = in.nextName();
+                readValue(in, prefix == null ? name : prefix + "." + name, row);
+            }
+            in.endObject();
+        }
+
+        private void readValue(@NotNull JsonReader in, @NotNull String name, @NotNull Map<String, Object> row) throws IOException {
+            switch (in.peek()) {
+                case BEGIN_OBJECT:
+                    if (nestedObjects == NestedObjects.flatten) {
+                        readObject(in, name, row);
+                    } else {
+                        row.put(name, JsonParser.parseReader(in).toString());
+                    }
+                    break;
+                case BEGIN_ARRAY:
+                    // Arrays are always kept as JSON text
+                    row.put(name, JsonParser.parseReader(in).toString());
+                    break;
+                case BOOLEAN:
+                    row.put(name, in.nextBoolean());
+                    break;
+                case NUMBER:
+                    row.put(name, parseNumber(in.nextString()));
+                    break;
+                case NULL:
+                    in.nextNull();
+                    row.put(name, null);
+                    break;
+                default:
+                    row.put(name, in.nextString());
+                    break;
+            }
+        }
+
+        @NotNull
+        private String readArrayTail(@NotNull List<JsonElement> head) throws IOException {
+            // Array was already opened and its first elements were read, read the rest of it
+            JsonArray array = new JsonArray();
+            head.forEach(array::add);
+            while (reader.hasNext()) {
+                array.add(JsonParser.parseReader(reader));
+            }
+            reader.endArray();
+            return array.toString();
+        }
+
+        @NotNull
+        private static Object parseNumber(@NotNull String value) {
+            try {
+                return Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                return new BigDecimal(value);
+            }
+        }
+    }
+
+}
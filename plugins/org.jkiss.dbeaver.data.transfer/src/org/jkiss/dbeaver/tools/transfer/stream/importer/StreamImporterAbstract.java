@@ -29,8 +29,12 @@ import org.jkiss.dbeaver.tools.transfer.stream.IStreamDataImporter;
 import org.jkiss.dbeaver.tools.transfer.stream.IStreamDataImporterSite;
 import org.jkiss.dbeaver.tools.transfer.stream.StreamDataImporterColumnInfo;
 import org.jkiss.dbeaver.tools.transfer.stream.StreamTransferResultSet;
+import org.jkiss.dbeaver.utils.GeneralUtils;
 import org.jkiss.utils.CommonUtils;
+import org.jkiss.utils.io.BOMInputStream;
 
+import java.io.*;
+import java.nio.charset.Charset;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.Map;
@@ -42,12 +46,15 @@ public abstract class StreamImporterAbstract implements IStreamDataImporter {
 
     private static final Log log = Log.getLog(StreamImporterAbstract.class);
 
+    protected static final String PROP_ENCODING = "encoding";
     protected static final String PROP_TIMESTAMP_FORMAT = "timestampFormat";
     protected static final String PROP_TIMESTAMP_ZONE = "timestampZone";
     protected static final String PROP_COLUMN_TYPE_SAMPLES = "columnTypeSamplesCount";
     protected static final String PROP_COLUMN_TYPE_LENGTH = "columnTypeMinimalLength";
     protected static final String PROP_COLUMN_IS_BYTE_LENGTH = "columnTypeIsByteLength";
 
+    public static final int READ_BUFFER_SIZE = 255 * 1024;
+
     private IStreamDataImporterSite site;
 
     public IStreamDataImporterSite getSite()
@@ -82,6 +89,20 @@ public abstract class StreamImporterAbstract implements IStreamDataImporter {
         return tsFormat;
     }
 
+    protected Reader openStreamReader(InputStream inputStream, Map<String, Object> processorProperties, boolean useBufferedStream) throws UnsupportedEncodingException {
+        final String encoding = CommonUtils.toString(processorProperties.get(PROP_ENCODING), GeneralUtils.UTF8_ENCODING);
+        final Charset charset = Charset.forName(encoding);
+        if (useBufferedStream) {
+            inputStream = new BufferedInputStream(inputStream, READ_BUFFER_SIZE);
+        }
+        try {
+            inputStream = new BOMInputStream(inputStream, charset);
+        } catch (IllegalArgumentException ignored) {
+            // This charset does not have BOM, suppress and continue
+        }
+        return new InputStreamReader(inputStream, charset);
+    }
+
     protected void applyTransformHints(StreamTransferResultSet resultSet, IDataTransferConsumer consumer, Map<String, Object> properties, String formatPropName, String zoneIdPropName) throws DBException {
         DateTimeFormatter tsFormat = formatPropName == null ? null : getTimeStampFormat(properties, formatPropName);
         ZoneId tsZoneId = null;
@@ -0,0 +1,245 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.parquet;
+
+import org.jkiss.code.NotNull;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column values of the current row group.
+ * <p>
+ * All columns are optional. Non-null values are kept PLAIN encoded, byte array values are dictionary encoded
+ * until the dictionary grows too large.
+ */
+public class ParquetColumn {
+
+    private static final int MAX_DICTIONARY_BYTES = 1024 * 1024;
+
+    private final String name;
+    private final ParquetType type;
+    private final int precision;
+    private final int scale;
+    private final boolean dictionaryEnabled;
+
+    private int rowCount;
+    private int valueCount;
+    private int[] definitionLevels = new int[1024];
+    private ParquetByteOutput values = new ParquetByteOutput();
+    private int booleanBits;
+    private int booleanBitCount;
+
+    private boolean dictionaryEncoded;
+    private final Map<ByteBuffer, Integer> dictionary = new HashMap<>();
+    private final List<byte[]> dictionaryValues = new ArrayList<>();
+    private int dictionaryBytes;
+    private int[] dictionaryIndexes;
+
+    public ParquetColumn(@NotNull String name, @NotNull ParquetType type, int precision, int scale, boolean dictionaryEnabled) {
+        this.name = name;
+        this.type = type;
+        this.precision = precision;
+        this.scale = scale;
+        this.dictionaryEnabled = dictionaryEnabled && type.isByteArray();
+        reset();
+    }
+
+    @NotNull
+    public String getName() {
+        return name;
+    }
+
+    @NotNull
+    public ParquetType getType() {
+        return type;
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    public int getScale() {
+        return scale;
+    }
+
+    public void addNull() {
+        addDefinitionLevel(0);
+    }
+
+    public void addBoolean(boolean value) {
+        addDefinitionLevel(1);
+        if (value) {
+            booleanBits |= 1 << booleanBitCount;
+        }
+        if (++booleanBitCount == 8) {
+            values.write(booleanBits);
+            booleanBits = 0;
+            booleanBitCount = 0;
+        }
+    }
+
+    public void addInt(int value) {
+        addDefinitionLevel(1);
+        values.writeIntLE(value);
+    }
+
+    public void addLong(long value) {
+        addDefinitionLevel(1);
+        values.writeLongLE(value);
+    }
+
+    public void addFloat(float value) {
+        addDefinitionLevel(1);
+        values.writeIntLE(Float.floatToIntBits(value));
+    }
+
+    public void addDouble(double value) {
+        addDefinitionLevel(1);
+        values.writeLongLE(Double.doubleToLongBits(value));
+    }
+
+    public void addBytes(@NotNull byte[] value) {
+        if (dictionaryEncoded) {
+            Integer index = dictionary.get(ByteBuffer.wrap(value));
+            if (index == null) {
+                if (dictionaryBytes + value.length > MAX_DICTIONARY_BYTES) {
+                    switchToPlainEncoding();
+                    addBytes(value);
+                    return;
+                }
+                index = dictionaryValues.size();
+                dictionary.put(ByteBuffer.wrap(value), index);
+                dictionaryValues.add(value);
+                dictionaryBytes += value.length + 4;
+            }
+            if (valueCount == dictionaryIndexes.length) {
+                dictionaryIndexes = Arrays.copyOf(dictionaryIndexes, valueCount * 2);
+            }
+            dictionaryIndexes[valueCount] = index;
+        } else {
+            values.writeIntLE(value.length);
+            values.write(value, 0, value.length);
+        }
+        addDefinitionLevel(1);
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Approximate size of buffered data
+     */
+    public long getBufferedSize() {
+        return rowCount / 8 + values.size() + (dictionaryEncoded ? dictionaryBytes + valueCount * 2L : 0);
+    }
+
+    public boolean isDictionaryEncoded() {
+        return dictionaryEncoded && !dictionaryValues.isEmpty();
+    }
+
+    public int getDictionarySize() {
+        return dictionaryValues.size();
+    }
+
+    /**
+     * Dictionary page content (PLAIN encoded dictionary values)
+     */
+    @NotNull
+    ParquetByteOutput encodeDictionaryPage() {
+        ParquetByteOutput page = new ParquetByteOutput(dictionaryBytes);
+        for (byte[] value : dictionaryValues) {
+            page.writeIntLE(value.length);
+            page.write(value, 0, value.length);
+        }
+        return page;
+    }
+
+    /**
+     * Data page v1 content: definition levels followed by values
+     */
+    @NotNull
+    ParquetByteOutput encodeDataPage() {
+        ParquetByteOutput levels = new ParquetByteOutput(rowCount / 4 + 16);
+        ParquetEncodings.writeRleBitPacked(levels, definitionLevels, rowCount, 1);
+
+        ParquetByteOutput page = new ParquetByteOutput(levels.size() + values.size() + valueCount + 16);
+        page.writeIntLE(levels.size());
+        levels.writeTo(page);
+        if (isDictionaryEncoded()) {
+            int bitWidth = Math.max(ParquetEncodings.getBitWidth(dictionaryValues.size() - 1), 1);
+            page.write(bitWidth);
+            ParquetEncodings.writeRleBitPacked(page, dictionaryIndexes, valueCount, bitWidth);
+        } else {
+            values.writeTo(page);
+            if (booleanBitCount > 0) {
+                page.write(booleanBits);
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Clears row group data
+     */
+    void reset() {
+        rowCount = 0;
+        valueCount = 0;
+        if (definitionLevels.length > 1024 * 64) {
+            definitionLevels = new int[1024];
+        }
+        values = new ParquetByteOutput();
+        booleanBits = 0;
+        booleanBitCount = 0;
+        dictionaryEncoded = dictionaryEnabled;
+        dictionary.clear();
+        dictionaryValues.clear();
+        dictionaryBytes = 0;
+        dictionaryIndexes = dictionaryEncoded ? new int[1024] : null;
+    }
+
+    private void addDefinitionLevel(int level) {
+        if (rowCount == definitionLevels.length) {
+            definitionLevels = Arrays.copyOf(definitionLevels, rowCount * 2);
+        }
+        definitionLevels[rowCount++] = level;
+        if (level > 0) {
+            valueCount++;
+        }
+    }
+
+    private void switchToPlainEncoding() {
+        ParquetByteOutput plain = new ParquetByteOutput(dictionaryBytes * 2);
+        for (int i = 0; i < valueCount; i++) {
+            byte[] value = dictionaryValues.get(dictionaryIndexes[i]);
+            plain.writeIntLE(value.length);
+            plain.write(value, 0, value.length);
+        }
+        values = plain;
+        dictionaryEncoded = false;
+        dictionary.clear();
+        dictionaryValues.clear();
+        dictionaryBytes = 0;
+        dictionaryIndexes = null;
+    }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.parquet;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Parquet page compression codec
+ */
+public enum ParquetCompression {
+
+    NONE(0),
+    SNAPPY(1),
+    GZIP(2);
+
+    private final int codec;
+
+    ParquetCompression(int codec) {
+        this.codec = codec;
+    }
+
+    /**
+     * Codec id in the Parquet metadata
+     */
+    public int getCodec() {
+        return codec;
+    }
+
+    @NotNull
+    byte[] compress(@NotNull ParquetByteOutput data, @NotNull SnappyCompressor snappy) throws IOException {
+        switch (this) {
+            case SNAPPY:
+                return snappy.compress(data.getBuffer(), data.size());
+            case GZIP:
+                ParquetByteOutput buffer = new ParquetByteOutput(data.size() / 2 + 64);
+                try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+                    gzip.write(data.getBuffer(), 0, data.size());
+                }
+                return buffer.toByteArray();
+            default:
+                return data.toByteArray();
+        }
+    }
+
+    @NotNull
+    public static ParquetCompression getByName(@Nullable String name) {
+        if (name != null) {
+            for (ParquetCompression compression : values()) {
+                if (compression.name().equalsIgnoreCase(name)) {
+                    return compression;
+                }
+            }
+        }
+        return SNAPPY;
+    }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.parquet;
+
+import org.jkiss.code.NotNull;
+
+/**
+ * Parquet encodings
+ */
+public class ParquetEncodings {
+
+    public static final int ENCODING_PLAIN = 0;
+    public static final int ENCODING_RLE = 3;
+    public static final int ENCODING_RLE_DICTIONARY = 8;
+
+    private static final int MIN_REPEAT_COUNT = 8;
+
+    private ParquetEncodings() {
+        // no instances
+    }
+
+    /**
+     * Number of bits required to store the specified non-negative value
+     */
+    public static int getBitWidth(int maxValue) {
+        return 32 - Integer.numberOfLeadingZeros(maxValue);
+    }
+
+    /**
+     * Writes values with RLE/bit-packing hybrid encoding.
+     * Runs of 8 or more equal values are written as RLE runs, everything else is bit-packed by groups of 8 values.
+     * Only the last bit-packed group may be padded.
+     */
+    public static void writeRleBitPacked(@NotNull ParquetByteOutput out, @NotNull int[] values, int count, int bitWidth) {
+        int literalStart = 0;
+        int pos = 0;
+        while (pos < count) {
+            int value = values[pos];
+            int runEnd = pos + 1;
+            while (runEnd < count && values[runEnd] == value) {
+                runEnd++;
+            }
+            if (runEnd - pos < MIN_REPEAT_COUNT) {
+                pos = runEnd;
+                continue;
+            }
+            // Literal groups must be complete - give them some values from the run
+            int literalCount = pos - literalStart;
+            pos += (MIN_REPEAT_COUNT - literalCount % MIN_REPEAT_COUNT) % MIN_REPEAT_COUNT;
+            if (runEnd - pos < MIN_REPEAT_COUNT) {
+                pos = runEnd;
+                continue;
+            }
+            writeBitPacked(out, values, literalStart, pos - literalStart, bitWidth);
+            out.writeVarInt((long) (runEnd - pos) << 1);
+            writeRepeatedValue(out, value, bitWidth);
+            pos = runEnd;
+            literalStart = pos;
+        }
+        writeBitPacked(out, values, literalStart, count - literalStart, bitWidth);
+    }
+
+    private static void writeRepeatedValue(@NotNull ParquetByteOutput out, int value, int bitWidth) {
+        for (int i = 0; i < (bitWidth + 7) / 8; i++) {
+            out.write(value >>> (i * 8));
+        }
+    }
+
+    private static void writeBitPacked(@NotNull ParquetByteOutput out, @NotNull int[] values, int offset, int count, int bitWidth) {
+        if (count == 0) {
+            return;
+        }
+        int groupCount = (count + 7) / 8;
+        out.writeVarInt(((long) groupCount << 1) | 1);
+        long buffer = 0;
+        int bufferBits = 0;
+        for (int i = 0; i < groupCount * 8; i++) {
+            long value = i < count ? values[offset + i] & 0xFFFFFFFFL : 0;
+            buffer |= value << bufferBits;
+            bufferBits += bitWidth;
+            while (bufferBits >= 8) {
+                out.write((int) buffer);
+                buffer >>>= 8;
+                bufferBits -= 8;
+            }
+        }
+    }
+
+}
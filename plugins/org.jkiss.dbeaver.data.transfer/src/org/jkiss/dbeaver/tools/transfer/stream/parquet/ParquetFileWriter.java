@@ -0,0 +1,328 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.parquet;
+
+import org.jkiss.code.NotNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parquet file writer.
+ * <p>
+ * Rows are buffered in columns. Whole row group is written once it reaches the row count or the size limit,
+ * so the output stream grows by complete row groups only. File metadata is written by {@link #finish()}.
+ */
+public class ParquetFileWriter {
+
+    private static final byte[] MAGIC = "PAR1".getBytes(StandardCharsets.US_ASCII);
+
+    private static final int PAGE_TYPE_DATA = 0;
+    private static final int PAGE_TYPE_DICTIONARY = 2;
+    private static final int REPETITION_OPTIONAL = 1;
+
+    private static final int CONVERTED_UTF8 = 0;
+    private static final int CONVERTED_DECIMAL = 5;
+    private static final int CONVERTED_DATE = 6;
+    private static final int CONVERTED_TIMESTAMP_MICROS = 10;
+
+    private final OutputStream out;
+    private final List<ParquetColumn> columns;
+    private final ParquetCompression compression;
+    private final int rowGroupSize;
+    private final long rowGroupBytes;
+    private final String createdBy;
+    private final SnappyCompressor snappy = new SnappyCompressor();
+
+    private final List<RowGroupInfo> rowGroups = new ArrayList<>();
+    private long position;
+    private int bufferedRows;
+    private long totalRows;
+
+    public ParquetFileWriter(
+        @NotNull OutputStream out,
+        @NotNull List<ParquetColumn> columns,
+        @NotNull ParquetCompression compression,
+        int rowGroupSize,
+        long rowGroupBytes,
+        @NotNull String createdBy)
+    {
+        this.out = out;
+        this.columns = columns;
+        this.compression = compression;
+        this.rowGroupSize = Math.max(rowGroupSize, 1);
+        this.rowGroupBytes = rowGroupBytes;
+        this.createdBy = createdBy;
+    }
+
+    public void start() throws IOException {
+        write(MAGIC, MAGIC.length);
+    }
+
+    @NotNull
+    public ParquetColumn getColumn(int index) {
+        return columns.get(index);
+    }
+
+    /**
+     * Must be called after values of all columns were added
+     */
+    public void endRow() throws IOException {
+        bufferedRows++;
+        if (bufferedRows >= rowGroupSize || (bufferedRows % 1000 == 0 && getBufferedSize() >= rowGroupBytes)) {
+            flushRowGroup();
+        }
+    }
+
+    /**
+     * Writes buffered rows and file metadata
+     */
+    public void finish() throws IOException {
+        flushRowGroup();
+
+        ParquetByteOutput footer = new ParquetByteOutput();
+        writeFileMetaData(new ThriftCompactWriter(footer));
+        write(footer.getBuffer(), footer.size());
+        ParquetByteOutput tail = new ParquetByteOutput(8);
+        tail.writeIntLE(footer.size());
+        tail.write(MAGIC, 0, MAGIC.length);
+        write(tail.getBuffer(), tail.size());
+        out.flush();
+    }
+
+    private long getBufferedSize() {
+        long size = 0;
+        for (ParquetColumn column : columns) {
+            size += column.getBufferedSize();
+        }
+        return size;
+    }
+
+    private void flushRowGroup() throws IOException {
+        if (bufferedRows == 0) {
+            return;
+        }
+        RowGroupInfo rowGroup = new RowGroupInfo(bufferedRows);
+        for (ParquetColumn column : columns) {
+            ColumnChunkInfo chunk = writeColumnChunk(column);
+            rowGroup.chunks.add(chunk);
+            rowGroup.totalByteSize += chunk.uncompressedSize;
+            column.reset();
+        }
+        rowGroups.add(rowGroup);
+        totalRows += bufferedRows;
+        bufferedRows = 0;
+        out.flush();
+    }
+
+    @NotNull
+    private ColumnChunkInfo writeColumnChunk(@NotNull ParquetColumn column) throws IOException {
+        ColumnChunkInfo chunk = new ColumnChunkInfo(column, position);
+        if (column.isDictionaryEncoded()) {
+            chunk.dictionaryPageOffset = position;
+            writePage(chunk, PAGE_TYPE_DICTIONARY, column.encodeDictionaryPage(), column.getDictionarySize(), ParquetEncodings.ENCODING_PLAIN);
+            chunk.encoding = ParquetEncodings.ENCODING_RLE_DICTIONARY;
+        }
+        chunk.dataPageOffset = position;
+        writePage(chunk, PAGE_TYPE_DATA, column.encodeDataPage(), column.getRowCount(), chunk.encoding);
+        return chunk;
+    }
+
+    private void writePage(@NotNull ColumnChunkInfo chunk, int pageType, @NotNull ParquetByteOutput body, int valueCount, int encoding) throws IOException {
+        byte[] compressed = compression.compress(body, snappy);
+
+        ParquetByteOutput header = new ParquetByteOutput(32);
+        ThriftCompactWriter thrift = new ThriftCompactWriter(header);
+        thrift.beginStruct();
+        thrift.writeI32(1, pageType);
+        thrift.writeI32(2, body.size());
+        thrift.writeI32(3, compressed.length);
+        if (pageType == PAGE_TYPE_DATA) {
+            thrift.beginStruct(5);
+            thrift.writeI32(1, valueCount);
+            thrift.writeI32(2, encoding);
+            thrift.writeI32(3, ParquetEncodings.ENCODING_RLE);
+            thrift.writeI32(4, ParquetEncodings.ENCODING_RLE);
+            thrift.endStruct();
+        } else {
+            thrift.beginStruct(7);
+            thrift.writeI32(1, valueCount);
+            thrift.writeI32(2, encoding);
+            thrift.endStruct();
+        }
+        thrift.endStruct();
+
+        write(header.getBuffer(), header.size());
+        write(compressed, compressed.length);
+        chunk.uncompressedSize += header.size() + body.size();
+        chunk.compressedSize += header.size() + compressed.length;
+    }
+
+    private void writeFileMetaData(@NotNull ThriftCompactWriter thrift) {
+        thrift.beginStruct();
+        thrift.writeI32(1, 1);
+        thrift.beginList(2, ThriftCompactWriter.TYPE_STRUCT, columns.size() + 1);
+        thrift.beginStruct();
+        thrift.writeString(4, "schema");
+        thrift.writeI32(5, columns.size());
+        thrift.endStruct();
+        for (ParquetColumn column : columns) {
+            writeSchemaElement(thrift, column);
+        }
+        thrift.writeI64(3, totalRows);
+        thrift.beginList(4, ThriftCompactWriter.TYPE_STRUCT, rowGroups.size());
+        for (RowGroupInfo rowGroup : rowGroups) {
+            thrift.beginStruct();
+            thrift.beginList(1, ThriftCompactWriter.TYPE_STRUCT, rowGroup.chunks.size());
+            for (ColumnChunkInfo chunk : rowGroup.chunks) {
+                writeColumnChunkMetaData(thrift, chunk);
+            }
+            thrift.writeI64(2, rowGroup.totalByteSize);
+            thrift.writeI64(3, rowGroup.rowCount);
+            thrift.endStruct();
+        }
+        thrift.writeString(6, createdBy);
+        thrift.endStruct();
+    }
+
+    private static void writeSchemaElement(@NotNull ThriftCompactWriter thrift, @NotNull ParquetColumn column) {
+        ParquetType type = column.getType();
+        thrift.beginStruct();
+        thrift.writeI32(1, type.getPhysicalType());
+        thrift.writeI32(3, REPETITION_OPTIONAL);
+        thrift.writeString(4, column.getName());
+        switch (type) {
+            case STRING:
+                thrift.writeI32(6, CONVERTED_UTF8);
+                thrift.beginStruct(10);
+                thrift.beginStruct(1);
+                thrift.endStruct();
+                thrift.endStruct();
+                break;
+            case DECIMAL:
+                thrift.writeI32(6, CONVERTED_DECIMAL);
+                thrift.writeI32(7, column.getScale());
+                thrift.writeI32(8, column.getPrecision());
+                thrift.beginStruct(10);
+                thrift.beginStruct(5);
+                thrift.writeI32(1, column.getScale());
+                thrift.writeI32(2, column.getPrecision());
+                thrift.endStruct();
+                thrift.endStruct();
+                break;
+            case DATE:
+                thrift.writeI32(6, CONVERTED_DATE);
+                thrift.beginStruct(10);
+                thrift.beginStruct(6);
+                thrift.endStruct();
+                thrift.endStruct();
+                break;
+            case TIME:
+                writeTimeLogicalType(thrift, 7, false);
+                break;
+            case TIMESTAMP:
+                writeTimeLogicalType(thrift, 8, false);
+                break;
+            case TIMESTAMP_UTC:
+                thrift.writeI32(6, CONVERTED_TIMESTAMP_MICROS);
+                writeTimeLogicalType(thrift, 8, true);
+                break;
+            default:
+                break;
+        }
+        thrift.endStruct();
+    }
+
+    private static void writeTimeLogicalType(@NotNull ThriftCompactWriter thrift, int logicalTypeId, boolean adjustedToUTC) {
+        thrift.beginStruct(10);
+        thrift.beginStruct(logicalTypeId);
+        thrift.writeBool(1, adjustedToUTC);
+        // Time unit: MICROS
+        thrift.beginStruct(2);
+        thrift.beginStruct(2);
+        thrift.endStruct();
+        thrift.endStruct();
+        thrift.endStruct();
+        thrift.endStruct();
+    }
+
+    private void writeColumnChunkMetaData(@NotNull ThriftCompactWriter thrift, @NotNull ColumnChunkInfo chunk) {
+        ParquetColumn column = chunk.column;
+        thrift.beginStruct();
+        thrift.writeI64(2, chunk.startOffset);
+        thrift.beginStruct(3);
+        thrift.writeI32(1, column.getType().getPhysicalType());
+        if (chunk.encoding == ParquetEncodings.ENCODING_RLE_DICTIONARY) {
+            thrift.beginList(2, ThriftCompactWriter.TYPE_I32, 3);
+            thrift.writeI32(ParquetEncodings.ENCODING_PLAIN);
+            thrift.writeI32(ParquetEncodings.ENCODING_RLE);
+            thrift.writeI32(ParquetEncodings.ENCODING_RLE_DICTIONARY);
+        } else {
+            thrift.beginList(2, ThriftCompactWriter.TYPE_I32, 2);
+            thrift.writeI32(ParquetEncodings.ENCODING_PLAIN);
+            thrift.writeI32(ParquetEncodings.ENCODING_RLE);
+        }
+        thrift.beginList(3, ThriftCompactWriter.TYPE_BINARY, 1);
+        thrift.writeString(column.getName());
+        thrift.writeI32(4, compression.getCodec());
+        thrift.writeI64(5, chunk.valueCount);
+        thrift.writeI64(6, chunk.uncompressedSize);
+        thrift.writeI64(7, chunk.compressedSize);
+        thrift.writeI64(9, chunk.dataPageOffset);
+        if (chunk.dictionaryPageOffset >= 0) {
+            thrift.writeI64(11, chunk.dictionaryPageOffset);
+        }
+        thrift.endStruct();
+        thrift.endStruct();
+    }
+
+    private void write(@NotNull byte[] data, int length) throws IOException {
+        out.write(data, 0, length);
+        position += length;
+    }
+
+    private static class RowGroupInfo {
+        final int rowCount;
+        final List<ColumnChunkInfo> chunks = new ArrayList<>();
+        long totalByteSize;
+
+        RowGroupInfo(int rowCount) {
+            this.rowCount = rowCount;
+        }
+    }
+
+    private static class ColumnChunkInfo {
+        final ParquetColumn column;
+        final long startOffset;
+        final int valueCount;
+        int encoding = ParquetEncodings.ENCODING_PLAIN;
+        long dataPageOffset;
+        long dictionaryPageOffset = -1;
+        long uncompressedSize;
+        long compressedSize;
+
+        ColumnChunkInfo(@NotNull ParquetColumn column, long startOffset) {
+            this.column = column;
+            this.startOffset = startOffset;
+            this.valueCount = column.getRowCount();
+        }
+    }
+
+}
@@ -0,0 +1,71 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.parquet;
+
+/**
+ * Parquet column type: physical type plus logical type annotation.
+ * Date/time values are stored as days (DATE) and microseconds (TIME and TIMESTAMP).
+ */
+public enum ParquetType {
+
+    BOOLEAN(ParquetType.PHYSICAL_BOOLEAN),
+    INT32(ParquetType.PHYSICAL_INT32),
+    INT64(ParquetType.PHYSICAL_INT64),
+    FLOAT(ParquetType.PHYSICAL_FLOAT),
+    DOUBLE(ParquetType.PHYSICAL_DOUBLE),
+    /**
+     * Unscaled value as big-endian two's complement bytes
+     */
+    DECIMAL(ParquetType.PHYSICAL_BYTE_ARRAY),
+    STRING(ParquetType.PHYSICAL_BYTE_ARRAY),
+    BINARY(ParquetType.PHYSICAL_BYTE_ARRAY),
+    DATE(ParquetType.PHYSICAL_INT32),
+    /**
+     * Local time of day
+     */
+    TIME(ParquetType.PHYSICAL_INT64),
+    /**
+     * Local date and time (without time zone)
+     */
+    TIMESTAMP(ParquetType.PHYSICAL_INT64),
+    /**
+     * Instant (normalized to UTC)
+     */
+    TIMESTAMP_UTC(ParquetType.PHYSICAL_INT64);
+
+    static final int PHYSICAL_BOOLEAN = 0;
+    static final int PHYSICAL_INT32 = 1;
+    static final int PHYSICAL_INT64 = 2;
+    static final int PHYSICAL_FLOAT = 4;
+    static final int PHYSICAL_DOUBLE = 5;
+    static final int PHYSICAL_BYTE_ARRAY = 6;
+
+    private final int physicalType;
+
+    ParquetType(int physicalType) {
+        this.physicalType = physicalType;
+    }
+
+    public int getPhysicalType() {
+        return physicalType;
+    }
+
+    public boolean isByteArray() {
+        return physicalType == PHYSICAL_BYTE_ARRAY;
+    }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.parquet;
+
+import org.jkiss.code.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Raw (unframed) Snappy block compressor.
+ * Greedy compressor with a 4-byte hash table. It is not as good as the native one but produces valid Snappy blocks
+ * which any Snappy decoder can read.
+ */
+public class SnappyCompressor {
+
+    private static final int BLOCK_SIZE = 1 << 16;
+    private static final int HASH_BITS = 14;
+    private static final int MIN_MATCH = 4;
+    private static final int MAX_COPY_LENGTH = 64;
+
+    private final int[] hashTable = new int[1 << HASH_BITS];
+
+    @NotNull
+    public byte[] compress(@NotNull byte[] src, int length) {
+        ParquetByteOutput out = new ParquetByteOutput(length + length / 6 + 32);
+        out.writeVarInt(length);
+        for (int blockStart = 0; blockStart < length; blockStart += BLOCK_SIZE) {
+            compressBlock(out, src, blockStart, Math.min(blockStart + BLOCK_SIZE, length));
+        }
+        return out.toByteArray();
+    }
+
+    private void compressBlock(@NotNull ParquetByteOutput out, @NotNull byte[] src, int start, int end) {
+        Arrays.fill(hashTable, -1);
+        int literalStart = start;
+        int pos = start;
+        while (pos + MIN_MATCH <= end) {
+            int value = readInt(src, pos);
+            int hash = (value * 0x1e35a7bd) >>> (32 - HASH_BITS);
+            int candidate = hashTable[hash];
+            hashTable[hash] = pos;
+            if (candidate < 0 || readInt(src, candidate) != value) {
+                pos++;
+                continue;
+            }
+            int matchLength = MIN_MATCH;
+            while (pos + matchLength < end && src[candidate + matchLength] == src[pos + matchLength]) {
+                matchLength++;
+            }
+            writeLiteral(out, src, literalStart, pos - literalStart);
+            writeCopy(out, pos - candidate, matchLength);
+            pos += matchLength;
+            literalStart = pos;
+        }
+        writeLiteral(out, src, literalStart, end - literalStart);
+    }
+
+    private static int readInt(@NotNull byte[] src, int pos) {
+        return (src[pos] & 0xFF) | (src[pos + 1] & 0xFF) << 8 | (src[pos + 2] & 0xFF) << 16 | (src[pos + 3] & 0xFF) << 24;
+    }
+
+    private static void writeLiteral(@NotNull ParquetByteOutput out, @NotNull byte[] src, int offset, int length) {
+        if (length == 0) {
+            return;
+        }
+        int n = length - 1;
+        if (n < 60) {
+            out.write(n << 2);
+        } else if (n < 1 << 8) {
+            out.write(60 << 2);
+            out.write(n);
+        } else {
+            // Block size limits literal length to 2 bytes
+            out.write(61 << 2);
+            out.write(n);
+            out.write(n >>> 8);
+        }
+        out.write(src, offset, length);
+    }
+
+    private static void writeCopy(@NotNull ParquetByteOutput out, int offset, int length) {
+        while (length >= MAX_COPY_LENGTH + MIN_MATCH) {
+            writeCopy2(out, offset, MAX_COPY_LENGTH);
+            length -= MAX_COPY_LENGTH;
+        }
+        if (length > MAX_COPY_LENGTH) {
+            // Leave at least 4 bytes for the last copy
+            writeCopy2(out, offset, MAX_COPY_LENGTH - MIN_MATCH);
+            length -= MAX_COPY_LENGTH - MIN_MATCH;
+        }
+        writeCopy2(out, offset, length);
+    }
+
+    private static void writeCopy2(@NotNull ParquetByteOutput out, int offset, int length) {
+        out.write(((length - 1) << 2) | 2);
+        out.write(offset);
+        out.write(offset >>> 8);
+    }
+
+}
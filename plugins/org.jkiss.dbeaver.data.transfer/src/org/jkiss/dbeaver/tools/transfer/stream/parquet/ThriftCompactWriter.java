@@ -0,0 +1,123 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer.stream.parquet;
+
+import org.jkiss.code.NotNull;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal Thrift compact protocol writer.
+ * Parquet page headers and file metadata are Thrift structures serialized with the compact protocol.
+ */
+class ThriftCompactWriter {
+
+    static final byte TYPE_BOOLEAN_TRUE = 1;
+    static final byte TYPE_BOOLEAN_FALSE = 2;
+    static final byte TYPE_BYTE = 3;
+    static final byte TYPE_I32 = 5;
+    static final byte TYPE_I64 = 6;
+    static final byte TYPE_BINARY = 8;
+    static final byte TYPE_LIST = 9;
+    static final byte TYPE_STRUCT = 12;
+
+    private final ParquetByteOutput out;
+    private final short[] fieldStack = new short[32];
+    private int depth;
+    private short lastFieldId;
+
+    ThriftCompactWriter(@NotNull ParquetByteOutput out) {
+        this.out = out;
+    }
+
+    /**
+     * Starts top level struct or struct which is a list element
+     */
+    void beginStruct() {
+        fieldStack[depth++] = lastFieldId;
+        lastFieldId = 0;
+    }
+
+    void beginStruct(int fieldId) {
+        writeFieldHeader(fieldId, TYPE_STRUCT);
+        beginStruct();
+    }
+
+    void endStruct() {
+        out.write(0);
+        lastFieldId = fieldStack[--depth];
+    }
+
+    void writeBool(int fieldId, boolean value) {
+        writeFieldHeader(fieldId, value ? TYPE_BOOLEAN_TRUE : TYPE_BOOLEAN_FALSE);
+    }
+
+    void writeByte(int fieldId, int value) {
+        writeFieldHeader(fieldId, TYPE_BYTE);
+        out.write(value);
+    }
+
+    void writeI32(int fieldId, int value) {
+        writeFieldHeader(fieldId, TYPE_I32);
+        writeI32(value);
+    }
+
+    void writeI64(int fieldId, long value) {
+        writeFieldHeader(fieldId, TYPE_I64);
+        out.writeVarInt((value << 1) ^ (value >> 63));
+    }
+
+    void writeString(int fieldId, @NotNull String value) {
+        writeFieldHeader(fieldId, TYPE_BINARY);
+        writeString(value);
+    }
+
+    void beginList(int fieldId, byte elementType, int size) {
+        writeFieldHeader(fieldId, TYPE_LIST);
+        if (size < 15) {
+            out.write((size << 4) | elementType);
+        } else {
+            out.write(0xF0 | elementType);
+            out.writeVarInt(size);
+        }
+    }
+
+    /**
+     * Writes list element or union value
+     */
+    void writeI32(int value) {
+        out.writeVarInt(((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL);
+    }
+
+    void writeString(@NotNull String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeVarInt(bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private void writeFieldHeader(int fieldId, byte type) {
+        int delta = fieldId - lastFieldId;
+        if (delta > 0 && delta <= 15) {
+            out.write((delta << 4) | type);
+        } else {
+            out.write(type);
+            writeI32(fieldId);
+        }
+        lastFieldId = (short) fieldId;
+    }
+
+}
@@ -17,6 +17,7 @@
 package org.jkiss.dbeaver.dpi.server;
 
 import com.google.gson.Gson;
+import com.google.gson.JsonArray;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.jkiss.code.NotNull;
@@ -25,6 +26,7 @@ import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.dpi.model.DPIContext;
 import org.jkiss.dbeaver.dpi.model.DPIController;
+import org.jkiss.dbeaver.dpi.model.DPIMethodCall;
 import org.jkiss.dbeaver.dpi.model.DPISession;
 import org.jkiss.dbeaver.model.DBPDataSource;
 import org.jkiss.dbeaver.model.DBPDataSourceContainer;
@@ -39,6 +41,7 @@ import org.jkiss.utils.rest.RestServer;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -136,6 +139,12 @@ public class DPIControllerImpl implements DPIController {
         throw new DBException("Method '" + method + "' not found in DPI object '" + objectId + "'");
     }
 
+    @NotNull
+    @Override
+    public synchronized JsonArray callMethods(@NotNull List<DPIMethodCall> calls) throws DBException {
+        return DPIMethodCall.executeCalls(this, context.getGson(), calls);
+    }
+
     private Object invokeObjectMethod(Object object, Method method, Object[] args) throws DBException {
         try {
             log.debug("DPI Server: invoke DPI method " + method + " on " + object.getClass());
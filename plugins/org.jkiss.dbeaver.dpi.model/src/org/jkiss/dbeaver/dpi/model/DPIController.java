@@ -16,6 +16,7 @@
  */
 package org.jkiss.dbeaver.dpi.model;
 
+import com.google.gson.JsonArray;
 import org.jkiss.code.NotNull;
 import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.DBException;
@@ -23,6 +24,7 @@ import org.jkiss.dbeaver.model.DBPDataSource;
 import org.jkiss.utils.rest.RequestMapping;
 import org.jkiss.utils.rest.RequestParameter;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -30,6 +32,9 @@ import java.util.Map;
  */
 public interface DPIController extends AutoCloseable {
 
+    String ATTR_RESULT = "result";
+    String ATTR_ERROR = "error";
+
     @RequestMapping
     String ping() throws DBException;
 
@@ -57,4 +62,13 @@ public interface DPIController extends AutoCloseable {
         @RequestParameter("object") @NotNull String objectId,
         @RequestParameter("method") @NotNull String method,
         @RequestParameter("args") @Nullable Object[] args) throws DBException;
+
+    /**
+     * Calls methods in the specified order.
+     * Result array contains an object per call: {@link #ATTR_RESULT} with the result value
+     * or {@link #ATTR_ERROR} with the error message.
+     */
+    @RequestMapping
+    @NotNull
+    JsonArray callMethods(@RequestParameter("calls") @NotNull List<DPIMethodCall> calls) throws DBException;
 }
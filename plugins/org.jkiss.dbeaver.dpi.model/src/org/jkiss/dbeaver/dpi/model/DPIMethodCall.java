@@ -0,0 +1,85 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.dpi.model;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+
+import java.util.List;
+
+/**
+ * Method call of a batch
+ */
+public class DPIMethodCall {
+
+    private static final Log log = Log.getLog(DPIMethodCall.class);
+
+    private final String objectId;
+    private final String method;
+    private final Object[] args;
+
+    public DPIMethodCall(@NotNull String objectId, @NotNull String method, @Nullable Object[] args) {
+        this.objectId = objectId;
+        this.method = method;
+        this.args = args;
+    }
+
+    @NotNull
+    public String getObjectId() {
+        return objectId;
+    }
+
+    @NotNull
+    public String getMethod() {
+        return method;
+    }
+
+    @Nullable
+    public Object[] getArgs() {
+        return args;
+    }
+
+    /**
+     * Executes calls one by one with {@link DPIController#callMethod(String, String, Object[])}.
+     * Results are serialized in the call order, so objects are sent in full only once.
+     * Failed call doesn't stop the batch, its error message is returned instead of the result.
+     */
+    @NotNull
+    public static JsonArray executeCalls(
+        @NotNull DPIController controller,
+        @NotNull Gson gson,
+        @NotNull List<DPIMethodCall> calls
+    ) {
+        JsonArray results = new JsonArray();
+        for (DPIMethodCall call : calls) {
+            JsonObject result = new JsonObject();
+            try {
+                result.add(DPIController.ATTR_RESULT, gson.toJsonTree(controller.callMethod(call.getObjectId(), call.getMethod(), call.getArgs())));
+            } catch (Throwable e) {
+                log.debug("DPI batch call " + call.getMethod() + " failed: " + e.getMessage());
+                result.addProperty(DPIController.ATTR_ERROR, e.getMessage());
+            }
+            results.add(result);
+        }
+        return results;
+    }
+
+}
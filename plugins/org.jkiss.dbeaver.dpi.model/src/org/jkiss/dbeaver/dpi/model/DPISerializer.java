@@ -35,6 +35,7 @@ import org.jkiss.dbeaver.model.DPIObject;
 import org.jkiss.dbeaver.model.data.json.JSONUtils;
 import org.jkiss.dbeaver.model.preferences.DBPPropertyDescriptor;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.runtime.properties.ObjectPropertyDescriptor;
 import org.jkiss.dbeaver.runtime.properties.PropertyCollector;
 
 import java.io.IOException;
@@ -58,6 +59,8 @@ public class DPISerializer {
     private static final String ATTR_INTERFACES = "interfaces";
     private static final String ATTR_PROPS = "properties";
     private static final String ATTR_CONTAINERS = "containers";
+    private static final String ATTR_NULL_PROPS = "nullProperties";
+    private static final String ATTR_PENDING_PROPS = "pendingProperties";
 
     public static Gson createSerializer(DPIContext context) {
         return new GsonBuilder()
@@ -273,10 +276,46 @@ public class DPISerializer {
             pc.collectProperties();
             if (pc.getProperties().length > 0) {
                 Map<String, Object> props = new LinkedHashMap<>();
+                List<String> nullProps = new ArrayList<>();
+                List<String> pendingProps = new ArrayList<>();
                 for (DBPPropertyDescriptor prop : pc.getProperties()) {
-                    props.put(prop.getId(), pc.getPropertyValue(null, prop.getId()));
+                    if (!(prop instanceof ObjectPropertyDescriptor) || ((ObjectPropertyDescriptor) prop).isLazy(t, true)) {
+                        // Lazy values are not loaded yet, client reads them with a progress monitor
+                        pendingProps.add(prop.getId());
+                        continue;
+                    }
+                    Object value;
+                    try {
+                        value = ((ObjectPropertyDescriptor) prop).readValue(t, null, false);
+                    } catch (Throwable e) {
+                        // Client gets the error when it reads the property itself
+                        pendingProps.add(prop.getId());
+                        continue;
+                    }
+                    if (value == null) {
+                        // Let client cache nulls
+                        nullProps.add(prop.getId());
+                    } else if (value instanceof Number || value instanceof Boolean || value instanceof String || value instanceof Enum) {
+                        props.put(prop.getId(), value);
+                    } else {
+                        // Complex values are requested by client in a batch
+                        pendingProps.add(prop.getId());
+                    }
+                }
+                JSONUtils.serializeProperties(jsonWriter, ATTR_PROPS, props, true);
+                serializeNames(jsonWriter, ATTR_NULL_PROPS, nullProps);
+                serializeNames(jsonWriter, ATTR_PENDING_PROPS, pendingProps);
+            }
+        }
+
+        private static void serializeNames(JsonWriter jsonWriter, String attrName, List<String> names) throws IOException {
+            if (!names.isEmpty()) {
+                jsonWriter.name(attrName);
+                jsonWriter.beginArray();
+                for (String name : names) {
+                    jsonWriter.value(name);
                 }
-                JSONUtils.serializeProperties(jsonWriter, ATTR_PROPS, props);
+                jsonWriter.endArray();
             }
         }
 
@@ -330,6 +369,7 @@ public class DPISerializer {
             Set<Class<?>> allInterfaces = new LinkedHashSet<>();
             Map<String, Object> objectContainers = null;
             Map<String, Object> objectProperties = null;
+            Set<String> pendingProperties = null;
             if (ATTR_OBJECT_ID.equals(jsonReader.nextName())) {
                 objectId = jsonReader.nextString();
             }
@@ -394,14 +434,41 @@ public class DPISerializer {
                                     log.debug("Skip property '" + propName + "' value");
                                     jsonReader.skipValue(); break;
                             }
+                            if (propValue != null) {
+                                if (objectProperties == null) {
+                                    objectProperties = new LinkedHashMap<>();
+                                }
+                                objectProperties.put(propName, propValue);
+                            }
+                        }
+                        jsonReader.endObject();
+                        break;
+                    }
+                    case ATTR_NULL_PROPS: {
+                        jsonReader.beginArray();
+                        while (jsonReader.peek() == JsonToken.STRING) {
                             if (objectProperties == null) {
                                 objectProperties = new LinkedHashMap<>();
                             }
-                            objectProperties.put(propName, propValue);
+                            objectProperties.put(jsonReader.nextString(), null);
                         }
-                        jsonReader.endObject();
+                        jsonReader.endArray();
                         break;
                     }
+                    case ATTR_PENDING_PROPS: {
+                        jsonReader.beginArray();
+                        while (jsonReader.peek() == JsonToken.STRING) {
+                            if (pendingProperties == null) {
+                                pendingProperties = new HashSet<>();
+                            }
+                            pendingProperties.add(jsonReader.nextString());
+                        }
+                        jsonReader.endArray();
+                        break;
+                    }
+                    default:
+                        jsonReader.skipValue();
+                        break;
                 }
             }
             jsonReader.endObject();
@@ -437,7 +504,8 @@ public class DPISerializer {
                 objectToString,
                 objectHashCode,
                 objectContainers,
-                objectProperties);
+                objectProperties,
+                pendingProperties);
             object = objectHandler.getObjectInstance();
             context.addObject(objectId, object);
             return (T)object;
@@ -213,6 +213,8 @@ class BundleProcessConfig {
             cmd.add(getBundleReference(launcherWiring, false));
         }
         cmd.add("-agentlib:jdwp=transport=dt_socket,server=y,suspend=n,address=*:15005");
+        // Small DPI responses are delayed by delayed ACK without TCP_NODELAY (see RestServer)
+        cmd.add("-Dsun.net.httpserver.nodelay=true");
 
         cmd.add("org.eclipse.equinox.launcher.Main");
 
@@ -0,0 +1,112 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.dpi.model.client;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.dpi.model.DPIContext;
+import org.jkiss.dbeaver.dpi.model.DPIController;
+import org.jkiss.dbeaver.dpi.model.DPIMethodCall;
+import org.jkiss.dbeaver.model.DPIClientObject;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Batch of DPI method calls. All calls are sent to the detached process in a single request.
+ */
+public class DPICallBatch {
+
+    private static final Log log = Log.getLog(DPICallBatch.class);
+
+    // Limits response size
+    private static final int MAX_CALLS_PER_REQUEST = 1000;
+
+    private final DPIContext context;
+    private final List<DPIMethodCall> calls = new ArrayList<>();
+    private final List<Type> resultTypes = new ArrayList<>();
+    private final List<Consumer<Object>> resultHandlers = new ArrayList<>();
+
+    public DPICallBatch(@NotNull DPIContext context) {
+        this.context = context;
+    }
+
+    /**
+     * Adds method call. Result handler is called by {@link #execute()} if the call succeeds.
+     */
+    public void addCall(
+        @NotNull DPIClientObject object,
+        @NotNull String method,
+        @Nullable Object[] args,
+        @NotNull Type resultType,
+        @NotNull Consumer<Object> resultHandler
+    ) {
+        calls.add(new DPIMethodCall(object.dpiObjectId(), method, args));
+        resultTypes.add(resultType);
+        resultHandlers.add(resultHandler);
+    }
+
+    public int size() {
+        return calls.size();
+    }
+
+    /**
+     * Executes all calls and clears the batch.
+     * Failed calls are skipped, they fail again when the method is called directly.
+     */
+    public void execute() throws DBException {
+        if (calls.isEmpty()) {
+            return;
+        }
+        DPIController controller = context.getDpiController();
+        if (controller == null) {
+            throw new DBException("No DPI controller in client context");
+        }
+        Gson gson = context.getGson();
+        try {
+            for (int start = 0; start < calls.size(); start += MAX_CALLS_PER_REQUEST) {
+                int end = Math.min(calls.size(), start + MAX_CALLS_PER_REQUEST);
+                JsonArray results = controller.callMethods(calls.subList(start, end));
+                if (results.size() != end - start) {
+                    throw new DBException("DPI batch result count mismatch: " + results.size() + " <> " + (end - start));
+                }
+                // Results must be deserialized in the call order: objects are sent in full only once
+                for (int i = start; i < end; i++) {
+                    JsonObject result = results.get(i - start).getAsJsonObject();
+                    JsonElement error = result.get(DPIController.ATTR_ERROR);
+                    if (error != null) {
+                        log.debug("DPI batch call '" + calls.get(i).getMethod() + "' failed: " + error.getAsString());
+                        continue;
+                    }
+                    resultHandlers.get(i).accept(gson.fromJson(result.get(DPIController.ATTR_RESULT), resultTypes.get(i)));
+                }
+            }
+        } finally {
+            calls.clear();
+            resultTypes.clear();
+            resultHandlers.clear();
+        }
+    }
+}
@@ -19,6 +19,7 @@ package org.jkiss.dbeaver.dpi.model.client;
 import org.jkiss.code.NotNull;
 import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.dpi.model.DPIContext;
 import org.jkiss.dbeaver.dpi.model.DPIController;
 import org.jkiss.dbeaver.dpi.model.DPISerializer;
@@ -37,13 +38,18 @@ import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.lang.reflect.Type;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class DPIClientProxy implements DPIClientObject, InvocationHandler {
 
+    private static final Log log = Log.getLog(DPIClientProxy.class);
+
     public static final Object SELF_REFERENCE = new Object();
 
+    // Property getters of proxy classes by property id
+    private static final Map<Class<?>, Map<String, Method>> propertyGetters = new ConcurrentHashMap<>();
+
     private final DPIContext context;
     private final String objectId;
     private final String objectType;
@@ -53,6 +59,8 @@ public class DPIClientProxy implements DPIClientObject, InvocationHandler {
     private Map<String, Object> objectContainers;
     private Map<String, Object> objectProperties;
     private Map<Class<?>, Object> factoryObjects;
+    // Properties which values were not sent with the object
+    private Set<String> pendingProperties;
 
     public DPIClientProxy(
         @NotNull DPIContext context,
@@ -62,7 +70,8 @@ public class DPIClientProxy implements DPIClientObject, InvocationHandler {
         @Nullable String objectToString,
         @Nullable Integer objectHashCode,
         @Nullable Map<String, Object> objectContainers,
-        @Nullable Map<String, Object> objectProperties) {
+        @Nullable Map<String, Object> objectProperties,
+        @Nullable Set<String> pendingProperties) {
         this.context = context;
         this.objectId = objectId;
         this.objectType = objectType;
@@ -70,6 +79,7 @@ public class DPIClientProxy implements DPIClientObject, InvocationHandler {
         this.objectHashCode = objectHashCode;
         this.objectContainers = objectContainers;
         this.objectProperties = objectProperties;
+        this.pendingProperties = pendingProperties;
 
         this.objectInstance = Proxy.newProxyInstance(
             context.getClassLoader(),
@@ -132,17 +142,17 @@ public class DPIClientProxy implements DPIClientObject, InvocationHandler {
         boolean isElement = DPISerializer.getMethodAnno(method, DPIElement.class) != null ||
             method.getDeclaringClass().getAnnotation(DPIElement.class) != null;
         if (isElement && objectProperties != null) {
-            Object result = objectProperties.get(getElementKey(method, args));
-            if (result != null) {
-                return result;
+            String elementKey = getElementKey(method, args);
+            if (objectProperties.containsKey(elementKey)) {
+                return objectProperties.get(elementKey);
             }
         }
 
         Property propAnnotation = method.getAnnotation(Property.class);
         if (propAnnotation != null && objectProperties != null) {
-            Object result = objectProperties.get(getPropertyKey(method, propAnnotation));
-            if (result != null) {
-                return result;
+            String propertyKey = getPropertyKey(method, propAnnotation);
+            if (objectProperties.containsKey(propertyKey)) {
+                return objectProperties.get(propertyKey);
             }
         }
 
@@ -176,11 +186,7 @@ public class DPIClientProxy implements DPIClientObject, InvocationHandler {
         Object result = controller.callMethod(this.objectId, method.getName(), args);
 
         if (propAnnotation != null) {
-            // Cache property value
-            if (objectProperties == null) {
-                objectProperties = new HashMap<>();
-            }
-            objectProperties.put(getPropertyKey(method, propAnnotation), result);
+            cachePropertyValue(getPropertyKey(method, propAnnotation), result);
         } else if (dpiFactoryClass != null) {
             // Cache factory result
             if (factoryObjects == null) {
@@ -199,9 +205,103 @@ public class DPIClientProxy implements DPIClientObject, InvocationHandler {
             objectContainers.put(method.getName(), result);
         }
 
+        if (result instanceof Collection) {
+            prefetchProperties((Collection<?>) result, true);
+        } else if (result instanceof Object[]) {
+            prefetchProperties(Arrays.asList((Object[]) result), true);
+        }
+
         return result;
     }
 
+    /**
+     * Reads properties of DPI objects in a single request. Values are cached in object proxies.
+     * Non-DPI objects are ignored.
+     *
+     * @param pendingOnly read only non-lazy properties which values were not sent with the objects.
+     *                    Otherwise read all properties which are not cached yet (including lazy properties).
+     */
+    public static void prefetchProperties(@NotNull Collection<?> objects, boolean pendingOnly) {
+        DPICallBatch batch = null;
+        for (Object object : objects) {
+            if (object == null || !Proxy.isProxyClass(object.getClass())) {
+                continue;
+            }
+            InvocationHandler handler = Proxy.getInvocationHandler(object);
+            if (!(handler instanceof DPIClientProxy)) {
+                continue;
+            }
+            DPIClientProxy proxy = (DPIClientProxy) handler;
+            if (pendingOnly && CommonUtils.isEmpty(proxy.pendingProperties)) {
+                continue;
+            }
+            for (Map.Entry<String, Method> getter : getPropertyGetters(object.getClass()).entrySet()) {
+                String propertyKey = getter.getKey();
+                Method method = getter.getValue();
+                if (pendingOnly ? !proxy.pendingProperties.contains(propertyKey) || method.getParameterTypes().length > 0 :
+                    proxy.objectProperties != null && proxy.objectProperties.containsKey(propertyKey))
+                {
+                    // Lazy properties (read with progress monitor) are not prefetched automatically
+                    continue;
+                }
+                if (batch == null) {
+                    batch = new DPICallBatch(proxy.context);
+                }
+                batch.addCall(
+                    proxy,
+                    method.getName(),
+                    // Empty arguments make server pass its progress monitor
+                    method.getParameterTypes().length == 0 ? null : new Object[0],
+                    method.getGenericReturnType(),
+                    value -> proxy.cachePropertyValue(propertyKey, value));
+                if (proxy.pendingProperties != null) {
+                    // Failed values are not requested again, the error is reported when the getter is called
+                    proxy.pendingProperties.remove(propertyKey);
+                }
+            }
+        }
+        if (batch != null) {
+            try {
+                batch.execute();
+            } catch (DBException e) {
+                log.debug("Error prefetching DPI object properties", e);
+            }
+        }
+    }
+
+    private void cachePropertyValue(@NotNull String propertyKey, @Nullable Object value) {
+        if (objectProperties == null) {
+            objectProperties = new HashMap<>();
+        }
+        objectProperties.put(propertyKey, value);
+        if (pendingProperties != null) {
+            pendingProperties.remove(propertyKey);
+        }
+    }
+
+    /**
+     * Returns getters of properties declared in the proxy interfaces.
+     * Getters may have only progress monitor parameter.
+     */
+    @NotNull
+    private static Map<String, Method> getPropertyGetters(@NotNull Class<?> proxyClass) {
+        return propertyGetters.computeIfAbsent(proxyClass, pc -> {
+            Map<String, Method> getters = new HashMap<>();
+            for (Class<?> proxyInterface : pc.getInterfaces()) {
+                for (Method method : proxyInterface.getMethods()) {
+                    Property propAnnotation = method.getAnnotation(Property.class);
+                    Class<?>[] parameterTypes = method.getParameterTypes();
+                    if (propAnnotation != null && (parameterTypes.length == 0 ||
+                        (parameterTypes.length == 1 && parameterTypes[0] == DBRProgressMonitor.class)))
+                    {
+                        getters.putIfAbsent(getPropertyKey(method, propAnnotation), method);
+                    }
+                }
+            }
+            return getters;
+        });
+    }
+
     private static String getPropertyKey(Method method, Property propAnnotation) {
         String propId = propAnnotation.id();
         if (CommonUtils.isEmpty(propId)) {
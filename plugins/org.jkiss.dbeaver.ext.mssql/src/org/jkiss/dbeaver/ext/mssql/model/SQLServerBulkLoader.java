@@ -0,0 +1,475 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.mssql.model;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.ext.mssql.SQLServerConstants;
+import org.jkiss.dbeaver.model.DBPDataKind;
+import org.jkiss.dbeaver.model.DBPEvaluationContext;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.data.DBDContent;
+import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.exec.DBCExecutionSource;
+import org.jkiss.dbeaver.model.exec.DBCFeatureNotSupportedException;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.exec.DBCTransactionManager;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
+import org.jkiss.dbeaver.model.struct.DBSAttributeBase;
+import org.jkiss.dbeaver.model.struct.DBSDataBulkLoader;
+import org.jkiss.dbeaver.model.struct.DBSDataContainer;
+import org.jkiss.dbeaver.utils.ContentUtils;
+import org.jkiss.utils.CommonUtils;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk loader based on SQLServerBulkCopy.
+ * <p>
+ * Driver classes are accessed through reflection. Rows are passed from addRow to the bulk copy
+ * running in a separate thread through a bounded queue and an ISQLServerBulkRecord proxy.
+ */
+public class SQLServerBulkLoader implements DBSDataBulkLoader, DBSDataBulkLoader.BulkLoadManager {
+
+    private static final Log log = Log.getLog(SQLServerBulkLoader.class);
+
+    private static final String BULK_COPY_CLASS = "com.microsoft.sqlserver.jdbc.SQLServerBulkCopy";
+    private static final String BULK_COPY_OPTIONS_CLASS = "com.microsoft.sqlserver.jdbc.SQLServerBulkCopyOptions";
+    private static final String BULK_RECORD_CLASS = "com.microsoft.sqlserver.jdbc.ISQLServerBulkRecord";
+
+    // microsoft.sql.Types
+    private static final int TYPE_DATETIMEOFFSET = -155;
+    private static final int TYPE_SQL_VARIANT = -156;
+
+    private static final int ROW_QUEUE_SIZE = 10000;
+    private static final long QUEUE_POLL_TIMEOUT_MS = 100;
+    private static final Object[] EOF_ROW = new Object[0];
+
+    private final SQLServerDataSource dataSource;
+    private DBSDataContainer table;
+    private ColumnInfo[] columns;
+
+    private Object bulkCopy;
+    private Method writeToServerMethod;
+    private Object bulkRecord;
+
+    private BlockingQueue<Object[]> rowQueue;
+    private Thread copyThread;
+    private volatile boolean aborted;
+    private volatile Throwable copyError;
+    private long rowCount;
+
+    private static class ColumnInfo {
+        final DBSAttributeBase attribute;
+        final String name;
+        final int type;
+        final int precision;
+        final int scale;
+        final boolean identity;
+
+        ColumnInfo(DBSAttributeBase attribute, int type, int precision, int scale, boolean identity) {
+            this.attribute = attribute;
+            this.name = attribute.getName();
+            this.type = type;
+            this.precision = precision;
+            this.scale = scale;
+            this.identity = identity;
+        }
+    }
+
+    public SQLServerBulkLoader(SQLServerDataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @NotNull
+    @Override
+    public BulkLoadManager createBulkLoad(
+        @NotNull DBCSession session,
+        @NotNull DBSDataContainer dataContainer,
+        @NotNull DBSAttributeBase[] attributes,
+        @NotNull DBCExecutionSource source,
+        int batchSize,
+        Map<String, Object> options) throws DBCException
+    {
+        Connection connection;
+        try {
+            connection = ((JDBCSession) session).getOriginal();
+        } catch (SQLException e) {
+            throw new DBCException("Can't obtain driver connection", e);
+        }
+        return createBulkLoad(connection, connection.getClass().getClassLoader(), dataContainer, attributes, batchSize, options);
+    }
+
+    /**
+     * Creates bulk copy with driver classes loaded by the specified class loader.
+     *
+     * @throws DBCFeatureNotSupportedException if the driver has no bulk copy API
+     */
+    @NotNull
+    BulkLoadManager createBulkLoad(
+        @NotNull Connection connection,
+        @Nullable ClassLoader driverClassLoader,
+        @NotNull DBSDataContainer dataContainer,
+        @NotNull DBSAttributeBase[] attributes,
+        int batchSize,
+        @Nullable Map<String, Object> options) throws DBCException
+    {
+        this.table = dataContainer;
+        int chunkSize = options == null ? 0 : CommonUtils.toInt(options.get(OPTION_CHUNK_SIZE), 0);
+        if (chunkSize <= 0) {
+            chunkSize = batchSize;
+        }
+        boolean tableLock = options != null && CommonUtils.getBoolean(options.get(OPTION_TABLE_LOCK), false);
+        boolean keepNulls = options == null || CommonUtils.getBoolean(options.get(OPTION_KEEP_NULLS), true);
+        boolean keepIdentity = options != null && CommonUtils.getBoolean(options.get(OPTION_KEEP_IDENTITY), false);
+
+        columns = new ColumnInfo[attributes.length];
+        boolean hasIdentity = false;
+        for (int i = 0; i < attributes.length; i++) {
+            columns[i] = makeColumnInfo(attributes[i]);
+            hasIdentity |= columns[i].identity;
+        }
+
+        Class<?> bulkCopyClass;
+        Class<?> bulkCopyOptionsClass;
+        Class<?> bulkRecordClass;
+        try {
+            bulkCopyClass = Class.forName(BULK_COPY_CLASS, true, driverClassLoader);
+            bulkCopyOptionsClass = Class.forName(BULK_COPY_OPTIONS_CLASS, true, driverClassLoader);
+            bulkRecordClass = Class.forName(BULK_RECORD_CLASS, true, driverClassLoader);
+        } catch (ClassNotFoundException | LinkageError e) {
+            throw new DBCFeatureNotSupportedException("Bulk copy is not supported by the driver", e);
+        }
+        // writeToServer(ISQLServerBulkRecord) in old drivers, writeToServer(ISQLServerBulkData) in new ones
+        for (Method method : bulkCopyClass.getMethods()) {
+            if (method.getName().equals("writeToServer") && method.getParameterCount() == 1 &&
+                method.getParameterTypes()[0].isAssignableFrom(bulkRecordClass))
+            {
+                writeToServerMethod = method;
+                break;
+            }
+        }
+        if (writeToServerMethod == null) {
+            throw new DBCFeatureNotSupportedException("Bulk copy of records is not supported by the driver", null);
+        }
+        try {
+            Object copyOptions = bulkCopyOptionsClass.getConstructor().newInstance();
+            bulkCopyOptionsClass.getMethod("setBatchSize", Integer.TYPE).invoke(copyOptions, Math.max(chunkSize, 0));
+            bulkCopyOptionsClass.getMethod("setBulkCopyTimeout", Integer.TYPE).invoke(copyOptions, 0);
+            bulkCopyOptionsClass.getMethod("setTableLock", Boolean.TYPE).invoke(copyOptions, tableLock);
+            bulkCopyOptionsClass.getMethod("setKeepNulls", Boolean.TYPE).invoke(copyOptions, keepNulls);
+            bulkCopyOptionsClass.getMethod("setKeepIdentity", Boolean.TYPE).invoke(copyOptions, keepIdentity && hasIdentity);
+
+            bulkCopy = bulkCopyClass.getConstructor(Connection.class).newInstance(connection);
+            bulkCopyClass.getMethod("setBulkCopyOptions", bulkCopyOptionsClass).invoke(bulkCopy, copyOptions);
+            bulkCopyClass.getMethod("setDestinationTableName", String.class).invoke(
+                bulkCopy, DBUtils.getObjectFullName(table, DBPEvaluationContext.DML));
+            Method addColumnMappingMethod = bulkCopyClass.getMethod("addColumnMapping", Integer.TYPE, String.class);
+            for (int i = 0; i < columns.length; i++) {
+                addColumnMappingMethod.invoke(bulkCopy, i + 1, columns[i].name);
+            }
+
+            rowQueue = new ArrayBlockingQueue<>(ROW_QUEUE_SIZE);
+            bulkRecord = Proxy.newProxyInstance(driverClassLoader, new Class[]{bulkRecordClass}, new BulkRecordHandler());
+        } catch (InvocationTargetException e) {
+            throw new DBCException("Can't initialize bulk copy", e.getTargetException());
+        } catch (Exception e) {
+            throw new DBCException("Can't initialize bulk copy", e);
+        }
+
+        startBulkCopy();
+        return this;
+    }
+
+    @NotNull
+    private static ColumnInfo makeColumnInfo(@NotNull DBSAttributeBase attribute) {
+        String typeName = CommonUtils.notEmpty(attribute.getTypeName()).toLowerCase(Locale.ENGLISH);
+        int type;
+        int precision = CommonUtils.toInt(attribute.getPrecision());
+        int scale = CommonUtils.toInt(attribute.getScale());
+        switch (typeName) {
+            case SQLServerConstants.TYPE_DATETIMEOFFSET:
+                type = TYPE_DATETIMEOFFSET;
+                break;
+            case SQLServerConstants.TYPE_SQL_VARIANT:
+                type = TYPE_SQL_VARIANT;
+                break;
+            case SQLServerConstants.TYPE_UNIQUEIDENTIFIER:
+                type = Types.CHAR;
+                precision = 36;
+                break;
+            case SQLServerConstants.TYPE_MONEY:
+                type = Types.DECIMAL;
+                precision = 19;
+                scale = 4;
+                break;
+            case SQLServerConstants.TYPE_SMALLMONEY:
+                type = Types.DECIMAL;
+                precision = 10;
+                scale = 4;
+                break;
+            case SQLServerConstants.TYPE_DATETIME:
+            case SQLServerConstants.TYPE_SMALLDATETIME:
+            case SQLServerConstants.TYPE_DATETIME2:
+                type = Types.TIMESTAMP;
+                break;
+            case SQLServerConstants.TYPE_XML:
+            case SQLServerConstants.TYPE_NTEXT:
+                type = Types.LONGNVARCHAR;
+                break;
+            case SQLServerConstants.TYPE_TEXT:
+                type = Types.LONGVARCHAR;
+                break;
+            case SQLServerConstants.TYPE_IMAGE:
+                type = Types.LONGVARBINARY;
+                break;
+            case SQLServerConstants.TYPE_GEOMETRY:
+            case SQLServerConstants.TYPE_GEOGRAPHY:
+            case SQLServerConstants.TYPE_HIERARCHYID:
+            case SQLServerConstants.TYPE_TIMESTAMP:
+                type = Types.VARBINARY;
+                break;
+            default:
+                type = attribute.getTypeID();
+                break;
+        }
+        if (attribute.getDataKind() == DBPDataKind.STRING || attribute.getDataKind() == DBPDataKind.BINARY) {
+            long maxLength = attribute.getMaxLength();
+            if (precision <= 0) {
+                precision = maxLength <= 0 || maxLength > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) maxLength;
+            }
+        }
+        boolean identity = attribute instanceof SQLServerTableColumn && ((SQLServerTableColumn) attribute).isIdentity();
+        return new ColumnInfo(attribute, type, precision, scale, identity);
+    }
+
+    private void startBulkCopy() {
+        copyThread = new Thread("SQL Server bulk copy into " + table.getName()) {
+            @Override
+            public void run() {
+                try {
+                    writeToServerMethod.invoke(bulkCopy, bulkRecord);
+                } catch (Throwable e) {
+                    if (e instanceof InvocationTargetException) {
+                        e = ((InvocationTargetException) e).getTargetException();
+                    }
+                    copyError = e;
+                    // Unblock producer
+                    rowQueue.clear();
+                }
+            }
+        };
+        copyThread.setDaemon(true);
+        copyThread.start();
+    }
+
+    @Override
+    public void addRow(@NotNull DBCSession session, @NotNull Object[] attributeValues) throws DBCException {
+        Object[] row = new Object[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            Object value = attributeValues[i];
+            if (value instanceof DBDContent) {
+                DBDContent content = (DBDContent) value;
+                if (DBUtils.isNullValue(content)) {
+                    value = null;
+                } else if (columns[i].attribute.getDataKind() == DBPDataKind.BINARY || isBinaryType(columns[i].type)) {
+                    value = ContentUtils.getContentBinaryValue(session.getProgressMonitor(), content);
+                } else {
+                    value = ContentUtils.getContentStringValue(session.getProgressMonitor(), content);
+                }
+            } else if (value instanceof UUID) {
+                value = value.toString();
+            } else if (DBUtils.isNullValue(value)) {
+                value = null;
+            }
+            row[i] = value;
+        }
+        putRow(row);
+        rowCount++;
+    }
+
+    private static boolean isBinaryType(int type) {
+        return type == Types.BINARY || type == Types.VARBINARY || type == Types.LONGVARBINARY || type == Types.BLOB;
+    }
+
+    private void putRow(@NotNull Object[] row) throws DBCException {
+        try {
+            while (!rowQueue.offer(row, QUEUE_POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                checkCopyError();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DBCException("Bulk copy interrupted", e);
+        }
+        checkCopyError();
+    }
+
+    private void checkCopyError() throws DBCException {
+        if (copyError != null) {
+            throw new DBCException("Error copying data into " + DBUtils.getObjectFullName(table, DBPEvaluationContext.UI), copyError);
+        }
+        if (!copyThread.isAlive()) {
+            throw new DBCException("Bulk copy is already finished");
+        }
+    }
+
+    @Override
+    public void flushRows(@NotNull DBCSession session) throws DBCException {
+        // Rows are sent and committed by bulk copy batches
+        if (copyError != null) {
+            checkCopyError();
+        }
+    }
+
+    @Override
+    public void finishBulkLoad(@NotNull DBCSession session) throws DBCException {
+        String tableName = DBUtils.getObjectFullName(table, DBPEvaluationContext.UI);
+        session.getProgressMonitor().subTask("Finish bulk copy into " + tableName);
+        try {
+            // Copy thread may finish right after reading the last batch, so EOF is needed only while it is alive
+            while (copyThread.isAlive() && !rowQueue.offer(EOF_ROW, QUEUE_POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                if (session.getProgressMonitor().isCanceled()) {
+                    aborted = true;
+                }
+            }
+            while (copyThread.isAlive()) {
+                if (session.getProgressMonitor().isCanceled()) {
+                    aborted = true;
+                }
+                copyThread.join(100);
+            }
+        } catch (InterruptedException e) {
+            aborted = true;
+            throw new DBCException("Bulk copy interrupted", e);
+        }
+        if (copyError != null) {
+            throw new DBCException("Error copying data into " + tableName, copyError);
+        }
+
+        DBCTransactionManager txnManager = DBUtils.getTransactionManager(session.getExecutionContext());
+        if (txnManager != null && !txnManager.isAutoCommit()) {
+            session.getProgressMonitor().subTask("Commit bulk copy");
+            txnManager.commit(session);
+        }
+        log.debug("Dataset has been copied (" + rowCount + ")");
+    }
+
+    @Override
+    public void close() {
+        if (copyThread != null && copyThread.isAlive()) {
+            // Copy wasn't finished. Make the record source fail, so bulk copy will be rolled back
+            aborted = true;
+            try {
+                copyThread.join(10000);
+            } catch (InterruptedException e) {
+                log.debug(e);
+            }
+        }
+        copyThread = null;
+        if (bulkCopy != null) {
+            try {
+                bulkCopy.getClass().getMethod("close").invoke(bulkCopy);
+            } catch (Throwable e) {
+                log.debug("Error closing bulk copy", e);
+            }
+            bulkCopy = null;
+        }
+    }
+
+    /**
+     * Implements ISQLServerBulkRecord on top of the row queue.
+     * Methods which are not used by bulk copy return default values.
+     */
+    private class BulkRecordHandler implements InvocationHandler {
+        private final Set<Integer> columnOrdinals;
+        private Object[] currentRow;
+
+        BulkRecordHandler() {
+            columnOrdinals = new LinkedHashSet<>();
+            for (int i = 0; i < columns.length; i++) {
+                columnOrdinals.add(i + 1);
+            }
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "getColumnOrdinals":
+                    return columnOrdinals;
+                case "getColumnName":
+                    return getColumn(args).name;
+                case "getColumnType":
+                    return getColumn(args).type;
+                case "getPrecision":
+                    return getColumn(args).precision;
+                case "getScale":
+                    return getColumn(args).scale;
+                case "isAutoIncrement":
+                    return getColumn(args).identity;
+                case "next":
+                    return nextRow();
+                case "getRowData":
+                    return currentRow;
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return "Bulk record of " + table.getName();
+            }
+            Class<?> returnType = method.getReturnType();
+            if (returnType == Boolean.TYPE) {
+                return false;
+            } else if (returnType == Integer.TYPE) {
+                return 0;
+            }
+            return null;
+        }
+
+        private ColumnInfo getColumn(Object[] args) {
+            return columns[((Number) args[0]).intValue() - 1];
+        }
+
+        private boolean nextRow() throws InterruptedException {
+            while (!aborted) {
+                Object[] row = rowQueue.poll(QUEUE_POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (row == null) {
+                    continue;
+                }
+                if (row == EOF_ROW) {
+                    currentRow = null;
+                    return false;
+                }
+                currentRow = row;
+                return true;
+            }
+            throw new IllegalStateException("Bulk copy aborted");
+        }
+    }
+
+}
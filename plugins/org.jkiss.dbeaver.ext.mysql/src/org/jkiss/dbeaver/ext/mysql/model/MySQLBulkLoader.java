@@ -0,0 +1,482 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.mysql.model;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.ext.mysql.MySQLConstants;
+import org.jkiss.dbeaver.model.DBPDataKind;
+import org.jkiss.dbeaver.model.DBPEvaluationContext;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.data.DBDContent;
+import org.jkiss.dbeaver.model.data.DBDDisplayFormat;
+import org.jkiss.dbeaver.model.data.DBDValueHandler;
+import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.exec.DBCExecutionSource;
+import org.jkiss.dbeaver.model.exec.DBCFeatureNotSupportedException;
+import org.jkiss.dbeaver.model.exec.DBCSession;
+import org.jkiss.dbeaver.model.exec.DBCTransactionManager;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
+import org.jkiss.dbeaver.model.sql.SQLDialect;
+import org.jkiss.dbeaver.model.struct.DBSAttributeBase;
+import org.jkiss.dbeaver.model.struct.DBSDataBulkLoader;
+import org.jkiss.dbeaver.model.struct.DBSDataContainer;
+import org.jkiss.dbeaver.model.struct.DBSEntity;
+import org.jkiss.dbeaver.utils.ContentUtils;
+import org.jkiss.utils.CommonUtils;
+import org.jkiss.utils.io.BoundedPipe;
+
+import java.io.*;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+/**
+ * Bulk loader based on LOAD DATA LOCAL INFILE.
+ * <p>
+ * Rows are streamed into the driver's local infile input stream (no temporary files).
+ * The dataset is split into chunks, each chunk is loaded by a separate LOAD statement and committed.
+ * Local infile must be enabled both on the server (local_infile) and in the driver
+ * (allowLoadLocalInfile for MySQL Connector/J, allowLocalInfile for MariaDB).
+ * If the driver can't stream local infile or it is disabled in the driver then bulk load is not supported
+ * and data transfer uses regular inserts.
+ */
+public class MySQLBulkLoader implements DBSDataBulkLoader, DBSDataBulkLoader.BulkLoadManager {
+
+    private static final Log log = Log.getLog(MySQLBulkLoader.class);
+
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+    private static final int STREAM_MAX_CHUNKS = 16;
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+    static final String NULL_VALUE = "\\N";
+    private static final String PROP_ALLOW_LOCAL_INFILE_MYSQL = "allowLoadLocalInfile";
+    private static final String PROP_ALLOW_LOCAL_INFILE_MARIADB = "allowLocalInfile";
+
+    private final MySQLDataSource dataSource;
+    private DBSEntity table;
+    private AttrMapping[] mappings;
+    private String loadQuery;
+    private int chunkSize;
+
+    private Method setInputStreamMethod;
+
+    // Current chunk
+    private BoundedPipe chunkPipe;
+    private Writer chunkWriter;
+    private Thread loadThread;
+    private int chunkRows;
+    private volatile long chunkResult;
+    private volatile Throwable loadError;
+    private long totalRows;
+
+    enum ValueFormat {
+        TEXT,
+        HEX,
+        BIT,
+        GEOMETRY
+    }
+
+    private static class AttrMapping {
+        final DBSAttributeBase attribute;
+        final DBDValueHandler valueHandler;
+        final ValueFormat format;
+
+        AttrMapping(DBSAttributeBase attribute, DBDValueHandler valueHandler, ValueFormat format) {
+            this.attribute = attribute;
+            this.valueHandler = valueHandler;
+            this.format = format;
+        }
+    }
+
+    public MySQLBulkLoader(MySQLDataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @NotNull
+    @Override
+    public BulkLoadManager createBulkLoad(
+        @NotNull DBCSession session,
+        @NotNull DBSDataContainer dataContainer,
+        @NotNull DBSAttributeBase[] attributes,
+        @NotNull DBCExecutionSource source,
+        int batchSize,
+        Map<String, Object> options) throws DBCException
+    {
+        if (!(dataContainer instanceof DBSEntity)) {
+            throw new DBCException("LOAD DATA is supported only for tables");
+        }
+        this.table = (DBSEntity) dataContainer;
+        checkLocalInfile(session);
+        this.chunkSize = options == null ? 0 : CommonUtils.toInt(options.get(OPTION_CHUNK_SIZE), 0);
+        if (chunkSize <= 0) {
+            chunkSize = batchSize;
+        }
+
+        mappings = new AttrMapping[attributes.length];
+        for (int i = 0; i < attributes.length; i++) {
+            DBSAttributeBase attr = attributes[i];
+            mappings[i] = new AttrMapping(attr, DBUtils.findValueHandler(session, attr), getValueFormat(attr));
+        }
+        String[] columnNames = new String[mappings.length];
+        ValueFormat[] formats = new ValueFormat[mappings.length];
+        for (int i = 0; i < mappings.length; i++) {
+            columnNames[i] = mappings[i].attribute.getName();
+            formats[i] = mappings[i].format;
+        }
+        loadQuery = makeLoadQuery(
+            dataSource.getSQLDialect(),
+            DBUtils.getObjectFullName(table, DBPEvaluationContext.DML),
+            dataSource.isServerVersionAtLeast(5, 5) ? "utf8mb4" : "utf8",
+            columnNames,
+            formats);
+        return this;
+    }
+
+    /**
+     * Checks that the driver can stream local infile and that local infile is enabled in the driver properties.
+     * Throws {@link DBCFeatureNotSupportedException} otherwise, so data transfer falls back to regular inserts.
+     */
+    private void checkLocalInfile(@NotNull DBCSession session) throws DBCException {
+        boolean mariaDB = dataSource.isMariaDB();
+        int driverVersion;
+        try {
+            Connection connection = ((JDBCSession) session).getOriginal();
+            try (Statement statement = connection.createStatement()) {
+                setInputStreamMethod = findInputStreamSetter(statement.getClass());
+            }
+            driverVersion = connection.getMetaData().getDriverMajorVersion();
+        } catch (SQLException e) {
+            throw new DBCException("Can't check LOAD DATA LOCAL INFILE support", e);
+        }
+        if (setInputStreamMethod == null) {
+            throw new DBCFeatureNotSupportedException("Driver doesn't support streaming of LOAD DATA LOCAL INFILE", null);
+        }
+        String propName = mariaDB ? PROP_ALLOW_LOCAL_INFILE_MARIADB : PROP_ALLOW_LOCAL_INFILE_MYSQL;
+        // Connection properties override driver properties
+        Object propValue = dataSource.getContainer().getActualConnectionConfiguration().getProperty(propName);
+        if (propValue == null) {
+            propValue = dataSource.getContainer().getDriver().getConnectionProperties().get(propName);
+        }
+        if (!isLocalInfileAllowed(propValue, mariaDB, driverVersion)) {
+            throw new DBCFeatureNotSupportedException(
+                "LOAD DATA LOCAL INFILE is disabled in the driver (" + propName + ")", null);
+        }
+    }
+
+    @Nullable
+    static Method findInputStreamSetter(@NotNull Class<?> statementClass) {
+        try {
+            return statementClass.getMethod("setLocalInfileInputStream", InputStream.class);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Checks local infile driver property. If it isn't set then the driver default is used:
+     * MariaDB and MySQL Connector/J before 8.0 allow local infile, Connector/J 8.0 doesn't.
+     */
+    static boolean isLocalInfileAllowed(@Nullable Object propValue, boolean mariaDB, int driverMajorVersion) {
+        return CommonUtils.getBoolean(propValue, mariaDB || driverMajorVersion < 8);
+    }
+
+    @NotNull
+    private static ValueFormat getValueFormat(@NotNull DBSAttributeBase attr) {
+        String typeName = CommonUtils.notEmpty(attr.getTypeName()).toLowerCase();
+        switch (typeName) {
+            case "bit":
+                return ValueFormat.BIT;
+            case MySQLConstants.TYPE_GEOMETRY:
+            case MySQLConstants.TYPE_POINT:
+            case MySQLConstants.TYPE_LINESTRING:
+            case MySQLConstants.TYPE_POLYGON:
+            case MySQLConstants.TYPE_MULTIPOINT:
+            case MySQLConstants.TYPE_MULTILINESTRING:
+            case MySQLConstants.TYPE_MULTIPOLYGON:
+            case MySQLConstants.TYPE_GEOMETRYCOLLECTION:
+                return ValueFormat.GEOMETRY;
+        }
+        if (attr.getDataKind() == DBPDataKind.BINARY || (attr.getDataKind() == DBPDataKind.CONTENT && typeName.contains("blob"))) {
+            return ValueFormat.HEX;
+        }
+        return ValueFormat.TEXT;
+    }
+
+    /**
+     * Makes LOAD DATA statement for the tab-separated stream written by {@link #writeEscaped(Writer, String)}.
+     * Non-text columns are read into user variables and converted in the SET clause.
+     */
+    @NotNull
+    static String makeLoadQuery(
+        @NotNull SQLDialect dialect,
+        @NotNull String tableName,
+        @NotNull String charset,
+        @NotNull String[] columnNames,
+        @NotNull ValueFormat[] formats
+    ) {
+        StringBuilder columns = new StringBuilder();
+        StringBuilder expressions = new StringBuilder();
+        for (int i = 0; i < columnNames.length; i++) {
+            if (columns.length() > 0) {
+                columns.append(",");
+            }
+            String columnName = dialect.getQuotedIdentifier(columnNames[i], true, false);
+            if (formats[i] == ValueFormat.TEXT) {
+                columns.append(columnName);
+                continue;
+            }
+            // Non-text values are loaded into user variables and then converted
+            String varName = "@v" + i;
+            columns.append(varName);
+            if (expressions.length() > 0) {
+                expressions.append(",");
+            }
+            expressions.append(columnName).append("=");
+            switch (formats[i]) {
+                case HEX:
+                    expressions.append("UNHEX(").append(varName).append(")");
+                    break;
+                case BIT:
+                    expressions.append("CAST(").append(varName).append(" AS UNSIGNED)");
+                    break;
+                case GEOMETRY:
+                    expressions.append("ST_GeomFromText(").append(varName).append(")");
+                    break;
+            }
+        }
+        StringBuilder query = new StringBuilder();
+        query.append("LOAD DATA LOCAL INFILE 'dbeaver-stream.tsv' INTO TABLE ")
+            .append(tableName)
+            .append(" CHARACTER SET ").append(charset)
+            .append(" FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\' LINES TERMINATED BY '\\n'")
+            .append(" (").append(columns).append(")");
+        if (expressions.length() > 0) {
+            query.append(" SET ").append(expressions);
+        }
+        return query.toString();
+    }
+
+    @Override
+    public void addRow(@NotNull DBCSession session, @NotNull Object[] attributeValues) throws DBCException {
+        if (chunkWriter == null) {
+            startChunk(session);
+        }
+        try {
+            for (int i = 0; i < mappings.length; i++) {
+                if (i > 0) {
+                    chunkWriter.write('\t');
+                }
+                writeValue(session, mappings[i], attributeValues[i]);
+            }
+            chunkWriter.write('\n');
+        } catch (IOException e) {
+            throw new DBCException("Error writing LOAD DATA stream", loadError != null ? loadError : e);
+        }
+        chunkRows++;
+        if (chunkSize > 0 && chunkRows >= chunkSize) {
+            finishChunk(session);
+        }
+    }
+
+    private void writeValue(@NotNull DBCSession session, @NotNull AttrMapping mapping, Object value) throws IOException, DBCException {
+        if (DBUtils.isNullValue(value)) {
+            chunkWriter.write(NULL_VALUE);
+            return;
+        }
+        if (mapping.format == ValueFormat.HEX) {
+            byte[] bytes;
+            if (value instanceof byte[]) {
+                bytes = (byte[]) value;
+            } else if (value instanceof DBDContent) {
+                bytes = ContentUtils.getContentBinaryValue(session.getProgressMonitor(), (DBDContent) value);
+                if (bytes == null) {
+                    chunkWriter.write(NULL_VALUE);
+                    return;
+                }
+            } else {
+                bytes = mapping.valueHandler.getValueDisplayString(mapping.attribute, value, DBDDisplayFormat.NATIVE).getBytes(StandardCharsets.UTF_8);
+            }
+            for (byte b : bytes) {
+                chunkWriter.write(HEX_DIGITS[(b >> 4) & 0xF]);
+                chunkWriter.write(HEX_DIGITS[b & 0xF]);
+            }
+            return;
+        }
+        String strValue;
+        if (value instanceof BigDecimal) {
+            strValue = ((BigDecimal) value).toPlainString();
+        } else if (value instanceof Number) {
+            strValue = value.toString();
+        } else if (value instanceof Boolean) {
+            strValue = (Boolean) value ? "1" : "0";
+        } else if (value instanceof String) {
+            strValue = (String) value;
+        } else {
+            strValue = mapping.valueHandler.getValueDisplayString(mapping.attribute, value, DBDDisplayFormat.NATIVE);
+        }
+        writeEscaped(chunkWriter, strValue);
+    }
+
+    /**
+     * Writes value escaped for the LOAD DATA field format: FIELDS TERMINATED BY '\t' ESCAPED BY '\\'.
+     */
+    static void writeEscaped(@NotNull Writer writer, @NotNull String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                    writer.write("\\\\");
+                    break;
+                case '\t':
+                    writer.write("\\t");
+                    break;
+                case '\n':
+                    writer.write("\\n");
+                    break;
+                case '\r':
+                    writer.write("\\r");
+                    break;
+                case '\0':
+                    writer.write("\\0");
+                    break;
+                default:
+                    writer.write(c);
+                    break;
+            }
+        }
+    }
+
+    private void startChunk(@NotNull DBCSession session) throws DBCException {
+        Statement statement;
+        try {
+            Connection connection = ((JDBCSession) session).getOriginal();
+            statement = connection.createStatement();
+            chunkPipe = new BoundedPipe(STREAM_BUFFER_SIZE, STREAM_MAX_CHUNKS);
+            setInputStreamMethod.invoke(statement, chunkPipe.getInputStream());
+        } catch (InvocationTargetException e) {
+            throw new DBCException("Can't prepare LOAD DATA statement", e.getTargetException());
+        } catch (Exception e) {
+            throw new DBCException("Can't prepare LOAD DATA statement", e);
+        }
+        chunkWriter = new BufferedWriter(new OutputStreamWriter(chunkPipe.getOutputStream(), StandardCharsets.UTF_8), STREAM_BUFFER_SIZE);
+        chunkRows = 0;
+        chunkResult = 0;
+        loadError = null;
+
+        final BoundedPipe pipe = chunkPipe;
+        loadThread = new Thread("MySQL LOAD DATA into " + table.getName()) {
+            @Override
+            public void run() {
+                try {
+                    chunkResult = statement.executeUpdate(loadQuery);
+                } catch (Throwable e) {
+                    loadError = e;
+                    // Unblock producer
+                    pipe.abort(new IOException("LOAD DATA failed", e));
+                } finally {
+                    try {
+                        statement.close();
+                    } catch (SQLException e) {
+                        log.debug(e);
+                    }
+                }
+            }
+        };
+        loadThread.setDaemon(true);
+        loadThread.start();
+    }
+
+    private void finishChunk(@NotNull DBCSession session) throws DBCException {
+        if (chunkWriter == null) {
+            return;
+        }
+        try {
+            chunkWriter.close();
+        } catch (IOException e) {
+            if (loadError == null) {
+                loadError = e;
+            }
+        } finally {
+            chunkWriter = null;
+        }
+        try {
+            while (loadThread.isAlive()) {
+                if (session.getProgressMonitor().isCanceled()) {
+                    chunkPipe.abort(new IOException("LOAD DATA canceled by user"));
+                }
+                loadThread.join(100);
+            }
+        } catch (InterruptedException e) {
+            chunkPipe.abort(e);
+            throw new DBCException("LOAD DATA interrupted", e);
+        } finally {
+            loadThread = null;
+            chunkPipe = null;
+        }
+        if (loadError != null) {
+            throw new DBCException(
+                "Error loading data into " + DBUtils.getObjectFullName(table, DBPEvaluationContext.UI) +
+                    ". Make sure that local infile is enabled on the server and in the driver properties.", loadError);
+        }
+        totalRows += chunkResult;
+
+        DBCTransactionManager txnManager = DBUtils.getTransactionManager(session.getExecutionContext());
+        if (txnManager != null && !txnManager.isAutoCommit()) {
+            session.getProgressMonitor().subTask("Commit LOAD DATA (" + totalRows + ")");
+            txnManager.commit(session);
+        }
+    }
+
+    @Override
+    public void flushRows(@NotNull DBCSession session) throws DBCException {
+        if (chunkWriter != null) {
+            try {
+                chunkWriter.flush();
+            } catch (IOException e) {
+                throw new DBCException("Error writing LOAD DATA stream", loadError != null ? loadError : e);
+            }
+        }
+    }
+
+    @Override
+    public void finishBulkLoad(@NotNull DBCSession session) throws DBCException {
+        finishChunk(session);
+        log.debug("Dataset has been loaded (" + totalRows + ")");
+    }
+
+    @Override
+    public void close() {
+        if (loadThread != null && loadThread.isAlive()) {
+            // Load wasn't finished. Break the pipe, so the statement will fail
+            chunkPipe.abort(new IOException("LOAD DATA aborted"));
+            try {
+                loadThread.join(10000);
+            } catch (InterruptedException e) {
+                log.debug(e);
+            }
+        }
+        loadThread = null;
+        chunkPipe = null;
+        chunkWriter = null;
+    }
+}
@@ -42,6 +42,7 @@ import org.jkiss.dbeaver.model.impl.jdbc.JDBCDataSource;
 import org.jkiss.dbeaver.model.impl.jdbc.JDBCExecutionContext;
 import org.jkiss.dbeaver.model.impl.jdbc.JDBCRemoteInstance;
 import org.jkiss.dbeaver.model.impl.jdbc.JDBCUtils;
+import org.jkiss.dbeaver.model.impl.jdbc.cache.JDBCMetadataVersionProvider;
 import org.jkiss.dbeaver.model.impl.jdbc.cache.JDBCObjectCache;
 import org.jkiss.dbeaver.model.impl.jdbc.cache.JDBCStructCache;
 import org.jkiss.dbeaver.model.meta.Association;
@@ -67,7 +68,7 @@ import java.util.regex.Pattern;
 /**
  * GenericDataSource
  */
-public class OracleDataSource extends JDBCDataSource implements DBPObjectStatisticsCollector, DBPAdaptable {
+public class OracleDataSource extends JDBCDataSource implements DBPObjectStatisticsCollector, DBPAdaptable, JDBCMetadataVersionProvider {
     private static final Log log = Log.getLog(OracleDataSource.class);
 
     final public SchemaCache schemaCache = new SchemaCache();
@@ -601,6 +602,26 @@ public class OracleDataSource extends JDBCDataSource implements DBPObjectStatist
         return super.getAdapter(adapter);
     }
 
+    @Nullable
+    @Override
+    public String getMetadataVersion(@NotNull JDBCSession session, @NotNull DBSObject owner) throws SQLException {
+        // Last DDL time and objects count change on any schema object create/alter/drop
+        OracleSchema schema = owner instanceof OracleSchema ? (OracleSchema) owner : DBUtils.getParentOfType(OracleSchema.class, owner);
+        if (schema != null) {
+            return JDBCUtils.queryString(
+                session,
+                "SELECT TO_CHAR(MAX(LAST_DDL_TIME),'YYYYMMDDHH24MISS') || ':' || COUNT(*) FROM " +
+                    OracleUtils.getAdminAllViewPrefix(session.getProgressMonitor(), this, "OBJECTS") + " WHERE OWNER=?",
+                schema.getName());
+        } else if (owner == this) {
+            return JDBCUtils.queryString(
+                session,
+                "SELECT TO_CHAR(MAX(CREATED),'YYYYMMDDHH24MISS') || ':' || COUNT(*) FROM " +
+                    OracleUtils.getAdminAllViewPrefix(session.getProgressMonitor(), this, "USERS"));
+        }
+        return null;
+    }
+
     @Override
     public void cancelStatementExecute(DBRProgressMonitor monitor, JDBCStatement statement) throws DBException {
         if (driverSupportsQueryCancel()) {
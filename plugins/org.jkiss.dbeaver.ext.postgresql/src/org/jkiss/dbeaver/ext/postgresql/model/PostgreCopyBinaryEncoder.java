@@ -0,0 +1,418 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.postgresql.model;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.utils.CommonUtils;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.*;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Encoder of COPY ... (FORMAT binary) data stream.
+ * See https://www.postgresql.org/docs/current/sql-copy.html#id-1.9.3.55.9.4
+ */
+public class PostgreCopyBinaryEncoder {
+
+    private static final byte[] FILE_SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+
+    private static final LocalDateTime PG_EPOCH = LocalDateTime.of(2000, 1, 1, 0, 0);
+    private static final Instant PG_EPOCH_INSTANT = PG_EPOCH.toInstant(ZoneOffset.UTC);
+    private static final LocalDate PG_EPOCH_DATE = PG_EPOCH.toLocalDate();
+
+    private static final int NUMERIC_POS = 0x0000;
+    private static final int NUMERIC_NEG = 0x4000;
+    private static final int NUMERIC_NAN = 0xC000;
+
+    private final DataOutputStream out;
+
+    public PostgreCopyBinaryEncoder(@NotNull OutputStream out) {
+        this.out = new DataOutputStream(out);
+    }
+
+    /**
+     * Checks whether values of specified type can be encoded in binary format
+     */
+    public static boolean isTypeSupported(long typeOid) {
+        switch ((int) typeOid) {
+            case PostgreOid.BOOL:
+            case PostgreOid.INT2:
+            case PostgreOid.INT4:
+            case PostgreOid.INT8:
+            case PostgreOid.OID:
+            case PostgreOid.FLOAT4:
+            case PostgreOid.FLOAT8:
+            case PostgreOid.NUMERIC:
+            case PostgreOid.TEXT:
+            case PostgreOid.VARCHAR:
+            case PostgreOid.BPCHAR:
+            case PostgreOid.NAME:
+            case PostgreOid.JSON:
+            case PostgreOid.JSONB:
+            case PostgreOid.XML:
+            case PostgreOid.BYTEA:
+            case PostgreOid.UUID:
+            case PostgreOid.DATE:
+            case PostgreOid.TIME:
+            case PostgreOid.TIMESTAMP:
+            case PostgreOid.TIMESTAMPTZ:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Text types are sent as UTF-8 strings, so caller has to convert values of these types to strings first
+     */
+    public static boolean isTextType(long typeOid) {
+        switch ((int) typeOid) {
+            case PostgreOid.TEXT:
+            case PostgreOid.VARCHAR:
+            case PostgreOid.BPCHAR:
+            case PostgreOid.NAME:
+            case PostgreOid.JSON:
+            case PostgreOid.JSONB:
+            case PostgreOid.XML:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public void writeHeader() throws IOException {
+        out.write(FILE_SIGNATURE);
+        // Flags field
+        out.writeInt(0);
+        // Header extension area length
+        out.writeInt(0);
+    }
+
+    public void writeTrailer() throws IOException {
+        out.writeShort(-1);
+        out.flush();
+    }
+
+    public void startRow(int fieldCount) throws IOException {
+        out.writeShort(fieldCount);
+    }
+
+    public void writeNull() throws IOException {
+        out.writeInt(-1);
+    }
+
+    public void writeValue(long typeOid, @NotNull Object value) throws IOException {
+        switch ((int) typeOid) {
+            case PostgreOid.BOOL:
+                out.writeInt(1);
+                out.writeByte(toBoolean(value) ? 1 : 0);
+                break;
+            case PostgreOid.INT2: {
+                long shortValue = toLong(value);
+                if (shortValue < Short.MIN_VALUE || shortValue > Short.MAX_VALUE) {
+                    throw new IOException("Value " + shortValue + " is out of smallint range");
+                }
+                out.writeInt(2);
+                out.writeShort((int) shortValue);
+                break;
+            }
+            case PostgreOid.INT4:
+                out.writeInt(4);
+                out.writeInt(toInt(value));
+                break;
+            case PostgreOid.OID: {
+                // OID is unsigned
+                long oidValue = toLong(value);
+                if (oidValue < 0 || oidValue > 0xFFFFFFFFL) {
+                    throw new IOException("Value " + oidValue + " is out of oid range");
+                }
+                out.writeInt(4);
+                out.writeInt((int) oidValue);
+                break;
+            }
+            case PostgreOid.INT8:
+                out.writeInt(8);
+                out.writeLong(toLong(value));
+                break;
+            case PostgreOid.FLOAT4:
+                out.writeInt(4);
+                out.writeFloat(value instanceof Number ? ((Number) value).floatValue() : Float.parseFloat(value.toString().trim()));
+                break;
+            case PostgreOid.FLOAT8:
+                out.writeInt(8);
+                out.writeDouble(value instanceof Number ? ((Number) value).doubleValue() : Double.parseDouble(value.toString().trim()));
+                break;
+            case PostgreOid.NUMERIC:
+                writeNumeric(value);
+                break;
+            case PostgreOid.JSONB: {
+                // jsonb binary representation is version number followed by the text
+                byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length + 1);
+                out.writeByte(1);
+                out.write(bytes);
+                break;
+            }
+            case PostgreOid.BYTEA: {
+                byte[] bytes = value instanceof byte[] ? (byte[]) value : value.toString().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+                break;
+            }
+            case PostgreOid.UUID: {
+                if (value instanceof byte[] && ((byte[]) value).length == 16) {
+                    out.writeInt(16);
+                    out.write((byte[]) value);
+                } else {
+                    UUID uuid = value instanceof UUID ? (UUID) value : UUID.fromString(value.toString().trim());
+                    out.writeInt(16);
+                    out.writeLong(uuid.getMostSignificantBits());
+                    out.writeLong(uuid.getLeastSignificantBits());
+                }
+                break;
+            }
+            case PostgreOid.DATE:
+                out.writeInt(4);
+                out.writeInt((int) ChronoUnit.DAYS.between(PG_EPOCH_DATE, toLocalDate(value)));
+                break;
+            case PostgreOid.TIME:
+                out.writeInt(8);
+                out.writeLong(toLocalTime(value).toNanoOfDay() / 1000);
+                break;
+            case PostgreOid.TIMESTAMP:
+                // Truncate first, otherwise values before the epoch are rounded up
+                out.writeInt(8);
+                out.writeLong(ChronoUnit.MICROS.between(PG_EPOCH, toLocalDateTime(value).truncatedTo(ChronoUnit.MICROS)));
+                break;
+            case PostgreOid.TIMESTAMPTZ:
+                out.writeInt(8);
+                out.writeLong(ChronoUnit.MICROS.between(PG_EPOCH_INSTANT, toInstant(value).truncatedTo(ChronoUnit.MICROS)));
+                break;
+            default:
+                if (isTextType(typeOid)) {
+                    byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                    break;
+                }
+                throw new IOException("Binary COPY of type " + typeOid + " is not supported");
+        }
+    }
+
+    private void writeNumeric(@NotNull Object value) throws IOException {
+        if (value instanceof Double && (((Double) value).isNaN() || ((Double) value).isInfinite()) ||
+            value instanceof Float && (((Float) value).isNaN() || ((Float) value).isInfinite()))
+        {
+            if (!Double.isNaN(((Number) value).doubleValue())) {
+                throw new IOException("Infinite value can't be stored in numeric column");
+            }
+            out.writeInt(8);
+            out.writeShort(0);
+            out.writeShort(0);
+            out.writeShort(NUMERIC_NAN);
+            out.writeShort(0);
+            return;
+        }
+        BigDecimal decimal = toBigDecimal(value);
+        int scale = Math.max(decimal.scale(), 0);
+        BigDecimal abs = decimal.abs().setScale(scale);
+
+        // Split into base-10000 digits aligned at decimal point
+        String unscaled = abs.unscaledValue().toString();
+        String intPart, fracPart;
+        if (unscaled.length() <= scale) {
+            intPart = "";
+            fracPart = "0".repeat(scale - unscaled.length()) + unscaled;
+        } else {
+            intPart = unscaled.substring(0, unscaled.length() - scale);
+            fracPart = unscaled.substring(unscaled.length() - scale);
+        }
+        if (intPart.length() % 4 != 0) {
+            intPart = "0".repeat(4 - intPart.length() % 4) + intPart;
+        }
+        if (fracPart.length() % 4 != 0) {
+            fracPart = fracPart + "0".repeat(4 - fracPart.length() % 4);
+        }
+        String allDigits = intPart + fracPart;
+        int groupCount = allDigits.length() / 4;
+        short[] groups = new short[groupCount];
+        for (int i = 0; i < groupCount; i++) {
+            groups[i] = Short.parseShort(allDigits.substring(i * 4, i * 4 + 4));
+        }
+        int weight = intPart.length() / 4 - 1;
+        int first = 0, last = groupCount;
+        while (first < last && groups[first] == 0) {
+            first++;
+            weight--;
+        }
+        while (last > first && groups[last - 1] == 0) {
+            last--;
+        }
+        int digitCount = last - first;
+        if (digitCount == 0) {
+            weight = 0;
+        }
+
+        out.writeInt(8 + digitCount * 2);
+        out.writeShort(digitCount);
+        out.writeShort(weight);
+        out.writeShort(decimal.signum() < 0 ? NUMERIC_NEG : NUMERIC_POS);
+        out.writeShort(scale);
+        for (int i = first; i < last; i++) {
+            out.writeShort(groups[i]);
+        }
+    }
+
+    private static boolean toBoolean(@NotNull Object value) {
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        } else if (value instanceof Number) {
+            return ((Number) value).intValue() != 0;
+        }
+        String strValue = value.toString().trim();
+        return CommonUtils.toBoolean(strValue) || "t".equalsIgnoreCase(strValue) || "1".equals(strValue);
+    }
+
+    private static int toInt(@NotNull Object value) throws IOException {
+        long longValue = toLong(value);
+        try {
+            return Math.toIntExact(longValue);
+        } catch (ArithmeticException e) {
+            throw new IOException("Value " + longValue + " is out of integer range", e);
+        }
+    }
+
+    private static long toLong(@NotNull Object value) throws IOException {
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        } else if (value instanceof Boolean) {
+            return (Boolean) value ? 1 : 0;
+        }
+        try {
+            // Fails for fractional values and values out of long range
+            return toBigDecimal(value).longValueExact();
+        } catch (ArithmeticException | NumberFormatException e) {
+            throw new IOException("Value '" + value + "' is not an integer number in bigint range", e);
+        }
+    }
+
+    @NotNull
+    private static BigDecimal toBigDecimal(@NotNull Object value) {
+        if (value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        } else if (value instanceof BigInteger) {
+            return new BigDecimal((BigInteger) value);
+        } else if (value instanceof Double || value instanceof Float) {
+            return new BigDecimal(value.toString());
+        } else if (value instanceof Number) {
+            return BigDecimal.valueOf(((Number) value).longValue());
+        }
+        return new BigDecimal(value.toString().trim());
+    }
+
+    @NotNull
+    private static LocalDate toLocalDate(@NotNull Object value) throws IOException {
+        if (value instanceof java.sql.Date) {
+            return ((java.sql.Date) value).toLocalDate();
+        } else if (value instanceof LocalDate) {
+            return (LocalDate) value;
+        }
+        return toLocalDateTime(value).toLocalDate();
+    }
+
+    @NotNull
+    private static LocalTime toLocalTime(@NotNull Object value) throws IOException {
+        if (value instanceof java.sql.Time) {
+            return ((java.sql.Time) value).toLocalTime();
+        } else if (value instanceof LocalTime) {
+            return (LocalTime) value;
+        } else if (value instanceof String) {
+            return LocalTime.parse(((String) value).trim());
+        }
+        return toLocalDateTime(value).toLocalTime();
+    }
+
+    @NotNull
+    private static LocalDateTime toLocalDateTime(@NotNull Object value) throws IOException {
+        if (value instanceof Timestamp) {
+            return ((Timestamp) value).toLocalDateTime();
+        } else if (value instanceof LocalDateTime) {
+            return (LocalDateTime) value;
+        } else if (value instanceof LocalDate) {
+            return ((LocalDate) value).atStartOfDay();
+        } else if (value instanceof OffsetDateTime) {
+            return ((OffsetDateTime) value).atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+        } else if (value instanceof ZonedDateTime) {
+            return ((ZonedDateTime) value).withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+        } else if (value instanceof java.sql.Date) {
+            return ((java.sql.Date) value).toLocalDate().atStartOfDay();
+        } else if (value instanceof Date) {
+            return LocalDateTime.ofInstant(((Date) value).toInstant(), ZoneId.systemDefault());
+        } else if (value instanceof Instant) {
+            return LocalDateTime.ofInstant((Instant) value, ZoneId.systemDefault());
+        } else if (value instanceof String) {
+            return parseDateTime((String) value);
+        }
+        throw new IOException("Value of type " + value.getClass().getName() + " can't be converted to date/time");
+    }
+
+    @NotNull
+    private static Instant toInstant(@NotNull Object value) throws IOException {
+        if (value instanceof Timestamp) {
+            return ((Timestamp) value).toInstant();
+        } else if (value instanceof OffsetDateTime) {
+            return ((OffsetDateTime) value).toInstant();
+        } else if (value instanceof ZonedDateTime) {
+            return ((ZonedDateTime) value).toInstant();
+        } else if (value instanceof Instant) {
+            return (Instant) value;
+        } else if (value instanceof Date && !(value instanceof java.sql.Date)) {
+            return ((Date) value).toInstant();
+        } else if (value instanceof String) {
+            String strValue = ((String) value).trim();
+            try {
+                return OffsetDateTime.parse(strValue.replace(' ', 'T')).toInstant();
+            } catch (DateTimeException e) {
+                // No offset in the string value
+            }
+        }
+        return toLocalDateTime(value).atZone(ZoneId.systemDefault()).toInstant();
+    }
+
+    @NotNull
+    private static LocalDateTime parseDateTime(@NotNull String value) throws IOException {
+        String strValue = value.trim();
+        try {
+            if (strValue.length() <= 10) {
+                return LocalDate.parse(strValue).atStartOfDay();
+            }
+            return LocalDateTime.parse(strValue.replace(' ', 'T'));
+        } catch (DateTimeException e) {
+            throw new IOException("Can't parse date/time value '" + strValue + "'", e);
+        }
+    }
+
+}
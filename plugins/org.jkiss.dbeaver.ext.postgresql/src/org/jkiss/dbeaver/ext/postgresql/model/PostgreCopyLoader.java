@@ -20,6 +20,7 @@ import org.jkiss.code.NotNull;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.model.DBPEvaluationContext;
 import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.data.DBDContent;
 import org.jkiss.dbeaver.model.data.DBDDisplayFormat;
 import org.jkiss.dbeaver.model.data.DBDValueHandler;
 import org.jkiss.dbeaver.model.exec.DBCException;
@@ -31,19 +32,19 @@ import org.jkiss.dbeaver.model.struct.DBSAttributeBase;
 import org.jkiss.dbeaver.model.struct.DBSDataBulkLoader;
 import org.jkiss.dbeaver.model.struct.DBSDataContainer;
 import org.jkiss.dbeaver.runtime.DBWorkbench;
+import org.jkiss.dbeaver.utils.ContentUtils;
 import org.jkiss.utils.ArrayUtils;
 import org.jkiss.utils.CommonUtils;
+import org.jkiss.utils.io.BoundedPipe;
 
-import java.io.BufferedWriter;
-import java.io.IOException;
-import java.io.Reader;
-import java.io.Writer;
+import java.io.*;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.sql.Connection;
+import java.time.DateTimeException;
 import java.util.List;
 import java.util.Map;
 
@@ -55,31 +56,50 @@ import java.util.Map;
  * //                "COPY table1 FROM STDIN (FORMAT csv)",
  * //                new BufferedReader(new FileReader("data.csv"))
  * //            );
+ *
+ * By default rows are staged in a temporary CSV file which is copied in finishBulkLoad.
+ * In streaming mode rows are sent through a bounded in-memory pipe to the COPY running in a separate thread.
+ * In binary mode rows are encoded in COPY binary format (if all target columns support it).
  */
 public class PostgreCopyLoader implements DBSDataBulkLoader, DBSDataBulkLoader.BulkLoadManager {
 
     private static final Log log = Log.getLog(PostgreCopyLoader.class);
 
+    private static final int STREAM_MAX_CHUNKS = 16;
+
     private final PostgreDataSource dataSource;
     private PostgreTableReal table;
     private Object copyManager;
     private Method copyInMethod;
+    private OutputStream dataStream;
     private Writer csvWriter;
+    private PostgreCopyBinaryEncoder binaryEncoder;
     private Path csvFile;
+    // Query is built once the data format is chosen, the encoder is released when data stream is closed
+    private String copyQuery;
 
     private AttrMapping[] mappings;
+    private int mappedColumnCount;
 
     private int copyBufferSize = 100 * 1024;
 
+    private BoundedPipe streamPipe;
+    private Thread copyThread;
+    private volatile Object copyResult;
+    private volatile Throwable copyError;
+
     private static class AttrMapping {
         PostgreTableColumn tableAttr;
         DBDValueHandler valueHandler;
         int srcPos;
+        long typeOid;
 
         AttrMapping(PostgreTableColumn tableAttr, DBDValueHandler valueHandler, int srcPos) {
             this.tableAttr = tableAttr;
             this.valueHandler = valueHandler;
             this.srcPos = srcPos;
+            PostgreDataType dataType = tableAttr.getDataType();
+            this.typeOid = dataType == null ? PostgreOid.UNSPECIFIED : dataType.getObjectId();
         }
     }
 
@@ -98,6 +118,8 @@ public class PostgreCopyLoader implements DBSDataBulkLoader, DBSDataBulkLoader.B
         Map<String, Object> options) throws DBCException
     {
         this.table = (PostgreTableReal) dataContainer;
+        boolean streamRows = options != null && CommonUtils.getBoolean(options.get(OPTION_STREAM_ROWS), false);
+        boolean binaryFormat = options != null && CommonUtils.getBoolean(options.get(OPTION_BINARY_FORMAT), false);
         try {
             // Use reflection to create copy manager
             Connection pgConnection = ((JDBCSession) session).getOriginal();
@@ -106,27 +128,15 @@ public class PostgreCopyLoader implements DBSDataBulkLoader, DBSDataBulkLoader.B
             Class<?> baseConnectionClass = Class.forName("org.postgresql.core.BaseConnection", true, driverClassLoader);
             Class<?> copyManagerClass = Class.forName("org.postgresql.copy.CopyManager", true, driverClassLoader);
 
-            // Get method copyIn(final String sql, Reader from, int bufferSize)
-            copyInMethod = copyManagerClass.getMethod("copyIn", String.class, Reader.class, Integer.TYPE);
+            // Get method copyIn(final String sql, InputStream from, int bufferSize)
+            copyInMethod = copyManagerClass.getMethod("copyIn", String.class, InputStream.class, Integer.TYPE);
 
             copyManager = copyManagerClass.getConstructor(baseConnectionClass).newInstance(pgConnection);
 
-            Path tempFolder = DBWorkbench.getPlatform().getTempFolder(session.getProgressMonitor(), "postgesql-copy-datasets");
-            csvFile = tempFolder.resolve(CommonUtils.escapeFileName(table.getFullyQualifiedName(DBPEvaluationContext.DML)) + "-" + System.currentTimeMillis() + ".csv");  //$NON-NLS-1$ //$NON-NLS-2$
-            try {
-                Files.createFile(csvFile);
-            } catch (IOException ex) {
-                throw new IOException("Can't create CSV file " + csvFile);
-            }
-
-            csvWriter = new BufferedWriter(
-                Files.newBufferedWriter(csvFile, StandardCharsets.UTF_8),
-                copyBufferSize
-                );
-
             List<? extends PostgreTableColumn> tableAttrs = CommonUtils.safeList(table.getAttributes(session.getProgressMonitor()));
             tableAttrs.removeIf(a -> a.getOrdinalPosition() < 0);
             mappings = new AttrMapping[tableAttrs.size()];
+            mappedColumnCount = 0;
 
             for (int i = 0; i < tableAttrs.size(); i++) {
                 PostgreTableColumn attr = tableAttrs.get(i);
@@ -137,15 +147,103 @@ public class PostgreCopyLoader implements DBSDataBulkLoader, DBSDataBulkLoader.B
                     ArrayUtils.indexOf(attributes, attr)
                 );
                 mappings[i] = mapping;
+                if (mapping.srcPos >= 0) {
+                    mappedColumnCount++;
+                    if (binaryFormat && !PostgreCopyBinaryEncoder.isTypeSupported(mapping.typeOid)) {
+                        log.debug("Column " + attr.getName() + " type " + attr.getTypeName() + " is not supported by binary COPY. Use CSV format.");
+                        binaryFormat = false;
+                    }
+                }
+            }
+
+            if (streamRows) {
+                streamPipe = new BoundedPipe(copyBufferSize, STREAM_MAX_CHUNKS);
+                dataStream = streamPipe.getOutputStream();
+            } else {
+                Path tempFolder = DBWorkbench.getPlatform().getTempFolder(session.getProgressMonitor(), "postgesql-copy-datasets");
+                csvFile = tempFolder.resolve(CommonUtils.escapeFileName(table.getFullyQualifiedName(DBPEvaluationContext.DML)) + "-" + System.currentTimeMillis() + (binaryFormat ? ".bin" : ".csv"));  //$NON-NLS-1$ //$NON-NLS-2$
+                try {
+                    Files.createFile(csvFile);
+                } catch (IOException ex) {
+                    throw new IOException("Can't create CSV file " + csvFile);
+                }
+                dataStream = new BufferedOutputStream(Files.newOutputStream(csvFile), copyBufferSize);
+            }
+            copyQuery = makeCopyQuery(binaryFormat);
+            if (binaryFormat) {
+                binaryEncoder = new PostgreCopyBinaryEncoder(dataStream);
+                binaryEncoder.writeHeader();
+            } else {
+                csvWriter = new BufferedWriter(new OutputStreamWriter(dataStream, StandardCharsets.UTF_8), copyBufferSize);
             }
         } catch (Exception e) {
             throw new DBCException("Can't instantiate CopyManager", e);
         }
+
+        if (streamRows) {
+            startStreamCopy();
+        }
         return this;
     }
 
+    private String makeCopyQuery(boolean binaryFormat) {
+        StringBuilder query = new StringBuilder();
+        query.append("COPY ").append(table.getFullyQualifiedName(DBPEvaluationContext.DML)).append(" (");
+        boolean hasColumn = false;
+        for (AttrMapping mapping : mappings) {
+            if (mapping.srcPos >= 0) {
+                if (hasColumn) {
+                    query.append(",");
+                }
+                query.append(DBUtils.getQuotedIdentifier(mapping.tableAttr));
+                hasColumn = true;
+            }
+        }
+        query.append(") FROM STDIN ");
+        if (binaryFormat) {
+            query.append("(FORMAT BINARY)");
+        } else {
+            query.append("(FORMAT CSV, ESCAPE '\\')");
+        }
+        return query.toString();
+    }
+
+    private void startStreamCopy() {
+        String queryText = copyQuery;
+        InputStream copyStream = streamPipe.getInputStream();
+        copyThread = new Thread("PostgreSQL COPY into " + table.getName()) {
+            @Override
+            public void run() {
+                try {
+                    copyResult = copyInMethod.invoke(copyManager, queryText, copyStream, copyBufferSize);
+                } catch (Throwable e) {
+                    if (e instanceof InvocationTargetException) {
+                        e = ((InvocationTargetException) e).getTargetException();
+                    }
+                    copyError = e;
+                    // Unblock producer
+                    streamPipe.abort(new IOException("COPY failed", e));
+                }
+            }
+        };
+        copyThread.setDaemon(true);
+        copyThread.start();
+    }
+
     @Override
     public void addRow(@NotNull DBCSession session, @NotNull Object[] attributeValues) throws DBCException {
+        try {
+            if (binaryEncoder != null) {
+                writeBinaryRow(session, attributeValues);
+            } else {
+                writeCsvRow(attributeValues);
+            }
+        } catch (IOException e) {
+            throw new DBCException("Error writing COPY data", copyError != null ? copyError : e);
+        }
+    }
+
+    private void writeCsvRow(@NotNull Object[] attributeValues) throws IOException {
         StringBuilder line = new StringBuilder();
         boolean hasCell = false;
         for (AttrMapping mapping : mappings) {
@@ -168,10 +266,38 @@ public class PostgreCopyLoader implements DBSDataBulkLoader, DBSDataBulkLoader.B
             }
         }
         line.append("\n");
-        try {
-            csvWriter.write(line.toString());
-        } catch (IOException e) {
-            throw new DBCException("Error writing CSV line", e);
+        csvWriter.write(line.toString());
+    }
+
+    private void writeBinaryRow(@NotNull DBCSession session, @NotNull Object[] attributeValues) throws IOException, DBCException {
+        binaryEncoder.startRow(mappedColumnCount);
+        for (AttrMapping mapping : mappings) {
+            if (mapping.srcPos < 0) {
+                continue;
+            }
+            Object srcValue = attributeValues[mapping.srcPos];
+            if (DBUtils.isNullValue(srcValue)) {
+                binaryEncoder.writeNull();
+                continue;
+            }
+            if (srcValue instanceof DBDContent) {
+                if (mapping.typeOid == PostgreOid.BYTEA) {
+                    srcValue = ContentUtils.getContentBinaryValue(session.getProgressMonitor(), (DBDContent) srcValue);
+                    if (srcValue == null) {
+                        binaryEncoder.writeNull();
+                        continue;
+                    }
+                } else {
+                    srcValue = mapping.valueHandler.getValueDisplayString(mapping.tableAttr, srcValue, DBDDisplayFormat.NATIVE);
+                }
+            } else if (PostgreCopyBinaryEncoder.isTextType(mapping.typeOid) && !(srcValue instanceof String)) {
+                srcValue = mapping.valueHandler.getValueDisplayString(mapping.tableAttr, srcValue, DBDDisplayFormat.NATIVE);
+            }
+            try {
+                binaryEncoder.writeValue(mapping.typeOid, srcValue);
+            } catch (IllegalArgumentException | ArithmeticException | DateTimeException e) {
+                throw new DBCException("Can't encode value of column " + mapping.tableAttr.getName() + " in binary format", e);
+            }
         }
     }
 
@@ -184,32 +310,39 @@ public class PostgreCopyLoader implements DBSDataBulkLoader, DBSDataBulkLoader.B
     @Override
     public void flushRows(@NotNull DBCSession session) throws DBCException {
         try {
-            csvWriter.flush();
+            if (csvWriter != null) {
+                csvWriter.flush();
+            }
+            dataStream.flush();
         } catch (IOException e) {
-            throw new DBCException("Error saving CSV data", e);
+            throw new DBCException("Error saving COPY data", copyError != null ? copyError : e);
         }
     }
 
     @Override
     public void finishBulkLoad(@NotNull DBCSession session) throws DBCException {
+        String tableFQN = table.getFullyQualifiedName(DBPEvaluationContext.DML);
         try {
-            csvWriter.flush();
-            csvWriter.close();
+            closeDataStream();
         } catch (IOException e) {
-            log.debug(e);
+            // Don't load incomplete data
+            throw new DBCException("Error finishing COPY data stream", copyError != null ? copyError : e);
         }
-        csvWriter = null;
-
-        String tableFQN = table.getFullyQualifiedName(DBPEvaluationContext.DML);
-
-        session.getProgressMonitor().subTask("Copy into " + tableFQN);
-
-        String queryText = "COPY " + tableFQN + " FROM STDIN (FORMAT CSV, ESCAPE '\\')";
 
         try {
             Object rowCount;
-            try (Reader csvReader = Files.newBufferedReader(csvFile, StandardCharsets.UTF_8)) {
-                rowCount = copyInMethod.invoke(copyManager, queryText, csvReader, copyBufferSize);
+            if (streamPipe != null) {
+                session.getProgressMonitor().subTask("Finish copy into " + tableFQN);
+                waitForStreamCopy(session);
+                if (copyError != null) {
+                    throw copyError;
+                }
+                rowCount = copyResult;
+            } else {
+                session.getProgressMonitor().subTask("Copy into " + tableFQN);
+                try (InputStream dataReader = Files.newInputStream(csvFile)) {
+                    rowCount = copyInMethod.invoke(copyManager, copyQuery, dataReader, copyBufferSize);
+                }
             }
 
             // Commit changes
@@ -219,7 +352,7 @@ public class PostgreCopyLoader implements DBSDataBulkLoader, DBSDataBulkLoader.B
                 txnManager.commit(session);
             }
 
-            log.debug("CSV has been imported (" + rowCount + ")");
+            log.debug("Dataset has been imported (" + rowCount + ")");
         } catch (Throwable e) {
             if (e instanceof InvocationTargetException) {
                 e = ((InvocationTargetException) e).getTargetException();
@@ -228,9 +361,55 @@ public class PostgreCopyLoader implements DBSDataBulkLoader, DBSDataBulkLoader.B
         }
     }
 
-    @Override
+    private void closeDataStream() throws IOException {
+        if (dataStream == null) {
+            return;
+        }
+        try {
+            if (binaryEncoder != null) {
+                binaryEncoder.writeTrailer();
+            } else {
+                csvWriter.flush();
+            }
+            dataStream.close();
+        } finally {
+            csvWriter = null;
+            binaryEncoder = null;
+            dataStream = null;
+        }
+    }
+
+    private void waitForStreamCopy(@NotNull DBCSession session) throws InterruptedException {
+        while (copyThread.isAlive()) {
+            if (session.getProgressMonitor().isCanceled()) {
+                streamPipe.abort(new IOException("COPY canceled by user"));
+            }
+            copyThread.join(100);
+        }
+    }
 
+    @Override
     public void close() {
+        if (copyThread != null) {
+            if (copyThread.isAlive()) {
+                // Load wasn't finished. Break the pipe, so COPY will be canceled on the server side
+                streamPipe.abort(new IOException("COPY aborted"));
+                try {
+                    copyThread.join(10000);
+                } catch (InterruptedException e) {
+                    log.debug(e);
+                }
+            }
+            copyThread = null;
+        }
+        if (dataStream != null) {
+            try {
+                dataStream.close();
+            } catch (IOException e) {
+                log.debug(e);
+            }
+            dataStream = null;
+        }
         if (csvFile != null && Files.exists(csvFile)) {
             try {
                 Files.delete(csvFile);
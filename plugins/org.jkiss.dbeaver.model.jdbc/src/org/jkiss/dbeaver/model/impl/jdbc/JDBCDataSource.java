@@ -33,9 +33,11 @@ import org.jkiss.dbeaver.model.exec.jdbc.JDBCFactory;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
 import org.jkiss.dbeaver.model.exec.jdbc.JDBCStatement;
 import org.jkiss.dbeaver.model.impl.AbstractDataSource;
+import org.jkiss.dbeaver.model.impl.jdbc.cache.JDBCMetadataSnapshot;
 import org.jkiss.dbeaver.model.impl.jdbc.exec.JDBCConnectionImpl;
 import org.jkiss.dbeaver.model.impl.jdbc.exec.JDBCFactoryDefault;
 import org.jkiss.dbeaver.model.messages.ModelMessages;
+import org.jkiss.dbeaver.model.preferences.DBPPreferenceStore;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.runtime.DBRRunnableWithProgress;
 import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
@@ -90,6 +92,8 @@ public abstract class JDBCDataSource extends AbstractDataSource
 
     private final transient List<Connection> closingConnections = new ArrayList<>();
     private List<Path> tempFiles;
+    @Nullable
+    private JDBCMetadataSnapshot metadataSnapshot;
 
 
     protected JDBCDataSource(@NotNull DBRProgressMonitor monitor, @NotNull DBPDataSourceContainer container, @NotNull SQLDialect dialect)
@@ -433,6 +437,14 @@ public abstract class JDBCDataSource extends AbstractDataSource
         return jdbcFactory;
     }
 
+    /**
+     * Returns metadata snapshot or null if metadata snapshot is disabled for this data source
+     */
+    @Nullable
+    public JDBCMetadataSnapshot getMetadataSnapshot() {
+        return metadataSnapshot;
+    }
+
     @NotNull
     @Override
     public JDBCRemoteInstance getDefaultInstance() {
@@ -463,6 +475,11 @@ public abstract class JDBCDataSource extends AbstractDataSource
         }
         defaultRemoteInstance = null;
 
+        if (metadataSnapshot != null) {
+            metadataSnapshot.save();
+            metadataSnapshot = null;
+        }
+
         if (tempFiles != null) {
             for (Path tmpFile : tempFiles) {
                 try {
@@ -483,6 +500,11 @@ public abstract class JDBCDataSource extends AbstractDataSource
     public void initialize(@NotNull DBRProgressMonitor monitor)
         throws DBException
     {
+        DBPPreferenceStore preferenceStore = getContainer().getPreferenceStore();
+        // Snapshot is kept unencrypted, so it must be enabled for each connection explicitly
+        if (preferenceStore.contains(ModelPreferences.META_SNAPSHOT_ENABLED) && preferenceStore.getBoolean(ModelPreferences.META_SNAPSHOT_ENABLED)) {
+            metadataSnapshot = new JDBCMetadataSnapshot(this);
+        }
         getDefaultInstance().initializeMetaContext(monitor);
         try (JDBCSession session = DBUtils.openMetaSession(monitor, this, ModelMessages.model_jdbc_read_database_meta_data)) {
             JDBCDatabaseMetaData metaData = session.getMetaData();
@@ -0,0 +1,719 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.impl.jdbc.cache;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.ModelPreferences;
+import org.jkiss.dbeaver.model.DBConstants;
+import org.jkiss.dbeaver.model.DBPDataSourceContainer;
+import org.jkiss.dbeaver.model.DBPEvaluationContext;
+import org.jkiss.dbeaver.model.DBPRefreshableObject;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.app.DBPProject;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCPreparedStatement;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCResultSet;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCStatement;
+import org.jkiss.dbeaver.model.impl.jdbc.JDBCDataSource;
+import org.jkiss.dbeaver.model.impl.jdbc.exec.JDBCPreparedStatementImpl;
+import org.jkiss.dbeaver.model.navigator.DBNDatabaseNode;
+import org.jkiss.dbeaver.model.navigator.DBNModel;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.struct.DBSObject;
+import org.jkiss.utils.CommonUtils;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Persistent snapshot of metadata query results.
+ * <p>
+ * Metadata caches read their objects through {@link #executeStatement}. Results of cache queries are recorded
+ * and saved in the project metadata folder on disconnect. After reconnect the first load of each cache is served
+ * from the snapshot, so navigator and completion don't wait for metadata queries. Objects are still created by
+ * cache loaders, the snapshot keeps only rows of result sets.
+ * <p>
+ * Snapshot is enabled only by the connection setting {@link ModelPreferences#META_SNAPSHOT_ENABLED}, it is not
+ * inherited from global preferences, as snapshot files are not encrypted.
+ * Entries are keyed by cache, owner object and bound statement parameters.
+ * <p>
+ * If data source implements {@link JDBCMetadataVersionProvider} then entries recorded for an older version
+ * of the owner object are dropped. Otherwise served entries are revalidated in background once in
+ * {@link #REVALIDATE_PERIOD_MS}: the cache query is executed again and if its results differ then the entry
+ * is dropped and the owner object is refreshed. Each entry is served only once per connection,
+ * so the next load of the same cache goes to the database.
+ * <p>
+ * Snapshot size is limited by {@link ModelPreferences#META_SNAPSHOT_MAX_VALUES},
+ * entries which weren't used for a long time are evicted first. Snapshot is saved in background.
+ */
+public class JDBCMetadataSnapshot {
+
+    private static final Log log = Log.getLog(JDBCMetadataSnapshot.class);
+
+    private static final String SNAPSHOT_FOLDER = "metadata-snapshots";
+    private static final String SNAPSHOT_EXT = ".bin";
+    private static final int SNAPSHOT_MAGIC = 0x44424d53; // DBMS
+    private static final int SNAPSHOT_VERSION = 3;
+    private static final long MAX_ENTRY_AGE_MS = 30L * 24 * 60 * 60 * 1000;
+    private static final long REVALIDATE_PERIOD_MS = 24L * 60 * 60 * 1000;
+    private static final long REVALIDATE_DELAY_MS = 1000;
+
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_STRING = 1;
+    private static final byte TYPE_BOOLEAN = 2;
+    private static final byte TYPE_INT = 3;
+    private static final byte TYPE_LONG = 4;
+    private static final byte TYPE_DOUBLE = 5;
+    private static final byte TYPE_DECIMAL = 6;
+    private static final byte TYPE_BYTES = 7;
+    private static final byte TYPE_TIMESTAMP = 8;
+    private static final byte TYPE_DATE = 9;
+    private static final byte TYPE_TIME = 10;
+    private static final byte TYPE_STRING_OVERRIDE = 11;
+
+    /**
+     * Prepares cache statement. Used to revalidate snapshot entries in background.
+     */
+    public interface StatementFactory {
+        @NotNull
+        JDBCStatement prepareStatement(@NotNull JDBCSession session) throws SQLException;
+    }
+
+    private static class Entry {
+        final String query;
+        final String ownerVersion;
+        final JDBCMetadataSnapshotResultSet.Columns columns;
+        final List<Object[]> rows;
+        volatile long lastUsed;
+        // Time when rows were read from the database last time
+        volatile long lastValidated;
+
+        Entry(
+            @NotNull String query,
+            @Nullable String ownerVersion,
+            @NotNull JDBCMetadataSnapshotResultSet.Columns columns,
+            @NotNull List<Object[]> rows,
+            long lastUsed,
+            long lastValidated)
+        {
+            this.query = query;
+            this.ownerVersion = ownerVersion;
+            this.columns = columns;
+            this.rows = rows;
+            this.lastUsed = lastUsed;
+            this.lastValidated = lastValidated;
+        }
+
+        long getValueCount() {
+            return (long) rows.size() * columns.getCount();
+        }
+    }
+
+    private static class Revalidation {
+        final String key;
+        final Entry entry;
+        final DBSObject owner;
+        final StatementFactory statementFactory;
+
+        Revalidation(@NotNull String key, @NotNull Entry entry, @NotNull DBSObject owner, @NotNull StatementFactory statementFactory) {
+            this.key = key;
+            this.entry = entry;
+            this.owner = owner;
+            this.statementFactory = statementFactory;
+        }
+    }
+
+    private final JDBCDataSource dataSource;
+    private final Path snapshotFile;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Set<String> servedKeys = ConcurrentHashMap.newKeySet();
+    private final Map<String, Optional<String>> ownerVersions = new ConcurrentHashMap<>();
+    private final AtomicLong valueCount = new AtomicLong();
+    // Limit of the total number of column values of all entries
+    private final long maxValueCount;
+    private final LoadJob loadJob;
+    private final RevalidateJob revalidateJob;
+    private final SaveJob saveJob;
+    private volatile boolean dirty;
+
+    public JDBCMetadataSnapshot(@NotNull JDBCDataSource dataSource) {
+        this.dataSource = dataSource;
+        DBPDataSourceContainer container = dataSource.getContainer();
+        DBPProject project = container.getProject();
+        Path metadataFolder = project.getMetadataFolder(false);
+        this.snapshotFile = metadataFolder == null ? null :
+            metadataFolder.resolve(SNAPSHOT_FOLDER).resolve(CommonUtils.escapeFileName(container.getId()) + SNAPSHOT_EXT);
+        this.maxValueCount = Math.max(1, container.getPreferenceStore().getLong(ModelPreferences.META_SNAPSHOT_MAX_VALUES));
+        this.loadJob = new LoadJob();
+        this.revalidateJob = new RevalidateJob();
+        this.saveJob = new SaveJob();
+        if (snapshotFile != null) {
+            // Snapshot of the previous connection may be still saved, so the file is checked by the job
+            loadJob.schedule();
+        }
+    }
+
+    /**
+     * Executes cache statement and returns its result set.
+     * If snapshot is enabled for the session data source then result set is read from the snapshot
+     * or live results are recorded into the snapshot.
+     *
+     * @param cache     cache which loads objects
+     * @param kind      kind of cache query (objects, children, etc)
+     * @param owner     cache owner
+     * @param forObject object which children are read or null if all children are read
+     * @param statementFactory prepares the same statement in another session, used for background revalidation
+     */
+    @Nullable
+    public static JDBCResultSet executeStatement(
+        @NotNull JDBCSession session,
+        @NotNull JDBCStatement dbStat,
+        @NotNull Object cache,
+        @NotNull String kind,
+        @NotNull DBSObject owner,
+        @Nullable DBSObject forObject,
+        @NotNull StatementFactory statementFactory) throws SQLException
+    {
+        JDBCMetadataSnapshot snapshot = session.getDataSource().getMetadataSnapshot();
+        String parameters = getStatementParameters(dbStat);
+        if (snapshot == null || parameters == null || !owner.isPersisted() || (forObject != null && !forObject.isPersisted())) {
+            dbStat.executeStatement();
+            return dbStat.getResultSet();
+        }
+        return snapshot.readResults(session, dbStat, makeKey(cache, kind, owner, forObject, parameters), owner, statementFactory);
+    }
+
+    @Nullable
+    private JDBCResultSet readResults(
+        @NotNull JDBCSession session,
+        @NotNull JDBCStatement dbStat,
+        @NotNull String key,
+        @NotNull DBSObject owner,
+        @NotNull StatementFactory statementFactory) throws SQLException
+    {
+        waitForLoad();
+        String query = CommonUtils.notEmpty(dbStat.getQueryString());
+        String ownerVersion = getOwnerVersion(session, owner);
+        if (servedKeys.add(key)) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (!entry.query.equals(query) || (ownerVersion != null && !ownerVersion.equals(entry.ownerVersion))) {
+                    // Query or object was changed
+                    removeEntry(key, entry);
+                } else {
+                    log.debug("Read '" + key + "' from metadata snapshot");
+                    entry.lastUsed = System.currentTimeMillis();
+                    if (ownerVersion == null && entry.lastUsed - entry.lastValidated > REVALIDATE_PERIOD_MS) {
+                        // Object changes can't be detected, check the actual results later
+                        revalidateJob.addRevalidation(new Revalidation(key, entry, owner, statementFactory));
+                    }
+                    return JDBCMetadataSnapshotResultSet.replay(session, dbStat, entry.columns, entry.rows);
+                }
+            }
+        }
+
+        dbStat.executeStatement();
+        JDBCResultSet resultSet = dbStat.getResultSet();
+        if (resultSet == null) {
+            return null;
+        }
+        return JDBCMetadataSnapshotResultSet.record(session, dbStat, resultSet, (columns, rows, supported) -> {
+            if (supported) {
+                long currentTime = System.currentTimeMillis();
+                putEntry(key, new Entry(query, ownerVersion, columns, rows, currentTime, currentTime));
+            } else {
+                removeEntry(key, null);
+            }
+        });
+    }
+
+    private void putEntry(@NotNull String key, @NotNull Entry entry) {
+        Entry oldEntry = entries.put(key, entry);
+        valueCount.addAndGet(entry.getValueCount() - (oldEntry == null ? 0 : oldEntry.getValueCount()));
+        dirty = true;
+        if (valueCount.get() > maxValueCount) {
+            evictEntries();
+        }
+    }
+
+    /**
+     * Removes entry. If expected entry is specified then entry is removed only if it wasn't replaced.
+     */
+    private void removeEntry(@NotNull String key, @Nullable Entry expectedEntry) {
+        Entry entry = entries.get(key);
+        if (entry != null && (expectedEntry == null || entry == expectedEntry) && entries.remove(key, entry)) {
+            valueCount.addAndGet(-entry.getValueCount());
+            dirty = true;
+        }
+    }
+
+    /**
+     * Removes entries which weren't used for a long time, then the least recently used entries
+     * until the snapshot is well below its size limit (so eviction doesn't run on each new entry).
+     */
+    private synchronized void evictEntries() {
+        long minLastUsed = System.currentTimeMillis() - MAX_ENTRY_AGE_MS;
+        List<Map.Entry<String, Entry>> entryList = new ArrayList<>(entries.entrySet());
+        entryList.sort(Comparator.comparingLong(e -> e.getValue().lastUsed));
+        for (Map.Entry<String, Entry> mapEntry : entryList) {
+            if (mapEntry.getValue().lastUsed >= minLastUsed && valueCount.get() <= maxValueCount * 3 / 4) {
+                break;
+            }
+            removeEntry(mapEntry.getKey(), mapEntry.getValue());
+        }
+    }
+
+    @Nullable
+    private String getOwnerVersion(@NotNull JDBCSession session, @NotNull DBSObject owner) {
+        if (!(dataSource instanceof JDBCMetadataVersionProvider)) {
+            return null;
+        }
+        return ownerVersions.computeIfAbsent(DBUtils.getObjectFullId(owner), id -> {
+            try {
+                return Optional.ofNullable(((JDBCMetadataVersionProvider) dataSource).getMetadataVersion(session, owner));
+            } catch (SQLException e) {
+                log.debug("Error reading metadata version of '" + id + "'", e);
+                return Optional.empty();
+            }
+        }).orElse(null);
+    }
+
+    /**
+     * Saves snapshot in background if it was changed. Snapshot must not be used after this call.
+     */
+    public void save() {
+        revalidateJob.cancel();
+        if (snapshotFile != null) {
+            saveJob.schedule();
+        }
+    }
+
+    private void saveEntries() {
+        waitForLoad();
+        if (!dirty) {
+            return;
+        }
+        evictEntries();
+        dirty = false;
+        try {
+            Path folder = snapshotFile.getParent();
+            if (!Files.exists(folder)) {
+                Files.createDirectories(folder);
+            }
+            Path tmpFile = folder.resolve(snapshotFile.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(tmpFile))))) {
+                writeEntries(out);
+            }
+            Files.move(tmpFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.warn("Error saving metadata snapshot of '" + dataSource.getContainer().getName() + "'", e);
+        }
+    }
+
+    private void waitForLoad() {
+        if (loadJob.getState() == AbstractJob.NONE) {
+            return;
+        }
+        try {
+            loadJob.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns bound parameters of the statement or null if they are unknown.
+     */
+    @Nullable
+    private static String getStatementParameters(@NotNull JDBCStatement dbStat) {
+        if (dbStat instanceof JDBCPreparedStatementImpl) {
+            return ((JDBCPreparedStatementImpl) dbStat).getBoundParameters();
+        }
+        if (dbStat instanceof JDBCPreparedStatement) {
+            // Statement of a driver specific implementation, its results can't be keyed
+            return null;
+        }
+        return "";
+    }
+
+    @NotNull
+    private static String makeKey(
+        @NotNull Object cache,
+        @NotNull String kind,
+        @NotNull DBSObject owner,
+        @Nullable DBSObject forObject,
+        @NotNull String parameters)
+    {
+        StringBuilder key = new StringBuilder()
+            .append(cache.getClass().getName()).append('|')
+            .append(kind).append('|')
+            .append(DBUtils.getObjectFullId(owner));
+        if (forObject != null) {
+            key.append('|').append(DBUtils.getObjectFullId(forObject));
+        }
+        if (!parameters.isEmpty()) {
+            key.append('|').append(parameters);
+        }
+        return key.toString();
+    }
+
+    private void readEntries(@NotNull DataInputStream in) throws IOException {
+        if (in.readInt() != SNAPSHOT_MAGIC) {
+            throw new IOException("Bad metadata snapshot format");
+        }
+        if (in.readInt() != SNAPSHOT_VERSION) {
+            // Snapshot of other version. It will be rewritten on save
+            return;
+        }
+        int entryCount = in.readInt();
+        for (int i = 0; i < entryCount; i++) {
+            String key = readString(in);
+            String query = readString(in);
+            String ownerVersion = readString(in);
+            long lastUsed = in.readLong();
+            long lastValidated = in.readLong();
+            int columnCount = in.readInt();
+            String[] labels = new String[columnCount];
+            String[] names = new String[columnCount];
+            int[] types = new int[columnCount];
+            for (int k = 0; k < columnCount; k++) {
+                labels[k] = readString(in);
+                names[k] = readString(in);
+                types[k] = in.readInt();
+            }
+            int rowCount = in.readInt();
+            List<Object[]> rows = new ArrayList<>(rowCount);
+            for (int r = 0; r < rowCount; r++) {
+                Object[] row = new Object[columnCount];
+                for (int k = 0; k < columnCount; k++) {
+                    row[k] = readValue(in);
+                }
+                rows.add(row);
+            }
+            if (key != null && query != null && !entries.containsKey(key)) {
+                putEntry(key, new Entry(query, ownerVersion, new JDBCMetadataSnapshotResultSet.Columns(labels, names, types), rows, lastUsed, lastValidated));
+            }
+        }
+    }
+
+    private void writeEntries(@NotNull DataOutputStream out) throws IOException {
+        List<Map.Entry<String, Entry>> entryList = new ArrayList<>(entries.entrySet());
+        out.writeInt(SNAPSHOT_MAGIC);
+        out.writeInt(SNAPSHOT_VERSION);
+        out.writeInt(entryList.size());
+        for (Map.Entry<String, Entry> mapEntry : entryList) {
+            Entry entry = mapEntry.getValue();
+            writeString(out, mapEntry.getKey());
+            writeString(out, entry.query);
+            writeString(out, entry.ownerVersion);
+            out.writeLong(entry.lastUsed);
+            out.writeLong(entry.lastValidated);
+            JDBCMetadataSnapshotResultSet.Columns columns = entry.columns;
+            out.writeInt(columns.getCount());
+            for (int k = 0; k < columns.getCount(); k++) {
+                writeString(out, columns.labels[k]);
+                writeString(out, columns.names[k]);
+                out.writeInt(columns.types[k]);
+            }
+            out.writeInt(entry.rows.size());
+            for (Object[] row : entry.rows) {
+                for (Object value : row) {
+                    writeValue(out, value);
+                }
+            }
+        }
+    }
+
+    @Nullable
+    private static Object readValue(@NotNull DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case TYPE_NULL:
+                return null;
+            case TYPE_STRING:
+                return readString(in);
+            case TYPE_BOOLEAN:
+                return in.readBoolean();
+            case TYPE_INT:
+                return in.readInt();
+            case TYPE_LONG:
+                return in.readLong();
+            case TYPE_DOUBLE:
+                return in.readDouble();
+            case TYPE_DECIMAL:
+                return new BigDecimal(readString(in));
+            case TYPE_BYTES: {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                return bytes;
+            }
+            case TYPE_TIMESTAMP: {
+                Timestamp timestamp = new Timestamp(in.readLong());
+                timestamp.setNanos(in.readInt());
+                return timestamp;
+            }
+            case TYPE_DATE:
+                return new java.sql.Date(in.readLong());
+            case TYPE_TIME:
+                return new Time(in.readLong());
+            case TYPE_STRING_OVERRIDE: {
+                Object value = readValue(in);
+                String string = readString(in);
+                return value == null || string == null ? value : new JDBCMetadataSnapshotResultSet.StringOverride(value, string);
+            }
+            default:
+                throw new IOException("Bad metadata snapshot value type: " + type);
+        }
+    }
+
+    private static void writeValue(@NotNull DataOutputStream out, @Nullable Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(TYPE_NULL);
+        } else if (value instanceof String) {
+            out.writeByte(TYPE_STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(TYPE_BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            out.writeByte(TYPE_INT);
+            out.writeInt(((Number) value).intValue());
+        } else if (value instanceof Long) {
+            out.writeByte(TYPE_LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Double || value instanceof Float) {
+            out.writeByte(TYPE_DOUBLE);
+            out.writeDouble(((Number) value).doubleValue());
+        } else if (value instanceof BigDecimal || value instanceof BigInteger) {
+            out.writeByte(TYPE_DECIMAL);
+            writeString(out, value instanceof BigDecimal ? ((BigDecimal) value).toString() : value.toString());
+        } else if (value instanceof byte[]) {
+            out.writeByte(TYPE_BYTES);
+            out.writeInt(((byte[]) value).length);
+            out.write((byte[]) value);
+        } else if (value instanceof Timestamp) {
+            out.writeByte(TYPE_TIMESTAMP);
+            out.writeLong(((Timestamp) value).getTime());
+            out.writeInt(((Timestamp) value).getNanos());
+        } else if (value instanceof java.sql.Date) {
+            out.writeByte(TYPE_DATE);
+            out.writeLong(((java.sql.Date) value).getTime());
+        } else if (value instanceof Time) {
+            out.writeByte(TYPE_TIME);
+            out.writeLong(((Time) value).getTime());
+        } else if (value instanceof JDBCMetadataSnapshotResultSet.StringOverride) {
+            out.writeByte(TYPE_STRING_OVERRIDE);
+            writeValue(out, ((JDBCMetadataSnapshotResultSet.StringOverride) value).value);
+            writeString(out, ((JDBCMetadataSnapshotResultSet.StringOverride) value).string);
+        } else {
+            // Shouldn't be here, unsupported values are converted to strings when recorded
+            out.writeByte(TYPE_STRING);
+            writeString(out, value.toString());
+        }
+    }
+
+    @Nullable
+    private static String readString(@NotNull DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(@NotNull DataOutputStream out, @Nullable String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private class LoadJob extends AbstractJob {
+        LoadJob() {
+            super("Load metadata snapshot of '" + dataSource.getContainer().getName() + "'");
+            setSystem(true);
+            setUser(false);
+            setRule(new SnapshotFileRule(snapshotFile));
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor monitor) {
+            if (!Files.exists(snapshotFile)) {
+                return Status.OK_STATUS;
+            }
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(snapshotFile))))) {
+                readEntries(in);
+                // Loaded entries are not modified yet
+                dirty = false;
+            } catch (Exception e) {
+                log.warn("Error reading metadata snapshot of '" + dataSource.getContainer().getName() + "', it will be recreated", e);
+                entries.clear();
+                valueCount.set(0);
+                dirty = true;
+            }
+            return Status.OK_STATUS;
+        }
+    }
+
+    private class RevalidateJob extends AbstractJob {
+        private final Queue<Revalidation> revalidations = new ConcurrentLinkedQueue<>();
+
+        RevalidateJob() {
+            super("Revalidate metadata snapshot of '" + dataSource.getContainer().getName() + "'");
+            setSystem(true);
+            setUser(false);
+        }
+
+        void addRevalidation(@NotNull Revalidation revalidation) {
+            revalidations.add(revalidation);
+            schedule(REVALIDATE_DELAY_MS);
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor monitor) {
+            for (Revalidation revalidation = revalidations.poll(); revalidation != null; revalidation = revalidations.poll()) {
+                if (monitor.isCanceled() || !dataSource.getContainer().isConnected()) {
+                    revalidations.clear();
+                    break;
+                }
+                revalidate(monitor, revalidation);
+            }
+            return Status.OK_STATUS;
+        }
+
+        private void revalidate(@NotNull DBRProgressMonitor monitor, @NotNull Revalidation revalidation) {
+            List<Object[]> rows;
+            try (JDBCSession session = DBUtils.openMetaSession(monitor, revalidation.owner, "Revalidate metadata snapshot")) {
+                try (JDBCStatement dbStat = revalidation.statementFactory.prepareStatement(session)) {
+                    dbStat.setFetchSize(DBConstants.METADATA_FETCH_SIZE);
+                    dbStat.executeStatement();
+                    try (JDBCResultSet dbResult = dbStat.getResultSet()) {
+                        if (dbResult == null) {
+                            return;
+                        }
+                        rows = JDBCMetadataSnapshotResultSet.readRows(dbResult, JDBCMetadataSnapshotResultSet.Columns.read(dbResult.getMetaData()));
+                    }
+                }
+            } catch (Exception e) {
+                log.debug("Error revalidating metadata snapshot entry '" + revalidation.key + "'", e);
+                return;
+            }
+            if (isSameRows(rows, revalidation.entry.rows)) {
+                revalidation.entry.lastValidated = System.currentTimeMillis();
+                dirty = true;
+                return;
+            }
+            log.debug("Metadata snapshot entry '" + revalidation.key + "' is outdated");
+            removeEntry(revalidation.key, revalidation.entry);
+            try {
+                refreshObject(monitor, revalidation.owner);
+            } catch (DBException e) {
+                log.debug("Error refreshing '" + DBUtils.getObjectFullName(revalidation.owner, DBPEvaluationContext.UI) + "'", e);
+            }
+        }
+
+        private void refreshObject(@NotNull DBRProgressMonitor monitor, @NotNull DBSObject object) throws DBException {
+            if (!(object instanceof DBPRefreshableObject)) {
+                // Changes will be visible after explicit refresh or reconnect
+                return;
+            }
+            DBNModel navigatorModel = dataSource.getContainer().getProject().getNavigatorModel();
+            DBNDatabaseNode node = navigatorModel == null ? null : navigatorModel.getNodeByObject(object);
+            if (node != null) {
+                node.refreshNode(monitor, this);
+            } else {
+                ((DBPRefreshableObject) object).refreshObject(monitor);
+            }
+        }
+    }
+
+    private class SaveJob extends AbstractJob {
+        SaveJob() {
+            super("Save metadata snapshot of '" + dataSource.getContainer().getName() + "'");
+            setSystem(true);
+            setUser(false);
+            // Snapshot is loaded on the next connect only after it is saved
+            setRule(new SnapshotFileRule(snapshotFile));
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor monitor) {
+            saveEntries();
+            return Status.OK_STATUS;
+        }
+    }
+
+    /**
+     * Serializes jobs which read and write the same snapshot file
+     */
+    private static class SnapshotFileRule implements ISchedulingRule {
+        private final Path file;
+
+        SnapshotFileRule(@Nullable Path file) {
+            this.file = file;
+        }
+
+        @Override
+        public boolean contains(ISchedulingRule rule) {
+            return rule == this;
+        }
+
+        @Override
+        public boolean isConflicting(ISchedulingRule rule) {
+            return rule instanceof SnapshotFileRule && Objects.equals(file, ((SnapshotFileRule) rule).file);
+        }
+    }
+
+    private static boolean isSameRows(@NotNull List<Object[]> rows1, @NotNull List<Object[]> rows2) {
+        if (rows1.size() != rows2.size()) {
+            return false;
+        }
+        for (int i = 0; i < rows1.size(); i++) {
+            if (!Arrays.deepEquals(rows1.get(i), rows2.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
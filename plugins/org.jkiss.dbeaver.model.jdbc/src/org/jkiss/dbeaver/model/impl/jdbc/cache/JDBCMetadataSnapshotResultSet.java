@@ -0,0 +1,553 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.impl.jdbc.cache;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCStatement;
+import org.jkiss.dbeaver.model.impl.jdbc.exec.JDBCResultSetImpl;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.util.*;
+
+/**
+ * Metadata result set which reads rows from the snapshot or records rows of the live result set into the snapshot.
+ * <p>
+ * In both cases column values are returned from the snapshot rows, so cache loaders get the same values
+ * regardless of where they come from. Access which can't be replayed (arrays, LOBs, driver specific objects)
+ * marks recorded rows as unsupported, such rows are never stored in the snapshot.
+ */
+class JDBCMetadataSnapshotResultSet extends JDBCResultSetImpl {
+
+    private static final Log log = Log.getLog(JDBCMetadataSnapshotResultSet.class);
+
+    /**
+     * Result set columns
+     */
+    static class Columns {
+        final String[] labels;
+        final String[] names;
+        final int[] types;
+        final Map<String, Integer> labelIndex = new HashMap<>();
+
+        Columns(@NotNull String[] labels, @NotNull String[] names, @NotNull int[] types) {
+            this.labels = labels;
+            this.names = names;
+            this.types = types;
+            for (int i = labels.length; i > 0; i--) {
+                labelIndex.put(labels[i - 1].toUpperCase(Locale.ENGLISH), i);
+            }
+        }
+
+        int getCount() {
+            return labels.length;
+        }
+
+        @NotNull
+        static Columns read(@NotNull ResultSetMetaData metaData) throws SQLException {
+            int count = metaData.getColumnCount();
+            String[] labels = new String[count];
+            String[] names = new String[count];
+            int[] types = new int[count];
+            for (int i = 0; i < count; i++) {
+                labels[i] = metaData.getColumnLabel(i + 1);
+                names[i] = metaData.getColumnName(i + 1);
+                types[i] = metaData.getColumnType(i + 1);
+            }
+            return new Columns(labels, names, types);
+        }
+    }
+
+    /**
+     * Value which string representation differs from the default one (e.g. boolean 't' in PostgreSQL)
+     */
+    static class StringOverride {
+        final Object value;
+        final String string;
+
+        StringOverride(@NotNull Object value, @NotNull String string) {
+            this.value = value;
+            this.string = string;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof StringOverride &&
+                Objects.deepEquals(value, ((StringOverride) obj).value) &&
+                string.equals(((StringOverride) obj).string);
+        }
+
+        @Override
+        public int hashCode() {
+            return string.hashCode();
+        }
+    }
+
+    interface RecordListener {
+        void recordFinished(@NotNull Columns columns, @NotNull List<Object[]> rows, boolean supported);
+    }
+
+    private JDBCMetadataSnapshotResultSet(@NotNull JDBCSession session, @NotNull JDBCStatement statement, @NotNull RowsHandler handler) {
+        super(session, statement, handler.createProxy(), "Metadata snapshot", true);
+    }
+
+    /**
+     * Creates result set which returns snapshot rows
+     */
+    @NotNull
+    static JDBCMetadataSnapshotResultSet replay(
+        @NotNull JDBCSession session,
+        @NotNull JDBCStatement statement,
+        @NotNull Columns columns,
+        @NotNull List<Object[]> rows)
+    {
+        return new JDBCMetadataSnapshotResultSet(session, statement, new RowsHandler(columns, rows, null, null));
+    }
+
+    /**
+     * Creates result set which reads live result set and records its rows
+     */
+    @NotNull
+    static JDBCMetadataSnapshotResultSet record(
+        @NotNull JDBCSession session,
+        @NotNull JDBCStatement statement,
+        @NotNull ResultSet liveResultSet,
+        @NotNull RecordListener listener) throws SQLException
+    {
+        Columns columns = Columns.read(liveResultSet.getMetaData());
+        return new JDBCMetadataSnapshotResultSet(session, statement, new RowsHandler(columns, new ArrayList<>(), liveResultSet, listener));
+    }
+
+    /**
+     * Reads all rows of the live result set
+     */
+    @NotNull
+    static List<Object[]> readRows(@NotNull ResultSet resultSet, @NotNull Columns columns) throws SQLException {
+        List<Object[]> rows = new ArrayList<>();
+        while (resultSet.next()) {
+            rows.add(readRow(resultSet, columns, null, null));
+        }
+        return rows;
+    }
+
+    /**
+     * Reads current row of the live result set.
+     * Columns which values can't be read as objects are read as strings and marked in unreadColumns.
+     */
+    @NotNull
+    private static Object[] readRow(
+        @NotNull ResultSet resultSet,
+        @NotNull Columns columns,
+        @Nullable Object[] rawValues,
+        @Nullable boolean[] unreadColumns)
+    {
+        Object[] row = new Object[columns.getCount()];
+        // Each column is read once and in order (Oracle LONG columns can't be read twice)
+        for (int i = 0; i < row.length; i++) {
+            Object value;
+            try {
+                value = resultSet.getObject(i + 1);
+            } catch (SQLException e) {
+                log.debug("Error reading value of column " + (i + 1) + " (" + columns.labels[i] + ")", e);
+                value = readString(resultSet, i + 1);
+                if (unreadColumns != null) {
+                    unreadColumns[i] = true;
+                }
+            }
+            if (rawValues != null) {
+                rawValues[i] = value;
+            }
+            if (value == null || value instanceof String) {
+                row[i] = value;
+                continue;
+            }
+            String string = readString(resultSet, i + 1);
+            if (isSupportedType(value)) {
+                row[i] = string == null || string.equals(getDefaultString(value)) ? value : new StringOverride(value, string);
+            } else {
+                // Driver specific object. Only string representation can be replayed
+                row[i] = string != null ? string : value.toString();
+            }
+        }
+        return row;
+    }
+
+    @Nullable
+    private static String readString(@NotNull ResultSet resultSet, int column) {
+        try {
+            return resultSet.getString(column);
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+
+    static boolean isSupportedType(@NotNull Object value) {
+        return value instanceof String || value instanceof Boolean ||
+            value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte ||
+            value instanceof Double || value instanceof Float || value instanceof BigDecimal || value instanceof BigInteger ||
+            value instanceof byte[] ||
+            value instanceof Timestamp || value instanceof java.sql.Date || value instanceof Time;
+    }
+
+    @NotNull
+    private static String getDefaultString(@NotNull Object value) {
+        if (value instanceof BigDecimal) {
+            return ((BigDecimal) value).toPlainString();
+        } else if (value instanceof byte[]) {
+            return new String((byte[]) value, StandardCharsets.UTF_8);
+        }
+        return value.toString();
+    }
+
+    private static class RowsHandler implements InvocationHandler {
+        private final Columns columns;
+        private final List<Object[]> rows;
+        @Nullable
+        private final ResultSet liveResultSet;
+        @Nullable
+        private final RecordListener listener;
+        private final Object[] rawValues;
+        private final boolean[] convertedColumns;
+        private final boolean[] unreadColumns;
+        private ResultSetMetaData metaData;
+        private int rowNumber;
+        private Object[] currentRow;
+        private boolean wasNull;
+        private boolean exhausted;
+        private boolean supported = true;
+        private boolean closed;
+
+        RowsHandler(@NotNull Columns columns, @NotNull List<Object[]> rows, @Nullable ResultSet liveResultSet, @Nullable RecordListener listener) {
+            this.columns = columns;
+            this.rows = rows;
+            this.liveResultSet = liveResultSet;
+            this.listener = listener;
+            this.rawValues = new Object[columns.getCount()];
+            this.convertedColumns = new boolean[columns.getCount()];
+            this.unreadColumns = new boolean[columns.getCount()];
+        }
+
+        @NotNull
+        ResultSet createProxy() {
+            return (ResultSet) Proxy.newProxyInstance(
+                JDBCMetadataSnapshotResultSet.class.getClassLoader(),
+                new Class[]{ResultSet.class},
+                this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            int argCount = args == null ? 0 : args.length;
+            switch (name) {
+                case "next":
+                    return nextRow();
+                case "close":
+                    close();
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "wasNull":
+                    return wasNull;
+                case "findColumn":
+                    return findColumn((String) args[0]);
+                case "getMetaData":
+                    return getMetaData();
+                case "getRow":
+                    return rowNumber;
+                case "getType":
+                    return ResultSet.TYPE_FORWARD_ONLY;
+                case "getConcurrency":
+                    return ResultSet.CONCUR_READ_ONLY;
+                case "getWarnings":
+                    return liveResultSet == null ? null : liveResultSet.getWarnings();
+                case "clearWarnings":
+                case "setFetchSize":
+                case "setFetchDirection":
+                    return null;
+                case "getFetchSize":
+                    return 0;
+                case "getFetchDirection":
+                    return ResultSet.FETCH_FORWARD;
+                case "isWrapperFor":
+                    return false;
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return "Metadata snapshot result set";
+                default:
+                    break;
+            }
+            if (argCount == 1 && name.startsWith("get") && (args[0] instanceof Integer || args[0] instanceof String)) {
+                int column = args[0] instanceof Integer ? (Integer) args[0] : findColumn((String) args[0]);
+                Object value = getColumnValue(column);
+                wasNull = value == null;
+                try {
+                    switch (name) {
+                        case "getString":
+                        case "getNString":
+                            return toString(value);
+                        case "getObject":
+                            if (convertedColumns[column - 1]) {
+                                // Driver specific object
+                                return handleUnsupported(method, args);
+                            }
+                            return value instanceof StringOverride ? ((StringOverride) value).value : value;
+                        case "getBoolean":
+                            return toBoolean(value);
+                        case "getByte":
+                            return value == null ? 0 : (byte) toNumber(value).intValue();
+                        case "getShort":
+                            return value == null ? 0 : (short) toNumber(value).intValue();
+                        case "getInt":
+                            return value == null ? 0 : toNumber(value).intValue();
+                        case "getLong":
+                            return value == null ? 0L : toNumber(value).longValue();
+                        case "getFloat":
+                            return value == null ? 0f : toNumber(value).floatValue();
+                        case "getDouble":
+                            return value == null ? 0d : toNumber(value).doubleValue();
+                        case "getBigDecimal":
+                            return value == null ? null : toNumber(value);
+                        case "getBytes":
+                            return toBytes(value);
+                        case "getTimestamp":
+                            return toTimestamp(value);
+                        case "getDate":
+                            return value == null ? null : new java.sql.Date(toTimestamp(value).getTime());
+                        case "getTime":
+                            return value == null ? null : new Time(toTimestamp(value).getTime());
+                        default:
+                            break;
+                    }
+                } catch (NumberFormatException | ArithmeticException e) {
+                    throw new SQLException("Can't convert value of column " + column + " (" + name + ")", e);
+                }
+            }
+            return handleUnsupported(method, args);
+        }
+
+        private Object handleUnsupported(@NotNull Method method, @Nullable Object[] args) throws Throwable {
+            if (liveResultSet == null) {
+                throw new SQLFeatureNotSupportedException("Metadata snapshot doesn't support " + method.getName());
+            }
+            // Can't be replayed later
+            supported = false;
+            if (method.getName().equals("getObject") && args != null && args.length == 1 && args[0] instanceof Integer) {
+                return rawValues[(Integer) args[0] - 1];
+            }
+            try {
+                return method.invoke(liveResultSet, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+
+        private boolean nextRow() throws SQLException {
+            if (closed) {
+                throw new SQLException("Result set is closed");
+            }
+            if (liveResultSet != null) {
+                if (exhausted || !liveResultSet.next()) {
+                    exhausted = true;
+                    currentRow = null;
+                    return false;
+                }
+                Arrays.fill(unreadColumns, false);
+                currentRow = readRow(liveResultSet, columns, rawValues, unreadColumns);
+                for (int i = 0; i < currentRow.length; i++) {
+                    if (unreadColumns[i]) {
+                        // Only string value (if any) is available. Object value can't be replayed
+                        convertedColumns[i] = true;
+                        if (currentRow[i] == null) {
+                            supported = false;
+                        }
+                    } else if (currentRow[i] != null && rawValues[i] != null && !isSupportedType(rawValues[i])) {
+                        convertedColumns[i] = true;
+                    }
+                }
+                rows.add(currentRow);
+                rowNumber++;
+                return true;
+            }
+            if (rowNumber >= rows.size()) {
+                currentRow = null;
+                return false;
+            }
+            currentRow = rows.get(rowNumber++);
+            return true;
+        }
+
+        private void close() throws SQLException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (liveResultSet != null) {
+                try {
+                    liveResultSet.close();
+                } finally {
+                    if (listener != null && exhausted) {
+                        // Only completely read results may be stored
+                        listener.recordFinished(columns, rows, supported);
+                    }
+                }
+            }
+        }
+
+        private int findColumn(@NotNull String label) throws SQLException {
+            Integer index = columns.labelIndex.get(label.toUpperCase(Locale.ENGLISH));
+            if (index == null) {
+                throw new SQLException("Column '" + label + "' not found");
+            }
+            return index;
+        }
+
+        @Nullable
+        private Object getColumnValue(int column) throws SQLException {
+            if (currentRow == null) {
+                throw new SQLException("No current row");
+            }
+            if (column < 1 || column > currentRow.length) {
+                throw new SQLException("Column index " + column + " is out of range");
+            }
+            return currentRow[column - 1];
+        }
+
+        @NotNull
+        private ResultSetMetaData getMetaData() {
+            if (metaData == null) {
+                metaData = (ResultSetMetaData) Proxy.newProxyInstance(
+                    JDBCMetadataSnapshotResultSet.class.getClassLoader(),
+                    new Class[]{ResultSetMetaData.class},
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "getColumnCount":
+                                return columns.getCount();
+                            case "getColumnLabel":
+                                return columns.labels[(Integer) args[0] - 1];
+                            case "getColumnName":
+                                return columns.names[(Integer) args[0] - 1];
+                            case "getColumnType":
+                                return columns.types[(Integer) args[0] - 1];
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            case "equals":
+                                return proxy == args[0];
+                            case "toString":
+                                return "Metadata snapshot result set metadata";
+                            default:
+                                // Everything else is unknown
+                                Class<?> returnType = method.getReturnType();
+                                if (returnType == boolean.class) {
+                                    return false;
+                                } else if (returnType == int.class) {
+                                    return 0;
+                                }
+                                return returnType == String.class ? "" : null;
+                        }
+                    });
+            }
+            return metaData;
+        }
+    }
+
+    @Nullable
+    private static String toString(@Nullable Object value) {
+        if (value == null) {
+            return null;
+        } else if (value instanceof StringOverride) {
+            return ((StringOverride) value).string;
+        }
+        return getDefaultString(value);
+    }
+
+    private static boolean toBoolean(@Nullable Object value) {
+        if (value instanceof StringOverride) {
+            value = ((StringOverride) value).value;
+        }
+        if (value == null) {
+            return false;
+        } else if (value instanceof Boolean) {
+            return (Boolean) value;
+        } else if (value instanceof Number) {
+            return toNumber(value).signum() != 0;
+        }
+        String str = value.toString().trim();
+        return str.equals("1") || str.equalsIgnoreCase("t") || str.equalsIgnoreCase("true") ||
+            str.equalsIgnoreCase("y") || str.equalsIgnoreCase("yes");
+    }
+
+    @NotNull
+    private static BigDecimal toNumber(@NotNull Object value) {
+        if (value instanceof StringOverride) {
+            value = ((StringOverride) value).value;
+        }
+        if (value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        } else if (value instanceof BigInteger) {
+            return new BigDecimal((BigInteger) value);
+        } else if (value instanceof Double || value instanceof Float) {
+            return BigDecimal.valueOf(((Number) value).doubleValue());
+        } else if (value instanceof Number) {
+            return BigDecimal.valueOf(((Number) value).longValue());
+        } else if (value instanceof Boolean) {
+            return (Boolean) value ? BigDecimal.ONE : BigDecimal.ZERO;
+        }
+        return new BigDecimal(value.toString().trim());
+    }
+
+    @Nullable
+    private static byte[] toBytes(@Nullable Object value) {
+        if (value instanceof StringOverride) {
+            value = ((StringOverride) value).value;
+        }
+        if (value == null || value instanceof byte[]) {
+            return (byte[]) value;
+        }
+        return value.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Nullable
+    private static Timestamp toTimestamp(@Nullable Object value) throws SQLException {
+        if (value instanceof StringOverride) {
+            value = ((StringOverride) value).value;
+        }
+        if (value == null || value instanceof Timestamp) {
+            return (Timestamp) value;
+        } else if (value instanceof java.util.Date) {
+            return new Timestamp(((java.util.Date) value).getTime());
+        }
+        try {
+            return Timestamp.valueOf(value.toString().trim());
+        } catch (IllegalArgumentException e) {
+            throw new SQLException("Can't convert '" + value + "' to timestamp", e);
+        }
+    }
+
+}
@@ -0,0 +1,39 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.impl.jdbc.cache;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
+import org.jkiss.dbeaver.model.struct.DBSObject;
+
+import java.sql.SQLException;
+
+/**
+ * Data source which can detect metadata changes.
+ * Used by {@link JDBCMetadataSnapshot} to drop snapshot entries of changed objects.
+ */
+public interface JDBCMetadataVersionProvider {
+
+    /**
+     * Returns version of metadata of the specified cache owner (e.g. last DDL time of schema objects).
+     * Returns null if version can't be determined, in this case snapshot entries of the owner are trusted.
+     */
+    @Nullable
+    String getMetadataVersion(@NotNull JDBCSession session, @NotNull DBSObject owner) throws SQLException;
+
+}
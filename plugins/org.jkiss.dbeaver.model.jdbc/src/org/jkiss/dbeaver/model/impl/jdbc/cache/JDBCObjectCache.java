@@ -107,8 +107,8 @@ public abstract class JDBCObjectCache<OWNER extends DBSObject, OBJECT extends DB
                     try (JDBCStatement dbStat = prepareObjectsStatement(session, owner)) {
                         monitor.subTask("Load " + getCacheName());
                         dbStat.setFetchSize(DBConstants.METADATA_FETCH_SIZE);
-                        dbStat.executeStatement();
-                        JDBCResultSet dbResult = dbStat.getResultSet();
+                        JDBCResultSet dbResult = JDBCMetadataSnapshot.executeStatement(session, dbStat, this, "objects", owner, null,
+                            s -> prepareObjectsStatement(s, owner));
                         if (dbResult != null) {
                             try {
                                 while (dbResult.next()) {
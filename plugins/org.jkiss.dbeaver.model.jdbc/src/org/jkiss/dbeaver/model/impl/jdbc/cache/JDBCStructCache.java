@@ -95,8 +95,8 @@ public abstract class JDBCStructCache<OWNER extends DBSObject, OBJECT extends DB
             // Load columns
             try (JDBCStatement dbStat = prepareChildrenStatement(session, owner, forObject)) {
                 dbStat.setFetchSize(DBConstants.METADATA_FETCH_SIZE);
-                dbStat.executeStatement();
-                JDBCResultSet dbResult = dbStat.getResultSet();
+                JDBCResultSet dbResult = JDBCMetadataSnapshot.executeStatement(session, dbStat, this, "children", owner, forObject,
+                    s -> prepareChildrenStatement(s, owner, forObject));
                 if (dbResult != null) {
                     try {
                         while (dbResult.next()) {
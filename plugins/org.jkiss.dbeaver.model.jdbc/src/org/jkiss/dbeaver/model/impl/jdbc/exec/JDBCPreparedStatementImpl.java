@@ -53,6 +53,8 @@ public class JDBCPreparedStatementImpl extends JDBCStatementImpl<PreparedStateme
     private static final Object NULL_VALUE = new Object();
 
     private Map<Object, Object> paramMap;
+    // Parameters are a part of metadata snapshot keys
+    private final boolean keepParameters;
 
     protected static class ContentParameter {
         String displayString;
@@ -81,6 +83,7 @@ public class JDBCPreparedStatementImpl extends JDBCStatementImpl<PreparedStateme
     {
         super(connection, original, disableLogging);
         setQueryString(query);
+        this.keepParameters = connection.getDataSource() != null && connection.getDataSource().getMetadataSnapshot() != null;
     }
 
     @Override
@@ -148,6 +151,28 @@ public class JDBCPreparedStatementImpl extends JDBCStatementImpl<PreparedStateme
         }
     }
 
+    /**
+     * Returns bound parameter values or null if parameters are not kept for this statement.
+     * Parameters are kept when query manager logging is enabled or data source has a metadata snapshot.
+     */
+    @Nullable
+    public String getBoundParameters() {
+        if (!isQMLoggingEnabled() && !keepParameters) {
+            return null;
+        }
+        if (paramMap == null) {
+            return "";
+        }
+        StringBuilder params = new StringBuilder();
+        for (Map.Entry<Object, Object> param : paramMap.entrySet()) {
+            if (params.length() > 0) {
+                params.append(',');
+            }
+            params.append(param.getKey()).append('=').append(formatParameterValue(param.getValue()));
+        }
+        return params.toString();
+    }
+
     @NotNull
     private String formatParameterValue(Object value) {
         if (value instanceof CharSequence) {
@@ -175,7 +200,7 @@ public class JDBCPreparedStatementImpl extends JDBCStatementImpl<PreparedStateme
 
     protected void handleStatementBind(Object parameter, @Nullable Object o)
     {
-        if (isQMLoggingEnabled()) {
+        if (isQMLoggingEnabled() || keepParameters) {
             // Save parameters
             if (o == null) {
                 o = NULL_VALUE;
@@ -187,7 +212,7 @@ public class JDBCPreparedStatementImpl extends JDBCStatementImpl<PreparedStateme
                 paramMap = new LinkedHashMap<>();
             }
             paramMap.put(parameter, o);
-            if (getSession().isLoggingEnabled()) {
+            if (isQMLoggingEnabled() && getSession().isLoggingEnabled()) {
                 QMUtils.getDefaultHandler().handleStatementBind(this, parameter, o);
             }
         }
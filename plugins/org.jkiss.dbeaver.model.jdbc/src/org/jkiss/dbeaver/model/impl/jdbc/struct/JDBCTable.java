@@ -130,42 +130,8 @@ public abstract class JDBCTable<DATASOURCE extends DBPDataSource, CONTAINER exte
         DBCStatistics statistics = new DBCStatistics();
         boolean hasLimits = firstRow >= 0 && maxRows > 0;
 
-        DBPDataSource dataSource = session.getDataSource();
         DBRProgressMonitor monitor = session.getProgressMonitor();
-        try {
-            readRequiredMeta(monitor);
-        } catch (DBException e) {
-            log.warn(e);
-        }
-
-        DBDPseudoAttribute rowIdAttribute = (flags & FLAG_READ_PSEUDO) != 0 ?
-            DBUtils.getRowIdAttribute(this) : null;
-
-        // Always use alias if we have data filter or ROWID.
-        // Some criteria doesn't work without alias
-        // (e.g. structured attributes in Oracle or composite types in PostgreSQL requires table alias)
-        String tableAlias = null;
-        if (needAliasInSelect(dataFilter, rowIdAttribute, dataSource)) {
-            tableAlias = DEFAULT_TABLE_ALIAS;
-        }
-
-        if (rowIdAttribute != null && tableAlias == null) {
-            log.warn("Can't query ROWID - table alias not supported");
-            rowIdAttribute = null;
-        }
-
-        StringBuilder query = new StringBuilder(100);
-        query.append("SELECT ");
-        appendSelectSource(monitor, query, tableAlias, rowIdAttribute);
-        query.append(" FROM ").append(getTableName());
-        if (tableAlias != null) {
-            query.append(" ").append(tableAlias); //$NON-NLS-1$
-        }
-        appendExtraSelectParameters(query);
-        SQLUtils.appendQueryConditions(dataSource, query, tableAlias, dataFilter);
-        SQLUtils.appendQueryOrder(dataSource, query, tableAlias, dataFilter);
-
-        String sqlQuery = query.toString();
+        String sqlQuery = makeSelectQuery(monitor, session.getDataSource(), null, dataFilter, flags);
         statistics.setQueryText(sqlQuery);
 
         monitor.subTask(ModelMessages.model_jdbc_fetch_table_data);
@@ -226,6 +192,60 @@ public abstract class JDBCTable<DATASOURCE extends DBPDataSource, CONTAINER exte
         }
     }
 
+    /**
+     * Makes query which reads table data. It is the query of {@link #readData}, so it respects the table name,
+     * select source and alias of subclasses (e.g. partitions).
+     *
+     * @param selectList select list expression. If null then table attributes (and ROWID if {@link #FLAG_READ_PSEUDO}
+     *                   is set) are selected.
+     */
+    @NotNull
+    public String makeSelectQuery(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull DBPDataSource dataSource,
+        @Nullable String selectList,
+        @Nullable DBDDataFilter dataFilter,
+        long flags
+    ) throws DBCException {
+        try {
+            readRequiredMeta(monitor);
+        } catch (DBException e) {
+            log.warn(e);
+        }
+
+        DBDPseudoAttribute rowIdAttribute = selectList == null && (flags & FLAG_READ_PSEUDO) != 0 ?
+            DBUtils.getRowIdAttribute(this) : null;
+
+        // Always use alias if we have data filter or ROWID.
+        // Some criteria doesn't work without alias
+        // (e.g. structured attributes in Oracle or composite types in PostgreSQL requires table alias)
+        String tableAlias = null;
+        if (needAliasInSelect(dataFilter, rowIdAttribute, dataSource)) {
+            tableAlias = DEFAULT_TABLE_ALIAS;
+        }
+
+        if (rowIdAttribute != null && tableAlias == null) {
+            log.warn("Can't query ROWID - table alias not supported");
+            rowIdAttribute = null;
+        }
+
+        StringBuilder query = new StringBuilder(100);
+        query.append("SELECT ");
+        if (selectList != null) {
+            query.append(selectList);
+        } else {
+            appendSelectSource(monitor, query, tableAlias, rowIdAttribute);
+        }
+        query.append(" FROM ").append(getTableName());
+        if (tableAlias != null) {
+            query.append(" ").append(tableAlias); //$NON-NLS-1$
+        }
+        appendExtraSelectParameters(query);
+        SQLUtils.appendQueryConditions(dataSource, query, tableAlias, dataFilter);
+        SQLUtils.appendQueryOrder(dataSource, query, tableAlias, dataFilter);
+        return query.toString();
+    }
+
     @NotNull
     protected String getTableName() {
         return getFullyQualifiedName(DBPEvaluationContext.DML);
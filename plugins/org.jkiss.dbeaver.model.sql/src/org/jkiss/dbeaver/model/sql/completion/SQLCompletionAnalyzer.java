@@ -533,7 +533,8 @@ public class SQLCompletionAnalyzer implements DBRRunnableParametrized<DBRProgres
                 sc,
                 new DBSObjectType[] { RelationalObjectType.TYPE_PROCEDURE },
                 wordPart,
-                params);
+                params,
+                null);
         }
     }
 
@@ -872,6 +873,10 @@ public class SQLCompletionAnalyzer implements DBRRunnableParametrized<DBRProgres
                 if (i == 0) {
                     // Assume it's a table alias ?
                     childObject = getTableFromAlias(sc, token);
+                    if (childObject == null) {
+                        // Names index doesn't read metadata, so it is checked before structure assistant
+                        childObject = findIndexedObject(dataSource, sc, selectedContainers, token);
+                    }
                     if (childObject == null && !request.isSimpleMode()) {
                         // Search using structure assistant
                         DBSStructureAssistant structureAssistant = DBUtils.getAdapter(DBSStructureAssistant.class, sc);
@@ -920,18 +925,24 @@ public class SQLCompletionAnalyzer implements DBRRunnableParametrized<DBRProgres
                     }
                 }
 
-                if (proposals.isEmpty() && !request.isSimpleMode()) {
-                    // At last - try to find child tables by pattern
-                    DBSStructureAssistant<?> structureAssistant = null;
-                    for (DBSObject object = childObject; object != null; object =  object.getParentObject()) {
-                        structureAssistant = DBUtils.getAdapter(DBSStructureAssistant.class, object);
+                if (proposals.isEmpty()) {
+                    // Index contains only objects which were loaded in the navigator, so it only adds proposals.
+                    // Other objects of the scope are searched by the structure assistant.
+                    List<DBSObject> indexedObjects = findIndexedObjects(dataSource, sc, lastToken);
+                    makeProposalsFromIndex(indexedObjects, sc, parameters);
+                    if (!request.isSimpleMode() && !isIndexComplete(dataSource, sc)) {
+                        // At last - try to find child tables by pattern
+                        DBSStructureAssistant<?> structureAssistant = null;
+                        for (DBSObject object = childObject; object != null; object =  object.getParentObject()) {
+                            structureAssistant = DBUtils.getAdapter(DBSStructureAssistant.class, object);
+                            if (structureAssistant != null) {
+                                break;
+                            }
+                        }
                         if (structureAssistant != null) {
-                            break;
+                            makeProposalsFromAssistant(structureAssistant, sc, null, lastToken, parameters, indexedObjects);
                         }
                     }
-                    if (structureAssistant != null) {
-                        makeProposalsFromAssistant(structureAssistant, sc, null, lastToken, parameters);
-                    }
                 }
             }
         }
@@ -1377,8 +1388,16 @@ public class SQLCompletionAnalyzer implements DBRRunnableParametrized<DBRProgres
         @Nullable DBSObjectContainer rootSC,
         DBSObjectType[] objectTypes,
         String objectName,
-        @NotNull Map<String, Object> params) throws DBException
+        @NotNull Map<String, Object> params,
+        @Nullable Collection<DBSObject> proposedObjects) throws DBException
     {
+        // Objects which already have proposals (e.g. found in the names index)
+        Set<String> proposedNames = new HashSet<>();
+        if (proposedObjects != null) {
+            for (DBSObject object : proposedObjects) {
+                proposedNames.add(DBUtils.getObjectFullName(object, DBPEvaluationContext.DML));
+            }
+        }
         DBSStructureAssistant.ObjectsSearchParams assistantParams = new DBSStructureAssistant.ObjectsSearchParams(
                 objectTypes == null ? assistant.getAutoCompleteObjectTypes() : objectTypes,
                 makeObjectNameMask(objectName, rootSC)
@@ -1389,6 +1408,9 @@ public class SQLCompletionAnalyzer implements DBRRunnableParametrized<DBRProgres
         assistantParams.setMaxResults(MAX_STRUCT_PROPOSALS);
         Collection<DBSObjectReference> references = assistant.findObjectsByMask(monitor, request.getContext().getExecutionContext(), assistantParams);
         for (DBSObjectReference reference : references) {
+            if (proposedNames.contains(DBUtils.getObjectFullName(reference, DBPEvaluationContext.DML))) {
+                continue;
+            }
             proposals.add(
                 makeProposalsFromObject(
                     reference,
@@ -1398,6 +1420,104 @@ public class SQLCompletionAnalyzer implements DBRRunnableParametrized<DBRProgres
         }
     }
 
+    /**
+     * Finds object by name in the names index. If there are several objects with this name (e.g. in different schemas)
+     * then the object of the selected container is used.
+     *
+     * @return the object or null if there is no such object or the name is ambiguous
+     */
+    @Nullable
+    private DBSObject findIndexedObject(
+        @Nullable DBPDataSource dataSource,
+        @Nullable DBSObjectContainer sc,
+        @NotNull DBSObjectContainer[] selectedContainers,
+        @NotNull String token)
+    {
+        SQLCompletionNameIndex<DBSObject> index = dataSource == null ? null : SQLCompletionIndexManager.getIndex(dataSource);
+        if (index == null) {
+            return null;
+        }
+        boolean caseSensitive = request.getWordDetector().isQuoted(token);
+        String objectName = request.getWordDetector().removeQuotes(token);
+        List<DBSObject> objects = index.findExact(
+            objectName,
+            object -> !(object instanceof DBSEntityAttribute) && (!caseSensitive || object.getName().equals(objectName)));
+        if (objects.size() <= 1) {
+            return objects.isEmpty() ? null : objects.get(0);
+        }
+        // Nested selected containers go last
+        List<DBSObjectContainer> containers = new ArrayList<>();
+        for (int i = selectedContainers.length - 1; i >= 0; i--) {
+            if (selectedContainers[i] != null) {
+                containers.add(selectedContainers[i]);
+            }
+        }
+        if (sc != null) {
+            containers.add(sc);
+        }
+        for (DBSObjectContainer container : containers) {
+            DBSObject containerObject = null;
+            int containerObjectCount = 0;
+            for (DBSObject object : objects) {
+                if (DBUtils.isParentOf(object, container)) {
+                    containerObject = object;
+                    containerObjectCount++;
+                }
+            }
+            if (containerObjectCount == 1) {
+                return containerObject;
+            }
+        }
+        return null;
+    }
+
+    @NotNull
+    private List<DBSObject> findIndexedObjects(
+        @Nullable DBPDataSource dataSource,
+        @Nullable DBSObjectContainer rootSC,
+        @NotNull String objectName)
+    {
+        SQLCompletionNameIndex<DBSObject> index = dataSource == null ? null : SQLCompletionIndexManager.getIndex(dataSource);
+        if (index == null) {
+            return Collections.emptyList();
+        }
+        boolean caseSensitive = request.getWordDetector().isQuoted(objectName);
+        String namePattern = request.getWordDetector().removeQuotes(objectName);
+        boolean searchGlobally = request.getContext().isSearchGlobally() || rootSC == null || rootSC instanceof DBPDataSource;
+        return index.find(
+            namePattern,
+            request.getContext().isSearchInsideNames(),
+            MAX_STRUCT_PROPOSALS,
+            object -> !(object instanceof DBSEntityAttribute) &&
+                (!caseSensitive || object.getName().startsWith(namePattern)) &&
+                (searchGlobally || DBUtils.isParentOf(object, rootSC)));
+    }
+
+    /**
+     * Checks whether the names index contains all objects of the search scope, so the structure assistant
+     * wouldn't find anything else.
+     */
+    private boolean isIndexComplete(@Nullable DBPDataSource dataSource, @Nullable DBSObjectContainer rootSC) {
+        if (dataSource == null) {
+            return false;
+        }
+        boolean searchGlobally = request.getContext().isSearchGlobally() || rootSC == null || rootSC instanceof DBPDataSource;
+        return SQLCompletionIndexManager.isIndexComplete(dataSource, searchGlobally ? null : rootSC);
+    }
+
+    private void makeProposalsFromIndex(
+        @NotNull List<DBSObject> objects,
+        @Nullable DBSObjectContainer rootSC,
+        @NotNull Map<String, Object> params)
+    {
+        for (DBSObject object : objects) {
+            SQLCompletionProposalBase proposal = makeProposalsFromObject(object, !(rootSC instanceof DBPDataSource), params);
+            if (proposal != null) {
+                proposals.add(proposal);
+            }
+        }
+    }
+
     private String makeObjectNameMask(String objectName, @Nullable DBSObjectContainer rootSC) {
         SQLWordPartDetector wordDetector = request.getWordDetector();
         if (wordDetector.containsSeparator(objectName)) {
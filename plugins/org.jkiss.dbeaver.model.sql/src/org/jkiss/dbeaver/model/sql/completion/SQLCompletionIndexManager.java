@@ -0,0 +1,264 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.sql.completion;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.DBPDataSourceContainer;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.app.DBPProject;
+import org.jkiss.dbeaver.model.navigator.*;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.struct.*;
+import org.jkiss.dbeaver.model.struct.rdb.DBSProcedure;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maintains completion name indexes of connected data sources.
+ * <p>
+ * Index is built in background from navigator nodes which are already loaded, so building it never reads
+ * metadata from the database. It contains names of tables, views, columns, procedures and aliases.
+ * Containers which weren't loaded are remembered, so callers can tell whether the index is complete for a scope.
+ * Index is rebuilt when navigator reports changes in the data source nodes and dropped on disconnect.
+ */
+public class SQLCompletionIndexManager {
+
+    private static final Log log = Log.getLog(SQLCompletionIndexManager.class);
+
+    // Navigator fires events in batches, rebuild index once per batch
+    private static final long REBUILD_DELAY = 1000;
+
+    private static final Map<DBPDataSourceContainer, IndexHolder> indexes = new ConcurrentHashMap<>();
+    private static final Map<DBNModel, NavigatorListener> modelListeners = new ConcurrentHashMap<>();
+
+    /**
+     * Returns name index of the data source. Schedules index build if there is no index yet.
+     *
+     * @return index or null if index isn't built yet or data source can't be indexed
+     */
+    @Nullable
+    public static SQLCompletionNameIndex<DBSObject> getIndex(@NotNull DBPDataSource dataSource) {
+        DBPDataSourceContainer container = dataSource.getContainer();
+        if (container == null) {
+            return null;
+        }
+        IndexHolder holder = indexes.get(container);
+        if (holder == null) {
+            DBPProject project = container.getProject();
+            DBNModel navigatorModel = project == null ? null : project.getNavigatorModel();
+            if (navigatorModel == null || !navigatorModel.isGlobal()) {
+                // Only global model fires events, index couldn't be kept up to date
+                return null;
+            }
+            holder = indexes.computeIfAbsent(container, c -> new IndexHolder(c, navigatorModel));
+            modelListeners.computeIfAbsent(navigatorModel, model -> {
+                NavigatorListener listener = new NavigatorListener(model);
+                model.addListener(listener);
+                return listener;
+            });
+            holder.scheduleBuild();
+        }
+        if (holder.indexedDataSource != dataSource) {
+            // Data source was reconnected
+            if (holder.buildJob.getState() == Job.NONE) {
+                holder.scheduleBuild();
+            }
+            return null;
+        }
+        return holder.index;
+    }
+
+    /**
+     * Checks whether the index contains all tables, procedures and aliases of the scope.
+     * Index is incomplete if the scope or some of its containers weren't loaded in the navigator,
+     * or if the index isn't built yet.
+     *
+     * @param scope container to check or null to check the whole data source
+     */
+    public static boolean isIndexComplete(@NotNull DBPDataSource dataSource, @Nullable DBSObject scope) {
+        DBPDataSourceContainer container = dataSource.getContainer();
+        IndexHolder holder = container == null ? null : indexes.get(container);
+        if (holder == null || holder.indexedDataSource != dataSource) {
+            return false;
+        }
+        for (DBSObject unloadedContainer : holder.unloadedContainers) {
+            if (scope == null || unloadedContainer instanceof DBPDataSource ||
+                DBUtils.isParentOf(unloadedContainer, scope) || DBUtils.isParentOf(scope, unloadedContainer))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void removeIndex(@NotNull DBPDataSourceContainer container) {
+        IndexHolder holder = indexes.remove(container);
+        if (holder == null) {
+            return;
+        }
+        holder.buildJob.cancel();
+        DBNModel model = holder.navigatorModel;
+        if (indexes.values().stream().noneMatch(h -> h.navigatorModel == model)) {
+            NavigatorListener listener = modelListeners.remove(model);
+            if (listener != null) {
+                model.removeListener(listener);
+            }
+        }
+    }
+
+    private static boolean isIndexedObject(@NotNull DBSObject object) {
+        return object instanceof DBSEntity ||
+            object instanceof DBSEntityAttribute ||
+            object instanceof DBSProcedure ||
+            object instanceof DBSAlias;
+    }
+
+    /**
+     * Checks whether children of the node may be tables, procedures, aliases or their containers.
+     * Unloaded columns don't make the index incomplete, because columns aren't completed by the index alone.
+     */
+    private static boolean mayContainIndexedObjects(@NotNull DBNDatabaseNode node) {
+        if (node instanceof DBNDatabaseFolder) {
+            Class<? extends DBSObject> childrenClass = ((DBNDatabaseFolder) node).getChildrenClass();
+            return childrenClass == null || !DBSEntityAttribute.class.isAssignableFrom(childrenClass);
+        }
+        DBSObject object = node.getObject();
+        return object instanceof DBSObjectContainer && !(object instanceof DBSEntity);
+    }
+
+    private static class IndexHolder {
+        private final DBNModel navigatorModel;
+        private final IndexBuildJob buildJob;
+        private volatile SQLCompletionNameIndex<DBSObject> index;
+        private volatile List<DBSObject> unloadedContainers = Collections.emptyList();
+        private volatile DBPDataSource indexedDataSource;
+
+        IndexHolder(@NotNull DBPDataSourceContainer container, @NotNull DBNModel navigatorModel) {
+            this.navigatorModel = navigatorModel;
+            this.buildJob = new IndexBuildJob(this, container);
+        }
+
+        void scheduleBuild() {
+            buildJob.schedule(REBUILD_DELAY);
+        }
+    }
+
+    private static class NavigatorListener implements INavigatorListener {
+        private final DBNModel model;
+
+        NavigatorListener(@NotNull DBNModel model) {
+            this.model = model;
+        }
+
+        @Override
+        public void nodeChanged(DBNEvent event) {
+            if (!(event.getNode() instanceof DBNDatabaseNode)) {
+                return;
+            }
+            DBPDataSourceContainer container = ((DBNDatabaseNode) event.getNode()).getDataSourceContainer();
+            IndexHolder holder = indexes.get(container);
+            if (holder == null || holder.navigatorModel != model) {
+                return;
+            }
+            if (!container.isConnected()) {
+                removeIndex(container);
+            } else {
+                holder.scheduleBuild();
+            }
+        }
+    }
+
+    private static class IndexBuildJob extends AbstractJob {
+        private final IndexHolder holder;
+        private final DBPDataSourceContainer container;
+
+        IndexBuildJob(@NotNull IndexHolder holder, @NotNull DBPDataSourceContainer container) {
+            super("Build completion index of " + container.getName());
+            this.holder = holder;
+            this.container = container;
+            setUser(false);
+            setSystem(true);
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor monitor) {
+            DBPDataSource dataSource = container.getDataSource();
+            DBNDatabaseNode rootNode = holder.navigatorModel.getNodeByObject(container);
+            if (dataSource == null || rootNode == null) {
+                return Status.OK_STATUS;
+            }
+            SQLCompletionNameIndex.Builder<DBSObject> builder = new SQLCompletionNameIndex.Builder<>();
+            List<DBSObject> unloadedContainers = new ArrayList<>();
+            try {
+                collectObjects(monitor, rootNode, builder, unloadedContainers);
+            } catch (DBException e) {
+                log.debug("Error building completion index of " + container.getName(), e);
+                return Status.OK_STATUS;
+            }
+            if (monitor.isCanceled()) {
+                return Status.CANCEL_STATUS;
+            }
+            holder.indexedDataSource = null;
+            holder.index = builder.build();
+            holder.unloadedContainers = unloadedContainers;
+            holder.indexedDataSource = dataSource;
+            return Status.OK_STATUS;
+        }
+
+        private void collectObjects(
+            @NotNull DBRProgressMonitor monitor,
+            @NotNull DBNDatabaseNode node,
+            @NotNull SQLCompletionNameIndex.Builder<DBSObject> builder,
+            @NotNull List<DBSObject> unloadedContainers
+        ) throws DBException {
+            if (monitor.isCanceled() || node.isDisposed()) {
+                return;
+            }
+            // Do not load children which weren't read yet
+            if (node.needsInitialization()) {
+                Object valueObject = node.getValueObject();
+                if (valueObject instanceof DBSObject && mayContainIndexedObjects(node)) {
+                    unloadedContainers.add((DBSObject) valueObject);
+                }
+                return;
+            }
+            DBNDatabaseNode[] children = node.getChildren(monitor);
+            if (children == null) {
+                return;
+            }
+            for (DBNDatabaseNode child : children) {
+                DBSObject object = child.getObject();
+                if (object != null && !(child instanceof DBNDatabaseFolder) && isIndexedObject(object)) {
+                    builder.add(object.getName(), object);
+                }
+                collectObjects(monitor, child, builder, unloadedContainers);
+            }
+        }
+    }
+}
@@ -0,0 +1,368 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.sql.completion;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * In-memory index of object names used by SQL completion.
+ * <p>
+ * Names are kept in a sorted (case-insensitive) array, so exact and prefix lookups are binary searches.
+ * Names which consist of several words (camel case or separated by underscores) are also indexed by word initials,
+ * e.g. {@code CUSTOMER_ORDER_ITEMS} may be found by {@code coi}.
+ * Fuzzy lookup scans all names. Names are stored upper-cased in a single character buffer (with word starts
+ * marked in a bit set), and names which don't contain all pattern characters are rejected by a precomputed
+ * character mask, so the scan doesn't allocate anything and touches only a few bytes of most names.
+ * <p>
+ * Index is immutable and thread-safe. It is rebuilt when indexed objects change.
+ */
+public class SQLCompletionNameIndex<T> {
+
+    // Fuzzy matching of a single character matches almost everything
+    private static final int MIN_FUZZY_PATTERN_LENGTH = 2;
+
+    private static final long OTHER_CHARS_MASK = 1L << 63;
+
+    // Sorted names and their values
+    private final String[] names;
+    private final Object[] values;
+    // Upper-cased names, name i occupies range [nameOffsets[i], nameOffsets[i + 1])
+    private final char[] nameChars;
+    private final int[] nameOffsets;
+    private final BitSet wordStarts;
+    private final long[] charMasks;
+    // Sorted initials of multi-word names and indexes of these names
+    private final String[] initials;
+    private final int[] initialRefs;
+
+    private SQLCompletionNameIndex(String[] names, Object[] values, String[] initials, int[] initialRefs) {
+        this.names = names;
+        this.values = values;
+        this.initials = initials;
+        this.initialRefs = initialRefs;
+        this.nameOffsets = new int[names.length + 1];
+        this.charMasks = new long[names.length];
+        int totalLength = 0;
+        for (int i = 0; i < names.length; i++) {
+            nameOffsets[i] = totalLength;
+            totalLength += names[i].length();
+            charMasks[i] = getCharMask(names[i]);
+        }
+        nameOffsets[names.length] = totalLength;
+        this.nameChars = new char[totalLength];
+        this.wordStarts = new BitSet(totalLength);
+        for (int i = 0; i < names.length; i++) {
+            String name = names[i];
+            int offset = nameOffsets[i];
+            for (int k = 0; k < name.length(); k++) {
+                nameChars[offset + k] = toUpperCase(name.charAt(k));
+                if (isWordStart(name, k)) {
+                    wordStarts.set(offset + k);
+                }
+            }
+        }
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * Finds objects with the specified name (case-insensitive)
+     */
+    @NotNull
+    public List<T> findExact(@NotNull String name, @Nullable Predicate<T> filter) {
+        List<T> result = new ArrayList<>();
+        for (int i = lowerBound(names, name); i < names.length && names[i].equalsIgnoreCase(name); i++) {
+            addValue(i, filter, result);
+        }
+        return result;
+    }
+
+    /**
+     * Finds objects which names match the pattern. Matches are ordered by relevance:
+     * names starting with the pattern, names which word initials start with the pattern,
+     * names which contain pattern characters in the same order (or the whole pattern if {@code searchInside} is set).
+     */
+    @NotNull
+    public List<T> find(@NotNull String pattern, boolean searchInside, int maxResults, @Nullable Predicate<T> filter) {
+        List<T> result = new ArrayList<>();
+        if (maxResults <= 0) {
+            return result;
+        }
+        Set<Integer> found = new HashSet<>();
+        // Prefix matches
+        for (int i = lowerBound(names, pattern); i < names.length && result.size() < maxResults; i++) {
+            if (!names[i].regionMatches(true, 0, pattern, 0, pattern.length())) {
+                break;
+            }
+            if (addValue(i, filter, result)) {
+                found.add(i);
+            }
+        }
+        if (pattern.isEmpty()) {
+            return result;
+        }
+        // Word initials matches
+        for (int i = lowerBound(initials, pattern); i < initials.length && result.size() < maxResults; i++) {
+            if (!initials[i].regionMatches(true, 0, pattern, 0, pattern.length())) {
+                break;
+            }
+            int ref = initialRefs[i];
+            if (!found.contains(ref) && addValue(ref, filter, result)) {
+                found.add(ref);
+            }
+        }
+        if (result.size() < maxResults && pattern.length() >= MIN_FUZZY_PATTERN_LENGTH) {
+            findFuzzy(pattern, searchInside, maxResults - result.size(), filter, found, result);
+        }
+        return result;
+    }
+
+    private void findFuzzy(
+        @NotNull String pattern,
+        boolean searchInside,
+        int maxResults,
+        @Nullable Predicate<T> filter,
+        @NotNull Set<Integer> found,
+        @NotNull List<T> result
+    ) {
+        long patternMask = getCharMask(pattern);
+        char[] patternChars = new char[pattern.length()];
+        for (int i = 0; i < patternChars.length; i++) {
+            patternChars[i] = toUpperCase(pattern.charAt(i));
+        }
+        // Best matches: score in high bits, inverted index in low bits (so equal scores are ordered by name)
+        PriorityQueue<Long> bestMatches = new PriorityQueue<>(maxResults + 1);
+        for (int i = 0; i < names.length; i++) {
+            if ((charMasks[i] & patternMask) != patternMask) {
+                continue;
+            }
+            int score = searchInside ? containsScore(i, patternChars) : fuzzyScore(i, patternChars);
+            if (score <= 0) {
+                continue;
+            }
+            long match = ((long) score << 32) | (Integer.MAX_VALUE - i);
+            if (bestMatches.size() == maxResults && bestMatches.peek() > match) {
+                continue;
+            }
+            if (found.contains(i) || (filter != null && !filter.test(getValue(i)))) {
+                continue;
+            }
+            bestMatches.add(match);
+            if (bestMatches.size() > maxResults) {
+                bestMatches.poll();
+            }
+        }
+        List<T> fuzzyMatches = new ArrayList<>(bestMatches.size());
+        while (!bestMatches.isEmpty()) {
+            fuzzyMatches.add(getValue(Integer.MAX_VALUE - (int) (bestMatches.poll() & 0xFFFFFFFFL)));
+        }
+        Collections.reverse(fuzzyMatches);
+        result.addAll(fuzzyMatches);
+    }
+
+    private boolean addValue(int index, @Nullable Predicate<T> filter, @NotNull List<T> result) {
+        T value = getValue(index);
+        if (filter != null && !filter.test(value)) {
+            return false;
+        }
+        result.add(value);
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T getValue(int index) {
+        return (T) values[index];
+    }
+
+    /**
+     * Returns index of the first element which is greater or equal (case-insensitive) than the key
+     */
+    private static int lowerBound(@NotNull String[] array, @NotNull String key) {
+        int low = 0, high = array.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (String.CASE_INSENSITIVE_ORDER.compare(array[mid], key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Scores name which contains all pattern characters in the same order, the same way as
+     * {@link org.jkiss.dbeaver.model.text.TextUtils#fuzzyScore}: one point for each matched character
+     * and two more points for each consecutive match. Matches of word starts get one more point.
+     *
+     * @return score or 0 if name doesn't match
+     */
+    private int fuzzyScore(int index, @NotNull char[] pattern) {
+        int score = 0;
+        int position = nameOffsets[index];
+        int end = nameOffsets[index + 1];
+        int prevMatchPosition = Integer.MIN_VALUE;
+        for (char patternChar : pattern) {
+            while (position < end && nameChars[position] != patternChar) {
+                position++;
+            }
+            if (position == end) {
+                return 0;
+            }
+            score++;
+            if (prevMatchPosition + 1 == position) {
+                score += 2;
+            }
+            if (wordStarts.get(position)) {
+                score++;
+            }
+            prevMatchPosition = position++;
+        }
+        return score;
+    }
+
+    private int containsScore(int index, @NotNull char[] pattern) {
+        int start = nameOffsets[index];
+        int end = nameOffsets[index + 1];
+        for (int position = start; position <= end - pattern.length; position++) {
+            int matched = 0;
+            while (matched < pattern.length && nameChars[position + matched] == pattern[matched]) {
+                matched++;
+            }
+            if (matched == pattern.length) {
+                // Shorter names match better
+                return Math.max(1, Short.MAX_VALUE - (end - start));
+            }
+        }
+        return 0;
+    }
+
+    private static char toUpperCase(char c) {
+        if (c < 128) {
+            // Fast path for ASCII names
+            return c >= 'a' && c <= 'z' ? (char) (c - ('a' - 'A')) : c;
+        }
+        return Character.toUpperCase(c);
+    }
+
+    private static boolean isWordStart(@NotNull String name, int index) {
+        if (index == 0) {
+            return true;
+        }
+        char c = name.charAt(index), prev = name.charAt(index - 1);
+        return Character.isLetterOrDigit(c) &&
+            (!Character.isLetterOrDigit(prev) ||
+                (Character.isUpperCase(c) && Character.isLowerCase(prev)) ||
+                (Character.isDigit(c) != Character.isDigit(prev)));
+    }
+
+    /**
+     * Returns upper-cased word initials or null if name consists of a single word
+     */
+    @Nullable
+    static String getInitials(@NotNull String name) {
+        StringBuilder result = null;
+        int wordCount = 0;
+        for (int i = 0; i < name.length(); i++) {
+            if (isWordStart(name, i) && Character.isLetterOrDigit(name.charAt(i))) {
+                if (result == null) {
+                    result = new StringBuilder();
+                }
+                result.append(Character.toUpperCase(name.charAt(i)));
+                wordCount++;
+            }
+        }
+        return wordCount < 2 ? null : result.toString();
+    }
+
+    private static long getCharMask(@NotNull String name) {
+        long mask = 0;
+        for (int i = 0; i < name.length(); i++) {
+            char c = toUpperCase(name.charAt(i));
+            if (c >= 'A' && c <= 'Z') {
+                mask |= 1L << (c - 'A');
+            } else if (c >= '0' && c <= '9') {
+                mask |= 1L << (26 + c - '0');
+            } else if (c == '_') {
+                mask |= 1L << 36;
+            } else {
+                mask |= OTHER_CHARS_MASK;
+            }
+        }
+        return mask;
+    }
+
+    public static class Builder<T> {
+        private final List<String> names = new ArrayList<>();
+        private final List<T> values = new ArrayList<>();
+
+        @NotNull
+        public Builder<T> add(@NotNull String name, @NotNull T value) {
+            names.add(name);
+            values.add(value);
+            return this;
+        }
+
+        public int size() {
+            return names.size();
+        }
+
+        @NotNull
+        public SQLCompletionNameIndex<T> build() {
+            int size = names.size();
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (o1, o2) -> String.CASE_INSENSITIVE_ORDER.compare(names.get(o1), names.get(o2)));
+
+            String[] sortedNames = new String[size];
+            Object[] sortedValues = new Object[size];
+            List<String> initialsList = new ArrayList<>();
+            List<Integer> initialRefsList = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                sortedNames[i] = names.get(order[i]);
+                sortedValues[i] = values.get(order[i]);
+                String nameInitials = getInitials(sortedNames[i]);
+                if (nameInitials != null) {
+                    initialsList.add(nameInitials);
+                    initialRefsList.add(i);
+                }
+            }
+
+            Integer[] initialsOrder = new Integer[initialsList.size()];
+            for (int i = 0; i < initialsOrder.length; i++) {
+                initialsOrder[i] = i;
+            }
+            // Stable sort keeps names with the same initials ordered
+            Arrays.sort(initialsOrder, (o1, o2) -> String.CASE_INSENSITIVE_ORDER.compare(initialsList.get(o1), initialsList.get(o2)));
+            String[] sortedInitials = new String[initialsOrder.length];
+            int[] sortedInitialRefs = new int[initialsOrder.length];
+            for (int i = 0; i < initialsOrder.length; i++) {
+                sortedInitials[i] = initialsList.get(initialsOrder[i]);
+                sortedInitialRefs[i] = initialRefsList.get(initialsOrder[i]);
+            }
+            return new SQLCompletionNameIndex<>(sortedNames, sortedValues, sortedInitials, sortedInitialRefs);
+        }
+    }
+}
@@ -36,7 +36,7 @@ import java.util.List;
 public final class HippieProposalProcessor {
 
     private static final String[] NO_PROPOSALS = new String[0];
-    private final HippieCompletionEngine fEngine = new HippieCompletionEngine();
+    private static final int MAX_PROPOSALS = 100;
     private TPWordDetector wordDetector;
 
     /**
@@ -98,26 +98,8 @@ public final class HippieProposalProcessor {
     }
 
     /**
-     * Return the list of suggestions from the current document. First the document is searched
-     * backwards from the caret position and then forwards.
-     *
-     * @param offset   the offset
-     * @param document the viewer
-     * @param prefix   the completion prefix
-     * @return all possible completions that were found in the current document
-     */
-    private ArrayList<String> createSuggestionsFromOpenDocument(IDocument document, int offset, String prefix) {
-        ArrayList<String> completions = new ArrayList<>();
-        completions.addAll(fEngine.getCompletionsBackwards(document, prefix, offset));
-        completions.addAll(fEngine.getCompletionsForward(document, prefix, offset - prefix.length(), true));
-
-        return completions;
-    }
-
-    /**
-     * Create the array of suggestions. It scans for other documents or editors,
-     * and prefers suggestions from the currently open editor. It also adds the
-     * empty suggestion at the end.
+     * Create the array of suggestions. Words are looked up in the shared word index,
+     * words of the current document go first. It also adds the empty suggestion at the end.
      *
      * @param document document to check
      * @param offset   the offset
@@ -127,13 +109,21 @@ public final class HippieProposalProcessor {
      * @throws BadLocationException if accessing the current document fails
      */
     private List<String> getSuggestions(IDocument document, int offset, String prefix) throws BadLocationException {
-        ArrayList<String> suggestions = createSuggestionsFromOpenDocument(document, offset, prefix);
-        if (document != null) {
-            suggestions.addAll(fEngine.getCompletionsForward(document, prefix, 0, false));
+        List<String> suggestions = new ArrayList<>();
+        // Prefix may contain characters which are word parts for the SQL word detector (e.g. structure separators)
+        int wordStart = prefix.length();
+        while (wordStart > 0 && HippieWordIndex.isWordPart(prefix.charAt(wordStart - 1))) {
+            wordStart--;
+        }
+        String wordPrefix = prefix.substring(wordStart);
+        if (document != null && !wordPrefix.isEmpty()) {
+            for (String word : HippieWordIndex.getInstance().getCompletions(document, wordPrefix, MAX_PROPOSALS)) {
+                suggestions.add(word.substring(wordPrefix.length()));
+            }
         }
         // add the empty suggestion
         suggestions.add(""); //$NON-NLS-1$
-        return fEngine.makeUnique(suggestions);
+        return suggestions;
     }
 
 
@@ -0,0 +1,460 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.sql.completion.hippie;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentListener;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+
+import java.util.*;
+
+/**
+ * Workspace-wide index of words of the documents used by hippie completion.
+ * <p>
+ * Documents are registered by their editors, but they are scanned only when completion is requested for the first
+ * time, in a background job. Until then words of the current document are read from its text on each request.
+ * Documents are read only in the thread which changes them (the UI thread for editors): the text is copied when
+ * the document is opened and this copy is kept up to date from document events until the scan. The job splits
+ * the copy into words without the index lock and then publishes them, unless the document was changed meanwhile.
+ * After the scan document words are updated incrementally from document events: words of the replaced region
+ * are removed before the change and words of the inserted text are added after it.
+ * Words are kept in sorted maps, so completions of a prefix are a sub map lookup.
+ * Each word keeps its frequency and the number of the last change which added it (recency).
+ * <p>
+ * Words of closed documents are kept for completion in other documents while the index fits its size limit.
+ * Then documents closed longest ago are evicted.
+ */
+public class HippieWordIndex {
+
+    private static final Log log = Log.getLog(HippieWordIndex.class);
+
+    // Total number of words of all documents (the same word in different documents is counted separately)
+    public static final int MAX_INDEXED_WORDS = 200_000;
+    // Longer words are most likely encoded data, not identifiers
+    private static final int MAX_WORD_LENGTH = 128;
+
+    // Recently changed words first, then the most frequent ones
+    private static final Comparator<Map.Entry<String, WordStats>> COMPLETION_ORDER = (e1, e2) -> {
+        WordStats s1 = e1.getValue(), s2 = e2.getValue();
+        if (s1.lastChange != s2.lastChange) {
+            return Long.compare(s2.lastChange, s1.lastChange);
+        }
+        if (s1.count != s2.count) {
+            return Integer.compare(s2.count, s1.count);
+        }
+        return e1.getKey().compareTo(e2.getKey());
+    };
+
+    private static final HippieWordIndex instance = new HippieWordIndex(MAX_INDEXED_WORDS);
+
+    private final int maxIndexedWords;
+    private final Map<IDocument, DocumentWords> openDocuments = new IdentityHashMap<>();
+    // Closed documents, the oldest first
+    private final Deque<DocumentWords> closedDocuments = new ArrayDeque<>();
+    private final TreeMap<String, WordStats> allWords = new TreeMap<>();
+    private int indexedWordCount;
+    private long changeCount;
+    private IndexJob indexJob;
+
+    public HippieWordIndex(int maxIndexedWords) {
+        this.maxIndexedWords = maxIndexedWords;
+    }
+
+    @NotNull
+    public static HippieWordIndex getInstance() {
+        return instance;
+    }
+
+    /**
+     * Checks whether the character is a part of a completion word (letters, digits, underscores and currency symbols).
+     */
+    public static boolean isWordPart(char c) {
+        switch (Character.getType(c)) {
+            case Character.UPPERCASE_LETTER:
+            case Character.LOWERCASE_LETTER:
+            case Character.TITLECASE_LETTER:
+            case Character.MODIFIER_LETTER:
+            case Character.OTHER_LETTER:
+            case Character.NON_SPACING_MARK:
+            case Character.CONNECTOR_PUNCTUATION:
+            case Character.DECIMAL_DIGIT_NUMBER:
+            case Character.LETTER_NUMBER:
+            case Character.CURRENCY_SYMBOL:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Adds document to the index. Document words are updated on each document change until the document is closed.
+     * Document is scanned by {@link #indexOpenDocuments()}, which runs in background on the first completion request.
+     * Each call must be paired with {@link #closeDocument(IDocument)}: several editors may share the same document,
+     * the index keeps a reference to the document until all of them close it.
+     * Must be called in the thread which changes the document.
+     */
+    public void openDocument(@NotNull IDocument document) {
+        synchronized (this) {
+            DocumentWords documentWords = openDocuments.get(document);
+            if (documentWords != null) {
+                documentWords.openCount++;
+                return;
+            }
+        }
+        StringBuilder text = new StringBuilder(document.get());
+        synchronized (this) {
+            DocumentWords documentWords = openDocuments.get(document);
+            if (documentWords == null) {
+                documentWords = new DocumentWords(document, text);
+                openDocuments.put(document, documentWords);
+                document.addDocumentListener(documentWords);
+            }
+            documentWords.openCount++;
+        }
+    }
+
+    /**
+     * Stops tracking of document changes when the last owner of the document closes it.
+     * Document words remain in the index until evicted.
+     */
+    public synchronized void closeDocument(@NotNull IDocument document) {
+        DocumentWords documentWords = openDocuments.get(document);
+        if (documentWords == null || --documentWords.openCount > 0) {
+            return;
+        }
+        openDocuments.remove(document);
+        document.removeDocumentListener(documentWords);
+        documentWords.document = null;
+        documentWords.pendingText = null;
+        if (documentWords.indexed) {
+            closedDocuments.addLast(documentWords);
+            evictClosedDocuments();
+        }
+    }
+
+    /**
+     * Scans open documents which weren't indexed yet. Documents themselves are not read, only their text copies.
+     * Returns false if some document is being changed, then it is scanned by the next call.
+     */
+    public boolean indexOpenDocuments() {
+        List<DocumentWords> documents;
+        synchronized (this) {
+            documents = new ArrayList<>(openDocuments.values());
+        }
+        boolean allIndexed = true;
+        for (DocumentWords documentWords : documents) {
+            String text;
+            long textVersion;
+            synchronized (this) {
+                if (documentWords.indexed || documentWords.pendingText == null) {
+                    // Indexed or closed
+                    continue;
+                }
+                if (documentWords.changing) {
+                    // Document text is inconsistent until the change is finished
+                    allIndexed = false;
+                    continue;
+                }
+                text = documentWords.pendingText.toString();
+                textVersion = documentWords.version;
+            }
+            NavigableMap<String, WordStats> words = readWords(text);
+            synchronized (this) {
+                if (documentWords.pendingText == null) {
+                    continue;
+                }
+                if (documentWords.changing || documentWords.version != textVersion) {
+                    allIndexed = false;
+                    continue;
+                }
+                documentWords.publishWords(words);
+                evictClosedDocuments();
+            }
+        }
+        return allIndexed;
+    }
+
+    /**
+     * Returns words which start with the prefix (case-sensitive). Words of the specified document go first,
+     * words of other documents follow them. Words are ordered by recency, then by frequency.
+     * Words of a document which wasn't opened in the index are read from its text on each call.
+     */
+    @NotNull
+    public List<String> getCompletions(@NotNull IDocument document, @NotNull String prefix, int maxCompletions) {
+        List<String> result = new ArrayList<>();
+        if (prefix.isEmpty()) {
+            return result;
+        }
+        DocumentWords documentWords;
+        synchronized (this) {
+            documentWords = openDocuments.get(document);
+        }
+        // Indexed documents are never unindexed, their words are read under the lock below
+        NavigableMap<String, WordStats> textWords = documentWords != null && documentWords.indexed ?
+            null : readWords(document.get());
+        synchronized (this) {
+            NavigableMap<String, WordStats> words = textWords == null ? documentWords.words : textWords;
+            if (openDocuments.values().stream().anyMatch(dw -> !dw.indexed)) {
+                scheduleIndexing();
+            }
+            addCompletions(words, null, prefix, maxCompletions, result);
+            if (result.size() < maxCompletions) {
+                addCompletions(allWords, words, prefix, maxCompletions - result.size(), result);
+            }
+        }
+        return result;
+    }
+
+    @NotNull
+    private static NavigableMap<String, WordStats> readWords(@NotNull String text) {
+        TreeMap<String, WordStats> words = new TreeMap<>();
+        forEachWord(text, word -> words.computeIfAbsent(word, w -> new WordStats()).count++);
+        return words;
+    }
+
+    private static void addCompletions(
+        @NotNull NavigableMap<String, WordStats> words,
+        @Nullable Map<String, WordStats> excludedWords,
+        @NotNull String prefix,
+        int maxCompletions,
+        @NotNull List<String> result
+    ) {
+        // Keep only the best matches, the worst one is the head of the queue
+        PriorityQueue<Map.Entry<String, WordStats>> bestMatches = new PriorityQueue<>(
+            maxCompletions + 1, Collections.reverseOrder(COMPLETION_ORDER));
+        for (Map.Entry<String, WordStats> entry : words.subMap(prefix, false, prefix + Character.MAX_VALUE, false).entrySet()) {
+            if (bestMatches.size() == maxCompletions && COMPLETION_ORDER.compare(entry, bestMatches.peek()) >= 0) {
+                continue;
+            }
+            if (!entry.getKey().startsWith(prefix) || (excludedWords != null && excludedWords.containsKey(entry.getKey()))) {
+                continue;
+            }
+            bestMatches.add(entry);
+            if (bestMatches.size() > maxCompletions) {
+                bestMatches.poll();
+            }
+        }
+        List<Map.Entry<String, WordStats>> matches = new ArrayList<>(bestMatches);
+        matches.sort(COMPLETION_ORDER);
+        for (Map.Entry<String, WordStats> match : matches) {
+            result.add(match.getKey());
+        }
+    }
+
+    private void scheduleIndexing() {
+        if (indexJob == null) {
+            indexJob = new IndexJob();
+        }
+        if (indexJob.getState() == Job.NONE) {
+            indexJob.schedule();
+        }
+    }
+
+    private void evictClosedDocuments() {
+        while (indexedWordCount > maxIndexedWords && !closedDocuments.isEmpty()) {
+            DocumentWords documentWords = closedDocuments.removeFirst();
+            for (Map.Entry<String, WordStats> entry : documentWords.words.entrySet()) {
+                removeWord(allWords, entry.getKey(), entry.getValue().count);
+            }
+            indexedWordCount -= documentWords.words.size();
+        }
+    }
+
+    private static void removeWord(@NotNull Map<String, WordStats> words, @NotNull String word, int count) {
+        WordStats stats = words.get(word);
+        if (stats != null) {
+            stats.count -= count;
+            if (stats.count <= 0) {
+                words.remove(word);
+            }
+        }
+    }
+
+    private static class WordStats {
+        private int count;
+        private long lastChange;
+    }
+
+    private class IndexJob extends AbstractJob {
+        IndexJob() {
+            super("Index words of SQL scripts");
+            setUser(false);
+            setSystem(true);
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor monitor) {
+            if (!indexOpenDocuments()) {
+                schedule(100);
+            }
+            return Status.OK_STATUS;
+        }
+    }
+
+    private class DocumentWords implements IDocumentListener {
+        private volatile IDocument document;
+        private final TreeMap<String, WordStats> words = new TreeMap<>();
+        private int openCount;
+        private volatile boolean indexed;
+        // Copy of the document text for the scan, it is released after the scan or when the document is closed
+        @Nullable
+        private StringBuilder pendingText;
+        // Number of changes of the document, the scan result is dropped if the document was changed during the scan
+        private long version;
+        // Document text is being changed, it is set before the change and cleared after it
+        private boolean changing;
+
+        DocumentWords(@NotNull IDocument document, @NotNull StringBuilder text) {
+            this.document = document;
+            this.pendingText = text;
+        }
+
+        // Document events come in the thread which changes the document, so it is read without the index lock.
+        // The scan can't finish while the document is changing, so the indexed flag is stable until the change end.
+        @Override
+        public void documentAboutToBeChanged(DocumentEvent event) {
+            synchronized (HippieWordIndex.this) {
+                changing = true;
+            }
+            IDocument doc = document;
+            String text = doc != null && indexed ?
+                getWordsText(doc, event.getOffset(), event.getOffset() + event.getLength()) : null;
+            if (text != null) {
+                synchronized (HippieWordIndex.this) {
+                    removeWords(text);
+                }
+            }
+        }
+
+        @Override
+        public void documentChanged(DocumentEvent event) {
+            IDocument doc = document;
+            int textLength = event.getText() == null ? 0 : event.getText().length();
+            String text = doc != null && indexed ?
+                getWordsText(doc, event.getOffset(), event.getOffset() + textLength) : null;
+            synchronized (HippieWordIndex.this) {
+                changing = false;
+                version++;
+                if (indexed) {
+                    if (text != null) {
+                        addWords(text, ++changeCount);
+                    }
+                    evictClosedDocuments();
+                } else if (pendingText != null) {
+                    pendingText.replace(
+                        event.getOffset(),
+                        event.getOffset() + event.getLength(),
+                        event.getText() == null ? "" : event.getText());
+                }
+            }
+        }
+
+        void publishWords(@NotNull Map<String, WordStats> scannedWords) {
+            for (Map.Entry<String, WordStats> entry : scannedWords.entrySet()) {
+                words.put(entry.getKey(), entry.getValue());
+                WordStats totalStats = allWords.computeIfAbsent(entry.getKey(), w -> new WordStats());
+                totalStats.count += entry.getValue().count;
+            }
+            indexedWordCount += scannedWords.size();
+            pendingText = null;
+            indexed = true;
+        }
+
+        void addWords(@NotNull String text, long change) {
+            forEachWord(text, word -> {
+                WordStats stats = words.get(word);
+                if (stats == null) {
+                    stats = new WordStats();
+                    words.put(word, stats);
+                    indexedWordCount++;
+                }
+                stats.count++;
+                stats.lastChange = Math.max(stats.lastChange, change);
+
+                WordStats totalStats = allWords.computeIfAbsent(word, w -> new WordStats());
+                totalStats.count++;
+                totalStats.lastChange = Math.max(totalStats.lastChange, change);
+            });
+        }
+
+        void removeWords(@NotNull String text) {
+            forEachWord(text, word -> {
+                WordStats stats = words.get(word);
+                if (stats == null) {
+                    return;
+                }
+                if (--stats.count <= 0) {
+                    words.remove(word);
+                    indexedWordCount--;
+                }
+                removeWord(allWords, word, 1);
+            });
+        }
+
+        /**
+         * Returns text of the region extended to the word boundaries
+         */
+        @Nullable
+        private String getWordsText(@NotNull IDocument doc, int start, int end) {
+            try {
+                int length = doc.getLength();
+                start = Math.max(0, Math.min(start, length));
+                end = Math.max(start, Math.min(end, length));
+                while (start > 0 && isWordPart(doc.getChar(start - 1))) {
+                    start--;
+                }
+                while (end < length && isWordPart(doc.getChar(end))) {
+                    end++;
+                }
+                return doc.get(start, end - start);
+            } catch (BadLocationException e) {
+                log.debug("Error reading document words", e);
+                return null;
+            }
+        }
+    }
+
+    private interface WordVisitor {
+        void visitWord(@NotNull String word);
+    }
+
+    private static void forEachWord(@NotNull String text, @NotNull WordVisitor visitor) {
+        int wordStart = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordPart = i < text.length() && isWordPart(text.charAt(i));
+            if (wordPart && wordStart < 0) {
+                wordStart = i;
+            } else if (!wordPart && wordStart >= 0) {
+                int wordLength = i - wordStart;
+                // Single character words are never completed
+                if (wordLength > 1 && wordLength <= MAX_WORD_LENGTH) {
+                    visitor.visitWord(text.substring(wordStart, i));
+                }
+                wordStart = -1;
+            }
+        }
+    }
+}
@@ -16,7 +16,9 @@
  */
 package org.jkiss.dbeaver.model.sql.exec;
 
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.model.DBFetchProgress;
@@ -28,9 +30,11 @@ import org.jkiss.dbeaver.model.qm.QMUtils;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.sql.*;
 import org.jkiss.dbeaver.model.sql.data.SQLQueryDataContainer;
+import org.jkiss.dbeaver.model.sql.parser.SQLScriptStreamParser;
 import org.jkiss.dbeaver.utils.RuntimeUtils;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -40,7 +44,10 @@ public class SQLScriptProcessor {
     private static final String STAT_LOG_PREFIX = "-----------------> ";
 
     private final DBCExecutionContext executionContext;
+    @Nullable
     private final List<SQLScriptElement> queries;
+    @Nullable
+    private final SQLScriptStreamParser scriptParser;
     private final SQLScriptContext scriptContext;
     private final DBDDataReceiver dataReceiver;
     private final Log log;
@@ -63,6 +70,25 @@ public class SQLScriptProcessor {
         @NotNull Log log) {
         this.executionContext = executionContext;
         this.queries = queries;
+        this.scriptParser = null;
+        this.scriptContext = scriptContext;
+        this.dataReceiver = dataReceiver;
+        this.log = log;
+    }
+
+    /**
+     * Creates processor which reads script elements from the parser while executing them.
+     * Parser is not closed by the processor.
+     */
+    public SQLScriptProcessor(
+        @NotNull DBCExecutionContext executionContext,
+        @NotNull SQLScriptStreamParser scriptParser,
+        @NotNull SQLScriptContext scriptContext,
+        @NotNull DBDDataReceiver dataReceiver,
+        @NotNull Log log) {
+        this.executionContext = executionContext;
+        this.queries = null;
+        this.scriptParser = scriptParser;
         this.scriptContext = scriptContext;
         this.dataReceiver = dataReceiver;
         this.log = log;
@@ -109,12 +135,28 @@ public class SQLScriptProcessor {
                     txnManager.setAutoCommit(monitor, newAutoCommit);
                 }
 
-                monitor.beginTask("Execute queries (" + queries.size() + ")", queries.size());
+                Iterator<SQLScriptElement> queryIterator = null;
+                ScriptProgress progress = null;
+                if (queries != null) {
+                    monitor.beginTask("Execute queries (" + queries.size() + ")", queries.size());
+                    queryIterator = queries.iterator();
+                } else {
+                    progress = new ScriptProgress(monitor, scriptParser);
+                }
 
-                for (SQLScriptElement query : queries) {
+                for (;;) {
                     if (monitor.isCanceled()) {
                         break;
                     }
+                    SQLScriptElement query;
+                    if (queryIterator != null) {
+                        query = queryIterator.hasNext() ? queryIterator.next() : null;
+                    } else {
+                        query = scriptParser.nextElement();
+                    }
+                    if (query == null) {
+                        break;
+                    }
                     // Execute query
                     boolean runNext = executeSingleQuery(session, query);
                     if (!runNext) {
@@ -130,7 +172,11 @@ public class SQLScriptProcessor {
                         }
                     }
 
-                    monitor.worked(1);
+                    if (progress != null) {
+                        progress.update();
+                    } else {
+                        monitor.worked(1);
+                    }
                 }
                 monitor.done();
 
@@ -353,4 +399,40 @@ public class SQLScriptProcessor {
         return totalStatistics;
     }
 
+    /**
+     * Reports streamed script progress by the position in the script (in kilobytes)
+     */
+    private static class ScriptProgress {
+        private final DBRProgressMonitor monitor;
+        private final SQLScriptStreamParser scriptParser;
+        private final long totalSize;
+        private long queryCount;
+        private long reportedPosition;
+
+        ScriptProgress(@NotNull DBRProgressMonitor monitor, @NotNull SQLScriptStreamParser scriptParser) {
+            this.monitor = monitor;
+            this.scriptParser = scriptParser;
+            this.totalSize = scriptParser.getStreamLength();
+            monitor.beginTask("Execute queries", totalSize > 0 ? (int) Math.min(totalSize / 1024, Integer.MAX_VALUE) : IProgressMonitor.UNKNOWN);
+        }
+
+        void update() {
+            queryCount++;
+            long position = getPosition() / 1024;
+            if (position > reportedPosition) {
+                monitor.worked((int) (position - reportedPosition));
+                reportedPosition = position;
+            }
+            if (DBFetchProgress.monitorFetchProgress(queryCount)) {
+                monitor.subTask(queryCount + " queries executed" +
+                    (totalSize > 0 ? " (" + reportedPosition + " of " + totalSize / 1024 + " KB)" : ""));
+            }
+        }
+
+        private long getPosition() {
+            long bytesRead = scriptParser.getBytesRead();
+            return bytesRead >= 0 ? bytesRead : scriptParser.getOffset();
+        }
+    }
+
 }
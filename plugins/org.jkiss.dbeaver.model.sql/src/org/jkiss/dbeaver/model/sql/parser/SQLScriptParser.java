@@ -930,15 +930,18 @@ public class SQLScriptParser {
     }
 
     public static List<SQLScriptElement> parseScript(DBPDataSource dataSource, String sqlScriptContent) {
+        SQLParserContext parserContext = createScriptParserContext(dataSource, new Document(sqlScriptContent));
+        return SQLScriptParser.extractScriptQueries(parserContext, 0, sqlScriptContent.length(), true, false, true);
+    }
+
+    @NotNull
+    static SQLParserContext createScriptParserContext(@NotNull DBPDataSource dataSource, @NotNull IDocument document) {
         SQLSyntaxManager syntaxManager = new SQLSyntaxManager();
         syntaxManager.init(dataSource.getSQLDialect(), dataSource.getContainer().getPreferenceStore());
         SQLRuleManager ruleManager = new SQLRuleManager(syntaxManager);
         ruleManager.loadRules(dataSource, false);
 
-        Document sqlDocument = new Document(sqlScriptContent);
-
-        SQLParserContext parserContext = new SQLParserContext(dataSource, syntaxManager, ruleManager, sqlDocument);
-        return SQLScriptParser.extractScriptQueries(parserContext, 0, sqlScriptContent.length(), true, false, true);
+        return new SQLParserContext(dataSource, syntaxManager, ruleManager, document);
     }
 
     public static List<SQLScriptElement> parseScript(
@@ -0,0 +1,226 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jkiss.dbeaver.model.sql.parser;
+
+import org.eclipse.jface.text.Document;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.sql.SQLQuery;
+import org.jkiss.dbeaver.model.sql.SQLScriptElement;
+
+import java.io.*;
+import java.nio.charset.Charset;
+
+/**
+ * Splits SQL script read from a stream into script elements, one element at a time.
+ * <p>
+ * Only a window of the script text is kept in memory. Elements are parsed with {@link SQLScriptParser#parseQuery}
+ * over this window, so delimiters, blocks and control commands are handled the same way as for the whole script.
+ * Element is accepted only if it ends far enough from the window end (otherwise its last token may be incomplete),
+ * if it doesn't then the window is extended and the element is parsed again.
+ * Thus memory consumption depends on the longest statement rather than on the script size.
+ * <p>
+ * Offsets of returned elements are relative to the current window. Use {@link #getOffset()} for the script position.
+ */
+public class SQLScriptStreamParser implements AutoCloseable {
+
+    private static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+    private static final int DEFAULT_LOOKAHEAD_SIZE = 1024;
+
+    private final Reader reader;
+    @Nullable
+    private final CountingInputStream countingStream;
+    private final long streamLength;
+    private final int chunkSize;
+    private final int lookaheadSize;
+
+    private final Document document = new Document();
+    private final SQLParserContext parserContext;
+    private final char[] readBuffer;
+    private String window = "";
+    // Position of the next element in the window
+    private int position;
+    // Script offset of the window start
+    private long windowOffset;
+    private boolean endOfStream;
+    private boolean bomChecked;
+
+    /**
+     * Creates parser over a script text reader.
+     */
+    public SQLScriptStreamParser(@NotNull DBPDataSource dataSource, @NotNull Reader reader) {
+        this(dataSource, reader, null, -1, DEFAULT_CHUNK_SIZE, DEFAULT_LOOKAHEAD_SIZE);
+    }
+
+    /**
+     * Creates parser over a script stream. Number of bytes read from the stream is available for progress reporting.
+     *
+     * @param streamLength stream length in bytes or -1 if it is unknown
+     */
+    public SQLScriptStreamParser(@NotNull DBPDataSource dataSource, @NotNull InputStream stream, @NotNull Charset charset, long streamLength) {
+        this(dataSource, new CountingInputStream(stream), charset, streamLength);
+    }
+
+    private SQLScriptStreamParser(@NotNull DBPDataSource dataSource, @NotNull CountingInputStream stream, @NotNull Charset charset, long streamLength) {
+        this(dataSource, new InputStreamReader(stream, charset), stream, streamLength, DEFAULT_CHUNK_SIZE, DEFAULT_LOOKAHEAD_SIZE);
+    }
+
+    SQLScriptStreamParser(
+        @NotNull DBPDataSource dataSource,
+        @NotNull Reader reader,
+        @Nullable CountingInputStream countingStream,
+        long streamLength,
+        int chunkSize,
+        int lookaheadSize)
+    {
+        this.reader = reader;
+        this.countingStream = countingStream;
+        this.streamLength = streamLength;
+        this.chunkSize = chunkSize;
+        this.lookaheadSize = lookaheadSize;
+        this.readBuffer = new char[Math.min(chunkSize, 64 * 1024)];
+        this.parserContext = SQLScriptParser.createScriptParserContext(dataSource, document);
+        this.parserContext.startScriptEvaluation();
+    }
+
+    /**
+     * Returns next script element or null if the end of script is reached.
+     * Query parameters are parsed for returned queries.
+     */
+    @Nullable
+    public SQLScriptElement nextElement() throws IOException {
+        for (;;) {
+            int windowLength = window.length();
+            SQLScriptElement element = position < windowLength ?
+                SQLScriptParser.parseQuery(parserContext, position, windowLength, position, true, false) : null;
+            if (element == null) {
+                if (endOfStream) {
+                    position = windowLength;
+                    return null;
+                }
+            } else {
+                int elementEnd = element.getOffset() + element.getLength();
+                if (endOfStream || elementEnd + lookaheadSize <= windowLength) {
+                    if (element instanceof SQLQuery) {
+                        SQLQuery query = (SQLQuery) element;
+                        query.setParameters(SQLScriptParser.parseParametersAndVariables(parserContext, query.getOffset(), query.getLength()));
+                    }
+                    position = Math.max(elementEnd, position + 1);
+                    return element;
+                }
+            }
+            readNextChunk();
+        }
+    }
+
+    /**
+     * Returns script offset (in chars) of the end of the last returned element
+     */
+    public long getOffset() {
+        return windowOffset + position;
+    }
+
+    /**
+     * Returns number of bytes read from the script stream or -1 if parser was created over a reader.
+     * Reader is buffered so this value is ahead of the parsed elements.
+     */
+    public long getBytesRead() {
+        return countingStream == null ? -1 : countingStream.getCount();
+    }
+
+    /**
+     * Returns script stream length in bytes or -1 if it is unknown
+     */
+    public long getStreamLength() {
+        return streamLength;
+    }
+
+    @Override
+    public void close() throws IOException {
+        parserContext.endScriptEvaluation();
+        reader.close();
+    }
+
+    private void readNextChunk() throws IOException {
+        String tail = window.substring(position);
+        // Grow the window geometrically, so a huge statement doesn't make us re-parse it once per chunk
+        int readSize = Math.max(chunkSize, tail.length());
+        StringBuilder buffer = new StringBuilder(tail.length() + readSize);
+        buffer.append(tail);
+        for (int count = 0; count < readSize; ) {
+            int read = reader.read(readBuffer, 0, Math.min(readBuffer.length, readSize - count));
+            if (read < 0) {
+                endOfStream = true;
+                break;
+            }
+            int start = 0;
+            if (!bomChecked && read > 0) {
+                bomChecked = true;
+                if (readBuffer[0] == '\uFEFF') {
+                    // Skip BOM
+                    start = 1;
+                }
+            }
+            buffer.append(readBuffer, start, read - start);
+            count += read;
+        }
+        windowOffset += position;
+        position = 0;
+        window = buffer.toString();
+        document.set(window);
+    }
+
+    static class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(@NotNull InputStream in) {
+            super(in);
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int result = super.read();
+            if (result >= 0) {
+                count++;
+            }
+            return result;
+        }
+
+        @Override
+        public int read(@NotNull byte[] b, int off, int len) throws IOException {
+            int result = super.read(b, off, len);
+            if (result > 0) {
+                count += result;
+            }
+            return result;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long result = super.skip(n);
+            count += result;
+            return result;
+        }
+    }
+
+}
@@ -832,7 +832,20 @@ public final class DBUtils {
             return null;
         }
 
-        Object curValue = row[index];
+        return getNestedAttributeValue(attribute, row[index], nestedIndexes);
+    }
+
+    /**
+     * Reads attribute value from the value of its top level parent attribute
+     */
+    @Nullable
+    public static Object getNestedAttributeValue(
+        @NotNull DBDAttributeBinding attribute,
+        @Nullable Object topValue,
+        @Nullable int[] nestedIndexes
+    ) {
+        final int depth = attribute.getLevel();
+        Object curValue = topValue;
         int curNestedIndex = 0;
 
         for (int i = 0; i < depth; i++) {
@@ -16,6 +16,8 @@
  */
 package org.jkiss.dbeaver.model.data.aggregate;
 
+import org.jkiss.code.NotNull;
+
 /**
  * FunctionCount
  */
@@ -33,4 +35,14 @@ public class FunctionCount implements IAggregateFunction {
     public Object getResult(int valueCount) {
         return count;
     }
+
+    @Override
+    public boolean isMergeable() {
+        return true;
+    }
+
+    @Override
+    public void merge(@NotNull IAggregateFunction other) {
+        count += ((FunctionCount) other).count;
+    }
 }
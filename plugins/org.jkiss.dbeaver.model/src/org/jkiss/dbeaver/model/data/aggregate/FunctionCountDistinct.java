@@ -16,6 +16,8 @@
  */
 package org.jkiss.dbeaver.model.data.aggregate;
 
+import org.jkiss.code.NotNull;
+
 import java.util.HashSet;
 import java.util.Set;
 
@@ -41,4 +43,15 @@ public class FunctionCountDistinct implements IAggregateFunction {
     public Object getResult(int valueCount) {
         return count;
     }
+
+    @Override
+    public boolean isMergeable() {
+        return true;
+    }
+
+    @Override
+    public void merge(@NotNull IAggregateFunction other) {
+        cache.addAll(((FunctionCountDistinct) other).cache);
+        count = cache.size();
+    }
 }
@@ -16,6 +16,7 @@
  */
 package org.jkiss.dbeaver.model.data.aggregate;
 
+import org.jkiss.code.NotNull;
 import org.jkiss.dbeaver.model.DBUtils;
 
 public class FunctionCountNulls implements IAggregateFunction {
@@ -33,4 +34,14 @@ public class FunctionCountNulls implements IAggregateFunction {
     public Object getResult(int valueCount) {
         return count;
     }
+
+    @Override
+    public boolean isMergeable() {
+        return true;
+    }
+
+    @Override
+    public void merge(@NotNull IAggregateFunction other) {
+        count += ((FunctionCountNulls) other).count;
+    }
 }
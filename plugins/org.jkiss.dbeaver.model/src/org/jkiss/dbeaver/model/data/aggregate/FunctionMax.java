@@ -16,6 +16,8 @@
  */
 package org.jkiss.dbeaver.model.data.aggregate;
 
+import org.jkiss.code.NotNull;
+
 /**
  * FunctionSum
  */
@@ -40,4 +42,17 @@ public class FunctionMax implements IAggregateFunction {
         return result;
     }
 
+    @Override
+    public boolean isMergeable() {
+        return true;
+    }
+
+    @Override
+    public void merge(@NotNull IAggregateFunction other) {
+        Comparable<?> otherResult = ((FunctionMax) other).result;
+        if (otherResult != null && (result == null || AggregateUtils.compareValues(otherResult, result) > 0)) {
+            result = otherResult;
+        }
+    }
+
 }
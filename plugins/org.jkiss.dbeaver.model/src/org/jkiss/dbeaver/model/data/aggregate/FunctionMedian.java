@@ -16,6 +16,7 @@
  */
 package org.jkiss.dbeaver.model.data.aggregate;
 
+import org.jkiss.code.NotNull;
 import org.jkiss.dbeaver.Log;
 
 import java.util.ArrayList;
@@ -40,6 +41,16 @@ public class FunctionMedian implements IAggregateFunction {
         return false;
     }
 
+    @Override
+    public boolean isMergeable() {
+        return true;
+    }
+
+    @Override
+    public void merge(@NotNull IAggregateFunction other) {
+        cache.addAll(((FunctionMedian) other).cache);
+    }
+
     @Override
     public Object getResult(int valueCount) {
         try {
@@ -16,6 +16,8 @@
  */
 package org.jkiss.dbeaver.model.data.aggregate;
 
+import org.jkiss.code.NotNull;
+
 /**
  * FunctionSum
  */
@@ -39,4 +41,17 @@ public class FunctionMin implements IAggregateFunction {
     public Object getResult(int valueCount) {
         return result;
     }
+
+    @Override
+    public boolean isMergeable() {
+        return true;
+    }
+
+    @Override
+    public void merge(@NotNull IAggregateFunction other) {
+        Comparable<?> otherResult = ((FunctionMin) other).result;
+        if (otherResult != null && (result == null || AggregateUtils.compareValues(otherResult, result) < 0)) {
+            result = otherResult;
+        }
+    }
 }
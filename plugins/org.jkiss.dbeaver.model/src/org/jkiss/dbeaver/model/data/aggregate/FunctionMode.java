@@ -16,15 +16,18 @@
  */
 package org.jkiss.dbeaver.model.data.aggregate;
 
-import java.util.ArrayList;
-import java.util.List;
+import org.jkiss.code.NotNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Mode
  */
 public class FunctionMode implements IAggregateFunction {
 
-    private final List<Object> cache = new ArrayList<>();
+    // Value counts in order of first occurrence: the first of equally frequent values wins
+    private final Map<Object, int[]> counts = new LinkedHashMap<>();
 
     @Override
     public boolean accumulate(Object value, boolean aggregateAsStrings) {
@@ -33,27 +36,34 @@ public class FunctionMode implements IAggregateFunction {
             value = num;
         }
         if (value != null) {
-            cache.add(value);
+            counts.computeIfAbsent(value, k -> new int[1])[0]++;
             return true;
         }
         return false;
     }
 
+    @Override
+    public boolean isMergeable() {
+        return true;
+    }
+
+    @Override
+    public void merge(@NotNull IAggregateFunction other) {
+        for (Map.Entry<Object, int[]> entry : ((FunctionMode) other).counts.entrySet()) {
+            counts.computeIfAbsent(entry.getKey(), k -> new int[1])[0] += entry.getValue()[0];
+        }
+    }
+
     @Override
     public Object getResult(int valueCount) {
         Object maxValue = null;
         int maxCount = 0;
 
-        for (int i = 0; i < cache.size(); ++i) {
-            int count = 0;
-            for (int j = 0; j < cache.size(); ++j) {
-                if (cache.get(j).equals(cache.get(i))) {
-                    count++;
-                }
-            }
+        for (Map.Entry<Object, int[]> entry : counts.entrySet()) {
+            int count = entry.getValue()[0];
             if (count > maxCount) {
                 maxCount = count;
-                maxValue = cache.get(i);
+                maxValue = entry.getKey();
             }
         }
 //        if (maxCount <= 1) {
@@ -16,6 +16,8 @@
  */
 package org.jkiss.dbeaver.model.data.aggregate;
 
+import org.jkiss.code.NotNull;
+
 /**
  * FunctionSum
  */
@@ -36,6 +38,19 @@ public class FunctionSum extends FunctionNumeric {
         return false;
     }
 
+    @Override
+    public boolean isMergeable() {
+        return true;
+    }
+
+    @Override
+    public void merge(@NotNull IAggregateFunction other) {
+        double otherResult = ((FunctionSum) other).result;
+        if (!Double.isNaN(otherResult)) {
+            result = Double.isNaN(result) ? otherResult : result + otherResult;
+        }
+    }
+
     @Override
     public Object getResult(int valueCount) {
         if (Double.isNaN(result)) {
@@ -16,6 +16,8 @@
  */
 package org.jkiss.dbeaver.model.data.aggregate;
 
+import org.jkiss.code.NotNull;
+
 /**
  * Aggregate function
  */
@@ -25,4 +27,20 @@ public interface IAggregateFunction {
 
     Object getResult(int valueCount);
 
+    /**
+     * Mergeable functions may accumulate chunks of values in separate instances (e.g. in parallel).
+     * Partial results are then combined with {@link #merge(IAggregateFunction)}.
+     */
+    default boolean isMergeable() {
+        return false;
+    }
+
+    /**
+     * Merges state of another instance of the same function into this one.
+     * Other instance must not be used after merge.
+     */
+    default void merge(@NotNull IAggregateFunction other) {
+        throw new UnsupportedOperationException("Function " + getClass().getSimpleName() + " is not mergeable");
+    }
+
 }
@@ -0,0 +1,185 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.data.aggregate;
+
+import org.jkiss.code.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * Merging t-digest (T. Dunning, "Computing extremely accurate quantiles using t-digests").
+ * <p>
+ * Values are collected in a buffer which is periodically merged into sorted centroids.
+ * Centroid sizes are limited by the arcsine scale function, so centroids near tails are small
+ * and quantile estimates there are accurate. Memory is bounded by the compression.
+ * Digests are mergeable.
+ */
+public class TDigest {
+
+    public static final double DEFAULT_COMPRESSION = 100;
+
+    private final double compression;
+
+    private double[] means = new double[0];
+    private double[] weights = new double[0];
+
+    private final double[] bufferMeans;
+    private final double[] bufferWeights;
+    private int bufferSize;
+
+    private double totalWeight;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public TDigest() {
+        this(DEFAULT_COMPRESSION);
+    }
+
+    public TDigest(double compression) {
+        this.compression = compression;
+        int bufferCapacity = (int) (compression * 5);
+        this.bufferMeans = new double[bufferCapacity];
+        this.bufferWeights = new double[bufferCapacity];
+    }
+
+    public void add(double value) {
+        add(value, 1);
+    }
+
+    private void add(double value, double weight) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        if (bufferSize == bufferMeans.length) {
+            flush();
+        }
+        bufferMeans[bufferSize] = value;
+        bufferWeights[bufferSize] = weight;
+        bufferSize++;
+        totalWeight += weight;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    public void merge(@NotNull TDigest other) {
+        other.flush();
+        for (int i = 0; i < other.means.length; i++) {
+            add(other.means[i], other.weights[i]);
+        }
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public long getCount() {
+        return (long) totalWeight;
+    }
+
+    /**
+     * Returns estimated quantile (0..1) or NaN if digest is empty
+     */
+    public double getQuantile(double q) {
+        flush();
+        int count = means.length;
+        if (count == 0) {
+            return Double.NaN;
+        } else if (count == 1) {
+            return means[0];
+        }
+        double index = q * totalWeight;
+        if (index <= weights[0] / 2) {
+            // Between minimum and the first centroid
+            return min + (means[0] - min) * index / (weights[0] / 2);
+        }
+        double weightSoFar = 0;
+        for (int i = 0; i < count - 1; i++) {
+            double center1 = weightSoFar + weights[i] / 2;
+            double center2 = weightSoFar + weights[i] + weights[i + 1] / 2;
+            if (index < center2) {
+                return means[i] + (means[i + 1] - means[i]) * (index - center1) / (center2 - center1);
+            }
+            weightSoFar += weights[i];
+        }
+        // Between the last centroid and maximum
+        double lastWeight = weights[count - 1];
+        double lastCenter = totalWeight - lastWeight / 2;
+        if (lastWeight <= 1 || index >= totalWeight) {
+            return max;
+        }
+        return means[count - 1] + (max - means[count - 1]) * (index - lastCenter) / (lastWeight / 2);
+    }
+
+    private void flush() {
+        if (bufferSize == 0) {
+            return;
+        }
+        int size = means.length + bufferSize;
+        double[] allMeans = Arrays.copyOf(means, size);
+        double[] allWeights = Arrays.copyOf(weights, size);
+        System.arraycopy(bufferMeans, 0, allMeans, means.length, bufferSize);
+        System.arraycopy(bufferWeights, 0, allWeights, means.length, bufferSize);
+        bufferSize = 0;
+        sort(allMeans, allWeights);
+
+        double[] newMeans = new double[size];
+        double[] newWeights = new double[size];
+        int last = 0;
+        newMeans[0] = allMeans[0];
+        newWeights[0] = allWeights[0];
+        double weightSoFar = 0;
+        for (int i = 1; i < size; i++) {
+            double proposedWeight = newWeights[last] + allWeights[i];
+            double q0 = weightSoFar / totalWeight;
+            double q2 = (weightSoFar + proposedWeight) / totalWeight;
+            if (scale(q2) - scale(q0) <= 1) {
+                // Add to the current centroid
+                newWeights[last] = proposedWeight;
+                newMeans[last] += (allMeans[i] - newMeans[last]) * allWeights[i] / proposedWeight;
+            } else {
+                weightSoFar += newWeights[last];
+                last++;
+                newMeans[last] = allMeans[i];
+                newWeights[last] = allWeights[i];
+            }
+        }
+        means = Arrays.copyOf(newMeans, last + 1);
+        weights = Arrays.copyOf(newWeights, last + 1);
+    }
+
+    private double scale(double q) {
+        return compression / (2 * Math.PI) * Math.asin(2 * Math.min(1, q) - 1);
+    }
+
+    /**
+     * Sorts means with their weights
+     */
+    private static void sort(@NotNull double[] means, @NotNull double[] weights) {
+        Integer[] order = new Integer[means.length];
+        for (int i = 0; i < means.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (i1, i2) -> Double.compare(means[i1], means[i2]));
+        double[] sortedMeans = new double[means.length];
+        double[] sortedWeights = new double[means.length];
+        for (int i = 0; i < order.length; i++) {
+            int index = order[i];
+            sortedMeans[i] = means[index];
+            sortedWeights[i] = weights[index];
+        }
+        System.arraycopy(sortedMeans, 0, means, 0, means.length);
+        System.arraycopy(sortedWeights, 0, weights, 0, weights.length);
+    }
+}
@@ -27,4 +27,8 @@ public class DBCFeatureNotSupportedException extends DBCException
     public DBCFeatureNotSupportedException() {
         super("Not supported");
     }
+
+    public DBCFeatureNotSupportedException(String message, Throwable cause) {
+        super(message, cause);
+    }
 }
@@ -33,6 +33,12 @@ public class QMConstants {
     public static final String PROP_HISTORY_DAYS = PROP_PREFIX + "historyDays";
     public static final String PROP_STORE_LOG_FILE = PROP_PREFIX + "storeLogs";
     public static final String PROP_LOG_DIRECTORY = PROP_PREFIX + "logDirectory";
+    public static final String PROP_LOG_FORMAT = PROP_PREFIX + "logFormat";
+    public static final String PROP_LOG_MAX_FILE_SIZE = PROP_PREFIX + "logMaxFileSize";
+
+    public static final String LOG_FORMAT_TEXT = "text";
+    public static final String LOG_FORMAT_JSON = "json";
+    public static final long DEFAULT_LOG_MAX_FILE_SIZE = 1024 * 1024 * 10; // 10Mb
 
     public static final int EVENT_TYPE_SESSION = 1;
     public static final int EVENT_TYPE_TXN = 2;
@@ -21,6 +21,8 @@ import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.model.DBPObjectController;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.util.List;
 
 /**
@@ -188,6 +190,19 @@ public interface RMController extends DBPObjectController {
         @NotNull String projectId,
         @NotNull String resourcePath) throws DBException;
 
+    /**
+     * Opens resource data for reading. Caller must close the stream.
+     * Controllers which can stream data from the storage (file or remote response) should override it
+     * to avoid reading the whole resource in memory.
+     */
+    @NotNull
+    default InputStream openResourceStream(
+        @NotNull String projectId,
+        @NotNull String resourcePath) throws DBException
+    {
+        return new ByteArrayInputStream(getResourceContents(projectId, resourcePath));
+    }
+
     /**
      * Writes resource data
      */
@@ -29,6 +29,31 @@ import java.util.Map;
  */
 public interface DBSDataBulkLoader {
 
+    /**
+     * Send rows to the server while they are produced instead of staging the whole dataset first
+     */
+    String OPTION_STREAM_ROWS = "data.bulkLoad.streamRows";//$NON-NLS-1$
+    /**
+     * Use native binary encoding of values (if supported by the loader)
+     */
+    String OPTION_BINARY_FORMAT = "data.bulkLoad.binaryFormat";//$NON-NLS-1$
+    /**
+     * Number of rows loaded (and committed) by one bulk load statement. Zero means loader default.
+     */
+    String OPTION_CHUNK_SIZE = "data.bulkLoad.chunkSize";//$NON-NLS-1$
+    /**
+     * Lock the whole target table for the duration of the bulk load
+     */
+    String OPTION_TABLE_LOCK = "data.bulkLoad.tableLock";//$NON-NLS-1$
+    /**
+     * Keep NULL values instead of replacing them with column defaults
+     */
+    String OPTION_KEEP_NULLS = "data.bulkLoad.keepNulls";//$NON-NLS-1$
+    /**
+     * Preserve source values of identity (auto-generated) columns
+     */
+    String OPTION_KEEP_IDENTITY = "data.bulkLoad.keepIdentity";//$NON-NLS-1$
+
     interface BulkLoadManager extends AutoCloseable {
         void addRow(@NotNull DBCSession session, @NotNull Object[] attributeValues) throws DBCException;
 
@@ -39,6 +64,12 @@ public interface DBSDataBulkLoader {
         void close();
     }
 
+    /**
+     * Starts bulk load into the data container.
+     *
+     * @throws org.jkiss.dbeaver.model.exec.DBCFeatureNotSupportedException if the driver can't do bulk loads.
+     *   Callers load data with regular inserts then.
+     */
     @NotNull
     BulkLoadManager createBulkLoad(
         @NotNull DBCSession session,
@@ -31,6 +31,7 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Various objects cache
@@ -40,8 +41,76 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
 {
     private static final Log log = Log.getLog(AbstractObjectCache.class);
 
-    private List<OBJECT> objectList;
-    private Map<String, OBJECT> objectMap;
+    /**
+     * Cached objects. Object list of a state is immutable.
+     * Writers publish new state under cacheSync, readers never lock.
+     * <p>
+     * States share object buffer: appended object is written after the last object of the current state
+     * and is visible only in the new state. So appends do not copy the list.
+     * Name index is concurrent and is updated in place by writers.
+     */
+    private static final class CacheState<OBJECT> {
+        private final ObjectBuffer buffer;
+        private final List<OBJECT> objectList;
+        // Built on the first lookup
+        private volatile NameIndex<OBJECT> nameIndex;
+
+        CacheState(@NotNull ObjectBuffer buffer, int size, @Nullable NameIndex<OBJECT> nameIndex) {
+            this.buffer = buffer;
+            this.objectList = new ObjectList<>(buffer.objects, size);
+            this.nameIndex = nameIndex;
+        }
+    }
+
+    private static final class ObjectBuffer {
+        private final Object[] objects;
+        // Number of written objects. Changed under cacheSync
+        private int size;
+
+        ObjectBuffer(@NotNull Object[] objects, int size) {
+            this.objects = objects;
+            this.size = size;
+        }
+    }
+
+    /**
+     * Read-only view of the first objects of the buffer
+     */
+    private static final class ObjectList<OBJECT> extends AbstractList<OBJECT> implements RandomAccess {
+        private final Object[] objects;
+        private final int size;
+
+        ObjectList(@NotNull Object[] objects, int size) {
+            this.objects = objects;
+            this.size = size;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public OBJECT get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            return (OBJECT) objects[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    private static final class NameIndex<OBJECT> {
+        private final Map<String, OBJECT> objectMap;
+        private final boolean caseSensitive;
+
+        NameIndex(@NotNull Map<String, OBJECT> objectMap, boolean caseSensitive) {
+            this.objectMap = objectMap;
+            this.caseSensitive = caseSensitive;
+        }
+    }
+
+    private volatile CacheState<OBJECT> cacheState;
     protected volatile boolean fullCache = false;
     protected volatile boolean caseSensitive = true;
 
@@ -71,13 +140,15 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
         this.listOrderComparator = listOrderComparator;
     }
 
+    /**
+     * Returns cached objects. Returned list is immutable and is not affected by further cache modifications.
+     */
     @NotNull
     @Override
     public List<OBJECT> getCachedObjects()
     {
-        synchronized (cacheSync) {
-            return objectList == null ? Collections.emptyList() : objectList;
-        }
+        CacheState<OBJECT> state = cacheState;
+        return state == null ? Collections.emptyList() : state.objectList;
     }
 
     public <SUB_TYPE> List<SUB_TYPE> getTypedObjects(DBRProgressMonitor monitor, OWNER owner, Class<SUB_TYPE> type)
@@ -96,32 +167,45 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
     @Override
     public OBJECT getCachedObject(@NotNull String name)
     {
-        synchronized (cacheSync) {
-            return objectList == null || name == null ? null : getObjectMap().get(caseSensitive ? name : name.toUpperCase());
+        CacheState<OBJECT> state = cacheState;
+        if (state == null || name == null) {
+            return null;
         }
+        NameIndex<OBJECT> nameIndex = getNameIndex(state);
+        return nameIndex.objectMap.get(nameIndex.caseSensitive ? name : normalizeName(name));
     }
 
     public int getCacheSize() {
-        synchronized (cacheSync) {
-            return objectList == null ? 0 : objectList.size();
-        }
+        CacheState<OBJECT> state = cacheState;
+        return state == null ? 0 : state.objectList.size();
     }
 
     @Override
     public void cacheObject(@NotNull OBJECT object)
     {
         synchronized (cacheSync) {
-            if (this.objectList == null) {
-                this.objectList = new ArrayList<>();
-            }
             detectCaseSensitivity(object);
-            this.objectList.add(object);
-            if (this.objectMap != null) {
+            CacheState<OBJECT> state = cacheState;
+            int size = state == null ? 0 : state.objectList.size();
+            ObjectBuffer buffer = state == null ? null : state.buffer;
+            if (buffer == null || buffer.size != size || size == buffer.objects.length) {
+                // Buffer is full, grow it
+                Object[] objects = new Object[Math.max(10, size + (size >> 1) + 1)];
+                if (state != null) {
+                    System.arraycopy(buffer.objects, 0, objects, 0, size);
+                }
+                buffer = new ObjectBuffer(objects, size);
+            }
+            buffer.objects[size] = object;
+            buffer.size = size + 1;
+            NameIndex<OBJECT> nameIndex = getActualNameIndex(state);
+            if (nameIndex != null) {
                 String name = getObjectName(object);
-                if (checkDuplicateName(name, object)) {
-                    this.objectMap.put(name, object);
+                if (name != null && checkDuplicateName(nameIndex.objectMap, name, object)) {
+                    nameIndex.objectMap.put(name, object);
                 }
             }
+            cacheState = new CacheState<>(buffer, size + 1, nameIndex);
         }
     }
 
@@ -129,29 +213,49 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
     public void removeObject(@NotNull OBJECT object, boolean resetFullCache)
     {
         synchronized (cacheSync) {
-            if (this.objectList != null) {
-                detectCaseSensitivity(object);
-                this.objectList.remove(object);
-                if (this.objectMap != null) {
-                    this.objectMap.remove(getObjectName(object));
-                }
-            }
+            removeCachedObject(object);
             if (resetFullCache) {
                 fullCache = false;
             }
         }
     }
 
+    private void removeCachedObject(@NotNull OBJECT object) {
+        synchronized (cacheSync) {
+            CacheState<OBJECT> state = cacheState;
+            if (state != null) {
+                detectCaseSensitivity(object);
+                int index = state.objectList.indexOf(object);
+                if (index < 0) {
+                    return;
+                }
+                int size = state.objectList.size();
+                Object[] objects = new Object[size - 1];
+                System.arraycopy(state.buffer.objects, 0, objects, 0, index);
+                System.arraycopy(state.buffer.objects, index + 1, objects, index, size - index - 1);
+                NameIndex<OBJECT> nameIndex = getActualNameIndex(state);
+                if (nameIndex != null) {
+                    String name = getObjectName(object);
+                    if (name != null) {
+                        nameIndex.objectMap.remove(name, object);
+                    }
+                }
+                cacheState = new CacheState<>(new ObjectBuffer(objects, objects.length), objects.length, nameIndex);
+            }
+        }
+    }
+
     @Override
     public void renameObject(@NotNull OBJECT object, @NotNull String oldName, @NotNull String newName) {
         synchronized (cacheSync) {
-            if (this.objectMap != null) {
+            NameIndex<OBJECT> nameIndex = getActualNameIndex(cacheState);
+            if (nameIndex != null) {
                 if (!caseSensitive) {
-                    oldName = oldName.toUpperCase(Locale.ENGLISH);
-                    newName = newName.toUpperCase(Locale.ENGLISH);
+                    oldName = normalizeName(oldName);
+                    newName = normalizeName(newName);
                 }
-                if (this.objectMap.remove(oldName) == object) {
-                    this.objectMap.put(newName, object);
+                if (nameIndex.objectMap.remove(oldName, object)) {
+                    nameIndex.objectMap.put(newName, object);
                 }
             }
         }
@@ -166,7 +270,8 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
     }
 
     public boolean isEmpty() {
-        return CommonUtils.isEmpty(objectList);
+        CacheState<OBJECT> state = cacheState;
+        return state == null || state.objectList.isEmpty();
     }
 
     public boolean isFullyCached() {
@@ -181,17 +286,23 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
     public void clearCache()
     {
         synchronized (cacheSync) {
-            this.objectList = null;
-            this.objectMap = null;
+            this.cacheState = null;
             this.fullCache = false;
         }
     }
 
+    /**
+     * Sets cache contents. Objects are copied, so the list can be modified by the caller later.
+     */
     public void setCache(List<OBJECT> objects)
     {
         synchronized (cacheSync) {
-            this.objectList = objects;
-            this.objectMap = null;
+            if (objects == null) {
+                this.cacheState = null;
+            } else {
+                Object[] objectArray = objects.toArray();
+                this.cacheState = new CacheState<>(new ObjectBuffer(objectArray, objectArray.length), objectArray.length, null);
+            }
             this.fullCache = true;
         }
     }
@@ -213,48 +324,66 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
     protected void mergeCache(List<OBJECT> objects)
     {
         synchronized (cacheSync) {
-            if (this.objectList != null) {
+            CacheState<OBJECT> state = cacheState;
+            if (state != null && !state.objectList.isEmpty()) {
                 // Merge lists
+                Map<String, OBJECT> oldObjects = new HashMap<>(state.objectList.size());
+                for (OBJECT oldObject : state.objectList) {
+                    oldObjects.putIfAbsent(oldObject.getName(), oldObject);
+                }
                 objects = new ArrayList<>(objects);
                 for (int i = 0; i < objects.size(); i++) {
-                    OBJECT newObject = objects.get(i);
-                    String newObjectName = newObject.getName();
-                    for (int k = 0; k < objectList.size(); k++) {
-                        OBJECT oldObject = objectList.get(k);
-                        String oldObjectName = oldObject.getName();
-                        if (newObjectName.equals(oldObjectName)) {
-                            objects.set(i, oldObject);
-                            break;
-                        }
+                    OBJECT oldObject = oldObjects.get(objects.get(i).getName());
+                    if (oldObject != null) {
+                        objects.set(i, oldObject);
                     }
                 }
             }
+            setCache(objects);
         }
-        setCache(objects);
     }
 
-    private Map<String, OBJECT> getObjectMap()
+    @NotNull
+    private NameIndex<OBJECT> getNameIndex(@NotNull CacheState<OBJECT> state)
     {
-        synchronized (cacheSync) {
-            if (this.objectMap == null) {
-                this.objectMap = new HashMap<>();
-                if (objectList.size() > 0) {
-                    detectCaseSensitivity(objectList.get(0));
-                }
-
-                for (OBJECT object : objectList) {
-                    String name = getObjectName(object);
-                    if (checkDuplicateName(name, object)) {
-                        this.objectMap.put(name, object);
-                    }
+        NameIndex<OBJECT> nameIndex = state.nameIndex;
+        if (nameIndex == null || nameIndex.caseSensitive != caseSensitive) {
+            // Concurrent readers may build the same index, last one wins
+            List<OBJECT> objectList = state.objectList;
+            if (!objectList.isEmpty()) {
+                detectCaseSensitivity(objectList.get(0));
+            }
+            boolean indexCaseSensitive = caseSensitive;
+            Map<String, OBJECT> objectMap = new ConcurrentHashMap<>(objectList.size() * 4 / 3 + 1);
+            for (OBJECT object : objectList) {
+                String name = getObjectName(object);
+                if (name != null && checkDuplicateName(objectMap, name, object)) {
+                    objectMap.put(name, object);
                 }
             }
-            return this.objectMap;
+            nameIndex = new NameIndex<>(objectMap, indexCaseSensitive);
+            state.nameIndex = nameIndex;
         }
+        return nameIndex;
     }
 
-    private boolean checkDuplicateName(String name, OBJECT object) {
-        if (this.objectMap.containsKey(name)) {
+    /**
+     * Returns name index of the state which can be updated in place or null if index must be rebuilt
+     */
+    @Nullable
+    private NameIndex<OBJECT> getActualNameIndex(@Nullable CacheState<OBJECT> state) {
+        if (state == null) {
+            return null;
+        }
+        NameIndex<OBJECT> nameIndex = state.nameIndex;
+        if (nameIndex == null || nameIndex.caseSensitive != caseSensitive) {
+            return null;
+        }
+        return nameIndex;
+    }
+
+    private boolean checkDuplicateName(Map<String, OBJECT> objectMap, String name, OBJECT object) {
+        if (objectMap.containsKey(name)) {
             log.debug("Duplicate object name '" + name + "' in cache " + this.getClass().getSimpleName() + ". Last value: " + DBUtils.getObjectFullName(object, DBPEvaluationContext.DDL));
             return isValidDuplicateObject(object);
         }
@@ -286,21 +415,29 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
 
     public void clearChildrenOf(DBSObject parent) {
         synchronized (cacheSync) {
-            if (objectList == null) {
+            CacheState<OBJECT> state = cacheState;
+            if (state == null) {
                 return;
             }
-            for (int i = 0; i < objectList.size(); ) {
-                OBJECT object = objectList.get(i);
+            List<OBJECT> newList = new ArrayList<>(state.objectList.size());
+            NameIndex<OBJECT> nameIndex = getActualNameIndex(state);
+            for (OBJECT object : state.objectList) {
                 if (object.getParentObject() == parent) {
-                    this.objectList.remove(object);
-                    if (this.objectMap != null) {
-                        this.objectMap.remove(getObjectName(object));
+                    if (nameIndex != null) {
+                        String name = getObjectName(object);
+                        if (name != null) {
+                            nameIndex.objectMap.remove(name, object);
+                        }
                     }
                     fullCache = false;
                 } else {
-                    i++;
+                    newList.add(object);
                 }
             }
+            if (newList.size() != state.objectList.size()) {
+                Object[] objects = newList.toArray();
+                cacheState = new CacheState<>(new ObjectBuffer(objects, objects.length), objects.length, nameIndex);
+            }
         }
     }
 
@@ -316,11 +453,16 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
             return null;
         }
         if (!caseSensitive) {
-            return name.toUpperCase();
+            return normalizeName(name);
         }
         return name;
     }
 
+    @NotNull
+    private static String normalizeName(@NotNull String name) {
+        return name.toUpperCase(Locale.ENGLISH);
+    }
+
     /**
      * Performs a deep copy of srcObject into dstObject.
      * Copies all fields (recursively) and clears all nested caches
@@ -371,8 +513,11 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
         }
     }
 
+    /**
+     * Iterates over cached objects. Removal updates the cache, iteration goes over objects cached at creation time.
+     */
     protected class CacheIterator implements Iterator<OBJECT> {
-        private final Iterator<OBJECT> listIterator = objectList.iterator();
+        private final Iterator<OBJECT> listIterator = getCachedObjects().iterator();
         private OBJECT curObject;
         public CacheIterator()
         {
@@ -393,10 +538,11 @@ public abstract class AbstractObjectCache<OWNER extends DBSObject, OBJECT extend
         @Override
         public void remove()
         {
-            listIterator.remove();
-            if (objectMap != null) {
-                objectMap.remove(getObjectName(curObject));
+            if (curObject == null) {
+                throw new IllegalStateException();
             }
+            removeCachedObject(curObject);
+            curObject = null;
         }
     }
 
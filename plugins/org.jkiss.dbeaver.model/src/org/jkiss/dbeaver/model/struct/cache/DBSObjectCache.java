@@ -35,6 +35,11 @@ public interface DBSObjectCache<OWNER extends DBSObject, OBJECT extends DBSObjec
     Collection<OBJECT> getAllObjects(@NotNull DBRProgressMonitor monitor, @Nullable OWNER owner)
         throws DBException;
 
+    /**
+     * Returns cached objects. The returned list must not be modified, use cache methods to change cache contents.
+     * Implementations may return an unmodifiable snapshot which doesn't reflect further cache modifications
+     * (see {@link AbstractObjectCache#getCachedObjects()}).
+     */
     @NotNull
     List<OBJECT> getCachedObjects();
 
@@ -52,6 +52,7 @@ public abstract class ObjectAttributeDescriptor {
     private int orderNumber;
     private String id;
     private Method getter;
+    private volatile ObjectPropertyAccessor accessor;
     private boolean isLazy;
     private IPropertyCacheValidator cacheValidator;
     private Class<?> declaringClass;
@@ -119,6 +120,18 @@ public abstract class ObjectAttributeDescriptor {
         return getter;
     }
 
+    /**
+     * Returns compiled getter accessor. It is created on the first call.
+     */
+    @NotNull
+    public ObjectPropertyAccessor getAccessor() {
+        ObjectPropertyAccessor result = accessor;
+        if (result == null) {
+            result = accessor = ObjectPropertyAccessor.getAccessor(getter);
+        }
+        return result;
+    }
+
     public boolean isNameProperty() {
         return id.equals(DBConstants.PROP_ID_NAME) || orderNumber == 1;
     }
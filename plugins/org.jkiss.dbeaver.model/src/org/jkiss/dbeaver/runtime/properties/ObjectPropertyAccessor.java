@@ -0,0 +1,169 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.runtime.properties;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Property getter accessor.
+ * <p>
+ * Getters without parameters and getters with a single (progress monitor) parameter are unreflected into
+ * method handles adapted to the generic {@code (Object[, Object])Object} type, so reading a property is
+ * {@link MethodHandle#invokeExact} instead of reflective {@link Method#invoke}.
+ * Method handles work for classes of any bundle class loader (unlike classes spun by {@code LambdaMetafactory},
+ * which must be defined in the module of the getter class).
+ * Other getters (or getters which can't be unreflected) are invoked reflectively.
+ * Accessors are created once per getter and cached per declaring class.
+ */
+public abstract class ObjectPropertyAccessor {
+
+    private static final Log log = Log.getLog(ObjectPropertyAccessor.class);
+
+    private static final ClassValue<Map<Method, ObjectPropertyAccessor>> accessorCache = new ClassValue<>() {
+        @Override
+        protected Map<Method, ObjectPropertyAccessor> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    @NotNull
+    protected final Method getter;
+
+    protected ObjectPropertyAccessor(@NotNull Method getter) {
+        this.getter = getter;
+    }
+
+    @NotNull
+    public Method getGetter() {
+        return getter;
+    }
+
+    /**
+     * Invokes getter. Follows {@link Method#invoke} contract: all exceptions thrown by the getter
+     * are wrapped in {@link InvocationTargetException}.
+     */
+    public abstract Object invoke(@NotNull Object object, @Nullable Object[] params)
+        throws IllegalAccessException, IllegalArgumentException, InvocationTargetException;
+
+    /**
+     * Returns true if getter is invoked through a method handle, false if it is invoked reflectively
+     */
+    public abstract boolean isCompiled();
+
+    @NotNull
+    public static ObjectPropertyAccessor getAccessor(@NotNull Method getter) {
+        return accessorCache.get(getter.getDeclaringClass()).computeIfAbsent(getter, ObjectPropertyAccessor::createAccessor);
+    }
+
+    @NotNull
+    private static ObjectPropertyAccessor createAccessor(@NotNull Method getter) {
+        Class<?>[] paramTypes = getter.getParameterTypes();
+        if (Modifier.isStatic(getter.getModifiers()) || getter.getReturnType() == Void.TYPE ||
+            paramTypes.length > 1 || (paramTypes.length == 1 && paramTypes[0].isPrimitive()))
+        {
+            return new ReflectiveAccessor(getter);
+        }
+        try {
+            MethodHandle handle;
+            try {
+                handle = MethodHandles.lookup().unreflect(getter);
+            } catch (IllegalAccessException e) {
+                // Public getter of a non-public class. Packages of bundle classes (unnamed modules) are open
+                handle = MethodHandles.privateLookupIn(getter.getDeclaringClass(), MethodHandles.lookup()).unreflect(getter);
+            }
+            // Receiver and parameter are cast, primitive values are boxed
+            return new MethodHandleAccessor(getter, handle.asType(MethodType.genericMethodType(paramTypes.length + 1)));
+        } catch (Exception e) {
+            log.debug("Can't unreflect accessor of " + getter + ", reflection will be used: " + e.getMessage());
+            return new ReflectiveAccessor(getter);
+        }
+    }
+
+    protected void checkTarget(@NotNull Object object) {
+        if (!getter.getDeclaringClass().isInstance(object)) {
+            throw new IllegalArgumentException(
+                "Object of type " + object.getClass().getName() + " is not an instance of " + getter.getDeclaringClass().getName());
+        }
+    }
+
+    private static class ReflectiveAccessor extends ObjectPropertyAccessor {
+        ReflectiveAccessor(@NotNull Method getter) {
+            super(getter);
+        }
+
+        @Override
+        public boolean isCompiled() {
+            return false;
+        }
+
+        @Override
+        public Object invoke(@NotNull Object object, @Nullable Object[] params)
+            throws IllegalAccessException, IllegalArgumentException, InvocationTargetException
+        {
+            return getter.invoke(object, params);
+        }
+    }
+
+    private static class MethodHandleAccessor extends ObjectPropertyAccessor {
+        private final MethodHandle handle;
+        @Nullable
+        private final Class<?> paramType;
+
+        MethodHandleAccessor(@NotNull Method getter, @NotNull MethodHandle handle) {
+            super(getter);
+            this.handle = handle;
+            this.paramType = getter.getParameterCount() == 0 ? null : getter.getParameterTypes()[0];
+        }
+
+        @Override
+        public boolean isCompiled() {
+            return true;
+        }
+
+        @Override
+        public Object invoke(@NotNull Object object, @Nullable Object[] params) throws InvocationTargetException {
+            checkTarget(object);
+            if (paramType == null) {
+                try {
+                    return (Object) handle.invokeExact(object);
+                } catch (Throwable e) {
+                    throw new InvocationTargetException(e);
+                }
+            }
+            Object param = params == null || params.length == 0 ? null : params[0];
+            if (param != null && !paramType.isInstance(param)) {
+                throw new IllegalArgumentException("Argument type mismatch: " + param.getClass().getName());
+            }
+            try {
+                return (Object) handle.invokeExact(object, param);
+            } catch (Throwable e) {
+                throw new InvocationTargetException(e);
+            }
+        }
+    }
+}
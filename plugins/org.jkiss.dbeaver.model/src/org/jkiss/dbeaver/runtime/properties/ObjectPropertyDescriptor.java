@@ -394,9 +394,9 @@ public class ObjectPropertyDescriptor extends ObjectAttributeDescriptor implemen
                 return null;
             }
         }
-        Method getter = getGetter();
-        Object[] params = getter.getParameterCount() > 0 ?
-            new Object[getter.getParameterCount()] : null;
+        ObjectPropertyAccessor accessor = getAccessor();
+        int paramCount = accessor.getGetter().getParameterCount();
+        Object[] params = paramCount > 0 ? new Object[paramCount] : null;
 
         if (isLazy() && params != null) {
             // Lazy (probably cached)
@@ -411,7 +411,7 @@ public class ObjectPropertyDescriptor extends ObjectAttributeDescriptor implemen
             try {
                 DBExecUtils.tryExecuteRecover(progressMonitor, ((DBSObject) object).getDataSource(), param -> {
                     try {
-                        finalResult[0] = getter.invoke(finalObject, params);
+                        finalResult[0] = accessor.invoke(finalObject, params);
                     } catch (Exception e) {
                         throw new InvocationTargetException(e);
                     }
@@ -421,7 +421,7 @@ public class ObjectPropertyDescriptor extends ObjectAttributeDescriptor implemen
             }
             value = finalResult[0];
         } else {
-            value = getter.invoke(object, params);
+            value = accessor.invoke(object, params);
         }
 
         if (formatValue) {
@@ -430,6 +430,59 @@ public class ObjectPropertyDescriptor extends ObjectAttributeDescriptor implemen
         return value;
     }
 
+    /**
+     * Receiver of values read by {@link #readValues}
+     */
+    public interface ValueReceiver {
+        /**
+         * Called for each value which was read successfully.
+         *
+         * @return false to stop reading
+         */
+        boolean receiveValue(int objectIndex, @NotNull ObjectPropertyDescriptor property, @Nullable Object value);
+    }
+
+    /**
+     * Reads values of the specified properties of all objects. Should be called from a background job
+     * because lazy properties are read with the progress monitor.
+     * Only values which were actually read are passed to the receiver: read errors are logged and skipped,
+     * reading stops when monitor is canceled or receiver returns false. So callers may cache received values
+     * and read the missing ones again later. Each object is reported to the monitor as one unit of work.
+     *
+     * @return number of objects which values were read
+     */
+    public static int readValues(
+        @NotNull DBRProgressMonitor monitor,
+        @NotNull List<?> objects,
+        @NotNull List<ObjectPropertyDescriptor> properties,
+        boolean formatValue,
+        @NotNull ValueReceiver receiver)
+    {
+        for (int i = 0; i < objects.size(); i++) {
+            Object object = objects.get(i);
+            for (ObjectPropertyDescriptor property : properties) {
+                if (monitor.isCanceled()) {
+                    return i;
+                }
+                Object value;
+                try {
+                    value = property.readValue(object, monitor, formatValue);
+                } catch (Throwable e) {
+                    if (e instanceof InvocationTargetException) {
+                        e = ((InvocationTargetException) e).getTargetException();
+                    }
+                    log.error("Error reading property '" + property.getId() + "' from " + object, e);
+                    continue;
+                }
+                if (!receiver.receiveValue(i, property, value)) {
+                    return i;
+                }
+            }
+            monitor.worked(1);
+        }
+        return objects.size();
+    }
+
     public Object formatValue(Object object, Object value) {
         if (valueRenderer != null) {
             value = valueRenderer.transform(object, value);
@@ -0,0 +1,122 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.runtime.qm;
+
+import org.jkiss.code.NotNull;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free multi-producer single-consumer queue (D. Vyukov's bounded queue).
+ * <p>
+ * Each slot has a sequence number which tells whether the slot is free for the producer
+ * or filled for the consumer. Producers claim slots with CAS on the tail counter and never block:
+ * if the buffer is full the element is rejected. Only one thread may drain the buffer at a time.
+ */
+public class QMEventRingBuffer<E> {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<E> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    // Modified by consumer only
+    private volatile long head;
+
+    /**
+     * @param capacity buffer capacity, rounded up to a power of two
+     */
+    public QMEventRingBuffer(int capacity) {
+        this.capacity = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.slots = new AtomicReferenceArray<>(this.capacity);
+        this.sequences = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Adds element. Returns false if buffer is full.
+     */
+    public boolean offer(@NotNull E element) {
+        long position = tail.get();
+        for (;;) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.lazySet(index, element);
+                    // Publish slot to the consumer
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                // Slot is not consumed yet
+                return false;
+            } else {
+                // Other producer claimed this slot
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Moves up to maxElements elements to the collection in the order they were added.
+     * Must be called by one thread at a time.
+     *
+     * @return number of moved elements
+     */
+    public int drainTo(@NotNull Collection<? super E> target, int maxElements) {
+        long position = head;
+        int count = 0;
+        while (count < maxElements) {
+            int index = (int) position & mask;
+            if (sequences.get(index) != position + 1) {
+                // Empty or producer didn't publish element yet
+                break;
+            }
+            target.add(slots.get(index));
+            slots.lazySet(index, null);
+            // Release slot for producers
+            sequences.set(index, position + capacity);
+            position++;
+            count++;
+        }
+        head = position;
+        return count;
+    }
+
+    /**
+     * Approximate number of elements
+     */
+    public int size() {
+        return (int) Math.max(0, Math.min(capacity, tail.get() - head));
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+}
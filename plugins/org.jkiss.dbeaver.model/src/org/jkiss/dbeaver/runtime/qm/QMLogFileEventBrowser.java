@@ -0,0 +1,226 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.runtime.qm;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.ModelPreferences;
+import org.jkiss.dbeaver.model.data.json.JSONUtils;
+import org.jkiss.dbeaver.model.exec.DBCExecutionPurpose;
+import org.jkiss.dbeaver.model.preferences.DBPPreferenceStore;
+import org.jkiss.dbeaver.model.qm.*;
+import org.jkiss.dbeaver.model.qm.filters.QMCursorFilter;
+import org.jkiss.dbeaver.model.qm.meta.QMMConnectionInfo;
+import org.jkiss.dbeaver.model.qm.meta.QMMObject;
+import org.jkiss.dbeaver.model.qm.meta.QMMStatementExecuteInfo;
+import org.jkiss.dbeaver.model.qm.meta.QMMStatementInfo;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.utils.CommonUtils;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Query history browser which continues the in-memory history with events read from JSON Lines query log files.
+ * <p>
+ * Log files are read from the newest to the oldest, one file at a time and only when the history is exhausted.
+ * Timestamp index of a log file is used to skip entries which are already in the in-memory history.
+ * Queries and sessions are restored from the log, transactions are skipped.
+ */
+class QMLogFileEventBrowser implements QMEventBrowser {
+
+    private static final Log log = Log.getLog(QMLogFileEventBrowser.class);
+
+    private static final Gson gson = new GsonBuilder().setLenient().create();
+
+    private final QMEventBrowser historyBrowser;
+    private final QMMCollectorImpl collector;
+
+    QMLogFileEventBrowser(@NotNull QMEventBrowser historyBrowser, @NotNull QMMCollectorImpl collector) {
+        this.historyBrowser = historyBrowser;
+        this.collector = collector;
+    }
+
+    @NotNull
+    @Override
+    public QMEventCursor getQueryHistoryCursor(@NotNull QMCursorFilter cursorFilter) throws DBException {
+        QMEventCursor historyCursor = historyBrowser.getQueryHistoryCursor(cursorFilter);
+        Path logDirectory = getLogDirectory();
+        if (logDirectory == null) {
+            return historyCursor;
+        }
+        long firstEventTime = collector.getFirstEventTime();
+        return new LogFileCursor(historyCursor, cursorFilter, logDirectory, firstEventTime < 0 ? Long.MAX_VALUE : firstEventTime - 1);
+    }
+
+    @Nullable
+    private static Path getLogDirectory() {
+        DBPPreferenceStore preferences = ModelPreferences.getPreferences();
+        if (!preferences.getBoolean(QMConstants.PROP_STORE_LOG_FILE) ||
+            !QMConstants.LOG_FORMAT_JSON.equals(preferences.getString(QMConstants.PROP_LOG_FORMAT)))
+        {
+            return null;
+        }
+        String directory = preferences.getString(QMConstants.PROP_LOG_DIRECTORY);
+        return CommonUtils.isEmpty(directory) ? null : Path.of(directory);
+    }
+
+    /**
+     * Restores event from the log entry written by {@link QMLogFileWriter}.
+     * Returns null for transactions and unparseable entries.
+     */
+    @Nullable
+    static QMMetaEvent parseEvent(long time, @NotNull String entry) {
+        Map<String, Object> map;
+        try {
+            map = JSONUtils.parseMap(gson, new StringReader(entry));
+        } catch (JsonParseException e) {
+            log.debug("Bad query log entry: " + e.getMessage());
+            return null;
+        }
+        QMEventAction action = CommonUtils.valueOf(QMEventAction.class, JSONUtils.getString(map, "action"), null);
+        if (action == null) {
+            return null;
+        }
+        String containerName = JSONUtils.getString(map, "container");
+        QMMConnectionInfo.Builder connection = new QMMConnectionInfo.Builder()
+            .setContainerName(containerName)
+            .setInstanceId(containerName)
+            .setContextName(JSONUtils.getString(map, "context"))
+            .setOpenTime(time);
+        QMMObject object;
+        String type = CommonUtils.notEmpty(JSONUtils.getString(map, "type"));
+        switch (type) {
+            case "query": {
+                // Entry time is the end of the execution
+                long openTime = time - Math.max(0, JSONUtils.getLong(map, "duration", 0));
+                QMMStatementInfo statement = new QMMStatementInfo(
+                    openTime,
+                    time,
+                    connection.build(),
+                    CommonUtils.valueOf(DBCExecutionPurpose.class, JSONUtils.getString(map, "purpose"), DBCExecutionPurpose.USER));
+                object = new QMMStatementExecuteInfo(
+                    openTime,
+                    time,
+                    statement,
+                    JSONUtils.getString(map, "query"),
+                    JSONUtils.getLong(map, "rows", -1),
+                    JSONUtils.getInteger(map, "errorCode", 0),
+                    JSONUtils.getString(map, "error"),
+                    0,
+                    0,
+                    false);
+                break;
+            }
+            case "session":
+                if (action == QMEventAction.END) {
+                    connection.setCloseTime(time);
+                }
+                object = connection.build();
+                break;
+            default:
+                return null;
+        }
+        return new QMMetaEvent(object, action, "");
+    }
+
+    private static class LogFileCursor implements QMEventCursor {
+        private final QMEventCursor historyCursor;
+        private final QMCursorFilter cursorFilter;
+        private final Path logDirectory;
+        private final long toTime;
+        // Files which weren't read yet, ordered by time
+        private List<Path> logFiles;
+        // Events of the last read file, the newest first
+        private final Deque<QMMetaEvent> fileEvents = new ArrayDeque<>();
+        private long position;
+
+        LogFileCursor(@NotNull QMEventCursor historyCursor, @NotNull QMCursorFilter cursorFilter, @NotNull Path logDirectory, long toTime) {
+            this.historyCursor = historyCursor;
+            this.cursorFilter = cursorFilter;
+            this.logDirectory = logDirectory;
+            this.toTime = toTime;
+        }
+
+        @Override
+        public long getTotalSize() {
+            // Unknown until all log files are read
+            return -1;
+        }
+
+        @Override
+        public void scroll(int position, DBRProgressMonitor monitor) throws DBException {
+            throw new DBException("Query log cursor can't be scrolled");
+        }
+
+        @Override
+        public boolean hasNextEvent(DBRProgressMonitor monitor) throws DBException {
+            if (historyCursor.hasNextEvent(monitor)) {
+                return true;
+            }
+            try {
+                if (logFiles == null) {
+                    logFiles = QMLogFileReader.findLogFiles(logDirectory, 0, toTime);
+                }
+                while (fileEvents.isEmpty() && !logFiles.isEmpty() && !monitor.isCanceled()) {
+                    // Files are limited by the max log file size, so events of one file are kept in memory
+                    Path logFile = logFiles.remove(logFiles.size() - 1);
+                    monitor.subTask("Read " + logFile.getFileName());
+                    QMLogFileReader.readEntries(logFile, 0, toTime, (time, entry) -> {
+                        QMMetaEvent event = parseEvent(time, entry);
+                        if (event != null && QMRegistryImpl.acceptEvent(event, cursorFilter)) {
+                            fileEvents.addFirst(event);
+                        }
+                        return !monitor.isCanceled();
+                    });
+                }
+            } catch (IOException e) {
+                throw new DBException("Error reading query log files", e);
+            }
+            return !fileEvents.isEmpty();
+        }
+
+        @Override
+        public QMMetaEventEntity nextEvent(DBRProgressMonitor monitor) throws DBException {
+            position++;
+            if (historyCursor.hasNextEvent(monitor)) {
+                return historyCursor.nextEvent(monitor);
+            }
+            if (!hasNextEvent(monitor)) {
+                throw new DBException("No more query log events");
+            }
+            QMMetaEvent event = fileEvents.removeFirst();
+            return new QMMetaEventEntity(event.getObject(), event.getAction(), position, "", null);
+        }
+
+        @Override
+        public void close() {
+            historyCursor.close();
+            fileEvents.clear();
+        }
+    }
+}
@@ -0,0 +1,287 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.runtime.qm;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Timestamp index of a JSON Lines query log file.
+ * <p>
+ * Log entries are grouped in blocks. Index file contains one line per block:
+ * start offset, end offset, minimal and maximal entry time. Entries written after the last indexed block
+ * (the tail of the active log file) are not indexed.
+ * In compressed log files each block is a separate gzip member, so any block can be decompressed separately.
+ */
+public class QMLogFileIndex {
+
+    public static final String INDEX_FILE_EXTENSION = ".idx";
+    public static final String COMPRESSED_FILE_EXTENSION = ".gz";
+
+    static final int BLOCK_MAX_ENTRIES = 256;
+    static final int BLOCK_MAX_SIZE = 64 * 1024;
+
+    /**
+     * Indexed block of log entries
+     */
+    public static class Block {
+        private final long startOffset;
+        private final long endOffset;
+        private final long minTime;
+        private final long maxTime;
+
+        Block(long startOffset, long endOffset, long minTime, long maxTime) {
+            this.startOffset = startOffset;
+            this.endOffset = endOffset;
+            this.minTime = minTime;
+            this.maxTime = maxTime;
+        }
+
+        public long getStartOffset() {
+            return startOffset;
+        }
+
+        public long getEndOffset() {
+            return endOffset;
+        }
+
+        public long getMinTime() {
+            return minTime;
+        }
+
+        public long getMaxTime() {
+            return maxTime;
+        }
+
+        public boolean overlaps(long fromTime, long toTime) {
+            return maxTime >= fromTime && minTime <= toTime;
+        }
+    }
+
+    /**
+     * Builds index of the log file while it is being written.
+     * Entries must be added in the order they are written to the log file.
+     */
+    public static class Builder implements Closeable {
+        private final Writer indexWriter;
+        private long blockStart;
+        private long blockEnd;
+        private long minTime = Long.MAX_VALUE;
+        private long maxTime = Long.MIN_VALUE;
+        private int entryCount;
+
+        /**
+         * @param logFileSize current size of the log file. New entries are appended to its end.
+         */
+        public Builder(@NotNull Path indexFile, long logFileSize) throws IOException {
+            this.indexWriter = Files.newBufferedWriter(
+                indexFile, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            this.blockStart = logFileSize;
+            this.blockEnd = logFileSize;
+        }
+
+        /**
+         * Adds entry written at the specified offset with the specified length (in bytes)
+         */
+        public void addEntry(long offset, int length, long time) throws IOException {
+            if (entryCount == 0) {
+                blockStart = offset;
+            }
+            blockEnd = offset + length;
+            minTime = Math.min(minTime, time);
+            maxTime = Math.max(maxTime, time);
+            entryCount++;
+            if (entryCount >= BLOCK_MAX_ENTRIES || blockEnd - blockStart >= BLOCK_MAX_SIZE) {
+                finishBlock();
+            }
+        }
+
+        /**
+         * Writes current block (if any) in the index
+         */
+        public void finishBlock() throws IOException {
+            if (entryCount == 0) {
+                return;
+            }
+            writeBlock(indexWriter, new Block(blockStart, blockEnd, minTime, maxTime));
+            blockStart = blockEnd;
+            minTime = Long.MAX_VALUE;
+            maxTime = Long.MIN_VALUE;
+            entryCount = 0;
+        }
+
+        public void flush() throws IOException {
+            indexWriter.flush();
+        }
+
+        /**
+         * Writes the current block and closes the index file
+         */
+        @Override
+        public void close() throws IOException {
+            try {
+                finishBlock();
+            } finally {
+                indexWriter.close();
+            }
+        }
+    }
+
+    @NotNull
+    public static Path getIndexFile(@NotNull Path logFile) {
+        return logFile.resolveSibling(logFile.getFileName().toString() + INDEX_FILE_EXTENSION);
+    }
+
+    public static boolean isCompressed(@NotNull Path logFile) {
+        return logFile.getFileName().toString().endsWith(COMPRESSED_FILE_EXTENSION);
+    }
+
+    /**
+     * Reads index of the log file. Returns empty list if there is no index.
+     * Malformed lines (e.g. partially written last line) are skipped.
+     */
+    @NotNull
+    public static List<Block> readIndex(@NotNull Path logFile) throws IOException {
+        Path indexFile = getIndexFile(logFile);
+        if (!Files.exists(indexFile)) {
+            return Collections.emptyList();
+        }
+        List<Block> blocks = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(indexFile, StandardCharsets.UTF_8)) {
+            for (String line; (line = reader.readLine()) != null; ) {
+                Block block = parseBlock(line);
+                if (block != null) {
+                    blocks.add(block);
+                }
+            }
+        }
+        return blocks;
+    }
+
+    /**
+     * Compresses log file with its index. Each indexed block is compressed in a separate gzip member
+     * and the new index refers to compressed offsets. Source files are deleted.
+     *
+     * @return compressed log file
+     */
+    @NotNull
+    public static Path compress(@NotNull Path logFile) throws IOException {
+        Path targetFile = logFile.resolveSibling(logFile.getFileName().toString() + COMPRESSED_FILE_EXTENSION);
+        Path targetIndexFile = getIndexFile(targetFile);
+        List<Block> blocks = new ArrayList<>(readIndex(logFile));
+        long fileSize = Files.size(logFile);
+        long indexedSize = blocks.isEmpty() ? 0 : blocks.get(blocks.size() - 1).getEndOffset();
+        if (indexedSize < fileSize) {
+            // Unindexed tail (or a log without index at all)
+            blocks.add(new Block(indexedSize, fileSize, Long.MIN_VALUE, Long.MAX_VALUE));
+        }
+        try (FileChannel source = FileChannel.open(logFile, StandardOpenOption.READ);
+             OutputStream target = new BufferedOutputStream(Files.newOutputStream(targetFile));
+             Writer indexWriter = Files.newBufferedWriter(targetIndexFile, StandardCharsets.UTF_8))
+        {
+            long targetOffset = 0;
+            byte[] buffer = new byte[BLOCK_MAX_SIZE];
+            for (Block block : blocks) {
+                ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+                try (GZIPOutputStream gzip = new GZIPOutputStream(compressed);
+                     InputStream in = openRange(source, block.getStartOffset(), block.getEndOffset()))
+                {
+                    for (int count; (count = in.read(buffer)) > 0; ) {
+                        gzip.write(buffer, 0, count);
+                    }
+                }
+                compressed.writeTo(target);
+                writeBlock(indexWriter, new Block(
+                    targetOffset, targetOffset + compressed.size(), block.getMinTime(), block.getMaxTime()));
+                targetOffset += compressed.size();
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(targetFile);
+            Files.deleteIfExists(targetIndexFile);
+            throw e;
+        }
+        Files.delete(logFile);
+        Files.deleteIfExists(getIndexFile(logFile));
+        return targetFile;
+    }
+
+    /**
+     * Opens stream which reads bytes of the file channel in range [startOffset, endOffset).
+     * Stream doesn't close the channel.
+     */
+    @NotNull
+    static InputStream openRange(@NotNull FileChannel channel, long startOffset, long endOffset) throws IOException {
+        channel.position(startOffset);
+        InputStream channelStream = Channels.newInputStream(channel);
+        return new InputStream() {
+            private long remaining = endOffset - startOffset;
+
+            @Override
+            public int read() throws IOException {
+                if (remaining <= 0) {
+                    return -1;
+                }
+                int result = channelStream.read();
+                if (result >= 0) {
+                    remaining--;
+                }
+                return result;
+            }
+
+            @Override
+            public int read(@NotNull byte[] b, int off, int len) throws IOException {
+                if (remaining <= 0) {
+                    return -1;
+                }
+                int count = channelStream.read(b, off, (int) Math.min(len, remaining));
+                if (count > 0) {
+                    remaining -= count;
+                }
+                return count;
+            }
+        };
+    }
+
+    private static void writeBlock(@NotNull Writer writer, @NotNull Block block) throws IOException {
+        writer.write(block.getStartOffset() + " " + block.getEndOffset() + " " + block.getMinTime() + " " + block.getMaxTime() + "\n");
+    }
+
+    @Nullable
+    private static Block parseBlock(@NotNull String line) {
+        String[] parts = line.trim().split(" ");
+        if (parts.length != 4) {
+            return null;
+        }
+        try {
+            return new Block(Long.parseLong(parts[0]), Long.parseLong(parts[1]), Long.parseLong(parts[2]), Long.parseLong(parts[3]));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
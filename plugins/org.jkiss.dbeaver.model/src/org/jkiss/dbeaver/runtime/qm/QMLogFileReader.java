@@ -0,0 +1,221 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.runtime.qm;
+
+import org.jkiss.code.NotNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads JSON Lines query log files written by {@link QMLogFileWriter}.
+ * <p>
+ * Uses timestamp index (see {@link QMLogFileIndex}) to read only blocks which may contain entries of the requested time range.
+ */
+public class QMLogFileReader {
+
+    private static final String TIME_FIELD_PREFIX = "{\"time\":";
+
+    public interface EntryVisitor {
+        /**
+         * Visits log entry (a JSON object)
+         *
+         * @return false to stop reading
+         */
+        boolean visitEntry(long time, @NotNull String entry);
+    }
+
+    /**
+     * Returns JSON Lines log files (compressed segments and active files) which may contain entries
+     * of the specified time range. Files are ordered by time.
+     */
+    @NotNull
+    public static List<Path> findLogFiles(@NotNull Path directory, long fromTime, long toTime) throws IOException {
+        List<LogFileName> logFiles = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return new ArrayList<>();
+        }
+        // Log files are named by the date they were opened, so previous day file may contain entries of the range
+        LocalDate fromDate = toLocalDate(fromTime).minusDays(1);
+        LocalDate toDate = toLocalDate(toTime);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, QMLogFileWriter.LOG_FILE_PREFIX + "*")) {
+            for (Path file : files) {
+                LogFileName logFile = LogFileName.parse(file);
+                if (logFile != null && !logFile.date.isBefore(fromDate) && !logFile.date.isAfter(toDate)) {
+                    logFiles.add(logFile);
+                }
+            }
+        }
+        logFiles.sort(Comparator.<LogFileName, LocalDate>comparing(f -> f.date).thenComparingInt(f -> f.segment));
+        List<Path> result = new ArrayList<>(logFiles.size());
+        for (LogFileName logFile : logFiles) {
+            result.add(logFile.path);
+        }
+        return result;
+    }
+
+    /**
+     * Reads entries of the specified time range (inclusive) from the log file.
+     *
+     * @return false if visitor stopped reading
+     */
+    public static boolean readEntries(@NotNull Path logFile, long fromTime, long toTime, @NotNull EntryVisitor visitor) throws IOException {
+        boolean compressed = QMLogFileIndex.isCompressed(logFile);
+        List<QMLogFileIndex.Block> blocks = QMLogFileIndex.readIndex(logFile);
+        try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            long rangeStart = -1, rangeEnd = -1;
+            for (QMLogFileIndex.Block block : blocks) {
+                if (block.getEndOffset() > fileSize) {
+                    // Index is ahead of the log file
+                    break;
+                }
+                if (!block.overlaps(fromTime, toTime)) {
+                    continue;
+                }
+                if (!compressed && block.getStartOffset() == rangeEnd) {
+                    // Read adjacent blocks at once
+                    rangeEnd = block.getEndOffset();
+                    continue;
+                }
+                if (rangeStart >= 0 && !readRange(channel, rangeStart, rangeEnd, compressed, fromTime, toTime, visitor)) {
+                    return false;
+                }
+                rangeStart = block.getStartOffset();
+                rangeEnd = block.getEndOffset();
+            }
+            if (rangeStart >= 0 && !readRange(channel, rangeStart, rangeEnd, compressed, fromTime, toTime, visitor)) {
+                return false;
+            }
+            if (!compressed) {
+                // Unindexed tail
+                long tailStart = blocks.isEmpty() ? 0 : Math.min(fileSize, blocks.get(blocks.size() - 1).getEndOffset());
+                return tailStart >= fileSize || readRange(channel, tailStart, fileSize, false, fromTime, toTime, visitor);
+            }
+        }
+        return true;
+    }
+
+    private static boolean readRange(
+        @NotNull FileChannel channel,
+        long startOffset,
+        long endOffset,
+        boolean compressed,
+        long fromTime,
+        long toTime,
+        @NotNull EntryVisitor visitor
+    ) throws IOException {
+        InputStream in = QMLogFileIndex.openRange(channel, startOffset, endOffset);
+        if (compressed) {
+            in = new GZIPInputStream(in);
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            for (String line; (line = reader.readLine()) != null; ) {
+                if (!line.endsWith("}")) {
+                    // Partially written entry
+                    continue;
+                }
+                long time = getEntryTime(line);
+                if (time >= fromTime && time <= toTime && !visitor.visitEntry(time, line)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns time of the entry or -1. Time is always the first field of the entry.
+     */
+    static long getEntryTime(@NotNull String entry) {
+        if (!entry.startsWith(TIME_FIELD_PREFIX)) {
+            return -1;
+        }
+        long time = 0;
+        int digits = 0;
+        for (int i = TIME_FIELD_PREFIX.length(); i < entry.length(); i++, digits++) {
+            char c = entry.charAt(i);
+            if (c < '0' || c > '9') {
+                break;
+            }
+            time = time * 10 + (c - '0');
+        }
+        return digits == 0 ? -1 : time;
+    }
+
+    @NotNull
+    private static LocalDate toLocalDate(long time) {
+        return Instant.ofEpochMilli(time).atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    private static class LogFileName {
+        private final Path path;
+        private final LocalDate date;
+        // Active file follows all its segments
+        private final int segment;
+
+        private LogFileName(Path path, LocalDate date, int segment) {
+            this.path = path;
+            this.date = date;
+            this.segment = segment;
+        }
+
+        static LogFileName parse(@NotNull Path file) {
+            String name = file.getFileName().toString();
+            if (name.endsWith(QMLogFileIndex.COMPRESSED_FILE_EXTENSION)) {
+                name = name.substring(0, name.length() - QMLogFileIndex.COMPRESSED_FILE_EXTENSION.length());
+            }
+            if (!name.endsWith(QMLogFileWriter.JSON_LOG_EXTENSION)) {
+                return null;
+            }
+            LocalDate date = QMLogFileWriter.getLogFileDate(name);
+            if (date == null) {
+                return null;
+            }
+            // <prefix><date>[.<segment>].jsonl
+            String segment = name.substring(
+                QMLogFileWriter.LOG_FILE_PREFIX.length() + QMLogFileWriter.LOG_FILE_DATE_LENGTH,
+                name.length() - QMLogFileWriter.JSON_LOG_EXTENSION.length());
+            if (segment.isEmpty()) {
+                return new LogFileName(file, date, Integer.MAX_VALUE);
+            }
+            if (segment.charAt(0) != '.') {
+                return null;
+            }
+            try {
+                return new LogFileName(file, date, Integer.parseInt(segment.substring(1)));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
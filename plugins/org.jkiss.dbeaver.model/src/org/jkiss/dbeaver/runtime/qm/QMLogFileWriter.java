@@ -17,50 +17,86 @@
 package org.jkiss.dbeaver.runtime.qm;
 
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.ModelPreferences;
 import org.jkiss.dbeaver.model.DBConstants;
+import org.jkiss.dbeaver.model.data.json.JSONUtils;
 import org.jkiss.dbeaver.model.preferences.DBPPreferenceListener;
 import org.jkiss.dbeaver.model.preferences.DBPPreferenceStore;
 import org.jkiss.dbeaver.model.qm.*;
 import org.jkiss.dbeaver.model.qm.meta.*;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.utils.ContentUtils;
 import org.jkiss.dbeaver.utils.GeneralUtils;
 
-import java.io.File;
-import java.io.FileWriter;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
-import java.io.Writer;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
-import java.util.Calendar;
-import java.util.List;
-import java.util.Locale;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
- * Query manager log writer
+ * Query manager log writer.
+ * <p>
+ * Events are formatted in the event dispatcher thread and put in a bounded queue.
+ * Log files are written in background: entries are written in groups and flushed once per group.
+ * Log file is rotated each day and when it reaches the maximal size, closed segments are compressed.
+ * Log may be written in the text (Eclipse log) format or in the JSON Lines format.
+ * JSON Lines log files are indexed by timestamp (see {@link QMLogFileIndex}, {@link QMLogFileReader}).
  */
 public class QMLogFileWriter implements QMMetaListener, DBPPreferenceListener {
 
     private static final Log log = Log.getLog(QMLogFileWriter.class);
-    private static final DateTimeFormatter LOG_FILENAME_FORMATTER = DateTimeFormatter
-        .ofPattern("'dbeaver_sql_'" + GeneralUtils.DEFAULT_DATE_PATTERN + "'.log'", Locale.ENGLISH);
 
-    private File logFile;
-    private boolean enabled;
+    public static final String LOG_FILE_PREFIX = "dbeaver_sql_";
+    public static final int LOG_FILE_DATE_LENGTH = GeneralUtils.DEFAULT_DATE_PATTERN.length();
+    public static final String TEXT_LOG_EXTENSION = ".log";
+    public static final String JSON_LOG_EXTENSION = ".jsonl";
+
+    private static final DateTimeFormatter LOG_FILE_DATE_FORMATTER = DateTimeFormatter
+        .ofPattern(GeneralUtils.DEFAULT_DATE_PATTERN, Locale.ENGLISH);
+
+    private static final int QUEUE_CAPACITY = 10000;
+    // Number of queued entries which triggers immediate write
+    private static final int FLUSH_ENTRIES = 1000;
+    private static final long FLUSH_INTERVAL_MS = 1000;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
 
-    private Writer logWriter;
-    private QMEventFilter eventFilter;
     private final String lineSeparator;
+    private final BlockingQueue<LogEntry> entryQueue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final LongAdder droppedEntries = new LongAdder();
+    private final LogWriterJob writerJob;
+    private volatile LogSettings settings;
+    private volatile QMEventFilter eventFilter;
+
+    // Writer state. Accessed in writePendingEntries only
+    private LogSettings fileSettings;
+    private LocalDate fileDate;
+    private Path logFile;
+    private OutputStream logStream;
+    private long logFileSize;
+    private QMLogFileIndex.Builder logIndex;
+    private long reportedDroppedEntries;
 
     public QMLogFileWriter()
     {
         lineSeparator = GeneralUtils.getDefaultLineSeparator();
+        writerJob = new LogWriterJob();
         ModelPreferences.getPreferences().addPropertyChangeListener(this);
         initLogFile();
     }
@@ -68,94 +104,292 @@ public class QMLogFileWriter implements QMMetaListener, DBPPreferenceListener {
     public void dispose()
     {
         ModelPreferences.getPreferences().removePropertyChangeListener(this);
+        writerJob.cancel();
+        // Write remaining entries and close the log
+        writePendingEntries();
+        settings = null;
+        synchronized (this) {
+            closeLogFile(false);
+            fileSettings = null;
+        }
     }
 
-    private synchronized void initLogFile()
+    private void initLogFile()
     {
         final DBPPreferenceStore preferences = ModelPreferences.getPreferences();
-        enabled = preferences.getBoolean(QMConstants.PROP_STORE_LOG_FILE);
-        if (enabled) {
-            final int daysToKeepLogs = preferences.getInt(QMConstants.PROP_HISTORY_DAYS);
-            final String logFolderPath = preferences.getString(QMConstants.PROP_LOG_DIRECTORY);
+        eventFilter = new DefaultEventFilter();
+        if (preferences.getBoolean(QMConstants.PROP_STORE_LOG_FILE)) {
+            settings = new LogSettings(
+                Path.of(preferences.getString(QMConstants.PROP_LOG_DIRECTORY)),
+                preferences.getInt(QMConstants.PROP_HISTORY_DAYS),
+                QMConstants.LOG_FORMAT_JSON.equals(preferences.getString(QMConstants.PROP_LOG_FORMAT)),
+                preferences.getLong(QMConstants.PROP_LOG_MAX_FILE_SIZE));
+        } else {
+            settings = null;
+        }
+        // Writer job opens (or closes) the log
+        writerJob.schedule();
+    }
 
-            try {
-                purgeOldLogs(Path.of(logFolderPath), daysToKeepLogs);
-            } catch (IOException e) {
-                log.debug("Error purging old logs: " + e.getMessage());
+    @Override
+    public void metaInfoChanged(@NotNull DBRProgressMonitor monitor, @NotNull List<QMMetaEvent> events)
+    {
+        final LogSettings settings = this.settings;
+        if (settings == null) {
+            return;
+        }
+        final QMEventFilter eventFilter = this.eventFilter;
+        StringBuilder buffer = new StringBuilder(1000);
+        for (QMMetaEvent event : events) {
+            if (!eventFilter.accept(event)) {
+                continue;
             }
-
-            File logFolder = new File(logFolderPath);
-            if (!logFolder.exists()) {
-                if (!logFolder.mkdirs()) {
-                    log.error("Can't create log folder '" + logFolderPath + "'");
+            buffer.setLength(0);
+            if (settings.json) {
+                writeJsonEvent(buffer, event);
+            } else {
+                writeEvent(buffer, event);
+            }
+            if (buffer.length() > 0) {
+                LogEntry entry = new LogEntry(
+                    QMUtils.getObjectEventTime(event.getObject(), event.getAction()), settings.json, buffer.toString());
+                if (!entryQueue.offer(entry)) {
+                    droppedEntries.increment();
                 }
             }
-            logFile = new File(logFolder, LOG_FILENAME_FORMATTER.format(LocalDate.now()));
+        }
+        int state = writerJob.getState();
+        if (entryQueue.size() >= FLUSH_ENTRIES) {
+            if (state == Job.SLEEPING) {
+                writerJob.wakeUp();
+            } else if (state != Job.WAITING) {
+                writerJob.schedule();
+            }
+        } else if (state != Job.SLEEPING && state != Job.WAITING) {
+            // Running job will be rescheduled after it finishes
+            writerJob.schedule(FLUSH_INTERVAL_MS);
+        }
+    }
+
+    @Override
+    public void preferenceChange(PreferenceChangeEvent event)
+    {
+        if (event.getProperty().startsWith(QMConstants.PROP_PREFIX)) {
+            initLogFile();
+        }
+    }
+
+    /**
+     * Writes all queued entries and flushes the log
+     */
+    private synchronized void writePendingEntries() {
+        final LogSettings settings = this.settings;
+        if (!Objects.equals(settings, fileSettings)) {
+            closeLogFile(false);
+            fileSettings = settings;
+            if (settings != null) {
+                purgeOldLogs(settings.directory, settings.historyDays);
+            }
+        }
+        final List<LogEntry> entries = new ArrayList<>();
+        while (entryQueue.drainTo(entries, QUEUE_CAPACITY) > 0) {
+            if (settings == null) {
+                entries.clear();
+                continue;
+            }
+            // Events are dispatched in batches which are not necessarily ordered by time
+            entries.sort(Comparator.comparingLong(e -> e.time));
             try {
-                logWriter = new FileWriter(logFile, true);
+                for (LogEntry entry : entries) {
+                    if (entry.json == settings.json) {
+                        writeEntry(settings, entry);
+                    }
+                }
             } catch (IOException e) {
-                log.error("Can't open log writer", e);
+                log.warn("IO error writing QM log. Disable log file writer", e);
+                closeLogFile(false);
+                this.settings = null;
+                fileSettings = null;
+                break;
             }
-        } else {
-            if (logWriter != null) {
-                ContentUtils.close(logWriter);
-                logWriter = null;
+            entries.clear();
+        }
+        if (logStream != null) {
+            try {
+                logStream.flush();
+                if (logIndex != null) {
+                    logIndex.flush();
+                }
+            } catch (IOException e) {
+                log.debug("Error flushing QM log: " + e.getMessage());
             }
         }
-        eventFilter = new DefaultEventFilter();
+        long dropped = droppedEntries.sum();
+        if (dropped > reportedDroppedEntries) {
+            log.warn((dropped - reportedDroppedEntries) + " QM log entries were dropped (log queue is full)");
+            reportedDroppedEntries = dropped;
+        }
     }
 
-    private static void purgeOldLogs(@NotNull Path logDirectory, int daysToKeep) throws IOException {
-        final LocalDate today = LocalDate.now();
-        final LocalDate judgementDay = today.minusDays(daysToKeep);
+    private void writeEntry(@NotNull LogSettings settings, @NotNull LogEntry entry) throws IOException {
+        byte[] data = entry.text.getBytes(StandardCharsets.UTF_8);
+        LocalDate today = LocalDate.now();
+        if (logStream != null && !today.equals(fileDate)) {
+            // New day - new log
+            closeLogFile(true);
+            purgeOldLogs(settings.directory, settings.historyDays);
+        } else if (logStream != null && logFileSize > 0 && logFileSize + data.length > settings.maxFileSize) {
+            closeLogFile(true);
+        }
+        if (logStream == null) {
+            openLogFile(settings, today);
+        }
+        logStream.write(data);
+        if (logIndex != null) {
+            logIndex.addEntry(logFileSize, data.length, entry.time);
+        }
+        logFileSize += data.length;
+    }
 
-        Files.list(logDirectory)
-            .filter(file -> {
-                try {
-                    final LocalDate date = LOG_FILENAME_FORMATTER.parse(file.getFileName().toString(), LocalDate::from);
-                    return judgementDay.isAfter(date);
-                } catch (DateTimeParseException e) {
-                    return false;
-                }
-            })
-            .forEach(file -> {
-                try {
-                    Files.delete(file);
-                } catch (IOException e) {
-                    log.debug("Unable to purge the old log file '" + file + "': " + e.getMessage());
-                }
-            });
+    private void openLogFile(@NotNull LogSettings settings, @NotNull LocalDate date) throws IOException {
+        if (!Files.exists(settings.directory)) {
+            Files.createDirectories(settings.directory);
+        }
+        fileDate = date;
+        logFile = settings.directory.resolve(getLogFileName(date, 0, settings.json));
+        logFileSize = Files.exists(logFile) ? Files.size(logFile) : 0;
+        logStream = new BufferedOutputStream(
+            Files.newOutputStream(logFile, StandardOpenOption.CREATE, StandardOpenOption.APPEND),
+            WRITE_BUFFER_SIZE);
+        if (settings.json) {
+            logIndex = new QMLogFileIndex.Builder(QMLogFileIndex.getIndexFile(logFile), logFileSize);
+        }
     }
 
-    @Override
-    public synchronized void metaInfoChanged(@NotNull DBRProgressMonitor monitor, @NotNull List<QMMetaEvent> events)
-    {
-        if (!enabled || logWriter == null) {
+    /**
+     * Closes the active log file.
+     *
+     * @param rotate move the file into a new segment and compress it
+     */
+    private void closeLogFile(boolean rotate) {
+        if (logStream == null) {
             return;
         }
-
-        StringBuilder logBuffer = new StringBuilder(4000);
-        for (QMMetaEvent event : events) {
-            if (eventFilter.accept(event)) {
-                writeEvent(logBuffer, event);
+        ContentUtils.close(logStream);
+        logStream = null;
+        if (logIndex != null) {
+            ContentUtils.close(logIndex);
+            logIndex = null;
+        }
+        if (rotate) {
+            try {
+                Path segmentFile = null;
+                for (int segment = 1; segmentFile == null || Files.exists(segmentFile) ||
+                    Files.exists(segmentFile.resolveSibling(segmentFile.getFileName() + QMLogFileIndex.COMPRESSED_FILE_EXTENSION)); segment++)
+                {
+                    segmentFile = logFile.resolveSibling(getLogFileName(fileDate, segment, fileSettings.json));
+                }
+                Files.move(logFile, segmentFile);
+                Path indexFile = QMLogFileIndex.getIndexFile(logFile);
+                if (Files.exists(indexFile)) {
+                    Files.move(indexFile, QMLogFileIndex.getIndexFile(segmentFile));
+                }
+                new CompressSegmentJob(segmentFile).schedule();
+            } catch (IOException e) {
+                log.debug("Error rotating QM log file '" + logFile + "': " + e.getMessage());
             }
         }
+        logFile = null;
+        fileDate = null;
+        logFileSize = 0;
+    }
+
+    @NotNull
+    private static String getLogFileName(@NotNull LocalDate date, int segment, boolean json) {
+        return LOG_FILE_PREFIX + LOG_FILE_DATE_FORMATTER.format(date) +
+            (segment > 0 ? "." + segment : "") +
+            (json ? JSON_LOG_EXTENSION : TEXT_LOG_EXTENSION);
+    }
 
+    /**
+     * Returns date of the log file (or of its segment or index) or null if this is not a log file
+     */
+    @Nullable
+    static LocalDate getLogFileDate(@NotNull String fileName) {
+        if (!fileName.startsWith(LOG_FILE_PREFIX) || fileName.length() < LOG_FILE_PREFIX.length() + LOG_FILE_DATE_LENGTH) {
+            return null;
+        }
         try {
-            logWriter.write(logBuffer.toString());
-            logWriter.flush();
+            return LOG_FILE_DATE_FORMATTER.parse(
+                fileName.substring(LOG_FILE_PREFIX.length(), LOG_FILE_PREFIX.length() + LOG_FILE_DATE_LENGTH), LocalDate::from);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static void purgeOldLogs(@NotNull Path logDirectory, int daysToKeep) {
+        if (!Files.isDirectory(logDirectory)) {
+            return;
+        }
+        final LocalDate judgementDay = LocalDate.now().minusDays(daysToKeep);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(logDirectory, LOG_FILE_PREFIX + "*")) {
+            for (Path file : files) {
+                final LocalDate date = getLogFileDate(file.getFileName().toString());
+                if (date != null && judgementDay.isAfter(date)) {
+                    try {
+                        Files.delete(file);
+                    } catch (IOException e) {
+                        log.debug("Unable to purge the old log file '" + file + "': " + e.getMessage());
+                    }
+                }
+            }
         } catch (IOException e) {
-            log.warn("IO error writing QM log. Disable log file writer", e);
-            ContentUtils.close(logWriter);
-            logWriter = null;
+            log.debug("Error purging old logs: " + e.getMessage());
         }
     }
 
-    @Override
-    public void preferenceChange(PreferenceChangeEvent event)
+    private void writeJsonEvent(StringBuilder buffer, QMMetaEvent event)
     {
-        if (event.getProperty().startsWith(QMConstants.PROP_PREFIX)) {
-            initLogFile();
+        QMMObject object = event.getObject();
+        QMEventAction action = event.getAction();
+        if (object instanceof QMMStatementInfo || object instanceof QMMTransactionSavepointInfo ||
+            (object instanceof QMMStatementExecuteInfo && action != QMEventAction.END)) {
+            return;
+        }
+        // Time must be the first field, it is used by the reader
+        buffer.append("{\"time\":").append(QMUtils.getObjectEventTime(object, action));
+        buffer.append(",\"id\":").append(object.getObjectId());
+        buffer.append(",\"action\":\"").append(action).append('"');
+        QMMConnectionInfo connection = object.getConnection();
+        if (connection != null) {
+            appendJsonField(buffer, "container", connection.getContainerName());
+            appendJsonField(buffer, "context", connection.getContextName());
+        }
+        if (object instanceof QMMStatementExecuteInfo) {
+            QMMStatementExecuteInfo executeInfo = (QMMStatementExecuteInfo) object;
+            appendJsonField(buffer, "type", "query");
+            if (executeInfo.getStatement() != null && executeInfo.getStatement().getPurpose() != null) {
+                appendJsonField(buffer, "purpose", executeInfo.getStatement().getPurpose().name());
+            }
+            appendJsonField(buffer, "query", executeInfo.getQueryString());
+            buffer.append(",\"duration\":").append(executeInfo.getDuration());
+            buffer.append(",\"rows\":").append(executeInfo.getUpdateRowCount());
+            if (executeInfo.hasError()) {
+                buffer.append(",\"errorCode\":").append(executeInfo.getErrorCode());
+                appendJsonField(buffer, "error", executeInfo.getErrorMessage());
+            }
+        } else if (object instanceof QMMTransactionInfo) {
+            appendJsonField(buffer, "type", "transaction");
+            appendJsonField(buffer, "result", ((QMMTransactionInfo) object).isCommitted() ? "COMMIT" : "ROLLBACK");
+        } else if (object instanceof QMMConnectionInfo) {
+            appendJsonField(buffer, "type", "session");
+        }
+        buffer.append("}\n");
+    }
+
+    private static void appendJsonField(@NotNull StringBuilder buffer, @NotNull String name, @Nullable String value) {
+        if (value != null) {
+            buffer.append(",\"").append(name).append("\":\"").append(JSONUtils.escapeJsonString(value)).append('"');
         }
     }
 
@@ -240,4 +474,80 @@ public class QMLogFileWriter implements QMMetaListener, DBPPreferenceListener {
         return buffer;
     }
 
+    private static class LogEntry {
+        private final long time;
+        private final boolean json;
+        private final String text;
+
+        LogEntry(long time, boolean json, String text) {
+            this.time = time;
+            this.json = json;
+            this.text = text;
+        }
+    }
+
+    private static class LogSettings {
+        private final Path directory;
+        private final int historyDays;
+        private final boolean json;
+        private final long maxFileSize;
+
+        LogSettings(Path directory, int historyDays, boolean json, long maxFileSize) {
+            this.directory = directory;
+            this.historyDays = historyDays;
+            this.json = json;
+            this.maxFileSize = maxFileSize <= 0 ? QMConstants.DEFAULT_LOG_MAX_FILE_SIZE : maxFileSize;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof LogSettings)) {
+                return false;
+            }
+            LogSettings other = (LogSettings) obj;
+            return directory.equals(other.directory) && historyDays == other.historyDays &&
+                json == other.json && maxFileSize == other.maxFileSize;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(directory, historyDays, json, maxFileSize);
+        }
+    }
+
+    private class LogWriterJob extends AbstractJob {
+        LogWriterJob() {
+            super("QM log writer");
+            setUser(false);
+            setSystem(true);
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor monitor) {
+            writePendingEntries();
+            return Status.OK_STATUS;
+        }
+    }
+
+    private static class CompressSegmentJob extends AbstractJob {
+        private final Path segmentFile;
+
+        CompressSegmentJob(@NotNull Path segmentFile) {
+            super("Compress QM log " + segmentFile.getFileName());
+            this.segmentFile = segmentFile;
+            setUser(false);
+            setSystem(true);
+        }
+
+        @Override
+        protected IStatus run(DBRProgressMonitor monitor) {
+            try {
+                QMLogFileIndex.compress(segmentFile);
+            } catch (IOException e) {
+                // Segment remains uncompressed
+                log.debug("Error compressing QM log file '" + segmentFile + "': " + e.getMessage());
+            }
+            return Status.OK_STATUS;
+        }
+    }
 }
@@ -31,36 +31,49 @@ import org.jkiss.dbeaver.model.qm.meta.*;
 import org.jkiss.dbeaver.model.runtime.AbstractJob;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.runtime.DBWorkbench;
-import org.jkiss.utils.LongKeyMap;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
- * Query manager execution handler implementation
+ * Query manager execution handler implementation.
+ * <p>
+ * Execution hooks are called from all connections and threads, so they don't take global locks.
+ * Meta objects are updated under the lock of their connection, events are put in a lock-free ring buffer
+ * which is drained by the event dispatcher in batches.
  */
 public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMCollector {
 
     private static final Log log = Log.getLog(QMMCollectorImpl.class);
 
     private static final int MAX_HISTORY_EVENTS = 10000;
+    private static final int EVENT_BUFFER_CAPACITY = 1 << 16;
+    private static final int MAX_DISPATCH_BATCH = MAX_HISTORY_EVENTS;
 
     // Session map
-    private LongKeyMap<QMMConnectionInfo> connectionMap = new LongKeyMap<>();
-    private List<Long> closedConnections = new ArrayList<>();
+    private final Map<Long, QMMConnectionInfo> connectionMap = new ConcurrentHashMap<>();
+    private final Queue<Long> closedConnections = new ConcurrentLinkedQueue<>();
 
     // External listeners
     private final List<QMMetaListener> listeners = new ArrayList<>();
 
-    // Temporary event pool
-    private List<QMMetaEvent> eventPool = new ArrayList<>();
+    // Raw events
+    private final QMEventRingBuffer<QMMetaEvent> eventBuffer = new QMEventRingBuffer<>(EVENT_BUFFER_CAPACITY);
+    // Events waiting for the session id (accessed by the dispatcher only)
+    private List<QMMetaEvent> pendingEvents = new ArrayList<>();
+    private final LongAdder droppedEvents = new LongAdder();
+    private final LongAdder coalescedEvents = new LongAdder();
+    private final AtomicBoolean dispatchRequested = new AtomicBoolean();
     // Sync object
     private final Object historySync = new Object();
     // History (may be purged when limit reached)
     private List<QMMetaEvent> pastEvents = new ArrayList<>();
-    private boolean running = true;
+    private volatile boolean running = true;
     private long eventDispatchPeriod = 250;
+    private final EventDispatcher eventDispatcher;
 
     public QMMCollectorImpl() {
         var application = DBWorkbench.getPlatform().getApplication();
@@ -68,10 +81,11 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
         if (qmConfigurationProvider != null) {
             eventDispatchPeriod = qmConfigurationProvider.getEventDispatchPeriod();
         }
-        new EventDispatcher().schedule(eventDispatchPeriod);
+        eventDispatcher = new EventDispatcher();
+        eventDispatcher.schedule(eventDispatchPeriod);
     }
 
-    public synchronized void dispose() {
+    public void dispose() {
         if (!connectionMap.isEmpty()) {
             List<QMMConnectionInfo> openSessions = new ArrayList<>();
             for (QMMConnectionInfo connection : connectionMap.values()) {
@@ -96,6 +110,20 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
         return running;
     }
 
+    /**
+     * Number of events lost because the event buffer was full
+     */
+    public long getDroppedEventCount() {
+        return droppedEvents.sum();
+    }
+
+    /**
+     * Number of repeated update events of the same object merged by the dispatcher
+     */
+    public long getCoalescedEventCount() {
+        return coalescedEvents.sum();
+    }
+
     @NotNull
     @Override
     public String getHandlerName() {
@@ -128,22 +156,33 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
         }
     }
 
-    private synchronized void tryFireMetaEvent(final QMMObject object, final QMEventAction action, DBCExecutionContext context) {
+    private void tryFireMetaEvent(final QMMObject object, final QMEventAction action, DBCExecutionContext context) {
         try {
             String sessionId = QMUtils.getQmSessionId(context);
-            eventPool.add(new QMMetaEvent(object, action, sessionId));
+            if (!eventBuffer.offer(new QMMetaEvent(object, action, sessionId))) {
+                droppedEvents.increment();
+            }
+            if (eventBuffer.size() >= eventBuffer.getCapacity() / 2 && dispatchRequested.compareAndSet(false, true)) {
+                // Do not wait for the next dispatch period
+                eventDispatcher.wakeUp();
+            }
         } catch (DBException e) {
             log.error("Failed to fire qm meta event", e);
         }
     }
 
-    private synchronized List<QMMetaEvent> obtainEvents() {
-        if (eventPool.isEmpty()) {
+    /**
+     * Returns the next batch of events. Called by the event dispatcher only.
+     */
+    private List<QMMetaEvent> obtainEvents() {
+        List<QMMetaEvent> events = pendingEvents;
+        eventBuffer.drainTo(events, MAX_DISPATCH_BATCH - events.size());
+        if (events.isEmpty()) {
             return Collections.emptyList();
         }
         // qm session id might be null if database migration is in progress for single user product
         if (DBWorkbench.getPlatform().getApplication() instanceof QMSessionReceiver) {
-            for (QMMetaEvent event : eventPool) {
+            for (QMMetaEvent event : events) {
                 if (event.getSessionId() != null) {
                     continue;
                 }
@@ -153,14 +192,42 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
                 }
                 var sessionId = QMUtils.getQmSessionId(workspace.getWorkspaceSession());
                 if (sessionId == null) {
+                    // Keep events until session is available
                     return Collections.emptyList();
                 }
                 event.setSessionId(sessionId);
             }
         }
-        List<QMMetaEvent> events = eventPool;
-        eventPool = new ArrayList<>();
-        return events;
+        pendingEvents = new ArrayList<>();
+        return coalesceEvents(events);
+    }
+
+    /**
+     * Removes update events followed by another update of the same object.
+     * Listeners read the actual object state, so only the last update matters.
+     */
+    private List<QMMetaEvent> coalesceEvents(List<QMMetaEvent> events) {
+        Set<QMMObject> updatedObjects = Collections.newSetFromMap(new IdentityHashMap<>());
+        boolean[] skipped = new boolean[events.size()];
+        int skippedCount = 0;
+        for (int i = events.size() - 1; i >= 0; i--) {
+            QMMetaEvent event = events.get(i);
+            if (event.getAction() == QMEventAction.UPDATE && !updatedObjects.add(event.getObject())) {
+                skipped[i] = true;
+                skippedCount++;
+            }
+        }
+        if (skippedCount == 0) {
+            return events;
+        }
+        coalescedEvents.add(skippedCount);
+        List<QMMetaEvent> result = new ArrayList<>(events.size() - skippedCount);
+        for (int i = 0; i < events.size(); i++) {
+            if (!skipped[i]) {
+                result.add(events.get(i));
+            }
+        }
+        return result;
     }
 
     public QMMConnectionInfo getConnectionInfo(DBCExecutionContext context) {
@@ -177,139 +244,184 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
         }
     }
 
+    /**
+     * Returns time of the oldest event of the history or -1 if history is empty
+     */
+    long getFirstEventTime() {
+        synchronized (historySync) {
+            if (pastEvents.isEmpty()) {
+                return -1;
+            }
+            QMMetaEvent event = pastEvents.get(0);
+            return QMUtils.getObjectEventTime(event.getObject(), event.getAction());
+        }
+    }
+
     @Override
-    public synchronized void handleContextOpen(@NotNull DBCExecutionContext context, boolean transactional) {
+    public void handleContextOpen(@NotNull DBCExecutionContext context, boolean transactional) {
         final long contextId = context.getContextId();
-        QMMConnectionInfo connection = connectionMap.get(contextId);
-        if (connection == null) {
-            connection = new QMMConnectionInfo(
-                context,
-                transactional);
-            connectionMap.put(contextId, connection);
-        } else {
+        QMMConnectionInfo connection = connectionMap.compute(contextId, (id, info) -> {
+            if (info == null) {
+                return new QMMConnectionInfo(
+                    context,
+                    transactional);
+            }
             // This session may already be in cache in case of reconnect/invalidate
             // (when context closed and reopened without new context object creation)
-            connection.reopen(context);
-        }
+            synchronized (info) {
+                info.reopen(context);
+            }
+            return info;
+        });
 
         // Remove from closed sessions (in case of re-opened connection)
         closedConnections.remove(contextId);
-        tryFireMetaEvent(connection, QMEventAction.BEGIN, context);
+        synchronized (connection) {
+            tryFireMetaEvent(connection, QMEventAction.BEGIN, context);
+        }
         // Notify
     }
 
     @Override
-    public synchronized void handleContextClose(@NotNull DBCExecutionContext context) {
+    public void handleContextClose(@NotNull DBCExecutionContext context) {
         QMMConnectionInfo session = getConnectionInfo(context);
         if (session != null) {
-            session.close();
-            tryFireMetaEvent(session, QMEventAction.END, context);
+            synchronized (session) {
+                session.close();
+                tryFireMetaEvent(session, QMEventAction.END, context);
+            }
         }
         closedConnections.add(context.getContextId());
     }
 
     @Override
-    public synchronized void handleTransactionAutocommit(@NotNull DBCExecutionContext context, boolean autoCommit) {
+    public void handleTransactionAutocommit(@NotNull DBCExecutionContext context, boolean autoCommit) {
         QMMConnectionInfo sessionInfo = getConnectionInfo(context);
         if (sessionInfo != null) {
-            QMMTransactionInfo oldTxn = sessionInfo.changeTransactional(!autoCommit);
-            if (oldTxn != null) {
-                tryFireMetaEvent(oldTxn, QMEventAction.END, context);
+            synchronized (sessionInfo) {
+                QMMTransactionInfo oldTxn = sessionInfo.changeTransactional(!autoCommit);
+                if (oldTxn != null) {
+                    tryFireMetaEvent(oldTxn, QMEventAction.END, context);
+                }
+                tryFireMetaEvent(sessionInfo, QMEventAction.UPDATE, context);
             }
-            tryFireMetaEvent(sessionInfo, QMEventAction.UPDATE, context);
         }
     }
 
     @Override
-    public synchronized void handleTransactionCommit(@NotNull DBCExecutionContext context) {
+    public void handleTransactionCommit(@NotNull DBCExecutionContext context) {
         QMMConnectionInfo sessionInfo = getConnectionInfo(context);
         if (sessionInfo != null) {
-            QMMTransactionInfo oldTxn = sessionInfo.commit();
-            if (oldTxn != null) {
-                tryFireMetaEvent(oldTxn, QMEventAction.END, context);
+            synchronized (sessionInfo) {
+                QMMTransactionInfo oldTxn = sessionInfo.commit();
+                if (oldTxn != null) {
+                    tryFireMetaEvent(oldTxn, QMEventAction.END, context);
+                }
             }
         }
     }
 
     @Override
-    public synchronized void handleTransactionRollback(@NotNull DBCExecutionContext context, DBCSavepoint savepoint) {
+    public void handleTransactionRollback(@NotNull DBCExecutionContext context, DBCSavepoint savepoint) {
         QMMConnectionInfo sessionInfo = getConnectionInfo(context);
         if (sessionInfo != null) {
-            QMMObject oldTxn = sessionInfo.rollback(savepoint);
-            if (oldTxn != null) {
-                tryFireMetaEvent(oldTxn, QMEventAction.END, context);
+            synchronized (sessionInfo) {
+                QMMObject oldTxn = sessionInfo.rollback(savepoint);
+                if (oldTxn != null) {
+                    tryFireMetaEvent(oldTxn, QMEventAction.END, context);
+                }
             }
         }
     }
 
     @Override
-    public synchronized void handleStatementOpen(@NotNull DBCStatement statement) {
-        QMMConnectionInfo session = getConnectionInfo(statement.getSession().getExecutionContext());
+    public void handleStatementOpen(@NotNull DBCStatement statement) {
+        DBCExecutionContext context = statement.getSession().getExecutionContext();
+        QMMConnectionInfo session = getConnectionInfo(context);
         if (session != null) {
-            QMMStatementInfo stat = session.openStatement(statement);
-            tryFireMetaEvent(stat, QMEventAction.BEGIN, statement.getSession().getExecutionContext());
+            synchronized (session) {
+                QMMStatementInfo stat = session.openStatement(statement);
+                tryFireMetaEvent(stat, QMEventAction.BEGIN, context);
+            }
         }
     }
 
     @Override
-    public synchronized void handleStatementClose(@NotNull DBCStatement statement, long rows) {
-        QMMConnectionInfo session = getConnectionInfo(statement.getSession().getExecutionContext());
+    public void handleStatementClose(@NotNull DBCStatement statement, long rows) {
+        DBCExecutionContext context = statement.getSession().getExecutionContext();
+        QMMConnectionInfo session = getConnectionInfo(context);
         if (session != null) {
-            QMMStatementInfo stat = session.closeStatement(statement, rows);
-            if (stat == null) {
-                log.warn("Can't properly handle statement close");
-            } else {
-                tryFireMetaEvent(stat, QMEventAction.END, statement.getSession().getExecutionContext());
+            synchronized (session) {
+                QMMStatementInfo stat = session.closeStatement(statement, rows);
+                if (stat == null) {
+                    log.warn("Can't properly handle statement close");
+                } else {
+                    tryFireMetaEvent(stat, QMEventAction.END, context);
+                }
             }
         }
     }
 
     @Override
-    public synchronized void handleStatementExecuteBegin(@NotNull DBCStatement statement) {
-        QMMConnectionInfo session = getConnectionInfo(statement.getSession().getExecutionContext());
+    public void handleStatementExecuteBegin(@NotNull DBCStatement statement) {
+        DBCExecutionContext context = statement.getSession().getExecutionContext();
+        QMMConnectionInfo session = getConnectionInfo(context);
         if (session != null) {
-            QMMStatementExecuteInfo exec = session.beginExecution(statement);
-            if (exec != null) {
-                tryFireMetaEvent(exec, QMEventAction.BEGIN, statement.getSession().getExecutionContext());
+            synchronized (session) {
+                QMMStatementExecuteInfo exec = session.beginExecution(statement);
+                if (exec != null) {
+                    tryFireMetaEvent(exec, QMEventAction.BEGIN, context);
+                }
             }
         }
     }
 
     @Override
-    public synchronized void handleStatementExecuteEnd(@NotNull DBCStatement statement, long rows, Throwable error) {
-        QMMConnectionInfo session = getConnectionInfo(statement.getSession().getExecutionContext());
+    public void handleStatementExecuteEnd(@NotNull DBCStatement statement, long rows, Throwable error) {
+        DBCExecutionContext context = statement.getSession().getExecutionContext();
+        QMMConnectionInfo session = getConnectionInfo(context);
         if (session != null) {
-            QMMStatementExecuteInfo exec = session.endExecution(statement, rows, error);
-            if (exec != null) {
-                tryFireMetaEvent(exec, QMEventAction.END, statement.getSession().getExecutionContext());
+            synchronized (session) {
+                QMMStatementExecuteInfo exec = session.endExecution(statement, rows, error);
+                if (exec != null) {
+                    tryFireMetaEvent(exec, QMEventAction.END, context);
+                }
             }
         }
     }
 
     @Override
-    public synchronized void handleResultSetOpen(@NotNull DBCResultSet resultSet) {
-        QMMConnectionInfo session = getConnectionInfo(resultSet.getSession().getExecutionContext());
+    public void handleResultSetOpen(@NotNull DBCResultSet resultSet) {
+        DBCExecutionContext context = resultSet.getSession().getExecutionContext();
+        QMMConnectionInfo session = getConnectionInfo(context);
         if (session != null) {
-            QMMStatementExecuteInfo exec = session.beginFetch(resultSet);
-            if (exec != null) {
-                tryFireMetaEvent(exec, QMEventAction.UPDATE, resultSet.getSession().getExecutionContext());
+            synchronized (session) {
+                QMMStatementExecuteInfo exec = session.beginFetch(resultSet);
+                if (exec != null) {
+                    tryFireMetaEvent(exec, QMEventAction.UPDATE, context);
+                }
             }
         }
     }
 
     @Override
-    public synchronized void handleResultSetClose(@NotNull DBCResultSet resultSet, long rowCount) {
-        QMMConnectionInfo session = getConnectionInfo(resultSet.getSession().getExecutionContext());
+    public void handleResultSetClose(@NotNull DBCResultSet resultSet, long rowCount) {
+        DBCExecutionContext context = resultSet.getSession().getExecutionContext();
+        QMMConnectionInfo session = getConnectionInfo(context);
         if (session != null) {
-            QMMStatementExecuteInfo exec = session.endFetch(resultSet, rowCount);
-            if (exec != null) {
-                tryFireMetaEvent(exec, QMEventAction.UPDATE, resultSet.getSession().getExecutionContext());
+            synchronized (session) {
+                QMMStatementExecuteInfo exec = session.endFetch(resultSet, rowCount);
+                if (exec != null) {
+                    tryFireMetaEvent(exec, QMEventAction.UPDATE, context);
+                }
             }
         }
     }
 
     private class EventDispatcher extends AbstractJob {
 
+        private long reportedDroppedEvents;
+
         protected EventDispatcher() {
             super("QM meta events dispatcher");
             setUser(false);
@@ -318,53 +430,57 @@ public class QMMCollectorImpl extends DefaultExecutionHandler implements QMMColl
 
         @Override
         protected IStatus run(DBRProgressMonitor monitor) {
-            final List<QMMetaEvent> events;
-            List<Long> sessionsToClose;
-            synchronized (QMMCollectorImpl.this) {
-                events = obtainEvents();
-                sessionsToClose = closedConnections;
-                closedConnections.clear();
-            }
-            if (!events.isEmpty()) {
-                final List<QMMetaListener> listeners = getListeners();
-                if (!listeners.isEmpty() && !events.isEmpty()) {
-                    // Reverse collection. Fresh events must come first.
-                    Collections.reverse(events);
-                    // Dispatch all events
-                    for (QMMetaListener listener : listeners) {
-                        try {
-                            listener.metaInfoChanged(monitor, events);
-                        } catch (Throwable e) {
-                            log.error("Error notifying event listener", e);
-                        }
-                    }
-                }
-                synchronized (historySync) {
-                    pastEvents.addAll(events);
-                    int size = pastEvents.size();
-                    if (size > MAX_HISTORY_EVENTS) {
-                        pastEvents = new ArrayList<>(pastEvents.subList(
-                            size - MAX_HISTORY_EVENTS,
-                            size));
-                    }
+            dispatchRequested.set(false);
+            // Drain at most one buffer of events per run, producers may be faster than listeners
+            for (int dispatched = 0; dispatched < eventBuffer.getCapacity(); ) {
+                final List<QMMetaEvent> events = obtainEvents();
+                if (events.isEmpty()) {
+                    break;
                 }
+                dispatchEvents(monitor, events);
+                dispatched += events.size();
+            }
+            long dropped = droppedEvents.sum();
+            if (dropped > reportedDroppedEvents) {
+                log.warn((dropped - reportedDroppedEvents) + " QM meta events were dropped (event buffer is full)");
+                reportedDroppedEvents = dropped;
             }
             // Cleanup closed sessions
-            synchronized (QMMCollectorImpl.this) {
-                for (Long sessionId : sessionsToClose) {
-                    final QMMConnectionInfo session = connectionMap.get(sessionId);
-                    if (session != null && !session.isClosed()) {
-                        // It is possible (rarely) that session was reopened before event dispatcher run
-                        // In that case just ignore it
-                        connectionMap.remove(sessionId);
-                    }
-                }
+            for (Long sessionId; (sessionId = closedConnections.poll()) != null; ) {
+                // It is possible (rarely) that session was reopened before event dispatcher run
+                // In that case just ignore it
+                connectionMap.computeIfPresent(sessionId, (id, session) -> session.isClosed() ? null : session);
             }
             if (isRunning()) {
                 this.schedule(eventDispatchPeriod);
             }
             return Status.OK_STATUS;
         }
+
+        private void dispatchEvents(DBRProgressMonitor monitor, List<QMMetaEvent> events) {
+            final List<QMMetaListener> listeners = getListeners();
+            if (!listeners.isEmpty()) {
+                // Reverse collection. Fresh events must come first.
+                Collections.reverse(events);
+                // Dispatch all events
+                for (QMMetaListener listener : listeners) {
+                    try {
+                        listener.metaInfoChanged(monitor, events);
+                    } catch (Throwable e) {
+                        log.error("Error notifying event listener", e);
+                    }
+                }
+            }
+            synchronized (historySync) {
+                pastEvents.addAll(events);
+                int size = pastEvents.size();
+                if (size > MAX_HISTORY_EVENTS) {
+                    pastEvents = new ArrayList<>(pastEvents.subList(
+                        size - MAX_HISTORY_EVENTS,
+                        size));
+                }
+            }
+        }
     }
 
 }
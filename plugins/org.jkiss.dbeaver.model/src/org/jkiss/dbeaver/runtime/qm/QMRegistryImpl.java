@@ -32,7 +32,6 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -94,8 +93,8 @@ public class QMRegistryImpl implements QMRegistry {
         if (eventBrowser == null) {
             eventBrowser = GeneralUtils.adapt(this, QMEventBrowser.class);
             if (eventBrowser == null) {
-                // Default browser
-                this.eventBrowser = defaultEventBrowser;
+                // Default browser, older events are read from the query log files
+                this.eventBrowser = new QMLogFileEventBrowser(defaultEventBrowser, metaHandler);
             }
         }
 
@@ -180,60 +179,51 @@ public class QMRegistryImpl implements QMRegistry {
         {
             List<QMMetaEvent> pastEvents = metaHandler.getPastEvents();
             Collections.reverse(pastEvents);
-            var criteria = cursorFilter.getCriteria();
-            var filter = cursorFilter.getFilter();
-            if (criteria.getObjectTypes() != null || criteria.getQueryTypes() != null) {
-                // Filter by query type and object type
-                for (Iterator<QMMetaEvent> iter = pastEvents.iterator(); iter.hasNext(); ) {
-                    QMMetaEvent event = iter.next();
-                    if (criteria.getObjectTypes() != null) {
-                        if (!matchesObjectType(event.getObject(), criteria.getObjectTypes())) {
-                            iter.remove();
-                            continue;
-                        }
-                    }
-                    if (filter != null && !filter.accept(event)) {
-                        iter.remove();
-                        continue;
-                    }
-                    if (criteria.getQueryTypes() != null) {
-                        QMMStatementInfo statementInfo = null;
-                        if (event.getObject() instanceof QMMStatementInfo) {
-                            statementInfo = (QMMStatementInfo) event.getObject();
-                        } else if (event.getObject() instanceof QMMStatementExecuteInfo) {
-                            statementInfo = ((QMMStatementExecuteInfo) event.getObject()).getStatement();
-                        }
-                        if (statementInfo != null &&
-                            !ArrayUtils.contains(criteria.getQueryTypes(), statementInfo.getPurpose()))
-                        {
-                            iter.remove();
-                        }
-                    }
-                }
+            pastEvents.removeIf(event -> !acceptEvent(event, cursorFilter));
+            return new QMUtils.ListCursorImpl(pastEvents);
+        }
+    }
+
+    /**
+     * Checks event against the criteria and the filter of the cursor
+     */
+    static boolean acceptEvent(@NotNull QMMetaEvent event, @NotNull QMCursorFilter cursorFilter) {
+        var criteria = cursorFilter.getCriteria();
+        var filter = cursorFilter.getFilter();
+        String searchString = criteria.getSearchString();
+        if (criteria.getObjectTypes() == null && criteria.getQueryTypes() == null && CommonUtils.isEmpty(searchString)) {
+            return true;
+        }
+        if (filter != null && !filter.accept(event)) {
+            return false;
+        }
+        // Filter by query type and object type
+        if (criteria.getObjectTypes() != null && !matchesObjectType(event.getObject(), criteria.getObjectTypes())) {
+            return false;
+        }
+        if (criteria.getQueryTypes() != null) {
+            QMMStatementInfo statementInfo = null;
+            if (event.getObject() instanceof QMMStatementInfo) {
+                statementInfo = (QMMStatementInfo) event.getObject();
+            } else if (event.getObject() instanceof QMMStatementExecuteInfo) {
+                statementInfo = ((QMMStatementExecuteInfo) event.getObject()).getStatement();
             }
-            if (CommonUtils.isEmpty(criteria.getSearchString())) {
-                return new QMUtils.ListCursorImpl(pastEvents);
-            } else {
-                String searchString = criteria.getSearchString().toLowerCase();
-                List<QMMetaEvent> filtered = new ArrayList<>();
-                for (QMMetaEvent event : pastEvents) {
-                    if (event.getObject().getText().toLowerCase().contains(searchString) &&
-                        (filter == null || filter.accept(event)))
-                    {
-                        filtered.add(event);
-                    }
-                }
-                return new QMUtils.ListCursorImpl(filtered);
+            if (statementInfo != null &&
+                !ArrayUtils.contains(criteria.getQueryTypes(), statementInfo.getPurpose()))
+            {
+                return false;
             }
         }
+        return CommonUtils.isEmpty(searchString) ||
+            event.getObject().getText().toLowerCase().contains(searchString.toLowerCase());
+    }
 
-        private boolean matchesObjectType(QMMObject object, QMObjectType[] objectTypes) {
-            if (object instanceof QMMConnectionInfo)
-                return ArrayUtils.contains(objectTypes, QMObjectType.session);
-            else if (object instanceof QMMTransactionInfo || object instanceof QMMTransactionSavepointInfo)
-                return ArrayUtils.contains(objectTypes, QMObjectType.txn);
-            else
-                return ArrayUtils.contains(objectTypes, QMObjectType.query);
-        }
+    private static boolean matchesObjectType(QMMObject object, QMObjectType[] objectTypes) {
+        if (object instanceof QMMConnectionInfo)
+            return ArrayUtils.contains(objectTypes, QMObjectType.session);
+        else if (object instanceof QMMTransactionInfo || object instanceof QMMTransactionSavepointInfo)
+            return ArrayUtils.contains(objectTypes, QMObjectType.txn);
+        else
+            return ArrayUtils.contains(objectTypes, QMObjectType.query);
     }
 }
@@ -0,0 +1,371 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.lightgrid;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+
+import java.util.*;
+
+/**
+ * Grid cells selection.
+ * <p>
+ * Selection is kept as disjoint row ranges ordered by rows. Each range has a set of selected columns.
+ * Adjacent ranges with the same columns are merged, so any rectangle (e.g. all cells) takes a single range
+ * regardless of the number of rows. Membership test is O(log n) where n is the number of ranges.
+ * <p>
+ * Cells are iterated lazily in natural order (first by rows then by columns), see {@link GridPos.PosComparator}.
+ */
+class GridSelection extends AbstractCollection<GridPos> {
+
+    private static class RowRange {
+        final int firstRow;
+        int lastRow;
+        // Never modified, so ranges may share it
+        final BitSet columns;
+
+        RowRange(int firstRow, int lastRow, @NotNull BitSet columns) {
+            this.firstRow = firstRow;
+            this.lastRow = lastRow;
+            this.columns = columns;
+        }
+
+        long getCellCount() {
+            return (long) (lastRow - firstRow + 1) * columns.cardinality();
+        }
+    }
+
+    // Ranges by first row
+    private final TreeMap<Integer, RowRange> ranges = new TreeMap<>();
+    private long cellCount;
+
+    GridSelection() {
+    }
+
+    GridSelection(@NotNull GridSelection source) {
+        for (RowRange range : source.ranges.values()) {
+            ranges.put(range.firstRow, new RowRange(range.firstRow, range.lastRow, range.columns));
+        }
+        cellCount = source.cellCount;
+    }
+
+    /**
+     * Creates bit set of columns in the specified range (inclusive)
+     */
+    @NotNull
+    static BitSet columnRange(int firstColumn, int lastColumn) {
+        BitSet columns = new BitSet(lastColumn + 1);
+        if (firstColumn <= lastColumn) {
+            columns.set(firstColumn, lastColumn + 1);
+        }
+        return columns;
+    }
+
+    long getCellCount() {
+        return cellCount;
+    }
+
+    @Override
+    public int size() {
+        return (int) Math.min(cellCount, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return ranges.isEmpty();
+    }
+
+    boolean contains(int column, int row) {
+        RowRange range = getRange(row);
+        return range != null && range.columns.get(column);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof GridPos && contains(((GridPos) o).col, ((GridPos) o).row);
+    }
+
+    boolean containsRow(int row) {
+        return getRange(row) != null;
+    }
+
+    /**
+     * Checks that all cells of the other selection are selected
+     */
+    boolean containsAll(@NotNull GridSelection other) {
+        GridSelection rest = new GridSelection(other);
+        rest.removeAll(this);
+        return rest.isEmpty();
+    }
+
+    @Nullable
+    GridPos getFirstCell() {
+        if (ranges.isEmpty()) {
+            return null;
+        }
+        RowRange range = ranges.firstEntry().getValue();
+        return new GridPos(range.columns.nextSetBit(0), range.firstRow);
+    }
+
+    /**
+     * Returns all columns which have selected cells
+     */
+    @NotNull
+    BitSet getColumns() {
+        BitSet columns = new BitSet();
+        for (RowRange range : ranges.values()) {
+            columns.or(range.columns);
+        }
+        return columns;
+    }
+
+    /**
+     * Returns indexes of rows which have selected cells.
+     * Rows are iterated lazily in ascending order.
+     */
+    @NotNull
+    Collection<Integer> getRows() {
+        return new AbstractCollection<>() {
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof Integer && containsRow((Integer) o);
+            }
+
+            @NotNull
+            @Override
+            public Iterator<Integer> iterator() {
+                Iterator<RowRange> rangeIterator = new ArrayList<>(ranges.values()).iterator();
+                return new Iterator<>() {
+                    private int nextRow;
+                    private int lastRow = -1;
+
+                    @Override
+                    public boolean hasNext() {
+                        if (nextRow > lastRow && rangeIterator.hasNext()) {
+                            RowRange range = rangeIterator.next();
+                            nextRow = range.firstRow;
+                            lastRow = range.lastRow;
+                        }
+                        return nextRow <= lastRow;
+                    }
+
+                    @Override
+                    public Integer next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        return nextRow++;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                long rowCount = 0;
+                for (RowRange range : ranges.values()) {
+                    rowCount += range.lastRow - range.firstRow + 1;
+                }
+                return (int) Math.min(rowCount, Integer.MAX_VALUE);
+            }
+        };
+    }
+
+    @Override
+    public boolean add(@NotNull GridPos pos) {
+        if (contains(pos.col, pos.row)) {
+            return false;
+        }
+        addCells(pos.row, pos.row, columnRange(pos.col, pos.col));
+        return true;
+    }
+
+    /**
+     * Selects specified columns in the specified rows (inclusive)
+     */
+    void addCells(int firstRow, int lastRow, @NotNull BitSet columns) {
+        update(firstRow, lastRow, columns, true);
+    }
+
+    /**
+     * Deselects specified columns in the specified rows (inclusive)
+     */
+    void removeCells(int firstRow, int lastRow, @NotNull BitSet columns) {
+        update(firstRow, lastRow, columns, false);
+    }
+
+    void addAll(@NotNull GridSelection other) {
+        for (RowRange range : new ArrayList<>(other.ranges.values())) {
+            update(range.firstRow, range.lastRow, range.columns, true);
+        }
+    }
+
+    void removeAll(@NotNull GridSelection other) {
+        for (RowRange range : new ArrayList<>(other.ranges.values())) {
+            update(range.firstRow, range.lastRow, range.columns, false);
+        }
+    }
+
+    @Override
+    public void clear() {
+        ranges.clear();
+        cellCount = 0;
+    }
+
+    @NotNull
+    @Override
+    public Iterator<GridPos> iterator() {
+        Iterator<RowRange> rangeIterator = new ArrayList<>(ranges.values()).iterator();
+        return new Iterator<>() {
+            private RowRange range;
+            private int row;
+            private int column = -1;
+
+            @Override
+            public boolean hasNext() {
+                if (column >= 0) {
+                    return true;
+                }
+                if (range != null && row < range.lastRow) {
+                    row++;
+                    column = range.columns.nextSetBit(0);
+                    return true;
+                }
+                if (rangeIterator.hasNext()) {
+                    range = rangeIterator.next();
+                    row = range.firstRow;
+                    column = range.columns.nextSetBit(0);
+                    return true;
+                }
+                return false;
+            }
+
+            @Override
+            public GridPos next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                GridPos pos = new GridPos(column, row);
+                column = range.columns.nextSetBit(column + 1);
+                return pos;
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof GridSelection)) {
+            return false;
+        }
+        GridSelection other = (GridSelection) obj;
+        if (cellCount != other.cellCount || ranges.size() != other.ranges.size()) {
+            return false;
+        }
+        // Ranges are normalized, so equal selections have equal ranges
+        Iterator<RowRange> otherIterator = other.ranges.values().iterator();
+        for (RowRange range : ranges.values()) {
+            RowRange otherRange = otherIterator.next();
+            if (range.firstRow != otherRange.firstRow || range.lastRow != otherRange.lastRow || !range.columns.equals(otherRange.columns)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cellCount) ^ ranges.size();
+    }
+
+    @Nullable
+    private RowRange getRange(int row) {
+        Map.Entry<Integer, RowRange> entry = ranges.floorEntry(row);
+        if (entry == null || entry.getValue().lastRow < row) {
+            return null;
+        }
+        return entry.getValue();
+    }
+
+    private void update(int firstRow, int lastRow, @NotNull BitSet columns, boolean add) {
+        if (firstRow > lastRow || columns.isEmpty()) {
+            return;
+        }
+        columns = (BitSet) columns.clone();
+        // Align ranges with the updated rows
+        split(firstRow);
+        split(lastRow + 1);
+        List<RowRange> newRanges = new ArrayList<>();
+        int nextRow = firstRow;
+        for (RowRange range : new ArrayList<>(ranges.subMap(firstRow, true, lastRow, true).values())) {
+            if (add && range.firstRow > nextRow) {
+                newRanges.add(new RowRange(nextRow, range.firstRow - 1, columns));
+            }
+            BitSet newColumns = (BitSet) range.columns.clone();
+            if (add) {
+                newColumns.or(columns);
+            } else {
+                newColumns.andNot(columns);
+            }
+            ranges.remove(range.firstRow);
+            cellCount -= range.getCellCount();
+            if (!newColumns.isEmpty()) {
+                newRanges.add(new RowRange(range.firstRow, range.lastRow, newColumns));
+            }
+            nextRow = range.lastRow + 1;
+        }
+        if (add && nextRow <= lastRow) {
+            newRanges.add(new RowRange(nextRow, lastRow, columns));
+        }
+        for (RowRange range : newRanges) {
+            ranges.put(range.firstRow, range);
+            cellCount += range.getCellCount();
+        }
+        merge(firstRow, lastRow);
+    }
+
+    /**
+     * Splits range which contains the specified row so that a range starts at this row
+     */
+    private void split(int row) {
+        RowRange range = getRange(row);
+        if (range != null && range.firstRow < row) {
+            ranges.put(row, new RowRange(row, range.lastRow, range.columns));
+            range.lastRow = row - 1;
+        }
+    }
+
+    /**
+     * Merges adjacent ranges with the same columns around the specified rows
+     */
+    private void merge(int firstRow, int lastRow) {
+        Integer fromRow = ranges.floorKey(firstRow - 1);
+        Iterator<RowRange> iterator = ranges.tailMap(fromRow == null ? firstRow : fromRow, true).values().iterator();
+        RowRange prevRange = null;
+        while (iterator.hasNext()) {
+            RowRange range = iterator.next();
+            if (prevRange != null && prevRange.lastRow + 1 == range.firstRow && prevRange.columns.equals(range.columns)) {
+                prevRange.lastRow = range.lastRow;
+                iterator.remove();
+                continue;
+            }
+            if (range.firstRow > lastRow + 1) {
+                break;
+            }
+            prevRange = range;
+        }
+    }
+
+}
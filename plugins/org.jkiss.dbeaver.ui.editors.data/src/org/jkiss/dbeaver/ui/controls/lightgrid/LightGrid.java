@@ -35,7 +35,6 @@ import org.jkiss.dbeaver.ui.editors.data.internal.DataEditorsMessages;
 import org.jkiss.dbeaver.utils.RuntimeUtils;
 import org.jkiss.utils.ArrayUtils;
 import org.jkiss.utils.CommonUtils;
-import org.jkiss.utils.IntKeyMap;
 
 import java.util.List;
 import java.util.*;
@@ -190,10 +189,9 @@ public abstract class LightGrid extends Canvas {
      */
     private int focusItem = -1;
 
-    private final Set<GridPos> selectedCells = new TreeSet<>(new GridPos.PosComparator());
-    private final List<GridPos> selectedCellsBeforeRangeSelect = new ArrayList<>();
+    private final GridSelection selectedCells = new GridSelection();
+    private final GridSelection selectedCellsBeforeRangeSelect = new GridSelection();
     private final List<GridColumn> selectedColumns = new ArrayList<>();
-    private final IntKeyMap<Boolean> selectedRows = new IntKeyMap<>();
 
     private boolean cellDragSelectionOccurring = false;
     private boolean cellRowDragSelectionOccurring = false;
@@ -1236,10 +1234,11 @@ public abstract class LightGrid extends Canvas {
      */
     public int getSelectionIndex()
     {
-        if (selectedCells.isEmpty())
+        GridPos firstCell = selectedCells.getFirstCell();
+        if (firstCell == null)
             return -1;
 
-        return selectedCells.iterator().next().row;
+        return firstCell.row;
     }
 
     /**
@@ -1546,7 +1545,7 @@ public abstract class LightGrid extends Canvas {
 
         if (index < 0 || index >= getItemCount()) return;
 
-        selectCells(getCells(index));
+        selectRows(index, index);
 
         redraw();
     }
@@ -1574,16 +1573,7 @@ public abstract class LightGrid extends Canvas {
 
         if (selectionType == SWT.SINGLE && start != end) return;
 
-        for (int i = start; i <= end; i++) {
-            if (i < 0) {
-                continue;
-            }
-            if (i > getItemCount() - 1) {
-                break;
-            }
-
-            selectCells(getCells(i));
-        }
+        selectRows(Math.max(start, 0), Math.min(end, getItemCount() - 1));
 
         redraw();
     }
@@ -1617,7 +1607,7 @@ public abstract class LightGrid extends Canvas {
 
         for (int j : indices) {
             if (j >= 0 && j < getItemCount()) {
-                selectCells(getCells(j));
+                selectRows(j, j);
             }
         }
         redraw();
@@ -1695,7 +1685,8 @@ public abstract class LightGrid extends Canvas {
 
         if (index >= 0 && index < getItemCount()) {
             selectedCells.clear();
-            selectCells(getCells(index));
+            selectRows(index, index);
+            redraw();
         }
     }
 
@@ -1723,16 +1714,7 @@ public abstract class LightGrid extends Canvas {
 
         selectedCells.clear();
 
-        for (int i = start; i <= end; i++) {
-            if (i < 0) {
-                continue;
-            }
-            if (i > getItemCount() - 1) {
-                break;
-            }
-
-            selectCells(getCells(i));
-        }
+        selectRows(Math.max(start, 0), Math.min(end, getItemCount() - 1));
         redraw();
     }
 
@@ -1766,7 +1748,7 @@ public abstract class LightGrid extends Canvas {
                 break;
             }
 
-            selectCells(getCells(j));
+            selectRows(j, j);
         }
         redraw();
     }
@@ -1965,9 +1947,9 @@ public abstract class LightGrid extends Canvas {
         if (scrollValuesObsolete)
             updateScrollbars();
 
-        if (selectedCells.isEmpty()) return;
+        GridPos cell = selectedCells.getFirstCell();
+        if (cell == null) return;
 
-        GridPos cell = selectedCells.iterator().next();
         showItem(cell.row);
         showColumn(cell.col);
     }
@@ -2351,7 +2333,6 @@ public abstract class LightGrid extends Canvas {
 
         int row = firstVisibleIndex;
         final int hScrollSelectionInPixels = getHScrollSelectionInPixels();
-        final GridPos testPos = new GridPos(-1, -1);
         final Rectangle cellBounds = new Rectangle(0, 0, 0, 0);
         int pinnedColumnsWidth = getPinnedColumnsWidth();
 
@@ -2364,7 +2345,7 @@ public abstract class LightGrid extends Canvas {
             // get the item to draw
             if (row >= 0 && row < getItemCount()) {
 
-                boolean cellInRowSelected = selectedRows.containsKey(row);
+                boolean cellInRowSelected = selectedCells.containsRow(row);
 
                 if (rowHeaderVisible) {
                     // row header is actually painted later
@@ -2388,12 +2369,10 @@ public abstract class LightGrid extends Canvas {
                         cellBounds.width = width;
                         cellBounds.height = itemHeight;
 
-                        testPos.col = k;
-                        testPos.row = row;
                         cellRenderer.paint(
                             gc,
                             cellBounds,
-                            selectedCells.contains(testPos),
+                            selectedCells.contains(k, row),
                             focusItem == row && focusColumn == column,
                             column,
                             gridRows[row]);
@@ -2447,8 +2426,6 @@ public abstract class LightGrid extends Canvas {
                         cellBounds.width = width;
                         cellBounds.height = itemHeight;
 
-                        testPos.col = k;
-                        testPos.row = row;
                         cellBounds.height++;
                         gc.setClipping(cellBounds);
                         cellBounds.height--;
@@ -2456,7 +2433,7 @@ public abstract class LightGrid extends Canvas {
                             cellRenderer.paint(
                                 gc,
                                 cellBounds,
-                                selectedCells.contains(testPos),
+                                selectedCells.contains(k, row),
                                 focusItem == row && focusColumn == pc,
                                 pc,
                                 gridRows[row]);
@@ -2784,7 +2761,9 @@ public abstract class LightGrid extends Canvas {
             boolean reverseDuplicateSelections,
             EventSource eventSource)
     {
-        return updateCellSelection(Collections.singletonList(newCell), stateMask, dragging, reverseDuplicateSelections, eventSource);
+        GridSelection newCells = new GridSelection();
+        newCells.add(newCell);
+        return updateCellSelection(newCells, stateMask, dragging, reverseDuplicateSelections, eventSource);
     }
 
     /**
@@ -2798,7 +2777,7 @@ public abstract class LightGrid extends Canvas {
      */
     @Nullable
     private Event updateCellSelection(
-        @NotNull List<GridPos> newCells,
+        @NotNull GridSelection newCells,
         int stateMask,
         boolean dragging,
         boolean reverseDuplicateSelections,
@@ -2827,26 +2806,21 @@ public abstract class LightGrid extends Canvas {
             shiftSelectionAnchorItem = -1;
         }
 
-        List<GridPos> oldSelection = null;
+        GridSelection oldSelection = null;
         if (!shift && !ctrl) {
-            if (newCells.size() == 1 &&
-                newCells.size() == selectedCells.size() &&
-                newCells.get(0).equals(selectedCells.iterator().next()))
-            {
+            if (newCells.size() == 1 && newCells.equals(selectedCells)) {
                 return null;
             }
 
             selectedCells.clear();
-            for (GridPos newCell : newCells) {
-                addToCellSelection(newCell);
-            }
+            addToCellSelection(newCells);
 
         } else if (shift) {
 
-            GridPos newCell = newCells.get(0); //shift selection should only occur with one cell, ignoring others
-            oldSelection = new ArrayList<>(selectedCells);
+            GridPos newCell = newCells.getFirstCell(); //shift selection should only occur with one cell, ignoring others
+            oldSelection = new GridSelection(selectedCells);
 
-            if ((focusColumn == null) || (focusItem < 0)) {
+            if ((focusColumn == null) || (focusItem < 0) || newCell == null) {
                 return null;
             }
 
@@ -2860,65 +2834,14 @@ public abstract class LightGrid extends Canvas {
                 selectedCells.clear();
             }
 
+            Point newRange = getSelectionRange(focusItem, focusColumn, newCell.row, getColumn(newCell.col));
 
-            GridColumn currentColumn = focusColumn;
-            int currentItem = focusItem;
-
-            GridColumn endColumn = getColumn(newCell.col);
-            int endItem = newCell.row;
-
-            Point newRange = getSelectionRange(currentItem, currentColumn, endItem, endColumn);
-
-            currentColumn = getColumn(newRange.x);
-            endColumn = getColumn(newRange.y);
-
-            GridColumn startCol = currentColumn;
-
-            if (currentItem > endItem) {
-                int temp = currentItem;
-                currentItem = endItem;
-                endItem = temp;
-            }
-
-            boolean firstLoop = true;
-            do {
-                if (!firstLoop) {
-                    currentItem++;
-                }
-
-                firstLoop = false;
-
-                boolean firstLoop2 = true;
-
-                currentColumn = startCol;
-
-                do {
-                    if (!firstLoop2) {
-                        int index = indexOf(currentColumn) + 1;
-
-                        if (index < columns.size()) {
-                            currentColumn = columns.get(index);
-                        } else {
-                            currentColumn = null;
-                        }
-
-                        if (currentColumn != null)
-                            if (indexOf(currentColumn) > indexOf(endColumn))
-                                currentColumn = null;
-                    }
-
-                    firstLoop2 = false;
-
-                    if (currentColumn != null) {
-                        GridPos cell = new GridPos(indexOf(currentColumn), currentItem);
-                        addToCellSelection(cell);
-                    }
-                } while (currentColumn != endColumn && currentColumn != null);
-            } while (currentItem != endItem);
-
-            if (selectedCells.equals(newCells)) {
-                return null;
-            }
+            GridSelection rangeCells = new GridSelection();
+            rangeCells.addCells(
+                Math.min(focusItem, newCell.row),
+                Math.max(focusItem, newCell.row),
+                GridSelection.columnRange(newRange.x, Math.max(newRange.x, newRange.y)));
+            addToCellSelection(rangeCells);
 
         } else /*if (eventSource == EventSource.MOUSE)*/ {
             // Ctrl selection works only for mouse events
@@ -2932,31 +2855,23 @@ public abstract class LightGrid extends Canvas {
                 selectedCells.addAll(selectedCellsBeforeRangeSelect);
             }
 
-            if (reverse) {
-                if (alt && newCells.size() == 1) {
-                    // Alt pressed - deselect all cells selected in other rows (#6613)
-                    int row = newCells.get(0).row;
-                    newCells = new ArrayList<>();
-                    for (GridColumn col : selectedColumns) {
-                        newCells.add(new GridPos(col.getIndex(), row));
-                    }
+            if (alt && newCells.size() == 1) {
+                // Alt pressed - select (or deselect) all cells selected in other rows (#5988, #6613)
+                int row = newCells.getFirstCell().row;
+                BitSet columnIndexes = new BitSet();
+                for (GridColumn col : selectedColumns) {
+                    columnIndexes.set(col.getIndex());
                 }
+                newCells = new GridSelection();
+                newCells.addCells(row, row, columnIndexes);
+            }
+            if (reverse) {
                 selectedCells.removeAll(newCells);
             } else {
-                if (alt && newCells.size() == 1) {
-                    // Alt pressed - select all cells selected in other rows (#5988)
-                    int row = newCells.get(0).row;
-                    newCells = new ArrayList<>();
-                    for (GridColumn col : selectedColumns) {
-                        newCells.add(new GridPos(col.getIndex(), row));
-                    }
-                }
-                for (GridPos newCell : newCells) {
-                    addToCellSelection(newCell);
-                }
+                addToCellSelection(newCells);
             }
         }
-        if (oldSelection != null && oldSelection.size() == selectedCells.size() && selectedCells.containsAll(oldSelection)) {
+        if (oldSelection != null && oldSelection.equals(selectedCells)) {
             return null;
         }
 
@@ -2986,23 +2901,31 @@ public abstract class LightGrid extends Canvas {
         return selectedCells.add(newCell);
     }
 
+    private void addToCellSelection(@NotNull GridSelection cells)
+    {
+        selectedCells.addAll(cells);
+
+        BitSet columnIndexes = selectedCells.getColumns();
+        if (columnIndexes.length() > columns.size()) {
+            // Remove invalid columns
+            selectedCells.removeCells(0, Integer.MAX_VALUE - 1, GridSelection.columnRange(columns.size(), columnIndexes.length() - 1));
+        }
+    }
+
+    private void selectRows(int firstRow, int lastRow)
+    {
+        selectedCells.addCells(firstRow, lastRow, GridSelection.columnRange(0, columns.size() - 1));
+        updateSelectionCache();
+    }
+
     private void updateSelectionCache()
     {
-        //Update the list of which columns have all their cells selected
+        //Update the list of which columns have at least one selected cell
         selectedColumns.clear();
-        selectedRows.clear();
 
-        IntKeyMap<Boolean> columnIndices = new IntKeyMap<>();
-        for (GridPos cell : selectedCells) {
-            if (cell.col >= 0) {
-                columnIndices.put(cell.col, Boolean.TRUE);
-            }
-            if (cell.row >= 0) {
-                selectedRows.put(cell.row, Boolean.TRUE);
-            }
-        }
-        for (Integer columnIndex : columnIndices.keySet()) {
-            selectedColumns.add(columns.get(columnIndex));
+        BitSet columnIndexes = selectedCells.getColumns();
+        for (int i = columnIndexes.nextSetBit(0); i >= 0 && i < columns.size(); i = columnIndexes.nextSetBit(i + 1)) {
+            selectedColumns.add(columns.get(i));
         }
         selectedColumns.sort(Comparator.comparingInt(GridColumn::getIndex));
     }
@@ -3211,7 +3134,7 @@ public abstract class LightGrid extends Canvas {
                     }
                 }
             } else if (hoveringOnRowHeader && hoveringRow != null) {
-                if (e.button == 1 && selectedRows.containsKey(hoveringRow) && dragDetect(e)) {
+                if (e.button == 1 && selectedCells.containsRow(hoveringRow) && dragDetect(e)) {
                     rowHeaderDragStarted = true;
                     return;
                 }
@@ -3250,7 +3173,7 @@ public abstract class LightGrid extends Canvas {
                         }
                     }
                 }
-                List<GridPos> cells = new ArrayList<>();
+                GridSelection cells = new GridSelection();
 
                 if (e.button == 1) {
                     if (shift) {
@@ -3320,7 +3243,7 @@ public abstract class LightGrid extends Canvas {
             }
 
             if (e.button == 1) {
-                List<GridPos> cells = new ArrayList<>();
+                GridSelection cells = new GridSelection();
                 getCells(col, cells);
                 selectionEvent = updateCellSelection(cells, e.stateMask, false, true, EventSource.MOUSE);
             }
@@ -3686,7 +3609,7 @@ public abstract class LightGrid extends Canvas {
                         }
                     }
 
-                    List<GridPos> cells = new ArrayList<>();
+                    GridSelection cells = new GridSelection();
 
                     getCells(intentItem, focusItem, cells);
 
@@ -3696,7 +3619,7 @@ public abstract class LightGrid extends Canvas {
                 final GridColumn prevHoveringColumn = hoveringColumn;
                 if (cellColumnDragSelectionOccurring && handleCellHover(e.x, e.y)) {
                     boolean dragging;
-                    List<GridPos> newSelected = new ArrayList<>();
+                    GridSelection newSelected = new GridSelection();
 
                     GridColumn iterCol = hoveringColumn;
                     if (iterCol != null) {
@@ -4429,7 +4352,7 @@ public abstract class LightGrid extends Canvas {
         focusColumn = columns.get(0);
         focusItem = 0;
 
-        List<GridPos> cells = getAllCells();
+        GridSelection cells = getAllCells();
         Event selectionEvent = updateCellSelection(cells, stateMask, false, true, EventSource.KEYBOARD);
 
         focusColumn = oldFocusColumn;
@@ -4478,21 +4401,60 @@ public abstract class LightGrid extends Canvas {
         if (isDisposed()) {
             return Collections.emptyList();
         }
-        return Collections.unmodifiableCollection(selectedCells);
+        return Collections.unmodifiableCollection(new GridSelection(selectedCells));
     }
 
-    public List<GridCell> getCellSelection()
+    /**
+     * Returns selected cells. Cells are created lazily during iteration,
+     * so this is cheap even if all cells of a huge grid are selected.
+     * Selection, columns and rows are captured at call time, so the result
+     * doesn't change with the grid and may be iterated outside the UI thread.
+     */
+    @NotNull
+    public Collection<GridCell> getCellSelection()
     {
         if (isDisposed() || selectedCells.isEmpty()) {
             return Collections.emptyList();
         }
-        List<GridCell> cells = new ArrayList<>(selectedCells.size());
-        for (GridPos pos : selectedCells) {
-        	GridCell cell = posToCell(pos);
-        	if (cell != null)
-        		cells.add(cell);
-        }
-        return cells;
+        final GridSelection selection = new GridSelection(selectedCells);
+        final GridColumn[] selectionColumns = columns.toArray(new GridColumn[0]);
+        final IGridRow[] selectionRows = gridRows;
+        return new AbstractCollection<>() {
+            @NotNull
+            @Override
+            public Iterator<GridCell> iterator() {
+                Iterator<GridPos> posIterator = selection.iterator();
+                return new Iterator<>() {
+                    private GridCell nextCell;
+
+                    @Override
+                    public boolean hasNext() {
+                        while (nextCell == null && posIterator.hasNext()) {
+                            GridPos pos = posIterator.next();
+                            if (pos.col >= 0 && pos.row >= 0 && pos.col < selectionColumns.length && pos.row < selectionRows.length) {
+                                nextCell = new GridCell(selectionColumns[pos.col], selectionRows[pos.row]);
+                            }
+                        }
+                        return nextCell != null;
+                    }
+
+                    @Override
+                    public GridCell next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        GridCell cell = nextCell;
+                        nextCell = null;
+                        return cell;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return selection.size();
+            }
+        };
     }
 
     public int getCellSelectionSize() {
@@ -4516,88 +4478,56 @@ public abstract class LightGrid extends Canvas {
     }
 
     public boolean isRowSelected(int row) {
-        return selectedRows.containsKey(row);
+        return selectedCells.containsRow(row);
     }
 
     /**
-     * Returns selected rows indexes
+     * Returns selected rows indexes in ascending order
      * @return indexes of selected rows
      */
     public Collection<Integer> getRowSelection()
     {
-        return Collections.unmodifiableCollection(selectedRows.keySet());
+        return new GridSelection(selectedCells).getRows();
     }
 
     public int getRowSelectionSize() {
-        return selectedRows.size();
+        return selectedCells.getRows().size();
     }
 
-    private void getCells(GridColumn col, List<GridPos> cells)
+    private void getCells(GridColumn col, GridSelection cells)
     {
+        BitSet columnIndexes = new BitSet();
         if (col.getChildren() != null) {
             // Get cells for all leafs
             for (int i = 0; i < columns.size(); i++) {
                 if (columns.get(i).isParent(col)) {
-                    for (int k = 0; k < getItemCount(); k++) {
-                        cells.add(new GridPos(i, k));
-                    }
+                    columnIndexes.set(i);
                 }
             }
         } else {
-            int colIndex = col.getIndex();
-
-            for (int i = 0; i < getItemCount(); i++) {
-                cells.add(new GridPos(colIndex, i));
-            }
+            columnIndexes.set(col.getIndex());
         }
+        cells.addCells(0, getItemCount() - 1, columnIndexes);
     }
 
-    private void getCells(int row, List<GridPos> cells)
+    private void getCells(int row, GridSelection cells)
     {
-        for (int i = 0; i < columns.size(); i++) {
-            cells.add(new GridPos(i, row));
-        }
+        getCells(row, row, cells);
     }
 
-    private List<GridPos> getAllCells()
+    private GridSelection getAllCells()
     {
-        int itemCount = getItemCount();
-        int columnCount = columns.size();
-        List<GridPos> cells = new ArrayList<>(itemCount * columnCount);
-
-        for (int i = 0; i < itemCount; i++) {
-            for (int k = 0; k < columnCount; k++) {
-                cells.add(new GridPos(k, i));
-            }
-        }
+        GridSelection cells = new GridSelection();
+        cells.addCells(0, getItemCount() - 1, GridSelection.columnRange(0, columns.size() - 1));
         return cells;
     }
 
-    private List<GridPos> getCells(int row)
+    private void getCells(int startRow, int endRow, GridSelection cells)
     {
-        List<GridPos> cells = new ArrayList<>();
-        getCells(row, cells);
-        return cells;
-    }
-
-
-    private void getCells(int startRow, int endRow, List<GridPos> cells)
-    {
-        boolean descending = (startRow < endRow);
-
-        int iterItem = endRow;
-
-        do {
-            getCells(iterItem, cells);
-
-            if (iterItem == startRow) break;
-
-            if (descending) {
-                iterItem--;
-            } else {
-                iterItem++;
-            }
-        } while (true);
+        cells.addCells(
+            Math.max(Math.min(startRow, endRow), 0),
+            Math.max(startRow, endRow),
+            GridSelection.columnRange(0, columns.size() - 1));
     }
 
     /**
@@ -4618,30 +4548,20 @@ public abstract class LightGrid extends Canvas {
             toItem = temp;
         }
 
-        boolean firstTime = true;
-        int iterItem = fromItem;
-
         int fromIndex = fromColumn.getIndex();
         int toIndex = toColumn.getIndex();
 
-        do {
-            if (!firstTime) {
-                iterItem++;
-            } else {
-                firstTime = false;
-            }
-
-            Point cols = getRowSelectionRange(fromColumn, toColumn);
+        // Column span doesn't depend on rows, so check it once
+        Point cols = getRowSelectionRange(fromColumn, toColumn);
 
-            //check and see if column spanning means that the range increased
-            if (cols.x != fromIndex || cols.y != toIndex) {
-                GridColumn newFrom = getColumn(cols.x);
-                GridColumn newTo = getColumn(cols.y);
+        //check and see if column spanning means that the range increased
+        if (cols.x != fromIndex || cols.y != toIndex) {
+            GridColumn newFrom = getColumn(cols.x);
+            GridColumn newTo = getColumn(cols.y);
 
-                //Unfortunately we have to start all over again from the top with the new range
-                return getSelectionRange(fromItem, newFrom, toItem, newTo);
-            }
-        } while (iterItem != toItem);
+            //Unfortunately we have to start all over again from the top with the new range
+            return getSelectionRange(fromItem, newFrom, toItem, newTo);
+        }
 
         return new Point(fromColumn.getIndex(), toColumn.getIndex());
     }
@@ -4943,7 +4863,7 @@ public abstract class LightGrid extends Canvas {
                         if (isDragSingleRow()) {
                             elements.add(getRowElement(draggingRow));
                         } else {
-                            for (Integer row : selectedRows.keySet()) {
+                            for (Integer row : getRowSelection()) {
                                 elements.add(getRowElement(row));
                             }
                         }
@@ -4953,7 +4873,7 @@ public abstract class LightGrid extends Canvas {
                         if (columns.isEmpty()) {
                             columns = LightGrid.this.columns;
                         }
-                        Set<Integer> rows = selectedRows.keySet();
+                        Collection<Integer> rows = getRowSelection();
                         if (rows.isEmpty()) {
                             rows = Collections.singleton(draggingRow);
                         }
@@ -5084,7 +5004,7 @@ public abstract class LightGrid extends Canvas {
     }
 
     private boolean isDragSingleRow() {
-        return draggingRow != null && !selectedRows.containsKey(draggingRow);
+        return draggingRow != null && !selectedCells.containsRow(draggingRow);
     }
 
     public final static class GridColumnTransfer extends LocalObjectTransfer<List<Object>> {
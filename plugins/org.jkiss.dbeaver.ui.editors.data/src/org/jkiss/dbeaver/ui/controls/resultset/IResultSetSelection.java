@@ -21,6 +21,8 @@ import org.eclipse.jface.viewers.IStructuredSelection;
 import org.jkiss.code.NotNull;
 import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -45,4 +47,21 @@ public interface IResultSetSelection extends IStructuredSelection {
         return null;
     }
 
+    /**
+     * Returns locations of selected cells. The result doesn't change with the selection,
+     * so it may be iterated outside the UI thread.
+     */
+    @NotNull
+    default Collection<ResultSetCellLocation> getSelectedCells() {
+        List<ResultSetCellLocation> cells = new ArrayList<>(size());
+        for (Object element : this) {
+            DBDAttributeBinding attribute = getElementAttribute(element);
+            ResultSetRow row = getElementRow(element);
+            if (attribute != null && row != null) {
+                cells.add(new ResultSetCellLocation(attribute, row));
+            }
+        }
+        return cells;
+    }
+
 }
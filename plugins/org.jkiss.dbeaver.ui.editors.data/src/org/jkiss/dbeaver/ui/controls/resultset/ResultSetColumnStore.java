@@ -0,0 +1,413 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.model.DBUtils;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Columnar storage of result set rows.
+ * <p>
+ * Each column is kept in a type specialized array: longs, ints, doubles, booleans, timestamps
+ * and small decimals are stored as primitives with a null bitmap, repeating strings are dictionary encoded.
+ * Other values are kept as is. Values are boxed on access, so only visible cells are materialized.
+ * <p>
+ * Column type is chosen by the exact class of all column values, so materialized values have the same
+ * classes as the original ones. Store is immutable, edited rows copy their values (see {@link ResultSetRow}).
+ */
+class ResultSetColumnStore implements ResultSetRowStore {
+
+    private final Column[] columns;
+
+    private ResultSetColumnStore(@NotNull Column[] columns) {
+        this.columns = columns;
+    }
+
+    /**
+     * Creates store for the specified rows. Returns null if rows have different number of values.
+     */
+    @Nullable
+    static ResultSetColumnStore create(@NotNull List<Object[]> rows) {
+        int rowCount = rows.size();
+        if (rowCount == 0) {
+            return null;
+        }
+        int columnCount = rows.get(0).length;
+        for (Object[] row : rows) {
+            if (row.length != columnCount) {
+                return null;
+            }
+        }
+        Column[] columns = new Column[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            columns[i] = createColumn(rows, i);
+        }
+        return new ResultSetColumnStore(columns);
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    @Nullable
+    @Override
+    public Object getValue(int row, int column) {
+        return columns[column].get(row);
+    }
+
+    @NotNull
+    @Override
+    public Object[] getRowValues(int row) {
+        Object[] values = new Object[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            values[i] = columns[i].get(row);
+        }
+        return values;
+    }
+
+    /**
+     * Only values kept as objects may hold resources
+     */
+    @Override
+    public void releaseRow(int row) {
+        for (Column column : columns) {
+            if (column instanceof ObjectColumn) {
+                DBUtils.releaseValue(((ObjectColumn) column).values[row]);
+            }
+        }
+    }
+
+    @NotNull
+    private static Column createColumn(@NotNull List<Object[]> rows, int index) {
+        Class<?> valueClass = null;
+        for (Object[] row : rows) {
+            Object value = row[index];
+            if (value == null) {
+                continue;
+            }
+            if (valueClass == null) {
+                valueClass = value.getClass();
+            } else if (valueClass != value.getClass()) {
+                return new ObjectColumn(rows, index);
+            }
+        }
+        if (valueClass == null) {
+            return NullColumn.INSTANCE;
+        } else if (valueClass == Long.class) {
+            return new LongColumn(rows, index);
+        } else if (valueClass == Integer.class) {
+            return new IntColumn(rows, index);
+        } else if (valueClass == Double.class) {
+            return new DoubleColumn(rows, index);
+        } else if (valueClass == Boolean.class) {
+            return new BooleanColumn(rows, index);
+        } else if (valueClass == Timestamp.class) {
+            return new TimestampColumn(rows, index);
+        } else if (valueClass == BigDecimal.class && DecimalColumn.isCompact(rows, index)) {
+            return new DecimalColumn(rows, index);
+        } else if (valueClass == String.class) {
+            StringColumn column = StringColumn.create(rows, index);
+            if (column != null) {
+                return column;
+            }
+        }
+        return new ObjectColumn(rows, index);
+    }
+
+    private abstract static class Column {
+        @Nullable
+        abstract Object get(int row);
+    }
+
+    private static class NullColumn extends Column {
+        static final NullColumn INSTANCE = new NullColumn();
+
+        @Override
+        Object get(int row) {
+            return null;
+        }
+    }
+
+    private static class ObjectColumn extends Column {
+        final Object[] values;
+
+        ObjectColumn(@NotNull List<Object[]> rows, int index) {
+            values = new Object[rows.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = rows.get(i)[index];
+            }
+        }
+
+        @Override
+        Object get(int row) {
+            return values[row];
+        }
+    }
+
+    /**
+     * Column of primitive values. Null values are marked in a bitmap.
+     */
+    private abstract static class PrimitiveColumn extends Column {
+        @Nullable
+        private long[] nulls;
+
+        void setNull(int row, int rowCount) {
+            if (nulls == null) {
+                nulls = new long[(rowCount + 63) >>> 6];
+            }
+            nulls[row >>> 6] |= 1L << row;
+        }
+
+        boolean isNull(int row) {
+            return nulls != null && (nulls[row >>> 6] & (1L << row)) != 0;
+        }
+
+        @Override
+        Object get(int row) {
+            return isNull(row) ? null : getValue(row);
+        }
+
+        @NotNull
+        abstract Object getValue(int row);
+    }
+
+    private static class LongColumn extends PrimitiveColumn {
+        private final long[] values;
+
+        LongColumn(@NotNull List<Object[]> rows, int index) {
+            int rowCount = rows.size();
+            values = new long[rowCount];
+            for (int i = 0; i < rowCount; i++) {
+                Object value = rows.get(i)[index];
+                if (value == null) {
+                    setNull(i, rowCount);
+                } else {
+                    values[i] = (Long) value;
+                }
+            }
+        }
+
+        @NotNull
+        @Override
+        Object getValue(int row) {
+            return values[row];
+        }
+    }
+
+    private static class IntColumn extends PrimitiveColumn {
+        private final int[] values;
+
+        IntColumn(@NotNull List<Object[]> rows, int index) {
+            int rowCount = rows.size();
+            values = new int[rowCount];
+            for (int i = 0; i < rowCount; i++) {
+                Object value = rows.get(i)[index];
+                if (value == null) {
+                    setNull(i, rowCount);
+                } else {
+                    values[i] = (Integer) value;
+                }
+            }
+        }
+
+        @NotNull
+        @Override
+        Object getValue(int row) {
+            return values[row];
+        }
+    }
+
+    private static class DoubleColumn extends PrimitiveColumn {
+        private final double[] values;
+
+        DoubleColumn(@NotNull List<Object[]> rows, int index) {
+            int rowCount = rows.size();
+            values = new double[rowCount];
+            for (int i = 0; i < rowCount; i++) {
+                Object value = rows.get(i)[index];
+                if (value == null) {
+                    setNull(i, rowCount);
+                } else {
+                    values[i] = (Double) value;
+                }
+            }
+        }
+
+        @NotNull
+        @Override
+        Object getValue(int row) {
+            return values[row];
+        }
+    }
+
+    private static class BooleanColumn extends PrimitiveColumn {
+        private final long[] bits;
+
+        BooleanColumn(@NotNull List<Object[]> rows, int index) {
+            int rowCount = rows.size();
+            bits = new long[(rowCount + 63) >>> 6];
+            for (int i = 0; i < rowCount; i++) {
+                Object value = rows.get(i)[index];
+                if (value == null) {
+                    setNull(i, rowCount);
+                } else if ((Boolean) value) {
+                    bits[i >>> 6] |= 1L << i;
+                }
+            }
+        }
+
+        @NotNull
+        @Override
+        Object getValue(int row) {
+            return (bits[row >>> 6] & (1L << row)) != 0;
+        }
+    }
+
+    /**
+     * Timestamps are kept as epoch milliseconds plus nanoseconds
+     */
+    private static class TimestampColumn extends PrimitiveColumn {
+        private final long[] millis;
+        private final int[] nanos;
+
+        TimestampColumn(@NotNull List<Object[]> rows, int index) {
+            int rowCount = rows.size();
+            millis = new long[rowCount];
+            nanos = new int[rowCount];
+            for (int i = 0; i < rowCount; i++) {
+                Timestamp value = (Timestamp) rows.get(i)[index];
+                if (value == null) {
+                    setNull(i, rowCount);
+                } else {
+                    millis[i] = value.getTime();
+                    nanos[i] = value.getNanos();
+                }
+            }
+        }
+
+        @NotNull
+        @Override
+        Object getValue(int row) {
+            Timestamp timestamp = new Timestamp(millis[row]);
+            timestamp.setNanos(nanos[row]);
+            return timestamp;
+        }
+    }
+
+    /**
+     * Decimals which unscaled value fits in long (e.g. NUMBER columns in Oracle)
+     */
+    private static class DecimalColumn extends PrimitiveColumn {
+        private final long[] unscaled;
+        private final int[] scales;
+
+        DecimalColumn(@NotNull List<Object[]> rows, int index) {
+            int rowCount = rows.size();
+            unscaled = new long[rowCount];
+            scales = new int[rowCount];
+            for (int i = 0; i < rowCount; i++) {
+                BigDecimal value = (BigDecimal) rows.get(i)[index];
+                if (value == null) {
+                    setNull(i, rowCount);
+                } else {
+                    unscaled[i] = value.unscaledValue().longValue();
+                    scales[i] = value.scale();
+                }
+            }
+        }
+
+        static boolean isCompact(@NotNull List<Object[]> rows, int index) {
+            for (Object[] row : rows) {
+                Object value = row[index];
+                if (value != null) {
+                    BigInteger unscaledValue = ((BigDecimal) value).unscaledValue();
+                    if (unscaledValue.bitLength() >= Long.SIZE) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        @NotNull
+        @Override
+        Object getValue(int row) {
+            return BigDecimal.valueOf(unscaled[row], scales[row]);
+        }
+    }
+
+    /**
+     * Dictionary encoded strings. Used only if strings repeat, otherwise codes would take more memory.
+     */
+    private static class StringColumn extends Column {
+        private static final int NULL_CODE = -1;
+
+        private final String[] dictionary;
+        private final int[] codes;
+
+        private StringColumn(@NotNull String[] dictionary, @NotNull int[] codes) {
+            this.dictionary = dictionary;
+            this.codes = codes;
+        }
+
+        @Nullable
+        static StringColumn create(@NotNull List<Object[]> rows, int index) {
+            int rowCount = rows.size();
+            int maxDictionarySize = rowCount / 2;
+            Map<String, Integer> dictionaryMap = new HashMap<>();
+            int[] codes = new int[rowCount];
+            for (int i = 0; i < rowCount; i++) {
+                String value = (String) rows.get(i)[index];
+                if (value == null) {
+                    codes[i] = NULL_CODE;
+                    continue;
+                }
+                Integer code = dictionaryMap.get(value);
+                if (code == null) {
+                    if (dictionaryMap.size() >= maxDictionarySize) {
+                        // Mostly unique values
+                        return null;
+                    }
+                    code = dictionaryMap.size();
+                    dictionaryMap.put(value, code);
+                }
+                codes[i] = code;
+            }
+            String[] dictionary = new String[dictionaryMap.size()];
+            for (Map.Entry<String, Integer> entry : dictionaryMap.entrySet()) {
+                dictionary[entry.getValue()] = entry.getKey();
+            }
+            return new StringColumn(dictionary, codes);
+        }
+
+        @Override
+        Object get(int row) {
+            int code = codes[row];
+            return code == NULL_CODE ? null : dictionary[code];
+        }
+    }
+
+}
@@ -102,7 +102,8 @@ public class ResultSetDataContainer implements DBSDataContainer, DBPContextProvi
             //LocalSta
             ModelResultSet resultSet = new ModelResultSet(session, flags);
             long resultCount = 0;
-            try {
+            // Rows may be cleared by the viewer while they are exported
+            try (ResultSetModel.StorageLock ignored = model.lockStorage()) {
                 dataReceiver.fetchStart(session, resultSet, firstRow, maxRows);
                 while (!session.getProgressMonitor().isCanceled() && resultSet.nextRow()) {
                     if (!proceedSelectedRowsOnly(flags) || options.getSelectedRows().contains(resultSet.curRow.getRowNumber())) {
@@ -17,18 +17,21 @@
 package org.jkiss.dbeaver.ui.controls.resultset;
 
 import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.ModelPreferences;
 import org.jkiss.dbeaver.model.DBUtils;
 import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
 import org.jkiss.dbeaver.model.data.DBDDataReceiver;
 import org.jkiss.dbeaver.model.data.DBDDataReceiverInteractive;
+import org.jkiss.dbeaver.model.data.DBDValueHandler;
 import org.jkiss.dbeaver.model.exec.*;
 import org.jkiss.dbeaver.model.impl.data.DBDValueError;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.struct.DBSAttributeBase;
 import org.jkiss.dbeaver.model.struct.DBSDataContainer;
 import org.jkiss.dbeaver.model.struct.DBSEntity;
+import org.jkiss.dbeaver.model.struct.DBSEntityAttribute;
 import org.jkiss.dbeaver.ui.UIUtils;
 
 import java.util.ArrayList;
@@ -43,10 +46,22 @@ class ResultSetDataReceiver implements DBDDataReceiver, DBDDataReceiverInteracti
 
     private static final Log log = Log.getLog(ResultSetDataReceiver.class);
 
+    // Number of rows passed to the model at once during long fetches
+    private static final int FETCH_BATCH_SIZE = 10000;
+
     private ResultSetViewer resultSetViewer;
     private int columnsCount;
     private DBDAttributeBinding[] metaColumns;
     private List<Object[]> rows = new ArrayList<>();
+    // The first batch of the first fetch. Kept in memory to bind attributes when fetch ends.
+    @Nullable
+    private List<Object[]> firstRows;
+    // Rows prepared during fetch
+    private List<ResultSetRow> preparedRows = new ArrayList<>();
+    // Storage of rows prepared during the first fetch. Passed to the model when fetch ends.
+    @Nullable
+    private ResultSetModel.RowStorage firstFetchStorage;
+    private boolean resetOldRows;
     private boolean hasMoreData;
     private boolean nextSegmentRead;
     private long offset;
@@ -94,6 +109,9 @@ class ResultSetDataReceiver implements DBDDataReceiver, DBDDataReceiverInteracti
         throws DBCException {
         this.errorList.clear();
         this.rows.clear();
+        this.firstRows = null;
+        this.preparedRows.clear();
+        discardFirstFetchStorage();
         this.offset = offset;
         this.maxRows = maxRows;
 
@@ -111,6 +129,8 @@ class ResultSetDataReceiver implements DBDDataReceiver, DBDDataReceiverInteracti
             metaColumns = DBUtils.getAttributeBindings(session, getDataContainer(), metaData);
 
             resultSetViewer.setMetaData(resultSet, metaColumns);
+        } else {
+            resetOldRows = getDataContainer().getDataSource().getContainer().getPreferenceStore().getBoolean(ModelPreferences.RESULT_SET_REREAD_ON_SCROLLING);
         }
     }
 
@@ -150,11 +170,31 @@ class ResultSetDataReceiver implements DBDDataReceiver, DBDDataReceiverInteracti
             }
         }
         rows.add(row);
+        if (rows.size() >= FETCH_BATCH_SIZE) {
+            // Do not keep all fetched values in memory (e.g. on fetch all).
+            // Model compacts them or spills to disk.
+            if (!nextSegmentRead) {
+                if (firstRows == null) {
+                    firstRows = rows;
+                } else {
+                    if (firstFetchStorage == null) {
+                        firstFetchStorage = new ResultSetModel.RowStorage();
+                    }
+                    preparedRows.addAll(resultSetViewer.getModel().prepareRows(firstFetchStorage, rows));
+                }
+                rows = new ArrayList<>();
+            } else if (!resetOldRows) {
+                preparedRows.addAll(resultSetViewer.getModel().prepareRows(rows));
+                rows = new ArrayList<>();
+            }
+        }
     }
 
     @Override
     public void fetchEnd(DBCSession session, final DBCResultSet resultSet) {
         if (!nextSegmentRead) {
+            // Bind attributes using the first batch. Values fetched after it are converted if value handlers change.
+            DBDValueHandler[] valueHandlers = getValueHandlers();
             try {
                 // Read locators' metadata
                 DBSEntity entity = null;
@@ -162,13 +202,17 @@ class ResultSetDataReceiver implements DBDDataReceiver, DBDDataReceiverInteracti
                 if (dataContainer instanceof DBSEntity) {
                     entity = (DBSEntity) dataContainer;
                 }
-                DBExecUtils.bindAttributes(session, entity, resultSet, metaColumns, rows);
+                DBExecUtils.bindAttributes(session, entity, resultSet, metaColumns, firstRows != null ? firstRows : rows);
             } catch (Throwable e) {
                 errorList.add(e);
             }
+            if (firstRows != null) {
+                convertFetchedValues(session, valueHandlers);
+            }
         }
 
         final List<Object[]> tmpRows = rows;
+        final int fetchedRowCount = (firstRows == null ? 0 : firstRows.size()) + preparedRows.size() + tmpRows.size();
 
         final boolean nextSegmentRead = this.nextSegmentRead;
 
@@ -177,14 +221,30 @@ class ResultSetDataReceiver implements DBDDataReceiver, DBDDataReceiverInteracti
         monitor.beginTask("Populate data", 1);
         if (!nextSegmentRead) {
             monitor.subTask("Set data");
-            resultSetViewer.setData(tmpRows, focusRow);
+            ResultSetModel.RowStorage storage = firstFetchStorage != null ? firstFetchStorage : new ResultSetModel.RowStorage();
+            List<ResultSetRow> newRows = new ArrayList<>(fetchedRowCount);
+            if (firstRows != null) {
+                newRows.addAll(resultSetViewer.getModel().prepareRows(storage, firstRows));
+                firstRows = null;
+            }
+            newRows.addAll(preparedRows);
+            newRows.addAll(resultSetViewer.getModel().prepareRows(storage, tmpRows));
+            preparedRows = new ArrayList<>();
+            firstFetchStorage = null;
+            resultSetViewer.setData(storage, newRows, focusRow);
+        } else if (resetOldRows) {
+            monitor.subTask("Append data");
+            resultSetViewer.appendData(tmpRows, true);
         } else {
             monitor.subTask("Append data");
-            boolean resetOldRows = getDataContainer().getDataSource().getContainer().getPreferenceStore().getBoolean(ModelPreferences.RESULT_SET_REREAD_ON_SCROLLING);
-            resultSetViewer.appendData(tmpRows, resetOldRows);
+            List<ResultSetRow> newRows = preparedRows;
+            newRows.addAll(resultSetViewer.getModel().prepareRows(tmpRows));
+            preparedRows = new ArrayList<>();
+            resultSetViewer.appendRows(newRows);
         }
         // Check for more data
-        hasMoreData = maxRows > 0 && tmpRows.size() >= maxRows;
+        hasMoreData = maxRows > 0 && fetchedRowCount >= maxRows;
+        resultSetViewer.getModel().compactRows();
         monitor.done();
 
         UIUtils.syncExec(() -> {
@@ -200,6 +260,74 @@ class ResultSetDataReceiver implements DBDDataReceiver, DBDDataReceiverInteracti
         });
     }
 
+    @NotNull
+    private DBDValueHandler[] getValueHandlers() {
+        DBDValueHandler[] valueHandlers = new DBDValueHandler[metaColumns.length];
+        for (int i = 0; i < metaColumns.length; i++) {
+            valueHandlers[i] = metaColumns[i].getValueHandler();
+        }
+        return valueHandlers;
+    }
+
+    /**
+     * Converts values fetched after the first batch of columns which got new value handlers in attribute binding.
+     * Prepared rows are prepared again in a new storage, one batch at a time.
+     */
+    private void convertFetchedValues(@NotNull DBCSession session, @NotNull DBDValueHandler[] valueHandlers) {
+        List<DBDAttributeBinding> changedColumns = new ArrayList<>();
+        for (int i = 0; i < metaColumns.length; i++) {
+            if (metaColumns[i].getValueHandler() != valueHandlers[i] && metaColumns[i].getEntityAttribute() != null) {
+                changedColumns.add(metaColumns[i]);
+            }
+        }
+        if (changedColumns.isEmpty()) {
+            return;
+        }
+        convertValues(session, changedColumns, rows);
+        if (preparedRows.isEmpty()) {
+            return;
+        }
+        ResultSetModel model = resultSetViewer.getModel();
+        ResultSetModel.RowStorage convertedStorage = new ResultSetModel.RowStorage();
+        for (int start = 0; start < preparedRows.size(); start += FETCH_BATCH_SIZE) {
+            List<ResultSetRow> batch = preparedRows.subList(start, Math.min(start + FETCH_BATCH_SIZE, preparedRows.size()));
+            List<Object[]> batchValues = new ArrayList<>(batch.size());
+            for (ResultSetRow row : batch) {
+                batchValues.add(row.getValues());
+            }
+            convertValues(session, changedColumns, batchValues);
+            List<ResultSetRow> convertedRows = model.prepareRows(convertedStorage, batchValues);
+            for (int i = 0; i < convertedRows.size(); i++) {
+                batch.set(i, convertedRows.get(i));
+            }
+        }
+        if (firstFetchStorage != null) {
+            model.discardStorage(firstFetchStorage);
+        }
+        firstFetchStorage = convertedStorage;
+    }
+
+    private void convertValues(@NotNull DBCSession session, @NotNull List<DBDAttributeBinding> columns, @NotNull List<Object[]> values) {
+        for (DBDAttributeBinding column : columns) {
+            DBSEntityAttribute entityAttribute = column.getEntityAttribute();
+            int pos = column.getOrdinalPosition();
+            try {
+                for (Object[] row : values) {
+                    row[pos] = column.getValueHandler().getValueFromObject(session, entityAttribute, row[pos], false, false);
+                }
+            } catch (DBCException e) {
+                log.warn("Error resolving attribute '" + column.getName() + "' values", e);
+            }
+        }
+    }
+
+    private void discardFirstFetchStorage() {
+        if (firstFetchStorage != null) {
+            resultSetViewer.getModel().discardStorage(firstFetchStorage);
+            firstFetchStorage = null;
+        }
+    }
+
     private DBSDataContainer getDataContainer() {
         return targetDataContainer != null ? targetDataContainer : resultSetViewer.getDataContainer();
     }
@@ -210,6 +338,9 @@ class ResultSetDataReceiver implements DBDDataReceiver, DBDDataReceiverInteracti
 
         attrErrors.clear();
         rows = new ArrayList<>();
+        firstRows = null;
+        preparedRows = new ArrayList<>();
+        discardFirstFetchStorage();
     }
 
     @Override
@@ -0,0 +1,77 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.ui.UIUtils;
+
+import java.util.function.Consumer;
+
+/**
+ * Sorts result set rows in background. Sorted rows are passed to the consumer in the UI thread.
+ * Spilled rows are kept readable by the storage lock until the job finishes or is canceled.
+ */
+class ResultSetJobSort extends AbstractJob {
+
+    private final ResultSetRowSorter sorter;
+    private final ResultSetModel.StorageLock storageLock;
+    private final Consumer<ResultSetRow[]> onFinish;
+
+    ResultSetJobSort(
+        @NotNull ResultSetRowSorter sorter,
+        @NotNull ResultSetModel.StorageLock storageLock,
+        @NotNull Consumer<ResultSetRow[]> onFinish)
+    {
+        super("Sort " + sorter.getRowCount() + " rows");
+        this.sorter = sorter;
+        this.storageLock = storageLock;
+        this.onFinish = onFinish;
+        setUser(false);
+    }
+
+    @NotNull
+    ResultSetRowSorter getSorter() {
+        return sorter;
+    }
+
+    @Override
+    protected IStatus run(DBRProgressMonitor monitor) {
+        ResultSetRow[] rows;
+        try {
+            rows = sorter.sort(monitor);
+        } finally {
+            storageLock.close();
+        }
+        if (rows == null) {
+            return Status.CANCEL_STATUS;
+        }
+        UIUtils.asyncExec(() -> onFinish.accept(rows));
+        return Status.OK_STATUS;
+    }
+
+    @Override
+    protected void canceling() {
+        sorter.cancel();
+        // Job may be canceled before it runs
+        storageLock.close();
+        super.canceling();
+    }
+}
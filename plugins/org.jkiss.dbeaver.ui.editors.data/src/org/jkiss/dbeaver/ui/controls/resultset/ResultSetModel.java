@@ -24,21 +24,26 @@ import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.ModelPreferences;
 import org.jkiss.dbeaver.model.DBPDataKind;
+import org.jkiss.dbeaver.model.DBPDataSource;
 import org.jkiss.dbeaver.model.DBPDataSourceContainer;
 import org.jkiss.dbeaver.model.DBUtils;
 import org.jkiss.dbeaver.model.data.*;
 import org.jkiss.dbeaver.model.exec.*;
 import org.jkiss.dbeaver.model.exec.trace.DBCTrace;
+import org.jkiss.dbeaver.model.preferences.DBPPreferenceStore;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
 import org.jkiss.dbeaver.model.struct.*;
 import org.jkiss.dbeaver.model.virtual.DBVColorOverride;
 import org.jkiss.dbeaver.model.virtual.DBVEntity;
 import org.jkiss.dbeaver.model.virtual.DBVUtils;
+import org.jkiss.dbeaver.runtime.DBWorkbench;
 import org.jkiss.dbeaver.runtime.jobs.DataSourceJob;
 import org.jkiss.dbeaver.ui.UIUtils;
 import org.jkiss.dbeaver.utils.RuntimeUtils;
 import org.jkiss.utils.ArrayUtils;
 import org.jkiss.utils.CommonUtils;
 
+import java.io.IOException;
 import java.util.*;
 
 /**
@@ -48,6 +53,11 @@ public class ResultSetModel {
 
     private static final Log log = Log.getLog(ResultSetModel.class);
 
+    private static final String SPILL_FOLDER = "resultset-spill"; //$NON-NLS-1$
+    private static final int SPILL_CACHED_PAGES = 64;
+    // Minimal number of rows in a column store. Rows of smaller fetches are moved into the store later
+    static final int COLUMN_STORE_SEGMENT_SIZE = 10000;
+
     // Attributes
     private DBDAttributeBinding[] attributes = new DBDAttributeBinding[0];
     private List<DBDAttributeBinding> visibleAttributes = new ArrayList<>();
@@ -60,6 +70,9 @@ public class ResultSetModel {
     private List<ResultSetRow> curRows = new ArrayList<>();
     private Long totalRowCount = null;
     private int changesCount = 0;
+    // Storage state is changed by fetch thread (prepareRows, compactRows) and by UI thread (clearData), guarded by storageLock
+    private final Object storageLock = new Object();
+    private RowStorage storage = new RowStorage();
     private volatile boolean hasData = false;
     // Flag saying that edited values update is in progress
     private volatile DataSourceJob updateInProgress = null;
@@ -72,6 +85,41 @@ public class ResultSetModel {
     private transient boolean metadataChanged;
     private transient boolean metadataDynamic;
 
+    /**
+     * Storage of fetched values.
+     * The first fetch prepares its rows in a new storage which replaces the current one in {@link #setData(RowStorage, List)}.
+     */
+    static class RowStorage {
+        // Estimated heap size of fetched values
+        private long dataSize;
+        // Rows fetched after data size exceeded spill threshold
+        @Nullable
+        private ResultSetSpillFile spillFile;
+        private boolean spillFailed;
+        // Rows which values are kept in arrays until there are enough of them for a column store
+        private List<ResultSetRow> uncompactedRows = new ArrayList<>();
+    }
+
+    static class StorageLock implements AutoCloseable {
+        @Nullable
+        private ResultSetSpillFile spillFile;
+
+        StorageLock(@Nullable ResultSetSpillFile spillFile) {
+            this.spillFile = spillFile;
+        }
+
+        /**
+         * Releases the spill file. May be called several times.
+         */
+        @Override
+        public synchronized void close() {
+            if (spillFile != null) {
+                spillFile.release();
+                spillFile = null;
+            }
+        }
+    }
+
     public static class AttributeColorSettings {
         private DBCLogicalOperator operator;
         private boolean rangeCheck;
@@ -360,9 +408,13 @@ public class ResultSetModel {
         return curRows;
     }
 
+    /**
+     * Returns values of the row. Values kept in the row store are copied in a new array,
+     * so use {@link #getCellValue(DBDAttributeBinding, ResultSetRow)} to read separate values.
+     */
     @NotNull
     public Object[] getRowData(int index) {
-        return curRows.get(index).values;
+        return curRows.get(index).getValues();
     }
 
     @NotNull
@@ -380,28 +432,30 @@ public class ResultSetModel {
 
     @Nullable
     public Object getCellValue(@NotNull ResultSetCellLocation cellLocation) {
-        return DBUtils.getAttributeValue(
+        return getCellValue(
             cellLocation.getAttribute(),
-            attributes,
-            cellLocation.getRow().values,
+            cellLocation.getRow(),
             cellLocation.getRowIndexes());
     }
 
     @Nullable
     public Object getCellValue(@NotNull DBDAttributeBinding attribute, @NotNull ResultSetRow row) {
-        return DBUtils.getAttributeValue(
-            attribute,
-            attributes,
-            row.values,
-            null);
+        return getCellValue(attribute, row, null);
     }
 
     @Nullable
     public Object getCellValue(@NotNull DBDAttributeBinding attribute, @NotNull ResultSetRow row, @Nullable int[] rowIndexes) {
+        DBDAttributeBinding topParent = attribute.getTopParent();
+        int index = topParent.getOrdinalPosition();
+        if (!attribute.isCustom() && (attribute.getLevel() > 0 || topParent == attribute) && index < row.getValueCount()) {
+            // Read the top level value only, so values kept in the row store aren't materialized for the whole row
+            return DBUtils.getNestedAttributeValue(attribute, row.getValue(index), rowIndexes);
+        }
+        // Custom attributes are evaluated from all row values
         return DBUtils.getAttributeValue(
             attribute,
             attributes,
-            row.values,
+            row.getValues(),
             rowIndexes);
     }
 
@@ -446,7 +500,7 @@ public class ResultSetModel {
             rootIndex = attr.getTopParent().getOrdinalPosition();
         }
         int rowIndex = 0;
-        Object rootValue = row.values[rootIndex];
+        Object rootValue = row.getValue(rootIndex);
         Object ownerValue = depth > 0 ? rootValue : null;
         {
             // Obtain owner value and create all intermediate values
@@ -556,7 +610,7 @@ public class ResultSetModel {
                     e.printStackTrace();
                 }
             } else {
-                row.values[rootIndex] = value;
+                row.setValue(rootIndex, value);
             }
             return true;
         }
@@ -701,9 +755,20 @@ public class ResultSetModel {
     }
 
     public void setData(@NotNull List<Object[]> rows) {
+        RowStorage newStorage = new RowStorage();
+        setData(newStorage, prepareRows(newStorage, rows));
+    }
+
+    /**
+     * Sets rows prepared in the specified storage. The storage replaces the current one.
+     */
+    void setData(@NotNull RowStorage newStorage, @NotNull List<ResultSetRow> rows) {
         // Clear previous data
         this.releaseAllData();
         this.clearData();
+        synchronized (storageLock) {
+            this.storage = newStorage;
+        }
 
         {
             boolean isDocumentBased = false;
@@ -731,7 +796,7 @@ public class ResultSetModel {
 
         // Add new data
         updateColorMapping(false);
-        appendData(rows, true);
+        appendRows(rows);
         updateDataFilter();
 
         this.visibleAttributes.sort(POSITION_SORTER);
@@ -865,22 +930,203 @@ public class ResultSetModel {
     void appendData(@NotNull List<Object[]> rows, boolean resetOldRows) {
         if (resetOldRows) {
             curRows.clear();
+            resetStorage();
         }
+        appendRows(prepareRows(rows));
+    }
+
+    /**
+     * Creates rows for fetched values. Rows are numbered when they are appended to the model.
+     * Values are kept in the column store or spilled to disk if fetched data exceeds spill threshold.
+     * Doesn't change the visible rows so it may be called during fetch.
+     */
+    @NotNull
+    List<ResultSetRow> prepareRows(@NotNull List<Object[]> rows) {
+        synchronized (storageLock) {
+            return prepareRows(storage, rows);
+        }
+    }
+
+    /**
+     * Creates rows for fetched values in the specified storage
+     */
+    @NotNull
+    List<ResultSetRow> prepareRows(@NotNull RowStorage rowStorage, @NotNull List<Object[]> rows) {
         int rowCount = rows.size();
-        int firstRowNum = curRows.size();
         List<ResultSetRow> newRows = new ArrayList<>(rowCount);
-        for (int i = 0; i < rowCount; i++) {
-            newRows.add(
-                new ResultSetRow(firstRowNum + i, rows.get(i)));
+        if (rowCount == 0) {
+            return newRows;
+        }
+        DBPPreferenceStore store = getPreferenceStore();
+        long rowsSize = estimateDataSize(rows);
+        long spillThreshold = store.getLong(ResultSetPreferences.RESULT_SET_SPILL_THRESHOLD) * 1024 * 1024;
+        boolean columnar = store.getBoolean(ResultSetPreferences.RESULT_SET_COLUMNAR_STORAGE);
+        synchronized (storageLock) {
+            if (spillThreshold > 0 && !rowStorage.spillFailed && rowStorage.dataSize + rowsSize > spillThreshold &&
+                spillRows(rowStorage, rows, newRows))
+            {
+                return newRows;
+            }
+            rowStorage.dataSize += rowsSize;
+            ResultSetColumnStore columnStore = columnar && rowCount >= COLUMN_STORE_SEGMENT_SIZE ?
+                ResultSetColumnStore.create(rows) : null;
+            for (int i = 0; i < rowCount; i++) {
+                newRows.add(columnStore != null ?
+                    new ResultSetRow(0, columnStore, i) :
+                    new ResultSetRow(0, rows.get(i)));
+            }
+            if (columnar && columnStore == null) {
+                rowStorage.uncompactedRows.addAll(newRows);
+            }
+        }
+        return newRows;
+    }
+
+    /**
+     * Moves values of rows fetched by small segments into a column store once there are enough of them.
+     * Called by the fetch job. Rows which are edited meanwhile keep their own values.
+     */
+    void compactRows() {
+        List<ResultSetRow> rows;
+        synchronized (storageLock) {
+            if (storage.uncompactedRows.size() < COLUMN_STORE_SEGMENT_SIZE) {
+                return;
+            }
+            rows = storage.uncompactedRows;
+            storage.uncompactedRows = new ArrayList<>();
+        }
+        List<ResultSetRow> storedRows = new ArrayList<>(rows.size());
+        List<Object[]> storedValues = new ArrayList<>(rows.size());
+        for (ResultSetRow row : rows) {
+            // Edited rows keep their own values
+            if (row.getState() == ResultSetRow.STATE_NORMAL && !row.isChanged()) {
+                storedRows.add(row);
+                storedValues.add(row.getValues());
+            }
+        }
+        ResultSetColumnStore columnStore = ResultSetColumnStore.create(storedValues);
+        if (columnStore != null) {
+            for (int i = 0; i < storedRows.size(); i++) {
+                storedRows.get(i).moveToStore(columnStore, i, storedValues.get(i));
+            }
+        }
+    }
+
+    void appendRows(@NotNull List<ResultSetRow> newRows) {
+        int firstRowNum = curRows.size();
+        for (int i = 0; i < newRows.size(); i++) {
+            ResultSetRow row = newRows.get(i);
+            row.setRowNumber(firstRowNum + i);
+            row.setVisualNumber(firstRowNum + i);
         }
         curRows.addAll(newRows);
 
-        updateRowColors(resetOldRows, newRows);
+        updateRowColors(false, newRows);
+    }
+
+    /**
+     * Writes rows in the spill file. Rows with values which can't be spilled (e.g. LOBs) are kept in memory.
+     * Must be called under storageLock.
+     */
+    private boolean spillRows(@NotNull RowStorage rowStorage, @NotNull List<Object[]> rows, @NotNull List<ResultSetRow> newRows) {
+        try {
+            if (rowStorage.spillFile == null) {
+                rowStorage.spillFile = new ResultSetSpillFile(
+                    DBWorkbench.getPlatform().getTempFolder(new VoidProgressMonitor(), SPILL_FOLDER),
+                    rows.get(0).length,
+                    SPILL_CACHED_PAGES);
+            }
+            ResultSetSpillFile spillFile = rowStorage.spillFile;
+            List<Object[]> spilledRows = new ArrayList<>(rows.size());
+            for (Object[] row : rows) {
+                if (spillFile.canSpill(row)) {
+                    spilledRows.add(row);
+                }
+            }
+            int spillIndex = spillFile.appendRows(spilledRows);
+            int nextSpilled = 0;
+            for (Object[] row : rows) {
+                if (nextSpilled < spilledRows.size() && spilledRows.get(nextSpilled) == row) {
+                    newRows.add(new ResultSetRow(0, spillFile, spillIndex++));
+                    nextSpilled++;
+                } else {
+                    newRows.add(new ResultSetRow(0, row));
+                    rowStorage.dataSize += estimateDataSize(Collections.singletonList(row));
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            log.warn("Can't spill result set rows on disk. Keep all rows in memory.", e);
+            rowStorage.spillFailed = true;
+            return false;
+        }
+    }
+
+    /**
+     * Keeps values of spilled rows readable until the returned lock is closed, even if model data is cleared meanwhile.
+     * Background jobs which read current rows (sort, export) take it before they start reading.
+     */
+    @NotNull
+    StorageLock lockStorage() {
+        synchronized (storageLock) {
+            ResultSetSpillFile spillFile = storage.spillFile;
+            return new StorageLock(spillFile != null && spillFile.acquire() ? spillFile : null);
+        }
+    }
+
+    /**
+     * Closes spill file and forgets rows which weren't compacted. Waits for rows which are being spilled by the fetch thread.
+     */
+    private void resetStorage() {
+        discardStorage(storage);
+    }
+
+    /**
+     * Resets the storage. Used also for storages of the first fetch which weren't passed to {@link #setData(RowStorage, List)}.
+     */
+    void discardStorage(@NotNull RowStorage rowStorage) {
+        synchronized (storageLock) {
+            rowStorage.uncompactedRows = new ArrayList<>();
+            if (rowStorage.spillFile != null) {
+                rowStorage.spillFile.close();
+                rowStorage.spillFile = null;
+            }
+            rowStorage.dataSize = 0;
+            rowStorage.spillFailed = false;
+        }
+    }
+
+    /**
+     * Rough estimation of values heap size
+     */
+    private static long estimateDataSize(@NotNull List<Object[]> rows) {
+        long size = 0;
+        for (Object[] row : rows) {
+            size += 16 + 4L * row.length;
+            for (Object value : row) {
+                if (value instanceof String) {
+                    size += 40 + ((String) value).length();
+                } else if (value instanceof byte[]) {
+                    size += 16 + ((byte[]) value).length;
+                } else if (value != null) {
+                    size += 24;
+                }
+            }
+        }
+        return size;
+    }
+
+    @NotNull
+    private DBPPreferenceStore getPreferenceStore() {
+        DBPDataSource dataSource = attributes.length == 0 ? null : attributes[0].getDataSource();
+        return dataSource == null ?
+            DBWorkbench.getPlatform().getPreferenceStore() : dataSource.getContainer().getPreferenceStore();
     }
 
     void clearData() {
         // Refresh all rows
         this.curRows = new ArrayList<>();
+        this.resetStorage();
         this.totalRowCount = null;
         this.singleSourceEntity = null;
 
@@ -1105,37 +1351,35 @@ public class ResultSetModel {
         this.dataFilter.setAnyConstraint(filter.isAnyConstraint());
     }
 
+    /**
+     * Sorts rows by the current ordering constraints on the calling thread.
+     * Without ordering rows are restored in row number order.
+     */
     public void resetOrdering() {
-        final boolean hasOrdering = dataFilter.hasOrdering();
-
-        // First sort in original order to reset multi-column orderings
-        curRows.sort(Comparator.comparingInt(ResultSetRow::getRowNumber));
-
-        if (hasOrdering) {
-            // Sort locally
-            final List<DBDAttributeConstraint> orderConstraints = dataFilter.getOrderConstraints();
-            curRows.sort((row1, row2) -> {
-                int result = 0;
-                for (DBDAttributeConstraint co : orderConstraints) {
-                    final DBDAttributeBinding binding = getAttributeBinding(co.getAttribute());
-                    if (binding == null) {
-                        continue;
-                    }
-                    Object cell1 = getCellValue(new ResultSetCellLocation(binding, row1));
-                    Object cell2 = getCellValue(new ResultSetCellLocation(binding, row2));
-                    result = DBUtils.compareDataValues(cell1, cell2);
-                    if (co.isOrderDescending()) {
-                        result = -result;
-                    }
-                    if (result != 0) {
-                        break;
-                    }
-                }
-                return result;
-            });
+        ResultSetRow[] rows = createRowSorter().sort(new VoidProgressMonitor());
+        if (rows != null) {
+            applyRowOrder(rows);
         }
-        for (int i = 0; i < curRows.size(); i++) {
-            curRows.get(i).setVisualNumber(i);
+    }
+
+    /**
+     * Creates sorter for the current rows and ordering constraints.
+     */
+    @NotNull
+    ResultSetRowSorter createRowSorter() {
+        return new ResultSetRowSorter(
+            this,
+            curRows,
+            dataFilter.hasOrdering() ? dataFilter.getOrderConstraints() : Collections.emptyList());
+    }
+
+    /**
+     * Replaces rows order. Rows must be a permutation of current rows.
+     */
+    void applyRowOrder(@NotNull ResultSetRow[] rows) {
+        for (int i = 0; i < rows.length; i++) {
+            curRows.set(i, rows[i]);
+            rows[i].setVisualNumber(i);
         }
     }
 
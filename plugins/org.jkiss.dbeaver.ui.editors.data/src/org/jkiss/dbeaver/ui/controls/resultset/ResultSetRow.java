@@ -49,9 +49,19 @@ public class ResultSetRow {
     private int rowNumber;
     // Row number in grid
     private int visualNumber;
-    // Column values
-    @NotNull
-    public Object[] values;
+    /**
+     * Column values. Volatile because values of fetched rows are moved to the column store while other threads read them.
+     * Values array is replaced rather than changed in place, so a row can be moved to the store while it is edited.
+     *
+     * @deprecated use {@link #getValues()}, {@link #getValue(int)} and {@link #setValue(int, Object)}.
+     * The field is null for rows which values are kept in a row store (columnar storage or spill file).
+     */
+    @Deprecated
+    @Nullable
+    public volatile Object[] values;
+    @Nullable
+    private ResultSetRowStore rowStore;
+    private int storeIndex;
     @Nullable
     public Map<DBDAttributeBinding, Object> changes;
     // Row state
@@ -66,9 +76,80 @@ public class ResultSetRow {
         this.state = STATE_NORMAL;
     }
 
+    ResultSetRow(int rowNumber, @NotNull ResultSetRowStore rowStore, int storeIndex) {
+        this.rowNumber = rowNumber;
+        this.visualNumber = rowNumber;
+        this.rowStore = rowStore;
+        this.storeIndex = storeIndex;
+        this.state = STATE_NORMAL;
+    }
+
+    /**
+     * Returns row values.
+     * If values are kept in the row store then returns a new array, so use {@link #setValue} to change values.
+     */
     @NotNull
     public Object[] getValues() {
-        return values;
+        Object[] curValues = values;
+        if (curValues == null) {
+            assert rowStore != null;
+            return rowStore.getRowValues(storeIndex);
+        }
+        return curValues;
+    }
+
+    @Nullable
+    public Object getValue(int index) {
+        Object[] curValues = values;
+        if (curValues == null) {
+            assert rowStore != null;
+            return rowStore.getValue(storeIndex, index);
+        }
+        return curValues[index];
+    }
+
+    public int getValueCount() {
+        Object[] curValues = values;
+        if (curValues == null) {
+            assert rowStore != null;
+            return rowStore.getColumnCount();
+        }
+        return curValues.length;
+    }
+
+    /**
+     * Sets value. Row values are copied from the row store on the first change.
+     */
+    public synchronized void setValue(int index, @Nullable Object value) {
+        Object[] newValues;
+        if (values == null) {
+            assert rowStore != null;
+            // Row store is kept for concurrent readers which have seen null values
+            newValues = rowStore.getRowValues(storeIndex);
+        } else {
+            newValues = values.clone();
+        }
+        newValues[index] = value;
+        values = newValues;
+    }
+
+    /**
+     * Moves row values to the store. Store must contain the expected values.
+     *
+     * @return false if row values were changed after expected values were read, then row keeps its values
+     */
+    synchronized boolean moveToStore(@NotNull ResultSetRowStore rowStore, int storeIndex, @NotNull Object[] expectedValues) {
+        if (values != expectedValues) {
+            return false;
+        }
+        this.rowStore = rowStore;
+        this.storeIndex = storeIndex;
+        this.values = null;
+        return true;
+    }
+
+    synchronized void setValues(@NotNull Object[] values) {
+        this.values = values;
     }
 
     public boolean isChanged() {
@@ -126,9 +207,13 @@ public class ResultSetRow {
         }
     }
 
-    void release() {
-        for (Object value : values) {
-            DBUtils.releaseValue(value);
+    synchronized void release() {
+        if (values != null) {
+            for (Object value : values) {
+                DBUtils.releaseValue(value);
+            }
+        } else if (rowStore != null) {
+            rowStore.releaseRow(storeIndex);
         }
         if (changes != null) {
             for (Object oldValue : changes.values()) {
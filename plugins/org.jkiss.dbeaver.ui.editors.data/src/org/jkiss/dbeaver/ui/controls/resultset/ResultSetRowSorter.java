@@ -0,0 +1,412 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.model.DBUtils;
+import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
+import org.jkiss.dbeaver.model.data.DBDAttributeConstraint;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Client-side sorting of result set rows.
+ * <p>
+ * Sorter works on a snapshot of rows. Values of each key attribute are read once per row
+ * and normalized into a type specialized array (longs, doubles or comparable objects),
+ * then an int index permutation is sorted. Large sets are sorted in parallel.
+ * Model is not accessed during comparisons, so sorter may run in a background job (see {@link ResultSetJobSort}).
+ * Ordering is the same as {@link DBUtils#compareDataValues(Object, Object)}: nulls are last,
+ * rows with equal keys keep their original (row number) order.
+ */
+class ResultSetRowSorter {
+
+    // Smaller sets are sorted on the calling thread
+    static final int BACKGROUND_SORT_THRESHOLD = 20_000;
+    static final int PARALLEL_SORT_THRESHOLD = 100_000;
+    private static final int CANCEL_CHECK_INTERVAL = 1024;
+    // Ranges of permutation which are sorted by insertion sort
+    private static final int INSERTION_SORT_THRESHOLD = 7;
+    // Ranges of permutation which are sorted on a single thread in parallel sort
+    private static final int PARALLEL_SORT_GRANULARITY = 8192;
+
+    private final ResultSetModel model;
+    private final ResultSetRow[] rows;
+    private final DBDAttributeBinding[] orderAttributes;
+    private final boolean[] orderDescending;
+    private volatile boolean canceled;
+
+    ResultSetRowSorter(
+        @NotNull ResultSetModel model,
+        @NotNull List<ResultSetRow> rows,
+        @NotNull List<DBDAttributeConstraint> orderConstraints)
+    {
+        this.model = model;
+        this.rows = rows.toArray(new ResultSetRow[0]);
+        List<DBDAttributeBinding> attributes = new ArrayList<>();
+        List<Boolean> descending = new ArrayList<>();
+        for (DBDAttributeConstraint co : orderConstraints) {
+            DBDAttributeBinding binding = model.getAttributeBinding(co.getAttribute());
+            if (binding != null) {
+                attributes.add(binding);
+                descending.add(co.isOrderDescending());
+            }
+        }
+        this.orderAttributes = attributes.toArray(new DBDAttributeBinding[0]);
+        this.orderDescending = new boolean[descending.size()];
+        for (int i = 0; i < orderDescending.length; i++) {
+            orderDescending[i] = descending.get(i);
+        }
+    }
+
+    int getRowCount() {
+        return rows.length;
+    }
+
+    void cancel() {
+        canceled = true;
+    }
+
+    /**
+     * Checks that the specified rows are the same rows (in the same order) the sorter was created for
+     */
+    boolean isSnapshotOf(@NotNull List<ResultSetRow> modelRows) {
+        if (modelRows.size() != rows.length) {
+            return false;
+        }
+        for (int i = 0; i < rows.length; i++) {
+            if (modelRows.get(i) != rows[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns sorted rows or null if sorting was canceled.
+     * Without order attributes rows are restored in row number order.
+     */
+    @Nullable
+    ResultSetRow[] sort(@NotNull DBRProgressMonitor monitor) {
+        monitor.beginTask("Sort rows", orderAttributes.length + 1);
+        try {
+            SortKey[] keys = new SortKey[orderAttributes.length];
+            for (int i = 0; i < keys.length; i++) {
+                monitor.subTask("Read values of " + orderAttributes[i].getName());
+                Object[] values = readValues(monitor, orderAttributes[i]);
+                if (values == null) {
+                    return null;
+                }
+                keys[i] = createKey(values);
+                monitor.worked(1);
+            }
+            int[] rowNumbers = new int[rows.length];
+            int[] order = new int[rows.length];
+            for (int i = 0; i < rows.length; i++) {
+                rowNumbers[i] = rows[i].getRowNumber();
+                order[i] = i;
+            }
+            RowComparator comparator = (row1, row2) -> {
+                if (canceled) {
+                    throw new CancellationException();
+                }
+                for (int i = 0; i < keys.length; i++) {
+                    int result = keys[i].compare(row1, row2);
+                    if (result != 0) {
+                        return orderDescending[i] ? -result : result;
+                    }
+                }
+                return Integer.compare(rowNumbers[row1], rowNumbers[row2]);
+            };
+            monitor.subTask("Sort " + rows.length + " rows");
+            try {
+                sortRows(order, comparator, rows.length >= PARALLEL_SORT_THRESHOLD);
+            } catch (CancellationException e) {
+                return null;
+            }
+            monitor.worked(1);
+            ResultSetRow[] result = new ResultSetRow[rows.length];
+            for (int i = 0; i < order.length; i++) {
+                result[i] = rows[order[i]];
+            }
+            return result;
+        } finally {
+            monitor.done();
+        }
+    }
+
+    /**
+     * Reads attribute values of all rows. Null values (including null DBDValue) are normalized to null.
+     * Rows are read sequentially, so spilled rows are loaded page by page.
+     */
+    @Nullable
+    private Object[] readValues(@NotNull DBRProgressMonitor monitor, @NotNull DBDAttributeBinding attribute) {
+        Object[] values = new Object[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            if (i % CANCEL_CHECK_INTERVAL == 0 && (canceled || monitor.isCanceled())) {
+                return null;
+            }
+            Object value = model.getCellValue(attribute, rows[i]);
+            values[i] = DBUtils.isNullValue(value) ? null : value;
+        }
+        return values;
+    }
+
+    @NotNull
+    private static SortKey createKey(@NotNull Object[] values) {
+        Class<?> valueClass = null;
+        boolean sameClass = true;
+        boolean integral = true;
+        boolean numeric = true;
+        for (Object value : values) {
+            if (value == null) {
+                continue;
+            }
+            if (valueClass == null) {
+                valueClass = value.getClass();
+            } else if (valueClass != value.getClass()) {
+                sameClass = false;
+            }
+            if (!(value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte)) {
+                integral = false;
+            }
+            if (!(value instanceof Number)) {
+                numeric = false;
+            }
+        }
+        if (valueClass == null) {
+            return NullKey.INSTANCE;
+        } else if (integral) {
+            return new LongKey(values);
+        } else if (numeric && (!sameClass || valueClass == Double.class || valueClass == Float.class)) {
+            return new DoubleKey(values);
+        } else if (sameClass && Comparable.class.isAssignableFrom(valueClass)) {
+            return new ComparableKey(values);
+        } else {
+            return new ObjectKey(values);
+        }
+    }
+
+    /**
+     * Sorts row index permutation with merge sort. Comparator may throw {@link CancellationException}.
+     */
+    private static void sortRows(@NotNull int[] order, @NotNull RowComparator comparator, boolean parallel) {
+        int[] buffer = order.clone();
+        if (parallel) {
+            ForkJoinPool.commonPool().invoke(new MergeSortTask(buffer, order, 0, order.length, comparator));
+        } else {
+            mergeSort(buffer, order, 0, order.length, comparator);
+        }
+    }
+
+    /**
+     * Sorts range of src into dst. Both arrays must contain the same values in the range.
+     */
+    private static void mergeSort(@NotNull int[] src, @NotNull int[] dst, int from, int to, @NotNull RowComparator comparator) {
+        if (to - from < INSERTION_SORT_THRESHOLD) {
+            insertionSort(dst, from, to, comparator);
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(dst, src, from, mid, comparator);
+        mergeSort(dst, src, mid, to, comparator);
+        merge(src, dst, from, mid, to, comparator);
+    }
+
+    private static void insertionSort(@NotNull int[] order, int from, int to, @NotNull RowComparator comparator) {
+        for (int i = from + 1; i < to; i++) {
+            int row = order[i];
+            int j = i;
+            for (; j > from && comparator.compare(order[j - 1], row) > 0; j--) {
+                order[j] = order[j - 1];
+            }
+            order[j] = row;
+        }
+    }
+
+    /**
+     * Merges sorted ranges [from, mid) and [mid, to) of src into dst
+     */
+    private static void merge(@NotNull int[] src, @NotNull int[] dst, int from, int mid, int to, @NotNull RowComparator comparator) {
+        if (comparator.compare(src[mid - 1], src[mid]) <= 0) {
+            System.arraycopy(src, from, dst, from, to - from);
+            return;
+        }
+        for (int i = from, p = from, q = mid; i < to; i++) {
+            if (q >= to || (p < mid && comparator.compare(src[p], src[q]) <= 0)) {
+                dst[i] = src[p++];
+            } else {
+                dst[i] = src[q++];
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowComparator {
+        int compare(int row1, int row2);
+    }
+
+    private static class MergeSortTask extends RecursiveAction {
+        private final int[] src;
+        private final int[] dst;
+        private final int from;
+        private final int to;
+        private final RowComparator comparator;
+
+        MergeSortTask(@NotNull int[] src, @NotNull int[] dst, int from, int to, @NotNull RowComparator comparator) {
+            this.src = src;
+            this.dst = dst;
+            this.from = from;
+            this.to = to;
+            this.comparator = comparator;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_SORT_GRANULARITY) {
+                mergeSort(src, dst, from, to, comparator);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(
+                new MergeSortTask(dst, src, from, mid, comparator),
+                new MergeSortTask(dst, src, mid, to, comparator));
+            merge(src, dst, from, mid, to, comparator);
+        }
+    }
+
+    private abstract static class SortKey {
+        abstract int compare(int row1, int row2);
+    }
+
+    private static class NullKey extends SortKey {
+        static final NullKey INSTANCE = new NullKey();
+
+        @Override
+        int compare(int row1, int row2) {
+            return 0;
+        }
+    }
+
+    /**
+     * Primitive key. Nulls are marked in a bitmap and go after all values.
+     */
+    private abstract static class PrimitiveKey extends SortKey {
+        private final BitSet nulls = new BitSet();
+
+        PrimitiveKey(@NotNull Object[] values) {
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] == null) {
+                    nulls.set(i);
+                }
+            }
+        }
+
+        @Override
+        int compare(int row1, int row2) {
+            boolean null1 = nulls.get(row1), null2 = nulls.get(row2);
+            if (null1 || null2) {
+                return null1 == null2 ? 0 : (null1 ? 1 : -1);
+            }
+            return compareValues(row1, row2);
+        }
+
+        abstract int compareValues(int row1, int row2);
+    }
+
+    private static class LongKey extends PrimitiveKey {
+        private final long[] keys;
+
+        LongKey(@NotNull Object[] values) {
+            super(values);
+            keys = new long[values.length];
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null) {
+                    keys[i] = ((Number) values[i]).longValue();
+                }
+            }
+        }
+
+        @Override
+        int compareValues(int row1, int row2) {
+            return Long.compare(keys[row1], keys[row2]);
+        }
+    }
+
+    /**
+     * Mixed numbers are compared by double values, like {@link org.jkiss.utils.CommonUtils#compareNumbers(Number, Number)}
+     */
+    private static class DoubleKey extends PrimitiveKey {
+        private final double[] keys;
+
+        DoubleKey(@NotNull Object[] values) {
+            super(values);
+            keys = new double[values.length];
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null) {
+                    keys[i] = ((Number) values[i]).doubleValue();
+                }
+            }
+        }
+
+        @Override
+        int compareValues(int row1, int row2) {
+            double key1 = keys[row1], key2 = keys[row2];
+            return key1 < key2 ? -1 : (key1 > key2 ? 1 : 0);
+        }
+    }
+
+    /**
+     * Values of the same comparable class (strings, decimals, dates)
+     */
+    private static class ComparableKey extends SortKey {
+        private final Object[] keys;
+
+        ComparableKey(@NotNull Object[] values) {
+            keys = values;
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        @Override
+        int compare(int row1, int row2) {
+            Object key1 = keys[row1], key2 = keys[row2];
+            if (key1 == null || key2 == null) {
+                return key1 == key2 ? 0 : (key1 == null ? 1 : -1);
+            }
+            return ((Comparable) key1).compareTo(key2);
+        }
+    }
+
+    private static class ObjectKey extends SortKey {
+        private final Object[] keys;
+
+        ObjectKey(@NotNull Object[] values) {
+            keys = values;
+        }
+
+        @Override
+        int compare(int row1, int row2) {
+            return DBUtils.compareDataValues(keys[row1], keys[row2]);
+        }
+    }
+
+}
@@ -0,0 +1,435 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.impl.data.DBDValueError;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result set rows spilled to a temporary file.
+ * <p>
+ * Rows are written sequentially in a compact binary format. Each {@link #PAGE_SIZE} rows form a page,
+ * only file offsets of pages are kept in memory. Pages are read on demand and kept in a small LRU cache,
+ * so heap usage doesn't depend on the number of spilled rows.
+ * <p>
+ * Only rows with simple values (numbers, strings, dates, binaries) can be spilled, see {@link #canSpill(Object[])}.
+ * Mutable values (dates, binaries) are copied on each read, so changes of read values do not affect cached pages.
+ * <p>
+ * Rows are spilled while they are fetched, in batches (see {@link ResultSetDataReceiver}).
+ * Only the first batch of the first fetch is kept in heap until the fetch ends.
+ * <p>
+ * File is deleted on close. Background readers may keep it open after close, see {@link #acquire()}.
+ */
+class ResultSetSpillFile implements ResultSetRowStore {
+
+    private static final Log log = Log.getLog(ResultSetSpillFile.class);
+
+    private static final int PAGE_SIZE = 256;
+    private static final int WRITE_BUFFER_SIZE = 1024 * 1024;
+
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_LONG = 1;
+    private static final byte TYPE_INTEGER = 2;
+    private static final byte TYPE_SHORT = 3;
+    private static final byte TYPE_BYTE = 4;
+    private static final byte TYPE_DOUBLE = 5;
+    private static final byte TYPE_FLOAT = 6;
+    private static final byte TYPE_TRUE = 7;
+    private static final byte TYPE_FALSE = 8;
+    private static final byte TYPE_STRING = 9;
+    private static final byte TYPE_DECIMAL = 10;
+    private static final byte TYPE_BIG_INTEGER = 11;
+    private static final byte TYPE_TIMESTAMP = 12;
+    private static final byte TYPE_SQL_DATE = 13;
+    private static final byte TYPE_SQL_TIME = 14;
+    private static final byte TYPE_DATE = 15;
+    private static final byte TYPE_BINARY = 16;
+
+    private final FileChannel channel;
+    private final int columnCount;
+    private final Map<Integer, Object[][]> pageCache;
+    // Offsets of pages in the file
+    private long[] pageOffsets = new long[64];
+    private int pageCount;
+    private int rowCount;
+    private long fileSize;
+    private boolean readFailed;
+    // Number of background readers which keep the file open
+    private int readerCount;
+    private boolean closed;
+
+    ResultSetSpillFile(@NotNull Path folder, int columnCount, int cachedPages) throws IOException {
+        Path file = Files.createTempFile(folder, "resultset", ".spill");
+        this.channel = FileChannel.open(
+            file,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.DELETE_ON_CLOSE);
+        this.columnCount = columnCount;
+        this.pageCache = new LinkedHashMap<>(cachedPages, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Object[][]> eldest) {
+                return size() > cachedPages;
+            }
+        };
+    }
+
+    /**
+     * Checks that all row values can be written in the file
+     */
+    boolean canSpill(@NotNull Object[] row) {
+        if (row.length != columnCount) {
+            return false;
+        }
+        for (Object value : row) {
+            if (value != null && !isSpillable(value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    synchronized int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Appends rows to the end of file.
+     *
+     * @return index of the first appended row
+     */
+    synchronized int appendRows(@NotNull List<Object[]> rows) throws IOException {
+        int firstRow = rowCount;
+        int oldPageCount = pageCount;
+        long oldFileSize = fileSize;
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(WRITE_BUFFER_SIZE);
+            DataOutputStream out = new DataOutputStream(buffer);
+            for (Object[] row : rows) {
+                if (rowCount % PAGE_SIZE == 0) {
+                    addPageOffset(fileSize + buffer.size());
+                }
+                for (Object value : row) {
+                    writeValue(out, value);
+                }
+                rowCount++;
+                if (buffer.size() >= WRITE_BUFFER_SIZE) {
+                    flushBuffer(buffer);
+                }
+            }
+            flushBuffer(buffer);
+        } catch (IOException e) {
+            rowCount = firstRow;
+            pageCount = oldPageCount;
+            fileSize = oldFileSize;
+            throw e;
+        }
+        // The last page could be cached before it was complete
+        pageCache.remove(firstRow / PAGE_SIZE);
+        return firstRow;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    @Nullable
+    @Override
+    public synchronized Object getValue(int row, int column) {
+        try {
+            return copyValue(getPage(row / PAGE_SIZE)[row % PAGE_SIZE][column]);
+        } catch (IOException e) {
+            return handleReadError(e);
+        }
+    }
+
+    @NotNull
+    @Override
+    public synchronized Object[] getRowValues(int row) {
+        try {
+            Object[] values = getPage(row / PAGE_SIZE)[row % PAGE_SIZE].clone();
+            for (int i = 0; i < values.length; i++) {
+                values[i] = copyValue(values[i]);
+            }
+            return values;
+        } catch (IOException e) {
+            Object[] values = new Object[columnCount];
+            Arrays.fill(values, handleReadError(e));
+            return values;
+        }
+    }
+
+    @Override
+    public void releaseRow(int row) {
+        // Spilled values do not hold any resources
+    }
+
+    /**
+     * Keeps the file open until the reader calls {@link #release()}, even if the file is closed meanwhile.
+     * Returns false if the file is already closed.
+     */
+    synchronized boolean acquire() {
+        if (closed) {
+            return false;
+        }
+        readerCount++;
+        return true;
+    }
+
+    synchronized void release() {
+        readerCount--;
+        if (closed && readerCount == 0) {
+            closeChannel();
+        }
+    }
+
+    /**
+     * Closes the file. The file remains readable until all readers release it.
+     */
+    synchronized void close() {
+        closed = true;
+        if (readerCount == 0) {
+            closeChannel();
+        }
+    }
+
+    private void closeChannel() {
+        pageCache.clear();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.debug("Error closing result set spill file", e);
+        }
+    }
+
+    @Nullable
+    private static Object copyValue(@Nullable Object value) {
+        if (value instanceof java.util.Date) {
+            // Timestamp nanos are copied too
+            return ((java.util.Date) value).clone();
+        } else if (value instanceof byte[]) {
+            return ((byte[]) value).clone();
+        }
+        return value;
+    }
+
+    @NotNull
+    private Object handleReadError(@NotNull IOException error) {
+        if (!readFailed) {
+            // Do not flood log with errors of each cell
+            log.error("Error reading result set spill file", error);
+            readFailed = true;
+        }
+        return new DBDValueError(error);
+    }
+
+    private void addPageOffset(long offset) {
+        if (pageCount == pageOffsets.length) {
+            pageOffsets = Arrays.copyOf(pageOffsets, pageOffsets.length * 2);
+        }
+        pageOffsets[pageCount++] = offset;
+    }
+
+    private void flushBuffer(@NotNull ByteArrayOutputStream buffer) throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+        while (bytes.hasRemaining()) {
+            fileSize += channel.write(bytes, fileSize);
+        }
+        buffer.reset();
+    }
+
+    @NotNull
+    private Object[][] getPage(int pageIndex) throws IOException {
+        Object[][] page = pageCache.get(pageIndex);
+        if (page == null) {
+            page = readPage(pageIndex);
+            pageCache.put(pageIndex, page);
+        }
+        return page;
+    }
+
+    @NotNull
+    private Object[][] readPage(int pageIndex) throws IOException {
+        if (pageIndex >= pageCount) {
+            throw new IOException("Page " + pageIndex + " is out of spill file bounds (" + pageCount + ")");
+        }
+        long startOffset = pageOffsets[pageIndex];
+        long endOffset = pageIndex + 1 < pageCount ? pageOffsets[pageIndex + 1] : fileSize;
+        if (endOffset - startOffset > Integer.MAX_VALUE) {
+            throw new IOException("Spill file page is too big: " + (endOffset - startOffset));
+        }
+        ByteBuffer bytes = ByteBuffer.allocate((int) (endOffset - startOffset));
+        while (bytes.hasRemaining()) {
+            if (channel.read(bytes, startOffset + bytes.position()) < 0) {
+                throw new EOFException("Unexpected end of spill file");
+            }
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.array()));
+        Object[][] page = new Object[Math.min(PAGE_SIZE, rowCount - pageIndex * PAGE_SIZE)][];
+        for (int i = 0; i < page.length; i++) {
+            Object[] row = new Object[columnCount];
+            for (int k = 0; k < columnCount; k++) {
+                row[k] = readValue(in);
+            }
+            page[i] = row;
+        }
+        return page;
+    }
+
+    private static boolean isSpillable(@NotNull Object value) {
+        Class<?> valueClass = value.getClass();
+        return valueClass == Long.class || valueClass == Integer.class || valueClass == Short.class ||
+            valueClass == Byte.class || valueClass == Double.class || valueClass == Float.class ||
+            valueClass == Boolean.class || valueClass == String.class || valueClass == BigDecimal.class ||
+            valueClass == BigInteger.class || valueClass == Timestamp.class || valueClass == java.sql.Date.class ||
+            valueClass == Time.class || valueClass == java.util.Date.class || valueClass == byte[].class;
+    }
+
+    private static void writeValue(@NotNull DataOutputStream out, @Nullable Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(TYPE_NULL);
+        } else if (value instanceof Long) {
+            out.writeByte(TYPE_LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(TYPE_INTEGER);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Short) {
+            out.writeByte(TYPE_SHORT);
+            out.writeShort((Short) value);
+        } else if (value instanceof Byte) {
+            out.writeByte(TYPE_BYTE);
+            out.writeByte((Byte) value);
+        } else if (value instanceof Double) {
+            out.writeByte(TYPE_DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            out.writeByte(TYPE_FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte((Boolean) value ? TYPE_TRUE : TYPE_FALSE);
+        } else if (value instanceof String) {
+            out.writeByte(TYPE_STRING);
+            writeBytes(out, ((String) value).getBytes(StandardCharsets.UTF_8));
+        } else if (value instanceof BigDecimal) {
+            out.writeByte(TYPE_DECIMAL);
+            out.writeInt(((BigDecimal) value).scale());
+            writeBytes(out, ((BigDecimal) value).unscaledValue().toByteArray());
+        } else if (value instanceof BigInteger) {
+            out.writeByte(TYPE_BIG_INTEGER);
+            writeBytes(out, ((BigInteger) value).toByteArray());
+        } else if (value instanceof Timestamp) {
+            out.writeByte(TYPE_TIMESTAMP);
+            out.writeLong(((Timestamp) value).getTime());
+            out.writeInt(((Timestamp) value).getNanos());
+        } else if (value instanceof java.sql.Date) {
+            out.writeByte(TYPE_SQL_DATE);
+            out.writeLong(((java.sql.Date) value).getTime());
+        } else if (value instanceof Time) {
+            out.writeByte(TYPE_SQL_TIME);
+            out.writeLong(((Time) value).getTime());
+        } else if (value instanceof java.util.Date) {
+            out.writeByte(TYPE_DATE);
+            out.writeLong(((java.util.Date) value).getTime());
+        } else if (value instanceof byte[]) {
+            out.writeByte(TYPE_BINARY);
+            writeBytes(out, (byte[]) value);
+        } else {
+            throw new IOException("Value of type " + value.getClass().getName() + " can't be spilled");
+        }
+    }
+
+    private static void writeBytes(@NotNull DataOutputStream out, @NotNull byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    @Nullable
+    private static Object readValue(@NotNull DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case TYPE_NULL:
+                return null;
+            case TYPE_LONG:
+                return in.readLong();
+            case TYPE_INTEGER:
+                return in.readInt();
+            case TYPE_SHORT:
+                return in.readShort();
+            case TYPE_BYTE:
+                return in.readByte();
+            case TYPE_DOUBLE:
+                return in.readDouble();
+            case TYPE_FLOAT:
+                return in.readFloat();
+            case TYPE_TRUE:
+                return Boolean.TRUE;
+            case TYPE_FALSE:
+                return Boolean.FALSE;
+            case TYPE_STRING:
+                return new String(readBytes(in), StandardCharsets.UTF_8);
+            case TYPE_DECIMAL: {
+                int scale = in.readInt();
+                return new BigDecimal(new BigInteger(readBytes(in)), scale);
+            }
+            case TYPE_BIG_INTEGER:
+                return new BigInteger(readBytes(in));
+            case TYPE_TIMESTAMP: {
+                Timestamp timestamp = new Timestamp(in.readLong());
+                timestamp.setNanos(in.readInt());
+                return timestamp;
+            }
+            case TYPE_SQL_DATE:
+                return new java.sql.Date(in.readLong());
+            case TYPE_SQL_TIME:
+                return new Time(in.readLong());
+            case TYPE_DATE:
+                return new java.util.Date(in.readLong());
+            case TYPE_BINARY:
+                return readBytes(in);
+            default:
+                throw new IOException("Bad spilled value type: " + type);
+        }
+    }
+
+    @NotNull
+    private static byte[] readBytes(@NotNull DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+}
@@ -236,6 +236,8 @@ public class ResultSetViewer extends Viewer
     // Theme listener
     private IPropertyChangeListener themeChangeListener;
     private final AbstractJob themeUpdateJob;
+    @Nullable
+    private ResultSetJobSort sortJob;
     private long lastThemeUpdateTime;
 
     private volatile boolean nextSegmentReadingBlocked;
@@ -1957,6 +1959,10 @@ public class ResultSetViewer extends Viewer
         if (!themeUpdateJob.isCanceled()) {
             themeUpdateJob.cancel();
         }
+        if (sortJob != null) {
+            sortJob.cancel();
+            sortJob = null;
+        }
         if (themeChangeListener != null) {
             PlatformUI.getWorkbench().getThemeManager().removePropertyChangeListener(themeChangeListener);
             themeChangeListener = null;
@@ -2358,9 +2364,35 @@ public class ResultSetViewer extends Viewer
     private void reorderLocally()
     {
         this.rejectChanges();
-        this.getModel().resetOrdering();
-        this.getActivePresentation().refreshData(false, false, true);
-        this.updateFiltersText();
+        if (sortJob != null) {
+            sortJob.cancel();
+            sortJob = null;
+        }
+        ResultSetRowSorter sorter = model.createRowSorter();
+        if (sorter.getRowCount() < ResultSetRowSorter.BACKGROUND_SORT_THRESHOLD) {
+            ResultSetRow[] rows = sorter.sort(new VoidProgressMonitor());
+            if (rows != null) {
+                this.getModel().applyRowOrder(rows);
+            }
+            this.getActivePresentation().refreshData(false, false, true);
+            this.updateFiltersText();
+            return;
+        }
+        // Sort in background. Rows order is swapped only if rows were not changed meanwhile
+        sortJob = new ResultSetJobSort(sorter, model.lockStorage(), rows -> {
+            if (sortJob == null || sortJob.getSorter() != sorter) {
+                // Superseded by another sort
+                return;
+            }
+            sortJob = null;
+            if (getControl().isDisposed() || !sorter.isSnapshotOf(model.getAllRows())) {
+                return;
+            }
+            model.applyRowOrder(rows);
+            getActivePresentation().refreshData(false, false, true);
+            updateFiltersText();
+        });
+        sortJob.schedule();
     }
 
 
@@ -2378,13 +2410,14 @@ public class ResultSetViewer extends Viewer
         activePresentation.clearMetaData();
     }
 
-    void setData(List<Object[]> rows, int focusRow)
+    void setData(ResultSetModel.RowStorage storage, List<ResultSetRow> rows, int focusRow)
     {
         if (viewerPanel.isDisposed()) {
+            model.discardStorage(storage);
             return;
         }
         this.curRow = null;
-        this.model.setData(rows);
+        this.model.setData(storage, rows);
         this.curRow = (this.model.getRowCount() > 0 ? this.model.getRow(0) : null);
         if (focusRow > 0 && focusRow < model.getRowCount()) {
             this.curRow = model.getRow(focusRow);
@@ -2423,12 +2456,20 @@ public class ResultSetViewer extends Viewer
 
     void appendData(List<Object[]> rows, boolean resetOldRows) {
         model.appendData(rows, resetOldRows);
+        updateAppendStatus(rows.size());
+    }
+
+    void appendRows(List<ResultSetRow> rows) {
+        model.appendRows(rows);
+        updateAppendStatus(rows.size());
+    }
 
+    private void updateAppendStatus(int appendedRowCount) {
         UIUtils.asyncExec(() -> {
             String message = NLS.bind(ResultSetMessages.controls_resultset_viewer_status_rows_size, model.getRowCount(),
-                rows.size()) + getExecutionTimeMessage(false);
+                appendedRowCount) + getExecutionTimeMessage(false);
             String tooltip = NLS.bind(ResultSetMessages.controls_resultset_viewer_status_rows_size, model.getRowCount(),
-                rows.size()) + getExecutionTimeMessage(true);
+                appendedRowCount) + getExecutionTimeMessage(true);
             setStatus(message, DBPMessageType.INFORMATION);
             setStatusTooltip(tooltip);
             updateEditControls();
@@ -4464,10 +4505,10 @@ public class ResultSetViewer extends Viewer
                         cells = new Object[1];
 
                         if (copyCurrent && srcRowIndex >= 0 && srcRowIndex < model.getRowCount()) {
-                            final Object[] origRow = model.getRowData(srcRowIndex);
+                            final ResultSetRow origRow = model.getRow(srcRowIndex);
 
                             try {
-                                cells[0] = docAttribute.getValueHandler().getValueFromObject(session, docAttribute, origRow[0], true, false);
+                                cells[0] = docAttribute.getValueHandler().getValueFromObject(session, docAttribute, origRow.getValue(0), true, false);
                             } catch (DBCException e) {
                                 log.warn(e);
                             }
@@ -4483,7 +4524,7 @@ public class ResultSetViewer extends Viewer
                         cells = new Object[attributes.length];
 
                         if (copyCurrent && srcRowIndex >= 0 && srcRowIndex < model.getRowCount()) {
-                            final Object[] origRow = model.getRowData(srcRowIndex);
+                            final ResultSetRow origRow = model.getRow(srcRowIndex);
 
                             for (int index = 0; index < attributes.length; index++) {
                                 final DBDAttributeBinding metaAttr = attributes[index];
@@ -4492,7 +4533,7 @@ public class ResultSetViewer extends Viewer
                                 if (!metaAttr.isPseudoAttribute() && !metaAttr.isAutoGenerated()) {
                                     final DBSAttributeBase attribute = metaAttr.getAttribute();
                                     try {
-                                        cells[index] = metaAttr.getValueHandler().getValueFromObject(session, attribute, origRow[index], true, false);
+                                        cells[index] = metaAttr.getValueHandler().getValueFromObject(session, attribute, origRow.getValue(index), true, false);
                                     } catch (DBCException e) {
                                         log.warn(e);
                                     }
@@ -34,7 +34,6 @@ import org.jkiss.dbeaver.model.struct.DBSAttributeBase;
 import org.jkiss.dbeaver.model.struct.DBSEntity;
 import org.jkiss.dbeaver.ui.controls.resultset.IResultSetController;
 import org.jkiss.dbeaver.ui.controls.resultset.ResultSetRow;
-import org.jkiss.utils.ArrayUtils;
 
 import java.util.Collection;
 import java.util.Collections;
@@ -62,9 +61,8 @@ public abstract class SQLGeneratorResultSet extends SQLGeneratorBase<IResultSetC
     }
 
     void appendKeyConditions(@NotNull StringBuilder sql, Collection<DBDAttributeBinding> keyAttributes, ResultSetRow firstRow) {
-        Object[] values = firstRow.getValues();
-        if (!ArrayUtils.isEmpty(values)) {
-            Object firstCellValue = values[0];
+        if (firstRow.getValueCount() > 0) {
+            Object firstCellValue = firstRow.getValue(0);
             if (firstCellValue instanceof DBDDocument) {
                 DBDDocument document = (DBDDocument) firstCellValue;
                 Object idName = document.getDocumentProperty(DBDDocument.PROP_ID_ATTRIBUTE_NAME);
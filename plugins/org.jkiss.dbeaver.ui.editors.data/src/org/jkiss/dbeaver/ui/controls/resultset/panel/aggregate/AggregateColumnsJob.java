@@ -0,0 +1,274 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset.panel.aggregate;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
+import org.jkiss.dbeaver.model.data.aggregate.IAggregateFunction;
+import org.jkiss.dbeaver.model.runtime.AbstractJob;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.registry.functions.AggregateFunctionDescriptor;
+import org.jkiss.dbeaver.ui.UIUtils;
+import org.jkiss.dbeaver.ui.controls.resultset.ResultSetCellLocation;
+import org.jkiss.dbeaver.ui.controls.resultset.ResultSetModel;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Aggregates selected cells in background.
+ * <p>
+ * Selected cells are iterated in the job and split into chunks. Mergeable functions accumulate each chunk in a separate instance (chunks are processed in parallel),
+ * then partial states are merged in the chunk order. Other functions accumulate all values in a single instance.
+ * Intermediate results are published periodically, so large selections are displayed progressively.
+ */
+class AggregateColumnsJob extends AbstractJob {
+
+    private static final Log log = Log.getLog(AggregateColumnsJob.class);
+
+    // Smaller selections are aggregated in the UI thread
+    static final int CHUNK_SIZE = 50_000;
+    private static final long PUBLISH_INTERVAL_MS = 300;
+
+    interface ResultListener {
+        /**
+         * Called in the UI thread. Results are indexed by group and function, null if function has no result.
+         */
+        void onResults(@NotNull AggregateColumnsJob job, @NotNull Object[][] results, boolean finished);
+    }
+
+    private final ResultSetModel model;
+    private final Collection<ResultSetCellLocation> cells;
+    private final int cellCount;
+    @Nullable
+    private final Map<DBDAttributeBinding, Integer> groups;
+    private final int groupCount;
+    private final AggregateFunctionDescriptor[] functions;
+    private final boolean aggregateAsStrings;
+    private final ResultListener listener;
+
+    // Function kinds: true for mergeable, false for other functions, null if function can't be created
+    private Boolean[] mergeableFunctions;
+    // Instances of non-mergeable functions, shared by all chunks
+    private GroupState[] sharedStates;
+
+    /**
+     * @param cells  selected cells, iterated by the job
+     * @param groups group index of each attribute, or null if all cells are aggregated together.
+     *               Cells of attributes missing in groups are skipped.
+     */
+    AggregateColumnsJob(
+        @NotNull ResultSetModel model,
+        @NotNull Collection<ResultSetCellLocation> cells,
+        int cellCount,
+        @Nullable Map<DBDAttributeBinding, Integer> groups,
+        int groupCount,
+        @NotNull List<AggregateFunctionDescriptor> functions,
+        boolean aggregateAsStrings,
+        @NotNull ResultListener listener)
+    {
+        super("Aggregate " + cellCount + " values");
+        this.model = model;
+        this.cells = cells;
+        this.cellCount = cellCount;
+        this.groups = groups;
+        this.groupCount = groupCount;
+        this.functions = functions.toArray(new AggregateFunctionDescriptor[0]);
+        this.aggregateAsStrings = aggregateAsStrings;
+        this.listener = listener;
+        setUser(false);
+    }
+
+    @Override
+    protected IStatus run(DBRProgressMonitor monitor) {
+        Object[][] results = aggregate(monitor);
+        if (results == null) {
+            return Status.CANCEL_STATUS;
+        }
+        UIUtils.asyncExec(() -> listener.onResults(this, results, true));
+        return Status.OK_STATUS;
+    }
+
+    /**
+     * Aggregates all cells. Returns final results or null if canceled.
+     */
+    @Nullable
+    Object[][] aggregate(@NotNull DBRProgressMonitor monitor) {
+        int chunkCount = (cellCount + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        int parallelism = Math.max(1, Runtime.getRuntime().availableProcessors());
+        monitor.beginTask("Aggregate values", chunkCount);
+        try {
+            mergeableFunctions = new Boolean[functions.length];
+            for (int i = 0; i < functions.length; i++) {
+                try {
+                    mergeableFunctions[i] = functions[i].createFunction().isMergeable();
+                } catch (DBException e) {
+                    log.error(e);
+                }
+            }
+            sharedStates = new GroupState[groupCount];
+            GroupState[] total = new GroupState[groupCount];
+            for (int i = 0; i < groupCount; i++) {
+                sharedStates[i] = new GroupState(false);
+                total[i] = new GroupState(true);
+            }
+            Iterator<ResultSetCellLocation> cellIterator = cells.iterator();
+            long lastPublishTime = System.currentTimeMillis();
+            while (cellIterator.hasNext()) {
+                if (monitor.isCanceled()) {
+                    return null;
+                }
+                List<ResultSetCellLocation[]> chunks = new ArrayList<>(parallelism);
+                while (chunks.size() < parallelism && cellIterator.hasNext()) {
+                    chunks.add(readChunk(cellIterator));
+                }
+                List<GroupState[]> partialStates = chunks.parallelStream()
+                    .map(this::aggregateChunk)
+                    .collect(Collectors.toList());
+                for (GroupState[] states : partialStates) {
+                    for (int i = 0; i < groupCount; i++) {
+                        if (states[i] != null) {
+                            total[i].merge(states[i]);
+                        }
+                    }
+                }
+                monitor.worked(chunks.size());
+                if (cellIterator.hasNext() && System.currentTimeMillis() - lastPublishTime >= PUBLISH_INTERVAL_MS) {
+                    Object[][] results = getResults(total);
+                    UIUtils.asyncExec(() -> listener.onResults(this, results, false));
+                    lastPublishTime = System.currentTimeMillis();
+                }
+            }
+            return getResults(total);
+        } finally {
+            monitor.done();
+        }
+    }
+
+    @NotNull
+    private static ResultSetCellLocation[] readChunk(@NotNull Iterator<ResultSetCellLocation> cellIterator) {
+        ResultSetCellLocation[] chunk = new ResultSetCellLocation[CHUNK_SIZE];
+        int size = 0;
+        while (size < CHUNK_SIZE && cellIterator.hasNext()) {
+            chunk[size++] = cellIterator.next();
+        }
+        return size == CHUNK_SIZE ? chunk : Arrays.copyOf(chunk, size);
+    }
+
+    @NotNull
+    private GroupState[] aggregateChunk(@NotNull ResultSetCellLocation[] chunk) {
+        GroupState[] states = new GroupState[groupCount];
+        for (ResultSetCellLocation cell : chunk) {
+            int group = 0;
+            if (groups != null) {
+                Integer attributeGroup = groups.get(cell.getAttribute());
+                if (attributeGroup == null) {
+                    continue;
+                }
+                group = attributeGroup;
+            }
+            GroupState state = states[group];
+            if (state == null) {
+                state = states[group] = new GroupState(true);
+            }
+            Object value = model.getCellValue(cell.getAttribute(), cell.getRow());
+            state.accumulate(value);
+            if (!sharedStates[group].isEmpty()) {
+                sharedStates[group].accumulate(value);
+            }
+        }
+        return states;
+    }
+
+    @NotNull
+    private Object[][] getResults(@NotNull GroupState[] total) {
+        Object[][] results = new Object[groupCount][functions.length];
+        for (int i = 0; i < groupCount; i++) {
+            for (int k = 0; k < functions.length; k++) {
+                GroupState state = total[i].functions[k] != null ? total[i] : sharedStates[i];
+                IAggregateFunction function = state.functions[k];
+                if (function != null && state.counts[k] > 0) {
+                    results[i][k] = function.getResult(state.counts[k]);
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Functions of a group. Contains either only mergeable or only non-mergeable functions.
+     */
+    private class GroupState {
+        private final IAggregateFunction[] functions;
+        private final int[] counts;
+        private final boolean mergeable;
+        private boolean empty = true;
+
+        GroupState(boolean mergeable) {
+            this.mergeable = mergeable;
+            this.functions = new IAggregateFunction[mergeableFunctions.length];
+            this.counts = new int[functions.length];
+            for (int i = 0; i < functions.length; i++) {
+                if (mergeableFunctions[i] == null || mergeableFunctions[i] != mergeable) {
+                    continue;
+                }
+                try {
+                    functions[i] = AggregateColumnsJob.this.functions[i].createFunction();
+                    empty = false;
+                } catch (DBException e) {
+                    log.error(e);
+                }
+            }
+        }
+
+        boolean isEmpty() {
+            return empty;
+        }
+
+        void accumulate(@Nullable Object value) {
+            if (mergeable) {
+                accumulateValue(value);
+            } else {
+                synchronized (this) {
+                    accumulateValue(value);
+                }
+            }
+        }
+
+        private void accumulateValue(@Nullable Object value) {
+            for (int i = 0; i < functions.length; i++) {
+                if (functions[i] != null && functions[i].accumulate(value, aggregateAsStrings)) {
+                    counts[i]++;
+                }
+            }
+        }
+
+        void merge(@NotNull GroupState other) {
+            for (int i = 0; i < functions.length; i++) {
+                if (functions[i] != null && other.functions[i] != null) {
+                    functions[i].merge(other.functions[i]);
+                    counts[i] += other.counts[i];
+                }
+            }
+        }
+    }
+}
@@ -26,13 +26,14 @@ import org.eclipse.swt.events.SelectionAdapter;
 import org.eclipse.swt.events.SelectionEvent;
 import org.eclipse.swt.graphics.Point;
 import org.eclipse.swt.widgets.*;
-import org.jkiss.dbeaver.DBException;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.Log;
 import org.jkiss.dbeaver.model.DBIcon;
 import org.jkiss.dbeaver.model.DBPImage;
 import org.jkiss.dbeaver.model.DBValueFormatting;
 import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
-import org.jkiss.dbeaver.model.data.aggregate.IAggregateFunction;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
 import org.jkiss.dbeaver.registry.functions.AggregateFunctionDescriptor;
 import org.jkiss.dbeaver.registry.functions.FunctionsRegistry;
 import org.jkiss.dbeaver.ui.DBeaverIcons;
@@ -41,6 +42,7 @@ import org.jkiss.dbeaver.ui.UIIcon;
 import org.jkiss.dbeaver.ui.UIUtils;
 import org.jkiss.dbeaver.ui.controls.resultset.*;
 import org.jkiss.dbeaver.ui.controls.resultset.internal.ResultSetMessages;
+import org.jkiss.utils.CommonUtils;
 
 import java.math.BigDecimal;
 import java.text.DecimalFormat;
@@ -76,6 +78,11 @@ public class AggregateColumnsPanel implements IResultSetPanel {
     private final List<AggregateFunctionDescriptor> enabledFunctions = new ArrayList<>();
     private boolean featureTracked;
 
+    // Function result items of each group (attribute or the whole selection)
+    private TreeItem[][] resultItems = new TreeItem[0][];
+    @Nullable
+    private AggregateColumnsJob aggregateJob;
+
     public AggregateColumnsPanel() {
     }
 
@@ -110,7 +117,10 @@ public class AggregateColumnsPanel implements IResultSetPanel {
 
         menuMgr.setRemoveAllWhenShown(true);
         this.aggregateTable.setMenu(menuMgr.createContextMenu(this.aggregateTable));
-        this.aggregateTable.addDisposeListener(e -> menuMgr.dispose());
+        this.aggregateTable.addDisposeListener(e -> {
+            cancelAggregation();
+            menuMgr.dispose();
+        });
 
         aggregateTable.addSelectionListener(new SelectionAdapter() {
             @Override
@@ -188,7 +198,7 @@ public class AggregateColumnsPanel implements IResultSetPanel {
 
     @Override
     public void deactivatePanel() {
-
+        cancelAggregation();
     }
 
     @Override
@@ -198,6 +208,7 @@ public class AggregateColumnsPanel implements IResultSetPanel {
 
     @Override
     public void refresh(boolean force) {
+        cancelAggregation();
         aggregateTable.setRedraw(false);
         try {
             aggregateTable.removeAll();
@@ -229,39 +240,51 @@ public class AggregateColumnsPanel implements IResultSetPanel {
             featureTracked = true;
         }
         ResultSetModel model = presentation.getController().getModel();
+
+        // Cells are iterated, read and aggregated by the job (in background for large selections)
+        int cellCount = selection.size();
+        List<AggregateFunctionDescriptor> functions = new ArrayList<>(enabledFunctions);
+        Map<DBDAttributeBinding, Integer> groups = null;
         if (groupByColumns) {
-            Map<DBDAttributeBinding, List<Object>> attrValues = new LinkedHashMap<>();
-            for (Object element : selection.toList()) {
-                DBDAttributeBinding attr = selection.getElementAttribute(element);
-                ResultSetRow row = selection.getElementRow(element);
-                Object cellValue = model.getCellValue(attr, row);
-                List<Object> values = attrValues.computeIfAbsent(attr, k -> new ArrayList<>());
-                values.add(cellValue);
+            groups = new LinkedHashMap<>();
+            for (DBDAttributeBinding attribute : selection.getSelectedAttributes()) {
+                groups.putIfAbsent(attribute, groups.size());
             }
-
-            for (Map.Entry<DBDAttributeBinding, List<Object>> entry : attrValues.entrySet()) {
+            resultItems = new TreeItem[groups.size()][];
+            for (Map.Entry<DBDAttributeBinding, Integer> entry : groups.entrySet()) {
                 TreeItem attrItem = new TreeItem(aggregateTable, SWT.NONE);
                 attrItem.setText(entry.getKey().getName());
                 attrItem.setImage(DBeaverIcons.getImage(DBValueFormatting.getObjectImage(entry.getKey())));
-                aggregateValues(attrItem, entry.getValue());
+                resultItems[entry.getValue()] = createFunctionItems(attrItem, functions);
                 attrItem.setExpanded(true);
             }
         } else {
-            List<Object> allValues = new ArrayList<>(selection.size());
-            for (Object element : selection.toList()) {
-                DBDAttributeBinding attr = selection.getElementAttribute(element);
-                ResultSetRow row = selection.getElementRow(element);
-                Object cellValue = model.getCellValue(attr, row);
-                allValues.add(cellValue);
+            resultItems = new TreeItem[][] { createFunctionItems(null, functions) };
+        }
+        if (cellCount == 0) {
+            return;
+        }
+
+        AggregateColumnsJob job = new AggregateColumnsJob(
+            model, selection.getSelectedCells(), cellCount, groups, resultItems.length, functions, aggregateAsStrings,
+            this::showResults);
+        if (cellCount <= AggregateColumnsJob.CHUNK_SIZE) {
+            Object[][] results = job.aggregate(new VoidProgressMonitor());
+            if (results != null) {
+                aggregateJob = job;
+                showResults(job, results, true);
             }
-            aggregateValues(null, allValues);
+        } else {
+            aggregateJob = job;
+            job.schedule();
         }
     }
 
-    private void aggregateValues(TreeItem parentItem, Collection<Object> values) {
-        List<AggregateFunctionDescriptor> functions = enabledFunctions;
-        Map<IAggregateFunction, TreeItem> funcMap = new IdentityHashMap<>();
-        for (AggregateFunctionDescriptor funcDesc : functions) {
+    @NotNull
+    private TreeItem[] createFunctionItems(@Nullable TreeItem parentItem, @NotNull List<AggregateFunctionDescriptor> functions) {
+        TreeItem[] items = new TreeItem[functions.size()];
+        for (int i = 0; i < items.length; i++) {
+            AggregateFunctionDescriptor funcDesc = functions.get(i);
             TreeItem funcItem = (parentItem == null) ?
                 new TreeItem(aggregateTable, SWT.NONE) :
                 new TreeItem(parentItem, SWT.NONE);
@@ -271,48 +294,45 @@ public class AggregateColumnsPanel implements IResultSetPanel {
             if (icon != null) {
                 funcItem.setImage(0, DBeaverIcons.getImage(icon));
             }
-            try {
-                IAggregateFunction func = funcDesc.createFunction();
-                funcMap.put(func, funcItem);
-            } catch (DBException e) {
-                log.error(e);
-            }
+            items[i] = funcItem;
         }
+        return items;
+    }
 
-        IAggregateFunction[] funcs = funcMap.keySet().toArray(new IAggregateFunction[funcMap.size()]);
-        int[] funcCount = new int[funcs.length];
-        for (Object element : values) {
-            for (int i = 0; i < funcs.length; i++) {
-                if (funcs[i].accumulate(element, aggregateAsStrings)) {
-                    funcCount[i]++;
-                }
-            }
+    private void showResults(@NotNull AggregateColumnsJob job, @NotNull Object[][] results, boolean finished) {
+        if (job != aggregateJob || aggregateTable.isDisposed()) {
+            return;
         }
-        for (int i = 0; i < funcs.length; i++) {
-            if (funcCount[i] <= 0) {
-                continue;
-            }
-            IAggregateFunction func = funcs[i];
-            Object result = func.getResult(funcCount[i]);
-            if (result != null) {
-                TreeItem treeItem = funcMap.get(func);
-                String strValue;
+        for (int i = 0; i < results.length; i++) {
+            for (int k = 0; k < results[i].length; k++) {
+                Object result = results[i][k];
+                String strValue = null;
                 if (result instanceof Double || result instanceof Float || result instanceof BigDecimal) {
                     strValue = DOUBLE_FORMAT.format(result);
                 } else if (result instanceof Integer || result instanceof Long || result instanceof Short) {
                     strValue = INTEGER_FORMAT.format(result);
-                } else {
+                } else if (result != null) {
                     strValue = result.toString();
                 }
-                if (strValue != null) {
-                    treeItem.setText(1, strValue);
-                }
+                resultItems[i][k].setText(1, CommonUtils.notEmpty(strValue));
             }
         }
+        if (finished) {
+            aggregateJob = null;
+        }
+        UIUtils.packColumns(aggregateTable, false, null);
+    }
+
+    private void cancelAggregation() {
+        if (aggregateJob != null) {
+            aggregateJob.cancel();
+            aggregateJob = null;
+        }
     }
 
     public void clearValue()
     {
+        cancelAggregation();
         aggregateTable.removeAll();
     }
 
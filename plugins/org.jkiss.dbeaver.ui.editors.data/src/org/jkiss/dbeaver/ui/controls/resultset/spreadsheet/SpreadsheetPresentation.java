@@ -513,7 +513,7 @@ public class SpreadsheetPresentation extends AbstractPresentation
 
         if (copyHTML) html.append("<tbody>");
 
-        List<GridCell> selectedCells = spreadsheet.getCellSelection();
+        Collection<GridCell> selectedCells = spreadsheet.getCellSelection();
         boolean quoteCells = settings.isQuoteCells() && selectedCells.size() > 1;
         boolean forceQuotes = settings.isForceQuotes();
 
@@ -1819,7 +1819,8 @@ public class SpreadsheetPresentation extends AbstractPresentation
                     for (Integer row : spreadsheet.getRowSelection()) {
                         IGridRow gridRow = spreadsheet.getRow(row);
                         ResultSetRow rsr = (ResultSetRow) gridRow.getElement();
-                        if (!rows.contains(rsr)) {
+                        // Rows are iterated in order, so nested rows of the same row go one by one
+                        if (rows.isEmpty() || rows.get(rows.size() - 1) != rsr) {
                             rows.add(rsr);
                         }
                     }
@@ -1856,6 +1857,53 @@ public class SpreadsheetPresentation extends AbstractPresentation
             return getRowNestedIndexes(row);
         }
 
+        @NotNull
+        @Override
+        public Collection<ResultSetCellLocation> getSelectedCells() {
+            // Cell locations are resolved lazily, so huge selections aren't copied
+            Collection<GridCell> cells = spreadsheet.getCellSelection();
+            boolean recordMode = controller.isRecordMode();
+            ResultSetRow currentRow = controller.getCurrentRow();
+            return new AbstractCollection<>() {
+                @NotNull
+                @Override
+                public Iterator<ResultSetCellLocation> iterator() {
+                    Iterator<GridCell> cellIterator = cells.iterator();
+                    return new Iterator<>() {
+                        private ResultSetCellLocation nextLocation;
+
+                        @Override
+                        public boolean hasNext() {
+                            while (nextLocation == null && cellIterator.hasNext()) {
+                                GridCell cell = cellIterator.next();
+                                Object attribute = recordMode ? cell.row.getElement() : cell.col.getElement();
+                                Object row = recordMode ? currentRow : cell.row.getElement();
+                                if (attribute instanceof DBDAttributeBinding && row instanceof ResultSetRow) {
+                                    nextLocation = new ResultSetCellLocation((DBDAttributeBinding) attribute, (ResultSetRow) row);
+                                }
+                            }
+                            return nextLocation != null;
+                        }
+
+                        @Override
+                        public ResultSetCellLocation next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            ResultSetCellLocation location = nextLocation;
+                            nextLocation = null;
+                            return location;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return cells.size();
+                }
+            };
+        }
+
         @Override
         public int getSelectedColumnCount() {
             return spreadsheet.getColumnSelectionSize();
@@ -75,6 +75,7 @@ public class PrefPageResultSetMain extends TargetPrefPage
     private Button markCellValueOccurrences;
 
     private Button advUseFetchSize;
+    private Text spillThresholdText;
 
     private Button ignoreColumnLabelCheck;
     private Button useDateTimeEditor;
@@ -104,6 +105,7 @@ public class PrefPageResultSetMain extends TargetPrefPage
             store.contains(ResultSetPreferences.KEEP_STATEMENT_OPEN) ||
             store.contains(ResultSetPreferences.RESULT_SET_ORDERING_MODE) ||
             store.contains(ModelPreferences.RESULT_SET_USE_FETCH_SIZE) ||
+            store.contains(ResultSetPreferences.RESULT_SET_SPILL_THRESHOLD) ||
             store.contains(ResultSetPreferences.RESULT_SET_USE_NAVIGATOR_FILTERS) ||
             store.contains(ResultSetPreferences.RESULT_SET_CONFIRM_BEFORE_SAVE) ||
             store.contains(ResultSetPreferences.RESULT_SET_SHOW_ERRORS_IN_DIALOG) ||
@@ -175,6 +177,11 @@ public class PrefPageResultSetMain extends TargetPrefPage
 
             ignoreColumnLabelCheck = UIUtils.createCheckbox(advGroup, ResultSetMessages.pref_page_database_general_use_column_names, ResultSetMessages.pref_page_database_general_use_column_names_tip, false, 1);
             advUseFetchSize = UIUtils.createCheckbox(advGroup, ResultSetMessages.pref_page_database_resultsets_label_fetch_size, ResultSetMessages.pref_page_database_resultsets_label_fetch_size_tip, false, 1);
+
+            Composite spillComposite = UIUtils.createComposite(advGroup, 2);
+            spillThresholdText = UIUtils.createLabelText(spillComposite, ResultSetMessages.pref_page_database_resultsets_label_spill_threshold, "0", SWT.BORDER);
+            spillThresholdText.setToolTipText(ResultSetMessages.pref_page_database_resultsets_label_spill_threshold_tip);
+            spillThresholdText.addVerifyListener(UIUtils.getIntegerVerifyListener(Locale.getDefault()));
         }
 
 
@@ -286,6 +293,7 @@ public class PrefPageResultSetMain extends TargetPrefPage
             useNavigatorFilters.setSelection(store.getBoolean(ResultSetPreferences.RESULT_SET_USE_NAVIGATOR_FILTERS));
 
             advUseFetchSize.setSelection(store.getBoolean(ModelPreferences.RESULT_SET_USE_FETCH_SIZE));
+            spillThresholdText.setText(String.valueOf(store.getInt(ResultSetPreferences.RESULT_SET_SPILL_THRESHOLD)));
             ignoreColumnLabelCheck.setSelection(store.getBoolean(ModelPreferences.RESULT_SET_IGNORE_COLUMN_LABEL));
 
             if (confirmDataSave != null) {
@@ -324,6 +332,7 @@ public class PrefPageResultSetMain extends TargetPrefPage
             store.setValue(ResultSetPreferences.RESULT_SET_USE_NAVIGATOR_FILTERS, useNavigatorFilters.getSelection());
 
             store.setValue(ModelPreferences.RESULT_SET_USE_FETCH_SIZE, advUseFetchSize.getSelection());
+            store.setValue(ResultSetPreferences.RESULT_SET_SPILL_THRESHOLD, CommonUtils.toInt(spillThresholdText.getText()));
             store.setValue(ModelPreferences.RESULT_SET_IGNORE_COLUMN_LABEL, ignoreColumnLabelCheck.getSelection());
 
             if (confirmDataSave != null) {
@@ -359,6 +368,7 @@ public class PrefPageResultSetMain extends TargetPrefPage
         store.setToDefault(ResultSetPreferences.RESULT_SET_USE_NAVIGATOR_FILTERS);
 
         store.setToDefault(ModelPreferences.RESULT_SET_USE_FETCH_SIZE);
+        store.setToDefault(ResultSetPreferences.RESULT_SET_SPILL_THRESHOLD);
         store.setToDefault(ModelPreferences.RESULT_SET_IGNORE_COLUMN_LABEL);
 
         store.setToDefault(ResultSetPreferences.RESULT_SET_CONFIRM_BEFORE_SAVE);
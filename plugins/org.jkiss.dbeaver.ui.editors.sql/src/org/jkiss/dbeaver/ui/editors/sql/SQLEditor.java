@@ -416,6 +416,8 @@ public class SQLEditor extends SQLEditorBase implements
             dataSourceContainer.getPreferenceStore().addPropertyChangeListener(this);
             dataSourceContainer.getRegistry().addDataSourceListener(this);
         }
+        // Hippie completion may be configured per connection
+        updateHippieDocument();
         IEditorInput input = getEditorInput();
         if (input != null) {
             DBPDataSourceContainer savedContainer = EditorUtils.getInputDataSource(input);
@@ -65,6 +65,7 @@ import org.jkiss.dbeaver.model.preferences.DBPPreferenceStore;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.sql.*;
 import org.jkiss.dbeaver.model.sql.completion.SQLCompletionContext;
+import org.jkiss.dbeaver.model.sql.completion.hippie.HippieWordIndex;
 import org.jkiss.dbeaver.model.sql.parser.*;
 import org.jkiss.dbeaver.runtime.DBWorkbench;
 import org.jkiss.dbeaver.ui.*;
@@ -138,6 +139,8 @@ public abstract class SQLEditorBase extends BaseTextEditor implements DBPContext
     private SQLSymbolInserter sqlSymbolInserter;
 
     private int lastQueryErrorPosition = -1;
+    // Document registered in the hippie word index
+    private IDocument hippieDocument;
 
     public SQLEditorBase() {
         super();
@@ -501,6 +504,26 @@ public abstract class SQLEditorBase extends BaseTextEditor implements DBPContext
         }
 
         super.doSetInput(input);
+
+        updateHippieDocument();
+    }
+
+    /**
+     * Registers the editor document in the hippie word index while hippie completion is enabled.
+     * The previous document is closed in the index, it isn't edited anymore.
+     */
+    protected void updateHippieDocument() {
+        IDocument document = getActivePreferenceStore().getBoolean(SQLPreferenceConstants.ENABLE_HIPPIE) ? getDocument() : null;
+        if (document == hippieDocument) {
+            return;
+        }
+        if (hippieDocument != null) {
+            HippieWordIndex.getInstance().closeDocument(hippieDocument);
+        }
+        hippieDocument = document;
+        if (hippieDocument != null) {
+            HippieWordIndex.getInstance().openDocument(hippieDocument);
+        }
     }
 
     @Override
@@ -646,6 +669,11 @@ public abstract class SQLEditorBase extends BaseTextEditor implements DBPContext
             viewerConfiguration.saveFoldingState();
         }
 
+        if (hippieDocument != null) {
+            HippieWordIndex.getInstance().closeDocument(hippieDocument);
+            hippieDocument = null;
+        }
+
         super.dispose();
     }
 
@@ -1136,6 +1164,9 @@ public abstract class SQLEditorBase extends BaseTextEditor implements DBPContext
             case SQLPreferenceConstants.PROBLEM_MARKERS_ENABLED:
                 clearProblems(null);
                 return;
+            case SQLPreferenceConstants.ENABLE_HIPPIE:
+                updateHippieDocument();
+                return;
             case SQLPreferenceConstants.MARK_OCCURRENCES_UNDER_CURSOR:
             case SQLPreferenceConstants.MARK_OCCURRENCES_FOR_SELECTION:
                 occurrencesHighlighter.updateInput(getEditorInput());
@@ -134,14 +134,8 @@ class DatabaseNavigatorContentProvider implements IStructuredContentProvider, IT
                 if (ArrayUtils.isEmpty(children)) {
                     return EMPTY_CHILDREN;
                 } else {
-                    int longListFetchSize = Math.max(NavigatorPreferences.MIN_LONG_LIST_FETCH_SIZE, DBWorkbench.getPlatform().getPreferenceStore().getInt(NavigatorPreferences.NAVIGATOR_LONG_LIST_FETCH_SIZE));
-                    if (children.length > longListFetchSize) {
-                        Object[] curChildren = new Object[longListFetchSize + 1];
-                        System.arraycopy(children, 0, curChildren, 0, longListFetchSize);
-                        curChildren[longListFetchSize] = new TreeNodeLazyExpander(parentNode, children, longListFetchSize);
-                        return curChildren;
-                    }
-                    return children;
+                    // Virtual tree creates items of the page on demand
+                    return getFirstPage(parentNode, children, getLongListFetchSize());
                 }
             }
             catch (Throwable ex) {
@@ -175,6 +169,25 @@ class DatabaseNavigatorContentProvider implements IStructuredContentProvider, IT
         return parent instanceof DBNNode && ((DBNNode) parent).hasChildren(true);
     }
 
+    /**
+     * Returns the first page of long lists followed by an expander of the next page
+     */
+    static Object[] getFirstPage(DBNNode parentNode, DBNNode[] children, int pageSize) {
+        if (children.length <= pageSize) {
+            return children;
+        }
+        Object[] curChildren = new Object[pageSize + 1];
+        System.arraycopy(children, 0, curChildren, 0, pageSize);
+        curChildren[pageSize] = new TreeNodeLazyExpander(parentNode, children, pageSize);
+        return curChildren;
+    }
+
+    private static int getLongListFetchSize() {
+        return Math.max(
+            NavigatorPreferences.MIN_LONG_LIST_FETCH_SIZE,
+            DBWorkbench.getPlatform().getPreferenceStore().getInt(NavigatorPreferences.NAVIGATOR_LONG_LIST_FETCH_SIZE));
+    }
+
 /*
     public void cancelLoading(Object parent)
     {
@@ -42,17 +42,12 @@ import org.jkiss.code.NotNull;
 import org.jkiss.code.Nullable;
 import org.jkiss.dbeaver.DBException;
 import org.jkiss.dbeaver.Log;
-import org.jkiss.dbeaver.model.DBPDataSourceContainer;
-import org.jkiss.dbeaver.model.access.DBAUser;
 import org.jkiss.dbeaver.model.navigator.*;
 import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
 import org.jkiss.dbeaver.model.runtime.DBRRunnableWithResult;
 import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
-import org.jkiss.dbeaver.model.struct.DBSAlias;
-import org.jkiss.dbeaver.model.struct.DBSEntity;
 import org.jkiss.dbeaver.model.struct.DBSObject;
 import org.jkiss.dbeaver.model.struct.DBSStructContainer;
-import org.jkiss.dbeaver.model.struct.rdb.*;
 import org.jkiss.dbeaver.runtime.DBWorkbench;
 import org.jkiss.dbeaver.ui.*;
 import org.jkiss.dbeaver.ui.controls.ProgressLoaderVisualizer;
@@ -81,6 +76,8 @@ public class DatabaseNavigatorTree extends Composite implements INavigatorListen
     private DBNModel model;
     private TreeEditor treeEditor;
     private boolean checkEnabled;
+    // Tree items are created when they become visible
+    private boolean virtualMode;
     private INavigatorFilter navigatorFilter;
     private Text filterControl;
     private boolean inlineRenameEnabled = false;
@@ -340,8 +337,18 @@ public class DatabaseNavigatorTree extends Composite implements INavigatorListen
         return filterControl;
     }
 
+    public boolean isVirtualMode() {
+        return virtualMode;
+    }
+
     private TreeViewer doCreateTreeViewer(Composite parent, int style) {
         checkEnabled = (style & SWT.CHECK) != 0;
+        // Checkbox viewer needs all items to propagate check state
+        virtualMode = !checkEnabled &&
+            DBWorkbench.getPlatform().getPreferenceStore().getBoolean(NavigatorPreferences.NAVIGATOR_VIRTUAL_TREE);
+        if (virtualMode) {
+            style |= SWT.VIRTUAL;
+        }
 
         // Create tree
         int treeStyle = SWT.H_SCROLL | SWT.V_SCROLL | style;
@@ -822,34 +829,7 @@ public class DatabaseNavigatorTree extends Composite implements INavigatorListen
 
             boolean needToMatch = filter.filterObjectByPattern(element);
             if (!needToMatch && element instanceof DBNDatabaseNode) {
-                DBSObject object = ((DBNDatabaseNode) element).getObject();
-                switch (filterObjectType) {
-                    case connection:
-                        needToMatch = (object instanceof DBPDataSourceContainer);
-                        break;
-                    case container:
-                        needToMatch = object instanceof DBSSchema || object instanceof DBSCatalog;
-                        if (needToMatch) {
-                            try {
-                                Class<? extends DBSObject> primaryChildType = ((DBSStructContainer) object).getPrimaryChildType(null);
-                                needToMatch = !DBSStructContainer.class.isAssignableFrom(primaryChildType);
-                            } catch (Exception e) {
-                                log.debug(e);
-                            }
-                        }
-                        break;
-                    default:
-                        needToMatch =
-                            object instanceof DBSEntity ||
-                                object instanceof DBSProcedure ||
-                                object instanceof DBSTableIndex ||
-                                object instanceof DBSTrigger ||
-                                object instanceof DBSPackage ||
-                                object instanceof DBSSequence ||
-                                object instanceof DBSAlias ||
-                                object instanceof DBAUser;
-                        break;
-                }
+                needToMatch = filterObjectType.isMatchedObject(((DBNDatabaseNode) element).getObject());
             }
             if (!needToMatch) {
                 return true;
@@ -17,6 +17,12 @@
 package org.jkiss.dbeaver.ui.navigator.database;
 
 import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.Log;
+import org.jkiss.dbeaver.model.DBPDataSourceContainer;
+import org.jkiss.dbeaver.model.access.DBAUser;
+import org.jkiss.dbeaver.model.struct.*;
+import org.jkiss.dbeaver.model.struct.rdb.*;
 import org.jkiss.dbeaver.ui.internal.UINavigatorMessages;
 
 public enum DatabaseNavigatorTreeFilterObjectType {
@@ -24,6 +30,8 @@ public enum DatabaseNavigatorTreeFilterObjectType {
     container(UINavigatorMessages.actions_navigator_search_filter_container_name, UINavigatorMessages.actions_navigator_search_filter_container_description),
     table(UINavigatorMessages.actions_navigator_search_filter_object_name, UINavigatorMessages.actions_navigator_search_filter_object_description);
 
+    private static final Log log = Log.getLog(DatabaseNavigatorTreeFilterObjectType.class);
+
     private final String name;
     private final String description;
 
@@ -41,4 +49,36 @@ public enum DatabaseNavigatorTreeFilterObjectType {
     public String getDescription() {
         return description;
     }
+
+    /**
+     * Checks whether names of such objects are matched with the filter pattern in this mode.
+     * Other objects are shown as is.
+     */
+    public boolean isMatchedObject(@Nullable DBSObject object) {
+        switch (this) {
+            case connection:
+                return object instanceof DBPDataSourceContainer;
+            case container:
+                if (object instanceof DBSSchema || object instanceof DBSCatalog) {
+                    try {
+                        Class<? extends DBSObject> primaryChildType = ((DBSStructContainer) object).getPrimaryChildType(null);
+                        return !DBSStructContainer.class.isAssignableFrom(primaryChildType);
+                    } catch (Exception e) {
+                        log.debug(e);
+                    }
+                    return true;
+                }
+                return false;
+            default:
+                return
+                    object instanceof DBSEntity ||
+                        object instanceof DBSProcedure ||
+                        object instanceof DBSTableIndex ||
+                        object instanceof DBSTrigger ||
+                        object instanceof DBSPackage ||
+                        object instanceof DBSSequence ||
+                        object instanceof DBSAlias ||
+                        object instanceof DBAUser;
+        }
+    }
 }
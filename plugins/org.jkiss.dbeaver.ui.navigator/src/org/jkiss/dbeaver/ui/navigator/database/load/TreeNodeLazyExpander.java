@@ -28,8 +28,6 @@ import org.jkiss.dbeaver.ui.navigator.database.DatabaseNavigatorTree;
 
 public class TreeNodeLazyExpander extends TreeNodeSpecial {
 
-    private static Image IMG_MORE = DBeaverIcons.getImage(UIIcon.REFRESH);
-
     private DBNNode[] allChildren;
     private int visibleChildren;
 
@@ -50,7 +48,7 @@ public class TreeNodeLazyExpander extends TreeNodeSpecial {
 
     @Override
     public Image getImage(Object element) {
-        return IMG_MORE;
+        return DBeaverIcons.getImage(UIIcon.REFRESH);
     }
 
     @Override
@@ -60,7 +60,6 @@ import org.jkiss.dbeaver.utils.GeneralUtils;
 import org.jkiss.utils.ArrayUtils;
 import org.jkiss.utils.CommonUtils;
 
-import java.lang.reflect.InvocationTargetException;
 import java.util.List;
 import java.util.*;
 import java.util.regex.Matcher;
@@ -1302,56 +1301,58 @@ public abstract class ObjectListControl<OBJECT_TYPE> extends ProgressPageControl
                 return Status.OK_STATUS;
             }
             monitor.beginTask(UINavigatorMessages.controls_object_list_monitor_load_lazy_props, objectMap.size());
+            // Objects with the same not yet cached properties are read in one call
+            Map<List<ObjectPropertyDescriptor>, List<OBJECT_TYPE>> objectsByProps = new LinkedHashMap<>();
             for (Map.Entry<OBJECT_TYPE, List<ObjectColumn>> entry : objectMap.entrySet()) {
-                if (monitor.isCanceled() || isDisposed()) {
-                    break;
-                }
                 final OBJECT_TYPE element = entry.getKey();
                 Object object = getObjectValue(element);
                 if (object == null) {
+                    monitor.worked(1);
                     continue;
                 }
-                Map<String, Object> objectCache;
+                List<ObjectPropertyDescriptor> props = new ArrayList<>();
                 synchronized (lazyCache) {
-                    objectCache = lazyCache.get(element);
-                    if (objectCache == null) {
-                        objectCache = new HashMap<>();
-                        lazyCache.put(element, objectCache);
+                    Map<String, Object> objectCache = lazyCache.get(element);
+                    for (ObjectColumn column : entry.getValue()) {
+                        ObjectPropertyDescriptor prop = getPropertyByObject(column, object);
+                        // Skip already cached properties
+                        if (prop != null && (objectCache == null || !objectCache.containsKey(prop.getId()))) {
+                            props.add(prop);
+                        }
                     }
                 }
-                String objectName = GeneralUtils.makeDisplayString(getObjectValue(element)).toString();
-                monitor.subTask(NLS.bind(UINavigatorMessages.controls_object_list_monitor_load_props, objectName));
-                for (ObjectColumn column : entry.getValue()) {
-                    if (monitor.isCanceled() || isDisposed()) {
-                        break;
+                if (props.isEmpty()) {
+                    monitor.worked(1);
+                    continue;
+                }
+                objectsByProps.computeIfAbsent(props, p -> new ArrayList<>()).add(element);
+            }
+            for (Map.Entry<List<ObjectPropertyDescriptor>, List<OBJECT_TYPE>> group : objectsByProps.entrySet()) {
+                if (monitor.isCanceled() || isDisposed()) {
+                    break;
+                }
+                List<OBJECT_TYPE> elements = group.getValue();
+                List<Object> objects = new ArrayList<>(elements.size());
+                for (OBJECT_TYPE element : elements) {
+                    objects.add(getObjectValue(element));
+                }
+                int[] currentObject = { -1 };
+                // Only values which were actually read are cached, the rest will be read on the next refresh
+                ObjectPropertyDescriptor.readValues(monitor, objects, group.getKey(), false, (objectIndex, prop, value) -> {
+                    if (isDisposed()) {
+                        return false;
                     }
-                    ObjectPropertyDescriptor prop = getPropertyByObject(column, object);
-                    if (prop != null) {
-                        try {
-                            synchronized (lazyCache) {
-                                if (objectCache.containsKey(prop.getId())) {
-                                    // This property already cached
-                                    continue;
-                                }
-                            }
-                            Object lazyValue = prop.readValue(object, monitor, false);
-                            if (lazyValue == null) {
-                                lazyValue = NULL_VALUE;
-                            }
-                            synchronized (lazyCache) {
-                                objectCache.put(prop.getId(), lazyValue);
-                            }
-                        } catch (Throwable e) {
-                            if (e instanceof InvocationTargetException) {
-                                e = ((InvocationTargetException) e).getTargetException();
-                            }
-                            log.error("Error reading property '" + prop.getId() + "' from " + object, e); //$NON-NLS-1$ //$NON-NLS-2$
-                            // do not return error - it causes a lot of error boxes
-                            //return RuntimeUtils.makeExceptionStatus(e);
-                        }
+                    if (objectIndex != currentObject[0]) {
+                        currentObject[0] = objectIndex;
+                        String objectName = GeneralUtils.makeDisplayString(objects.get(objectIndex)).toString();
+                        monitor.subTask(NLS.bind(UINavigatorMessages.controls_object_list_monitor_load_props, objectName));
                     }
-                }
-                monitor.worked(1);
+                    synchronized (lazyCache) {
+                        lazyCache.computeIfAbsent(elements.get(objectIndex), e -> new HashMap<>())
+                            .put(prop.getId(), value == null ? NULL_VALUE : value);
+                    }
+                    return true;
+                });
             }
             monitor.done();
             if (!isDisposed()) {
@@ -72,6 +72,7 @@ public class PrefPageDatabaseNavigator extends AbstractPrefPage implements IWork
     private Button showResourceFolderPlaceholdersCheck;
     private Button groupByDriverCheck;
     private Text longListFetchSizeText;
+    private Button virtualTreeCheck;
     private Combo dsDoubleClickBehavior;
     private Combo objDoubleClickBehavior;
     private Combo defaultEditorPageCombo;
@@ -137,6 +138,7 @@ public class PrefPageDatabaseNavigator extends AbstractPrefPage implements IWork
 
             expandOnConnectCheck = UIUtils.createCheckbox(miscGroup, UINavigatorMessages.pref_page_database_general_label_expand_navigator_tree, "", false, 2);
             restoreFilterCheck = UIUtils.createCheckbox(miscGroup, UINavigatorMessages.pref_page_database_general_label_restore_filter, UINavigatorMessages.pref_page_database_general_label_restore_filter_tip, false, 2);
+            virtualTreeCheck = UIUtils.createCheckbox(miscGroup, UINavigatorMessages.pref_page_database_general_label_virtual_tree, UINavigatorMessages.pref_page_database_general_label_virtual_tree_tip, false, 2);
 
             longListFetchSizeText = UIUtils.createLabelText(miscGroup, UINavigatorMessages.pref_page_database_general_label_long_list_fetch_size, "", SWT.BORDER);
             longListFetchSizeText.setToolTipText(UINavigatorMessages.pref_page_database_general_label_long_list_fetch_size_tip);
@@ -173,6 +175,7 @@ public class PrefPageDatabaseNavigator extends AbstractPrefPage implements IWork
         showResourceFolderPlaceholdersCheck.setSelection(store.getBoolean(ModelPreferences.NAVIGATOR_SHOW_FOLDER_PLACEHOLDERS));
         groupByDriverCheck.setSelection(store.getBoolean(NavigatorPreferences.NAVIGATOR_GROUP_BY_DRIVER));
         longListFetchSizeText.setText(store.getString(NavigatorPreferences.NAVIGATOR_LONG_LIST_FETCH_SIZE));
+        virtualTreeCheck.setSelection(store.getBoolean(NavigatorPreferences.NAVIGATOR_VIRTUAL_TREE));
         NavigatorPreferences.DoubleClickBehavior objDCB = CommonUtils.valueOf(NavigatorPreferences.DoubleClickBehavior.class, store.getString(NavigatorPreferences.NAVIGATOR_OBJECT_DOUBLE_CLICK));
         objDoubleClickBehavior.select(objDCB == NavigatorPreferences.DoubleClickBehavior.EXPAND ? 1 : 0);
         dsDoubleClickBehavior.select(
@@ -216,6 +219,7 @@ public class PrefPageDatabaseNavigator extends AbstractPrefPage implements IWork
         store.setValue(ModelPreferences.NAVIGATOR_SHOW_FOLDER_PLACEHOLDERS, showResourceFolderPlaceholdersCheck.getSelection());
         store.setValue(NavigatorPreferences.NAVIGATOR_GROUP_BY_DRIVER, groupByDriverCheck.getSelection());
         store.setValue(NavigatorPreferences.NAVIGATOR_LONG_LIST_FETCH_SIZE, longListFetchSizeText.getText());
+        store.setValue(NavigatorPreferences.NAVIGATOR_VIRTUAL_TREE, virtualTreeCheck.getSelection());
         NavigatorPreferences.DoubleClickBehavior objDCB = NavigatorPreferences.DoubleClickBehavior.EXPAND;
         if (objDoubleClickBehavior.getSelectionIndex() == 0) {
             objDCB = NavigatorPreferences.DoubleClickBehavior.EDIT;
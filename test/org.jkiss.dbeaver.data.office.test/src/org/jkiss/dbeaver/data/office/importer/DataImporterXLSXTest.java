@@ -0,0 +1,124 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.data.office.importer;
+
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.DBPDataKind;
+import org.jkiss.dbeaver.tools.transfer.stream.IStreamDataImporterSite;
+import org.jkiss.dbeaver.tools.transfer.stream.StreamDataImporterColumnInfo;
+import org.jkiss.dbeaver.tools.transfer.stream.StreamEntityMapping;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class DataImporterXLSXTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private final DataImporterXLSX importer = new DataImporterXLSX();
+    private final Map<String, Object> properties = new HashMap<>();
+
+    @Before
+    public void init() throws DBException {
+        IStreamDataImporterSite site = Mockito.mock(IStreamDataImporterSite.class);
+        Mockito.when(site.getProcessorProperties()).thenReturn(properties);
+        importer.init(site);
+    }
+
+    private File makeWorkbook() throws IOException {
+        File file = tempFolder.newFile();
+        new XLSXTestWorkbook()
+            .addSharedString("<t>id</t>")
+            .addSharedString("<t>amount</t>")
+            .addSharedString("<t>created</t>")
+            .addSharedString("<t>active</t>")
+            .addSharedString("<t>note</t>")
+            .addSharedString("<t>first note</t>")
+            .addSheet("Data",
+                "<row r=\"1\"><c r=\"A1\" t=\"s\"><v>0</v></c><c r=\"B1\" t=\"s\"><v>1</v></c><c r=\"C1\" t=\"s\"><v>2</v></c>" +
+                "<c r=\"D1\" t=\"s\"><v>3</v></c><c r=\"E1\" t=\"s\"><v>4</v></c></row>" +
+                "<row r=\"2\"><c r=\"A2\"><v>1</v></c><c r=\"B2\" s=\"" + XLSXTestWorkbook.STYLE_NUMBER + "\"><v>10.5</v></c>" +
+                "<c r=\"C2\" s=\"" + XLSXTestWorkbook.STYLE_DATE + "\"><v>45000</v></c><c r=\"D2\" t=\"b\"><v>1</v></c>" +
+                "<c r=\"E2\" t=\"s\"><v>5</v></c></row>" +
+                // Empty rows are not samples
+                "<row r=\"4\"/>" +
+                // Row is wider than header
+                "<row r=\"5\"><c r=\"A5\"><v>2</v></c><c r=\"E5\" t=\"inlineStr\"><is><t>second note, longer</t></is></c>" +
+                "<c r=\"F5\"><v>7</v></c></row>")
+            .write(file);
+        return file;
+    }
+
+    @Test
+    public void readColumnsFromHeader() throws Exception {
+        List<StreamDataImporterColumnInfo> columnsInfo = readColumnsInfo(makeWorkbook());
+
+        Assert.assertEquals(6, columnsInfo.size());
+        String[] names = {"id", "amount", "created", "active", "note", "Column6"};
+        for (int i = 0; i < names.length; i++) {
+            Assert.assertEquals(names[i], columnsInfo.get(i).getName());
+        }
+        Assert.assertEquals(DBPDataKind.NUMERIC, columnsInfo.get(0).getDataKind());
+        Assert.assertEquals("INTEGER", columnsInfo.get(0).getTypeName());
+        Assert.assertEquals(DBPDataKind.NUMERIC, columnsInfo.get(1).getDataKind());
+        Assert.assertEquals("REAL", columnsInfo.get(1).getTypeName());
+        Assert.assertEquals(DBPDataKind.DATETIME, columnsInfo.get(2).getDataKind());
+        Assert.assertEquals(DBPDataKind.BOOLEAN, columnsInfo.get(3).getDataKind());
+        Assert.assertEquals(DBPDataKind.STRING, columnsInfo.get(4).getDataKind());
+        // Length is rounded to the next power of 2
+        Assert.assertEquals(32, columnsInfo.get(4).getMaxLength());
+        Assert.assertEquals(DBPDataKind.NUMERIC, columnsInfo.get(5).getDataKind());
+    }
+
+    @Test
+    public void readColumnsWithoutHeader() throws Exception {
+        properties.put("headerRow", 0);
+        List<StreamDataImporterColumnInfo> columnsInfo = readColumnsInfo(makeWorkbook());
+
+        Assert.assertEquals(6, columnsInfo.size());
+        Assert.assertEquals("Column1", columnsInfo.get(0).getName());
+        // Header names are sampled as values
+        Assert.assertEquals(DBPDataKind.STRING, columnsInfo.get(0).getDataKind());
+        Assert.assertEquals(DBPDataKind.STRING, columnsInfo.get(2).getDataKind());
+    }
+
+    @Test
+    public void limitColumnSamples() throws Exception {
+        properties.put("columnTypeSamplesCount", 1);
+        List<StreamDataImporterColumnInfo> columnsInfo = readColumnsInfo(makeWorkbook());
+
+        // The wide row is not sampled, so the note keeps the length of the first one
+        Assert.assertEquals(5, columnsInfo.size());
+        Assert.assertEquals(16, columnsInfo.get(4).getMaxLength());
+    }
+
+    private List<StreamDataImporterColumnInfo> readColumnsInfo(File file) throws DBException {
+        return importer.readColumnsInfo(new StreamEntityMapping(file), new ByteArrayInputStream(new byte[0]));
+    }
+
+}
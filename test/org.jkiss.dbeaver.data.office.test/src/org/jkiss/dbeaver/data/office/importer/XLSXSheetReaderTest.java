@@ -0,0 +1,225 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.data.office.importer;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class XLSXSheetReaderTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void readSharedAndInlineStrings() throws Exception {
+        XLSXTestWorkbook workbook = new XLSXTestWorkbook()
+            .addSharedString("<t>Name</t>")
+            .addSharedString("<r><t xml:space=\"preserve\">Rich </t></r><r><rPr><b/></rPr><t>text</t></r>")
+            // Phonetic reading is not a part of the value
+            .addSharedString("<t>漢字</t><rPh sb=\"0\" eb=\"2\"><t>カンジ</t></rPh>")
+            .addSharedString("<t xml:space=\"preserve\">  padded </t>")
+            .addSheet("Strings",
+                "<row r=\"1\">" +
+                "<c r=\"A1\" t=\"s\"><v>0</v></c>" +
+                "<c r=\"B1\" t=\"s\"><v>1</v></c>" +
+                "<c r=\"C1\" t=\"s\"><v>2</v></c>" +
+                "<c r=\"D1\" t=\"s\"><v>3</v></c>" +
+                "<c r=\"E1\" t=\"inlineStr\"><is><t>inline</t></is></c>" +
+                "<c r=\"F1\" t=\"inlineStr\"><is><r><t>in</t></r><r><t>line</t></r><rPh sb=\"0\" eb=\"1\"><t>x</t></rPh></is></c>" +
+                // Formula string result
+                "<c r=\"G1\" t=\"str\"><f>A1&amp;\"!\"</f><v>Name!</v></c>" +
+                "</row>");
+
+        List<Object[]> rows = readRows(workbook, null);
+        Assert.assertEquals(1, rows.size());
+        Assert.assertArrayEquals(
+            new Object[]{"Name", "Rich text", "漢字", "  padded ", "inline", "inline", "Name!"},
+            rows.get(0));
+    }
+
+    @Test
+    public void readTypedValues() throws Exception {
+        XLSXTestWorkbook workbook = new XLSXTestWorkbook()
+            .addSheet("Values",
+                "<row r=\"1\">" +
+                "<c r=\"A1\"><v>42</v></c>" +
+                "<c r=\"B1\" s=\"" + XLSXTestWorkbook.STYLE_NUMBER + "\"><v>1234.5</v></c>" +
+                "<c r=\"C1\" s=\"" + XLSXTestWorkbook.STYLE_DATE + "\"><v>45000</v></c>" +
+                "<c r=\"D1\" s=\"" + XLSXTestWorkbook.STYLE_DATE_TIME + "\"><v>45000.5</v></c>" +
+                // Date serial without date format is a plain number
+                "<c r=\"E1\" s=\"" + XLSXTestWorkbook.STYLE_GENERAL + "\"><v>45000</v></c>" +
+                "<c r=\"F1\"><v>1E+20</v></c>" +
+                "<c r=\"G1\" t=\"b\"><v>1</v></c>" +
+                "<c r=\"H1\" t=\"b\"><v>0</v></c>" +
+                "<c r=\"I1\" t=\"d\"><v>2023-03-15T10:20:30</v></c>" +
+                "<c r=\"J1\" t=\"d\"><v>2023-03-15</v></c>" +
+                "<c r=\"K1\" t=\"e\"><v>#DIV/0!</v></c>" +
+                "</row>");
+
+        List<Object[]> rows = readRows(workbook, null);
+        Assert.assertEquals(1, rows.size());
+        Assert.assertArrayEquals(
+            new Object[]{
+                42L,
+                1234.5,
+                Timestamp.valueOf("2023-03-15 00:00:00"),
+                Timestamp.valueOf("2023-03-15 12:00:00"),
+                45000L,
+                1e20,
+                true,
+                false,
+                Timestamp.valueOf("2023-03-15 10:20:30"),
+                Timestamp.valueOf("2023-03-15 00:00:00")
+                // Error value is null, so the row ends before it
+            },
+            rows.get(0));
+    }
+
+    @Test
+    public void readDate1904() throws Exception {
+        XLSXTestWorkbook workbook = new XLSXTestWorkbook()
+            .setDate1904(true)
+            .addSheet("Dates", "<row r=\"1\"><c r=\"A1\" s=\"" + XLSXTestWorkbook.STYLE_DATE + "\"><v>45000</v></c></row>");
+
+        List<Object[]> rows = readRows(workbook, null);
+        Assert.assertArrayEquals(new Object[]{Timestamp.valueOf("2027-03-16 00:00:00")}, rows.get(0));
+    }
+
+    @Test
+    public void readEmptyCellsAndSparseRows() throws Exception {
+        XLSXTestWorkbook workbook = new XLSXTestWorkbook()
+            .addSharedString("<t>text</t>")
+            .addSheet("Sparse",
+                "<row r=\"1\"><c r=\"A1\"><v>1</v></c><c r=\"C1\"><v>3</v></c></row>" +
+                // Row 2 is missing. Styled cell without value is empty.
+                "<row r=\"3\"><c r=\"B3\" s=\"" + XLSXTestWorkbook.STYLE_DATE + "\"/><c r=\"D3\"><v>4</v></c></row>" +
+                "<row r=\"4\"/>" +
+                // Cells and rows without references follow the previous ones
+                "<row><c t=\"s\"><v>0</v></c><c><v>2</v></c></row>" +
+                "<row r=\"7\"><c r=\"A7\" t=\"s\"/><c r=\"AB7\"><v>28</v></c></row>");
+
+        List<Integer> rowNumbers = new ArrayList<>();
+        List<Object[]> rows = new ArrayList<>();
+        try (XLSXSheetReader reader = new XLSXSheetReader(writeWorkbook(workbook))) {
+            reader.readSheet(null, (rowNumber, values) -> {
+                rowNumbers.add(rowNumber);
+                rows.add(values);
+                return true;
+            });
+        }
+
+        Assert.assertEquals(Arrays.asList(1, 3, 4, 5, 7), rowNumbers);
+        Assert.assertArrayEquals(new Object[]{1L, null, 3L}, rows.get(0));
+        Assert.assertArrayEquals(new Object[]{null, null, null, 4L}, rows.get(1));
+        Assert.assertArrayEquals(new Object[0], rows.get(2));
+        Assert.assertArrayEquals(new Object[]{"text", 2L}, rows.get(3));
+        Object[] wideRow = new Object[28];
+        wideRow[27] = 28L;
+        Assert.assertArrayEquals(wideRow, rows.get(4));
+    }
+
+    @Test
+    public void selectSheet() throws Exception {
+        XLSXTestWorkbook workbook = new XLSXTestWorkbook()
+            .addSheet("First", "<row r=\"1\"><c r=\"A1\"><v>1</v></c></row>")
+            .addSheet("Second", "<row r=\"1\"><c r=\"A1\"><v>2</v></c></row>");
+
+        Assert.assertArrayEquals(new Object[]{1L}, readRows(workbook, null).get(0));
+        Assert.assertArrayEquals(new Object[]{1L}, readRows(workbook, "").get(0));
+        Assert.assertArrayEquals(new Object[]{2L}, readRows(workbook, "second").get(0));
+        Assert.assertArrayEquals(new Object[]{2L}, readRows(workbook, "2").get(0));
+        try {
+            readRows(workbook, "Third");
+            Assert.fail("Missing sheet must be reported");
+        } catch (DBException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("First, Second"));
+        }
+    }
+
+    @Test
+    public void stopReading() throws Exception {
+        XLSXTestWorkbook workbook = new XLSXTestWorkbook()
+            .addSheet("Data",
+                "<row r=\"1\"><c r=\"A1\"><v>1</v></c></row>" +
+                "<row r=\"2\"><c r=\"A2\"><v>2</v></c></row>" +
+                "<row r=\"3\"><c r=\"A3\"><v>3</v></c></row>");
+        File file = writeWorkbook(workbook);
+
+        List<Integer> rowNumbers = new ArrayList<>();
+        try (XLSXSheetReader reader = new XLSXSheetReader(file)) {
+            reader.readSheet(null, (rowNumber, values) -> {
+                rowNumbers.add(rowNumber);
+                return rowNumber < 2;
+            });
+        }
+        Assert.assertEquals(Arrays.asList(1, 2), rowNumbers);
+
+        // Handler error stops reading and is passed to the caller as is
+        DBException error = new DBException("Consumer error");
+        try (XLSXSheetReader reader = new XLSXSheetReader(file)) {
+            reader.readSheet(null, (rowNumber, values) -> {
+                throw error;
+            });
+            Assert.fail("Handler error must be passed to the caller");
+        } catch (DBException e) {
+            Assert.assertSame(error, e);
+        }
+    }
+
+    @Test
+    public void reportInvalidFile() throws Exception {
+        File file = tempFolder.newFile("invalid.xlsx");
+        try {
+            new XLSXSheetReader(file).close();
+            Assert.fail("Invalid file must be reported");
+        } catch (DBException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains(file.getAbsolutePath()));
+        }
+    }
+
+    @NotNull
+    private File writeWorkbook(@NotNull XLSXTestWorkbook workbook) throws IOException {
+        File file = tempFolder.newFile();
+        workbook.write(file);
+        return file;
+    }
+
+    @NotNull
+    private List<Object[]> readRows(@NotNull XLSXTestWorkbook workbook, @Nullable String sheet) throws DBException, IOException {
+        List<Object[]> rows = new ArrayList<>();
+        try (XLSXSheetReader reader = new XLSXSheetReader(writeWorkbook(workbook))) {
+            reader.readSheet(sheet, (rowNumber, values) -> {
+                rows.add(values);
+                return true;
+            });
+        }
+        return rows;
+    }
+
+}
@@ -0,0 +1,159 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.data.office.importer;
+
+import org.jkiss.code.NotNull;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes minimal XLSX fixture workbooks: workbook, sheets, shared strings and cell styles.
+ * <p>
+ * Cell styles: 0 - general, 1 - built-in date format 14, 2 - custom date/time format, 3 - built-in number format 4.
+ */
+class XLSXTestWorkbook {
+
+    static final int STYLE_GENERAL = 0;
+    static final int STYLE_DATE = 1;
+    static final int STYLE_DATE_TIME = 2;
+    static final int STYLE_NUMBER = 3;
+
+    private static final String NS_MAIN = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+    private static final String NS_RELATIONSHIPS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+    private static final String XML_HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+
+    private final List<String> sheetNames = new ArrayList<>();
+    private final List<String> sheetRows = new ArrayList<>();
+    private final List<String> sharedStrings = new ArrayList<>();
+    private boolean date1904;
+
+    /**
+     * Adds sheet with the specified sheetData content (row elements)
+     */
+    @NotNull
+    XLSXTestWorkbook addSheet(@NotNull String name, @NotNull String rows) {
+        sheetNames.add(name);
+        sheetRows.add(rows);
+        return this;
+    }
+
+    /**
+     * Adds shared string item with the specified content (t, r and rPh elements)
+     */
+    @NotNull
+    XLSXTestWorkbook addSharedString(@NotNull String item) {
+        sharedStrings.add(item);
+        return this;
+    }
+
+    @NotNull
+    XLSXTestWorkbook setDate1904(boolean date1904) {
+        this.date1904 = date1904;
+        return this;
+    }
+
+    void write(@NotNull File file) throws IOException {
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(file))) {
+            StringBuilder contentTypes = new StringBuilder();
+            contentTypes.append(XML_HEADER)
+                .append("<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">")
+                .append("<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>")
+                .append("<Default Extension=\"xml\" ContentType=\"application/xml\"/>")
+                .append("<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>")
+                .append("<Override PartName=\"/xl/styles.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.styles+xml\"/>")
+                .append("<Override PartName=\"/xl/sharedStrings.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sharedStrings+xml\"/>");
+            for (int i = 1; i <= sheetNames.size(); i++) {
+                contentTypes.append("<Override PartName=\"/xl/worksheets/sheet").append(i)
+                    .append(".xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>");
+            }
+            contentTypes.append("</Types>");
+            addEntry(zip, "[Content_Types].xml", contentTypes.toString());
+
+            addEntry(zip, "_rels/.rels", XML_HEADER +
+                "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">" +
+                "<Relationship Id=\"rId1\" Type=\"" + NS_RELATIONSHIPS + "/officeDocument\" Target=\"xl/workbook.xml\"/>" +
+                "</Relationships>");
+
+            StringBuilder workbook = new StringBuilder();
+            StringBuilder workbookRels = new StringBuilder();
+            workbook.append(XML_HEADER)
+                .append("<workbook xmlns=\"").append(NS_MAIN).append("\" xmlns:r=\"").append(NS_RELATIONSHIPS).append("\">")
+                .append("<workbookPr date1904=\"").append(date1904 ? 1 : 0).append("\"/>")
+                .append("<sheets>");
+            workbookRels.append(XML_HEADER)
+                .append("<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">");
+            for (int i = 1; i <= sheetNames.size(); i++) {
+                workbook.append("<sheet name=\"").append(sheetNames.get(i - 1)).append("\" sheetId=\"").append(i)
+                    .append("\" r:id=\"rId").append(i).append("\"/>");
+                workbookRels.append("<Relationship Id=\"rId").append(i).append("\" Type=\"").append(NS_RELATIONSHIPS)
+                    .append("/worksheet\" Target=\"worksheets/sheet").append(i).append(".xml\"/>");
+            }
+            workbook.append("</sheets></workbook>");
+            workbookRels.append("<Relationship Id=\"rIdStyles\" Type=\"").append(NS_RELATIONSHIPS).append("/styles\" Target=\"styles.xml\"/>")
+                .append("<Relationship Id=\"rIdStrings\" Type=\"").append(NS_RELATIONSHIPS).append("/sharedStrings\" Target=\"sharedStrings.xml\"/>")
+                .append("</Relationships>");
+            addEntry(zip, "xl/workbook.xml", workbook.toString());
+            addEntry(zip, "xl/_rels/workbook.xml.rels", workbookRels.toString());
+
+            addEntry(zip, "xl/styles.xml", XML_HEADER +
+                "<styleSheet xmlns=\"" + NS_MAIN + "\">" +
+                "<numFmts count=\"1\"><numFmt numFmtId=\"164\" formatCode=\"yyyy-mm-dd hh:mm\"/></numFmts>" +
+                "<fonts count=\"1\"><font><sz val=\"11\"/><name val=\"Calibri\"/></font></fonts>" +
+                "<fills count=\"1\"><fill><patternFill patternType=\"none\"/></fill></fills>" +
+                "<borders count=\"1\"><border><left/><right/><top/><bottom/><diagonal/></border></borders>" +
+                "<cellStyleXfs count=\"1\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\"/></cellStyleXfs>" +
+                "<cellXfs count=\"4\">" +
+                "<xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\"/>" +
+                "<xf numFmtId=\"14\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyNumberFormat=\"1\"/>" +
+                "<xf numFmtId=\"164\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyNumberFormat=\"1\"/>" +
+                "<xf numFmtId=\"4\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyNumberFormat=\"1\"/>" +
+                "</cellXfs>" +
+                "</styleSheet>");
+
+            StringBuilder strings = new StringBuilder();
+            strings.append(XML_HEADER)
+                .append("<sst xmlns=\"").append(NS_MAIN).append("\" count=\"").append(sharedStrings.size())
+                .append("\" uniqueCount=\"").append(sharedStrings.size()).append("\">");
+            for (String item : sharedStrings) {
+                strings.append("<si>").append(item).append("</si>");
+            }
+            strings.append("</sst>");
+            addEntry(zip, "xl/sharedStrings.xml", strings.toString());
+
+            for (int i = 1; i <= sheetRows.size(); i++) {
+                addEntry(zip, "xl/worksheets/sheet" + i + ".xml", XML_HEADER +
+                    "<worksheet xmlns=\"" + NS_MAIN + "\" xmlns:r=\"" + NS_RELATIONSHIPS + "\">" +
+                    "<sheetData>" + sheetRows.get(i - 1) + "</sheetData>" +
+                    "</worksheet>");
+            }
+        }
+    }
+
+    private static void addEntry(@NotNull ZipOutputStream zip, @NotNull String name, @NotNull String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(content.getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+
+}
@@ -0,0 +1,42 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.sqlserver.jdbc;
+
+import java.sql.SQLException;
+import java.util.Set;
+
+/**
+ * Test stub of the driver bulk record API (subset used by SQLServerBulkLoader)
+ */
+public interface ISQLServerBulkRecord {
+
+    Set<Integer> getColumnOrdinals();
+
+    String getColumnName(int column);
+
+    int getColumnType(int column);
+
+    int getPrecision(int column);
+
+    int getScale(int column);
+
+    boolean isAutoIncrement(int column);
+
+    Object[] getRowData() throws SQLException;
+
+    boolean next() throws SQLException;
+}
@@ -0,0 +1,82 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.sqlserver.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Test stub of the driver bulk copy. Keeps everything it receives.
+ */
+public class SQLServerBulkCopy implements AutoCloseable {
+
+    public static volatile SQLServerBulkCopy lastCopy;
+    /**
+     * Fail writeToServer after reading this number of rows. Negative means never fail.
+     */
+    public static volatile int failAfterRows = -1;
+
+    public final Connection connection;
+    public SQLServerBulkCopyOptions options;
+    public String destinationTableName;
+    public final Map<Integer, String> columnMappings = new LinkedHashMap<>();
+    public final List<String> columnNames = new ArrayList<>();
+    public final List<Integer> columnTypes = new ArrayList<>();
+    public final List<Integer> columnPrecisions = new ArrayList<>();
+    public final List<Object[]> rows = new ArrayList<>();
+    public volatile boolean closed;
+
+    public SQLServerBulkCopy(Connection connection) {
+        this.connection = connection;
+        lastCopy = this;
+    }
+
+    public void setBulkCopyOptions(SQLServerBulkCopyOptions options) {
+        this.options = options;
+    }
+
+    public void setDestinationTableName(String tableName) {
+        this.destinationTableName = tableName;
+    }
+
+    public void addColumnMapping(int sourceColumn, String destinationColumn) {
+        columnMappings.put(sourceColumn, destinationColumn);
+    }
+
+    public void writeToServer(ISQLServerBulkRecord record) throws SQLException {
+        for (Integer column : record.getColumnOrdinals()) {
+            columnNames.add(record.getColumnName(column));
+            columnTypes.add(record.getColumnType(column));
+            columnPrecisions.add(record.getPrecision(column));
+        }
+        while (record.next()) {
+            if (failAfterRows >= 0 && rows.size() >= failAfterRows) {
+                throw new SQLException("Violation of PRIMARY KEY constraint");
+            }
+            rows.add(record.getRowData().clone());
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+    }
+}
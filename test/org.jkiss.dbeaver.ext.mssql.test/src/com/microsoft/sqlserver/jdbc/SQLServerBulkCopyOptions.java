@@ -0,0 +1,48 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.microsoft.sqlserver.jdbc;
+
+/**
+ * Test stub of the driver bulk copy options
+ */
+public class SQLServerBulkCopyOptions {
+    public int batchSize;
+    public int bulkCopyTimeout = 60;
+    public boolean tableLock;
+    public boolean keepNulls;
+    public boolean keepIdentity;
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public void setBulkCopyTimeout(int timeout) {
+        this.bulkCopyTimeout = timeout;
+    }
+
+    public void setTableLock(boolean tableLock) {
+        this.tableLock = tableLock;
+    }
+
+    public void setKeepNulls(boolean keepNulls) {
+        this.keepNulls = keepNulls;
+    }
+
+    public void setKeepIdentity(boolean keepIdentity) {
+        this.keepIdentity = keepIdentity;
+    }
+}
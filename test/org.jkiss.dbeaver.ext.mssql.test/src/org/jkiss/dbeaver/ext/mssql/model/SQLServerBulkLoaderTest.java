@@ -0,0 +1,159 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.mssql.model;
+
+import com.microsoft.sqlserver.jdbc.SQLServerBulkCopy;
+import org.jkiss.dbeaver.model.DBPDataKind;
+import org.jkiss.dbeaver.model.exec.DBCException;
+import org.jkiss.dbeaver.model.exec.DBCFeatureNotSupportedException;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+import org.jkiss.dbeaver.model.struct.DBSAttributeBase;
+import org.jkiss.dbeaver.model.struct.DBSDataBulkLoader;
+import org.jkiss.dbeaver.model.struct.DBSDataContainer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public class SQLServerBulkLoaderTest {
+
+    private final Connection connection = Mockito.mock(Connection.class);
+    private final JDBCSession session = Mockito.mock(JDBCSession.class);
+    private final DBSDataContainer table = Mockito.mock(DBSDataContainer.class);
+    private DBSAttributeBase[] attributes;
+
+    @Before
+    public void init() {
+        Mockito.when(session.getProgressMonitor()).thenReturn(new VoidProgressMonitor());
+        Mockito.when(table.getName()).thenReturn("orders");
+
+        DBSAttributeBase idAttr = Mockito.mock(DBSAttributeBase.class);
+        Mockito.when(idAttr.getName()).thenReturn("id");
+        Mockito.when(idAttr.getTypeName()).thenReturn("int");
+        Mockito.when(idAttr.getTypeID()).thenReturn(Types.INTEGER);
+        Mockito.when(idAttr.getDataKind()).thenReturn(DBPDataKind.NUMERIC);
+
+        DBSAttributeBase nameAttr = Mockito.mock(DBSAttributeBase.class);
+        Mockito.when(nameAttr.getName()).thenReturn("customer name");
+        Mockito.when(nameAttr.getTypeName()).thenReturn("nvarchar");
+        Mockito.when(nameAttr.getTypeID()).thenReturn(Types.NVARCHAR);
+        Mockito.when(nameAttr.getDataKind()).thenReturn(DBPDataKind.STRING);
+        Mockito.when(nameAttr.getMaxLength()).thenReturn(50L);
+
+        DBSAttributeBase guidAttr = Mockito.mock(DBSAttributeBase.class);
+        Mockito.when(guidAttr.getName()).thenReturn("guid");
+        Mockito.when(guidAttr.getTypeName()).thenReturn("uniqueidentifier");
+        Mockito.when(guidAttr.getDataKind()).thenReturn(DBPDataKind.STRING);
+
+        attributes = new DBSAttributeBase[] { idAttr, nameAttr, guidAttr };
+    }
+
+    @After
+    public void cleanup() {
+        SQLServerBulkCopy.lastCopy = null;
+        SQLServerBulkCopy.failAfterRows = -1;
+    }
+
+    private DBSDataBulkLoader.BulkLoadManager createBulkLoad(Map<String, Object> options) throws DBCException {
+        return new SQLServerBulkLoader(null).createBulkLoad(
+            connection, getClass().getClassLoader(), table, attributes, 100, options);
+    }
+
+    @Test
+    public void copyRowsThroughBulkRecord() throws DBCException {
+        UUID guid = UUID.randomUUID();
+        try (DBSDataBulkLoader.BulkLoadManager loader = createBulkLoad(Map.of(
+            DBSDataBulkLoader.OPTION_CHUNK_SIZE, 1000,
+            DBSDataBulkLoader.OPTION_TABLE_LOCK, true)))
+        {
+            loader.addRow(session, new Object[] { 1, "first", guid });
+            loader.addRow(session, new Object[] { 2, null, null });
+            loader.finishBulkLoad(session);
+        }
+
+        SQLServerBulkCopy copy = SQLServerBulkCopy.lastCopy;
+        Assert.assertSame(connection, copy.connection);
+        Assert.assertEquals("orders", copy.destinationTableName);
+        Assert.assertEquals(Map.of(1, "id", 2, "customer name", 3, "guid"), copy.columnMappings);
+        Assert.assertEquals(1000, copy.options.batchSize);
+        Assert.assertEquals(0, copy.options.bulkCopyTimeout);
+        Assert.assertTrue(copy.options.tableLock);
+        Assert.assertTrue(copy.options.keepNulls);
+        Assert.assertFalse(copy.options.keepIdentity);
+
+        // Record metadata is read through the proxy
+        Assert.assertEquals(List.of("id", "customer name", "guid"), copy.columnNames);
+        Assert.assertEquals(List.of(Types.INTEGER, Types.NVARCHAR, Types.CHAR), copy.columnTypes);
+        Assert.assertEquals(List.of(0, 50, 36), copy.columnPrecisions);
+
+        Assert.assertEquals(2, copy.rows.size());
+        Assert.assertArrayEquals(new Object[] { 1, "first", guid.toString() }, copy.rows.get(0));
+        Assert.assertArrayEquals(new Object[] { 2, null, null }, copy.rows.get(1));
+        Assert.assertTrue(copy.closed);
+    }
+
+    @Test
+    public void batchSizeDefaultsToCommitSize() throws DBCException {
+        try (DBSDataBulkLoader.BulkLoadManager loader = createBulkLoad(null)) {
+            loader.finishBulkLoad(session);
+        }
+        SQLServerBulkCopy copy = SQLServerBulkCopy.lastCopy;
+        Assert.assertEquals(100, copy.options.batchSize);
+        Assert.assertFalse(copy.options.tableLock);
+        Assert.assertTrue(copy.rows.isEmpty());
+    }
+
+    @Test
+    public void reportServerError() throws DBCException {
+        SQLServerBulkCopy.failAfterRows = 1;
+        try (DBSDataBulkLoader.BulkLoadManager loader = createBulkLoad(null)) {
+            try {
+                // Error may be reported by addRow if the copy thread fails before the last row is added
+                loader.addRow(session, new Object[] { 1, "first", null });
+                loader.addRow(session, new Object[] { 1, "duplicate", null });
+                loader.finishBulkLoad(session);
+                Assert.fail("Server error must fail the bulk load");
+            } catch (DBCException e) {
+                Assert.assertTrue(e.getCause() instanceof SQLException);
+            }
+        }
+        Assert.assertEquals(1, SQLServerBulkCopy.lastCopy.rows.size());
+    }
+
+    @Test
+    public void failWithoutDriverBulkCopy() throws DBCException {
+        // Class loader which sees JDK classes only, like a driver without bulk copy API (e.g. jTDS)
+        ClassLoader driverClassLoader = new ClassLoader(null) {};
+        try {
+            new SQLServerBulkLoader(null).createBulkLoad(connection, driverClassLoader, table, attributes, 100, null);
+            Assert.fail("Bulk load must not be created without driver classes");
+        } catch (DBCFeatureNotSupportedException e) {
+            // Consumer falls back to regular inserts
+            Assert.assertTrue(e.getCause() instanceof ClassNotFoundException);
+        }
+        Assert.assertNull(SQLServerBulkCopy.lastCopy);
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.mysql.model;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.sql.Statement;
+
+public class MySQLBulkLoaderTest {
+
+    private static String escape(String value) throws IOException {
+        StringWriter writer = new StringWriter();
+        MySQLBulkLoader.writeEscaped(writer, value);
+        return writer.toString();
+    }
+
+    @Test
+    public void escapeFieldSeparators() throws IOException {
+        Assert.assertEquals("plain text", escape("plain text"));
+        Assert.assertEquals("a\\tb", escape("a\tb"));
+        Assert.assertEquals("line1\\nline2\\r\\n", escape("line1\nline2\r\n"));
+        Assert.assertEquals("c:\\\\temp\\\\x", escape("c:\\temp\\x"));
+        Assert.assertEquals("a\\0b", escape("a\0b"));
+        Assert.assertEquals("", escape(""));
+    }
+
+    @Test
+    public void escapeNullMarker() throws IOException {
+        Assert.assertEquals("\\N", MySQLBulkLoader.NULL_VALUE);
+        // Strings which look like NULL must not be loaded as NULL
+        Assert.assertEquals("\\\\N", escape("\\N"));
+        Assert.assertEquals("NULL", escape("NULL"));
+    }
+
+    @Test
+    public void checkLocalInfileSupport() {
+        Assert.assertNull(MySQLBulkLoader.findInputStreamSetter(Statement.class));
+        Assert.assertNotNull(MySQLBulkLoader.findInputStreamSetter(StreamingStatement.class));
+
+        // Driver defaults
+        Assert.assertFalse(MySQLBulkLoader.isLocalInfileAllowed(null, false, 8));
+        Assert.assertTrue(MySQLBulkLoader.isLocalInfileAllowed(null, false, 5));
+        Assert.assertTrue(MySQLBulkLoader.isLocalInfileAllowed(null, true, 3));
+        // Explicit properties
+        Assert.assertTrue(MySQLBulkLoader.isLocalInfileAllowed("true", false, 8));
+        Assert.assertFalse(MySQLBulkLoader.isLocalInfileAllowed("false", true, 3));
+        Assert.assertTrue(MySQLBulkLoader.isLocalInfileAllowed(Boolean.TRUE, false, 8));
+    }
+
+    @Test
+    public void makeTextLoadQuery() {
+        String query = MySQLBulkLoader.makeLoadQuery(
+            new MySQLDialect(),
+            "`test`.`orders`",
+            "utf8mb4",
+            new String[] { "id", "first name", "a`b" },
+            new MySQLBulkLoader.ValueFormat[] {
+                MySQLBulkLoader.ValueFormat.TEXT, MySQLBulkLoader.ValueFormat.TEXT, MySQLBulkLoader.ValueFormat.TEXT
+            });
+        Assert.assertEquals(
+            "LOAD DATA LOCAL INFILE 'dbeaver-stream.tsv' INTO TABLE `test`.`orders` CHARACTER SET utf8mb4" +
+                " FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\' LINES TERMINATED BY '\\n'" +
+                " (id,`first name`,`a``b`)",
+            query);
+    }
+
+    @Test
+    public void makeConvertedLoadQuery() {
+        String query = MySQLBulkLoader.makeLoadQuery(
+            new MySQLDialect(),
+            "`shapes`",
+            "utf8",
+            new String[] { "id", "payload", "bitmask", "my shape" },
+            new MySQLBulkLoader.ValueFormat[] {
+                MySQLBulkLoader.ValueFormat.TEXT,
+                MySQLBulkLoader.ValueFormat.HEX,
+                MySQLBulkLoader.ValueFormat.BIT,
+                MySQLBulkLoader.ValueFormat.GEOMETRY
+            });
+        Assert.assertEquals(
+            "LOAD DATA LOCAL INFILE 'dbeaver-stream.tsv' INTO TABLE `shapes` CHARACTER SET utf8" +
+                " FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\' LINES TERMINATED BY '\\n'" +
+                " (id,@v1,@v2,@v3)" +
+                " SET payload=UNHEX(@v1),bitmask=CAST(@v2 AS UNSIGNED),`my shape`=ST_GeomFromText(@v3)",
+            query);
+    }
+
+    public static class StreamingStatement {
+        public void setLocalInfileInputStream(InputStream stream) {
+        }
+    }
+}
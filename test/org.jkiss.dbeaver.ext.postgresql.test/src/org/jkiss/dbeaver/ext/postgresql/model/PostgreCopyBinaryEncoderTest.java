@@ -0,0 +1,315 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ext.postgresql.model;
+
+import org.jkiss.code.NotNull;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+/**
+ * Encoded values are decoded the same way as server does and compared with the source ones
+ */
+public class PostgreCopyBinaryEncoderTest {
+
+    private static final LocalDateTime PG_EPOCH = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+    @Test
+    public void writeHeaderAndRows() throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        PostgreCopyBinaryEncoder encoder = new PostgreCopyBinaryEncoder(buffer);
+        encoder.writeHeader();
+        encoder.startRow(2);
+        encoder.writeValue(PostgreOid.INT4, 1);
+        encoder.writeNull();
+        encoder.writeTrailer();
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(buffer.toByteArray()));
+        byte[] signature = new byte[11];
+        in.readFully(signature);
+        Assert.assertArrayEquals(new byte[]{'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0}, signature);
+        // Flags and header extension length
+        Assert.assertEquals(0, in.readInt());
+        Assert.assertEquals(0, in.readInt());
+        Assert.assertEquals(2, in.readShort());
+        Assert.assertEquals(4, in.readInt());
+        Assert.assertEquals(1, in.readInt());
+        Assert.assertEquals(-1, in.readInt());
+        Assert.assertEquals(-1, in.readShort());
+        Assert.assertEquals(-1, in.read());
+    }
+
+    @Test
+    public void encodeBooleans() throws IOException {
+        Assert.assertEquals(true, decode(PostgreOid.BOOL, true));
+        Assert.assertEquals(false, decode(PostgreOid.BOOL, false));
+        Assert.assertEquals(true, decode(PostgreOid.BOOL, 1));
+        Assert.assertEquals(true, decode(PostgreOid.BOOL, "t"));
+        Assert.assertEquals(true, decode(PostgreOid.BOOL, "true"));
+        Assert.assertEquals(false, decode(PostgreOid.BOOL, "f"));
+    }
+
+    @Test
+    public void encodeIntegers() throws IOException {
+        Assert.assertEquals((short) -32768, decode(PostgreOid.INT2, Short.MIN_VALUE));
+        Assert.assertEquals((short) 32767, decode(PostgreOid.INT2, "32767"));
+        Assert.assertEquals(Integer.MIN_VALUE, decode(PostgreOid.INT4, (long) Integer.MIN_VALUE));
+        Assert.assertEquals(42, decode(PostgreOid.INT4, new BigDecimal("42.000")));
+        Assert.assertEquals(7, decode(PostgreOid.INT4, 7.0d));
+        Assert.assertEquals(1, decode(PostgreOid.INT4, true));
+        Assert.assertEquals(Long.MAX_VALUE, decode(PostgreOid.INT8, BigInteger.valueOf(Long.MAX_VALUE)));
+        Assert.assertEquals(-5L, decode(PostgreOid.INT8, " -5 "));
+        // OID is unsigned
+        Assert.assertEquals(0xFFFFFFFFL, decode(PostgreOid.OID, 0xFFFFFFFFL));
+    }
+
+    @Test
+    public void rejectIntegersOutOfRange() {
+        assertEncodingFails(PostgreOid.INT2, 32768);
+        assertEncodingFails(PostgreOid.INT2, -32769L);
+        assertEncodingFails(PostgreOid.INT4, Integer.MAX_VALUE + 1L);
+        assertEncodingFails(PostgreOid.INT4, new BigDecimal("1.5"));
+        assertEncodingFails(PostgreOid.INT4, 2.5d);
+        assertEncodingFails(PostgreOid.INT4, "abc");
+        assertEncodingFails(PostgreOid.INT8, BigInteger.ONE.shiftLeft(63));
+        assertEncodingFails(PostgreOid.INT8, 1e19d);
+        assertEncodingFails(PostgreOid.OID, -1);
+        assertEncodingFails(PostgreOid.OID, 0x100000000L);
+    }
+
+    @Test
+    public void encodeFloats() throws IOException {
+        Assert.assertEquals(1.5f, decode(PostgreOid.FLOAT4, 1.5f));
+        Assert.assertEquals(-0.25f, decode(PostgreOid.FLOAT4, "-0.25"));
+        Assert.assertEquals(Math.PI, decode(PostgreOid.FLOAT8, Math.PI));
+        Assert.assertEquals(Double.NaN, decode(PostgreOid.FLOAT8, Double.NaN));
+        Assert.assertEquals(1e300, decode(PostgreOid.FLOAT8, new BigDecimal("1e300")));
+    }
+
+    @Test
+    public void encodeNumerics() throws IOException {
+        String[] values = {
+            "0", "0.00", "1", "-1", "10000", "12345678.9", "-0.0001", "0.00001234", "123.4500",
+            "99999999999999999999999.999999999999", "1E+10", "-3.14159265358979323846"
+        };
+        for (String value : values) {
+            BigDecimal expected = new BigDecimal(value);
+            if (expected.scale() < 0) {
+                // Negative scale is sent as zero scale
+                expected = expected.setScale(0);
+            }
+            Assert.assertEquals(value, expected, decode(PostgreOid.NUMERIC, new BigDecimal(value)));
+        }
+        Assert.assertEquals(new BigDecimal("42"), decode(PostgreOid.NUMERIC, 42L));
+        Assert.assertEquals(new BigDecimal("0.5"), decode(PostgreOid.NUMERIC, 0.5d));
+        Assert.assertEquals(new BigDecimal("-7.25"), decode(PostgreOid.NUMERIC, " -7.25"));
+        Assert.assertEquals(new BigDecimal("123456789012345678901234567890"),
+            decode(PostgreOid.NUMERIC, new BigInteger("123456789012345678901234567890")));
+        Assert.assertEquals("NaN", decode(PostgreOid.NUMERIC, Double.NaN));
+    }
+
+    @Test
+    public void rejectInvalidNumerics() {
+        assertEncodingFails(PostgreOid.NUMERIC, Double.POSITIVE_INFINITY);
+        assertEncodingFails(PostgreOid.NUMERIC, Float.NEGATIVE_INFINITY);
+        assertEncodingFails(PostgreOid.NUMERIC, "not a number");
+    }
+
+    @Test
+    public void encodeStrings() throws IOException {
+        String text = "Text \"with\" quotes, commas\nand юникод";
+        Assert.assertEquals(text, decode(PostgreOid.TEXT, text));
+        Assert.assertEquals(text, decode(PostgreOid.VARCHAR, text));
+        Assert.assertEquals("abc ", decode(PostgreOid.BPCHAR, "abc "));
+        Assert.assertEquals("{\"a\": [1, 2]}", decode(PostgreOid.JSON, "{\"a\": [1, 2]}"));
+        Assert.assertEquals("{\"a\": [1, 2]}", decode(PostgreOid.JSONB, "{\"a\": [1, 2]}"));
+        Assert.assertEquals("", decode(PostgreOid.TEXT, ""));
+    }
+
+    @Test
+    public void encodeBinaries() throws IOException {
+        byte[] bytes = {0, 1, (byte) 0xFF, 127, -128};
+        Assert.assertArrayEquals(bytes, (byte[]) decode(PostgreOid.BYTEA, bytes));
+        Assert.assertArrayEquals(new byte[0], (byte[]) decode(PostgreOid.BYTEA, new byte[0]));
+
+        UUID uuid = UUID.fromString("123e4567-e89b-12d3-a456-426614174000");
+        Assert.assertEquals(uuid, decode(PostgreOid.UUID, uuid));
+        Assert.assertEquals(uuid, decode(PostgreOid.UUID, uuid.toString().toUpperCase()));
+        byte[] uuidBytes = new byte[16];
+        for (int i = 0; i < uuidBytes.length; i++) {
+            uuidBytes[i] = (byte) (i + 1);
+        }
+        Assert.assertEquals(UUID.fromString("01020304-0506-0708-090a-0b0c0d0e0f10"), decode(PostgreOid.UUID, uuidBytes));
+        assertEncodingFails(PostgreOid.UUID, "not-a-uuid");
+    }
+
+    @Test
+    public void encodeDatesAndTimes() throws IOException {
+        LocalDate date = LocalDate.of(2023, 9, 4);
+        Assert.assertEquals(date, decode(PostgreOid.DATE, date));
+        Assert.assertEquals(date, decode(PostgreOid.DATE, java.sql.Date.valueOf(date)));
+        Assert.assertEquals(date, decode(PostgreOid.DATE, "2023-09-04"));
+        // Dates before the PostgreSQL epoch
+        Assert.assertEquals(LocalDate.of(1969, 12, 31), decode(PostgreOid.DATE, LocalDate.of(1969, 12, 31)));
+
+        LocalTime time = LocalTime.of(23, 59, 58, 123456000);
+        Assert.assertEquals(time, decode(PostgreOid.TIME, time));
+        Assert.assertEquals(LocalTime.of(3, 4, 5), decode(PostgreOid.TIME, java.sql.Time.valueOf("03:04:05")));
+        Assert.assertEquals(time, decode(PostgreOid.TIME, "23:59:58.123456"));
+
+        LocalDateTime dateTime = LocalDateTime.of(1999, 12, 31, 23, 59, 59, 999999000);
+        Assert.assertEquals(dateTime, decode(PostgreOid.TIMESTAMP, dateTime));
+        Assert.assertEquals(dateTime, decode(PostgreOid.TIMESTAMP, Timestamp.valueOf(dateTime)));
+        Assert.assertEquals(dateTime, decode(PostgreOid.TIMESTAMP, "1999-12-31 23:59:59.999999"));
+        Assert.assertEquals(date.atStartOfDay(), decode(PostgreOid.TIMESTAMP, "2023-09-04"));
+        // Precision is microseconds
+        Assert.assertEquals(dateTime, decode(PostgreOid.TIMESTAMP, dateTime.plusNanos(999)));
+
+        Instant instant = Instant.parse("2023-09-04T10:15:30.123456Z");
+        Assert.assertEquals(instant, decode(PostgreOid.TIMESTAMPTZ, instant));
+        Assert.assertEquals(instant, decode(PostgreOid.TIMESTAMPTZ, OffsetDateTime.ofInstant(instant, ZoneOffset.ofHours(5))));
+        Assert.assertEquals(instant, decode(PostgreOid.TIMESTAMPTZ, "2023-09-04 13:15:30.123456+03:00"));
+        Assert.assertEquals(instant, decode(PostgreOid.TIMESTAMPTZ, Timestamp.from(instant)));
+    }
+
+    @Test
+    public void rejectInvalidDates() {
+        assertEncodingFails(PostgreOid.DATE, "2023-13-01");
+        assertEncodingFails(PostgreOid.TIMESTAMP, "yesterday");
+        assertEncodingFails(PostgreOid.TIMESTAMP, new Object());
+    }
+
+    @Test
+    public void checkSupportedTypes() {
+        Assert.assertTrue(PostgreCopyBinaryEncoder.isTypeSupported(PostgreOid.NUMERIC));
+        Assert.assertTrue(PostgreCopyBinaryEncoder.isTypeSupported(PostgreOid.TIMESTAMPTZ));
+        Assert.assertFalse(PostgreCopyBinaryEncoder.isTypeSupported(PostgreOid.INTERVAL));
+        Assert.assertFalse(PostgreCopyBinaryEncoder.isTypeSupported(PostgreOid.UNSPECIFIED));
+        Assert.assertTrue(PostgreCopyBinaryEncoder.isTextType(PostgreOid.JSONB));
+        Assert.assertFalse(PostgreCopyBinaryEncoder.isTextType(PostgreOid.BYTEA));
+        assertEncodingFails(PostgreOid.INTERVAL, "1 day");
+    }
+
+    private static void assertEncodingFails(long typeOid, @NotNull Object value) {
+        try {
+            encode(typeOid, value);
+            Assert.fail("Value '" + value + "' of type " + typeOid + " must not be encoded");
+        } catch (IOException | RuntimeException e) {
+            // Expected. Loader reports these errors as failures of the row
+        }
+    }
+
+    @NotNull
+    private static byte[] encode(long typeOid, @NotNull Object value) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        new PostgreCopyBinaryEncoder(buffer).writeValue(typeOid, value);
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Decodes value from its binary representation. Checks that value length matches its content.
+     */
+    @NotNull
+    private static Object decode(long typeOid, @NotNull Object value) throws IOException {
+        byte[] bytes = encode(typeOid, value);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        int length = in.readInt();
+        Assert.assertEquals("Value length", bytes.length - 4, length);
+        switch ((int) typeOid) {
+            case PostgreOid.BOOL:
+                return in.readByte() != 0;
+            case PostgreOid.INT2:
+                return in.readShort();
+            case PostgreOid.INT4:
+                return in.readInt();
+            case PostgreOid.OID:
+                return in.readInt() & 0xFFFFFFFFL;
+            case PostgreOid.INT8:
+                return in.readLong();
+            case PostgreOid.FLOAT4:
+                return in.readFloat();
+            case PostgreOid.FLOAT8:
+                return in.readDouble();
+            case PostgreOid.NUMERIC:
+                return readNumeric(in);
+            case PostgreOid.JSONB: {
+                Assert.assertEquals("jsonb version", 1, in.readByte());
+                return new String(bytes, 5, length - 1, StandardCharsets.UTF_8);
+            }
+            case PostgreOid.BYTEA:
+                return readBytes(in, length);
+            case PostgreOid.UUID:
+                return new UUID(in.readLong(), in.readLong());
+            case PostgreOid.DATE:
+                return PG_EPOCH.toLocalDate().plusDays(in.readInt());
+            case PostgreOid.TIME:
+                return LocalTime.ofNanoOfDay(in.readLong() * 1000);
+            case PostgreOid.TIMESTAMP:
+                return PG_EPOCH.plus(in.readLong(), ChronoUnit.MICROS);
+            case PostgreOid.TIMESTAMPTZ:
+                return PG_EPOCH.toInstant(ZoneOffset.UTC).plus(in.readLong(), ChronoUnit.MICROS);
+            default:
+                return new String(readBytes(in, length), StandardCharsets.UTF_8);
+        }
+    }
+
+    @NotNull
+    private static Object readNumeric(@NotNull DataInputStream in) throws IOException {
+        int digitCount = in.readShort();
+        int weight = in.readShort();
+        int sign = in.readShort() & 0xFFFF;
+        int scale = in.readShort();
+        if (sign == 0xC000) {
+            return "NaN";
+        }
+        BigDecimal result = BigDecimal.ZERO;
+        for (int i = 0; i < digitCount; i++) {
+            int digit = in.readShort();
+            Assert.assertTrue("Digit " + digit, digit >= 0 && digit < 10000);
+            result = result.add(BigDecimal.valueOf(digit).scaleByPowerOfTen(4 * (weight - i)));
+        }
+        if (sign == 0x4000) {
+            result = result.negate();
+        } else {
+            Assert.assertEquals("Numeric sign", 0, sign);
+        }
+        return result.setScale(scale);
+    }
+
+    @NotNull
+    private static byte[] readBytes(@NotNull DataInputStream in, int length) throws IOException {
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+}
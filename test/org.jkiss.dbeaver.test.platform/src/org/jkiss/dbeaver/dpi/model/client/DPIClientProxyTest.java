@@ -0,0 +1,311 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.dpi.model.client;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.dpi.model.DPIContext;
+import org.jkiss.dbeaver.dpi.model.DPIController;
+import org.jkiss.dbeaver.dpi.model.DPIMethodCall;
+import org.jkiss.dbeaver.dpi.model.DPISession;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.DPIClientObject;
+import org.jkiss.dbeaver.model.DPIObject;
+import org.jkiss.dbeaver.model.meta.Property;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class DPIClientProxyTest {
+
+    private DPIContext serverContext;
+    private DPIContext clientContext;
+    private TestController controller;
+
+    @Before
+    public void setUp() {
+        serverContext = new DPIContext(new VoidProgressMonitor(), this);
+        clientContext = new DPIContext(new VoidProgressMonitor(), this);
+        controller = new TestController(serverContext);
+        clientContext.setController(controller);
+    }
+
+    @Test
+    public void serializeProperties() {
+        JsonObject json = serverContext.getGson().toJsonTree(new TestObjectImpl("test"), TestObject.class).getAsJsonObject();
+
+        JsonObject properties = json.getAsJsonObject("properties");
+        Assert.assertEquals(Set.of("name"), properties.keySet());
+        Assert.assertEquals("test", properties.get("name").getAsString());
+        Assert.assertEquals(Set.of("description"), getNames(json, "nullProperties"));
+        // Lazy, complex and failed values are read by client
+        Assert.assertEquals(Set.of("lazyValue", "items", "broken"), getNames(json, "pendingProperties"));
+    }
+
+    @Test
+    public void readProperties() throws DBException {
+        TestObject object = createProxy(new TestObjectImpl("test"));
+
+        // Sent values are cached
+        Assert.assertEquals("test", object.getName());
+        Assert.assertNull(object.getDescription());
+        Assert.assertEquals(0, controller.callCount);
+
+        // Lazy values are read on demand
+        Assert.assertEquals("lazy test", object.getLazyValue(new VoidProgressMonitor()));
+        Assert.assertEquals("lazy test", object.getLazyValue(new VoidProgressMonitor()));
+        Assert.assertEquals(1, controller.callCount);
+
+        // Errors are not cached
+        for (int i = 0; i < 2; i++) {
+            try {
+                object.getBroken();
+                Assert.fail("Error expected");
+            } catch (DBException e) {
+                // Expected
+            }
+        }
+        Assert.assertEquals(3, controller.callCount);
+    }
+
+    @Test
+    public void prefetchPendingProperties() throws DBException {
+        TestObject object1 = createProxy(new TestObjectImpl("test1"));
+        TestObject object2 = createProxy(new TestObjectImpl("test2"));
+
+        DPIClientProxy.prefetchProperties(List.of(object1, object2, "not a proxy"), true);
+        Assert.assertEquals(1, controller.batchCount);
+        // Complex and failed properties of both objects, lazy properties are not prefetched
+        Assert.assertEquals(4, controller.callCount);
+
+        Assert.assertEquals(List.of("test1", "item"), object1.getItems());
+        Assert.assertEquals(List.of("test2", "item"), object2.getItems());
+        Assert.assertEquals(4, controller.callCount);
+
+        // Nothing is pending anymore, failed values are not requested again
+        DPIClientProxy.prefetchProperties(List.of(object1, object2), true);
+        Assert.assertEquals(1, controller.batchCount);
+
+        // Lazy values are prefetched on request, along with values which are not cached
+        DPIClientProxy.prefetchProperties(List.of(object1, object2), false);
+        Assert.assertEquals(2, controller.batchCount);
+        Assert.assertEquals(8, controller.callCount);
+        Assert.assertEquals("lazy test1", object1.getLazyValue(new VoidProgressMonitor()));
+        Assert.assertEquals("lazy test2", object2.getLazyValue(new VoidProgressMonitor()));
+        Assert.assertEquals(8, controller.callCount);
+    }
+
+    @Test
+    public void executeCallBatch() throws DBException {
+        TestObject object = createProxy(new TestObjectImpl("test"));
+
+        List<Object> results = new ArrayList<>();
+        DPICallBatch batch = new DPICallBatch(clientContext);
+        batch.addCall((DPIClientObject) object, "getName", null, String.class, results::add);
+        batch.addCall((DPIClientObject) object, "getBroken", null, String.class, results::add);
+        batch.addCall((DPIClientObject) object, "getLazyValue", new Object[0], String.class, results::add);
+        batch.addCall((DPIClientObject) object, "getItems", null, List.class, results::add);
+        Assert.assertEquals(4, batch.size());
+        batch.execute();
+
+        Assert.assertEquals(1, controller.batchCount);
+        // Failed call is skipped, other results are handled in the call order
+        Assert.assertEquals(List.of("test", "lazy test", List.of("test", "item")), results);
+        Assert.assertEquals(0, batch.size());
+
+        batch.execute();
+        Assert.assertEquals(1, controller.batchCount);
+    }
+
+    @Test
+    public void executeCalls() {
+        TestObjectImpl object = new TestObjectImpl("test");
+        String objectId = serverContext.getOrCreateObjectId(object);
+
+        JsonArray results = DPIMethodCall.executeCalls(controller, serverContext.getGson(), List.of(
+            new DPIMethodCall(objectId, "getName", null),
+            new DPIMethodCall(objectId, "getBroken", null),
+            new DPIMethodCall("unknown", "getName", null),
+            new DPIMethodCall(objectId, "getDescription", null)));
+
+        Assert.assertEquals(4, results.size());
+        Assert.assertEquals("test", results.get(0).getAsJsonObject().get(DPIController.ATTR_RESULT).getAsString());
+        Assert.assertTrue(results.get(1).getAsJsonObject().has(DPIController.ATTR_ERROR));
+        Assert.assertTrue(results.get(2).getAsJsonObject().has(DPIController.ATTR_ERROR));
+        Assert.assertTrue(results.get(3).getAsJsonObject().get(DPIController.ATTR_RESULT).isJsonNull());
+    }
+
+    @NotNull
+    private TestObject createProxy(@NotNull TestObjectImpl object) {
+        JsonElement json = serverContext.getGson().toJsonTree(object, TestObject.class);
+        return clientContext.getGson().fromJson(json, TestObject.class);
+    }
+
+    @NotNull
+    private static Set<String> getNames(@NotNull JsonObject json, @NotNull String attrName) {
+        Set<String> names = new HashSet<>();
+        for (JsonElement name : json.getAsJsonArray(attrName)) {
+            names.add(name.getAsString());
+        }
+        return names;
+    }
+
+    @DPIObject
+    public interface TestObject {
+        @Property
+        String getName();
+
+        @Property
+        String getDescription();
+
+        @Property
+        String getLazyValue(DBRProgressMonitor monitor);
+
+        @Property
+        List<String> getItems();
+
+        @Property
+        String getBroken() throws DBException;
+    }
+
+    public static class TestObjectImpl implements TestObject {
+        private final String name;
+
+        TestObjectImpl(String name) {
+            this.name = name;
+        }
+
+        @Property
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Property
+        @Override
+        public String getDescription() {
+            return null;
+        }
+
+        @Property
+        @Override
+        public String getLazyValue(DBRProgressMonitor monitor) {
+            return "lazy " + name;
+        }
+
+        @Property
+        @Override
+        public List<String> getItems() {
+            return List.of(name, "item");
+        }
+
+        @Property
+        @Override
+        public String getBroken() throws DBException {
+            throw new DBException("Property read error");
+        }
+    }
+
+    /**
+     * Calls methods of server context objects directly, without REST transport
+     */
+    private static class TestController implements DPIController {
+        private final DPIContext context;
+        private int callCount;
+        private int batchCount;
+
+        TestController(@NotNull DPIContext context) {
+            this.context = context;
+        }
+
+        @Override
+        public String ping() {
+            return "pong";
+        }
+
+        @Override
+        public DPISession openSession(String projectId) throws DBException {
+            throw new DBException("Not supported");
+        }
+
+        @NotNull
+        @Override
+        public DBPDataSource openDataSource(
+            @NotNull String session,
+            String projectId,
+            @NotNull String container,
+            @Nullable Map<String, String> credentials
+        ) throws DBException {
+            throw new DBException("Not supported");
+        }
+
+        @Override
+        public void closeSession(@NotNull String sessionId) {
+        }
+
+        @Override
+        public Object callMethod(@NotNull String objectId, @NotNull String method, @Nullable Object[] args) throws DBException {
+            callCount++;
+            Object object = context.getObject(objectId);
+            if (object == null) {
+                throw new DBException("DPI object '" + objectId + "' not found");
+            }
+            for (Method objMethod : object.getClass().getMethods()) {
+                if (!objMethod.getName().equals(method)) {
+                    continue;
+                }
+                Class<?>[] argTypes = objMethod.getParameterTypes();
+                try {
+                    if (argTypes.length == 1 && argTypes[0] == DBRProgressMonitor.class) {
+                        return objMethod.invoke(object, context.getProgressMonitor());
+                    }
+                    return objMethod.invoke(object, args == null ? new Object[0] : args);
+                } catch (InvocationTargetException e) {
+                    throw new DBException("Error invoking DPI method", e.getTargetException());
+                } catch (Exception e) {
+                    throw new DBException("Error invoking DPI method", e);
+                }
+            }
+            throw new DBException("Method '" + method + "' not found in DPI object '" + objectId + "'");
+        }
+
+        @NotNull
+        @Override
+        public JsonArray callMethods(@NotNull List<DPIMethodCall> calls) {
+            batchCount++;
+            return DPIMethodCall.executeCalls(this, context.getGson(), calls);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
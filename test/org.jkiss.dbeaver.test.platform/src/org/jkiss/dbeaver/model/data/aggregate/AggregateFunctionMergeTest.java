@@ -0,0 +1,109 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.data.aggregate;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+public class AggregateFunctionMergeTest {
+
+    private static final int VALUE_COUNT = 10_000;
+    private static final int CHUNK_SIZE = 777;
+
+    @Test
+    public void mergedResultsAreSameAsSequential() {
+        List<Object> values = generateValues();
+        assertMergeable(FunctionCount::new, values);
+        assertMergeable(FunctionCountNulls::new, values);
+        assertMergeable(FunctionCountDistinct::new, values);
+        assertMergeable(FunctionSum::new, values);
+        assertMergeable(FunctionAvg::new, values);
+        assertMergeable(FunctionMin::new, values);
+        assertMergeable(FunctionMax::new, values);
+        assertMergeable(FunctionMedian::new, values);
+        assertMergeable(FunctionMode::new, values);
+        assertMergeable(FunctionCountDistinctApprox::new, values);
+    }
+
+    @Test
+    public void modeReturnsFirstMostFrequentValue() {
+        FunctionMode mode = new FunctionMode();
+        for (Object value : List.of("b", "a", "a", "b", "c")) {
+            mode.accumulate(value, true);
+        }
+        Assert.assertEquals("b", mode.getResult(5));
+    }
+
+    @Test
+    public void approximateFunctionsAreMergeable() {
+        List<Object> values = generateValues();
+        FunctionMedianApprox sequential = new FunctionMedianApprox();
+        int count = 0;
+        for (Object value : values) {
+            if (sequential.accumulate(value, false)) {
+                count++;
+            }
+        }
+        FunctionMedianApprox merged = (FunctionMedianApprox) accumulateInChunks(FunctionMedianApprox::new, values);
+        double expected = (Double) sequential.getResult(count);
+        double actual = (Double) merged.getResult(count);
+        Assert.assertEquals(expected, actual, 2.0);
+    }
+
+    private static void assertMergeable(Supplier<IAggregateFunction> factory, List<Object> values) {
+        IAggregateFunction sequential = factory.get();
+        Assert.assertTrue(sequential.isMergeable());
+        int count = 0;
+        for (Object value : values) {
+            if (sequential.accumulate(value, false)) {
+                count++;
+            }
+        }
+        IAggregateFunction merged = accumulateInChunks(factory, values);
+        Assert.assertEquals(
+            sequential.getClass().getSimpleName(),
+            sequential.getResult(count),
+            merged.getResult(count));
+    }
+
+    private static IAggregateFunction accumulateInChunks(Supplier<IAggregateFunction> factory, List<Object> values) {
+        IAggregateFunction total = factory.get();
+        for (int i = 0; i < values.size(); i += CHUNK_SIZE) {
+            IAggregateFunction chunk = factory.get();
+            for (Object value : values.subList(i, Math.min(values.size(), i + CHUNK_SIZE))) {
+                chunk.accumulate(value, false);
+            }
+            total.merge(chunk);
+        }
+        return total;
+    }
+
+    private static List<Object> generateValues() {
+        Random random = new Random(1);
+        List<Object> values = new ArrayList<>();
+        for (int i = 0; i < VALUE_COUNT; i++) {
+            // Integers keep sums exact regardless of the summation order
+            values.add(random.nextInt(10) == 0 ? null : random.nextInt(100));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.data.aggregate;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class AggregateSketchesTest {
+
+    @Test
+    public void digestOfSmallSetIsExact() {
+        TDigest digest = new TDigest();
+        for (int i = 10; i >= 1; i--) {
+            digest.add(i);
+        }
+        Assert.assertEquals(5.5, digest.getQuantile(0.5), 0);
+        Assert.assertEquals(1, digest.getQuantile(0), 0);
+        Assert.assertEquals(10, digest.getQuantile(1), 0);
+    }
+
+    @Test
+    public void digestQuantilesAreAccurate() {
+        int count = 1_000_000;
+        Random random = new Random(1);
+        double[] values = new double[count];
+        TDigest digest = new TDigest();
+        TDigest[] parts = new TDigest[8];
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = new TDigest();
+        }
+        for (int i = 0; i < count; i++) {
+            values[i] = random.nextGaussian() * 100;
+            digest.add(values[i]);
+            parts[i % parts.length].add(values[i]);
+        }
+        TDigest merged = new TDigest();
+        for (TDigest part : parts) {
+            merged.merge(part);
+        }
+        Arrays.sort(values);
+        Assert.assertEquals(count, merged.getCount());
+        // Check rank error of estimated values
+        for (double q : new double[] {0.01, 0.1, 0.5, 0.9, 0.99}) {
+            Assert.assertEquals("Quantile " + q, q, getRank(values, digest.getQuantile(q)), 0.001);
+            Assert.assertEquals("Merged quantile " + q, q, getRank(values, merged.getQuantile(q)), 0.001);
+        }
+    }
+
+    private static double getRank(double[] sortedValues, double value) {
+        int index = Arrays.binarySearch(sortedValues, value);
+        return (double) (index < 0 ? -index - 1 : index) / sortedValues.length;
+    }
+
+    @Test
+    public void hyperLogLogEstimateIsAccurate() {
+        for (int distinctCount : new int[] {0, 1, 100, 10_000, 1_000_000}) {
+            HyperLogLog estimator = new HyperLogLog();
+            HyperLogLog part1 = new HyperLogLog();
+            HyperLogLog part2 = new HyperLogLog();
+            for (int i = 0; i < distinctCount; i++) {
+                String value = "value" + i;
+                // Each value is added twice
+                estimator.add(value);
+                estimator.add(value);
+                (i % 2 == 0 ? part1 : part2).add(value);
+            }
+            part1.merge(part2);
+            Assert.assertEquals(estimator.getEstimate(), part1.getEstimate());
+            Assert.assertEquals(distinctCount, estimator.getEstimate(), distinctCount * 0.03 + 1);
+        }
+    }
+}
@@ -0,0 +1,325 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.impl.jdbc.cache;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.DBPDataSourceContainer;
+import org.jkiss.dbeaver.model.app.DBPProject;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCPreparedStatement;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCResultSet;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCStatement;
+import org.jkiss.dbeaver.model.impl.jdbc.JDBCDataSource;
+import org.jkiss.dbeaver.model.impl.jdbc.exec.JDBCFactoryDefault;
+import org.jkiss.dbeaver.model.impl.sql.BasicSQLDialect;
+import org.jkiss.dbeaver.model.struct.DBSObject;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+
+public class JDBCMetadataSnapshotTest {
+
+    private static final String QUERY = "select name, id, created, flag, extra from test_objects";
+    private static final Timestamp CREATED = Timestamp.valueOf("2023-01-02 03:04:05.123456789");
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private JDBCDataSource dataSource;
+    private JDBCSession session;
+    private DBSObject owner;
+
+    @Before
+    public void init() throws Exception {
+        DBPProject project = Mockito.mock(DBPProject.class);
+        Mockito.when(project.getMetadataFolder(false)).thenReturn(tempFolder.getRoot().toPath());
+        DBPDataSourceContainer container = Mockito.mock(DBPDataSourceContainer.class);
+        Mockito.when(container.getId()).thenReturn("test-connection");
+        Mockito.when(container.getName()).thenReturn("Test connection");
+        Mockito.when(container.getProject()).thenReturn(project);
+        dataSource = Mockito.mock(JDBCDataSource.class);
+        Mockito.when(dataSource.getContainer()).thenReturn(container);
+        Mockito.when(dataSource.getSQLDialect()).thenReturn(BasicSQLDialect.INSTANCE);
+        session = Mockito.mock(JDBCSession.class);
+        Mockito.when(session.getDataSource()).thenReturn(dataSource);
+        owner = Mockito.mock(DBSObject.class);
+        Mockito.when(owner.getName()).thenReturn("test_schema");
+        Mockito.when(owner.isPersisted()).thenReturn(true);
+    }
+
+    @Test
+    public void replaySavedResults() throws Exception {
+        JDBCMetadataSnapshot snapshot = openSnapshot();
+        JDBCStatement liveStatement = createStatement(QUERY, createLiveResultSet(false));
+        try (JDBCResultSet dbResult = executeStatement(liveStatement)) {
+            readResults(dbResult);
+        }
+        Mockito.verify(liveStatement).executeStatement();
+        snapshot.save();
+
+        // Saved results are read from the snapshot file after reconnect
+        openSnapshot();
+        JDBCStatement replayStatement = createStatement(QUERY, null);
+        try (JDBCResultSet dbResult = executeStatement(replayStatement)) {
+            readResults(dbResult);
+        }
+        Mockito.verify(replayStatement, Mockito.never()).executeStatement();
+
+        // Entry is served only once per connection
+        JDBCStatement secondStatement = createStatement(QUERY, createLiveResultSet(false));
+        try (JDBCResultSet dbResult = executeStatement(secondStatement)) {
+            readResults(dbResult);
+        }
+        Mockito.verify(secondStatement).executeStatement();
+    }
+
+    @Test
+    public void replayColumnValues() throws Exception {
+        saveSnapshot(createLiveResultSet(false));
+
+        openSnapshot();
+        try (JDBCResultSet dbResult = executeStatement(createStatement(QUERY, null))) {
+            Assert.assertTrue(dbResult.next());
+            Assert.assertEquals("a", dbResult.getObject(1));
+            Assert.assertEquals(1, dbResult.getObject("ID"));
+            Assert.assertEquals(1L, dbResult.getLong("id"));
+            Assert.assertEquals("1", dbResult.getString(2));
+            Assert.assertEquals(CREATED, dbResult.getTimestamp("CREATED"));
+            // String representation of the driver is kept
+            Assert.assertEquals(Boolean.TRUE, dbResult.getObject("FLAG"));
+            Assert.assertEquals("t", dbResult.getString("FLAG"));
+            Assert.assertTrue(dbResult.getBoolean("FLAG"));
+            // Value which can't be read as object is replayed as string
+            Assert.assertEquals("x", dbResult.getString("EXTRA"));
+
+            Assert.assertTrue(dbResult.next());
+            Assert.assertEquals(0, dbResult.getInt("ID"));
+            Assert.assertTrue(dbResult.wasNull());
+            Assert.assertNull(dbResult.getTimestamp("CREATED"));
+            Assert.assertTrue(dbResult.wasNull());
+            Assert.assertEquals("f", dbResult.getString("FLAG"));
+            Assert.assertFalse(dbResult.getBoolean("FLAG"));
+
+            Assert.assertFalse(dbResult.next());
+        }
+    }
+
+    @Test
+    public void replayUnsupportedAccess() throws Exception {
+        saveSnapshot(createLiveResultSet(false));
+
+        openSnapshot();
+        try (JDBCResultSet dbResult = executeStatement(createStatement(QUERY, null))) {
+            Assert.assertTrue(dbResult.next());
+            try {
+                dbResult.getString("UNKNOWN");
+                Assert.fail("Unknown column must fail");
+            } catch (SQLException e) {
+                // Expected
+            }
+            try {
+                dbResult.getArray(1);
+                Assert.fail("Arrays can't be replayed");
+            } catch (SQLException e) {
+                // Expected
+            }
+        }
+    }
+
+    @Test
+    public void dropChangedQueries() throws Exception {
+        saveSnapshot(createLiveResultSet(false));
+
+        openSnapshot();
+        JDBCStatement dbStat = createStatement(QUERY + " where 1=1", createLiveResultSet(false));
+        try (JDBCResultSet dbResult = executeStatement(dbStat)) {
+            readResults(dbResult);
+        }
+        Mockito.verify(dbStat).executeStatement();
+    }
+
+    @Test
+    public void skipUnreadableResults() throws Exception {
+        // Value of the last column can't be read at all, so results aren't saved
+        saveSnapshot(createLiveResultSet(true));
+
+        openSnapshot();
+        JDBCStatement dbStat = createStatement(QUERY, createLiveResultSet(false));
+        try (JDBCResultSet dbResult = executeStatement(dbStat)) {
+            readResults(dbResult);
+        }
+        Mockito.verify(dbStat).executeStatement();
+    }
+
+    @Test
+    public void skipPartiallyReadResults() throws Exception {
+        JDBCMetadataSnapshot snapshot = openSnapshot();
+        try (JDBCResultSet dbResult = executeStatement(createStatement(QUERY, createLiveResultSet(false)))) {
+            Assert.assertTrue(dbResult.next());
+        }
+        snapshot.save();
+
+        openSnapshot();
+        JDBCStatement dbStat = createStatement(QUERY, createLiveResultSet(false));
+        try (JDBCResultSet dbResult = executeStatement(dbStat)) {
+            readResults(dbResult);
+        }
+        Mockito.verify(dbStat).executeStatement();
+    }
+
+    @Test
+    public void keyByBoundParameters() throws Exception {
+        JDBCMetadataSnapshot snapshot = openSnapshot();
+        try (JDBCResultSet dbResult = executeStatement(createPreparedStatement("a", createLiveResultSet(false)))) {
+            readResults(dbResult);
+        }
+        snapshot.save();
+
+        openSnapshot();
+        // Results of other parameter values are not replayed
+        JDBCStatement otherStatement = createPreparedStatement("b", createLiveResultSet(false));
+        try (JDBCResultSet dbResult = executeStatement(otherStatement)) {
+            readResults(dbResult);
+        }
+        Mockito.verify(otherStatement).executeStatement();
+
+        JDBCStatement replayStatement = createPreparedStatement("a", null);
+        try (JDBCResultSet dbResult = executeStatement(replayStatement)) {
+            readResults(dbResult);
+        }
+        Mockito.verify(replayStatement, Mockito.never()).executeStatement();
+    }
+
+    @Test
+    public void skipUnknownParameters() throws Exception {
+        JDBCMetadataSnapshot snapshot = openSnapshot();
+        // Parameters of driver specific statements can't be read
+        JDBCPreparedStatement liveStatement = Mockito.mock(JDBCPreparedStatement.class);
+        Mockito.when(liveStatement.getQueryString()).thenReturn(QUERY);
+        Mockito.when(liveStatement.executeStatement()).thenReturn(true);
+        Mockito.when(liveStatement.getResultSet()).thenReturn(createLiveResultSet(false));
+        try (JDBCResultSet dbResult = executeStatement(liveStatement)) {
+            readResults(dbResult);
+        }
+        snapshot.save();
+
+        openSnapshot();
+        JDBCStatement dbStat = createPreparedStatement("a", createLiveResultSet(false));
+        try (JDBCResultSet dbResult = executeStatement(dbStat)) {
+            readResults(dbResult);
+        }
+        Mockito.verify(dbStat).executeStatement();
+    }
+
+    @NotNull
+    private JDBCMetadataSnapshot openSnapshot() {
+        JDBCMetadataSnapshot snapshot = new JDBCMetadataSnapshot(dataSource);
+        Mockito.when(dataSource.getMetadataSnapshot()).thenReturn(snapshot);
+        return snapshot;
+    }
+
+    private void saveSnapshot(@NotNull JDBCResultSet liveResultSet) throws Exception {
+        JDBCMetadataSnapshot snapshot = openSnapshot();
+        try (JDBCResultSet dbResult = executeStatement(createStatement(QUERY, liveResultSet))) {
+            while (dbResult.next()) {
+                dbResult.getString("EXTRA");
+            }
+        }
+        snapshot.save();
+    }
+
+    private JDBCResultSet executeStatement(@NotNull JDBCStatement dbStat) throws SQLException {
+        return JDBCMetadataSnapshot.executeStatement(session, dbStat, this, "objects", owner, null, s -> dbStat);
+    }
+
+    private static void readResults(@NotNull JDBCResultSet dbResult) throws SQLException {
+        Assert.assertTrue(dbResult.next());
+        Assert.assertEquals("a", dbResult.getString("NAME"));
+        Assert.assertEquals(1, dbResult.getInt("ID"));
+        Assert.assertTrue(dbResult.next());
+        Assert.assertEquals("b", dbResult.getString("NAME"));
+        Assert.assertFalse(dbResult.next());
+    }
+
+    @NotNull
+    private static JDBCStatement createStatement(@NotNull String query, JDBCResultSet resultSet) throws DBException {
+        JDBCStatement dbStat = Mockito.mock(JDBCStatement.class);
+        Mockito.when(dbStat.getQueryString()).thenReturn(query);
+        Mockito.when(dbStat.executeStatement()).thenReturn(resultSet != null);
+        Mockito.when(dbStat.getResultSet()).thenReturn(resultSet);
+        return dbStat;
+    }
+
+    /**
+     * Creates prepared statement with the bound parameter. Snapshot must be opened before, as parameters
+     * are kept only by statements of data sources with snapshot.
+     */
+    @NotNull
+    private JDBCStatement createPreparedStatement(@NotNull String parameter, JDBCResultSet resultSet) throws Exception {
+        JDBCStatement dbStat = Mockito.spy(new JDBCFactoryDefault().createPreparedStatement(
+            session, Mockito.mock(PreparedStatement.class), QUERY + " where schema_name=?", true));
+        ((JDBCPreparedStatement) dbStat).setString(1, parameter);
+        Mockito.doReturn(resultSet != null).when(dbStat).executeStatement();
+        Mockito.doReturn(resultSet).when(dbStat).getResultSet();
+        return dbStat;
+    }
+
+    /**
+     * Creates result set with two rows. Values of the EXTRA column can be read only as strings
+     * or can't be read at all if unreadable is true.
+     */
+    @NotNull
+    private static JDBCResultSet createLiveResultSet(boolean unreadable) throws SQLException {
+        ResultSetMetaData metaData = Mockito.mock(ResultSetMetaData.class);
+        String[] labels = {"NAME", "ID", "CREATED", "FLAG", "EXTRA"};
+        int[] types = {Types.VARCHAR, Types.INTEGER, Types.TIMESTAMP, Types.BOOLEAN, Types.OTHER};
+        Mockito.when(metaData.getColumnCount()).thenReturn(labels.length);
+        for (int i = 0; i < labels.length; i++) {
+            Mockito.when(metaData.getColumnLabel(i + 1)).thenReturn(labels[i]);
+            Mockito.when(metaData.getColumnName(i + 1)).thenReturn(labels[i].toLowerCase());
+            Mockito.when(metaData.getColumnType(i + 1)).thenReturn(types[i]);
+        }
+
+        JDBCResultSet resultSet = Mockito.mock(JDBCResultSet.class);
+        Mockito.when(resultSet.getMetaData()).thenReturn(metaData);
+        Mockito.when(resultSet.next()).thenReturn(true, true, false);
+        Mockito.when(resultSet.getObject(1)).thenReturn("a", "b");
+        Mockito.when(resultSet.getObject(2)).thenReturn(1, null);
+        Mockito.when(resultSet.getString(2)).thenReturn("1", (String) null);
+        Mockito.when(resultSet.getObject(3)).thenReturn(CREATED, null);
+        Mockito.when(resultSet.getString(3)).thenReturn(CREATED.toString(), (String) null);
+        Mockito.when(resultSet.getObject(4)).thenReturn(true, false);
+        Mockito.when(resultSet.getString(4)).thenReturn("t", "f");
+        Mockito.when(resultSet.getObject(5)).thenThrow(new SQLException("Unsupported type"));
+        if (unreadable) {
+            Mockito.when(resultSet.getString(5)).thenThrow(new SQLException("Unsupported type"));
+        } else {
+            Mockito.when(resultSet.getString(5)).thenReturn("x", "y");
+        }
+        return resultSet;
+    }
+}
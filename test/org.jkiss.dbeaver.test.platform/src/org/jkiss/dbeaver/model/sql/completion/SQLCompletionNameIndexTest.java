@@ -0,0 +1,91 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.sql.completion;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class SQLCompletionNameIndexTest {
+
+    private static final int LARGE_INDEX_SIZE = 1_000_000;
+
+    private static SQLCompletionNameIndex<String> createIndex(String... names) {
+        SQLCompletionNameIndex.Builder<String> builder = new SQLCompletionNameIndex.Builder<>();
+        for (String name : names) {
+            builder.add(name, name);
+        }
+        return builder.build();
+    }
+
+    @Test
+    public void findExact() {
+        SQLCompletionNameIndex<String> index = createIndex("orders", "ORDERS", "order_items", "customers");
+        Assert.assertEquals(List.of("orders", "ORDERS"), index.findExact("Orders", null));
+        Assert.assertEquals(List.of("ORDERS"), index.findExact("orders", "ORDERS"::equals));
+        Assert.assertTrue(index.findExact("order", null).isEmpty());
+    }
+
+    @Test
+    public void findByPrefix() {
+        SQLCompletionNameIndex<String> index = createIndex("payments", "orders", "order_items", "customers", "ord");
+        Assert.assertEquals(List.of("ord", "order_items", "orders"), index.find("ORD", false, 10, null));
+        Assert.assertEquals(List.of("ord", "order_items"), index.find("ord", false, 2, null));
+        Assert.assertEquals(List.of("order_items", "orders"), index.find("ord", false, 10, name -> name.length() > 3));
+        Assert.assertEquals(5, index.find("", false, 10, null).size());
+    }
+
+    @Test
+    public void findByInitials() {
+        SQLCompletionNameIndex<String> index = createIndex("customer_order_items", "CustomerOrders", "coins", "category");
+        // Prefix matches go first, then initials matches, then fuzzy matches
+        Assert.assertEquals(List.of("coins", "CustomerOrders", "customer_order_items", "category"), index.find("co", false, 10, null));
+        Assert.assertEquals(List.of("coins", "customer_order_items"), index.find("coi", false, 10, null));
+        // Words are separated by underscores, case changes and digits
+        Assert.assertEquals(List.of("table2", "t_a2"), createIndex("t_a2", "table2").find("t2", false, 10, null));
+        // Single word names have no initials
+        Assert.assertEquals(List.of("CustomerTypes", "category"), createIndex("category", "CustomerTypes").find("ct", false, 10, null));
+    }
+
+    @Test
+    public void findFuzzy() {
+        SQLCompletionNameIndex<String> index = createIndex("customer_address", "customers", "addresses", "spot", "product_stock");
+        // Equal scores are ordered by name
+        Assert.assertEquals(List.of("customer_address", "customers"), index.find("cstm", false, 10, null));
+        Assert.assertEquals(List.of("addresses", "customer_address"), index.find("addr", true, 10, null));
+        Assert.assertTrue(index.find("xyz", true, 10, null).isEmpty());
+        // Consecutive matches and word starts score higher
+        Assert.assertEquals(List.of("product_stock", "customer_address", "customers", "spot"), index.find("st", false, 10, null));
+    }
+
+    @Test
+    public void queryLargeIndex() {
+        SQLCompletionNameIndex.Builder<Integer> builder = new SQLCompletionNameIndex.Builder<>();
+        for (int i = 0; i < LARGE_INDEX_SIZE; i++) {
+            builder.add("table_" + (i % 1000) + "_column_" + i, i);
+        }
+        SQLCompletionNameIndex<Integer> index = builder.build();
+        Assert.assertEquals(LARGE_INDEX_SIZE, index.size());
+
+        Assert.assertEquals(100, index.find("table_12_", false, 100, null).size());
+        Assert.assertEquals(List.of(123456), index.findExact("TABLE_456_COLUMN_123456", null));
+        Assert.assertEquals(List.of(777777), index.find("777777", true, 100, null));
+        Assert.assertEquals(100, index.find("colmn9", false, 100, null).size());
+        Assert.assertTrue(index.find("qqq", false, 100, null).isEmpty());
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.sql.completion.hippie;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentListener;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+public class HippieWordIndexTest {
+
+    @Test
+    public void findDocumentWords() {
+        HippieWordIndex index = new HippieWordIndex(HippieWordIndex.MAX_INDEXED_WORDS);
+        IDocument document = new Document("select customer_id, customer_name from customers c where c.customer_id > 0");
+        // The most frequent words first
+        Assert.assertEquals(List.of("customer_id", "customer_name", "customers"), index.getCompletions(document, "cust", 10));
+        Assert.assertEquals(List.of("customer_id"), index.getCompletions(document, "cust", 1));
+        // Word which is equal to the prefix is not a completion
+        Assert.assertTrue(index.getCompletions(document, "customers", 10).isEmpty());
+        Assert.assertTrue(index.getCompletions(document, "Cust", 10).isEmpty());
+
+        // Words of documents which weren't opened are not kept in the index
+        Assert.assertTrue(index.getCompletions(new Document("select 1"), "cust", 10).isEmpty());
+    }
+
+    @Test
+    public void updateDocumentWords() throws BadLocationException {
+        HippieWordIndex index = new HippieWordIndex(HippieWordIndex.MAX_INDEXED_WORDS);
+        IDocument document = new Document("select customer_id from customers");
+        index.openDocument(document);
+        Assert.assertTrue(index.indexOpenDocuments());
+        Assert.assertEquals(List.of("customer_id", "customers"), index.getCompletions(document, "cust", 10));
+
+        // Replace part of the word
+        document.replace(document.get().indexOf("customers") + 4, 5, "_orders");
+        Assert.assertEquals(List.of("cust_orders", "customer_id"), index.getCompletions(document, "cust", 10));
+        Assert.assertEquals(List.of("cust_orders"), index.getCompletions(document, "cust_", 10));
+
+        // Type a new word char by char, recently typed words go first
+        document.replace(document.getLength(), 0, " ");
+        for (char c : "customer_zip".toCharArray()) {
+            document.replace(document.getLength(), 0, String.valueOf(c));
+        }
+        Assert.assertEquals(List.of("customer_zip", "cust_orders", "customer_id"), index.getCompletions(document, "cust", 10));
+
+        document.set("select 1");
+        Assert.assertTrue(index.getCompletions(document, "cust", 10).isEmpty());
+
+        // Closed document isn't tracked anymore, but its words are still completed in other documents
+        document.set("select customer_id from customers");
+        index.closeDocument(document);
+        document.set("select 1");
+        Assert.assertEquals(List.of("customer_id", "customers"), index.getCompletions(new Document(), "cust", 10));
+    }
+
+    @Test
+    public void findWordsOfOtherDocuments() {
+        HippieWordIndex index = new HippieWordIndex(HippieWordIndex.MAX_INDEXED_WORDS);
+        IDocument document = new Document("select order_id from orders");
+        IDocument otherDocument = new Document("select * from order_items, orders");
+        index.openDocument(otherDocument);
+        // Open documents are scanned on the first completion request
+        Assert.assertEquals(List.of("order_id", "orders"), index.getCompletions(document, "ord", 10));
+        Assert.assertTrue(index.indexOpenDocuments());
+        // Words of the current document go first
+        Assert.assertEquals(List.of("order_id", "orders", "order_items"), index.getCompletions(document, "ord", 10));
+
+        index.closeDocument(otherDocument);
+        Assert.assertEquals(List.of("order_id", "orders", "order_items"), index.getCompletions(document, "ord", 10));
+    }
+
+    @Test
+    public void evictClosedDocuments() {
+        HippieWordIndex index = new HippieWordIndex(12);
+        IDocument document = new Document("select order_id from orders");
+        IDocument closedDocument1 = new Document("select item_id from items");
+        IDocument closedDocument2 = new Document("select invoice_id from invoices");
+        index.openDocument(document);
+        index.openDocument(closedDocument1);
+        index.openDocument(closedDocument2);
+        Assert.assertTrue(index.indexOpenDocuments());
+        index.closeDocument(closedDocument1);
+        index.closeDocument(closedDocument2);
+        Assert.assertEquals(List.of("item_id", "items"), index.getCompletions(document, "it", 10));
+
+        // Closed documents are evicted when the index is full, the oldest first
+        index.openDocument(new Document("select customer_id from customers"));
+        Assert.assertTrue(index.indexOpenDocuments());
+        Assert.assertTrue(index.getCompletions(document, "it", 10).isEmpty());
+        Assert.assertEquals(List.of("invoice_id", "invoices"), index.getCompletions(document, "inv", 10));
+    }
+
+    @Test
+    public void shareDocumentBetweenOwners() throws BadLocationException {
+        HippieWordIndex index = new HippieWordIndex(HippieWordIndex.MAX_INDEXED_WORDS);
+        IDocument document = new Document("select order_id from orders");
+        index.openDocument(document);
+        index.openDocument(document);
+        Assert.assertTrue(index.indexOpenDocuments());
+
+        // Document is tracked until its last owner closes it
+        index.closeDocument(document);
+        document.replace(0, document.getLength(), "select invoice_id from invoices");
+        Assert.assertEquals(List.of("invoice_id", "invoices"), index.getCompletions(new Document(), "inv", 10));
+        Assert.assertTrue(index.getCompletions(new Document(), "ord", 10).isEmpty());
+
+        index.closeDocument(document);
+        document.set("select 1");
+        Assert.assertEquals(List.of("invoice_id", "invoices"), index.getCompletions(new Document(), "inv", 10));
+    }
+
+    @Test
+    public void scanChangesMadeBeforeScan() throws BadLocationException {
+        HippieWordIndex index = new HippieWordIndex(HippieWordIndex.MAX_INDEXED_WORDS);
+        IDocument document = new Document("select order_id from orders");
+        index.openDocument(document);
+        // Text copy of the document is updated until the scan
+        document.replace(document.get().indexOf("orders"), "orders".length(), "invoices");
+        document.replace(0, 0, "-- order_items\n");
+        Assert.assertTrue(index.indexOpenDocuments());
+        Assert.assertEquals(List.of("order_id", "order_items"), index.getCompletions(new Document(), "ord", 10));
+        Assert.assertEquals(List.of("invoices"), index.getCompletions(new Document(), "inv", 10));
+    }
+
+    @Test
+    public void skipDocumentsBeingChanged() throws BadLocationException {
+        HippieWordIndex index = new HippieWordIndex(HippieWordIndex.MAX_INDEXED_WORDS);
+        IDocument document = new Document("select order_id from orders");
+        index.openDocument(document);
+        boolean[] indexedDuringChange = new boolean[1];
+        // Listeners are notified in the order of registration, so the index already knows about the change
+        document.addDocumentListener(new IDocumentListener() {
+            @Override
+            public void documentAboutToBeChanged(DocumentEvent event) {
+                indexedDuringChange[0] = index.indexOpenDocuments();
+            }
+
+            @Override
+            public void documentChanged(DocumentEvent event) {
+            }
+        });
+        document.replace(0, document.getLength(), "select invoice_id from invoices");
+        Assert.assertFalse(indexedDuringChange[0]);
+        Assert.assertTrue(index.indexOpenDocuments());
+        Assert.assertEquals(List.of("invoice_id", "invoices"), index.getCompletions(new Document(), "inv", 10));
+        Assert.assertTrue(index.getCompletions(new Document(), "ord", 10).isEmpty());
+    }
+
+    @Test
+    public void skipDocumentsClosedBeforeScan() {
+        HippieWordIndex index = new HippieWordIndex(HippieWordIndex.MAX_INDEXED_WORDS);
+        IDocument document = new Document("select order_id from orders");
+        index.openDocument(document);
+        index.closeDocument(document);
+        Assert.assertTrue(index.indexOpenDocuments());
+        Assert.assertTrue(index.getCompletions(new Document(), "ord", 10).isEmpty());
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.sql.parser;
+
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.DBPDataSourceContainer;
+import org.jkiss.dbeaver.model.connection.DBPConnectionConfiguration;
+import org.jkiss.dbeaver.model.connection.DBPDriver;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCDatabaseMetaData;
+import org.jkiss.dbeaver.model.exec.jdbc.JDBCSession;
+import org.jkiss.dbeaver.model.impl.jdbc.JDBCDataSource;
+import org.jkiss.dbeaver.model.impl.jdbc.JDBCSQLDialect;
+import org.jkiss.dbeaver.model.preferences.DBPPreferenceStore;
+import org.jkiss.dbeaver.model.sql.SQLDialect;
+import org.jkiss.dbeaver.model.sql.SQLScriptElement;
+import org.jkiss.dbeaver.model.sql.registry.SQLDialectRegistry;
+import org.jkiss.dbeaver.runtime.DBWorkbench;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(MockitoJUnitRunner.class)
+public class SQLScriptStreamParserTest {
+    @Mock
+    private JDBCDataSource dataSource;
+    @Mock
+    private DBPDataSourceContainer dataSourceContainer;
+    @Mock
+    private JDBCSession session;
+    @Mock
+    private JDBCDatabaseMetaData databaseMetaData;
+    @Mock
+    private DBPDriver driver;
+
+    @Before
+    public void init() {
+        DBPConnectionConfiguration connectionConfiguration = new DBPConnectionConfiguration();
+        DBPPreferenceStore preferenceStore = DBWorkbench.getPlatform().getPreferenceStore();
+        Mockito.when(dataSource.getContainer()).thenReturn(dataSourceContainer);
+        Mockito.lenient().when(dataSourceContainer.getConnectionConfiguration()).thenReturn(connectionConfiguration);
+        Mockito.lenient().when(dataSourceContainer.getActualConnectionConfiguration()).thenReturn(connectionConfiguration);
+        Mockito.when(dataSourceContainer.getPreferenceStore()).thenReturn(preferenceStore);
+        Mockito.lenient().when(dataSourceContainer.getDriver()).thenReturn(driver);
+    }
+
+    @Test
+    public void parseSmallScript() throws Exception {
+        setDialect("postgresql");
+        assertStreamParse("select 1;\nselect 'a;b' from dual;\n-- comment\nselect 2");
+    }
+
+    @Test
+    public void parseScriptLargerThanWindow() throws Exception {
+        setDialect("postgresql");
+        StringBuilder script = new StringBuilder();
+        for (int i = 0; script.length() < 3 * 1024 * 1024; i++) {
+            script.append("insert into test values (").append(i).append(", 'text; with delimiter ").append(i).append("');\n");
+            if (i % 1000 == 0) {
+                script.append("create function f").append(i).append("() returns void as $$\nbegin\n\tnull;\nend\n$$ language plpgsql;\n");
+                script.append("/* block comment; ").append(i).append(" */\n");
+            }
+        }
+        assertStreamParse(script.toString());
+    }
+
+    @Test
+    public void parseScriptWithBom() throws Exception {
+        setDialect("postgresql");
+        byte[] script = "\uFEFFselect 1;\nselect 2;\n".getBytes(StandardCharsets.UTF_8);
+        try (SQLScriptStreamParser parser = new SQLScriptStreamParser(dataSource, new ByteArrayInputStream(script), StandardCharsets.UTF_8, script.length)) {
+            Assert.assertEquals("select 1", parser.nextElement().getText());
+            Assert.assertEquals("select 2", parser.nextElement().getText());
+            Assert.assertNull(parser.nextElement());
+            Assert.assertEquals(script.length, parser.getBytesRead());
+        }
+    }
+
+    private void assertStreamParse(String script) throws IOException {
+        List<SQLScriptElement> expected = SQLScriptParser.parseScript(dataSource, script);
+        List<SQLScriptElement> actual = new ArrayList<>();
+        try (SQLScriptStreamParser parser = new SQLScriptStreamParser(dataSource, new StringReader(script))) {
+            for (SQLScriptElement element = parser.nextElement(); element != null; element = parser.nextElement()) {
+                actual.add(element);
+            }
+            Assert.assertEquals(script.length(), parser.getOffset());
+        }
+        Assert.assertEquals(expected.size(), actual.size());
+        for (int index = 0; index < expected.size(); index++) {
+            Assert.assertEquals(expected.get(index).getText(), actual.get(index).getText());
+        }
+    }
+
+    private void setDialect(String name) throws DBException {
+        SQLDialect dialect = SQLDialectRegistry.getInstance().getDialect(name).createInstance();
+        ((JDBCSQLDialect) dialect).initDriverSettings(session, dataSource, databaseMetaData);
+        Mockito.when(dataSource.getSQLDialect()).thenReturn(dialect);
+    }
+}
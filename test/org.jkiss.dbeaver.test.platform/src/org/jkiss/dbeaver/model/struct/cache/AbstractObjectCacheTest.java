@@ -0,0 +1,208 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.model.struct.cache;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.struct.DBSObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class AbstractObjectCacheTest {
+
+    private static final int STABLE_OBJECTS = 1000;
+    private static final int READER_THREADS = 8;
+    private static final int WRITER_ITERATIONS = 20_000;
+
+    @Test
+    public void lookupAndModifications() {
+        SimpleObjectCache<DBSObject, TestObject> cache = new SimpleObjectCache<>();
+        cache.setCaseSensitive(false);
+        TestObject table1 = new TestObject("Table1");
+        TestObject table2 = new TestObject("Table2");
+        cache.setCache(List.of(table1, table2));
+
+        List<TestObject> snapshot = cache.getCachedObjects();
+        Assert.assertSame(table1, cache.getCachedObject("TABLE1"));
+        Assert.assertSame(table2, cache.getCachedObject("table2"));
+
+        TestObject table3 = new TestObject("Table3");
+        cache.cacheObject(table3);
+        Assert.assertSame(table3, cache.getCachedObject("table3"));
+        Assert.assertEquals(3, cache.getCacheSize());
+        // Lists returned before are not affected
+        Assert.assertEquals(2, snapshot.size());
+
+        table1.name = "Renamed";
+        cache.renameObject(table1, "Table1", "Renamed");
+        Assert.assertNull(cache.getCachedObject("Table1"));
+        Assert.assertSame(table1, cache.getCachedObject("renamed"));
+
+        cache.removeObject(table2, false);
+        Assert.assertNull(cache.getCachedObject("Table2"));
+        Assert.assertEquals(List.of(table1, table3), cache.getCachedObjects());
+
+        cache.clearCache();
+        Assert.assertTrue(cache.isEmpty());
+        Assert.assertNull(cache.getCachedObject("Table3"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void cachedObjectsAreImmutable() {
+        SimpleObjectCache<DBSObject, TestObject> cache = new SimpleObjectCache<>();
+        cache.setCache(new ArrayList<>(List.of(new TestObject("Table1"))));
+        cache.getCachedObjects().add(new TestObject("Table2"));
+    }
+
+    @Test
+    public void appendedListsAreStable() {
+        SimpleObjectCache<DBSObject, TestObject> cache = new SimpleObjectCache<>();
+        List<TestObject> objects = new ArrayList<>();
+        List<List<TestObject>> snapshots = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            TestObject object = new TestObject("Object" + i);
+            objects.add(object);
+            cache.cacheObject(object);
+            Assert.assertSame(object, cache.getCachedObject(object.getName()));
+            snapshots.add(cache.getCachedObjects());
+        }
+        // Remove and append again, so the next append doesn't overwrite objects of the older lists
+        cache.removeObject(objects.get(99), false);
+        cache.cacheObject(new TestObject("Other"));
+        for (int i = 0; i < snapshots.size(); i++) {
+            Assert.assertEquals(objects.subList(0, i + 1), snapshots.get(i));
+        }
+        Assert.assertEquals(100, cache.getCacheSize());
+        Assert.assertNull(cache.getCachedObject("Object99"));
+        Assert.assertNotNull(cache.getCachedObject("Other"));
+    }
+
+    /**
+     * Readers look up objects while writer adds and removes objects.
+     * Readers must always see stable objects and must not fail on concurrent modifications.
+     */
+    @Test
+    public void concurrentReadersAndWriter() throws Exception {
+        SimpleObjectCache<DBSObject, TestObject> cache = new SimpleObjectCache<>();
+        cache.setCaseSensitive(false);
+        List<TestObject> stableObjects = new ArrayList<>();
+        for (int i = 0; i < STABLE_OBJECTS; i++) {
+            stableObjects.add(new TestObject("Object" + i));
+        }
+        cache.setCache(stableObjects);
+
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        CountDownLatch started = new CountDownLatch(READER_THREADS + 1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < READER_THREADS; t++) {
+            int seed = t;
+            threads.add(new Thread(() -> {
+                started.countDown();
+                try {
+                    for (int i = seed; !stop.get(); i++) {
+                        String name = "OBJECT" + (i % STABLE_OBJECTS);
+                        if (cache.getCachedObject(name) == null) {
+                            throw new AssertionError("Object " + name + " not found");
+                        }
+                        if (cache.getCachedObjects().size() < STABLE_OBJECTS) {
+                            throw new AssertionError("Objects are lost");
+                        }
+                    }
+                } catch (Throwable e) {
+                    error.compareAndSet(null, e);
+                }
+            }));
+        }
+        threads.add(new Thread(() -> {
+            started.countDown();
+            try {
+                for (int i = 0; i < WRITER_ITERATIONS && error.get() == null; i++) {
+                    TestObject object = new TestObject("Temp" + (i % 10));
+                    cache.cacheObject(object);
+                    if (cache.getCachedObject(object.getName()) != object) {
+                        throw new AssertionError("Object " + object.getName() + " not found");
+                    }
+                    cache.removeObject(object, false);
+                }
+            } catch (Throwable e) {
+                error.compareAndSet(null, e);
+            } finally {
+                stop.set(true);
+            }
+        }));
+        for (Thread thread : threads) {
+            thread.setDaemon(true);
+            thread.start();
+        }
+        started.await();
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+            Assert.assertFalse("Thread hangs", thread.isAlive());
+        }
+        if (error.get() != null) {
+            throw new AssertionError("Concurrent cache access failed", error.get());
+        }
+        Assert.assertEquals(STABLE_OBJECTS, cache.getCacheSize());
+        Assert.assertEquals(stableObjects, cache.getCachedObjects());
+    }
+
+    private static class TestObject implements DBSObject {
+        private String name;
+
+        TestObject(@NotNull String name) {
+            this.name = name;
+        }
+
+        @NotNull
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Nullable
+        @Override
+        public String getDescription() {
+            return null;
+        }
+
+        @Override
+        public boolean isPersisted() {
+            return true;
+        }
+
+        @Nullable
+        @Override
+        public DBSObject getParentObject() {
+            return null;
+        }
+
+        @Nullable
+        @Override
+        public DBPDataSource getDataSource() {
+            return null;
+        }
+    }
+}
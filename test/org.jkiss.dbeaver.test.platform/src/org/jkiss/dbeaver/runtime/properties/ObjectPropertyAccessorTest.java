@@ -0,0 +1,199 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.runtime.properties;
+
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+public class ObjectPropertyAccessorTest {
+
+    @Test
+    public void readSimpleProperties() throws Exception {
+        TestObject object = new TestObject();
+        Assert.assertEquals("name", accessor("getName").invoke(object, null));
+        Assert.assertEquals(42, accessor("getCount").invoke(object, null));
+        Assert.assertEquals(true, accessor("isEnabled").invoke(object, null));
+        Assert.assertNull(accessor("getEmpty").invoke(object, null));
+        Assert.assertEquals("default", accessor("getDefaultValue").invoke(object, null));
+        for (String name : new String[]{"getName", "getCount", "isEnabled", "getEmpty", "getDefaultValue"}) {
+            Assert.assertTrue(name + " is not compiled", accessor(name).isCompiled());
+        }
+    }
+
+    @Test
+    public void readPropertiesOfOtherClassLoader() throws Exception {
+        // Bundle classes are defined by different class loaders, each in its own unnamed module
+        Class<?> objectClass = new IsolatingClassLoader(TestObject.class).loadClass(TestObject.class.getName());
+        Assert.assertNotSame(TestObject.class, objectClass);
+        Object object = objectClass.getConstructor().newInstance();
+
+        ObjectPropertyAccessor nameAccessor = ObjectPropertyAccessor.getAccessor(objectClass.getMethod("getName"));
+        Assert.assertTrue(nameAccessor.isCompiled());
+        Assert.assertEquals("name", nameAccessor.invoke(object, null));
+        ObjectPropertyAccessor lazyAccessor = ObjectPropertyAccessor.getAccessor(objectClass.getMethod("getLazy", DBRProgressMonitor.class));
+        Assert.assertTrue(lazyAccessor.isCompiled());
+        Assert.assertEquals("lazy", lazyAccessor.invoke(object, new Object[] { new VoidProgressMonitor() }));
+        // Objects of the same class of another loader are different types
+        try {
+            nameAccessor.invoke(new TestObject(), null);
+            Assert.fail("Error expected");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void readPropertiesOfNonPublicClass() throws Exception {
+        ObjectPropertyAccessor accessor = ObjectPropertyAccessor.getAccessor(HiddenObject.class.getMethod("getName"));
+        Assert.assertTrue(accessor.isCompiled());
+        Assert.assertEquals("hidden", accessor.invoke(new HiddenObject(), null));
+    }
+
+    @Test
+    public void readLazyProperty() throws Exception {
+        TestObject object = new TestObject();
+        DBRProgressMonitor monitor = new VoidProgressMonitor();
+        Assert.assertEquals("lazy", accessor("getLazy", DBRProgressMonitor.class).invoke(object, new Object[] { monitor }));
+        Assert.assertSame(monitor, object.lastMonitor);
+        Assert.assertEquals("lazy", accessor("getLazy", DBRProgressMonitor.class).invoke(object, new Object[1]));
+        Assert.assertNull(object.lastMonitor);
+        Assert.assertTrue(accessor("getLazy", DBRProgressMonitor.class).isCompiled());
+    }
+
+    @Test
+    public void readSameValuesAsReflection() throws Exception {
+        TestObject object = new TestObject();
+        Object[] lazyParams = { new VoidProgressMonitor() };
+        for (String name : new String[]{"getName", "getCount", "isEnabled", "getEmpty", "getDefaultValue", "getLazy"}) {
+            Method getter = name.equals("getLazy") ?
+                TestObject.class.getMethod(name, DBRProgressMonitor.class) :
+                TestObject.class.getMethod(name);
+            Object[] params = getter.getParameterCount() == 0 ? null : lazyParams;
+            Assert.assertEquals(name, getter.invoke(object, params), ObjectPropertyAccessor.getAccessor(getter).invoke(object, params));
+        }
+    }
+
+    @Test
+    public void accessorIsCached() throws Exception {
+        Assert.assertSame(accessor("getName"), accessor("getName"));
+    }
+
+    @Test
+    public void wrapGetterErrors() throws Exception {
+        try {
+            accessor("getFailing").invoke(new TestObject(), null);
+            Assert.fail("Error expected");
+        } catch (InvocationTargetException e) {
+            Assert.assertTrue(e.getTargetException() instanceof DBException);
+        }
+        try {
+            accessor("getName").invoke("not a test object", null);
+            Assert.fail("Error expected");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    private static ObjectPropertyAccessor accessor(String name, Class<?>... paramTypes) throws NoSuchMethodException {
+        Method getter = TestObject.class.getMethod(name, paramTypes);
+        return ObjectPropertyAccessor.getAccessor(getter);
+    }
+
+    /**
+     * Defines the specified class itself, other classes are loaded by the parent loader
+     */
+    private static class IsolatingClassLoader extends ClassLoader {
+        private final Class<?> isolatedClass;
+
+        IsolatingClassLoader(Class<?> isolatedClass) {
+            super(isolatedClass.getClassLoader());
+            this.isolatedClass = isolatedClass;
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!name.equals(isolatedClass.getName())) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> loadedClass = findLoadedClass(name);
+                if (loadedClass == null) {
+                    String resourceName = name.substring(name.lastIndexOf('.') + 1) + ".class";
+                    try (InputStream classStream = isolatedClass.getResourceAsStream(resourceName)) {
+                        if (classStream == null) {
+                            throw new ClassNotFoundException(name);
+                        }
+                        byte[] bytes = classStream.readAllBytes();
+                        loadedClass = defineClass(name, bytes, 0, bytes.length);
+                    } catch (IOException e) {
+                        throw new ClassNotFoundException(name, e);
+                    }
+                }
+                return loadedClass;
+            }
+        }
+    }
+
+    static class HiddenObject {
+        public String getName() {
+            return "hidden";
+        }
+    }
+
+    public interface TestInterface {
+        default String getDefaultValue() {
+            return "default";
+        }
+    }
+
+    public static class TestObject implements TestInterface {
+        private DBRProgressMonitor lastMonitor;
+
+        public String getName() {
+            return "name";
+        }
+
+        public int getCount() {
+            return 42;
+        }
+
+        public boolean isEnabled() {
+            return true;
+        }
+
+        public Object getEmpty() {
+            return null;
+        }
+
+        public String getLazy(DBRProgressMonitor monitor) {
+            lastMonitor = monitor;
+            return "lazy";
+        }
+
+        public String getFailing() throws DBException {
+            throw new DBException("Property read error");
+        }
+    }
+}
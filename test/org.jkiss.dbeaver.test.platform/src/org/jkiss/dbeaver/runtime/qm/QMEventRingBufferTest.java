@@ -0,0 +1,128 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.runtime.qm;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class QMEventRingBufferTest {
+
+    private static final int PRODUCER_THREADS = 8;
+    private static final int EVENTS_PER_PRODUCER = 20_000;
+    private static final long TIMEOUT_SECONDS = 30;
+
+    @Test
+    public void offerAndDrain() {
+        QMEventRingBuffer<Integer> buffer = new QMEventRingBuffer<>(5);
+        Assert.assertEquals(8, buffer.getCapacity());
+        for (int i = 0; i < 8; i++) {
+            Assert.assertTrue(buffer.offer(i));
+        }
+        // Full buffer rejects elements
+        Assert.assertFalse(buffer.offer(8));
+        Assert.assertEquals(8, buffer.size());
+
+        List<Integer> drained = new ArrayList<>();
+        Assert.assertEquals(3, buffer.drainTo(drained, 3));
+        Assert.assertEquals(List.of(0, 1, 2), drained);
+        Assert.assertTrue(buffer.offer(8));
+        Assert.assertEquals(6, buffer.drainTo(drained, Integer.MAX_VALUE));
+        Assert.assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8), drained);
+        Assert.assertTrue(buffer.isEmpty());
+        Assert.assertEquals(0, buffer.drainTo(drained, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Producers add events while single consumer drains them.
+     * Events must not be lost or duplicated, events of each producer must keep their order.
+     */
+    @Test
+    public void concurrentProducers() throws Exception {
+        QMEventRingBuffer<Long> buffer = new QMEventRingBuffer<>(1 << 10);
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        CountDownLatch producersDone = new CountDownLatch(PRODUCER_THREADS);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < PRODUCER_THREADS; t++) {
+            long producerId = t;
+            threads.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < EVENTS_PER_PRODUCER && error.get() == null; i++) {
+                        Long event = (producerId << 32) | i;
+                        while (!buffer.offer(event)) {
+                            Thread.yield();
+                        }
+                    }
+                } catch (Throwable e) {
+                    error.compareAndSet(null, e);
+                } finally {
+                    producersDone.countDown();
+                }
+            }));
+        }
+        long[] nextEvent = new long[PRODUCER_THREADS];
+        threads.add(new Thread(() -> {
+            List<Long> batch = new ArrayList<>();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+            try {
+                while (System.nanoTime() < deadline) {
+                    // Read the latch before draining, so events of finished producers are drained
+                    boolean producersFinished = producersDone.getCount() == 0;
+                    batch.clear();
+                    if (buffer.drainTo(batch, 1000) == 0) {
+                        if (producersFinished) {
+                            break;
+                        }
+                        Thread.yield();
+                        continue;
+                    }
+                    for (Long event : batch) {
+                        int producerId = (int) (event >>> 32);
+                        long number = event & 0xFFFFFFFFL;
+                        if (nextEvent[producerId] != number) {
+                            throw new AssertionError("Event " + number + " of producer " + producerId +
+                                " is out of order (expected " + nextEvent[producerId] + ")");
+                        }
+                        nextEvent[producerId]++;
+                    }
+                }
+            } catch (Throwable e) {
+                error.compareAndSet(null, e);
+            }
+        }));
+        for (Thread thread : threads) {
+            thread.setDaemon(true);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS * 2));
+            Assert.assertFalse("Thread hangs", thread.isAlive());
+        }
+        if (error.get() != null) {
+            throw new AssertionError("Concurrent event capture failed", error.get());
+        }
+        for (long count : nextEvent) {
+            Assert.assertEquals(EVENTS_PER_PRODUCER, count);
+        }
+        Assert.assertTrue(buffer.isEmpty());
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.runtime.qm;
+
+import org.jkiss.dbeaver.model.exec.DBCExecutionPurpose;
+import org.jkiss.dbeaver.model.qm.QMEventAction;
+import org.jkiss.dbeaver.model.qm.QMMetaEvent;
+import org.jkiss.dbeaver.model.qm.meta.QMMConnectionInfo;
+import org.jkiss.dbeaver.model.qm.meta.QMMStatementExecuteInfo;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class QMLogFileEventBrowserTest {
+
+    @Test
+    public void parseQueryEntry() {
+        QMMetaEvent event = QMLogFileEventBrowser.parseEvent(
+            1000,
+            "{\"time\":1000,\"id\":5,\"action\":\"END\",\"container\":\"db\",\"context\":\"Main\",\"type\":\"query\"," +
+                "\"purpose\":\"UTIL\",\"query\":\"select \\\"a\\\"\",\"duration\":30,\"rows\":2,\"errorCode\":7,\"error\":\"failed\"}");
+        Assert.assertNotNull(event);
+        Assert.assertEquals(QMEventAction.END, event.getAction());
+        QMMStatementExecuteInfo executeInfo = (QMMStatementExecuteInfo) event.getObject();
+        Assert.assertEquals("select \"a\"", executeInfo.getQueryString());
+        Assert.assertEquals(970, executeInfo.getOpenTime());
+        Assert.assertEquals(1000, executeInfo.getCloseTime());
+        Assert.assertEquals(30, executeInfo.getDuration());
+        Assert.assertEquals(7, executeInfo.getErrorCode());
+        Assert.assertEquals("failed", executeInfo.getErrorMessage());
+        Assert.assertEquals(DBCExecutionPurpose.UTIL, executeInfo.getStatement().getPurpose());
+        Assert.assertEquals("db", executeInfo.getStatement().getConnection().getContainerName());
+        Assert.assertEquals("Main", executeInfo.getStatement().getConnection().getContextName());
+    }
+
+    @Test
+    public void parseSessionEntry() {
+        QMMetaEvent event = QMLogFileEventBrowser.parseEvent(
+            2000,
+            "{\"time\":2000,\"id\":1,\"action\":\"END\",\"container\":\"db\",\"context\":\"Main\",\"type\":\"session\"}");
+        Assert.assertNotNull(event);
+        Assert.assertEquals(QMEventAction.END, event.getAction());
+        QMMConnectionInfo connection = (QMMConnectionInfo) event.getObject();
+        Assert.assertEquals("db", connection.getContainerName());
+        Assert.assertEquals(2000, connection.getCloseTime());
+    }
+
+    @Test
+    public void skipUnsupportedEntries() {
+        // Transactions can't be restored
+        Assert.assertNull(QMLogFileEventBrowser.parseEvent(
+            3000,
+            "{\"time\":3000,\"id\":2,\"action\":\"END\",\"container\":\"db\",\"type\":\"transaction\",\"result\":\"COMMIT\"}"));
+        Assert.assertNull(QMLogFileEventBrowser.parseEvent(3000, "{\"time\":3000,\"action\":"));
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.runtime.qm;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class QMLogFileReaderTest {
+
+    private static final int ENTRY_COUNT = 5000;
+    // Entries of the unindexed tail
+    private static final int TAIL_ENTRY_COUNT = 10;
+
+    private Path directory;
+
+    @Before
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("qm-log-test");
+    }
+
+    @After
+    public void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Test
+    public void readIndexedFile() throws IOException {
+        Path logFile = writeLog(directory.resolve("dbeaver_sql_20230101.jsonl"));
+        Assert.assertTrue(QMLogFileIndex.readIndex(logFile).size() > 1);
+
+        Assert.assertEquals(expectedTimes(1000, 1999), readTimes(logFile, 1000, 1999));
+        Assert.assertEquals(expectedTimes(0, ENTRY_COUNT + TAIL_ENTRY_COUNT - 1), readTimes(logFile, 0, Long.MAX_VALUE));
+        // Tail
+        Assert.assertEquals(expectedTimes(ENTRY_COUNT, ENTRY_COUNT + 2), readTimes(logFile, ENTRY_COUNT, ENTRY_COUNT + 2));
+        Assert.assertTrue(readTimes(logFile, -100, -1).isEmpty());
+    }
+
+    @Test
+    public void readCompressedFile() throws IOException {
+        Path logFile = writeLog(directory.resolve("dbeaver_sql_20230101.1.jsonl"));
+        Path compressedFile = QMLogFileIndex.compress(logFile);
+        Assert.assertFalse(Files.exists(logFile));
+        Assert.assertFalse(Files.exists(QMLogFileIndex.getIndexFile(logFile)));
+        Assert.assertTrue(QMLogFileIndex.isCompressed(compressedFile));
+
+        Assert.assertEquals(expectedTimes(1000, 1999), readTimes(compressedFile, 1000, 1999));
+        Assert.assertEquals(expectedTimes(0, ENTRY_COUNT + TAIL_ENTRY_COUNT - 1), readTimes(compressedFile, 0, Long.MAX_VALUE));
+        Assert.assertEquals(expectedTimes(4990, ENTRY_COUNT + 5), readTimes(compressedFile, 4990, ENTRY_COUNT + 5));
+    }
+
+    @Test
+    public void stopReading() throws IOException {
+        Path logFile = writeLog(directory.resolve("dbeaver_sql_20230101.jsonl"));
+        List<Long> times = new ArrayList<>();
+        Assert.assertFalse(QMLogFileReader.readEntries(logFile, 0, Long.MAX_VALUE, (time, entry) -> {
+            times.add(time);
+            return times.size() < 3;
+        }));
+        Assert.assertEquals(expectedTimes(0, 2), times);
+    }
+
+    @Test
+    public void findLogFiles() throws IOException {
+        for (String name : new String[] {
+            "dbeaver_sql_20230101.jsonl", "dbeaver_sql_20230102.jsonl", "dbeaver_sql_20230102.2.jsonl.gz",
+            "dbeaver_sql_20230102.1.jsonl.gz", "dbeaver_sql_20230102.jsonl.idx", "dbeaver_sql_20230102.log", "other.jsonl"})
+        {
+            Files.createFile(directory.resolve(name));
+        }
+        List<Path> files = QMLogFileReader.findLogFiles(directory, 0, Long.MAX_VALUE);
+        List<String> names = new ArrayList<>();
+        for (Path file : files) {
+            names.add(file.getFileName().toString());
+        }
+        Assert.assertEquals(
+            List.of("dbeaver_sql_20230101.jsonl", "dbeaver_sql_20230102.1.jsonl.gz", "dbeaver_sql_20230102.2.jsonl.gz", "dbeaver_sql_20230102.jsonl"),
+            names);
+    }
+
+    private static Path writeLog(Path logFile) throws IOException {
+        try (OutputStream out = Files.newOutputStream(logFile);
+             QMLogFileIndex.Builder index = new QMLogFileIndex.Builder(QMLogFileIndex.getIndexFile(logFile), 0))
+        {
+            long offset = 0;
+            for (int i = 0; i < ENTRY_COUNT + TAIL_ENTRY_COUNT; i++) {
+                byte[] data = ("{\"time\":" + i + ",\"query\":\"select " + i + "\"}\n").getBytes(StandardCharsets.UTF_8);
+                out.write(data);
+                if (i < ENTRY_COUNT) {
+                    index.addEntry(offset, data.length, i);
+                } else if (i == ENTRY_COUNT) {
+                    index.finishBlock();
+                }
+                offset += data.length;
+            }
+        }
+        return logFile;
+    }
+
+    private static List<Long> readTimes(Path logFile, long fromTime, long toTime) throws IOException {
+        List<Long> times = new ArrayList<>();
+        QMLogFileReader.readEntries(logFile, fromTime, toTime, (time, entry) -> {
+            Assert.assertTrue(entry.contains("select " + time));
+            times.add(time);
+            return true;
+        });
+        return times;
+    }
+
+    private static List<Long> expectedTimes(long from, long to) {
+        List<Long> times = new ArrayList<>();
+        for (long i = from; i <= to; i++) {
+            times.add(i);
+        }
+        return times;
+    }
+}
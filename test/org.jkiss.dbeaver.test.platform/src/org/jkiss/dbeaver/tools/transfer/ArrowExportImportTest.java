@@ -0,0 +1,392 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.DBPDataKind;
+import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
+import org.jkiss.dbeaver.tools.transfer.stream.IStreamDataExporterSite;
+import org.jkiss.dbeaver.tools.transfer.stream.IStreamDataImporterSite;
+import org.jkiss.dbeaver.tools.transfer.stream.StreamDataImporterColumnInfo;
+import org.jkiss.dbeaver.tools.transfer.stream.StreamEntityMapping;
+import org.jkiss.dbeaver.tools.transfer.stream.arrow.*;
+import org.jkiss.dbeaver.tools.transfer.stream.exporter.DataExporterArrow;
+import org.jkiss.dbeaver.tools.transfer.stream.importer.DataImporterArrow;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exports rows with the Arrow exporter and reads them back with the Arrow importer
+ */
+public class ArrowExportImportTest {
+
+    private static final int ROW_COUNT = 7;
+    private static final int BATCH_SIZE = 3;
+
+    private static final Column[] COLUMNS = {
+        new Column("bool", DBPDataKind.BOOLEAN, Types.BOOLEAN, 0, 0,
+            DBPDataKind.BOOLEAN, "BOOLEAN", true, false, true),
+        new Column("tinyint", DBPDataKind.NUMERIC, Types.TINYINT, 0, 0,
+            DBPDataKind.NUMERIC, "SMALLINT", (int) Byte.MIN_VALUE, 0, (int) Byte.MAX_VALUE),
+        new Column("smallint", DBPDataKind.NUMERIC, Types.SMALLINT, 0, 0,
+            DBPDataKind.NUMERIC, "SMALLINT", (int) Short.MIN_VALUE, -1, (int) Short.MAX_VALUE),
+        new Column("integer", DBPDataKind.NUMERIC, Types.INTEGER, 0, 0,
+            DBPDataKind.NUMERIC, "INTEGER", Integer.MIN_VALUE, 1, Integer.MAX_VALUE),
+        new Column("bigint", DBPDataKind.NUMERIC, Types.BIGINT, 0, 0,
+            DBPDataKind.NUMERIC, "BIGINT", Long.MIN_VALUE, 0L, Long.MAX_VALUE),
+        new Column("real", DBPDataKind.NUMERIC, Types.REAL, 0, 0,
+            DBPDataKind.NUMERIC, "REAL", 1.5f, -0.25f, Float.MAX_VALUE),
+        new Column("double", DBPDataKind.NUMERIC, Types.DOUBLE, 0, 0,
+            DBPDataKind.NUMERIC, "DOUBLE", Math.PI, -1e300, Double.MIN_VALUE),
+        new Column("decimal", DBPDataKind.NUMERIC, Types.DECIMAL, 38, 2,
+            DBPDataKind.NUMERIC, "NUMERIC",
+            new BigDecimal("-12345678.90"), new BigDecimal("0.00"), new BigDecimal("999999999999999999999999999999999999.99")),
+        // Unbounded number is exported as string. Duplicate name gets a suffix.
+        new Column("Decimal", DBPDataKind.NUMERIC, Types.NUMERIC, 0, 0,
+            DBPDataKind.STRING, "VARCHAR", "123456789012345678901234567890.123456789", "-1", "0"),
+        new Column("date", DBPDataKind.DATETIME, Types.DATE, 0, 0,
+            DBPDataKind.DATETIME, "DATE",
+            java.sql.Date.valueOf("2023-01-02"), java.sql.Date.valueOf("1900-12-31"), java.sql.Date.valueOf("1970-01-01")),
+        new Column("time", DBPDataKind.DATETIME, Types.TIME, 0, 0,
+            DBPDataKind.DATETIME, "TIME", Time.valueOf("03:04:05"), Time.valueOf("00:00:00"), Time.valueOf("23:59:59")),
+        new Column("timestamp", DBPDataKind.DATETIME, Types.TIMESTAMP, 0, 0,
+            DBPDataKind.DATETIME, "TIMESTAMP",
+            Timestamp.valueOf("2023-01-02 03:04:05.123456"), Timestamp.valueOf("1901-02-03 04:05:06"), Timestamp.valueOf("2100-12-31 23:59:59.999999")),
+        new Column("timestamptz", DBPDataKind.DATETIME, Types.TIMESTAMP_WITH_TIMEZONE, 0, 0,
+            DBPDataKind.DATETIME, "TIMESTAMP",
+            Timestamp.valueOf("2023-06-02 03:04:05.5"), Timestamp.valueOf("1969-12-31 23:59:59.999"), Timestamp.valueOf("2000-01-01 00:00:00")),
+        new Column("binary", DBPDataKind.BINARY, Types.VARBINARY, 0, 0,
+            DBPDataKind.BINARY, "BLOB", new byte[]{0, 1, (byte) 0xFF}, new byte[0], new byte[]{42}),
+        new Column("string", DBPDataKind.STRING, Types.VARCHAR, 0, 0,
+            DBPDataKind.STRING, "VARCHAR", "text", "", "текст 😀"),
+    };
+
+    @Test
+    public void exportImportFileFormat() throws Exception {
+        checkExportImport("file");
+    }
+
+    @Test
+    public void exportImportStreamFormat() throws Exception {
+        checkExportImport("stream");
+    }
+
+    @Test
+    public void exportImportEmptyResults() throws Exception {
+        byte[] data = exportRows("file", 0);
+        Assert.assertEquals(COLUMNS.length, importColumns(data).size());
+        Assert.assertTrue(importRows(data, new ArrayList<>()).isEmpty());
+    }
+
+    /**
+     * Bytes of the stream are checked against the Arrow IPC format and FlatBuffers specifications,
+     * independently of the Arrow reader used by other tests
+     */
+    @Test
+    public void writeStreamBytes() throws IOException {
+        ArrowVector vector = new ArrowVector(ArrowField.makeInt("id", 32));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ArrowStreamWriter writer = new ArrowStreamWriter(out, List.of(vector), false);
+        writer.start();
+        vector.addLong(1);
+        vector.addNull();
+        vector.addLong(3);
+        writer.finish();
+
+        Assert.assertArrayEquals(parseHex(
+            // Schema message: continuation marker, metadata size 144
+            "FF FF FF FF 90 00 00 00 " +
+            // Root offset 16. Message vtable: size 12, table size 23, version@20, header_type@22, header@16, bodyLength@8
+            "10 00 00 00 0C 00 17 00 14 00 16 00 10 00 08 00 " +
+            // Message table: vtable offset 12, padding, bodyLength=0, header offset 16,
+            // version=V5, header_type=Schema, padding
+            "0C 00 00 00 00 00 00 00 00 00 00 00 00 00 00 00 10 00 00 00 04 00 01 00 " +
+            // Schema vtable: size 8, table size 10, endianness@8, fields@4.
+            // Schema table: vtable offset 8, fields offset 8, endianness=Little, padding
+            "08 00 0A 00 08 00 04 00 08 00 00 00 08 00 00 00 00 00 00 00 " +
+            // Fields vector: 1 element, offset 24
+            "01 00 00 00 18 00 00 00 " +
+            // Field vtable: size 16, table size 18, name@4, nullable@16, type_type@17, type@8, no dictionary, children@12.
+            // Padding
+            "10 00 12 00 04 00 10 00 11 00 08 00 00 00 0C 00 00 00 00 00 " +
+            // Field table: vtable offset 20, name offset 16, type offset 32, children offset 40,
+            // nullable=true, type_type=Int, padding
+            "14 00 00 00 10 00 00 00 20 00 00 00 28 00 00 00 01 02 00 00 " +
+            // Name: length 2, "id", terminator, padding
+            "02 00 00 00 69 64 00 00 " +
+            // Int vtable: size 8, table size 9, bitWidth@4, is_signed@8. Padding
+            "08 00 09 00 04 00 08 00 00 00 00 00 " +
+            // Int table: vtable offset 12, bitWidth=32, is_signed=true, padding
+            "0C 00 00 00 20 00 00 00 01 00 00 00 " +
+            // Children vector: 0 elements
+            "00 00 00 00 " +
+            // Record batch message: continuation marker, metadata size 144
+            "FF FF FF FF 90 00 00 00 " +
+            // Root offset 16. Message vtable like above
+            "10 00 00 00 0C 00 17 00 14 00 16 00 10 00 08 00 " +
+            // Message table: vtable offset 12, padding, bodyLength=24, header offset 24,
+            // version=V5, header_type=RecordBatch, padding
+            "0C 00 00 00 00 00 00 00 18 00 00 00 00 00 00 00 18 00 00 00 04 00 03 00 " +
+            // RecordBatch vtable: size 10, table size 24, length@8, nodes@16, buffers@20. Padding
+            "0A 00 18 00 08 00 10 00 14 00 00 00 00 00 00 00 " +
+            // RecordBatch table: vtable offset 16, padding, length=3, nodes offset 12, buffers offset 32
+            "10 00 00 00 00 00 00 00 03 00 00 00 00 00 00 00 0C 00 00 00 20 00 00 00 " +
+            // Padding, nodes vector: 1 element, FieldNode {length=3, null_count=1}
+            "00 00 00 00 01 00 00 00 03 00 00 00 00 00 00 00 01 00 00 00 00 00 00 00 " +
+            // Padding, buffers vector: 2 elements, Buffer {offset=0, length=1}, Buffer {offset=8, length=12}
+            "00 00 00 00 02 00 00 00 00 00 00 00 00 00 00 00 01 00 00 00 00 00 00 00 " +
+            "08 00 00 00 00 00 00 00 0C 00 00 00 00 00 00 00 " +
+            // Body: validity bitmap [1, 0, 1] padded to 8 bytes, values 1, 0, 3 padded to 16 bytes
+            "05 00 00 00 00 00 00 00 01 00 00 00 00 00 00 00 03 00 00 00 00 00 00 00 " +
+            // End of stream
+            "FF FF FF FF 00 00 00 00"),
+            out.toByteArray());
+    }
+
+    @Test
+    public void exportDecimalsWithoutRounding() throws Exception {
+        Column column = new Column("amount", DBPDataKind.NUMERIC, Types.DECIMAL, 6, 2,
+            DBPDataKind.NUMERIC, "NUMERIC");
+        // Trailing zeros, integers and strings are converted exactly
+        byte[] data = exportValues(column.makeBinding(), new BigDecimal("1.5000"), -7, "-1234.50", new BigDecimal("9999.99"));
+        List<Object[]> rows = importRows(data, new ArrayList<>());
+        Assert.assertEquals(4, rows.size());
+        Assert.assertEquals(new BigDecimal("1.50"), rows.get(0)[0]);
+        Assert.assertEquals(new BigDecimal("-7.00"), rows.get(1)[0]);
+        Assert.assertEquals(new BigDecimal("-1234.50"), rows.get(2)[0]);
+        Assert.assertEquals(new BigDecimal("9999.99"), rows.get(3)[0]);
+
+        // Values which need rounding or a bigger precision are errors
+        for (Object value : new Object[]{new BigDecimal("1.005"), 0.125d, new BigDecimal("10000.00"), Double.NaN}) {
+            try {
+                exportValues(column.makeBinding(), value);
+                Assert.fail("Decimal " + value + " must not be exported");
+            } catch (DBException e) {
+                Assert.assertTrue(e.getMessage(), e.getMessage().contains("'amount'"));
+            }
+        }
+    }
+
+    private void checkExportImport(@NotNull String format) throws Exception {
+        byte[] data = exportRows(format, ROW_COUNT);
+        if (format.equals("file")) {
+            Assert.assertEquals("ARROW1", new String(data, 0, 6, StandardCharsets.US_ASCII));
+            Assert.assertEquals("ARROW1", new String(data, data.length - 6, 6, StandardCharsets.US_ASCII));
+        }
+
+        List<StreamDataImporterColumnInfo> columnsInfo = importColumns(data);
+        Assert.assertEquals(COLUMNS.length, columnsInfo.size());
+        for (int i = 0; i < COLUMNS.length; i++) {
+            Column column = COLUMNS[i];
+            StreamDataImporterColumnInfo columnInfo = columnsInfo.get(i);
+            Assert.assertEquals(i == 8 ? "Decimal_2" : column.name, columnInfo.getName());
+            Assert.assertEquals(column.name, column.importedKind, columnInfo.getDataKind());
+            Assert.assertEquals(column.name, column.importedType, columnInfo.getTypeName());
+        }
+        Assert.assertEquals(Integer.valueOf(38), columnsInfo.get(7).getPrecision());
+        Assert.assertEquals(Integer.valueOf(2), columnsInfo.get(7).getScale());
+        // String lengths are taken from the first batch
+        Assert.assertEquals("123456789012345678901234567890.123456789".length(), columnsInfo.get(8).getMaxLength());
+
+        List<Integer> batchSizes = new ArrayList<>();
+        List<Object[]> rows = importRows(data, batchSizes);
+        Assert.assertEquals(List.of(3, 3, 1), batchSizes);
+        Assert.assertEquals(ROW_COUNT, rows.size());
+        for (int row = 0; row < ROW_COUNT; row++) {
+            for (int i = 0; i < COLUMNS.length; i++) {
+                Object expected = getValue(row, i);
+                Object actual = rows.get(row)[i];
+                if (expected instanceof byte[] && actual instanceof byte[]) {
+                    Assert.assertArrayEquals((byte[]) expected, (byte[]) actual);
+                } else {
+                    Assert.assertEquals(COLUMNS[i].name + " [" + row + "]", expected, actual);
+                }
+            }
+        }
+    }
+
+    /**
+     * Each column has nulls in different rows
+     */
+    @Nullable
+    private static Object getValue(int row, int column) {
+        if ((row + column) % 4 == 3) {
+            return null;
+        }
+        return COLUMNS[column].values[row % COLUMNS[column].values.length];
+    }
+
+    @NotNull
+    private static byte[] exportRows(@NotNull String format, int rowCount) throws DBException, IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("format", format);
+        properties.put("batchSize", BATCH_SIZE);
+        DBDAttributeBinding[] bindings = new DBDAttributeBinding[COLUMNS.length];
+        for (int i = 0; i < COLUMNS.length; i++) {
+            bindings[i] = COLUMNS[i].makeBinding();
+        }
+        IStreamDataExporterSite site = Mockito.mock(IStreamDataExporterSite.class);
+        Mockito.when(site.getProperties()).thenReturn(properties);
+        Mockito.when(site.getAttributes()).thenReturn(bindings);
+        Mockito.when(site.getOutputStream()).thenReturn(out);
+
+        DataExporterArrow exporter = new DataExporterArrow();
+        exporter.init(site);
+        exporter.exportHeader(null);
+        for (int row = 0; row < rowCount; row++) {
+            Object[] values = new Object[COLUMNS.length];
+            for (int i = 0; i < COLUMNS.length; i++) {
+                values[i] = getValue(row, i);
+                if (values[i] instanceof String && COLUMNS[i].dataKind == DBPDataKind.NUMERIC) {
+                    values[i] = new BigDecimal((String) values[i]);
+                }
+            }
+            exporter.exportRow(null, null, values);
+        }
+        exporter.exportFooter(null);
+        exporter.dispose();
+        return out.toByteArray();
+    }
+
+    @NotNull
+    private static byte[] parseHex(@NotNull String hex) {
+        String[] items = hex.trim().split("\\s+");
+        byte[] bytes = new byte[items.length];
+        for (int i = 0; i < items.length; i++) {
+            bytes[i] = (byte) Integer.parseInt(items[i], 16);
+        }
+        return bytes;
+    }
+
+    @NotNull
+    private static byte[] exportValues(@NotNull DBDAttributeBinding binding, @NotNull Object... values) throws DBException, IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        IStreamDataExporterSite site = Mockito.mock(IStreamDataExporterSite.class);
+        Mockito.when(site.getProperties()).thenReturn(new HashMap<>());
+        Mockito.when(site.getAttributes()).thenReturn(new DBDAttributeBinding[]{binding});
+        Mockito.when(site.getOutputStream()).thenReturn(out);
+
+        DataExporterArrow exporter = new DataExporterArrow();
+        exporter.init(site);
+        exporter.exportHeader(null);
+        for (Object value : values) {
+            exporter.exportRow(null, null, new Object[]{value});
+        }
+        exporter.exportFooter(null);
+        exporter.dispose();
+        return out.toByteArray();
+    }
+
+    @NotNull
+    private static List<StreamDataImporterColumnInfo> importColumns(@NotNull byte[] data) throws DBException {
+        IStreamDataImporterSite site = Mockito.mock(IStreamDataImporterSite.class);
+        Mockito.when(site.getProcessorProperties()).thenReturn(new HashMap<>());
+        DataImporterArrow importer = new DataImporterArrow();
+        importer.init(site);
+        return importer.readColumnsInfo(new StreamEntityMapping(new File("dummy")), new ByteArrayInputStream(data));
+    }
+
+    /**
+     * Reads rows the same way the importer passes them to the consumer
+     */
+    @NotNull
+    private static List<Object[]> importRows(@NotNull byte[] data, @NotNull List<Integer> batchSizes) throws IOException {
+        ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(data));
+        int fieldCount = reader.readSchema().size();
+        List<Object[]> rows = new ArrayList<>();
+        for (ArrowRecordBatch batch = reader.readNextBatch(); batch != null; batch = reader.readNextBatch()) {
+            batchSizes.add(batch.getRowCount());
+            for (int row = 0; row < batch.getRowCount(); row++) {
+                Object[] values = new Object[fieldCount];
+                for (int i = 0; i < fieldCount; i++) {
+                    values[i] = batch.getValue(i, row);
+                }
+                rows.add(values);
+            }
+        }
+        Assert.assertNull(reader.readNextBatch());
+        return rows;
+    }
+
+    private static class Column {
+        final String name;
+        final DBPDataKind dataKind;
+        final int typeId;
+        final int precision;
+        final int scale;
+        final DBPDataKind importedKind;
+        final String importedType;
+        final Object[] values;
+
+        Column(
+            @NotNull String name,
+            @NotNull DBPDataKind dataKind,
+            int typeId,
+            int precision,
+            int scale,
+            @NotNull DBPDataKind importedKind,
+            @NotNull String importedType,
+            @NotNull Object... values
+        ) {
+            this.name = name;
+            this.dataKind = dataKind;
+            this.typeId = typeId;
+            this.precision = precision;
+            this.scale = scale;
+            this.importedKind = importedKind;
+            this.importedType = importedType;
+            this.values = values;
+        }
+
+        @NotNull
+        DBDAttributeBinding makeBinding() {
+            DBDAttributeBinding binding = Mockito.mock(DBDAttributeBinding.class);
+            Mockito.when(binding.getName()).thenReturn(name);
+            Mockito.when(binding.getLabel()).thenReturn(name);
+            Mockito.when(binding.getDataKind()).thenReturn(dataKind);
+            Mockito.when(binding.getTypeID()).thenReturn(typeId);
+            Mockito.when(binding.getPrecision()).thenReturn(precision);
+            Mockito.when(binding.getScale()).thenReturn(scale);
+            return binding;
+        }
+
+        @Override
+        public String toString() {
+            return name + " " + Arrays.toString(values);
+        }
+    }
+
+}
@@ -0,0 +1,166 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer;
+
+import org.jkiss.dbeaver.model.DBPDataKind;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.data.DBDDataFilter;
+import org.jkiss.dbeaver.model.data.DBDDataReceiver;
+import org.jkiss.dbeaver.model.data.DBDValueHandler;
+import org.jkiss.dbeaver.model.data.DBDValueHandlerProvider;
+import org.jkiss.dbeaver.model.exec.*;
+import org.jkiss.dbeaver.model.impl.jdbc.struct.JDBCTable;
+import org.jkiss.dbeaver.model.sql.SQLDialect;
+import org.jkiss.dbeaver.model.struct.DBSEntityAttribute;
+import org.jkiss.dbeaver.tools.transfer.database.DatabaseKeysetSegmenter;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+public class DatabaseKeysetSegmenterTest {
+
+    private final DBCSession session = Mockito.mock(DBCSession.class);
+    private final DBCResultSet resultSet = Mockito.mock(DBCResultSet.class);
+    private final DBCStatement statement = Mockito.mock(DBCStatement.class);
+    private final DBDValueHandler valueHandler = Mockito.mock(DBDValueHandler.class);
+    private final List<DBCAttributeMetaData> resultAttributes = new ArrayList<>();
+    private Object[] currentRow;
+
+    @Before
+    public void init() throws DBCException {
+        SQLDialect dialect = Mockito.mock(SQLDialect.class);
+        Mockito.when(dialect.getQuotedIdentifier(ArgumentMatchers.anyString(), ArgumentMatchers.anyBoolean(), ArgumentMatchers.anyBoolean()))
+            .thenAnswer(invocation -> invocation.getArgument(0));
+        DBPDataSource dataSource = Mockito.mock(DBPDataSource.class, Mockito.withSettings().extraInterfaces(DBDValueHandlerProvider.class));
+        Mockito.when(dataSource.getSQLDialect()).thenReturn(dialect);
+        Mockito.when(((DBDValueHandlerProvider) dataSource).getValueHandler(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any()))
+            .thenReturn(valueHandler);
+        Mockito.when(session.getDataSource()).thenReturn(dataSource);
+
+        Mockito.when(valueHandler.fetchValueObject(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.anyInt()))
+            .thenAnswer(invocation -> currentRow[invocation.<Integer>getArgument(3)]);
+
+        String[] columnNames = { "order_date", "id", "note" };
+        for (int i = 0; i < columnNames.length; i++) {
+            DBCAttributeMetaData attribute = Mockito.mock(DBCAttributeMetaData.class);
+            Mockito.when(attribute.getName()).thenReturn(columnNames[i]);
+            Mockito.when(attribute.getOrdinalPosition()).thenReturn(i);
+            resultAttributes.add(attribute);
+        }
+        DBCResultSetMetaData metaData = Mockito.mock(DBCResultSetMetaData.class);
+        Mockito.doReturn(resultAttributes).when(metaData).getAttributes();
+        Mockito.when(resultSet.getMeta()).thenReturn(metaData);
+    }
+
+    private DBSEntityAttribute makeKeyAttribute(String name, DBPDataKind dataKind) {
+        DBSEntityAttribute attribute = Mockito.mock(DBSEntityAttribute.class);
+        Mockito.when(attribute.getName()).thenReturn(name);
+        Mockito.when(attribute.getDataKind()).thenReturn(dataKind);
+        Mockito.when(attribute.isRequired()).thenReturn(true);
+        DBPDataSource dataSource = session.getDataSource();
+        Mockito.when(attribute.getDataSource()).thenReturn(dataSource);
+        return attribute;
+    }
+
+    private void readSegment(DatabaseKeysetSegmenter segmenter, Object[]... rows) throws DBCException {
+        DBDDataReceiver receiver = segmenter.wrapReceiver(Mockito.mock(DBDDataReceiver.class));
+        receiver.fetchStart(session, resultSet, 0, 100);
+        for (Object[] row : rows) {
+            currentRow = row;
+            receiver.fetchRow(session, resultSet);
+        }
+        receiver.fetchEnd(session, resultSet);
+        receiver.close();
+    }
+
+    @Test
+    public void bindCompositeTemporalKey() throws DBCException {
+        DBSEntityAttribute dateAttr = makeKeyAttribute("order_date", DBPDataKind.DATETIME);
+        DBSEntityAttribute idAttr = makeKeyAttribute("id", DBPDataKind.NUMERIC);
+        DatabaseKeysetSegmenter segmenter = new DatabaseKeysetSegmenter(Mockito.mock(JDBCTable.class), List.of(dateAttr, idAttr));
+
+        DBDDataFilter dataFilter = new DBDDataFilter();
+        dataFilter.setWhere("status = 1");
+
+        // First segment has no key condition
+        DBDDataFilter firstFilter = segmenter.makeSegmentFilter(dataFilter);
+        Assert.assertEquals("status = 1", firstFilter.getWhere());
+        Assert.assertEquals("order_date,id", firstFilter.getOrder());
+        segmenter.bindSeekParameters(session, statement);
+        Mockito.verifyNoInteractions(statement);
+        Mockito.verify(valueHandler, Mockito.never()).bindValueObject(
+            ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.anyInt(), ArgumentMatchers.any());
+
+        // Sub-millisecond part of the timestamp and all digits of the decimal must be kept
+        Timestamp lastDate = Timestamp.valueOf("2023-05-17 10:15:30.123456789");
+        BigDecimal lastId = new BigDecimal("12345678901234567890.000000001");
+        readSegment(segmenter,
+            new Object[] { Timestamp.valueOf("2023-05-17 10:15:30.123456788"), new BigDecimal("1"), "first" },
+            new Object[] { lastDate, lastId, "last" });
+        Assert.assertTrue(segmenter.isSeekAvailable());
+
+        DBDDataFilter nextFilter = segmenter.makeSegmentFilter(dataFilter);
+        Assert.assertEquals("(status = 1) AND ((order_date > ?) OR (order_date = ? AND id > ?))", nextFilter.getWhere());
+        Assert.assertEquals("order_date,id", nextFilter.getOrder());
+        // Source filter is not changed
+        Assert.assertEquals("status = 1", dataFilter.getWhere());
+
+        segmenter.bindSeekParameters(session, statement);
+        InOrder inOrder = Mockito.inOrder(valueHandler);
+        inOrder.verify(valueHandler).bindValueObject(
+            ArgumentMatchers.same(session), ArgumentMatchers.same(statement), ArgumentMatchers.same(dateAttr), ArgumentMatchers.eq(0), ArgumentMatchers.same(lastDate));
+        inOrder.verify(valueHandler).bindValueObject(
+            ArgumentMatchers.same(session), ArgumentMatchers.same(statement), ArgumentMatchers.same(dateAttr), ArgumentMatchers.eq(1), ArgumentMatchers.same(lastDate));
+        inOrder.verify(valueHandler).bindValueObject(
+            ArgumentMatchers.same(session), ArgumentMatchers.same(statement), ArgumentMatchers.same(idAttr), ArgumentMatchers.eq(2), ArgumentMatchers.same(lastId));
+        inOrder.verifyNoMoreInteractions();
+    }
+
+    @Test
+    public void bindSingleFloatingKey() throws DBCException {
+        DBSEntityAttribute valueAttr = makeKeyAttribute("id", DBPDataKind.NUMERIC);
+        DatabaseKeysetSegmenter segmenter = new DatabaseKeysetSegmenter(Mockito.mock(JDBCTable.class), List.of(valueAttr));
+
+        Double lastValue = 0.1 + 0.2;
+        readSegment(segmenter, new Object[] { null, lastValue, null });
+
+        Assert.assertEquals("(id > ?)", segmenter.makeSegmentFilter(null).getWhere());
+        segmenter.bindSeekParameters(session, statement);
+        Mockito.verify(valueHandler).bindValueObject(session, statement, valueAttr, 0, lastValue);
+    }
+
+    @Test
+    public void switchToOffsetWithoutKeyColumn() throws DBCException {
+        DBSEntityAttribute keyAttr = makeKeyAttribute("code", DBPDataKind.STRING);
+        DatabaseKeysetSegmenter segmenter = new DatabaseKeysetSegmenter(Mockito.mock(JDBCTable.class), List.of(keyAttr));
+
+        readSegment(segmenter, new Object[] { null, 1, "a" });
+
+        Assert.assertFalse(segmenter.isSeekAvailable());
+        DBDDataFilter nextFilter = segmenter.makeSegmentFilter(null);
+        Assert.assertNull(nextFilter.getWhere());
+        Assert.assertEquals("code", nextFilter.getOrder());
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer;
+
+import org.jkiss.dbeaver.model.DBPDataKind;
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.DBPDataSourceInfo;
+import org.jkiss.dbeaver.model.data.DBDValueHandler;
+import org.jkiss.dbeaver.model.data.DBDValueHandlerProvider;
+import org.jkiss.dbeaver.model.exec.*;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.struct.DBSDataContainer;
+import org.jkiss.dbeaver.tools.transfer.database.DatabasePipelinedReceiver;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class DatabasePipelinedReceiverTest {
+
+    private static final int ROW_COUNT = 10_000;
+
+    private final AtomicBoolean canceled = new AtomicBoolean();
+    private final DBCSession session = Mockito.mock(DBCSession.class);
+    private final DBCResultSet resultSet = Mockito.mock(DBCResultSet.class);
+    private final IDataTransferConsumer<?, ?> consumer = Mockito.mock(IDataTransferConsumer.class);
+    private final List<DBCAttributeMetaData> attributes = new ArrayList<>();
+    private final List<Object[]> consumedRows = Collections.synchronizedList(new ArrayList<>());
+    private Object[] currentRow;
+
+    @Before
+    public void init() throws DBCException {
+        DBRProgressMonitor monitor = Mockito.mock(DBRProgressMonitor.class);
+        Mockito.when(monitor.isCanceled()).thenAnswer(invocation -> canceled.get());
+        Mockito.when(session.getProgressMonitor()).thenReturn(monitor);
+
+        // Value handler reads values by index, so it works with both source and buffered result sets
+        DBDValueHandler valueHandler = Mockito.mock(DBDValueHandler.class);
+        Mockito.when(valueHandler.fetchValueObject(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.anyInt()))
+            .thenAnswer(invocation -> invocation.<DBCResultSet>getArgument(1).getAttributeValue(invocation.<Integer>getArgument(3)));
+        DBPDataSource dataSource = Mockito.mock(DBPDataSource.class, Mockito.withSettings().extraInterfaces(DBDValueHandlerProvider.class));
+        Mockito.when(((DBDValueHandlerProvider) dataSource).getValueHandler(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any()))
+            .thenReturn(valueHandler);
+        Mockito.when(dataSource.getInfo()).thenReturn(Mockito.mock(DBPDataSourceInfo.class));
+        Mockito.when(session.getDataSource()).thenReturn(dataSource);
+
+        for (int i = 0; i < 2; i++) {
+            DBCAttributeMetaData attribute = Mockito.mock(DBCAttributeMetaData.class);
+            Mockito.when(attribute.getOrdinalPosition()).thenReturn(i);
+            Mockito.when(attribute.getDataKind()).thenReturn(i == 0 ? DBPDataKind.NUMERIC : DBPDataKind.STRING);
+            attributes.add(attribute);
+        }
+        DBCResultSetMetaData metaData = Mockito.mock(DBCResultSetMetaData.class);
+        Mockito.doReturn(attributes).when(metaData).getAttributes();
+        Mockito.when(resultSet.getMeta()).thenReturn(metaData);
+        Mockito.when(resultSet.getFeature(DBCResultSet.FEATURE_NAME_JDBC)).thenReturn(Boolean.TRUE);
+        Mockito.when(resultSet.getAttributeValue(ArgumentMatchers.anyInt())).thenAnswer(invocation -> currentRow[invocation.<Integer>getArgument(0)]);
+
+        Mockito.doAnswer(invocation -> {
+            DBCResultSet rs = invocation.getArgument(1);
+            consumedRows.add(new Object[] { rs.getAttributeValue(0), rs.getAttributeValue(1) });
+            return null;
+        }).when(consumer).fetchRow(ArgumentMatchers.any(), ArgumentMatchers.any());
+    }
+
+    private DatabasePipelinedReceiver createReceiver(int bufferSize) {
+        DBSDataContainer container = Mockito.mock(DBSDataContainer.class);
+        Mockito.when(container.getName()).thenReturn("orders");
+        return new DatabasePipelinedReceiver(consumer, container, bufferSize);
+    }
+
+    private void produceRow(DatabasePipelinedReceiver receiver, int rowNumber) throws DBCException {
+        currentRow = new Object[] { rowNumber, "row " + rowNumber };
+        receiver.fetchRow(session, resultSet);
+    }
+
+    @Test(timeout = 60000)
+    public void keepRowOrder() throws DBCException {
+        DatabasePipelinedReceiver receiver = createReceiver(16);
+        receiver.fetchStart(session, resultSet, 0, 0);
+        for (int i = 0; i < ROW_COUNT; i++) {
+            produceRow(receiver, i);
+        }
+        receiver.fetchEnd(session, resultSet);
+        receiver.close();
+
+        Assert.assertEquals(ROW_COUNT, consumedRows.size());
+        for (int i = 0; i < ROW_COUNT; i++) {
+            Assert.assertArrayEquals(new Object[] { i, "row " + i }, consumedRows.get(i));
+        }
+        // Consumer reads rows from the buffered result set, not from the source cursor
+        Mockito.verify(consumer).fetchStart(ArgumentMatchers.same(session), ArgumentMatchers.argThat(rs -> rs != resultSet), ArgumentMatchers.eq(0L), ArgumentMatchers.eq(0L));
+        Mockito.verify(consumer).fetchEnd(ArgumentMatchers.same(session), ArgumentMatchers.argThat(rs -> rs != resultSet));
+        Mockito.verify(consumer).close();
+    }
+
+    @Test(timeout = 60000)
+    public void passRowsDirectlyForComplexValues() throws DBCException {
+        Mockito.when(attributes.get(1).getDataKind()).thenReturn(DBPDataKind.CONTENT);
+        DatabasePipelinedReceiver receiver = createReceiver(16);
+        receiver.fetchStart(session, resultSet, 0, 0);
+        produceRow(receiver, 1);
+        receiver.fetchEnd(session, resultSet);
+        receiver.close();
+
+        Mockito.verify(consumer).fetchStart(session, resultSet, 0, 0);
+        Mockito.verify(consumer).fetchRow(session, resultSet);
+        Mockito.verify(consumer).fetchEnd(session, resultSet);
+    }
+
+    @Test(timeout = 60000)
+    public void propagateConsumerError() throws DBCException {
+        DBCException consumerError = new DBCException("Target table is read-only");
+        Mockito.doAnswer(invocation -> {
+            if (consumedRows.size() == 100) {
+                throw consumerError;
+            }
+            DBCResultSet rs = invocation.getArgument(1);
+            consumedRows.add(new Object[] { rs.getAttributeValue(0), rs.getAttributeValue(1) });
+            return null;
+        }).when(consumer).fetchRow(ArgumentMatchers.any(), ArgumentMatchers.any());
+
+        DatabasePipelinedReceiver receiver = createReceiver(16);
+        receiver.fetchStart(session, resultSet, 0, 0);
+        DBCException producerError = null;
+        int producedRows = 0;
+        try {
+            for (; producedRows < ROW_COUNT; producedRows++) {
+                produceRow(receiver, producedRows);
+            }
+            receiver.fetchEnd(session, resultSet);
+        } catch (DBCException e) {
+            producerError = e;
+        } finally {
+            receiver.close();
+        }
+
+        Assert.assertSame(consumerError, producerError);
+        // Producer stops after the consumer error instead of reading the whole result set
+        Assert.assertTrue(producedRows < ROW_COUNT);
+        Assert.assertEquals(100, consumedRows.size());
+        try {
+            receiver.checkConsumerError();
+            Assert.fail("Consumer error must be reported to the producer");
+        } catch (DBCException e) {
+            Assert.assertSame(consumerError, e);
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void stopOnCancel() throws Exception {
+        CountDownLatch consumerBlocked = new CountDownLatch(1);
+        CountDownLatch releaseConsumer = new CountDownLatch(1);
+        Mockito.doAnswer(invocation -> {
+            DBCResultSet rs = invocation.getArgument(1);
+            consumedRows.add(new Object[] { rs.getAttributeValue(0), rs.getAttributeValue(1) });
+            consumerBlocked.countDown();
+            releaseConsumer.await();
+            return null;
+        }).when(consumer).fetchRow(ArgumentMatchers.any(), ArgumentMatchers.any());
+
+        DatabasePipelinedReceiver receiver = createReceiver(4);
+        receiver.fetchStart(session, resultSet, 0, 0);
+        Thread cancelThread = new Thread(() -> {
+            try {
+                consumerBlocked.await();
+                // Let producer fill the buffer and block on it
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                return;
+            }
+            canceled.set(true);
+        });
+        cancelThread.start();
+
+        DBCException producerError = null;
+        int producedRows = 0;
+        try {
+            for (; producedRows < ROW_COUNT; producedRows++) {
+                produceRow(receiver, producedRows);
+            }
+        } catch (DBCException e) {
+            producerError = e;
+        }
+        cancelThread.join();
+        Assert.assertNotNull(producerError);
+        Assert.assertTrue(producerError.getMessage(), producerError.getMessage().contains("canceled"));
+        // One row is held by the consumer, three more rows fill the rest of the buffer
+        Assert.assertEquals(4, producedRows);
+
+        releaseConsumer.countDown();
+        receiver.close();
+        Assert.assertEquals(1, consumedRows.size());
+        Assert.assertArrayEquals(new Object[] { 0, "row 0" }, consumedRows.get(0));
+        Mockito.verify(consumer, Mockito.never()).fetchEnd(ArgumentMatchers.any(), ArgumentMatchers.any());
+        Mockito.verify(consumer).close();
+    }
+}
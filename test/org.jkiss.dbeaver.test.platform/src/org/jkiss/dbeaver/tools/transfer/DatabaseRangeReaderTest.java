@@ -0,0 +1,257 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer;
+
+import org.jkiss.dbeaver.model.DBPDataSource;
+import org.jkiss.dbeaver.model.data.DBDDataFilter;
+import org.jkiss.dbeaver.model.data.DBDDataReceiver;
+import org.jkiss.dbeaver.model.data.DBDValueHandler;
+import org.jkiss.dbeaver.model.data.DBDValueHandlerProvider;
+import org.jkiss.dbeaver.model.exec.*;
+import org.jkiss.dbeaver.model.impl.jdbc.struct.JDBCTable;
+import org.jkiss.dbeaver.model.runtime.DBRBlockingObject;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.struct.DBSDataContainer;
+import org.jkiss.dbeaver.model.struct.DBSEntity;
+import org.jkiss.dbeaver.model.struct.DBSInstance;
+import org.jkiss.dbeaver.tools.transfer.database.DatabaseRangeReader;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.mockito.stubbing.Answer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class DatabaseRangeReaderTest {
+
+    private static final int RANGE_ROWS = 1000;
+    // Must be less than the time reader waits for range threads after cancel
+    private static final long CANCEL_WAIT_MS = 4000;
+
+    private final AtomicBoolean canceled = new AtomicBoolean();
+    private final DBCSession session = Mockito.mock(DBCSession.class);
+    private final DBSEntity entity = Mockito.mock(DBSEntity.class, Mockito.withSettings().extraInterfaces(DBSDataContainer.class));
+    private final DBCExecutionContext rangeContext = Mockito.mock(DBCExecutionContext.class);
+    private final IDataTransferConsumer<?, ?> consumer = Mockito.mock(IDataTransferConsumer.class);
+    private final List<Object> consumedValues = Collections.synchronizedList(new ArrayList<>());
+    private DBPDataSource dataSource;
+
+    @Before
+    public void init() throws Exception {
+        DBRProgressMonitor monitor = Mockito.mock(DBRProgressMonitor.class);
+        Mockito.when(monitor.isCanceled()).thenAnswer(invocation -> canceled.get());
+        Mockito.when(session.getProgressMonitor()).thenReturn(monitor);
+
+        // Value handler reads values by index, so it works with result sets of all ranges
+        DBDValueHandler valueHandler = Mockito.mock(DBDValueHandler.class);
+        Mockito.when(valueHandler.fetchValueObject(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.anyInt()))
+            .thenAnswer(invocation -> invocation.<DBCResultSet>getArgument(1).getAttributeValue(invocation.<Integer>getArgument(3)));
+        dataSource = Mockito.mock(DBPDataSource.class, Mockito.withSettings().extraInterfaces(DBDValueHandlerProvider.class));
+        Mockito.when(((DBDValueHandlerProvider) dataSource).getValueHandler(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any()))
+            .thenReturn(valueHandler);
+        Mockito.when(session.getDataSource()).thenReturn(dataSource);
+
+        DBSInstance instance = Mockito.mock(DBSInstance.class);
+        Mockito.when(entity.getName()).thenReturn("test_table");
+        Mockito.doReturn(instance).when(entity).getParentObject();
+        Mockito.when(instance.openIsolatedContext(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any()))
+            .thenReturn(rangeContext);
+        Mockito.when(rangeContext.openSession(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any())).thenAnswer(invocation -> {
+            DBCSession rangeSession = Mockito.mock(DBCSession.class);
+            Mockito.when(rangeSession.getProgressMonitor()).thenReturn(invocation.getArgument(0));
+            Mockito.when(rangeSession.getDataSource()).thenReturn(dataSource);
+            Mockito.when(rangeSession.getExecutionContext()).thenReturn(rangeContext);
+            return rangeSession;
+        });
+
+        Mockito.doAnswer(invocation -> {
+            DBCResultSet resultSet = invocation.getArgument(1);
+            consumedValues.add(resultSet.getAttributeValue(0));
+            return null;
+        }).when(consumer).fetchRow(ArgumentMatchers.any(), ArgumentMatchers.any());
+    }
+
+    private static List<DBDDataFilter> makeRangeFilters(String... conditions) {
+        List<DBDDataFilter> filters = new ArrayList<>();
+        for (String condition : conditions) {
+            DBDDataFilter filter = new DBDDataFilter();
+            filter.setWhere(condition);
+            filters.add(filter);
+        }
+        return filters;
+    }
+
+    private static DBCResultSet makeResultSet(DBCSession session, Object[] currentRow) throws DBCException {
+        DBCAttributeMetaData attribute = Mockito.mock(DBCAttributeMetaData.class);
+        Mockito.when(attribute.getName()).thenReturn("id");
+        Mockito.when(attribute.getOrdinalPosition()).thenReturn(0);
+        DBCResultSetMetaData metaData = Mockito.mock(DBCResultSetMetaData.class);
+        Mockito.doReturn(List.of(attribute)).when(metaData).getAttributes();
+        DBCResultSet resultSet = Mockito.mock(DBCResultSet.class);
+        Mockito.when(resultSet.getMeta()).thenReturn(metaData);
+        Mockito.when(resultSet.getSession()).thenReturn(session);
+        Mockito.when(resultSet.getAttributeValue(ArgumentMatchers.anyInt()))
+            .thenAnswer(invocation -> currentRow[invocation.<Integer>getArgument(0)]);
+        return resultSet;
+    }
+
+    private void mockRangeRead(Answer<DBCStatistics> answer) throws DBCException {
+        Mockito.when(((DBSDataContainer) entity).readData(
+            ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any(),
+            ArgumentMatchers.anyLong(), ArgumentMatchers.anyLong(), ArgumentMatchers.anyLong(), ArgumentMatchers.anyInt()))
+            .thenAnswer(answer);
+    }
+
+    private DBCStatistics readData(DatabaseRangeReader reader) throws DBCException {
+        return reader.readData(session, Mockito.mock(DBCExecutionSource.class), consumer, 0, 100, 10);
+    }
+
+    @Test
+    public void keepOrderedData() throws Exception {
+        JDBCTable<?, ?> table = Mockito.mock(JDBCTable.class);
+        DBDDataFilter dataFilter = new DBDDataFilter();
+        dataFilter.setOrder("id");
+        // Ranges are read concurrently, their rows would be mixed
+        Assert.assertNull(DatabaseRangeReader.create(session, table, dataFilter, 4));
+        Mockito.verifyNoInteractions(table);
+    }
+
+    @Test
+    public void readAllRanges() throws DBCException {
+        mockRangeRead(invocation -> {
+            DBCSession rangeSession = invocation.getArgument(1);
+            DBDDataReceiver receiver = invocation.getArgument(2);
+            long base = Long.parseLong(invocation.<DBDDataFilter>getArgument(3).getWhere()) * RANGE_ROWS;
+            Object[] currentRow = new Object[1];
+            DBCResultSet resultSet = makeResultSet(rangeSession, currentRow);
+            receiver.fetchStart(rangeSession, resultSet, 0, -1);
+            for (long i = 0; i < RANGE_ROWS; i++) {
+                currentRow[0] = base + i;
+                receiver.fetchRow(rangeSession, resultSet);
+            }
+            receiver.fetchEnd(rangeSession, resultSet);
+            DBCStatistics statistics = new DBCStatistics();
+            statistics.setRowsFetched(RANGE_ROWS);
+            return statistics;
+        });
+
+        DBCStatistics statistics = readData(new DatabaseRangeReader(entity, makeRangeFilters("0", "1", "2")));
+
+        Assert.assertEquals(3 * RANGE_ROWS, statistics.getRowsFetched());
+        Assert.assertEquals(3 * RANGE_ROWS, consumedValues.size());
+        List<Object> sortedValues = new ArrayList<>(consumedValues);
+        sortedValues.sort(null);
+        for (int i = 0; i < sortedValues.size(); i++) {
+            Assert.assertEquals((long) i, sortedValues.get(i));
+        }
+        Mockito.verify(consumer).fetchStart(ArgumentMatchers.same(session), ArgumentMatchers.any(), ArgumentMatchers.anyLong(), ArgumentMatchers.anyLong());
+        Mockito.verify(consumer).fetchEnd(ArgumentMatchers.same(session), ArgumentMatchers.any());
+        Mockito.verify(consumer).close();
+        Mockito.verify(rangeContext, Mockito.times(3)).close();
+    }
+
+    @Test
+    public void cancelBlockedRanges() throws Exception {
+        CountDownLatch blocksStarted = new CountDownLatch(2);
+        CountDownLatch blocksCanceled = new CountDownLatch(2);
+        DBRBlockingObject block = Mockito.mock(DBRBlockingObject.class);
+        Mockito.doAnswer(invocation -> {
+            blocksCanceled.countDown();
+            return null;
+        }).when(block).cancelBlock(ArgumentMatchers.any(), ArgumentMatchers.any());
+        // Ranges hang in statement execution until it is canceled
+        mockRangeRead(invocation -> {
+            DBCSession rangeSession = invocation.getArgument(1);
+            rangeSession.getProgressMonitor().startBlock(block, "Execute range query");
+            try {
+                blocksStarted.countDown();
+                if (!blocksCanceled.await(30, TimeUnit.SECONDS)) {
+                    Assert.fail("Range statement was not canceled");
+                }
+                throw new DBCException("Statement canceled");
+            } finally {
+                rangeSession.getProgressMonitor().endBlock();
+            }
+        });
+
+        Thread canceler = new Thread(() -> {
+            try {
+                blocksStarted.await(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                // Cancel anyway
+            }
+            canceled.set(true);
+        });
+        canceler.start();
+
+        long startTime = System.currentTimeMillis();
+        try {
+            readData(new DatabaseRangeReader(entity, makeRangeFilters("1", "2")));
+            Assert.fail("Canceled read must fail");
+        } catch (DBCException e) {
+            // Expected
+        }
+        canceler.join();
+
+        Assert.assertTrue(System.currentTimeMillis() - startTime < CANCEL_WAIT_MS);
+        Assert.assertEquals(0, blocksCanceled.getCount());
+        Mockito.verify(rangeContext, Mockito.times(2)).close();
+        Mockito.verify(consumer).close();
+    }
+
+    @Test
+    public void closeContextOfStuckRange() throws Exception {
+        CountDownLatch contextClosed = new CountDownLatch(1);
+        Mockito.doAnswer(invocation -> {
+            contextClosed.countDown();
+            return null;
+        }).when(rangeContext).close();
+        // Statement ignores cancel, only closed connection breaks the read
+        mockRangeRead(invocation -> {
+            DBCSession rangeSession = invocation.getArgument(1);
+            rangeSession.getProgressMonitor().startBlock(Mockito.mock(DBRBlockingObject.class), "Execute range query");
+            try {
+                canceled.set(true);
+                if (!contextClosed.await(30, TimeUnit.SECONDS)) {
+                    Assert.fail("Range context was not closed");
+                }
+                throw new DBCException("Connection closed");
+            } finally {
+                rangeSession.getProgressMonitor().endBlock();
+            }
+        });
+
+        try {
+            readData(new DatabaseRangeReader(entity, makeRangeFilters("1")));
+            Assert.fail("Canceled read must fail");
+        } catch (DBCException e) {
+            // Expected
+        }
+
+        Assert.assertEquals(0, contextClosed.getCount());
+        // Context is closed once by the reader, the range thread doesn't close it again
+        Mockito.verify(rangeContext).close();
+        Mockito.verify(consumer).close();
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer;
+
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.DBPDataKind;
+import org.jkiss.dbeaver.tools.transfer.stream.IStreamDataImporterSite;
+import org.jkiss.dbeaver.tools.transfer.stream.StreamDataImporterColumnInfo;
+import org.jkiss.dbeaver.tools.transfer.stream.StreamEntityMapping;
+import org.jkiss.dbeaver.tools.transfer.stream.importer.DataImporterJSON;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@RunWith(MockitoJUnitRunner.class)
+public class JSONImporterTest {
+    private static final File DUMMY_FILE = new File("dummy");
+
+    private final DataImporterJSON importer = new DataImporterJSON();
+    private final StreamEntityMapping mapping = new StreamEntityMapping(DUMMY_FILE);
+    private final Map<String, Object> properties = new HashMap<>();
+
+    @Mock
+    private IStreamDataImporterSite site;
+
+    @Before
+    public void init() throws DBException {
+        importer.init(site);
+        Mockito.when(site.getProcessorProperties()).thenReturn(properties);
+    }
+
+    @Test
+    public void readTopLevelArray() throws DBException, IOException {
+        List<StreamDataImporterColumnInfo> columnsInfo = readColumnsInfo("[{\"id\": 1, \"name\": \"a\"}, {\"id\": 2, \"flag\": true}]");
+        Assert.assertEquals(List.of("id", "name", "flag"), getNames(columnsInfo));
+        Assert.assertEquals(DBPDataKind.NUMERIC, columnsInfo.get(0).getDataKind());
+        Assert.assertEquals(DBPDataKind.STRING, columnsInfo.get(1).getDataKind());
+        Assert.assertEquals(DBPDataKind.BOOLEAN, columnsInfo.get(2).getDataKind());
+    }
+
+    @Test
+    public void readExportedTable() throws DBException, IOException {
+        List<StreamDataImporterColumnInfo> columnsInfo = readColumnsInfo("{\"orders\": [\n{\"id\": 1, \"total\": 1.5},\n{\"id\": 2, \"total\": 3}\n]}");
+        Assert.assertEquals(List.of("id", "total"), getNames(columnsInfo));
+        Assert.assertEquals(DBPDataKind.NUMERIC, columnsInfo.get(1).getDataKind());
+
+        Assert.assertTrue(readColumnsInfo("{\"orders\": []}").isEmpty());
+    }
+
+    @Test
+    public void readLargeExportedTable() throws DBException, IOException {
+        StringBuilder data = new StringBuilder("{\"orders\": [");
+        for (int i = 0; i < 5000; i++) {
+            data.append(i == 0 ? "" : ",").append("{\"id\": ").append(i).append('}');
+        }
+        data.append("]}");
+        Assert.assertEquals(List.of("id"), getNames(readColumnsInfo(data.toString())));
+    }
+
+    @Test
+    public void readJsonLines() throws DBException, IOException {
+        List<StreamDataImporterColumnInfo> columnsInfo = readColumnsInfo("{\"id\": 1, \"name\": \"a\"}\n{\"id\": 2, \"comment\": null}\n");
+        Assert.assertEquals(List.of("id", "name", "comment"), getNames(columnsInfo));
+        // No values to guess the type from
+        Assert.assertEquals(DBPDataKind.STRING, columnsInfo.get(2).getDataKind());
+    }
+
+    @Test
+    public void readJsonLinesWithArrayOfObjects() throws DBException, IOException {
+        // Array of objects followed by other properties is a value of the first row, not a wrapper of rows
+        List<StreamDataImporterColumnInfo> columnsInfo = readColumnsInfo(
+            "{\"items\": [{\"sku\": \"x\"}, {\"sku\": \"y\"}], \"id\": 1}\n{\"items\": [], \"id\": 2}\n");
+        Assert.assertEquals(List.of("items", "id"), getNames(columnsInfo));
+        Assert.assertEquals(DBPDataKind.STRING, columnsInfo.get(0).getDataKind());
+
+        columnsInfo = readColumnsInfo("{\"tags\": [1, 2], \"id\": 1}\n{\"tags\": [3], \"id\": 2}\n");
+        Assert.assertEquals(List.of("tags", "id"), getNames(columnsInfo));
+    }
+
+    @Test
+    public void flattenNestedObjects() throws DBException, IOException {
+        List<StreamDataImporterColumnInfo> columnsInfo = readColumnsInfo("[{\"id\": 1, \"address\": {\"city\": \"x\", \"zip\": 1}}]");
+        Assert.assertEquals(List.of("id", "address.city", "address.zip"), getNames(columnsInfo));
+
+        properties.put("nestedObjects", DataImporterJSON.NestedObjects.document.name());
+        columnsInfo = readColumnsInfo("[{\"id\": 1, \"address\": {\"city\": \"x\", \"zip\": 1}}]");
+        Assert.assertEquals(List.of("id", "address"), getNames(columnsInfo));
+        Assert.assertEquals(DBPDataKind.STRING, columnsInfo.get(1).getDataKind());
+    }
+
+    @Test
+    public void returnsEmptyListWithEmptyFile() throws DBException, IOException {
+        Assert.assertTrue(readColumnsInfo("").isEmpty());
+        Assert.assertTrue(readColumnsInfo("[]").isEmpty());
+    }
+
+    private List<StreamDataImporterColumnInfo> readColumnsInfo(String data) throws DBException, IOException {
+        try (ByteArrayInputStream is = new ByteArrayInputStream(data.getBytes(StandardCharsets.UTF_8))) {
+            return importer.readColumnsInfo(mapping, is);
+        }
+    }
+
+    private static List<String> getNames(List<StreamDataImporterColumnInfo> columnsInfo) {
+        return columnsInfo.stream().map(StreamDataImporterColumnInfo::getName).collect(Collectors.toList());
+    }
+}
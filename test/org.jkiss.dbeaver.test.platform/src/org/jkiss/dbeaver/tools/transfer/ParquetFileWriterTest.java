@@ -0,0 +1,817 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.tools.transfer;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.code.Nullable;
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.DBPDataKind;
+import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
+import org.jkiss.dbeaver.tools.transfer.stream.IStreamDataExporterSite;
+import org.jkiss.dbeaver.tools.transfer.stream.exporter.DataExporterParquet;
+import org.jkiss.dbeaver.tools.transfer.stream.parquet.*;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Writes Parquet files and reads them back with a minimal reader of the format
+ * (Thrift compact footer and page headers, RLE/bit-packed levels, PLAIN and dictionary encoded values).
+ */
+public class ParquetFileWriterTest {
+
+    private static final int ENCODING_RLE_DICTIONARY = 8;
+
+    @Test
+    public void writeAllTypes() throws IOException {
+        List<ParquetColumn> columns = new ArrayList<>();
+        for (ParquetType type : ParquetType.values()) {
+            columns.add(new ParquetColumn(type.name().toLowerCase(), type, 10, 2, true));
+        }
+        byte[] file = writeFile(columns, ParquetCompression.NONE, 100, writer -> {
+            for (int row = 0; row < 3; row++) {
+                for (ParquetType type : ParquetType.values()) {
+                    ParquetColumn column = writer.getColumn(type.ordinal());
+                    // Nulls are in different rows of different columns
+                    if ((row + type.ordinal()) % 3 == 2) {
+                        column.addNull();
+                    } else {
+                        addValue(column, getTestValue(type, row));
+                    }
+                }
+                writer.endRow();
+            }
+        });
+
+        ParquetFile parquetFile = new ParquetFile(file);
+        Assert.assertEquals(1, parquetFile.metadata.getInt(1));
+        Assert.assertEquals(3, parquetFile.metadata.getLong(3));
+        Assert.assertEquals("test", parquetFile.metadata.getString(6));
+
+        List<ThriftStruct> schema = parquetFile.metadata.getStructList(2);
+        Assert.assertEquals(columns.size() + 1, schema.size());
+        Assert.assertEquals("schema", schema.get(0).getString(4));
+        Assert.assertEquals(columns.size(), schema.get(0).getInt(5));
+        for (ParquetType type : ParquetType.values()) {
+            ThriftStruct element = schema.get(type.ordinal() + 1);
+            Assert.assertEquals(type.name().toLowerCase(), element.getString(4));
+            Assert.assertEquals(type.getPhysicalType(), element.getInt(1));
+            // Optional
+            Assert.assertEquals(1, element.getInt(3));
+        }
+        assertSchemaElement(schema.get(ParquetType.STRING.ordinal() + 1), 0, 1);
+        assertSchemaElement(schema.get(ParquetType.DECIMAL.ordinal() + 1), 5, 5);
+        Assert.assertEquals(2, schema.get(ParquetType.DECIMAL.ordinal() + 1).getInt(7));
+        Assert.assertEquals(10, schema.get(ParquetType.DECIMAL.ordinal() + 1).getInt(8));
+        assertSchemaElement(schema.get(ParquetType.DATE.ordinal() + 1), 6, 6);
+        assertSchemaElement(schema.get(ParquetType.TIME.ordinal() + 1), null, 7);
+        assertSchemaElement(schema.get(ParquetType.TIMESTAMP.ordinal() + 1), null, 8);
+        assertSchemaElement(schema.get(ParquetType.TIMESTAMP_UTC.ordinal() + 1), 10, 8);
+        Assert.assertFalse(schema.get(ParquetType.TIMESTAMP.ordinal() + 1).getStruct(10).getStruct(8).getBoolean(1));
+        Assert.assertTrue(schema.get(ParquetType.TIMESTAMP_UTC.ordinal() + 1).getStruct(10).getStruct(8).getBoolean(1));
+        Assert.assertNull(schema.get(ParquetType.INT64.ordinal() + 1).get(10));
+
+        for (ParquetType type : ParquetType.values()) {
+            List<Object> values = parquetFile.readColumn(type.ordinal());
+            Assert.assertEquals(3, values.size());
+            for (int row = 0; row < 3; row++) {
+                Object expected = (row + type.ordinal()) % 3 == 2 ? null : getTestValue(type, row);
+                Assert.assertEquals(type.name(), normalizeValue(expected), normalizeValue(values.get(row)));
+            }
+        }
+    }
+
+    @Test
+    public void writeRowGroups() throws IOException {
+        for (ParquetCompression compression : ParquetCompression.values()) {
+            List<ParquetColumn> columns = List.of(
+                new ParquetColumn("id", ParquetType.INT64, 0, 0, true),
+                new ParquetColumn("name", ParquetType.STRING, 0, 0, true),
+                new ParquetColumn("flag", ParquetType.BOOLEAN, 0, 0, true));
+            byte[] file = writeFile(columns, compression, 100, writer -> {
+                for (int row = 0; row < 250; row++) {
+                    writer.getColumn(0).addLong(row);
+                    if (row % 7 == 0) {
+                        writer.getColumn(1).addNull();
+                    } else {
+                        writer.getColumn(1).addBytes(("name" + row % 5).getBytes(StandardCharsets.UTF_8));
+                    }
+                    // Long runs of equal values and nulls
+                    if (row >= 20 && row < 60) {
+                        writer.getColumn(2).addNull();
+                    } else {
+                        writer.getColumn(2).addBoolean(row % 3 == 0);
+                    }
+                    writer.endRow();
+                }
+            });
+
+            ParquetFile parquetFile = new ParquetFile(file);
+            Assert.assertEquals(250, parquetFile.metadata.getLong(3));
+            List<ThriftStruct> rowGroups = parquetFile.metadata.getStructList(4);
+            Assert.assertEquals(3, rowGroups.size());
+            Assert.assertEquals(100, rowGroups.get(0).getLong(3));
+            Assert.assertEquals(100, rowGroups.get(1).getLong(3));
+            Assert.assertEquals(50, rowGroups.get(2).getLong(3));
+            for (ThriftStruct rowGroup : rowGroups) {
+                ThriftStruct chunk = rowGroup.getStructList(1).get(1).getStruct(3);
+                Assert.assertEquals(compression.getCodec(), chunk.getInt(4));
+                Assert.assertTrue(chunk.getIntList(2).contains(ENCODING_RLE_DICTIONARY));
+            }
+
+            List<Object> ids = parquetFile.readColumn(0);
+            List<Object> names = parquetFile.readColumn(1);
+            List<Object> flags = parquetFile.readColumn(2);
+            Assert.assertEquals(250, ids.size());
+            for (int row = 0; row < 250; row++) {
+                Assert.assertEquals((long) row, ids.get(row));
+                Assert.assertEquals(row % 7 == 0 ? null : "name" + row % 5, normalizeValue(names.get(row)));
+                Assert.assertEquals(row >= 20 && row < 60 ? null : row % 3 == 0, flags.get(row));
+            }
+        }
+    }
+
+    @Test
+    public void fallBackToPlainEncoding() throws IOException {
+        char[] chars = new char[5000];
+        List<ParquetColumn> columns = List.of(new ParquetColumn("text", ParquetType.STRING, 0, 0, true));
+        // Dictionary of distinct values exceeds its size limit
+        byte[] file = writeFile(columns, ParquetCompression.SNAPPY, 1000, writer -> {
+            for (int row = 0; row < 300; row++) {
+                Arrays.fill(chars, (char) ('a' + row % 26));
+                writer.getColumn(0).addBytes((row + new String(chars)).getBytes(StandardCharsets.UTF_8));
+                writer.endRow();
+            }
+        });
+
+        ParquetFile parquetFile = new ParquetFile(file);
+        ThriftStruct chunk = parquetFile.metadata.getStructList(4).get(0).getStructList(1).get(0).getStruct(3);
+        Assert.assertFalse(chunk.getIntList(2).contains(ENCODING_RLE_DICTIONARY));
+        Assert.assertNull(chunk.get(11));
+        List<Object> values = parquetFile.readColumn(0);
+        Assert.assertEquals(300, values.size());
+        for (int row = 0; row < 300; row++) {
+            Arrays.fill(chars, (char) ('a' + row % 26));
+            Assert.assertEquals(row + new String(chars), normalizeValue(values.get(row)));
+        }
+    }
+
+    @Test
+    public void writeEmptyFile() throws IOException {
+        List<ParquetColumn> columns = List.of(new ParquetColumn("id", ParquetType.INT32, 0, 0, true));
+        ParquetFile parquetFile = new ParquetFile(writeFile(columns, ParquetCompression.SNAPPY, 100, writer -> {}));
+        Assert.assertEquals(0, parquetFile.metadata.getLong(3));
+        Assert.assertTrue(parquetFile.metadata.getStructList(4).isEmpty());
+    }
+
+    @Test
+    public void encodeRleBitPacked() {
+        // Bit-packed group of 8 values, padded
+        Assert.assertArrayEquals(new byte[]{3, 5}, encodeRle(new int[]{1, 0, 1}, 1));
+        // RLE run
+        Assert.assertArrayEquals(new byte[]{20, 1}, encodeRle(new int[]{1, 1, 1, 1, 1, 1, 1, 1, 1, 1}, 1));
+        // Repeated value takes whole bytes
+        Assert.assertArrayEquals(new byte[]{16, 0x2C, 0x01}, encodeRle(new int[]{300, 300, 300, 300, 300, 300, 300, 300}, 9));
+        // Literal group is completed with values of the following run
+        Assert.assertArrayEquals(new byte[]{3, (byte) 0xFE, 20, 1}, encodeRle(new int[]{0, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1}, 1));
+
+        Random random = new Random(1);
+        for (int bitWidth = 1; bitWidth <= 20; bitWidth++) {
+            int[] values = new int[1000];
+            for (int i = 0; i < values.length; i++) {
+                // Runs of different lengths mixed with random values
+                values[i] = i > 0 && random.nextInt(4) > 0 ? values[i - 1] : random.nextInt(1 << bitWidth);
+            }
+            byte[] encoded = encodeRle(values, bitWidth);
+            Assert.assertArrayEquals(values, decodeRle(ByteBuffer.wrap(encoded), values.length, bitWidth));
+        }
+    }
+
+    @Test
+    public void compressSnappy() throws IOException {
+        SnappyCompressor compressor = new SnappyCompressor();
+        Random random = new Random(1);
+        byte[] randomData = new byte[100_000];
+        random.nextBytes(randomData);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            text.append("value ").append(i % 100).append(i % 3 == 0 ? " aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa" : "");
+        }
+        byte[] textData = text.toString().getBytes(StandardCharsets.UTF_8);
+        byte[] repeatedData = new byte[200_000];
+
+        for (byte[] data : List.of(new byte[0], new byte[]{1, 2, 3}, randomData, textData, repeatedData)) {
+            byte[] compressed = compressor.compress(data, data.length);
+            Assert.assertArrayEquals(data, decompressSnappy(compressed));
+        }
+        Assert.assertTrue(compressor.compress(textData, textData.length).length < textData.length / 4);
+        Assert.assertTrue(compressor.compress(repeatedData, repeatedData.length).length < repeatedData.length / 10);
+        // Only the specified length is compressed
+        Assert.assertArrayEquals(Arrays.copyOf(textData, 1000), decompressSnappy(compressor.compress(textData, 1000)));
+    }
+
+    /**
+     * Bytes of the file are checked against the Parquet and Thrift compact protocol specifications,
+     * independently of the reader used by other tests
+     */
+    @Test
+    public void writePlainFileBytes() throws IOException {
+        List<ParquetColumn> columns = List.of(new ParquetColumn("id", ParquetType.INT32, 0, 0, false));
+        byte[] file = writeFile(columns, ParquetCompression.NONE, 100, writer -> {
+            writer.getColumn(0).addInt(1);
+            writer.endRow();
+            writer.getColumn(0).addNull();
+            writer.endRow();
+            writer.getColumn(0).addInt(3);
+            writer.endRow();
+        });
+        Assert.assertArrayEquals(parseHex(
+            "50 41 52 31 " +                    // PAR1
+            // PageHeader: type=DATA_PAGE, uncompressed_page_size=14, compressed_page_size=14,
+            // data_page_header={num_values=3, encoding=PLAIN, definition_level_encoding=RLE, repetition_level_encoding=RLE}
+            "15 00 15 1C 15 1C 2C 15 06 15 00 15 06 15 06 00 00 " +
+            "02 00 00 00 03 05 " +              // Definition levels: length 2, bit-packed group [1, 0, 1]
+            "01 00 00 00 03 00 00 00 " +        // PLAIN values 1, 3
+            // FileMetaData: version=1, schema=[{name=schema, num_children=1}, {type=INT32, repetition_type=OPTIONAL, name=id}]
+            "15 02 19 2C 48 06 73 63 68 65 6D 61 15 02 00 15 02 25 02 18 02 69 64 00 " +
+            // num_rows=3, row_groups=[{columns=[{file_offset=4, meta_data={type=INT32, encodings=[PLAIN, RLE],
+            // path_in_schema=[id], codec=UNCOMPRESSED, num_values=3, total_uncompressed_size=31, total_compressed_size=31,
+            // data_page_offset=4}}], total_byte_size=31, num_rows=3}], created_by=test
+            "16 06 19 1C 19 1C 26 08 1C 15 02 19 25 00 06 19 18 02 69 64 15 00 16 06 16 3E 16 3E 26 08 00 00 " +
+            "16 3E 16 06 00 28 04 74 65 73 74 00 " +
+            "44 00 00 00 50 41 52 31"),         // Footer length 68, PAR1
+            file);
+    }
+
+    @Test
+    public void writeDictionaryFileBytes() throws IOException {
+        List<ParquetColumn> columns = List.of(new ParquetColumn("name", ParquetType.STRING, 0, 0, true));
+        byte[] file = writeFile(columns, ParquetCompression.SNAPPY, 100, writer -> {
+            for (String value : new String[]{"a", "b", "a"}) {
+                writer.getColumn(0).addBytes(value.getBytes(StandardCharsets.UTF_8));
+                writer.endRow();
+            }
+        });
+        Assert.assertArrayEquals(parseHex(
+            "50 41 52 31 " +
+            // PageHeader: type=DICTIONARY_PAGE, uncompressed_page_size=10, compressed_page_size=12,
+            // dictionary_page_header={num_values=2, encoding=PLAIN}
+            "15 04 15 14 15 18 4C 15 04 15 00 00 00 " +
+            // Snappy: length 10, literal [01 00 00 00 61], copy 4 bytes at offset 5, literal [62].
+            // PLAIN byte arrays "a", "b"
+            "0A 10 01 00 00 00 61 0E 05 00 00 62 " +
+            // PageHeader: type=DATA_PAGE, uncompressed_page_size=9, compressed_page_size=11,
+            // data_page_header={num_values=3, encoding=RLE_DICTIONARY, definition_level_encoding=RLE, repetition_level_encoding=RLE}
+            "15 00 15 12 15 16 2C 15 06 15 10 15 06 15 06 00 00 " +
+            // Snappy: length 9, literal of 9 bytes.
+            // Definition levels: length 2, bit-packed [1, 1, 1]. Indices: bit width 1, bit-packed [0, 1, 0]
+            "09 20 02 00 00 00 03 07 01 03 02 " +
+            // FileMetaData: version=1, schema=[{name=schema, num_children=1},
+            // {type=BYTE_ARRAY, repetition_type=OPTIONAL, name=name, converted_type=UTF8, logicalType=STRING}]
+            "15 02 19 2C 48 06 73 63 68 65 6D 61 15 02 00 15 0C 25 02 18 04 6E 61 6D 65 25 00 4C 1C 00 00 00 " +
+            // num_rows=3, row_groups=[{columns=[{file_offset=4, meta_data={type=BYTE_ARRAY, encodings=[PLAIN, RLE, RLE_DICTIONARY],
+            // path_in_schema=[name], codec=SNAPPY, num_values=3, total_uncompressed_size=49, total_compressed_size=53,
+            // data_page_offset=29, dictionary_page_offset=4}}], total_byte_size=49, num_rows=3}], created_by=test
+            "16 06 19 1C 19 1C 26 08 1C 15 0C 19 35 00 06 10 19 18 04 6E 61 6D 65 15 02 16 06 16 62 16 6A 26 3A 26 08 00 00 " +
+            "16 62 16 06 00 28 04 74 65 73 74 00 " +
+            "51 00 00 00 50 41 52 31"),
+            file);
+    }
+
+    @Test
+    public void compressSnappyBytes() {
+        SnappyCompressor compressor = new SnappyCompressor();
+        // Uncompressed length only
+        Assert.assertArrayEquals(parseHex("00"), compressor.compress(new byte[0], 0));
+        // Length 3, literal of 3 bytes
+        Assert.assertArrayEquals(parseHex("03 08 01 02 03"), compressor.compress(new byte[]{1, 2, 3}, 3));
+        // Length 24, literal "abc", copy of 21 bytes at offset 3 with 2-byte offset
+        byte[] data = "abcabcabcabcabcabcabcabc".getBytes(StandardCharsets.US_ASCII);
+        Assert.assertArrayEquals(parseHex("18 08 61 62 63 52 03 00"), compressor.compress(data, data.length));
+    }
+
+    @Test
+    public void exportDecimalsWithoutRounding() throws Exception {
+        DBDAttributeBinding binding = Mockito.mock(DBDAttributeBinding.class);
+        Mockito.when(binding.getName()).thenReturn("amount");
+        Mockito.when(binding.getLabel()).thenReturn("amount");
+        Mockito.when(binding.getDataKind()).thenReturn(DBPDataKind.NUMERIC);
+        Mockito.when(binding.getTypeID()).thenReturn(Types.DECIMAL);
+        Mockito.when(binding.getPrecision()).thenReturn(6);
+        Mockito.when(binding.getScale()).thenReturn(2);
+
+        // Trailing zeros, integers and strings are converted exactly
+        byte[] file = exportParquet(binding, new BigDecimal("1.5000"), -7, "-1234.50", new BigDecimal("9999.99"));
+        List<Object> values = new ParquetFile(file).readColumn(0);
+        Assert.assertEquals(4, values.size());
+        Assert.assertEquals(BigInteger.valueOf(150), new BigInteger((byte[]) values.get(0)));
+        Assert.assertEquals(BigInteger.valueOf(-700), new BigInteger((byte[]) values.get(1)));
+        Assert.assertEquals(BigInteger.valueOf(-123450), new BigInteger((byte[]) values.get(2)));
+        Assert.assertEquals(BigInteger.valueOf(999999), new BigInteger((byte[]) values.get(3)));
+
+        // Values which need rounding or a bigger precision are errors
+        for (Object value : new Object[]{new BigDecimal("1.005"), 0.125d, new BigDecimal("10000.00"), Double.NaN}) {
+            try {
+                exportParquet(binding, value);
+                Assert.fail("Decimal " + value + " must not be exported");
+            } catch (DBException e) {
+                Assert.assertTrue(e.getMessage(), e.getMessage().contains("'amount'"));
+            }
+        }
+    }
+
+    private interface RowWriter {
+        void writeRows(@NotNull ParquetFileWriter writer) throws IOException;
+    }
+
+    @NotNull
+    private static byte[] writeFile(
+        @NotNull List<ParquetColumn> columns,
+        @NotNull ParquetCompression compression,
+        int rowGroupSize,
+        @NotNull RowWriter rowWriter
+    ) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ParquetFileWriter writer = new ParquetFileWriter(out, columns, compression, rowGroupSize, Long.MAX_VALUE, "test");
+        writer.start();
+        rowWriter.writeRows(writer);
+        writer.finish();
+        return out.toByteArray();
+    }
+
+    @NotNull
+    private static byte[] parseHex(@NotNull String hex) {
+        String[] items = hex.trim().split("\\s+");
+        byte[] bytes = new byte[items.length];
+        for (int i = 0; i < items.length; i++) {
+            bytes[i] = (byte) Integer.parseInt(items[i], 16);
+        }
+        return bytes;
+    }
+
+    @NotNull
+    private static byte[] exportParquet(@NotNull DBDAttributeBinding binding, @NotNull Object... values) throws DBException, IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        IStreamDataExporterSite site = Mockito.mock(IStreamDataExporterSite.class);
+        Mockito.when(site.getProperties()).thenReturn(new HashMap<>());
+        Mockito.when(site.getAttributes()).thenReturn(new DBDAttributeBinding[]{binding});
+        Mockito.when(site.getOutputStream()).thenReturn(out);
+
+        DataExporterParquet exporter = new DataExporterParquet();
+        exporter.init(site);
+        exporter.exportHeader(null);
+        for (Object value : values) {
+            exporter.exportRow(null, null, new Object[]{value});
+        }
+        exporter.exportFooter(null);
+        exporter.dispose();
+        return out.toByteArray();
+    }
+
+    @NotNull
+    private static Object getTestValue(@NotNull ParquetType type, int row) {
+        switch (type) {
+            case BOOLEAN:
+                return row % 2 == 0;
+            case INT32:
+            case DATE:
+                return row == 1 ? Integer.MIN_VALUE : row * 1000 - 1;
+            case INT64:
+            case TIME:
+            case TIMESTAMP:
+            case TIMESTAMP_UTC:
+                return row == 1 ? Long.MAX_VALUE : row * 1_000_000_000_000L - 1;
+            case FLOAT:
+                return row == 1 ? Float.NaN : row * 1.5f;
+            case DOUBLE:
+                return row == 1 ? Double.NEGATIVE_INFINITY : row * -2.25d;
+            case DECIMAL:
+                return new BigDecimal(row == 1 ? "-12345678.90" : row + ".05").unscaledValue().toByteArray();
+            case STRING:
+                return (row == 1 ? "текст" : row == 2 ? "" : "text").getBytes(StandardCharsets.UTF_8);
+            default:
+                return new byte[]{(byte) row, 0, (byte) 0xFF};
+        }
+    }
+
+    private static void addValue(@NotNull ParquetColumn column, @NotNull Object value) {
+        if (value instanceof Boolean) {
+            column.addBoolean((Boolean) value);
+        } else if (value instanceof Integer) {
+            column.addInt((Integer) value);
+        } else if (value instanceof Long) {
+            column.addLong((Long) value);
+        } else if (value instanceof Float) {
+            column.addFloat((Float) value);
+        } else if (value instanceof Double) {
+            column.addDouble((Double) value);
+        } else {
+            column.addBytes((byte[]) value);
+        }
+    }
+
+    /**
+     * Byte arrays can't be compared with equals
+     */
+    @Nullable
+    private static Object normalizeValue(@Nullable Object value) {
+        return value instanceof byte[] ? new String((byte[]) value, StandardCharsets.ISO_8859_1) : value;
+    }
+
+    private static void assertSchemaElement(@NotNull ThriftStruct element, @Nullable Integer convertedType, int logicalType) {
+        Assert.assertEquals(convertedType, element.get(6));
+        Assert.assertNotNull(element.getStruct(10).getStruct(logicalType));
+    }
+
+    @NotNull
+    private static byte[] encodeRle(@NotNull int[] values, int bitWidth) {
+        ParquetByteOutput out = new ParquetByteOutput();
+        ParquetEncodings.writeRleBitPacked(out, values, values.length, bitWidth);
+        return out.toByteArray();
+    }
+
+    @NotNull
+    private static int[] decodeRle(@NotNull ByteBuffer in, int count, int bitWidth) {
+        int[] values = new int[count];
+        int pos = 0;
+        while (pos < count) {
+            long header = readVarInt(in);
+            if ((header & 1) == 0) {
+                int value = 0;
+                for (int i = 0; i < (bitWidth + 7) / 8; i++) {
+                    value |= (in.get() & 0xFF) << (i * 8);
+                }
+                for (long i = 0; i < header >>> 1; i++) {
+                    values[pos++] = value;
+                }
+            } else {
+                long buffer = 0;
+                int bufferBits = 0;
+                for (long i = 0; i < (header >>> 1) * 8; i++) {
+                    while (bufferBits < bitWidth) {
+                        buffer |= (long) (in.get() & 0xFF) << bufferBits;
+                        bufferBits += 8;
+                    }
+                    int value = (int) (buffer & ((1L << bitWidth) - 1));
+                    buffer >>>= bitWidth;
+                    bufferBits -= bitWidth;
+                    if (pos < count) {
+                        values[pos++] = value;
+                    } else {
+                        // Padding of the last group
+                        Assert.assertEquals(0, value);
+                    }
+                }
+            }
+        }
+        return values;
+    }
+
+    @NotNull
+    private static byte[] decompressSnappy(@NotNull byte[] data) {
+        ByteBuffer in = ByteBuffer.wrap(data);
+        byte[] out = new byte[(int) readVarInt(in)];
+        int pos = 0;
+        while (in.hasRemaining()) {
+            int tag = in.get() & 0xFF;
+            switch (tag & 3) {
+                case 0: {
+                    int length = tag >>> 2;
+                    if (length >= 60) {
+                        int extraBytes = length - 59;
+                        length = 0;
+                        for (int i = 0; i < extraBytes; i++) {
+                            length |= (in.get() & 0xFF) << (i * 8);
+                        }
+                    }
+                    in.get(out, pos, length + 1);
+                    pos += length + 1;
+                    break;
+                }
+                case 1:
+                    pos = copyMatch(out, pos, ((tag >>> 5) << 8) | (in.get() & 0xFF), ((tag >>> 2) & 7) + 4);
+                    break;
+                case 2:
+                    pos = copyMatch(out, pos, (in.get() & 0xFF) | (in.get() & 0xFF) << 8, (tag >>> 2) + 1);
+                    break;
+                default:
+                    pos = copyMatch(out, pos, in.order(ByteOrder.LITTLE_ENDIAN).getInt(), (tag >>> 2) + 1);
+                    break;
+            }
+        }
+        Assert.assertEquals(out.length, pos);
+        return out;
+    }
+
+    private static int copyMatch(@NotNull byte[] out, int pos, int offset, int length) {
+        Assert.assertTrue(offset > 0 && offset <= pos);
+        for (int i = 0; i < length; i++) {
+            out[pos + i] = out[pos - offset + i];
+        }
+        return pos + length;
+    }
+
+    private static long readVarInt(@NotNull ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.get() & 0xFF;
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+
+    /**
+     * Parquet file with parsed metadata
+     */
+    private static class ParquetFile {
+        private final byte[] data;
+        private final ThriftStruct metadata;
+
+        ParquetFile(@NotNull byte[] data) {
+            this.data = data;
+            Assert.assertEquals("PAR1", new String(data, 0, 4, StandardCharsets.US_ASCII));
+            Assert.assertEquals("PAR1", new String(data, data.length - 4, 4, StandardCharsets.US_ASCII));
+            ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+            int footerLength = buffer.getInt(data.length - 8);
+            buffer.position(data.length - 8 - footerLength);
+            metadata = ThriftStruct.read(buffer);
+            Assert.assertEquals(data.length - 8, buffer.position());
+
+            // Column chunks follow each other from the file start to the footer
+            long chunkOffset = 4;
+            for (ThriftStruct rowGroup : metadata.getStructList(4)) {
+                for (ThriftStruct chunk : rowGroup.getStructList(1)) {
+                    Assert.assertEquals(chunkOffset, chunk.getLong(2));
+                    chunkOffset += chunk.getStruct(3).getLong(7);
+                }
+            }
+            Assert.assertEquals(data.length - 8 - footerLength, chunkOffset);
+        }
+
+        /**
+         * Reads column values of all row groups
+         */
+        @NotNull
+        List<Object> readColumn(int index) throws IOException {
+            int physicalType = metadata.getStructList(2).get(index + 1).getInt(1);
+            List<Object> values = new ArrayList<>();
+            for (ThriftStruct rowGroup : metadata.getStructList(4)) {
+                ThriftStruct chunk = rowGroup.getStructList(1).get(index);
+                ThriftStruct chunkMeta = chunk.getStruct(3);
+                Assert.assertEquals(physicalType, chunkMeta.getInt(1));
+                Assert.assertEquals(rowGroup.getLong(3), chunkMeta.getLong(5));
+                Long dictionaryOffset = (Long) chunkMeta.get(11);
+                long chunkOffset = dictionaryOffset != null ? dictionaryOffset : chunkMeta.getLong(9);
+                Assert.assertEquals(chunk.getLong(2), chunkOffset);
+                ByteBuffer in = ByteBuffer.wrap(data, (int) chunkOffset, (int) chunkMeta.getLong(7));
+                List<byte[]> dictionary = null;
+                if (dictionaryOffset != null) {
+                    ThriftStruct header = ThriftStruct.read(in);
+                    Assert.assertEquals(2, header.getInt(1));
+                    ByteBuffer page = readPageData(in, header, chunkMeta.getInt(4));
+                    int dictionarySize = header.getStruct(7).getInt(1);
+                    dictionary = new ArrayList<>();
+                    for (int i = 0; i < dictionarySize; i++) {
+                        dictionary.add((byte[]) readPlainValue(page, physicalType));
+                    }
+                    Assert.assertFalse(page.hasRemaining());
+                    Assert.assertEquals(chunkMeta.getLong(9), in.position());
+                }
+                ThriftStruct header = ThriftStruct.read(in);
+                Assert.assertEquals(0, header.getInt(1));
+                ByteBuffer page = readPageData(in, header, chunkMeta.getInt(4));
+                // Chunk contains nothing after the data page
+                Assert.assertFalse(in.hasRemaining());
+                readDataPage(page, header.getStruct(5), physicalType, dictionary, values);
+            }
+            return values;
+        }
+
+        @NotNull
+        private static ByteBuffer readPageData(@NotNull ByteBuffer in, @NotNull ThriftStruct header, int codec) throws IOException {
+            byte[] compressed = new byte[header.getInt(3)];
+            in.get(compressed);
+            byte[] page;
+            switch (codec) {
+                case 0:
+                    page = compressed;
+                    break;
+                case 1:
+                    page = decompressSnappy(compressed);
+                    break;
+                case 2:
+                    try (InputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+                        page = gzip.readAllBytes();
+                    }
+                    break;
+                default:
+                    throw new AssertionError("Unexpected codec " + codec);
+            }
+            Assert.assertEquals(header.getInt(2), page.length);
+            return ByteBuffer.wrap(page).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        private static void readDataPage(
+            @NotNull ByteBuffer page,
+            @NotNull ThriftStruct header,
+            int physicalType,
+            @Nullable List<byte[]> dictionary,
+            @NotNull List<Object> values
+        ) {
+            int rowCount = header.getInt(1);
+            int levelsLength = page.getInt();
+            ByteBuffer levelsBuffer = page.slice();
+            levelsBuffer.limit(levelsLength);
+            int[] levels = decodeRle(levelsBuffer, rowCount, 1);
+            Assert.assertFalse(levelsBuffer.hasRemaining());
+            page.position(page.position() + levelsLength);
+            int valueCount = 0;
+            for (int level : levels) {
+                valueCount += level;
+            }
+
+            Object[] pageValues = new Object[valueCount];
+            if (dictionary != null) {
+                Assert.assertEquals(ENCODING_RLE_DICTIONARY, header.getInt(2));
+                int bitWidth = page.get();
+                int[] indexes = decodeRle(page, valueCount, bitWidth);
+                for (int i = 0; i < valueCount; i++) {
+                    pageValues[i] = dictionary.get(indexes[i]);
+                }
+            } else if (physicalType == 0) {
+                Assert.assertEquals(0, header.getInt(2));
+                for (int i = 0; i < valueCount; i++) {
+                    pageValues[i] = (page.get(page.position() + i / 8) & (1 << (i % 8))) != 0;
+                }
+                page.position(page.position() + (valueCount + 7) / 8);
+            } else {
+                Assert.assertEquals(0, header.getInt(2));
+                for (int i = 0; i < valueCount; i++) {
+                    pageValues[i] = readPlainValue(page, physicalType);
+                }
+            }
+            Assert.assertFalse(page.hasRemaining());
+
+            int valueIndex = 0;
+            for (int level : levels) {
+                values.add(level == 0 ? null : pageValues[valueIndex++]);
+            }
+        }
+
+        @NotNull
+        private static Object readPlainValue(@NotNull ByteBuffer page, int physicalType) {
+            switch (physicalType) {
+                case 1:
+                    return page.getInt();
+                case 2:
+                    return page.getLong();
+                case 4:
+                    return page.getFloat();
+                case 5:
+                    return page.getDouble();
+                case 6:
+                    byte[] value = new byte[page.getInt()];
+                    page.get(value);
+                    return value;
+                default:
+                    throw new AssertionError("Unexpected physical type " + physicalType);
+            }
+        }
+    }
+
+    /**
+     * Thrift structure read with the compact protocol. Values are kept by field id.
+     */
+    private static class ThriftStruct {
+        private final Map<Integer, Object> fields = new HashMap<>();
+
+        @NotNull
+        static ThriftStruct read(@NotNull ByteBuffer in) {
+            ThriftStruct struct = new ThriftStruct();
+            int fieldId = 0;
+            while (true) {
+                int header = in.get() & 0xFF;
+                if (header == 0) {
+                    return struct;
+                }
+                int delta = header >>> 4;
+                fieldId = delta != 0 ? fieldId + delta : (int) readZigZag(in);
+                Assert.assertNull("Duplicate field " + fieldId, struct.fields.put(fieldId, readValue(in, header & 0x0F)));
+            }
+        }
+
+        @NotNull
+        private static Object readValue(@NotNull ByteBuffer in, int type) {
+            switch (type) {
+                case 1:
+                    return true;
+                case 2:
+                    return false;
+                case 3:
+                    return (int) in.get();
+                case 5:
+                    return (int) readZigZag(in);
+                case 6:
+                    return readZigZag(in);
+                case 8:
+                    byte[] bytes = new byte[(int) readVarInt(in)];
+                    in.get(bytes);
+                    return bytes;
+                case 9: {
+                    int header = in.get() & 0xFF;
+                    int size = header >>> 4 == 15 ? (int) readVarInt(in) : header >>> 4;
+                    List<Object> list = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        list.add(readValue(in, header & 0x0F));
+                    }
+                    return list;
+                }
+                case 12:
+                    return read(in);
+                default:
+                    throw new AssertionError("Unexpected Thrift type " + type);
+            }
+        }
+
+        private static long readZigZag(@NotNull ByteBuffer in) {
+            long value = readVarInt(in);
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        @Nullable
+        Object get(int fieldId) {
+            return fields.get(fieldId);
+        }
+
+        @NotNull
+        private Object getRequired(int fieldId) {
+            Object value = fields.get(fieldId);
+            Assert.assertNotNull("Field " + fieldId + " is missing", value);
+            return value;
+        }
+
+        int getInt(int fieldId) {
+            return (Integer) getRequired(fieldId);
+        }
+
+        long getLong(int fieldId) {
+            return (Long) getRequired(fieldId);
+        }
+
+        boolean getBoolean(int fieldId) {
+            return (Boolean) getRequired(fieldId);
+        }
+
+        @NotNull
+        String getString(int fieldId) {
+            return new String((byte[]) getRequired(fieldId), StandardCharsets.UTF_8);
+        }
+
+        @NotNull
+        ThriftStruct getStruct(int fieldId) {
+            return (ThriftStruct) getRequired(fieldId);
+        }
+
+        @SuppressWarnings("unchecked")
+        @NotNull
+        List<ThriftStruct> getStructList(int fieldId) {
+            return (List<ThriftStruct>) getRequired(fieldId);
+        }
+
+        @SuppressWarnings("unchecked")
+        @NotNull
+        List<Integer> getIntList(int fieldId) {
+            return (List<Integer>) getRequired(fieldId);
+        }
+    }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.utils;
+
+import org.jkiss.utils.io.BoundedPipe;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class BoundedPipeTest {
+
+    @Test
+    public void testTransferAcrossThreads() throws Exception {
+        BoundedPipe pipe = new BoundedPipe(7, 2);
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        AtomicReference<Throwable> readError = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            try (InputStream in = pipe.getInputStream()) {
+                byte[] buffer = new byte[5];
+                for (int count = in.read(buffer); count >= 0; count = in.read(buffer)) {
+                    received.write(buffer, 0, count);
+                }
+            } catch (Throwable e) {
+                readError.set(e);
+            }
+        });
+        reader.start();
+
+        StringBuilder expected = new StringBuilder();
+        try (OutputStream out = pipe.getOutputStream()) {
+            for (int i = 0; i < 1000; i++) {
+                String line = "row " + i + "\n";
+                expected.append(line);
+                out.write(line.getBytes());
+                if (i % 100 == 0) {
+                    out.write('#');
+                    expected.append('#');
+                    out.flush();
+                }
+            }
+        }
+        reader.join(10000);
+
+        Assert.assertNull(readError.get());
+        Assert.assertEquals(expected.toString(), received.toString());
+    }
+
+    @Test(expected = IOException.class)
+    public void testWriterFailsAfterAbort() throws Exception {
+        BoundedPipe pipe = new BoundedPipe(4, 1);
+        pipe.abort(new IOException("Reader failed"));
+        OutputStream out = pipe.getOutputStream();
+        for (int i = 0; i < 100; i++) {
+            out.write(i);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testReaderFailsAfterAbort() throws Exception {
+        BoundedPipe pipe = new BoundedPipe(4, 1);
+        pipe.abort(null);
+        pipe.getInputStream().read();
+    }
+}
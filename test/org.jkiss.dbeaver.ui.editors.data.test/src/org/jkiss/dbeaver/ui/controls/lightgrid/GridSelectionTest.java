@@ -0,0 +1,180 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.lightgrid;
+
+import org.jkiss.code.NotNull;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+public class GridSelectionTest {
+
+    @Test
+    public void addAndRemoveOverlaps() {
+        GridSelection selection = new GridSelection();
+        selection.addCells(0, 9, GridSelection.columnRange(0, 4));
+        selection.addCells(5, 14, GridSelection.columnRange(3, 7));
+        Assert.assertEquals(10 * 5 + 10 * 5 - 5 * 2, selection.getCellCount());
+        Assert.assertTrue(selection.contains(4, 9));
+        Assert.assertTrue(selection.contains(7, 5));
+        Assert.assertFalse(selection.contains(7, 4));
+        Assert.assertFalse(selection.contains(0, 10));
+
+        selection.removeCells(3, 11, GridSelection.columnRange(2, 5));
+        Assert.assertFalse(selection.contains(2, 3));
+        Assert.assertFalse(selection.contains(5, 11));
+        Assert.assertTrue(selection.contains(1, 3));
+        Assert.assertTrue(selection.contains(6, 11));
+        Assert.assertTrue(selection.contains(5, 12));
+        Assert.assertEquals(countCells(selection), selection.getCellCount());
+
+        // Removal of cells which aren't selected changes nothing
+        GridSelection copy = new GridSelection(selection);
+        copy.removeCells(100, 200, GridSelection.columnRange(0, 10));
+        copy.removeCells(0, 2, GridSelection.columnRange(8, 10));
+        Assert.assertEquals(selection, copy);
+
+        selection.removeCells(0, 20, GridSelection.columnRange(0, 10));
+        Assert.assertTrue(selection.isEmpty());
+        Assert.assertEquals(0, selection.getCellCount());
+        Assert.assertNull(selection.getFirstCell());
+    }
+
+    @Test
+    public void mergeAdjacentRanges() {
+        GridSelection selection = new GridSelection();
+        for (int row = 10; row >= 0; row -= 2) {
+            selection.addCells(row, row, GridSelection.columnRange(1, 3));
+        }
+        for (int row = 1; row < 10; row += 2) {
+            selection.addCells(row, row, GridSelection.columnRange(1, 3));
+        }
+        GridSelection rectangle = new GridSelection();
+        rectangle.addCells(0, 10, GridSelection.columnRange(1, 3));
+        // Ranges are merged, so selections have the same ranges
+        Assert.assertEquals(rectangle, selection);
+
+        // Cells added one by one are merged too
+        GridSelection cells = new GridSelection();
+        for (int row = 0; row <= 10; row++) {
+            for (int column = 3; column >= 1; column--) {
+                Assert.assertTrue(cells.add(new GridPos(column, row)));
+            }
+        }
+        Assert.assertFalse(cells.add(new GridPos(2, 5)));
+        Assert.assertEquals(rectangle, cells);
+
+        // Split and restored range is merged back
+        selection.removeCells(5, 5, GridSelection.columnRange(2, 2));
+        Assert.assertNotEquals(rectangle, selection);
+        selection.addCells(5, 5, GridSelection.columnRange(2, 2));
+        Assert.assertEquals(rectangle, selection);
+    }
+
+    @Test
+    public void compareNormalizedSelections() {
+        GridSelection selection1 = new GridSelection();
+        selection1.addCells(0, 4, GridSelection.columnRange(0, 1));
+        selection1.addCells(5, 9, GridSelection.columnRange(0, 1));
+        selection1.addCells(2, 2, GridSelection.columnRange(5, 5));
+
+        GridSelection selection2 = new GridSelection();
+        selection2.addCells(0, 9, GridSelection.columnRange(0, 5));
+        selection2.removeCells(0, 9, GridSelection.columnRange(2, 5));
+        selection2.add(new GridPos(5, 2));
+
+        Assert.assertEquals(selection1, selection2);
+        Assert.assertEquals(selection1.hashCode(), selection2.hashCode());
+        Assert.assertTrue(selection1.containsAll(selection2));
+
+        selection2.add(new GridPos(5, 3));
+        Assert.assertNotEquals(selection1, selection2);
+        Assert.assertTrue(selection2.containsAll(selection1));
+        Assert.assertFalse(selection1.containsAll(selection2));
+    }
+
+    @Test
+    public void iterateInPositionOrder() {
+        Random random = new Random(1);
+        GridSelection selection = new GridSelection();
+        Set<GridPos> expected = new TreeSet<>(new GridPos.PosComparator());
+        for (int i = 0; i < 200; i++) {
+            int firstRow = random.nextInt(50);
+            int lastRow = firstRow + random.nextInt(10);
+            int firstColumn = random.nextInt(20);
+            int lastColumn = firstColumn + random.nextInt(5);
+            boolean add = random.nextInt(3) != 0;
+            if (add) {
+                selection.addCells(firstRow, lastRow, GridSelection.columnRange(firstColumn, lastColumn));
+            } else {
+                selection.removeCells(firstRow, lastRow, GridSelection.columnRange(firstColumn, lastColumn));
+            }
+            for (int row = firstRow; row <= lastRow; row++) {
+                for (int column = firstColumn; column <= lastColumn; column++) {
+                    if (add) {
+                        expected.add(new GridPos(column, row));
+                    } else {
+                        expected.remove(new GridPos(column, row));
+                    }
+                }
+            }
+            Assert.assertEquals(expected.size(), selection.getCellCount());
+        }
+        Assert.assertEquals(new ArrayList<>(expected), new ArrayList<>(selection));
+        Assert.assertEquals(expected.iterator().next(), selection.getFirstCell());
+
+        Set<Integer> expectedRows = new TreeSet<>();
+        BitSet expectedColumns = new BitSet();
+        for (GridPos pos : expected) {
+            expectedRows.add(pos.row);
+            expectedColumns.set(pos.col);
+        }
+        Assert.assertEquals(new ArrayList<>(expectedRows), new ArrayList<>(selection.getRows()));
+        Assert.assertEquals(expectedRows.size(), selection.getRows().size());
+        Assert.assertEquals(expectedColumns, selection.getColumns());
+    }
+
+    @Test
+    public void selectAllInConstantTime() {
+        int rowCount = Integer.MAX_VALUE - 1;
+        GridSelection selection = new GridSelection();
+        selection.addCells(0, rowCount - 1, GridSelection.columnRange(0, 999));
+        // All cells are a single range, nothing is done per row or cell
+        Assert.assertEquals((long) rowCount * 1000, selection.getCellCount());
+        Assert.assertEquals(Integer.MAX_VALUE, selection.size());
+        Assert.assertTrue(selection.contains(999, rowCount - 1));
+        Assert.assertFalse(selection.contains(1000, 0));
+        Assert.assertTrue(selection.containsRow(rowCount / 2));
+        Assert.assertEquals(new GridPos(0, 0), selection.getFirstCell());
+
+        GridSelection copy = new GridSelection(selection);
+        copy.removeCells(rowCount / 2, rowCount / 2, GridSelection.columnRange(0, 999));
+        Assert.assertEquals((long) (rowCount - 1) * 1000, copy.getCellCount());
+        Assert.assertTrue(selection.containsAll(copy));
+        copy.addAll(selection);
+        Assert.assertEquals(selection, copy);
+    }
+
+    private static long countCells(@NotNull GridSelection selection) {
+        long count = 0;
+        for (Iterator<GridPos> iterator = selection.iterator(); iterator.hasNext(); iterator.next()) {
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.model.data.DBDValue;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class ResultSetColumnStoreTest {
+
+    @Test
+    public void readPrimitiveColumns() {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 130; i++) {
+            // Nulls are in different words of the null bitmap
+            boolean isNull = i % 7 == 3;
+            rows.add(new Object[]{
+                isNull ? null : (long) i * 1_000_000_000L,
+                isNull ? null : -i,
+                isNull ? null : i / 3.0d,
+                isNull ? null : i % 2 == 0,
+                isNull ? null : createTimestamp(i),
+                isNull ? null : BigDecimal.valueOf(i * 7L - 300, i % 4),
+                isNull ? null : "value " + (i % 5)
+            });
+        }
+        assertStoredRows(rows);
+    }
+
+    @Test
+    public void readNullColumns() {
+        List<Object[]> rows = Arrays.asList(
+            new Object[]{null, null, 1L},
+            new Object[]{null, null, null},
+            new Object[]{null, null, 3L});
+        assertStoredRows(rows);
+    }
+
+    @Test
+    public void keepMixedValueClasses() {
+        Object value = new Object();
+        List<Object[]> rows = Arrays.asList(
+            // Values of different classes aren't converted to a common type
+            new Object[]{1L, 1.5d, "a", value, Long.MAX_VALUE, (short) 1},
+            new Object[]{2, 2.5f, 1, null, Long.MIN_VALUE, null},
+            new Object[]{null, null, null, value, null, (short) 2},
+            new Object[]{(byte) 4, new BigDecimal("4.5"), "a", value, 0L, (short) 1});
+        assertStoredRows(rows);
+    }
+
+    @Test
+    public void keepWideDecimals() {
+        List<Object[]> rows = Arrays.asList(
+            new Object[]{new BigDecimal(BigInteger.ONE.shiftLeft(63), 2), BigDecimal.valueOf(Long.MAX_VALUE, 2)},
+            new Object[]{new BigDecimal("-1.5"), BigDecimal.valueOf(Long.MIN_VALUE + 1, 30)},
+            new Object[]{null, new BigDecimal("1E+10")});
+        assertStoredRows(rows);
+    }
+
+    @Test
+    public void keepUniqueStrings() {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            rows.add(new Object[]{"value " + i, i < 6 ? "same" : "value " + i, i % 3 == 0 ? null : "repeated"});
+        }
+        assertStoredRows(rows);
+    }
+
+    @Test
+    public void rejectRowsOfDifferentLength() {
+        Assert.assertNull(ResultSetColumnStore.create(Collections.emptyList()));
+        Assert.assertNull(ResultSetColumnStore.create(Arrays.asList(new Object[]{1L, 2L}, new Object[]{3L})));
+    }
+
+    @Test
+    public void releaseObjectValues() {
+        DBDValue value1 = Mockito.mock(DBDValue.class);
+        DBDValue value2 = Mockito.mock(DBDValue.class);
+        ResultSetColumnStore store = createStore(Arrays.asList(new Object[]{1L, value1}, new Object[]{2L, value2}));
+        store.releaseRow(1);
+        Mockito.verify(value2).release();
+        Mockito.verify(value1, Mockito.never()).release();
+    }
+
+    @Test
+    public void copyValuesOfEditedRow() {
+        List<Object[]> rows = Arrays.asList(
+            new Object[]{1L, "a", 10},
+            new Object[]{2L, "a", null});
+        ResultSetColumnStore store = createStore(rows);
+        ResultSetRow row = new ResultSetRow(1, store, 1);
+        ResultSetRow otherRow = new ResultSetRow(0, store, 0);
+        Assert.assertEquals(3, row.getValueCount());
+        Assert.assertEquals(2L, row.getValue(0));
+        Assert.assertNull(row.getValue(2));
+
+        // Array of values doesn't write through to the store
+        row.getValues()[0] = 5L;
+        Assert.assertEquals(2L, row.getValue(0));
+
+        // The first change copies values from the store
+        row.setValue(2, "text");
+        Assert.assertArrayEquals(new Object[]{2L, "a", "text"}, row.getValues());
+        Assert.assertSame(row.getValues(), row.getValues());
+        Assert.assertNull(store.getValue(1, 2));
+        Assert.assertArrayEquals(rows.get(0), otherRow.getValues());
+
+        row.setValue(0, null);
+        Assert.assertArrayEquals(new Object[]{null, "a", "text"}, row.getValues());
+        Assert.assertEquals(2L, store.getValue(1, 0));
+    }
+
+    @Test
+    public void moveRowValuesToStore() {
+        List<Object[]> rows = Arrays.asList(
+            new Object[]{1L, "a"},
+            new Object[]{2L, null});
+        ResultSetRow row = new ResultSetRow(1, rows.get(1));
+        Assert.assertTrue(row.moveToStore(createStore(rows), 1, rows.get(1)));
+        Assert.assertEquals(2L, row.getValue(0));
+        Assert.assertNull(row.getValue(1));
+
+        // Stored values aren't shared with the original array
+        rows.get(1)[0] = 5L;
+        Assert.assertEquals(2L, row.getValue(0));
+        row.setValue(1, "b");
+        Assert.assertArrayEquals(new Object[]{2L, "b"}, row.getValues());
+    }
+
+    @Test
+    public void keepValuesOfEditedRow() {
+        List<Object[]> rows = Arrays.asList(
+            new Object[]{1L, "a"},
+            new Object[]{2L, "b"});
+        ResultSetRow row = new ResultSetRow(0, rows.get(0));
+        // Row is edited after its values were read for the store
+        row.setValue(1, "c");
+        Assert.assertArrayEquals(new Object[]{1L, "a"}, rows.get(0));
+        Assert.assertFalse(row.moveToStore(createStore(rows), 0, rows.get(0)));
+        Assert.assertArrayEquals(new Object[]{1L, "c"}, row.getValues());
+    }
+
+    @NotNull
+    private static ResultSetColumnStore createStore(@NotNull List<Object[]> rows) {
+        ResultSetColumnStore store = ResultSetColumnStore.create(rows);
+        Assert.assertNotNull(store);
+        return store;
+    }
+
+    /**
+     * Checks that values are read from the store with the same values and classes
+     */
+    private static void assertStoredRows(@NotNull List<Object[]> rows) {
+        ResultSetColumnStore store = createStore(rows);
+        Assert.assertEquals(rows.get(0).length, store.getColumnCount());
+        for (int i = 0; i < rows.size(); i++) {
+            Object[] expected = rows.get(i);
+            Object[] values = store.getRowValues(i);
+            Assert.assertArrayEquals("Row " + i, expected, values);
+            for (int j = 0; j < expected.length; j++) {
+                Object value = store.getValue(i, j);
+                Assert.assertEquals("Row " + i + ", column " + j, expected[j], value);
+                Assert.assertEquals(
+                    "Row " + i + ", column " + j,
+                    expected[j] == null ? null : expected[j].getClass(),
+                    value == null ? null : value.getClass());
+            }
+        }
+    }
+
+    @NotNull
+    private static Timestamp createTimestamp(int index) {
+        Timestamp timestamp = new Timestamp(1_600_000_000_000L + index * 86_400_123L);
+        timestamp.setNanos(index * 1001);
+        return timestamp;
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.model.data.DBDAttributeBinding;
+import org.jkiss.dbeaver.model.data.DBDAttributeConstraint;
+import org.jkiss.dbeaver.model.runtime.DBRProgressMonitor;
+import org.jkiss.dbeaver.model.runtime.VoidProgressMonitor;
+import org.jkiss.dbeaver.model.struct.DBSAttributeBase;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+public class ResultSetRowSorterTest {
+
+    private ResultSetModel model;
+    private DBDAttributeBinding[] attributes;
+
+    @Before
+    public void init() {
+        model = Mockito.mock(ResultSetModel.class);
+        attributes = new DBDAttributeBinding[3];
+        for (int i = 0; i < attributes.length; i++) {
+            attributes[i] = Mockito.mock(DBDAttributeBinding.class);
+            Mockito.when(attributes[i].getOrdinalPosition()).thenReturn(i);
+            Mockito.when(attributes[i].getName()).thenReturn("column" + i);
+        }
+        Mockito.when(model.getAttributeBinding(ArgumentMatchers.<DBSAttributeBase>any()))
+            .thenAnswer(invocation -> invocation.getArgument(0));
+        Mockito.when(model.getCellValue(ArgumentMatchers.any(DBDAttributeBinding.class), ArgumentMatchers.any(ResultSetRow.class)))
+            .thenAnswer(invocation -> {
+                DBDAttributeBinding attribute = invocation.getArgument(0);
+                ResultSetRow row = invocation.getArgument(1);
+                return row.getValue(attribute.getOrdinalPosition());
+            });
+    }
+
+    @Test
+    public void sortLongsWithNulls() {
+        List<ResultSetRow> rows = createRows(
+            new Object[]{3L, null, null},
+            new Object[]{null, null, null},
+            new Object[]{1, null, null},
+            new Object[]{(short) 3, null, null},
+            new Object[]{-5L, null, null});
+        // Nulls are last, rows with equal keys keep the row number order
+        assertOrder(rows, sort(rows, order(0, false)), 4, 2, 0, 3, 1);
+        assertOrder(rows, sort(rows, order(0, true)), 1, 0, 3, 2, 4);
+    }
+
+    @Test
+    public void sortMixedNumbers() {
+        List<ResultSetRow> rows = createRows(
+            new Object[]{2.5d, null, null},
+            new Object[]{2, null, null},
+            new Object[]{new BigDecimal("-1.5"), null, null},
+            new Object[]{3.0f, null, null},
+            new Object[]{null, null, null});
+        assertOrder(rows, sort(rows, order(0, false)), 2, 1, 0, 3, 4);
+    }
+
+    @Test
+    public void sortByMultipleAttributes() {
+        List<ResultSetRow> rows = createRows(
+            new Object[]{"b", 1L, null},
+            new Object[]{"a", 2L, null},
+            new Object[]{"b", 3L, null},
+            new Object[]{"a", null, null},
+            new Object[]{null, 1L, null});
+        assertOrder(rows, sort(rows, order(0, false), order(1, true)), 3, 1, 2, 0, 4);
+        // Column without values doesn't change the order
+        assertOrder(rows, sort(rows, order(2, false), order(1, false)), 0, 4, 1, 2, 3);
+    }
+
+    @Test
+    public void sortMixedObjects() {
+        List<ResultSetRow> rows = createRows(
+            new Object[]{"b", null, null},
+            new Object[]{Boolean.TRUE, null, null},
+            new Object[]{null, null, null},
+            new Object[]{"a", null, null});
+        // Values of different classes are compared by their string representation
+        assertOrder(rows, sort(rows, order(0, false)), 3, 0, 1, 2);
+    }
+
+    @Test
+    public void restoreRowNumberOrder() {
+        List<ResultSetRow> rows = createRows(
+            new Object[]{1L, null, null},
+            new Object[]{2L, null, null},
+            new Object[]{3L, null, null});
+        Collections.reverse(rows);
+        ResultSetRow[] sorted = new ResultSetRowSorter(model, rows, Collections.emptyList()).sort(new VoidProgressMonitor());
+        Assert.assertNotNull(sorted);
+        for (int i = 0; i < sorted.length; i++) {
+            Assert.assertEquals(i, sorted[i].getRowNumber());
+        }
+    }
+
+    @Test
+    public void sortLargeSetInParallel() {
+        int rowCount = ResultSetRowSorter.PARALLEL_SORT_THRESHOLD + 1000;
+        Random random = new Random(1);
+        Object[][] values = new Object[rowCount][];
+        for (int i = 0; i < rowCount; i++) {
+            // Many duplicates, so the row number order of equal keys is checked too
+            values[i] = new Object[]{random.nextInt(10) == 0 ? null : (long) random.nextInt(1000), null, null};
+        }
+        List<ResultSetRow> rows = createRows(values);
+        ResultSetRow[] sorted = sort(rows, order(0, true));
+        Assert.assertNotNull(sorted);
+
+        // Descending order reverses the ascending one, so nulls go first
+        ResultSetRow[] expected = rows.toArray(new ResultSetRow[0]);
+        Comparator<ResultSetRow> byValue = Comparator.comparing(
+            row -> (Long) row.getValue(0),
+            Comparator.nullsLast(Comparator.<Long>naturalOrder()));
+        Arrays.sort(expected, byValue.reversed().thenComparing(ResultSetRow::getRowNumber));
+        Assert.assertArrayEquals(expected, sorted);
+    }
+
+    @Test
+    public void cancelSort() {
+        List<ResultSetRow> rows = createRows(
+            new Object[]{2L, null, null},
+            new Object[]{1L, null, null});
+        ResultSetRowSorter sorter = createSorter(rows, order(0, false));
+        DBRProgressMonitor monitor = Mockito.mock(DBRProgressMonitor.class);
+        Mockito.when(monitor.isCanceled()).thenReturn(true);
+        Assert.assertNull(sorter.sort(monitor));
+
+        sorter = createSorter(rows, order(0, false));
+        sorter.cancel();
+        Assert.assertNull(sorter.sort(new VoidProgressMonitor()));
+    }
+
+    @Test
+    public void checkSnapshot() {
+        List<ResultSetRow> rows = createRows(
+            new Object[]{2L, null, null},
+            new Object[]{1L, null, null});
+        ResultSetRowSorter sorter = createSorter(rows, order(0, false));
+        Assert.assertEquals(2, sorter.getRowCount());
+        Assert.assertTrue(sorter.isSnapshotOf(new ArrayList<>(rows)));
+        Assert.assertFalse(sorter.isSnapshotOf(Arrays.asList(rows.get(1), rows.get(0))));
+        Assert.assertFalse(sorter.isSnapshotOf(rows.subList(0, 1)));
+    }
+
+    @NotNull
+    private DBDAttributeConstraint order(int attribute, boolean descending) {
+        DBDAttributeConstraint constraint = new DBDAttributeConstraint(attributes[attribute]);
+        constraint.setOrderPosition(attribute + 1);
+        constraint.setOrderDescending(descending);
+        return constraint;
+    }
+
+    @NotNull
+    private ResultSetRowSorter createSorter(@NotNull List<ResultSetRow> rows, @NotNull DBDAttributeConstraint... orderConstraints) {
+        return new ResultSetRowSorter(model, rows, Arrays.asList(orderConstraints));
+    }
+
+    private ResultSetRow[] sort(@NotNull List<ResultSetRow> rows, @NotNull DBDAttributeConstraint... orderConstraints) {
+        return createSorter(rows, orderConstraints).sort(new VoidProgressMonitor());
+    }
+
+    @NotNull
+    private static List<ResultSetRow> createRows(@NotNull Object[]... values) {
+        List<ResultSetRow> rows = new ArrayList<>();
+        for (int i = 0; i < values.length; i++) {
+            rows.add(new ResultSetRow(i, values[i]));
+        }
+        return rows;
+    }
+
+    private static void assertOrder(@NotNull List<ResultSetRow> rows, ResultSetRow[] sorted, int... expectedRows) {
+        Assert.assertNotNull(sorted);
+        Assert.assertEquals(expectedRows.length, sorted.length);
+        for (int i = 0; i < expectedRows.length; i++) {
+            Assert.assertSame("Row " + i, rows.get(expectedRows[i]), sorted[i]);
+        }
+    }
+}
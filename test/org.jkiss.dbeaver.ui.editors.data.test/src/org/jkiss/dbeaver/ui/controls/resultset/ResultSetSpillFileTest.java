@@ -0,0 +1,223 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.controls.resultset;
+
+import org.jkiss.code.NotNull;
+import org.jkiss.dbeaver.model.impl.data.DBDValueError;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+public class ResultSetSpillFileTest {
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void readAllValueTypes() throws IOException {
+        Timestamp timestamp = Timestamp.valueOf("2023-01-02 03:04:05.123456789");
+        Object[] row = {
+            1L, 2, (short) 3, (byte) 4, 5.5d, 6.5f, true, false, "text", new BigDecimal("-123.456"),
+            new BigInteger("123456789012345678901234567890"), timestamp, java.sql.Date.valueOf("2023-01-02"),
+            Time.valueOf("03:04:05"), new Date(1000), new byte[]{1, 2, 3}, null, ""
+        };
+        ResultSetSpillFile spillFile = new ResultSetSpillFile(tempFolder.getRoot().toPath(), row.length, 2);
+        try {
+            Assert.assertTrue(spillFile.canSpill(row));
+            Assert.assertEquals(0, spillFile.appendRows(Collections.singletonList(row)));
+            Assert.assertEquals(1, spillFile.getRowCount());
+
+            Object[] values = spillFile.getRowValues(0);
+            Assert.assertArrayEquals(row, values);
+            for (int i = 0; i < row.length; i++) {
+                Assert.assertEquals(row[i] == null ? null : row[i].getClass(), values[i] == null ? null : values[i].getClass());
+            }
+            Assert.assertEquals(timestamp.getNanos(), ((Timestamp) values[11]).getNanos());
+            Assert.assertEquals("text", spillFile.getValue(0, 8));
+        } finally {
+            spillFile.close();
+        }
+    }
+
+    @Test
+    public void rejectUnsupportedValues() throws IOException {
+        ResultSetSpillFile spillFile = new ResultSetSpillFile(tempFolder.getRoot().toPath(), 2, 2);
+        try {
+            Assert.assertTrue(spillFile.canSpill(new Object[]{null, null}));
+            Assert.assertFalse(spillFile.canSpill(new Object[]{1, new Object()}));
+            Assert.assertFalse(spillFile.canSpill(new Object[]{1, new StringBuilder("text")}));
+            // Wrong column count
+            Assert.assertFalse(spillFile.canSpill(new Object[]{1}));
+            try {
+                spillFile.appendRows(Collections.singletonList(new Object[]{1, new Object()}));
+                Assert.fail("Unsupported value must fail");
+            } catch (IOException e) {
+                // Expected
+            }
+            // Failed append doesn't corrupt the file
+            Assert.assertEquals(0, spillFile.getRowCount());
+            Assert.assertEquals(0, spillFile.appendRows(Collections.singletonList(new Object[]{1, "a"})));
+            Assert.assertArrayEquals(new Object[]{1, "a"}, spillFile.getRowValues(0));
+        } finally {
+            spillFile.close();
+        }
+    }
+
+    @Test
+    public void readRowsOfManyPages() throws IOException {
+        int rowCount = 2000;
+        // Only two pages are cached, so reads in different order evict and reload pages
+        ResultSetSpillFile spillFile = new ResultSetSpillFile(tempFolder.getRoot().toPath(), 3, 2);
+        try {
+            // Batches are not aligned with pages
+            for (int i = 0; i < rowCount; i += 300) {
+                int firstRow = spillFile.appendRows(createRows(i, Math.min(i + 300, rowCount)));
+                Assert.assertEquals(i, firstRow);
+            }
+            Assert.assertEquals(rowCount, spillFile.getRowCount());
+
+            for (int i = 0; i < rowCount; i++) {
+                assertRow(spillFile, i);
+            }
+            for (int i = rowCount - 1; i >= 0; i -= 7) {
+                assertRow(spillFile, i);
+            }
+            for (int i = 0; i < rowCount; i += 500) {
+                assertRow(spillFile, rowCount - 1 - i);
+                assertRow(spillFile, i);
+            }
+        } finally {
+            spillFile.close();
+        }
+    }
+
+    @Test
+    public void readRowsOfIncompletePage() throws IOException {
+        ResultSetSpillFile spillFile = new ResultSetSpillFile(tempFolder.getRoot().toPath(), 3, 2);
+        try {
+            spillFile.appendRows(createRows(0, 10));
+            // The last page is cached while it is incomplete
+            assertRow(spillFile, 9);
+            spillFile.appendRows(createRows(10, 20));
+            for (int i = 0; i < 20; i++) {
+                assertRow(spillFile, i);
+            }
+        } finally {
+            spillFile.close();
+        }
+    }
+
+    @Test
+    public void readLargeValues() throws IOException {
+        // Values are bigger than the write buffer
+        char[] chars = new char[700 * 1024];
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Arrays.fill(chars, (char) ('a' + i));
+            rows.add(new Object[]{i, new String(chars)});
+        }
+        ResultSetSpillFile spillFile = new ResultSetSpillFile(tempFolder.getRoot().toPath(), 2, 2);
+        try {
+            spillFile.appendRows(rows);
+            for (int i = rows.size() - 1; i >= 0; i--) {
+                Assert.assertArrayEquals(rows.get(i), spillFile.getRowValues(i));
+            }
+        } finally {
+            spillFile.close();
+        }
+    }
+
+    @Test
+    public void deleteFileOnClose() throws IOException {
+        ResultSetSpillFile spillFile = new ResultSetSpillFile(tempFolder.getRoot().toPath(), 3, 2);
+        spillFile.appendRows(createRows(0, 10));
+        assertRow(spillFile, 0);
+
+        spillFile.close();
+        File[] files = tempFolder.getRoot().listFiles();
+        Assert.assertNotNull(files);
+        Assert.assertEquals(0, files.length);
+        // Values of closed file can't be read
+        Assert.assertTrue(spillFile.getValue(0, 0) instanceof DBDValueError);
+    }
+
+    @Test
+    public void copyMutableValues() throws IOException {
+        Timestamp timestamp = Timestamp.valueOf("2023-01-02 03:04:05.123456789");
+        Object[] row = {timestamp, new Date(1000), new byte[]{1, 2, 3}};
+        ResultSetSpillFile spillFile = new ResultSetSpillFile(tempFolder.getRoot().toPath(), row.length, 2);
+        try {
+            spillFile.appendRows(Collections.singletonList(row));
+            // Change values read from the cached page
+            ((Timestamp) spillFile.getValue(0, 0)).setNanos(0);
+            ((Date) spillFile.getRowValues(0)[1]).setTime(0);
+            ((byte[]) spillFile.getValue(0, 2))[0] = 5;
+            Assert.assertArrayEquals(row, spillFile.getRowValues(0));
+            Assert.assertEquals(timestamp.getNanos(), ((Timestamp) spillFile.getValue(0, 0)).getNanos());
+            Assert.assertNotSame(spillFile.getValue(0, 1), spillFile.getValue(0, 1));
+        } finally {
+            spillFile.close();
+        }
+    }
+
+    @Test
+    public void keepFileOpenForReaders() throws IOException {
+        ResultSetSpillFile spillFile = new ResultSetSpillFile(tempFolder.getRoot().toPath(), 3, 2);
+        spillFile.appendRows(createRows(0, 10));
+        Assert.assertTrue(spillFile.acquire());
+        Assert.assertTrue(spillFile.acquire());
+
+        spillFile.close();
+        Assert.assertFalse(spillFile.acquire());
+        spillFile.release();
+        assertRow(spillFile, 5);
+
+        // The last reader closes the file
+        spillFile.release();
+        Assert.assertTrue(spillFile.getValue(0, 0) instanceof DBDValueError);
+        File[] files = tempFolder.getRoot().listFiles();
+        Assert.assertNotNull(files);
+        Assert.assertEquals(0, files.length);
+    }
+
+    @NotNull
+    private static List<Object[]> createRows(int from, int to) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            rows.add(new Object[]{(long) i, "row " + i, i % 3 == 0 ? null : BigDecimal.valueOf(i, 2)});
+        }
+        return rows;
+    }
+
+    private static void assertRow(@NotNull ResultSetSpillFile spillFile, int row) {
+        Assert.assertEquals((long) row, spillFile.getValue(row, 0));
+        Assert.assertArrayEquals(createRows(row, row + 1).get(0), spillFile.getRowValues(row));
+    }
+}
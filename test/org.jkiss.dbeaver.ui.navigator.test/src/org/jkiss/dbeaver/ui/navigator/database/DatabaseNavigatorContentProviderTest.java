@@ -0,0 +1,70 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.navigator.database;
+
+import org.jkiss.dbeaver.model.navigator.DBNNode;
+import org.jkiss.dbeaver.ui.navigator.database.load.TreeNodeLazyExpander;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class DatabaseNavigatorContentProviderTest {
+
+    private static final int PAGE_SIZE = 10;
+
+    private final DBNNode parentNode = Mockito.mock(DBNNode.class);
+
+    @Test
+    public void keepShortLists() {
+        DBNNode[] children = makeChildren(PAGE_SIZE);
+        Assert.assertSame(children, DatabaseNavigatorContentProvider.getFirstPage(parentNode, children, PAGE_SIZE));
+    }
+
+    @Test
+    public void pageLongLists() {
+        DBNNode[] children = makeChildren(PAGE_SIZE * 2 + 5);
+        Object[] page = DatabaseNavigatorContentProvider.getFirstPage(parentNode, children, PAGE_SIZE);
+
+        Assert.assertEquals(PAGE_SIZE + 1, page.length);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            Assert.assertSame(children[i], page[i]);
+        }
+        Assert.assertTrue(page[PAGE_SIZE] instanceof TreeNodeLazyExpander);
+        TreeNodeLazyExpander expander = (TreeNodeLazyExpander) page[PAGE_SIZE];
+        Assert.assertSame(parentNode, expander.getParent());
+        Assert.assertEquals(PAGE_SIZE, expander.getVisibleChildren());
+        Assert.assertEquals("More ... (10/25)", expander.getText(expander));
+    }
+
+    @Test
+    public void pageListOfOneMoreChild() {
+        DBNNode[] children = makeChildren(PAGE_SIZE + 1);
+        Object[] page = DatabaseNavigatorContentProvider.getFirstPage(parentNode, children, PAGE_SIZE);
+
+        Assert.assertEquals(PAGE_SIZE + 1, page.length);
+        Assert.assertTrue(page[PAGE_SIZE] instanceof TreeNodeLazyExpander);
+        Assert.assertEquals("More ... (10/11)", ((TreeNodeLazyExpander) page[PAGE_SIZE]).getText(null));
+    }
+
+    private static DBNNode[] makeChildren(int count) {
+        DBNNode[] children = new DBNNode[count];
+        for (int i = 0; i < count; i++) {
+            children[i] = Mockito.mock(DBNNode.class);
+        }
+        return children;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * DBeaver - Universal Database Manager
+ * Copyright (C) 2010-2023 DBeaver Corp and others
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jkiss.dbeaver.ui.navigator.database;
+
+import org.jkiss.dbeaver.DBException;
+import org.jkiss.dbeaver.model.DBPDataSourceContainer;
+import org.jkiss.dbeaver.model.struct.DBSEntity;
+import org.jkiss.dbeaver.model.struct.DBSObject;
+import org.jkiss.dbeaver.model.struct.rdb.DBSCatalog;
+import org.jkiss.dbeaver.model.struct.rdb.DBSProcedure;
+import org.jkiss.dbeaver.model.struct.rdb.DBSSchema;
+import org.jkiss.dbeaver.model.struct.rdb.DBSTable;
+import org.jkiss.dbeaver.model.struct.rdb.DBSTableIndex;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+public class DatabaseNavigatorTreeFilterObjectTypeTest {
+
+    private final DBPDataSourceContainer dataSource = Mockito.mock(DBPDataSourceContainer.class);
+    private final DBSEntity table = Mockito.mock(DBSTable.class);
+    private final DBSProcedure procedure = Mockito.mock(DBSProcedure.class);
+    private final DBSTableIndex index = Mockito.mock(DBSTableIndex.class);
+    private final DBSObject otherObject = Mockito.mock(DBSObject.class);
+
+    @Test
+    public void matchConnections() throws DBException {
+        DatabaseNavigatorTreeFilterObjectType type = DatabaseNavigatorTreeFilterObjectType.connection;
+        Assert.assertTrue(type.isMatchedObject(dataSource));
+        Assert.assertFalse(type.isMatchedObject(makeSchema(DBSTable.class)));
+        Assert.assertFalse(type.isMatchedObject(table));
+        Assert.assertFalse(type.isMatchedObject(null));
+    }
+
+    @Test
+    public void matchContainers() throws DBException {
+        DatabaseNavigatorTreeFilterObjectType type = DatabaseNavigatorTreeFilterObjectType.container;
+        Assert.assertTrue(type.isMatchedObject(makeSchema(DBSTable.class)));
+        // Catalogs of schemas are shown, so schemas can be matched
+        DBSCatalog catalog = Mockito.mock(DBSCatalog.class);
+        Mockito.doReturn(DBSSchema.class).when(catalog).getPrimaryChildType(ArgumentMatchers.any());
+        Assert.assertFalse(type.isMatchedObject(catalog));
+        // Container which can't tell its children type is matched
+        DBSSchema brokenSchema = Mockito.mock(DBSSchema.class);
+        Mockito.when(brokenSchema.getPrimaryChildType(ArgumentMatchers.any())).thenThrow(new DBException("Not connected"));
+        Assert.assertTrue(type.isMatchedObject(brokenSchema));
+
+        Assert.assertFalse(type.isMatchedObject(dataSource));
+        Assert.assertFalse(type.isMatchedObject(table));
+    }
+
+    @Test
+    public void matchObjects() throws DBException {
+        DatabaseNavigatorTreeFilterObjectType type = DatabaseNavigatorTreeFilterObjectType.table;
+        Assert.assertTrue(type.isMatchedObject(table));
+        Assert.assertTrue(type.isMatchedObject(procedure));
+        Assert.assertTrue(type.isMatchedObject(index));
+        // Containers and other objects are shown with all their matched children
+        Assert.assertFalse(type.isMatchedObject(makeSchema(DBSTable.class)));
+        Assert.assertFalse(type.isMatchedObject(dataSource));
+        Assert.assertFalse(type.isMatchedObject(otherObject));
+    }
+
+    private static DBSSchema makeSchema(Class<? extends DBSObject> childType) throws DBException {
+        DBSSchema schema = Mockito.mock(DBSSchema.class);
+        Mockito.doReturn(childType).when(schema).getPrimaryChildType(ArgumentMatchers.any());
+        return schema;
+    }
+}